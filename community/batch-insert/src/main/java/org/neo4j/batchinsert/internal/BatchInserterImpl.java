@@ -637,6 +637,8 @@ public class BatchInserterImpl implements BatchInserter
         {
             countsStore.start( PageCursorTracer.NULL, memoryTracker );
         }
+        // The degrees store, if there is one, hasn't seen the inserted relationships. Removing it makes the database rebuild it when opened
+        fileSystem.deleteFile( databaseLayout.degreesStore().toFile() );
     }
 
     private void createEmptyTransactionLog()
@@ -39,6 +39,8 @@ public interface Command extends Callable<Integer>
         SET_DEFAULT_ADMIN,
         SET_INITIAL_PASSWORD,
         SET_OPERATOR_PASSWORD,
-        DUMP
+        DUMP,
+        COMPACT_STORE,
+        CONVERT_CSV
     }
 }
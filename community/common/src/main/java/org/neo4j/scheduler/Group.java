@@ -34,12 +34,16 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
+    /* Page cache profiling and warmup. */
+    PAGE_CACHE_WARMER( "PageCacheWarmer" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher", ExecutorServiceFactory.unschedulable() ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
     VM_PAUSE_MONITOR( "VmPauseMonitor" ),
     /** Rotates diagnostic text logs. */
     LOG_ROTATION( "LogRotation" ),
+    /** Appends and forces committed transactions to the transaction log, when a dedicated log writer is used. */
+    LOG_WRITER( "LogWriter" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
@@ -48,12 +52,18 @@ public enum Group
     INDEX_CLEANUP( "IndexCleanup" ),
     /** Index recovery cleanup work. */
     INDEX_CLEANUP_WORK( "IndexCleanupWork" ),
+    /** Concurrent application of independent transactions during recovery. */
+    RECOVERY_WORK( "RecoveryWork" ),
+    /** Concurrent application of counts and token index updates of committed transactions. */
+    STORAGE_APPLY( "StorageApply" ),
     /** Terminates kernel transactions that have timed out. */
     TRANSACTION_TIMEOUT_MONITOR( "TransactionTimeoutMonitor" ),
     /** Background index population. */
     INDEX_POPULATION( "IndexPopulationMain" ),
     /** Background index population work. */
     INDEX_POPULATION_WORK( "IndexPopulationWork", ExecutorServiceFactory.fixedWithBackPressure() ),
+    /** Store scan workers of a background index population. */
+    INDEX_POPULATION_SCAN( "IndexPopulationScan" ),
     /** Background index sampling */
     INDEX_SAMPLING( "IndexSampling" ),
     /** Background index update applier, for eventually consistent indexes. */
@@ -24,6 +24,7 @@ import java.util.concurrent.CountDownLatch;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCachePartitioning;
 import org.neo4j.io.pagecache.PageCacheTestSupport;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.buffer.IOBufferFactory;
@@ -36,6 +37,7 @@ import org.neo4j.time.Clocks;
 public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnPageCache>
 {
     CountDownLatch backgroundFlushLatch;
+    PageCachePartitioning partitioning = PageCachePartitioning.NONE;
     private MemoryAllocator allocator;
 
     @Override
@@ -46,7 +48,8 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
         var memoryTracker = new LocalMemoryTracker();
         allocator = MemoryAllocator.createAllocator( memory, memoryTracker );
         var usedBufferFactory = selectBufferFactory( bufferFactory, memoryTracker );
-        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker, usedBufferFactory );
+        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker, usedBufferFactory,
+                partitioning );
     }
 
     private static IOBufferFactory selectBufferFactory( IOBufferFactory bufferFactory, LocalMemoryTracker memoryTracker )
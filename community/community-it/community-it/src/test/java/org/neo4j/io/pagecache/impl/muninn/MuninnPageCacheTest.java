@@ -29,6 +29,7 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -47,6 +48,8 @@ import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.io.pagecache.DelegatingPageSwapper;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCachePartitioning;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
@@ -54,6 +57,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -61,14 +65,18 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 import org.neo4j.memory.ScopedMemoryTracker;
+import org.neo4j.util.FeatureToggles;
 
 import static java.time.Duration.ofMillis;
+import static java.util.Collections.emptyMap;
+import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -80,9 +88,11 @@ import static org.junit.jupiter.api.Assumptions.assumeFalse;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_buffered_flush_enabled;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_flush_buffer_size_in_pages;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
@@ -1321,6 +1331,216 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void pageFaultsInFullPartitionMustEvictPagesOfThatPartition()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            int partitionPages = 40;
+            fixture.partitioning = new PageCachePartitioning( emptyMap(), Map.of( "db", (long) partitionPages * PageCache.PAGE_SIZE ), path -> null );
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            getPageCache( fs, 100, tracer );
+            PageCachePartitionCounters partition = tracer.partitions().get( 0 );
+            assertThat( partition.name() ).isEqualTo( "db" );
+            assertThat( partition.maxPages() ).isEqualTo( partitionPages );
+
+            int filePages = 200;
+            try ( PagedFile pagedFile = pageCache.map( file( "a" ), EMPTY, filePageSize, immutable.empty(), "db" );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < filePages; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                    assertThat( partition.residentPages() ).isLessThanOrEqualTo( partitionPages );
+                }
+            }
+            assertThat( partition.faults() ).isEqualTo( filePages );
+            assertThat( partition.evictions() ).isGreaterThanOrEqualTo( filePages - partitionPages );
+        } );
+    }
+
+    @Test
+    void reservedPagesMustNotBeEvictedInFavourOfOtherFiles()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            int reservedPages = 40;
+            fixture.partitioning = new PageCachePartitioning( Map.of( "db", (long) reservedPages * PageCache.PAGE_SIZE ), emptyMap(), path -> null );
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            getPageCache( fs, 100, tracer );
+            PageCachePartitionCounters partition = tracer.partitions().get( 0 );
+
+            int reservedFilePages = 30;
+            try ( PagedFile reservedFile = pageCache.map( file( "a" ), EMPTY, filePageSize, immutable.empty(), "db" );
+                  PagedFile otherFile = map( pageCache, existingFile( "b" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = reservedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < reservedFilePages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                for ( int round = 0; round < 3; round++ )
+                {
+                    try ( PageCursor cursor = otherFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        for ( int i = 0; i < 500; i++ )
+                        {
+                            assertTrue( cursor.next() );
+                            cursor.putLong( i );
+                        }
+                    }
+                }
+
+                assertThat( partition.residentPages() ).isEqualTo( reservedFilePages );
+                assertThat( partition.evictions() ).isZero();
+                try ( PageCursor cursor = reservedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+                {
+                    for ( int i = 0; i < reservedFilePages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        assertThat( cursor.getCurrentPageId() ).isEqualTo( i );
+                    }
+                }
+            }
+        } );
+    }
+
+    @Test
+    void stripedEvictionMustEvictPagesInAllStripes()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            FeatureToggles.set( MuninnPageCache.class, "evictionStripes", 4 );
+            FeatureToggles.set( MuninnPageCache.class, "minimumPagesPerEvictionStripe", 10 );
+            try
+            {
+                DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+                int cachePages = 40;
+                int filePages = cachePages * 10;
+                getPageCache( fs, cachePages, tracer );
+                assertThat( tracer.evictionStripes() ).isEqualTo( 4 );
+
+                try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+                {
+                    try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        for ( int i = 0; i < filePages; i++ )
+                        {
+                            assertTrue( cursor.next() );
+                            cursor.putLong( i );
+                        }
+                    }
+
+                    // Keep faulting until every background evictor has had to replenish its freelist.
+                    boolean allStripesEvicted;
+                    do
+                    {
+                        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+                        {
+                            for ( int i = 0; i < filePages; i++ )
+                            {
+                                assertTrue( cursor.next() );
+                                long value;
+                                do
+                                {
+                                    value = cursor.getLong( 0 );
+                                }
+                                while ( cursor.shouldRetry() );
+                                assertThat( value ).isEqualTo( i );
+                            }
+                        }
+                        allStripesEvicted = true;
+                        for ( int stripe = 0; stripe < tracer.evictionStripes(); stripe++ )
+                        {
+                            allStripesEvicted &= tracer.stripeEvictions( stripe ) > 0;
+                        }
+                    }
+                    while ( !allStripesEvicted );
+                }
+            }
+            finally
+            {
+                FeatureToggles.clear( MuninnPageCache.class, "evictionStripes" );
+                FeatureToggles.clear( MuninnPageCache.class, "minimumPagesPerEvictionStripe" );
+            }
+        } );
+    }
+
+    @Test
+    void readAheadMustFaultInAllPagesInRangeThatAreNotInMemory() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        getPageCache( fs, maxPages, tracer );
+        int filePages = 10;
+        Path file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * filePages, recordSize );
+
+        try ( PagedFile pagedFile = map( pageCache, file, filePageSize );
+              PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "readAhead" ) )
+        {
+            // Fault in one page in the middle of the range the normal way, so the read-ahead has to read around it.
+            try ( PageCursor cursor = pagedFile.io( 3, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            int covered = ((MuninnPagedFile) pagedFile).readAhead( 0, filePages + 2, false, cursorTracer );
+            assertThat( covered ).isEqualTo( filePages );
+            assertThat( cursorTracer.faults() ).isEqualTo( filePages - 1 );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+            {
+                for ( int pageId = 0; pageId < filePages; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertThat( cursor.getCurrentPageId() ).as( "page in memory" ).isEqualTo( pageId );
+                    verifyRecordsMatchExpected( cursor );
+                }
+            }
+            assertThat( ((MuninnPagedFile) pagedFile).readAhead( filePages, 1, false, cursorTracer ) ).isEqualTo( 0 );
+        }
+    }
+
+    @Test
+    void transientReadCursorsMustEvictPagesTheyFaultedInOnceTheyMoveOn() throws IOException
+    {
+        getPageCache( fs, maxPages, PageCacheTracer.NULL );
+        int filePages = 10;
+        Path file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * filePages, recordSize );
+
+        try ( PagedFile pagedFile = map( pageCache, file, filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 3, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_TRANSIENT, NULL ) )
+            {
+                for ( int pageId = 0; pageId < filePages; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+            }
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+            {
+                for ( int pageId = 0; pageId < filePages; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    long expectedPageId = pageId == 3 ? 3 : PageCursor.UNBOUND_PAGE_ID;
+                    assertThat( cursor.getCurrentPageId() ).as( "page " + pageId + " in memory" ).isEqualTo( expectedPageId );
+                }
+            }
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -111,6 +111,28 @@ public class DefaultPageCacheTracerTest
         assertCounts( 0, 0, 0, 0, 4, 2, 13, 0, 0, 36, 0, 0,  0d);
     }
 
+    @Test
+    void mustCountEvictionsPerStripe()
+    {
+        tracer.evictionStripes( 3 );
+        assertEquals( 3, tracer.evictionStripes() );
+
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 0, 1 ) )
+        {
+            evictionRunEvent.beginEviction().close();
+        }
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 2, 2 ) )
+        {
+            evictionRunEvent.beginEviction().close();
+            evictionRunEvent.beginEviction().close();
+        }
+
+        assertEquals( 1, tracer.stripeEvictions( 0 ) );
+        assertEquals( 0, tracer.stripeEvictions( 1 ) );
+        assertEquals( 2, tracer.stripeEvictions( 2 ) );
+        assertEquals( 3, tracer.evictions() );
+    }
+
     @Test
     void mustCountFileMappingAndUnmapping()
     {
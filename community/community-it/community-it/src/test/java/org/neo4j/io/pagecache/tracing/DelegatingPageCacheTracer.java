@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -62,6 +64,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.beginFileFlush( swapper );
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict )
+    {
+        return delegate.beginPageEvictions( stripe, pageCountToEvict );
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -110,6 +118,42 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( path );
     }
 
+    @Override
+    public int evictionStripes()
+    {
+        return delegate.evictionStripes();
+    }
+
+    @Override
+    public long stripeEvictions( int stripe )
+    {
+        return delegate.stripeEvictions( stripe );
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return delegate.readAheadHits();
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return delegate.readAheadMisses();
+    }
+
+    @Override
+    public long wastedReadAheads()
+    {
+        return delegate.wastedReadAheads();
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return delegate.partitions();
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -223,4 +267,34 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
     {
         return delegate.evictions();
     }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+        delegate.readAheadHits( hits );
+    }
+
+    @Override
+    public void readAheadMisses( long misses )
+    {
+        delegate.readAheadMisses( misses );
+    }
+
+    @Override
+    public void wastedReadAheads( long wasted )
+    {
+        delegate.wastedReadAheads( wasted );
+    }
+
+    @Override
+    public void evictionStripes( int stripes )
+    {
+        delegate.evictionStripes( stripes );
+    }
+
+    @Override
+    public void partitions( List<? extends PageCachePartitionCounters> partitions )
+    {
+        delegate.partitions( partitions );
+    }
 }
@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.nio.file.Path;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -67,6 +69,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         tracer.add( new UnmappedFileHEvent( path ) );
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict )
+    {
+        return beginPageEvictions( pageCountToEvict );
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -151,6 +159,42 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public int evictionStripes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long stripeEvictions( int stripe )
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long wastedReadAheads()
+    {
+        return 0;
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return List.of();
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -223,4 +267,29 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadMisses( long misses )
+    {
+    }
+
+    @Override
+    public void wastedReadAheads( long wasted )
+    {
+    }
+
+    @Override
+    public void evictionStripes( int stripes )
+    {
+    }
+
+    @Override
+    public void partitions( List<? extends PageCachePartitionCounters> partitions )
+    {
+    }
 }
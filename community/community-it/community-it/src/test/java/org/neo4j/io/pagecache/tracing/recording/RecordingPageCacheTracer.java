@@ -21,9 +21,11 @@ package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -60,6 +62,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         // we currently do not record these
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict )
+    {
+        return beginPageEvictions( pageCountToEvict );
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -156,6 +164,42 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public int evictionStripes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long stripeEvictions( int stripe )
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long wastedReadAheads()
+    {
+        return 0;
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return List.of();
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -285,4 +329,29 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
             evicted( filePageId, swapper );
         }
     }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadMisses( long misses )
+    {
+    }
+
+    @Override
+    public void wastedReadAheads( long wasted )
+    {
+    }
+
+    @Override
+    public void evictionStripes( int stripes )
+    {
+    }
+
+    @Override
+    public void partitions( List<? extends PageCachePartitionCounters> partitions )
+    {
+    }
 }
@@ -51,6 +51,8 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.internal.counts.DegreesBuilder;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.helpers.Strings;
 import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
 import org.neo4j.internal.recordstorage.RecordStorageCommandReaderFactory;
@@ -58,8 +60,10 @@ import org.neo4j.internal.recordstorage.RecordStorageEngine;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.FileUtils;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -81,10 +85,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.degrees_store_enabled;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.SchemaIndex.NATIVE30;
 import static org.neo4j.configuration.GraphDatabaseSettings.SchemaIndex.NATIVE_BTREE10;
 import static org.neo4j.configuration.GraphDatabaseSettings.record_format;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 import static org.neo4j.test.mockito.mock.Property.property;
@@ -334,6 +340,58 @@ public class ConsistencyCheckServiceIntegrationTest
         assertTrue( result.isSuccessful() );
     }
 
+    @Test
+    void shouldSucceedWithConsistentDegreesStore() throws Exception
+    {
+        // given
+        createRelationshipsWithDegreesStore();
+
+        // when
+        Result result = runFullConsistencyCheck( new ConsistencyCheckService(), Config.defaults( settings() ), databaseLayout );
+
+        // then
+        assertTrue( result.isSuccessful() );
+    }
+
+    @Test
+    void shouldReportInconsistentDegreesStore() throws Exception
+    {
+        // given
+        createRelationshipsWithDegreesStore();
+        try ( GBPTreeDegreesStore degreesStore = new GBPTreeDegreesStore( pageCache, databaseLayout.degreesStore().toFile(), fs, immediate(),
+                DegreesBuilder.EMPTY, false, PageCacheTracer.NULL, GBPTreeDegreesStore.NO_MONITOR ) )
+        {
+            degreesStore.start( NULL, INSTANCE );
+            try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( degreesStore.txId() + 1, NULL ) )
+            {
+                updater.incrementRelationship( 0, 0, 1, 1 );
+            }
+            degreesStore.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        // when
+        Result result = runFullConsistencyCheck( new ConsistencyCheckService(), Config.defaults( settings() ), databaseLayout );
+
+        // then
+        assertFalse( result.isSuccessful() );
+        assertEquals( 2, result.summary().getInconsistencyCountForRecordType( RecordType.DEGREES ) );
+    }
+
+    private void createRelationshipsWithDegreesStore()
+    {
+        GraphDatabaseService db = getGraphDatabaseService( testDirectory.homePath(), Map.of( degrees_store_enabled, true ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node a = tx.createNode();
+            Node b = tx.createNode();
+            a.createRelationshipTo( b, RelationshipType.withName( "R" ) );
+            a.createRelationshipTo( b, RelationshipType.withName( "R" ) );
+            b.createRelationshipTo( b, RelationshipType.withName( "S" ) );
+            tx.commit();
+        }
+        managementService.shutdown();
+    }
+
     private static void createIndex( GraphDatabaseService gds, Label label, String propKey )
     {
         try ( Transaction tx = gds.beginTx() )
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.Config;
+import org.neo4j.consistency.ConsistencyCheckService;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.internal.locker.DatabaseLocker;
+import org.neo4j.kernel.internal.locker.Locker;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.configuration.GraphDatabaseSettings.dense_node_threshold;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+@Neo4jLayoutExtension
+@ExtendWith( RandomExtension.class )
+class CompactStoreCommandIT
+{
+    private static final String DATABASE_NAME = "mydb";
+    private static final RelationshipType[] TYPES =
+            {RelationshipType.withName( "A" ), RelationshipType.withName( "B" ), RelationshipType.withName( "C" )};
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private Neo4jLayout neo4jLayout;
+    @Inject
+    private RandomRule random;
+    private DatabaseLayout databaseLayout;
+    private Path homeDir;
+    private Path confPath;
+
+    @BeforeEach
+    void setUp()
+    {
+        homeDir = testDirectory.homePath();
+        confPath = testDirectory.directory( "conf" ).toPath();
+        databaseLayout = neo4jLayout.databaseLayout( DATABASE_NAME );
+    }
+
+    @Test
+    void printUsageHelp()
+    {
+        var baos = new ByteArrayOutputStream();
+        var command = new CompactStoreCommand( new ExecutionContext( Path.of( "." ), Path.of( "." ) ) );
+        try ( var out = new PrintStream( baos ) )
+        {
+            CommandLine.usage( command, new PrintStream( out ) );
+        }
+        assertThat( baos.toString().trim() ).startsWith( String.format(
+                "Compact the record stores of a database.%n" +
+                "%n" +
+                "USAGE%n" +
+                "%n" +
+                "compact-store [--verbose] [--database=<database>] [--traversal-sample=<nodes>]" ) );
+    }
+
+    @Test
+    void shouldCompactStoreKeepingGraphIntact() throws Exception
+    {
+        // given
+        Map<Long,Map<String,Value>> nodesBefore;
+        Map<Long,List<Object>> relationshipsBefore;
+        DatabaseManagementService managementService = newManagementService();
+        try
+        {
+            GraphDatabaseService db = managementService.database( DATABASE_NAME );
+            createScatteredGraphWithDeletions( db );
+            nodesBefore = nodes( db );
+            relationshipsBefore = relationships( db );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+        long propertyStoreSizeBefore = testDirectory.getFileSystem().getFileSize( databaseLayout.propertyStore().toFile() );
+
+        // when
+        String output = execute( "--database=" + DATABASE_NAME );
+
+        // then
+        long faultsBefore = parseFaults( output, "before" );
+        long faultsAfter = parseFaults( output, "after" );
+        assertThat( faultsAfter ).isLessThanOrEqualTo( faultsBefore );
+        assertThat( testDirectory.getFileSystem().getFileSize( databaseLayout.propertyStore().toFile() ) ).isLessThan( propertyStoreSizeBefore );
+        ConsistencyCheckService.Result result = new ConsistencyCheckService().runFullConsistencyCheck( databaseLayout, Config.defaults(),
+                ProgressMonitorFactory.NONE, NullLogProvider.getInstance(), false );
+        assertTrue( result.isSuccessful() );
+        assertChainsAreSequential();
+
+        managementService = newManagementService();
+        try
+        {
+            GraphDatabaseService db = managementService.database( DATABASE_NAME );
+            assertEquals( nodesBefore, nodes( db ) );
+            assertEquals( relationshipsBefore, relationships( db ) );
+
+            // and the store is still writable, with ids handed out from the rebuilt id files
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.createNode();
+                node.setProperty( "name", "new" );
+                node.createRelationshipTo( tx.createNode(), TYPES[0] ).setProperty( "weight", 1 );
+                tx.commit();
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+        assertTrue( new ConsistencyCheckService().runFullConsistencyCheck( databaseLayout, Config.defaults(),
+                ProgressMonitorFactory.NONE, NullLogProvider.getInstance(), false ).isSuccessful() );
+    }
+
+    @Test
+    void shouldFailIfDatabaseDoesNotExist()
+    {
+        CommandFailedException failure = assertThrows( CommandFailedException.class, () -> execute( "--database=missing" ) );
+        assertThat( failure.getMessage() ).isEqualTo( "Database does not exist: missing" );
+    }
+
+    @Test
+    void shouldFailIfDatabaseIsInUse() throws Exception
+    {
+        newManagementService().shutdown();
+        try ( Closeable ignored = lock( databaseLayout ) )
+        {
+            CommandFailedException failure = assertThrows( CommandFailedException.class, () -> execute( "--database=" + DATABASE_NAME ) );
+            assertThat( failure.getMessage() ).isEqualTo( "The database is in use. Stop database '" + DATABASE_NAME + "' and try again." );
+        }
+    }
+
+    private DatabaseManagementService newManagementService()
+    {
+        return new TestDatabaseManagementServiceBuilder( databaseLayout ).setConfig( dense_node_threshold, 10 ).build();
+    }
+
+    private void createScatteredGraphWithDeletions( GraphDatabaseService db )
+    {
+        int nodeCount = 300;
+        long[] nodes = new long[nodeCount];
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < nodeCount; i++ )
+            {
+                nodes[i] = tx.createNode().getId();
+            }
+            tx.commit();
+        }
+
+        // Properties are added a few at a time to random nodes, so that the records of each property chain end up spread out
+        for ( int round = 0; round < 10; round++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < nodeCount; i++ )
+                {
+                    tx.getNodeById( nodes[random.nextInt( nodeCount )] ).setProperty( "key" + round + "_" + i % 7, random.nextValueAsObject() );
+                }
+                tx.commit();
+            }
+        }
+
+        List<Long> relationships = new ArrayList<>();
+        for ( int round = 0; round < 5; round++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < 200; i++ )
+                {
+                    // Every tenth relationship involves the first node, making it dense
+                    Node start = tx.getNodeById( i % 10 == 0 ? nodes[0] : nodes[random.nextInt( nodeCount )] );
+                    Node end = tx.getNodeById( nodes[random.nextInt( nodeCount )] );
+                    Relationship relationship = start.createRelationshipTo( end, random.among( TYPES ) );
+                    if ( random.nextBoolean() )
+                    {
+                        relationship.setProperty( "weight", random.nextInt( 100 ) );
+                    }
+                    relationships.add( relationship.getId() );
+                }
+                tx.commit();
+            }
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 200; i++ )
+            {
+                Relationship relationship = tx.getRelationshipById( relationships.remove( random.nextInt( relationships.size() ) ) );
+                relationship.delete();
+            }
+            // Deleting the nodes at the end of the node store leaves a tail to truncate
+            for ( int i = nodeCount / 2; i < nodeCount; i++ )
+            {
+                Node node = tx.getNodeById( nodes[i] );
+                node.getRelationships().forEach( Relationship::delete );
+                node.delete();
+            }
+            tx.commit();
+        }
+    }
+
+    private static Map<Long,Map<String,Value>> nodes( GraphDatabaseService db )
+    {
+        Map<Long,Map<String,Value>> nodes = new HashMap<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Node node : tx.getAllNodes() )
+            {
+                nodes.put( node.getId(), comparable( node.getAllProperties() ) );
+            }
+        }
+        return nodes;
+    }
+
+    private static Map<Long,List<Object>> relationships( GraphDatabaseService db )
+    {
+        Map<Long,List<Object>> relationships = new HashMap<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Relationship relationship : tx.getAllRelationships() )
+            {
+                relationships.put( relationship.getId(), List.of( relationship.getStartNodeId(), relationship.getEndNodeId(),
+                        relationship.getType().name(), comparable( relationship.getAllProperties() ) ) );
+            }
+        }
+        return relationships;
+    }
+
+    private static Map<String,Value> comparable( Map<String,Object> properties )
+    {
+        Map<String,Value> comparable = new HashMap<>();
+        properties.forEach( ( key, value ) -> comparable.put( key, Values.of( value ) ) );
+        return comparable;
+    }
+
+    private void assertChainsAreSequential() throws Exception
+    {
+        var fs = testDirectory.getFileSystem();
+        try ( JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+              PageCache pageCache = StandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              NeoStores neoStores = new StoreFactory( databaseLayout, Config.defaults(), new DefaultIdGeneratorFactory( fs, immediate() ), pageCache, fs,
+                      NullLogProvider.getInstance(), PageCacheTracer.NULL ).openAllNeoStores() )
+        {
+            NodeStore nodeStore = neoStores.getNodeStore();
+            RelationshipGroupStore groupStore = neoStores.getRelationshipGroupStore();
+            PropertyStore propertyStore = neoStores.getPropertyStore();
+            long previousChainEnd = NULL_REFERENCE.longValue();
+            int denseNodes = 0;
+            for ( long nodeId = 0; nodeId < nodeStore.getHighId(); nodeId++ )
+            {
+                NodeRecord node = nodeStore.getRecord( nodeId, nodeStore.newRecord(), CHECK, NULL );
+                if ( !node.inUse() )
+                {
+                    continue;
+                }
+                // Node property chains are laid out in node order, with each chain's records next to each other
+                long propertyId = node.getNextProp();
+                if ( !NO_NEXT_PROPERTY.is( propertyId ) )
+                {
+                    assertThat( propertyId ).isGreaterThan( previousChainEnd );
+                    PropertyRecord property = propertyStore.getRecord( propertyId, propertyStore.newRecord(), NORMAL, NULL );
+                    while ( !NO_NEXT_PROPERTY.is( property.getNextProp() ) )
+                    {
+                        assertEquals( property.getId() + 1, property.getNextProp() );
+                        property = propertyStore.getRecord( property.getNextProp(), propertyStore.newRecord(), NORMAL, NULL );
+                    }
+                    previousChainEnd = property.getId();
+                }
+                if ( node.isDense() )
+                {
+                    denseNodes++;
+                    RelationshipGroupRecord group = groupStore.getRecord( node.getNextRel(), groupStore.newRecord(), NORMAL, NULL );
+                    while ( !NO_NEXT_RELATIONSHIP.is( group.getNext() ) )
+                    {
+                        assertEquals( group.getId() + 1, group.getNext() );
+                        group = groupStore.getRecord( group.getNext(), groupStore.newRecord(), NORMAL, NULL );
+                    }
+                }
+            }
+            assertThat( denseNodes ).isGreaterThan( 0 );
+        }
+    }
+
+    private static long parseFaults( String output, String when )
+    {
+        Matcher matcher = Pattern.compile( "Traversal page faults " + when + ":\\s+(\\d+)" ).matcher( output );
+        assertTrue( matcher.find(), output );
+        return Long.parseLong( matcher.group( 1 ) );
+    }
+
+    private String execute( String... args )
+    {
+        var baos = new ByteArrayOutputStream();
+        try ( var out = new PrintStream( baos ) )
+        {
+            var command = new CompactStoreCommand( new ExecutionContext( homeDir, confPath, out, mock( PrintStream.class ), testDirectory.getFileSystem() ) );
+            CommandLine.populateCommand( command, args );
+            command.execute();
+        }
+        return baos.toString();
+    }
+
+    private Closeable lock( DatabaseLayout databaseLayout )
+    {
+        Locker locker = new DatabaseLocker( testDirectory.getFileSystem(), databaseLayout );
+        locker.checkLock();
+        return locker;
+    }
+}
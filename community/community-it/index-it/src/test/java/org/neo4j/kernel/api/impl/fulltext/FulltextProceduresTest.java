@@ -1893,6 +1893,57 @@ class FulltextProceduresTest extends FulltextProceduresTestSupport
         assertQueryFindsIds( db, true, "nodes", "god of war", firstId, secondId, thirdId );
     }
 
+    @Test
+    void queryResultsMustFollowChangesMadeBetweenQueriesInSameTransaction()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            createSimpleNodesIndex( tx );
+            tx.commit();
+        }
+        long committedId;
+        awaitIndexesOnline();
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode( LABEL );
+            node.setProperty( PROP, "apple" );
+            committedId = node.getId();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertThat( queryNodeIds( tx, "apple" ) ).containsExactly( committedId );
+
+            Node created = tx.createNode( LABEL );
+            created.setProperty( PROP, "apple" );
+            long createdId = created.getId();
+            assertThat( queryNodeIds( tx, "apple" ) ).containsExactlyInAnyOrder( committedId, createdId );
+
+            tx.getNodeById( committedId ).setProperty( PROP, "banana" );
+            assertThat( queryNodeIds( tx, "apple" ) ).containsExactly( createdId );
+            assertThat( queryNodeIds( tx, "banana" ) ).containsExactly( committedId );
+
+            created.removeLabel( LABEL );
+            assertThat( queryNodeIds( tx, "apple" ) ).isEmpty();
+            created.addLabel( LABEL );
+            assertThat( queryNodeIds( tx, "apple" ) ).containsExactly( createdId );
+
+            tx.getNodeById( committedId ).setProperty( PROP, "apple" );
+            created.delete();
+            assertThat( queryNodeIds( tx, "apple" ) ).containsExactly( committedId );
+            assertThat( queryNodeIds( tx, "banana" ) ).isEmpty();
+            tx.commit();
+        }
+    }
+
+    private static List<Long> queryNodeIds( Transaction tx, String query )
+    {
+        try ( Result result = tx.execute( format( QUERY_NODES, "nodes", query ) ) )
+        {
+            return result.stream().map( row -> ((Node) row.get( NODE )).getId() ).collect( Collectors.toList() );
+        }
+    }
+
     @Test
     void queryResultsMustBeOrderedByScore()
     {
@@ -40,6 +40,7 @@ import java.util.stream.Stream;
 
 import org.neo4j.common.DependencyResolver;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.consistency.ConsistencyCheckService;
 import org.neo4j.consistency.ConsistencyCheckService.Result;
@@ -157,15 +158,17 @@ public class ParallelBatchImporterTest
     {
         return Stream.of(
             // Long input ids, actual node id input
-            arguments( new LongInputIdGenerator(), IdType.INTEGER ),
+            arguments( new LongInputIdGenerator(), IdType.INTEGER, false ),
             // String input ids, generate ids from stores
-            arguments( new StringInputIdGenerator(), IdType.STRING )
+            arguments( new StringInputIdGenerator(), IdType.STRING, false ),
+            // Long input ids, also building the degrees store
+            arguments( new LongInputIdGenerator(), IdType.INTEGER, true )
         );
     }
 
     @ParameterizedTest
     @MethodSource( "params" )
-    void shouldImportCsvData( InputIdGenerator inputIdGenerator, IdType idType ) throws Exception
+    void shouldImportCsvData( InputIdGenerator inputIdGenerator, IdType idType, boolean degreesStore ) throws Exception
     {
         this.inputIdGenerator = inputIdGenerator;
 
@@ -181,7 +184,10 @@ public class ParallelBatchImporterTest
         var pageCacheTracer = new DefaultPageCacheTracer();
         JobScheduler jobScheduler = new ThreadPoolJobScheduler();
         // This will have statistically half the nodes be considered dense
-        Config dbConfig = Config.defaults( GraphDatabaseSettings.dense_node_threshold, RELATIONSHIPS_PER_NODE * 2 );
+        Config dbConfig = Config.newBuilder()
+                .set( GraphDatabaseSettings.dense_node_threshold, RELATIONSHIPS_PER_NODE * 2 )
+                .set( GraphDatabaseInternalSettings.degrees_store_enabled, degreesStore )
+                .build();
         final BatchImporter inserter = new ParallelBatchImporter(
                 databaseLayout, fs, null, pageCacheTracer, config, NullLogService.getInstance(), monitor, EMPTY, dbConfig, getFormat(),
                 ImportLogic.NO_MONITOR, jobScheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(), INSTANCE );
@@ -207,7 +213,9 @@ public class ParallelBatchImporterTest
             assertThat( pageCacheTracer.pins() ).isEqualTo( Math.addExact( pageCacheTracer.faults(), pageCacheTracer.hits() ) );
 
             // THEN
-            DatabaseManagementService managementService = getDBMSBuilder( databaseLayout ).build();
+            assertEquals( degreesStore, fs.fileExists( databaseLayout.degreesStore().toFile() ) );
+            DatabaseManagementService managementService = getDBMSBuilder( databaseLayout )
+                    .setConfig( GraphDatabaseInternalSettings.degrees_store_enabled, degreesStore ).build();
             GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
             try ( Transaction tx = db.beginTx() )
             {
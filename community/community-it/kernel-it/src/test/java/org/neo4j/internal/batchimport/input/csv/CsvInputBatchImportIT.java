@@ -58,26 +58,39 @@ import org.neo4j.configuration.Config;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.csv.reader.Configuration;
 import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.batchimport.BatchImporter;
 import org.neo4j.internal.batchimport.ImportLogic;
 import org.neo4j.internal.batchimport.ParallelBatchImporter;
+import org.neo4j.internal.batchimport.RelationshipLinkforwardStage;
 import org.neo4j.internal.batchimport.input.Collector;
 import org.neo4j.internal.batchimport.input.Group;
 import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
 import org.neo4j.internal.batchimport.input.InputEntity;
 import org.neo4j.internal.batchimport.input.InputEntityDecorators;
+import org.neo4j.internal.batchimport.input.InputException;
+import org.neo4j.internal.batchimport.input.binary.BinaryData;
+import org.neo4j.internal.batchimport.input.binary.BinaryInput;
+import org.neo4j.internal.batchimport.input.binary.CsvToBinaryConverter;
+import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
+import org.neo4j.internal.batchimport.staging.StageExecution;
+import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.internal.recordstorage.RecordStorageEngine;
+import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.impl.coreapi.schema.IndexDefinitionImpl;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.TokenStore;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogInitializer;
@@ -86,6 +99,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.LogTimeZone;
 import org.neo4j.logging.internal.NullLogService;
 import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.test.TestDatabaseManagementServiceBuilder;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
@@ -99,8 +113,11 @@ import org.neo4j.values.storable.PointValue;
 
 import static java.lang.String.format;
 import static java.nio.charset.Charset.defaultCharset;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.db_timezone;
 import static org.neo4j.configuration.GraphDatabaseSettings.dense_node_threshold;
@@ -157,6 +174,433 @@ class CsvInputBatchImportIT
         }
     }
 
+    @Test
+    void shouldImportDataConvertedToBinaryFormat() throws Exception
+    {
+        // GIVEN
+        Config dbConfig = Config.newBuilder()
+                .set( db_timezone, LogTimeZone.SYSTEM )
+                .set( dense_node_threshold, 5 )
+                .build();
+        List<InputEntity> nodeData = randomNodeData();
+        List<InputEntity> relationshipData = randomRelationshipData( nodeData );
+        CsvToBinaryConverter converter = new CsvToBinaryConverter( COMMAS, IdType.STRING,
+                DataFactories.defaultFormatNodeFileHeader( testDefaultTimeZone, false ),
+                DataFactories.defaultFormatRelationshipFileHeader( testDefaultTimeZone, false ), Collector.EMPTY, Header.NO_MONITOR, 1_000 );
+        File nodes = testDirectory.file( "nodes.bin" );
+        File relationships = testDirectory.file( "relationships.bin" );
+        converter.convertNodes( DataFactories.data( InputEntityDecorators.NO_DECORATOR, defaultCharset(), nodeDataAsFile( nodeData ) ), nodes );
+        converter.convertRelationships( DataFactories.data( InputEntityDecorators.NO_DECORATOR, defaultCharset(), relationshipDataAsFile( relationshipData ) ),
+                relationships );
+
+        try ( JobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            BatchImporter importer = new ParallelBatchImporter(
+                    databaseLayout, fileSystem, null, PageCacheTracer.NULL, smallBatchSizeConfig(), NullLogService.getInstance(), ExecutionMonitors.invisible(),
+                    EMPTY, dbConfig, defaultFormat(), ImportLogic.NO_MONITOR, scheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(),
+                    INSTANCE );
+
+            // WHEN
+            importer.doImport( new BinaryInput( List.of( BinaryData.data( InputEntityDecorators.NO_DECORATOR, nodes ) ),
+                    List.of( BinaryData.data( InputEntityDecorators.NO_DECORATOR, relationships ) ), IdType.STRING, INSTANCE ) );
+            // THEN
+            verifyImportedData( nodeData, relationshipData );
+        }
+    }
+
+    @Test
+    void shouldAppendDataToExistingDatabase() throws Exception
+    {
+        // GIVEN a database with a dense node, its neighbours, an index on them and an index that the appended data doesn't belong in
+        Label person = Label.label( "Person" );
+        Label company = Label.label( "Company" );
+        RelationshipType knows = RelationshipType.withName( "KNOWS" );
+        RelationshipType likes = RelationshipType.withName( "LIKES" );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() )
+                .setConfig( dense_node_threshold, 5 ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( person ).on( "id" ).create();
+            tx.schema().indexFor( company ).on( "name" ).withName( "companies" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, MINUTES );
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.createNode( company ).setProperty( "name", "Acme" );
+            Node hub = tx.createNode( person );
+            hub.setProperty( "id", "existing0" );
+            for ( int i = 1; i <= 10; i++ )
+            {
+                Node node = tx.createNode( person );
+                node.setProperty( "id", "existing" + i );
+                hub.createRelationshipTo( node, knows );
+            }
+            tx.commit();
+        }
+        long lastCommittedTransactionId = lastCommittedTransactionId( db );
+        File companiesIndexDirectory = indexDirectory( db, "companies" );
+        managementService.shutdown();
+
+        // WHEN appending nodes and relationships between new and existing nodes
+        File nodes = testDirectory.file( "incremental-nodes.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( nodes, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, "id:ID(Person),:LABEL" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                println( writer, "new" + i + ",Person" );
+            }
+        }
+        File relationships = testDirectory.file( "incremental-relationships.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( relationships, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, ":START_ID(Person),:END_ID(Person),:TYPE" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                println( writer, "existing0,new" + i + ",KNOWS" );
+                println( writer, "new" + i + ",existing" + (i + 1) + ",LIKES" );
+            }
+            println( writer, "existing1,existing2,KNOWS" );
+        }
+        try ( JobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            BatchImporter importer = new ParallelBatchImporter( databaseLayout, fileSystem, null, PageCacheTracer.NULL, smallBatchSizeConfig(),
+                    NullLogService.getInstance(), ExecutionMonitors.invisible(), EMPTY, Config.defaults( dense_node_threshold, 5 ), defaultFormat(),
+                    ImportLogic.NO_MONITOR, scheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(), INSTANCE );
+            importer.doIncrementalImport( csv( nodes, relationships, IdType.STRING, COMMAS ), true );
+        }
+
+        // THEN
+        assertThat( fileSystem.fileExists( companiesIndexDirectory ) ).as( "index unaffected by the appended data is kept" ).isTrue();
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).setConfig( dense_node_threshold, 5 ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.schema().awaitIndexesOnline( 1, MINUTES );
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                assertEquals( lastCommittedTransactionId + 1, lastCommittedTransactionId( db ) );
+                assertEquals( 22, Iterables.count( tx.getAllNodes() ) );
+                assertEquals( "Acme", tx.findNode( company, "name", "Acme" ).getProperty( "name" ) );
+                assertEquals( 31, Iterables.count( tx.getAllRelationships() ) );
+                Node hub = tx.findNode( person, "id", "existing0" );
+                assertEquals( 20, hub.getDegree( knows, Direction.OUTGOING ) );
+                assertEquals( 20, hub.getDegree() );
+                assertEquals( 3, tx.findNode( person, "id", "existing1" ).getDegree() );
+                for ( int i = 0; i < 10; i++ )
+                {
+                    Node node = tx.findNode( person, "id", "new" + i );
+                    assertEquals( 2, node.getDegree() );
+                    assertEquals( "existing" + (i + 1), node.getSingleRelationship( likes, Direction.OUTGOING ).getEndNode().getProperty( "id" ) );
+                }
+                assertEquals( 21L, tx.execute( "MATCH (n:Person) RETURN count(n) AS count" ).next().get( "count" ) );
+                assertEquals( 10L, tx.execute( "MATCH ()-[r:LIKES]->() RETURN count(r) AS count" ).next().get( "count" ) );
+            }
+
+            // and the database can keep on adding to the appended data
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.findNode( person, "id", "existing0" ).createRelationshipTo( tx.createNode( person ), knows );
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                assertEquals( 23, Iterables.count( tx.getAllNodes() ) );
+                assertEquals( 21, tx.findNode( person, "id", "existing0" ).getDegree() );
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRefuseToDeleteTransactionLogsUnlessAllowed() throws Exception
+    {
+        // GIVEN a database with transaction logs
+        Label person = Label.label( "Person" );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.createNode( person ).setProperty( "id", "existing0" );
+            tx.commit();
+        }
+        long lastCommittedTransactionId = lastCommittedTransactionId( db );
+        managementService.shutdown();
+
+        // WHEN appending without allowing the transaction logs to be deleted
+        File nodes = testDirectory.file( "incremental-nodes.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( nodes, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, "id:ID(Person),:LABEL" );
+            println( writer, "new0,Person" );
+        }
+        File relationships = testDirectory.file( "incremental-relationships.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( relationships, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, ":START_ID(Person),:END_ID(Person),:TYPE" );
+        }
+        try ( JobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            BatchImporter importer = new ParallelBatchImporter( databaseLayout, fileSystem, null, PageCacheTracer.NULL, smallBatchSizeConfig(),
+                    NullLogService.getInstance(), ExecutionMonitors.invisible(), EMPTY, Config.defaults(), defaultFormat(),
+                    ImportLogic.NO_MONITOR, scheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(), INSTANCE );
+            IllegalStateException e = assertThrows( IllegalStateException.class,
+                    () -> importer.doIncrementalImport( csv( nodes, relationships, IdType.STRING, COMMAS ), false ) );
+            assertThat( e.getMessage() ).contains( "has transaction logs" );
+        }
+
+        // THEN the database is left as it was
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( lastCommittedTransactionId, lastCommittedTransactionId( db ) );
+            assertEquals( 1, Iterables.count( tx.getAllNodes() ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRefuseToAppendNodesViolatingUniquenessConstraint() throws Exception
+    {
+        // GIVEN a database with a uniqueness constraint
+        Label person = Label.label( "Person" );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().constraintFor( person ).assertPropertyIsUnique( "email" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode( person );
+            node.setProperty( "id", "existing0" );
+            node.setProperty( "email", "existing0@example.com" );
+            tx.commit();
+        }
+        managementService.shutdown();
+
+        // WHEN appending nodes which have the same value as each other, or as the existing node
+        InputException duplicateInInput = assertThrows( InputException.class, () -> appendPeople(
+                "new0,new@example.com,Person",
+                "new1,new@example.com,Person" ) );
+        InputException duplicateOfExisting = assertThrows( InputException.class, () -> appendPeople(
+                "new0,new@example.com,Person",
+                "new1,existing0@example.com,Person" ) );
+
+        // THEN
+        assertThat( duplicateInInput.getMessage() ).contains( "'new1'", "'new0'", "have the same values" );
+        assertThat( duplicateOfExisting.getMessage() ).contains( "'new1'", "has the same values as existing node" );
+        // and the database is left as it was
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, MINUTES );
+            assertEquals( 1, Iterables.count( tx.getAllNodes() ) );
+            assertEquals( 1, Iterables.count( tx.schema().getConstraints() ) );
+            assertEquals( "existing0", tx.findNode( person, "email", "existing0@example.com" ).getProperty( "id" ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldAppendNodesSatisfyingConstraints() throws Exception
+    {
+        // GIVEN a database with a uniqueness constraint on the appended nodes and a constraint on nodes that aren't in the input
+        Label person = Label.label( "Person" );
+        Label company = Label.label( "Company" );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().constraintFor( person ).assertPropertyIsUnique( "email" ).create();
+            tx.schema().constraintFor( company ).assertPropertyIsUnique( "name" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode( person );
+            node.setProperty( "id", "existing0" );
+            node.setProperty( "email", "existing0@example.com" );
+            tx.createNode( company ).setProperty( "name", "Acme" );
+            tx.commit();
+        }
+        managementService.shutdown();
+
+        // WHEN
+        appendPeople(
+                "new0,new0@example.com,Person",
+                "new1,new1@example.com,Person" );
+
+        // THEN
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, MINUTES );
+            assertEquals( 4, Iterables.count( tx.getAllNodes() ) );
+            assertEquals( "new1", tx.findNode( person, "email", "new1@example.com" ).getProperty( "id" ) );
+            assertEquals( "existing0", tx.findNode( person, "email", "existing0@example.com" ).getProperty( "id" ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRelinkExistingRelationshipTypesNotInInputWhenLinkingInMultipleRounds() throws Exception
+    {
+        // GIVEN a database with a dense node that has relationships of a type which isn't part of the input and has the highest type id
+        Label person = Label.label( "Person" );
+        RelationshipType knows = RelationshipType.withName( "KNOWS" );
+        RelationshipType follows = RelationshipType.withName( "FOLLOWS" );
+        RelationshipType likes = RelationshipType.withName( "LIKES" );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() )
+                .setConfig( dense_node_threshold, 5 ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( person ).on( "id" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node hub = tx.createNode( person );
+            hub.setProperty( "id", "existing0" );
+            for ( int i = 1; i <= 10; i++ )
+            {
+                Node node = tx.createNode( person );
+                node.setProperty( "id", "existing" + i );
+                hub.createRelationshipTo( node, knows );
+            }
+            tx.findNode( person, "id", "existing1" ).createRelationshipTo( hub, likes );
+            for ( int i = 1; i <= 6; i++ )
+            {
+                tx.findNode( person, "id", "existing" + i ).createRelationshipTo( hub, follows );
+            }
+            tx.commit();
+        }
+        managementService.shutdown();
+
+        // WHEN appending relationships of other types with too little memory to link more than one type per round
+        File nodes = testDirectory.file( "incremental-nodes.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( nodes, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, "id:ID(Person),:LABEL" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                println( writer, "new" + i + ",Person" );
+            }
+        }
+        File relationships = testDirectory.file( "incremental-relationships.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( relationships, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, ":START_ID(Person),:END_ID(Person),:TYPE" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                println( writer, "existing0,new" + i + ",KNOWS" );
+                println( writer, "new" + i + ",existing0,LIKES" );
+            }
+        }
+        org.neo4j.internal.batchimport.Configuration lowMemoryConfig = new org.neo4j.internal.batchimport.Configuration.Overridden( smallBatchSizeConfig() )
+        {
+            @Override
+            public long maxMemoryUsage()
+            {
+                return 1;
+            }
+        };
+        AtomicInteger linkingRounds = new AtomicInteger();
+        ExecutionMonitor linkingRoundsMonitor = new ExecutionMonitor.Adapter( 1, SECONDS )
+        {
+            @Override
+            public void start( StageExecution execution )
+            {
+                if ( execution.getStageName().equals( RelationshipLinkforwardStage.NAME ) )
+                {
+                    linkingRounds.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void check( StageExecution execution )
+            {
+            }
+        };
+        try ( JobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            BatchImporter importer = new ParallelBatchImporter( databaseLayout, fileSystem, null, PageCacheTracer.NULL, lowMemoryConfig,
+                    NullLogService.getInstance(), linkingRoundsMonitor, EMPTY, Config.defaults( dense_node_threshold, 5 ), defaultFormat(),
+                    ImportLogic.NO_MONITOR, scheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(), INSTANCE );
+            importer.doIncrementalImport( csv( nodes, relationships, IdType.STRING, COMMAS ), true );
+        }
+
+        // THEN
+        assertThat( linkingRounds.get() ).isGreaterThan( 1 );
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() ).setConfig( dense_node_threshold, 5 ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.schema().awaitIndexesOnline( 1, MINUTES );
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                assertEquals( 37, Iterables.count( tx.getAllRelationships() ) );
+                Node hub = tx.findNode( person, "id", "existing0" );
+                assertEquals( 20, Iterables.count( hub.getRelationships( knows ) ) );
+                assertEquals( 6, Iterables.count( hub.getRelationships( follows ) ) );
+                assertEquals( 11, Iterables.count( hub.getRelationships( likes ) ) );
+                assertEquals( 20, hub.getDegree( knows, Direction.OUTGOING ) );
+                assertEquals( 6, hub.getDegree( follows, Direction.INCOMING ) );
+                assertEquals( 11, hub.getDegree( likes, Direction.INCOMING ) );
+                assertEquals( 37, hub.getDegree() );
+                for ( int i = 1; i <= 6; i++ )
+                {
+                    assertEquals( hub, tx.findNode( person, "id", "existing" + i ).getSingleRelationship( follows, Direction.OUTGOING ).getEndNode() );
+                }
+            }
+
+            // and the database can keep on adding to the relinked chains
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.createNode( person ).createRelationshipTo( tx.findNode( person, "id", "existing0" ), follows );
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node hub = tx.findNode( person, "id", "existing0" );
+                assertEquals( 7, Iterables.count( hub.getRelationships( follows ) ) );
+                assertEquals( 38, hub.getDegree() );
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
     static Input csv( File nodes, File relationships, IdType idType, Configuration configuration )
     {
         return new CsvInput(
@@ -213,6 +657,46 @@ class CsvInputBatchImportIT
         return labels;
     }
 
+    private void appendPeople( String... lines ) throws Exception
+    {
+        File nodes = testDirectory.file( "incremental-nodes.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( nodes, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, "id:ID(Person),email,:LABEL" );
+            for ( String line : lines )
+            {
+                println( writer, line );
+            }
+        }
+        File relationships = testDirectory.file( "incremental-relationships.csv" );
+        try ( Writer writer = fileSystem.openAsWriter( relationships, StandardCharsets.UTF_8, false ) )
+        {
+            println( writer, ":START_ID(Person),:END_ID(Person),:TYPE" );
+        }
+        try ( JobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            BatchImporter importer = new ParallelBatchImporter( databaseLayout, fileSystem, null, PageCacheTracer.NULL, smallBatchSizeConfig(),
+                    NullLogService.getInstance(), ExecutionMonitors.invisible(), EMPTY, Config.defaults(), defaultFormat(),
+                    ImportLogic.NO_MONITOR, scheduler, Collector.EMPTY, TransactionLogInitializer.getLogFilesInitializer(), INSTANCE );
+            importer.doIncrementalImport( csv( nodes, relationships, IdType.STRING, COMMAS ), true );
+        }
+    }
+
+    private File indexDirectory( GraphDatabaseService db, String indexName )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            IndexDescriptor index = ((IndexDefinitionImpl) tx.schema().getIndexByName( indexName )).getIndexReference();
+            return IndexDirectoryStructure.directoriesByProvider( databaseLayout.databaseDirectory().toFile() )
+                    .forProvider( index.getIndexProvider() ).directoryForIndex( index.getId() );
+        }
+    }
+
+    private static long lastCommittedTransactionId( GraphDatabaseService db )
+    {
+        return ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastCommittedTransactionId();
+    }
+
     private org.neo4j.internal.batchimport.Configuration smallBatchSizeConfig()
     {
         return org.neo4j.internal.batchimport.Configuration.withBatchSize( org.neo4j.internal.batchimport.Configuration.DEFAULT, 100 );
@@ -209,9 +209,9 @@ class IndexPopulationJobTest
         assertTrue( populator.resultSampled );
         assertTrue( populator.closeCall );
 
-        assertThat( pageCacheTracer.pins() ).isEqualTo( 19 );
-        assertThat( pageCacheTracer.unpins() ).isEqualTo( 19 );
-        assertThat( pageCacheTracer.hits() ).isEqualTo( 18 );
+        assertThat( pageCacheTracer.pins() ).isEqualTo( 18 );
+        assertThat( pageCacheTracer.unpins() ).isEqualTo( 18 );
+        assertThat( pageCacheTracer.hits() ).isEqualTo( 17 );
         assertThat( pageCacheTracer.faults() ).isEqualTo( 1 );
     }
 
@@ -262,9 +262,9 @@ class IndexPopulationJobTest
         assertTrue( populator.resultSampled );
         assertTrue( populator.closeCall );
 
-        assertThat( pageCacheTracer.pins() ).isEqualTo( 17 );
-        assertThat( pageCacheTracer.unpins() ).isEqualTo( 17 );
-        assertThat( pageCacheTracer.hits() ).isEqualTo( 16 );
+        assertThat( pageCacheTracer.pins() ).isEqualTo( 16 );
+        assertThat( pageCacheTracer.unpins() ).isEqualTo( 16 );
+        assertThat( pageCacheTracer.hits() ).isEqualTo( 15 );
         assertThat( pageCacheTracer.faults() ).isEqualTo( 1 );
     }
 
@@ -859,7 +859,7 @@ class IndexPopulationJobTest
 
         MultipleIndexPopulator multiPopulator =
                 new MultipleIndexPopulator( storeView, logProvider, type, stateHolder, indexStatisticsStore, jobScheduler, tokens, pageCacheTracer, INSTANCE,
-                        "", AUTH_DISABLED );
+                        "", AUTH_DISABLED, Config.defaults() );
         IndexPopulationJob job = new IndexPopulationJob( multiPopulator, NO_MONITOR, false, pageCacheTracer, INSTANCE, "", AUTH_DISABLED, EntityType.NODE  );
         IndexDescriptor descriptor = prototype.withName( "index_" + indexId ).materialise( indexId );
         job.addPopulator( populator, descriptor, format( ":%s(%s)", FIRST.name(), name ), flipper, failureDelegateFactory );
@@ -933,7 +933,8 @@ class IndexPopulationJobTest
         TrackingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
                 IndexStatisticsStore indexStatisticsStore, JobScheduler jobScheduler, TokenNameLookup tokens )
         {
-            super( storeView, logProvider, type, schemaState, indexStatisticsStore, jobScheduler, tokens, NULL, INSTANCE, "", AUTH_DISABLED  );
+            super( storeView, logProvider, type, schemaState, indexStatisticsStore, jobScheduler, tokens, NULL, INSTANCE, "", AUTH_DISABLED,
+                    Config.defaults() );
         }
 
         @Override
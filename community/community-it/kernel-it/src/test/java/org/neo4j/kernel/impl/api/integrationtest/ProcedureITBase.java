@@ -226,7 +226,11 @@ public interface ProcedureITBase
                 proc( "dbms.listConnections", "() :: (connectionId :: STRING?, connectTime :: STRING?, connector :: STRING?, username :: STRING?, " +
                                 "userAgent :: STRING?, serverAddress :: STRING?, clientAddress :: STRING?)",
                         "List all accepted network connections at this instance that are visible to the user.",
-                        stringArray( "reader", "editor", "publisher", "architect", "admin" ), "DBMS" )
+                        stringArray( "reader", "editor", "publisher", "architect", "admin" ), "DBMS" ),
+                proc( "dbms.listPageCachePartitions", "() :: (name :: STRING?, reservedPages :: INTEGER?, maxPages :: INTEGER?, " +
+                                "residentPages :: INTEGER?, faults :: INTEGER?, evictions :: INTEGER?)",
+                        "List the partitions of the page cache, with their reserved and maximum number of pages, and their current usage.",
+                        stringArray( "admin" ), "DBMS" )
         );
     }
 
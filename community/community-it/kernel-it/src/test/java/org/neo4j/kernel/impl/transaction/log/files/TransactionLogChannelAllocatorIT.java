@@ -27,11 +27,15 @@ import org.junit.jupiter.api.condition.OS;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DelegatingFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
@@ -42,12 +46,17 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 
 @TestDirectoryExtension
@@ -99,21 +108,118 @@ class TransactionLogChannelAllocatorIT
         }
     }
 
+    @Test
+    void rotationMustUseLogFilePreparedInTheBackground() throws IOException
+    {
+        try ( ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( scheduler );
+            File preparedFile = new File( testDirectory.homeDir(),
+                    TransactionLogChannelAllocator.PREPARED_FILE_PREFIX + fileHelper.getLogFileForVersion( 13 ).getName() );
+            try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.createLogChannel( 12, () -> 1L ) )
+            {
+                assertEquals( 12, channel.getVersion() );
+            }
+            fileAllocator.stopPreparingNextLogFile();
+            assertTrue( fileSystem.fileExists( preparedFile ) );
+            assertFalse( fileSystem.fileExists( fileHelper.getLogFileForVersion( 13 ) ) );
+            assertThat( fileHelper.getLogFiles() ).containsExactly( fileHelper.getLogFileForVersion( 12 ) );
+
+            try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.createLogChannel( 13, () -> 5L ) )
+            {
+                assertEquals( 13, channel.getVersion() );
+            }
+            fileAllocator.stopPreparingNextLogFile();
+            assertFalse( fileSystem.fileExists( preparedFile ) );
+            assertTrue( fileSystem.fileExists( fileHelper.getLogFileForVersion( 13 ) ) );
+            try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.openLogChannel( 13 ) )
+            {
+                assertEquals( 13, channel.getVersion() );
+            }
+        }
+    }
+
+    @Test
+    void mustForceLogsDirectoryAfterRenamingPreparedLogFileIntoPlace() throws IOException
+    {
+        List<String> operations = new CopyOnWriteArrayList<>();
+        FileSystemAbstraction recordingFileSystem = new DelegatingFileSystemAbstraction( fileSystem )
+        {
+            @Override
+            public void renameFile( File from, File to, CopyOption... copyOptions ) throws IOException
+            {
+                super.renameFile( from, to, copyOptions );
+                operations.add( "rename " + to.getName() );
+            }
+
+            @Override
+            public void forceDirectory( File directory ) throws IOException
+            {
+                super.forceDirectory( directory );
+                operations.add( "force " + directory.getName() );
+            }
+        };
+        try ( ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler() )
+        {
+            TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( scheduler, recordingFileSystem );
+            fileAllocator.createLogChannel( 12, () -> 1L ).close();
+            fileAllocator.stopPreparingNextLogFile();
+            assertThat( operations ).isEmpty();
+
+            fileAllocator.createLogChannel( 13, () -> 5L ).close();
+            fileAllocator.stopPreparingNextLogFile();
+
+            assertThat( operations ).containsExactly( "rename " + fileHelper.getLogFileForVersion( 13 ).getName(),
+                    "force " + testDirectory.homeDir().getName() );
+        }
+    }
+
+    @Test
+    void mustDeletePreparedLogFilesLeftOverFromPreviousRun() throws IOException
+    {
+        File homeDir = testDirectory.homeDir();
+        File leftOver = new File( homeDir, TransactionLogChannelAllocator.PREPARED_FILE_PREFIX + fileHelper.getLogFileForVersion( 3 ).getName() );
+        File otherLeftOver = new File( homeDir, TransactionLogChannelAllocator.PREPARED_FILE_PREFIX + fileHelper.getLogFileForVersion( 7 ).getName() );
+        File unrelated = new File( homeDir, TransactionLogChannelAllocator.PREPARED_FILE_PREFIX + "something.else.0" );
+        File logFile = fileHelper.getLogFileForVersion( 3 );
+        for ( File file : new File[]{leftOver, otherLeftOver, unrelated, logFile} )
+        {
+            fileSystem.write( file ).close();
+        }
+
+        createLogFileAllocator().deletePreparedLogFiles();
+
+        assertFalse( fileSystem.fileExists( leftOver ) );
+        assertFalse( fileSystem.fileExists( otherLeftOver ) );
+        assertTrue( fileSystem.fileExists( unrelated ) );
+        assertTrue( fileSystem.fileExists( logFile ) );
+    }
+
     private TransactionLogChannelAllocator createLogFileAllocator()
+    {
+        return createLogFileAllocator( null );
+    }
+
+    private TransactionLogChannelAllocator createLogFileAllocator( JobScheduler nextLogFilePreparationScheduler )
+    {
+        return createLogFileAllocator( nextLogFilePreparationScheduler, fileSystem );
+    }
+
+    private TransactionLogChannelAllocator createLogFileAllocator( JobScheduler nextLogFilePreparationScheduler, FileSystemAbstraction fileSystem )
     {
         LogHeaderCache logHeaderCache = new LogHeaderCache( 10 );
-        var logFileContext = createLogFileContext();
+        var logFileContext = createLogFileContext( nextLogFilePreparationScheduler, fileSystem );
         var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, logFileContext );
         return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor );
     }
 
-    private TransactionLogFilesContext createLogFileContext()
+    private static TransactionLogFilesContext createLogFileContext( JobScheduler nextLogFilePreparationScheduler, FileSystemAbstraction fileSystem )
     {
         return new TransactionLogFilesContext( new AtomicLong( ROTATION_THRESHOLD ), new AtomicBoolean( true ),
                 new VersionAwareLogEntryReader( new TestCommandReaderFactory() ), () -> 1L,
                 () -> 1L, () -> new LogPosition( 0, 1 ),
                 SimpleLogVersionRepository::new, fileSystem,
                 NullLogProvider.getInstance(), DatabaseTracers.EMPTY, () -> StoreId.UNKNOWN, NativeAccessProvider.getNativeAccess(),
-                EmptyMemoryTracker.INSTANCE );
+                EmptyMemoryTracker.INSTANCE, nextLogFilePreparationScheduler );
     }
 }
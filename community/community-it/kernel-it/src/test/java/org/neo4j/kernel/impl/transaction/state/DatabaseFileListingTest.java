@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.graphdb.Resource;
@@ -203,6 +204,10 @@ class DatabaseFileListingTest
         {
             expectedFiles.removeIf( f -> DatabaseFile.RELATIONSHIP_TYPE_SCAN_STORE.getName().equals( f.getFileName().toString() ) );
         }
+        if ( !Config.defaults().get( GraphDatabaseInternalSettings.degrees_store_enabled ) )
+        {
+            expectedFiles.remove( layout.degreesStore() );
+        }
         // there was no rotation
         ResourceIterator<StoreFileMetadata> storeFiles = database.listStoreFiles( false );
         Set<Path> listedStoreFiles = storeFiles.stream()
@@ -25,12 +25,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.exceptions.KernelException;
@@ -41,6 +44,7 @@ import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.kernel.api.TokenWrite;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.internal.recordstorage.RecordStorageEngine;
@@ -49,6 +53,7 @@ import org.neo4j.internal.schema.LabelSchemaDescriptor;
 import org.neo4j.internal.schema.RelationTypeSchemaDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.store.NeoStores;
@@ -57,11 +62,13 @@ import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.lock.Lock;
 import org.neo4j.lock.LockService;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 import org.neo4j.test.extension.DbmsExtension;
@@ -70,6 +77,7 @@ import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
 import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_INT_ARRAY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -95,6 +103,10 @@ class NeoStoreIndexStoreViewTest
     private RecordStorageEngine storageEngine;
     @Inject
     private CheckPointer checkPointer;
+    @Inject
+    private JobScheduler jobScheduler;
+    @Inject
+    private LabelScanStore labelScanStore;
 
     private final Map<Long, Lock> lockMocks = new HashMap<>();
     private final Label label = Label.label( "Person" );
@@ -286,12 +298,13 @@ class NeoStoreIndexStoreViewTest
                         null, propertyUpdateVisitor, new int[]{labelId},
                         id -> true, NULL, INSTANCE );
 
-        try ( StorageNodeCursor nodeCursor = reader.allocateNodeCursor( NULL ) )
+        try ( StorageNodeCursor nodeCursor = reader.allocateNodeCursor( NULL );
+              StoragePropertyCursor propertyCursor = reader.allocatePropertyCursor( NULL, INSTANCE ) )
         {
             nodeCursor.single( 1 );
             nodeCursor.next();
 
-            nodeStoreScan.process( nodeCursor );
+            nodeStoreScan.process( nodeCursor, propertyCursor );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
@@ -336,12 +349,13 @@ class NeoStoreIndexStoreViewTest
                 new RelationshipStoreScan<>( new RecordStorageReader( neoStores ), locks, null, propertyUpdateVisitor,
                         new int[]{relTypeId}, id -> true, NULL, INSTANCE );
 
-        try ( StorageRelationshipScanCursor relationshipScanCursor = reader.allocateRelationshipScanCursor( NULL ) )
+        try ( StorageRelationshipScanCursor relationshipScanCursor = reader.allocateRelationshipScanCursor( NULL );
+              StoragePropertyCursor propertyCursor = reader.allocatePropertyCursor( NULL, INSTANCE ) )
         {
             relationshipScanCursor.single( 1 );
             relationshipScanCursor.next();
 
-            relationshipStoreScan.process( relationshipScanCursor );
+            relationshipStoreScan.process( relationshipScanCursor, propertyCursor );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
@@ -402,6 +416,69 @@ class NeoStoreIndexStoreViewTest
         }
     }
 
+    @Test
+    void shouldScanAllNodesOnceInParallel() throws Exception
+    {
+        // given
+        List<Long> nodeIds = createPeople( 2 * PropertyAwareEntityStoreScan.RANGE_SIZE + 10 );
+        ConcurrentEntityIdCollectingVisitor visitor = new ConcurrentEntityIdCollectingVisitor();
+        StoreScan<Exception> storeScan = new NeoStoreIndexStoreView( LockService.NO_LOCK_SERVICE, storageEngine::newReader )
+                .visitNodes( new int[]{labelId}, id -> id == propertyKeyId, visitor, null, false, NULL, INSTANCE );
+        nodeIds.add( alistair.getId() );
+        nodeIds.add( stefan.getId() );
+        CheckingExternalUpdates externalUpdates = new CheckingExternalUpdates( visitor, nodeIds );
+
+        // when
+        assertTrue( storeScan.parallelize( 4, jobScheduler, PageCacheTracer.NULL, externalUpdates ) );
+        storeScan.run();
+
+        // then
+        assertThat( visitor.visitedIds() ).containsExactlyInAnyOrderElementsOf( nodeIds );
+        assertThat( externalUpdates.applications ).isGreaterThan( 0 );
+    }
+
+    @Test
+    void shouldScanLabeledNodesOnceInParallelUsingLabelIndex() throws Exception
+    {
+        // given
+        List<Long> nodeIds = createPeople( 2 * PropertyAwareEntityStoreScan.RANGE_SIZE + 10 );
+        ConcurrentEntityIdCollectingVisitor visitor = new ConcurrentEntityIdCollectingVisitor();
+        StoreScan<Exception> storeScan = new LabelViewNodeStoreScan<>( storageEngine.newReader(), LockService.NO_LOCK_SERVICE, labelScanStore, null,
+                visitor, new int[]{labelId}, id -> id == propertyKeyId, NULL, INSTANCE );
+        nodeIds.add( alistair.getId() );
+        nodeIds.add( stefan.getId() );
+        CheckingExternalUpdates externalUpdates = new CheckingExternalUpdates( visitor, nodeIds );
+
+        // when
+        assertTrue( storeScan.parallelize( 4, jobScheduler, PageCacheTracer.NULL, externalUpdates ) );
+        storeScan.run();
+
+        // then
+        assertThat( visitor.visitedIds() ).containsExactlyInAnyOrderElementsOf( nodeIds );
+        assertThat( externalUpdates.applications ).isGreaterThan( 0 );
+    }
+
+    /**
+     * Creates every other node as a labeled person with a name, the rest without label.
+     * @return ids of the created people.
+     */
+    private List<Long> createPeople( int count )
+    {
+        List<Long> ids = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                Node person = tx.createNode( label );
+                person.setProperty( "name", "Person" + i );
+                ids.add( person.getId() );
+                tx.createNode();
+            }
+            tx.commit();
+        }
+        return ids;
+    }
+
     private EntityUpdates add( long nodeId, int propertyKeyId, Object value, long[] labels )
     {
         return EntityUpdates.forEntity( nodeId, true ).withTokens( labels ).added( propertyKeyId, Values.of( value ) ).build();
@@ -486,6 +563,55 @@ class NeoStoreIndexStoreViewTest
         }
     }
 
+    private static class ConcurrentEntityIdCollectingVisitor implements Visitor<EntityUpdates,Exception>
+    {
+        private final Queue<Long> visitedIds = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public boolean visit( EntityUpdates element )
+        {
+            visitedIds.add( element.getEntityId() );
+            return false;
+        }
+
+        List<Long> visitedIds()
+        {
+            return new ArrayList<>( visitedIds );
+        }
+    }
+
+    /**
+     * Asks for external updates to be applied in between every range and verifies that the scan has read exactly the expected entities
+     * up to the given id at those points.
+     */
+    private static class CheckingExternalUpdates implements StoreScan.ExternalUpdatesCheck
+    {
+        private final ConcurrentEntityIdCollectingVisitor visitor;
+        private final List<Long> expectedIds;
+        private int applications;
+
+        CheckingExternalUpdates( ConcurrentEntityIdCollectingVisitor visitor, List<Long> expectedIds )
+        {
+            this.visitor = visitor;
+            this.expectedIds = expectedIds;
+        }
+
+        @Override
+        public boolean needToApplyExternalUpdates()
+        {
+            return true;
+        }
+
+        @Override
+        public void applyExternalUpdates( long currentlyIndexedNodeId )
+        {
+            assertThat( (currentlyIndexedNodeId + 1) % PropertyAwareEntityStoreScan.RANGE_SIZE ).isEqualTo( 0 );
+            List<Long> expectedVisitedIds = expectedIds.stream().filter( id -> id <= currentlyIndexedNodeId ).collect( toList() );
+            assertThat( visitor.visitedIds() ).containsExactlyInAnyOrderElementsOf( expectedVisitedIds );
+            applications++;
+        }
+    }
+
     static class EntityUpdateCollectingVisitor implements Visitor<EntityUpdates,Exception>
     {
         private final Set<EntityUpdates> updates = new HashSet<>();
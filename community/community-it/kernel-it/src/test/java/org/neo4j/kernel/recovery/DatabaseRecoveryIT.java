@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -42,6 +43,9 @@ import org.neo4j.adversaries.ClassGuardedAdversary;
 import org.neo4j.adversaries.CountingAdversary;
 import org.neo4j.collection.Dependencies;
 import org.neo4j.common.DependencyResolver;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.consistency.ConsistencyCheckService;
+import org.neo4j.consistency.checking.full.ConsistencyFlags;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
@@ -53,6 +57,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.TransactionFailureException;
 import org.neo4j.internal.helpers.collection.Iterators;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.internal.recordstorage.Command;
 import org.neo4j.internal.schema.IndexDescriptor;
@@ -115,6 +120,7 @@ import org.neo4j.time.Clocks;
 
 import static java.lang.Long.max;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -459,6 +465,94 @@ class DatabaseRecoveryIT
         }
     }
 
+    @Test
+    void shouldRecoverConsistentStoreWhenApplyingTransactionsInParallel() throws Exception
+    {
+        // given a checkpointed database with indexed data
+        EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        managementService = new TestDatabaseManagementServiceBuilder( directory.homePath() )
+                .setFileSystem( fs )
+                .impermanent()
+                .build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( String token : TOKENS )
+            {
+                tx.schema().indexFor( Label.label( token ) ).on( token ).create();
+            }
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, MINUTES );
+            tx.commit();
+        }
+        produceRandomGraphUpdates( db, 100 );
+        checkPoint( db );
+        long checkpointedTxId = lastCommittedTxId( db );
+
+        // and a tail of transactions after the checkpoint, mixing data changes with token and schema changes
+        produceRandomGraphUpdates( db, 500 );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( Label.label( "Parallel" ) ).on( "name" ).create();
+            tx.commit();
+        }
+        produceRandomGraphUpdates( db, 500 );
+        long lastTxId = lastCommittedTxId( db );
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        managementService.shutdown();
+        fs.close();
+
+        // when recovering the crashed store with a single thread and with several
+        AtomicInteger recoveredTransactions = new AtomicInteger();
+        Monitors monitors = new Monitors();
+        monitors.addMonitorListener( new RecoveryMonitor()
+        {
+            @Override
+            public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
+            {
+                recoveredTransactions.set( numberOfRecoveredTransactions );
+            }
+        } );
+        EphemeralFileSystemAbstraction serialFs = recover( crashedFs.snapshot(), 1, new Monitors() );
+        EphemeralFileSystemAbstraction parallelFs = recover( crashedFs, 4, monitors );
+
+        // then
+        try
+        {
+            assertEquals( lastTxId - checkpointedTxId, recoveredTransactions.get() );
+            assertSameStoreContents( serialFs, parallelFs, databaseLayout );
+            ConsistencyCheckService.Result result = new ConsistencyCheckService().runFullConsistencyCheck( databaseLayout, defaults(),
+                    ProgressMonitorFactory.NONE, NullLogProvider.getInstance(), parallelFs, false, ConsistencyFlags.DEFAULT );
+            assertTrue( result.isSuccessful() );
+        }
+        finally
+        {
+            IOUtils.closeAll( crashedFs, serialFs, parallelFs );
+        }
+    }
+
+    /**
+     * Starts a database on {@code crashedFs} with the given recovery parallelism and returns a snapshot of the recovered store.
+     */
+    private EphemeralFileSystemAbstraction recover( EphemeralFileSystemAbstraction crashedFs, int parallelism, Monitors monitors ) throws IOException
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( directory.homePath() )
+                .setFileSystem( crashedFs )
+                .setMonitors( monitors )
+                .setConfig( GraphDatabaseInternalSettings.recovery_parallelism, parallelism )
+                .impermanent()
+                .build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        checkPoint( db );
+        EphemeralFileSystemAbstraction recoveredFs = crashedFs.snapshot();
+        managementService.shutdown();
+        managementService = null;
+        return recoveredFs;
+    }
+
     private static long lastCommittedTxId( GraphDatabaseService db )
     {
         return ((GraphDatabaseAPI)db).getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastClosedTransactionId();
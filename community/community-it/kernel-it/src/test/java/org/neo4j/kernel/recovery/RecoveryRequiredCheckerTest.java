@@ -47,6 +47,7 @@ import org.neo4j.test.rule.TestDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.degrees_store_enabled;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_TX_LOGS_ROOT_DIR_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.transaction_logs_root_path;
@@ -278,6 +279,11 @@ class RecoveryRequiredCheckerTest
                 // Skip
                 continue;
             }
+            if ( file.equals( databaseLayout.degreesStore() ) && !Config.defaults().get( degrees_store_enabled ) )
+            {
+                // Skip
+                continue;
+            }
             assertTrue( fileSystem.fileExists( file.toFile() ), "Store file " + file + " does not exist" );
         }
     }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsController;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.token.TokenHolders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.degrees_store_enabled;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
+import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
+import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+
+@DbmsExtension( configurationCallback = "configure" )
+class DegreesStoreIT
+{
+    private static final RelationshipType KNOWS = RelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LIKES = RelationshipType.withName( "LIKES" );
+
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private RecordStorageEngine storageEngine;
+    @Inject
+    private DatabaseLayout layout;
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private DbmsController controller;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( degrees_store_enabled, true );
+    }
+
+    @Test
+    void shouldTrackDegreesOfCreatedAndDeletedRelationships()
+    {
+        // given
+        long[] nodes = createNodesWithRelationships();
+        long a = nodes[0];
+        long b = nodes[1];
+        GBPTreeDegreesStore degrees = storageEngine.degreesStore();
+        int knows = typeId( KNOWS );
+        int likes = typeId( LIKES );
+
+        // then
+        assertEquals( 3, degrees.degree( a, knows, OUTGOING, NULL ) );
+        assertEquals( 1, degrees.degree( a, knows, INCOMING, NULL ) );
+        assertEquals( 1, degrees.degree( a, likes, LOOP, NULL ) );
+        assertEquals( 1, degrees.degree( a, likes, OUTGOING, NULL ) );
+        assertEquals( 3, degrees.degree( b, knows, INCOMING, NULL ) );
+        assertEquals( 1, degrees.degree( b, likes, INCOMING, NULL ) );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            boolean deletedKnows = false;
+            for ( Relationship relationship : tx.getNodeById( a ).getRelationships( Direction.OUTGOING ) )
+            {
+                if ( !deletedKnows && relationship.isType( KNOWS ) )
+                {
+                    relationship.delete();
+                    deletedKnows = true;
+                }
+                else if ( relationship.isType( LIKES ) && relationship.getEndNodeId() == a )
+                {
+                    relationship.delete();
+                }
+            }
+            tx.commit();
+        }
+
+        // then
+        assertEquals( 2, degrees.degree( a, knows, OUTGOING, NULL ) );
+        assertEquals( 0, degrees.degree( a, likes, LOOP, NULL ) );
+        assertEquals( 2, degrees.degree( b, knows, INCOMING, NULL ) );
+        assertDegreesThroughKernel( a, 2, 1, 1 );
+    }
+
+    @Test
+    void shouldSupportFastDegreeLookupOfSparseNodes()
+    {
+        // given
+        long a = createNodesWithRelationships()[0];
+
+        // when
+        try ( RecordStorageReader reader = storageEngine.newReader();
+              RecordNodeCursor cursor = reader.allocateNodeCursor( NULL ) )
+        {
+            cursor.single( a );
+            assertTrue( cursor.next() );
+
+            // then
+            assertFalse( cursor.isDense() );
+            assertTrue( cursor.supportsFastDegreeLookup() );
+        }
+        assertDegreesThroughKernel( a, 3, 1, 2 );
+    }
+
+    @Test
+    void shouldRebuildMissingDegreesStore()
+    {
+        // given
+        long a = createNodesWithRelationships()[0];
+
+        // when
+        controller.restartDbms( builder ->
+        {
+            fs.deleteFile( layout.degreesStore().toFile() );
+            return builder;
+        } );
+
+        // then
+        assertEquals( 3, storageEngine.degreesStore().degree( a, typeId( KNOWS ), OUTGOING, NULL ) );
+        assertDegreesThroughKernel( a, 3, 1, 2 );
+    }
+
+    @Test
+    void shouldRemoveDegreesStoreWhenDisabled()
+    {
+        // given
+        createNodesWithRelationships();
+        assertTrue( fs.fileExists( layout.degreesStore().toFile() ) );
+
+        // when
+        controller.restartDbms( builder -> builder.setConfig( degrees_store_enabled, false ) );
+
+        // then
+        assertNull( storageEngine.degreesStore() );
+        assertFalse( fs.fileExists( layout.degreesStore().toFile() ) );
+    }
+
+    /**
+     * Creates (a)-[:KNOWS]->(b) three times, (b)-[:KNOWS]->(a), (a)-[:LIKES]->(a) and (a)-[:LIKES]->(b).
+     */
+    private long[] createNodesWithRelationships()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node a = tx.createNode();
+            Node b = tx.createNode();
+            for ( int i = 0; i < 3; i++ )
+            {
+                a.createRelationshipTo( b, KNOWS );
+            }
+            b.createRelationshipTo( a, KNOWS );
+            a.createRelationshipTo( a, LIKES );
+            a.createRelationshipTo( b, LIKES );
+            tx.commit();
+            return new long[]{a.getId(), b.getId()};
+        }
+    }
+
+    private void assertDegreesThroughKernel( long nodeId, int knowsOutgoing, int knowsIncoming, int likes )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.getNodeById( nodeId );
+            assertEquals( knowsOutgoing, node.getDegree( KNOWS, Direction.OUTGOING ) );
+            assertEquals( knowsIncoming, node.getDegree( KNOWS, Direction.INCOMING ) );
+            assertEquals( likes, node.getDegree( LIKES, Direction.OUTGOING ) );
+            assertEquals( knowsOutgoing + knowsIncoming + likes, node.getDegree() );
+        }
+    }
+
+    private int typeId( RelationshipType type )
+    {
+        return db.getDependencyResolver().resolveDependency( TokenHolders.class ).relationshipTypeTokens().getIdByName( type.name() );
+    }
+}
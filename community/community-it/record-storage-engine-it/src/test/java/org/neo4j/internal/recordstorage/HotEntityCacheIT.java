@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.Race;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.hot_entity_cache_max_memory;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.internal.helpers.collection.Iterables.count;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+@DbmsExtension( configurationCallback = "configure" )
+class HotEntityCacheIT
+{
+    private static final int LABEL_COUNT = 20;
+
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private RecordStorageEngine storageEngine;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( hot_entity_cache_max_memory, mebiBytes( 1 ) );
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache()
+    {
+        // given
+        long nodeId = createNodeWithManyLabels();
+        HotEntityCache cache = storageEngine.hotEntityCache();
+
+        // when
+        for ( int i = 0; i < 5; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.getNodeById( nodeId );
+                assertEquals( LABEL_COUNT, count( node.getLabels() ) );
+                assertTrue( node.hasLabel( label( "Label" + (LABEL_COUNT - 1) ) ) );
+                assertEquals( "a string which is too long to fit in a property record, so it goes in dynamic records", node.getProperty( "string" ) );
+                assertArrayEquals( new long[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}, (long[]) node.getProperty( "array" ) );
+            }
+        }
+
+        // then
+        assertThat( cache.hits() ).isGreaterThan( 0 );
+        assertThat( cache.usedMemory() ).isGreaterThan( 0 );
+    }
+
+    @Test
+    void shouldSeeCommittedChangesOfCachedNode()
+    {
+        // given
+        long nodeId = createNodeWithManyLabels();
+        readLabelsAndProperties( nodeId );
+        readLabelsAndProperties( nodeId );
+        long hitsBefore = storageEngine.hotEntityCache().hits();
+        readLabelsAndProperties( nodeId );
+        assertThat( storageEngine.hotEntityCache().hits() ).isGreaterThan( hitsBefore );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.getNodeById( nodeId );
+            node.removeLabel( label( "Label0" ) );
+            node.addLabel( label( "Other" ) );
+            node.setProperty( "string", "changed" );
+            node.removeProperty( "array" );
+            tx.commit();
+        }
+
+        // then
+        for ( int i = 0; i < 3; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.getNodeById( nodeId );
+                assertFalse( node.hasLabel( label( "Label0" ) ) );
+                assertTrue( node.hasLabel( label( "Other" ) ) );
+                assertEquals( LABEL_COUNT, count( node.getLabels() ) );
+                assertEquals( "changed", node.getProperty( "string" ) );
+                assertFalse( node.hasProperty( "array" ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldNeverReadStaleValuesUnderConcurrentCommits() throws Throwable
+    {
+        // given
+        long nodeId = createNodeWithManyLabels();
+        int updates = 500;
+        AtomicBoolean done = new AtomicBoolean();
+        Race race = new Race();
+        race.addContestant( () ->
+        {
+            for ( int i = 1; i <= updates; i++ )
+            {
+                try ( Transaction tx = db.beginTx() )
+                {
+                    tx.getNodeById( nodeId ).setProperty( "counter", i );
+                    tx.commit();
+                }
+            }
+            done.set( true );
+        }, 1 );
+        race.addContestants( 4, () ->
+        {
+            // Values only ever increase, so a reader that sees a smaller value than it saw before has read stale data
+            int lastSeen = 0;
+            while ( !done.get() )
+            {
+                int counter = readCounter( nodeId );
+                assertThat( counter ).isGreaterThanOrEqualTo( lastSeen );
+                lastSeen = counter;
+            }
+            assertEquals( updates, readCounter( nodeId ) );
+        }, 1 );
+
+        // when
+        race.go();
+
+        // then
+        assertThat( storageEngine.hotEntityCache().hits() ).isGreaterThan( 0 );
+    }
+
+    private long createNodeWithManyLabels()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Label[] labels = new Label[LABEL_COUNT];
+            for ( int i = 0; i < LABEL_COUNT; i++ )
+            {
+                labels[i] = label( "Label" + i );
+            }
+            Node node = tx.createNode( labels );
+            node.setProperty( "string", "a string which is too long to fit in a property record, so it goes in dynamic records" );
+            node.setProperty( "array", new long[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12} );
+            node.setProperty( "counter", 0 );
+            tx.commit();
+            return node.getId();
+        }
+    }
+
+    private void readLabelsAndProperties( long nodeId )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.getNodeById( nodeId );
+            count( node.getLabels() );
+            node.getAllProperties();
+        }
+    }
+
+    private int readCounter( long nodeId )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            return (int) tx.getNodeById( nodeId ).getProperty( "counter" );
+        }
+    }
+}
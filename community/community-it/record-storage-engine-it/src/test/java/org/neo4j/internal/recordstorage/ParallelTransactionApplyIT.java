@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.Race;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.parallel_transaction_apply;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.internal.helpers.collection.Iterators.count;
+
+@DbmsExtension( configurationCallback = "configure" )
+class ParallelTransactionApplyIT
+{
+    private static final Label PERSON = label( "Person" );
+    private static final RelationshipType KNOWS = withName( "KNOWS" );
+
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private DatabaseTracer databaseTracer;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( parallel_transaction_apply, true );
+    }
+
+    @Test
+    void shouldApplyConcurrentCommitsToAllStores() throws Throwable
+    {
+        // given
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( PERSON ).on( "name" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+        }
+
+        // when
+        int threads = 4;
+        int transactionsPerThread = 100;
+        Race race = new Race();
+        race.addContestants( threads, contestant -> () ->
+        {
+            for ( int i = 0; i < transactionsPerThread; i++ )
+            {
+                try ( Transaction tx = db.beginTx() )
+                {
+                    Node person = tx.createNode( PERSON );
+                    person.setProperty( "name", "person-" + contestant + "-" + i );
+                    person.createRelationshipTo( tx.createNode(), KNOWS );
+                    tx.commit();
+                }
+            }
+        }, 1 );
+        race.go();
+
+        // then
+        int expectedPersons = threads * transactionsPerThread;
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( (long) expectedPersons, tx.execute( "MATCH (n:Person) RETURN count(n) AS c" ).next().get( "c" ) );
+            assertEquals( (long) expectedPersons, tx.execute( "MATCH ()-[r:KNOWS]->() RETURN count(r) AS c" ).next().get( "c" ) );
+            assertEquals( expectedPersons, count( tx.findNodes( PERSON ) ) );
+            assertEquals( expectedPersons, Iterables.count( tx.getAllRelationships() ) );
+            for ( int contestant = 0; contestant < threads; contestant++ )
+            {
+                assertNotNull( tx.findNode( PERSON, "name", "person-" + contestant + "-" + (transactionsPerThread - 1) ) );
+            }
+        }
+        Map<String,Long> stageTimes = databaseTracer.storeApplyStageTimeMillis();
+        assertThat( stageTimes ).containsKeys( RecordStorageEngine.RECORDS_STAGE, RecordStorageEngine.COUNTS_STAGE, BatchContext.LABEL_INDEX_STAGE,
+                BatchContext.RELATIONSHIP_TYPE_INDEX_STAGE, BatchContext.INDEXES_STAGE );
+    }
+}
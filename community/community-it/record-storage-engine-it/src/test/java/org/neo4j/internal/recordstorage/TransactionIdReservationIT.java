@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_id_reservation_size;
+
+@DbmsExtension( configurationCallback = "configure" )
+class TransactionIdReservationIT
+{
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private RecordStorageEngine storageEngine;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( transaction_id_reservation_size, 8 );
+    }
+
+    @Test
+    void shouldGiveBackUnusedIdsWhenTransactionCloses()
+    {
+        // given
+        IdGenerator nodeIds = storageEngine.testAccessNeoStores().getNodeStore().getIdGenerator();
+        long highIdBefore = nodeIds.getHighId();
+
+        // when
+        MutableLongList firstIds = createNodes( 4 );
+        MutableLongList secondIds = createNodes( 4 );
+
+        // then
+        assertEquals( LongArrayList.newListWith( highIdBefore, highIdBefore + 1, highIdBefore + 2, highIdBefore + 3 ), firstIds );
+        assertEquals( LongArrayList.newListWith( highIdBefore + 4, highIdBefore + 5, highIdBefore + 6, highIdBefore + 7 ), secondIds );
+        assertEquals( highIdBefore + 8, nodeIds.getHighId() );
+    }
+
+    @Test
+    void shouldReuseIdsGivenBackByConcurrentTransactions()
+    {
+        // given
+        IdGenerator nodeIds = storageEngine.testAccessNeoStores().getNodeStore().getIdGenerator();
+        MutableLongList allIds = new LongArrayList();
+        try ( Transaction tx1 = db.beginTx();
+              Transaction tx2 = db.beginTx() )
+        {
+            for ( int i = 0; i < 4; i++ )
+            {
+                allIds.add( tx1.createNode().getId() );
+                allIds.add( tx2.createNode().getId() );
+            }
+            tx1.commit();
+            tx2.commit();
+        }
+        long highIdAfterCommits = nodeIds.getHighId();
+
+        // when
+        MutableLongList reusedIds = createNodes( 3 );
+
+        // then
+        allIds.addAll( reusedIds );
+        assertEquals( allIds.size(), allIds.distinct().size() );
+        assertTrue( reusedIds.allSatisfy( id -> id < highIdAfterCommits ) );
+        assertEquals( highIdAfterCommits, nodeIds.getHighId() );
+    }
+
+    private MutableLongList createNodes( int count )
+    {
+        MutableLongList ids = new LongArrayList();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                ids.add( tx.createNode().getId() );
+            }
+            tx.commit();
+        }
+        return ids;
+    }
+}
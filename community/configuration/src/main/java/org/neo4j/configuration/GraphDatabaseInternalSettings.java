@@ -35,6 +35,7 @@ import static org.neo4j.configuration.SettingConstraints.min;
 import static org.neo4j.configuration.SettingConstraints.range;
 import static org.neo4j.configuration.SettingImpl.newBuilder;
 import static org.neo4j.configuration.SettingValueParsers.BOOL;
+import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.configuration.SettingValueParsers.DOUBLE;
 import static org.neo4j.configuration.SettingValueParsers.DURATION;
 import static org.neo4j.configuration.SettingValueParsers.INT;
@@ -43,6 +44,7 @@ import static org.neo4j.configuration.SettingValueParsers.PATH;
 import static org.neo4j.configuration.SettingValueParsers.STRING;
 import static org.neo4j.configuration.SettingValueParsers.ofEnum;
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 
 @ServiceProvider
 public class GraphDatabaseInternalSettings implements SettingsDeclaration
@@ -325,6 +327,12 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Integer> index_population_workers =
             newBuilder( "unsupported.dbms.index_population.workers", INT, 8 ).addConstraint( min( 0 ) ).build();
 
+    @Internal
+    @Description( "Set the number of threads that each index population uses to scan the store. The entity id space is split into ranges " +
+            "which the threads read and filter concurrently. A value of 1 scans the store on the index population main thread only." )
+    public static final Setting<Integer> index_population_scan_workers =
+            newBuilder( "unsupported.dbms.index_population.scan_workers", INT, 1 ).addConstraint( min( 1 ) ).build();
+
     @Internal
     @Description( "The default index provider used for managing full-text indexes. Only 'fulltext-1.0' is supported." )
     public static final Setting<String> default_fulltext_provider =
@@ -337,6 +345,37 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Internal
+    @Description( "Number of threads used to apply transactions during recovery. Consecutive transactions that change disjoint sets of records " +
+            "are applied concurrently, while transactions that touch the same records, or that change schema or tokens, are applied in commit order. " +
+            "A value of 1 applies all transactions sequentially." )
+    public static final Setting<Integer> recovery_parallelism =
+            newBuilder( "unsupported.dbms.recovery.parallelism", INT, 1 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "If `true`, committing transactions hand their transactions to a dedicated log writer thread, " +
+            "which appends, forces and acknowledges them in batches, instead of coordinating the appends and forces amongst themselves." )
+    public static final Setting<Boolean> dedicated_transaction_log_writer =
+            newBuilder( "unsupported.dbms.tx_log.dedicated_writer", BOOL, false ).build();
+
+    @Internal
+    @Description( "The number of appends that can be waiting for the dedicated transaction log writer, " +
+            "before committing transactions have to wait for room. This is also the largest batch the writer will force at once." )
+    public static final Setting<Integer> dedicated_transaction_log_writer_queue_size =
+            newBuilder( "unsupported.dbms.tx_log.dedicated_writer.queue_size", INT, 1024 ).addConstraint( min( 2 ) ).build();
+
+    @Internal
+    @Description( "If `true`, the next transaction log file is created and preallocated in the background, ahead of the rotation that needs it, " +
+            "so that the rotation itself only has to rename it into place and write its header." )
+    public static final Setting<Boolean> prepare_next_transaction_log_file =
+            newBuilder( "unsupported.dbms.tx_log.prepare_next_file", BOOL, false ).build();
+
+    @Internal
+    @Description( "If `true`, the commands of each transaction are written to the transaction log as a single zstd compressed entry. " +
+            "Transaction logs written with this enabled can not be read by versions of Neo4j that do not support compressed entries." )
+    public static final Setting<Boolean> compress_transaction_log_commands =
+            newBuilder( "unsupported.dbms.tx_log.compress_commands", BOOL, false ).build();
+
     @Internal
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
@@ -476,6 +515,58 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Description( "Forces smaller ID cache, in order to preserve memory." )
     public static final Setting<Boolean> force_small_id_cache = newBuilder( "unsupported.dbms.force_small_id_cache", BOOL, Boolean.FALSE ).build();
 
+    @Internal
+    @Description( "Let the transaction state of each transaction start out on-heap and, as it grows, move on to off-heap memory and then to " +
+            "memory-mapped temporary files. Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Boolean> tx_state_spilling = newBuilder( "unsupported.dbms.tx_state.spilling.enabled", BOOL, false ).build();
+
+    @Internal
+    @Description( "The amount of heap memory that a single transaction can use before more of its transaction state is allocated off-heap. " +
+            "Used when unsupported.dbms.tx_state.spilling.enabled is true." )
+    public static final Setting<Long> tx_state_spilling_max_on_heap_memory =
+            newBuilder( "unsupported.dbms.tx_state.spilling.max_on_heap_size", BYTES, mebiBytes( 16 ) ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "The amount of off-heap memory that the transaction state of a single transaction can use before more of it is stored in " +
+            "memory-mapped temporary files. It also goes to temporary files when dbms.memory.off_heap.max_size is reached. " +
+            "Used when unsupported.dbms.tx_state.spilling.enabled is true." )
+    public static final Setting<Long> tx_state_spilling_max_off_heap_memory =
+            newBuilder( "unsupported.dbms.tx_state.spilling.max_off_heap_size", BYTES, mebiBytes( 128 ) ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "Directory for the temporary files of transaction state that didn't fit in memory. " +
+            "Used when unsupported.dbms.tx_state.spilling.enabled is true." )
+    public static final Setting<Path> tx_state_spilling_directory = newBuilder( "unsupported.dbms.directories.tx_state", PATH, Path.of( "tx-state" ) )
+            .setDependency( GraphDatabaseSettings.data_directory )
+            .immutable()
+            .build();
+
+    @Internal
+    @Description( "The maximum number of node and relationship ids a transaction reserves from the id generators at a time. " +
+            "Reserving ranges lets concurrent transactions allocate ids without contending on the shared id generators. " +
+            "Ids left unused in a reserved range are given back when the transaction closes. The default, 1, allocates one id at a time." )
+    public static final Setting<Integer> transaction_id_reservation_size =
+            newBuilder( "unsupported.dbms.transaction_id_reservation_size", INT, 1 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "The maximum amount of heap memory that each database can use to cache decoded labels and properties of frequently read nodes. " +
+            "Cached data is invalidated when transactions touching those nodes are applied. The default, 0, disables the cache." )
+    public static final Setting<Long> hot_entity_cache_max_memory =
+            newBuilder( "unsupported.dbms.record_storage.hot_entity_cache.max_size", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "Apply counts store changes and flush label, relationship type and schema index updates of committed batches concurrently, " +
+            "on a small pool of threads owned by each database, instead of one after the other on the committing thread." )
+    public static final Setting<Boolean> parallel_transaction_apply =
+            newBuilder( "unsupported.dbms.record_storage.parallel_apply", BOOL, false ).build();
+
+    @Internal
+    @Description( "Maintain a persistent store of relationship counts per node, relationship type and direction, so that degrees of " +
+            "every node, sparse or dense, can be looked up without traversing its relationship chains. The store is rebuilt " +
+            "from the relationship store if it is missing, and removed when this setting is disabled." )
+    public static final Setting<Boolean> degrees_store_enabled =
+            newBuilder( "unsupported.dbms.record_storage.degrees_store", BOOL, false ).build();
+
     @Internal
     public static final Setting<Boolean> consistency_check_on_apply =
             newBuilder( "unsupported.dbms.storage.consistency_check_on_apply", BOOL, Boolean.FALSE ).build();
@@ -137,7 +137,8 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "value. For optimal performance this value shouldn't be greater than the number of available processors." )
     public static final Setting<Integer> upgrade_processors = newBuilder( "dbms.upgrade_max_processors", INT, 0 ).addConstraint( min( 0 ) ).dynamic().build();
 
-    @Description( "Database record format. Valid values: `standard`, `high_limit`. " +
+    @Description( "Database record format. Valid values: `standard`, `aligned`, `compact`, `high_limit`. " +
+            "The `compact` format uses smaller records, but is limited to about 4 billion nodes, relationships and properties. " +
             "The `high_limit` format is available for Enterprise Edition only. " +
             "It is required if you have a graph that is larger than 34 billion nodes, 34 billion relationships, or 68 billion properties. " +
             "A change of the record format is irreversible. " +
@@ -549,6 +550,21 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "on available system resources." )
     public static final Setting<String> pagecache_memory = newBuilder( "dbms.memory.pagecache.size", STRING, null ).build();
 
+    @Description( "Page cache memory reserved for specific databases, or for specific types of files in a database, as a comma separated list " +
+            "of `<partition>=<size>` entries. A partition is named either by a database name, or by a database name and a file type separated by " +
+            "a '/', like `neo4j/index`. The file types are 'store' for record stores, 'index' for indexes, 'counts' for the counts store, and " +
+            "'id' for id files. Every file belongs to the most specific partition that matches it, if any. The page cache will not evict the " +
+            "pages of a partition in favour of other files, as long as the partition does not occupy more than its reserved memory. " +
+            "At most half of the page cache can be reserved." )
+    public static final Setting<List<String>> pagecache_partition_reserved =
+            newBuilder( "dbms.memory.pagecache.partition.reserved", listOf( STRING ), emptyList() ).build();
+
+    @Description( "The maximum amount of page cache memory that specific databases, or specific types of files in a database, are allowed to " +
+            "occupy, as a comma separated list of `<partition>=<size>` entries. Partitions are named as in `" +
+            "dbms.memory.pagecache.partition.reserved`. When a partition is full, its files have to evict their own pages to make room for new ones." )
+    public static final Setting<List<String>> pagecache_partition_max =
+            newBuilder( "dbms.memory.pagecache.partition.max", listOf( STRING ), emptyList() ).build();
+
     @Description( "This setting is not used anymore." )
     @Deprecated
     public static final Setting<String> pagecache_swapper = newBuilder( "dbms.memory.pagecache.swapper", STRING, null ).build();
@@ -573,15 +589,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             newBuilder( "dbms.memory.pagecache.flush.buffer.size_in_pages", INT, 128 ).addConstraint( range( 1, 512 ) ).dynamic().build();
 
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
@@ -595,6 +609,16 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<String> pagecache_warmup_prefetch_whitelist =
             newBuilder( "dbms.memory.pagecache.warmup.preload.whitelist", STRING, ".*" ).build();
 
+    @Description( "Page cache warmup can be configured to block the start of a database until the warmup has completed, so the database is not " +
+            "marked as available before its profiled pages are back in memory. Set this to 'false' to warm up the page cache in the background, " +
+            "while the database is already available." )
+    public static final Setting<Boolean> pagecache_warmup_blocking =
+            newBuilder( "dbms.memory.pagecache.warmup.blocking", BOOL, true ).build();
+
+    @Description( "The maximum number of worker threads to use for loading pages into the page cache during warmup." )
+    public static final Setting<Integer> pagecache_warmup_threads = newBuilder( "dbms.memory.pagecache.warmup.threads", INT, 4 )
+            .addConstraint( range( 1, 255 ) ).build();
+
     @Description( "Use direct I/O for page cache. Setting is supported only on Linux and only for a subset of record formats" +
             " that use platform aligned page size." )
     public static final Setting<Boolean> pagecache_direct_io =
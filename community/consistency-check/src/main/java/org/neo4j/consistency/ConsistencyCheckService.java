@@ -44,7 +44,9 @@ import org.neo4j.function.Suppliers;
 import org.neo4j.function.ThrowingSupplier;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.counts.CountsBuilder;
+import org.neo4j.internal.counts.DegreesBuilder;
 import org.neo4j.internal.counts.GBPTreeCountsStore;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
@@ -218,6 +220,8 @@ public class ConsistencyCheckService
         // Don't start the counts store here as part of life, instead only shut down. This is because it's better to let FullCheck
         // start it and add its missing/broken detection where it can report to user.
         life.add( countsManager );
+        DegreesManager degreesManager = new DegreesManager( pageCache, fileSystem, databaseLayout, pageCacheTracer, memoryTracker );
+        life.add( degreesManager );
 
         ConsistencySummaryStatistics summary;
         final File reportFile = chooseReportPath( reportDir );
@@ -278,7 +282,8 @@ public class ConsistencyCheckService
                     new DirectStoreAccess( storeAccess, labelScanStore, relationshipTypeScanstore, indexes, tokenHolders, indexStatisticsStore,
                             idGeneratorFactory );
             FullCheck check = new FullCheck( progressFactory, statistics, numberOfThreads, consistencyFlags, config, verbose, NodeBasedMemoryLimiter.DEFAULT );
-            summary = check.execute( pageCache, stores, countsManager, pageCacheTracer, memoryTracker, new DuplicatingLog( log, reportLog ) );
+            summary = check.execute( pageCache, stores, countsManager, degreesManager, pageCacheTracer, memoryTracker,
+                    new DuplicatingLog( log, reportLog ) );
         }
         finally
         {
@@ -401,6 +406,21 @@ public class ConsistencyCheckService
         }
     }
 
+    private static class RebuildPreventingDegreesInitializer implements DegreesBuilder
+    {
+        @Override
+        public void initialize( GBPTreeDegreesStore.DegreeUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+        {
+            throw new UnsupportedOperationException( "Degrees store needed rebuild, consistency checker will instead report broken degrees store" );
+        }
+
+        @Override
+        public long lastCommittedTxId()
+        {
+            return 0;
+        }
+    }
+
     /**
      * This weird little thing exists because we want to provide {@link CountsStore} from outside checker, but we want to actually instantiate
      * and start it inside the checker where we have the report instance available. So we pass in something that can supply the store...
@@ -443,4 +463,49 @@ public class ConsistencyCheckService
             }
         }
     }
+
+    /**
+     * Like {@link CountsManager}, but for the degrees store, which is optional. If the database doesn't have one, {@code null} is supplied.
+     */
+    private static class DegreesManager extends LifecycleAdapter implements ThrowingSupplier<GBPTreeDegreesStore,IOException>
+    {
+        private final PageCache pageCache;
+        private final FileSystemAbstraction fileSystem;
+        private final DatabaseLayout databaseLayout;
+        private final PageCacheTracer pageCacheTracer;
+        private final MemoryTracker memoryTracker;
+        private GBPTreeDegreesStore degrees;
+
+        DegreesManager( PageCache pageCache, FileSystemAbstraction fileSystem, DatabaseLayout databaseLayout, PageCacheTracer pageCacheTracer,
+                MemoryTracker memoryTracker )
+        {
+            this.pageCache = pageCache;
+            this.fileSystem = fileSystem;
+            this.databaseLayout = databaseLayout;
+            this.pageCacheTracer = pageCacheTracer;
+            this.memoryTracker = memoryTracker;
+        }
+
+        @Override
+        public GBPTreeDegreesStore get() throws IOException
+        {
+            if ( !fileSystem.fileExists( databaseLayout.degreesStore().toFile() ) )
+            {
+                return null;
+            }
+            degrees = new GBPTreeDegreesStore( pageCache, databaseLayout.degreesStore().toFile(), fileSystem,
+                    RecoveryCleanupWorkCollector.ignore(), new RebuildPreventingDegreesInitializer(), true, pageCacheTracer, GBPTreeDegreesStore.NO_MONITOR );
+            degrees.start( NULL, memoryTracker );
+            return degrees;
+        }
+
+        @Override
+        public void shutdown()
+        {
+            if ( degrees != null )
+            {
+                degrees.close();
+            }
+        }
+    }
 }
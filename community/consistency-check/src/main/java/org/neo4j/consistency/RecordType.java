@@ -50,4 +50,5 @@ public enum RecordType
     ID_STORE,
     INDEX,
     COUNTS,
+    DEGREES,
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking.full;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import org.neo4j.consistency.RecordType;
+import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
+import org.neo4j.internal.helpers.progress.ProgressListener;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
+
+/**
+ * Verifies the contents of the degrees store against the relationship store. Nodes are checked in ranges, each range requiring a pass over
+ * the relationship store to compute the expected degrees of its nodes, so that memory usage stays bounded for large stores.
+ */
+class DegreesStoreChecker
+{
+    static final int NODES_PER_RANGE = 1_000_000;
+
+    private static final int OUTGOING = 0;
+    private static final int INCOMING = 1;
+    private static final int LOOP = 2;
+
+    private final GBPTreeDegreesStore degreesStore;
+    private final RecordStore<RelationshipRecord> relationshipStore;
+    private final long nodeHighId;
+    private final InconsistencyReport report;
+    private final int nodesPerRange;
+
+    DegreesStoreChecker( GBPTreeDegreesStore degreesStore, RecordStore<RelationshipRecord> relationshipStore, long nodeHighId, InconsistencyReport report,
+            int nodesPerRange )
+    {
+        this.degreesStore = degreesStore;
+        this.relationshipStore = relationshipStore;
+        this.nodeHighId = nodeHighId;
+        this.report = report;
+        this.nodesPerRange = nodesPerRange;
+    }
+
+    void check( ProgressMonitorFactory progressFactory, PageCursorTracer cursorTracer )
+    {
+        long ranges = (nodeHighId + nodesPerRange - 1) / nodesPerRange;
+        ProgressListener progress = progressFactory.singlePart( "Degrees store consistency check", ranges );
+        progress.started();
+        for ( long fromNodeId = 0; fromNodeId < nodeHighId; fromNodeId += nodesPerRange )
+        {
+            long toNodeId = min( nodeHighId, fromNodeId + nodesPerRange ) - 1;
+            checkRange( fromNodeId, toNodeId, cursorTracer );
+            progress.add( 1 );
+        }
+        progress.done();
+    }
+
+    private void checkRange( long fromNodeId, long toNodeId, PageCursorTracer cursorTracer )
+    {
+        MutableLongObjectMap<MutableIntObjectMap<long[]>> expected = computeExpectedDegrees( fromNodeId, toNodeId, cursorTracer );
+        degreesStore.visitDegrees( fromNodeId, toNodeId, ( nodeId, typeId, outgoing, incoming, loop ) ->
+        {
+            MutableIntObjectMap<long[]> nodeDegrees = expected.get( nodeId );
+            long[] degrees = nodeDegrees != null ? nodeDegrees.remove( typeId ) : null;
+            if ( degrees == null )
+            {
+                degrees = new long[3];
+            }
+            if ( degrees[OUTGOING] != outgoing || degrees[INCOMING] != incoming || degrees[LOOP] != loop )
+            {
+                reportMismatch( nodeId, typeId, degrees, outgoing, incoming, loop );
+            }
+        }, cursorTracer );
+        // Whatever is left was never visited, i.e. is missing from the degrees store
+        expected.forEachKeyValue( ( nodeId, nodeDegrees ) ->
+                nodeDegrees.forEachKeyValue( ( typeId, degrees ) -> reportMismatch( nodeId, typeId, degrees, 0, 0, 0 ) ) );
+    }
+
+    private MutableLongObjectMap<MutableIntObjectMap<long[]>> computeExpectedDegrees( long fromNodeId, long toNodeId, PageCursorTracer cursorTracer )
+    {
+        MutableLongObjectMap<MutableIntObjectMap<long[]>> expected = new LongObjectHashMap<>();
+        long highId = relationshipStore.getHighId();
+        RelationshipRecord record = relationshipStore.newRecord();
+        try ( PageCursor cursor = relationshipStore.openPageCursorForReadingWithPrefetching( 0, cursorTracer ) )
+        {
+            for ( long id = relationshipStore.getNumberOfReservedLowIds(); id < highId; id++ )
+            {
+                relationshipStore.getRecordByCursor( id, record, FORCE, cursor );
+                if ( !record.inUse() )
+                {
+                    continue;
+                }
+                long startNode = record.getFirstNode();
+                long endNode = record.getSecondNode();
+                int type = record.getType();
+                if ( startNode == endNode )
+                {
+                    increment( expected, fromNodeId, toNodeId, startNode, type, LOOP );
+                }
+                else
+                {
+                    increment( expected, fromNodeId, toNodeId, startNode, type, OUTGOING );
+                    increment( expected, fromNodeId, toNodeId, endNode, type, INCOMING );
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static void increment( MutableLongObjectMap<MutableIntObjectMap<long[]>> expected, long fromNodeId, long toNodeId, long nodeId, int type,
+            int direction )
+    {
+        if ( nodeId >= fromNodeId && nodeId <= toNodeId )
+        {
+            expected.getIfAbsentPut( nodeId, IntObjectHashMap::new ).getIfAbsentPut( type, () -> new long[3] )[direction]++;
+        }
+    }
+
+    private void reportMismatch( long nodeId, int typeId, long[] expected, long outgoing, long incoming, long loop )
+    {
+        report.error( format( "Degrees store has degrees outgoing:%d, incoming:%d, loop:%d for node %d and relationship type %d, " +
+                        "but the relationship store has outgoing:%d, incoming:%d, loop:%d",
+                outgoing, incoming, loop, nodeId, typeId, expected[OUTGOING], expected[INCOMING], expected[LOOP] ) );
+        report.updateSummary( RecordType.DEGREES, 1, 0 );
+    }
+}
@@ -44,6 +44,7 @@ import org.neo4j.consistency.store.DirectStoreAccess;
 import org.neo4j.consistency.store.RecordAccess;
 import org.neo4j.counts.CountsStore;
 import org.neo4j.function.ThrowingSupplier;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.progress.ProgressListener;
 import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
@@ -77,6 +78,7 @@ public class FullCheck
     private static final String INDEX_STRUCTURE_CHECKER_TAG = "indexStructureChecker";
     private static final String CONSISTENCY_RECORD_ACCESSOR_TAG = "consistencyRecordAccessor";
     private static final String COUNT_STORE_CONSISTENCY_CHECKER_TAG = "countStoreConsistencyChecker";
+    private static final String DEGREES_STORE_CONSISTENCY_CHECKER_TAG = "degreesStoreConsistencyChecker";
     private final boolean useExperimentalChecker;
     private final Config config;
     private final boolean verbose;
@@ -103,11 +105,26 @@ public class FullCheck
 
     public ConsistencySummaryStatistics execute( PageCache pageCache, DirectStoreAccess stores, ThrowingSupplier<CountsStore,IOException> countsSupplier,
             PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker, Log log ) throws ConsistencyCheckIncompleteException
+    {
+        return execute( pageCache, stores, countsSupplier, () -> null, pageCacheTracer, memoryTracker, log );
+    }
+
+    /**
+     * @param degreesSupplier supplies the degrees store to check, or {@code null} if the database doesn't have one.
+     */
+    public ConsistencySummaryStatistics execute( PageCache pageCache, DirectStoreAccess stores, ThrowingSupplier<CountsStore,IOException> countsSupplier,
+            ThrowingSupplier<GBPTreeDegreesStore,IOException> degreesSupplier, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker, Log log )
+            throws ConsistencyCheckIncompleteException
     {
         ConsistencySummaryStatistics summary = new ConsistencySummaryStatistics();
         InconsistencyReport report = new InconsistencyReport( new InconsistencyMessageLogger( log ), summary );
         CountsStore countsStore = getCountsStore( countsSupplier, log, summary );
         execute( pageCache, stores, report, countsStore, pageCacheTracer, memoryTracker );
+        GBPTreeDegreesStore degreesStore = getDegreesStore( degreesSupplier, log, summary );
+        if ( degreesStore != null )
+        {
+            checkDegreesStoreConsistency( stores, report, degreesStore, pageCacheTracer );
+        }
 
         if ( !summary.isConsistent() )
         {
@@ -148,6 +165,42 @@ public class FullCheck
         return countsStore;
     }
 
+    private GBPTreeDegreesStore getDegreesStore( ThrowingSupplier<GBPTreeDegreesStore,IOException> degreesSupplier, Log log,
+            ConsistencySummaryStatistics summary )
+    {
+        if ( flags.isCheckGraph() || flags.isCheckIndexStructure() )
+        {
+            try
+            {
+                return degreesSupplier.get();
+            }
+            catch ( Exception e )
+            {
+                log.error( "Degrees store is broken or of an older format and will not be consistency checked", e );
+                summary.update( RecordType.DEGREES, 1, 0 );
+            }
+        }
+        return null;
+    }
+
+    private void checkDegreesStoreConsistency( DirectStoreAccess stores, InconsistencyReport report, GBPTreeDegreesStore degreesStore,
+            PageCacheTracer pageCacheTracer )
+    {
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( DEGREES_STORE_CONSISTENCY_CHECKER_TAG ) )
+        {
+            if ( flags.isCheckIndexStructure() )
+            {
+                consistencyCheckSingleCheckable( report, ProgressListener.NONE, degreesStore, RecordType.DEGREES, cursorTracer );
+            }
+            if ( flags.isCheckGraph() )
+            {
+                StoreAccess nativeStores = stores.nativeStores();
+                new DegreesStoreChecker( degreesStore, nativeStores.getRelationshipStore(), nativeStores.getNodeStore().getHighId(), report,
+                        DegreesStoreChecker.NODES_PER_RANGE ).check( progressFactory, cursorTracer );
+            }
+        }
+    }
+
     void execute( PageCache pageCache, final DirectStoreAccess directStoreAccess, final InconsistencyReport report, CountsStore countsStore,
             PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker ) throws ConsistencyCheckIncompleteException
     {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.cli.AbstractCommand;
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.Converters.DatabaseNameConverter;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.ConfigUtils;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.configuration.helpers.NormalizedDatabaseName;
+import org.neo4j.internal.batchimport.cache.NumberArrayFactory;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.compaction.StoreCompactor;
+import org.neo4j.kernel.impl.store.compaction.StoreTraversalProbe;
+import org.neo4j.kernel.impl.util.Validators;
+import org.neo4j.kernel.internal.locker.FileLockException;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.lang.String.format;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.internal.helpers.Strings.joinAsLines;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.kernel.recovery.Recovery.isRecoveryRequired;
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
+
+@Command(
+        name = "compact-store",
+        header = "Compact the record stores of a database.",
+        description = "Compact the record stores of a database. Relationship groups and property records are relocated so that the ones " +
+                "belonging to the same node are stored next to each other, and store files are truncated after their last record in use. " +
+                "Node and relationship ids are not changed. It is not possible to compact a database that is mounted in a running Neo4j server " +
+                "and the database should be dumped before compacting it, since an interrupted compaction cannot be resumed."
+)
+public class CompactStoreCommand extends AbstractCommand
+{
+    private static final String FORMAT = "%-30s%s";
+
+    @Option( names = "--database", description = "Name of the database to compact.", defaultValue = DEFAULT_DATABASE_NAME,
+            converter = DatabaseNameConverter.class )
+    private NormalizedDatabaseName database;
+    @Option( names = "--traversal-sample", paramLabel = "<nodes>", defaultValue = "10000",
+            description = "Number of nodes to expand, before and after compaction, when measuring the page faults of a traversal." )
+    private long traversalSample;
+
+    public CompactStoreCommand( ExecutionContext ctx )
+    {
+        super( ctx );
+    }
+
+    @Override
+    public void execute()
+    {
+        var databaseName = database.name();
+        Config config = buildConfig();
+        DatabaseLayout databaseLayout = Neo4jLayout.of( config ).databaseLayout( databaseName );
+
+        try
+        {
+            Validators.CONTAINS_EXISTING_DATABASE.validate( databaseLayout.databaseDirectory().toFile() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new CommandFailedException( "Database does not exist: " + databaseName, e );
+        }
+
+        try ( Closeable ignored = LockChecker.checkDatabaseLock( databaseLayout );
+              JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( ctx.fs(), config, jobScheduler, PageCacheTracer.NULL ) )
+        {
+            checkDbState( databaseLayout, config );
+            long faultsBefore = StoreTraversalProbe.pageFaults( ctx.fs(), databaseLayout, config, jobScheduler, traversalSample );
+            new StoreCompactor( ctx.fs(), pageCache, databaseLayout, config, NumberArrayFactory.AUTO_WITHOUT_PAGECACHE, PageCacheTracer.NULL,
+                    EmptyMemoryTracker.INSTANCE, new PrintingMonitor() ).run();
+            long faultsAfter = StoreTraversalProbe.pageFaults( ctx.fs(), databaseLayout, config, jobScheduler, traversalSample );
+            ctx.out().println( format( FORMAT, "Traversal page faults before:", faultsBefore ) );
+            ctx.out().println( format( FORMAT, "Traversal page faults after:", faultsAfter ) );
+        }
+        catch ( FileLockException e )
+        {
+            throw new CommandFailedException( "The database is in use. Stop database '" + databaseName + "' and try again.", e );
+        }
+        catch ( CannotWriteException e )
+        {
+            throw new CommandFailedException( "You do not have permission to compact the database.", e );
+        }
+        catch ( CommandFailedException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailedException( format( "Unable to compact database: %s: %s", e.getClass().getSimpleName(), e.getMessage() ), e );
+        }
+    }
+
+    private Config buildConfig()
+    {
+        Config cfg = Config.newBuilder()
+                .fromFileNoThrow( ctx.confDir().resolve( Config.DEFAULT_CONFIG_FILE_NAME ) )
+                .set( GraphDatabaseSettings.neo4j_home, ctx.homeDir() ).build();
+        ConfigUtils.disableAllConnectors( cfg );
+        return cfg;
+    }
+
+    private static void checkDbState( DatabaseLayout databaseLayout, Config config ) throws Exception
+    {
+        if ( isRecoveryRequired( databaseLayout, config, EmptyMemoryTracker.INSTANCE ) )
+        {
+            throw new CommandFailedException( joinAsLines( "Active logical log detected, this might be a source of inconsistencies.",
+                    "Please recover database before running the compaction.",
+                    "To perform recovery please start database and perform clean shutdown." ) );
+        }
+    }
+
+    private class PrintingMonitor implements StoreCompactor.Monitor
+    {
+        @Override
+        public void relocated( StoreType type, long records, long highIdBefore )
+        {
+            ctx.out().println( format( FORMAT, "Relocated " + type.getDatabaseFile().getName() + ":",
+                    format( "%d records in use, high id was %d", records, highIdBefore ) ) );
+        }
+
+        @Override
+        public void truncated( Path file, long sizeBefore, long sizeAfter )
+        {
+            ctx.out().println( format( FORMAT, "Truncated " + file.getFileName() + ":", format( "%d -> %d bytes", sizeBefore, sizeAfter ) ) );
+        }
+    }
+}
@@ -28,13 +28,19 @@ import org.neo4j.cli.AbstractCommand;
 import org.neo4j.cli.CommandFailedException;
 import org.neo4j.cli.ExecutionContext;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.compaction.StoreSpaceUsage;
 import org.neo4j.kernel.impl.util.Validators;
 import org.neo4j.kernel.internal.locker.FileLockException;
+import org.neo4j.logging.NullLogProvider;
 import org.neo4j.logging.internal.NullLogService;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngineFactory;
@@ -42,8 +48,10 @@ import org.neo4j.storageengine.api.StoreVersion;
 import org.neo4j.storageengine.api.StoreVersionCheck;
 
 import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
 import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
 
 @Command(
         name = "store-info",
@@ -52,8 +60,12 @@ import static picocli.CommandLine.Command;
 )
 public class StoreInfoCommand extends AbstractCommand
 {
+    private static final String STORE_INFO_SPACE_USAGE_TAG = "storeInfoSpaceUsage";
+
     @Parameters( description = "Path to database store." )
     private Path storePath;
+    @Option( names = "--space-usage", description = "Also print how much of each store file is used by records in use. Scans all records." )
+    private boolean spaceUsage;
 
     public StoreInfoCommand( ExecutionContext ctx )
     {
@@ -86,6 +98,11 @@ public class StoreInfoCommand extends AbstractCommand
             versionInformation.successor()
                     .map( next -> format( fmt, "Store format superseded in:", next.introductionNeo4jVersion() ) )
                     .ifPresent( ctx.out()::println );
+
+            if ( spaceUsage )
+            {
+                printSpaceUsage( databaseLayout, pageCache, cacheTracer );
+            }
         }
         catch ( FileLockException e )
         {
@@ -96,4 +113,30 @@ public class StoreInfoCommand extends AbstractCommand
             throw new RuntimeException( e );
         }
     }
+
+    private void printSpaceUsage( DatabaseLayout databaseLayout, PageCache pageCache, PageCacheTracer cacheTracer )
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.read_only, true );
+        try ( NeoStores neoStores = new StoreFactory( databaseLayout, config, new DefaultIdGeneratorFactory( ctx.fs(), immediate() ), pageCache, ctx.fs(),
+                NullLogProvider.getInstance(), cacheTracer ).openAllNeoStores();
+              PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( STORE_INFO_SPACE_USAGE_TAG ) )
+        {
+            final String fmt = "%-50s%12s%12s%14s%8s";
+            ctx.out().println( format( fmt, "Store file", "Records", "In use", "Bytes", "Used" ) );
+            for ( StoreSpaceUsage.Usage usage : StoreSpaceUsage.measure( neoStores, ctx.fs(), cursorTracer ) )
+            {
+                ctx.out().println( format( fmt, usage.type().getDatabaseFile().getName(), usage.records(), usage.recordsInUse(), usage.fileSize(),
+                        percent( usage.recordUtilization() ) ) );
+                if ( usage.hasPayload() )
+                {
+                    ctx.out().println( format( "%-50s%46s", "  property blocks in payload of records in use", percent( usage.payloadUtilization() ) ) );
+                }
+            }
+        }
+    }
+
+    private static String percent( double fraction )
+    {
+        return format( "%.1f%%", fraction * 100 );
+    }
 }
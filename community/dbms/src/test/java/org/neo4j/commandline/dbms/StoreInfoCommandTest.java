@@ -31,16 +31,22 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseFile;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.format.standard.StandardV3_4;
 import org.neo4j.kernel.internal.locker.DatabaseLocker;
 import org.neo4j.kernel.internal.locker.Locker;
+import org.neo4j.logging.NullLogProvider;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
@@ -48,9 +54,11 @@ import org.neo4j.test.rule.TestDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.kernel.impl.store.MetaDataStore.Position.STORE_VERSION;
 
@@ -93,7 +101,7 @@ class StoreInfoCommandTest
                         "%n" +
                         "USAGE%n" +
                         "%n" +
-                        "store-info [--verbose] <storePath>%n" +
+                        "store-info [--space-usage] [--verbose] <storePath>%n" +
                         "%n" +
                         "DESCRIPTION%n" +
                         "%n" +
@@ -102,11 +110,13 @@ class StoreInfoCommandTest
                         "%n" +
                         "PARAMETERS%n" +
                         "%n" +
-                        "      <storePath>   Path to database store.%n" +
+                        "      <storePath>     Path to database store.%n" +
                         "%n" +
                         "OPTIONS%n" +
                         "%n" +
-                        "      --verbose     Enable verbose output."
+                        "      --verbose       Enable verbose output.%n" +
+                        "      --space-usage   Also print how much of each store file is used by records%n" +
+                        "                        in use. Scans all records."
         ) );
     }
 
@@ -154,6 +164,20 @@ class StoreInfoCommandTest
         assertThat( exception.getMessage() ).contains( "Unknown store version 'v9.9.9'" );
     }
 
+    @Test
+    void printsSpaceUsageOfStoreFiles() throws Exception
+    {
+        new StoreFactory( databaseLayout, Config.defaults(), new DefaultIdGeneratorFactory( fileSystem, immediate() ), pageCache, fileSystem,
+                NullLogProvider.getInstance(), PageCacheTracer.NULL ).openAllNeoStores( true ).close();
+        CommandLine.populateCommand( command, "--space-usage", databaseDirectory.toFile().getAbsolutePath() );
+        command.execute();
+
+        verify( out ).println( startsWith( "Store file" ) );
+        verify( out ).println( startsWith( DatabaseFile.NODE_STORE.getName() + " " ) );
+        verify( out ).println( startsWith( DatabaseFile.PROPERTY_STORE.getName() + " " ) );
+        verify( out ).println( startsWith( "  property blocks in payload of records in use" ) );
+    }
+
     @Test
     void respectLockFiles() throws IOException
     {
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.api.impl.fulltext;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
@@ -52,17 +53,21 @@ import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
  * The transaction state is indexed prior to querying whenever we detect that the
  * {@link ReadableTransactionState#getDataRevision()}  transaction data revision} has changed.
  * <p>
- * The actual transaction state indexing is done by the {@link FulltextIndexTransactionStateVisitor}, which for the most part only looks at the ids, and then
- * loads the modified entities up through the existing transaction state, via the kernel API.
+ * The indexing is incremental: only the entities that have changed since the last update, according to the change log of the transaction state,
+ * have their documents replaced or removed, by the {@link FulltextIndexTransactionStateUpdater}. This loads the modified entities up through the existing
+ * transaction state, via the kernel API. The near-real-time searcher is then reopened, which only needs to look at the changed parts of the in-memory index.
+ * This way the cost of a query in a transaction follows the size of the changes made since the previous query, rather than the size of the transaction.
  */
 class FulltextIndexTransactionState implements Closeable
 {
     private final List<AutoCloseable> toCloseLater;
     private final MutableLongSet modifiedEntityIdsInThisTransaction;
+    private final MutableLongSet entitiesToUpdate;
     private final TransactionStateLuceneIndexWriter writer;
-    private final FulltextIndexTransactionStateVisitor txStateVisitor;
+    private final FulltextIndexTransactionStateUpdater updater;
     private final boolean visitingNodes;
     private long lastUpdateRevision;
+    private long lastUpdateChangeLogPosition;
     private SearcherReference currentSearcher;
 
     FulltextIndexTransactionState( IndexDescriptor descriptor, Analyzer analyzer, String[] propertyNames )
@@ -70,8 +75,9 @@ class FulltextIndexTransactionState implements Closeable
         toCloseLater = new ArrayList<>();
         writer = new TransactionStateLuceneIndexWriter( analyzer );
         modifiedEntityIdsInThisTransaction = new LongHashSet();
+        entitiesToUpdate = new LongHashSet();
         visitingNodes = descriptor.schema().entityType() == EntityType.NODE;
-        txStateVisitor = new FulltextIndexTransactionStateVisitor( descriptor, propertyNames, modifiedEntityIdsInThisTransaction, writer );
+        updater = new FulltextIndexTransactionStateUpdater( descriptor, propertyNames, writer );
     }
 
     SearcherReference maybeUpdate( QueryContext context, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
@@ -95,17 +101,32 @@ class FulltextIndexTransactionState implements Closeable
         Read read = context.getRead();
         CursorFactory cursors = context.cursors();
         ReadableTransactionState state = context.getTransactionStateOrNull();
-        modifiedEntityIdsInThisTransaction.clear(); // Clear this, so we don't filter out entities who have had their changes reversed since last time.
-        writer.resetWriterState();
-
-        try ( NodeCursor nodeCursor = visitingNodes ? cursors.allocateFullAccessNodeCursor( cursorTracer ) : null;
-              RelationshipScanCursor relationshipCursor = visitingNodes ? null : cursors.allocateRelationshipScanCursor( cursorTracer );
-              PropertyCursor propertyCursor = cursors.allocateFullAccessPropertyCursor( cursorTracer, memoryTracker ) )
+        lastUpdateChangeLogPosition = visitingNodes ? state.visitChangedNodes( lastUpdateChangeLogPosition, entitiesToUpdate::add )
+                                                    : state.visitChangedRelationships( lastUpdateChangeLogPosition, entitiesToUpdate::add );
+        if ( !entitiesToUpdate.isEmpty() )
+        {
+            // Every changed entity is filtered out from the base index results, because its document in the transaction state index, if any,
+            // reflects how it looks in this transaction.
+            modifiedEntityIdsInThisTransaction.addAll( entitiesToUpdate );
+            try ( NodeCursor nodeCursor = visitingNodes ? cursors.allocateFullAccessNodeCursor( cursorTracer ) : null;
+                  RelationshipScanCursor relationshipCursor = visitingNodes ? null : cursors.allocateRelationshipScanCursor( cursorTracer );
+                  PropertyCursor propertyCursor = cursors.allocateFullAccessPropertyCursor( cursorTracer, memoryTracker ) )
+            {
+                updater.init( read, nodeCursor, relationshipCursor, propertyCursor );
+                LongIterator entities = entitiesToUpdate.longIterator();
+                while ( entities.hasNext() )
+                {
+                    updater.update( entities.next() );
+                }
+            }
+            entitiesToUpdate.clear();
+        }
+        SearcherReference searcher = writer.getNearRealTimeSearcher();
+        if ( searcher != currentSearcher )
         {
-            state.accept( txStateVisitor.init( read, nodeCursor, relationshipCursor, propertyCursor ) );
+            currentSearcher = searcher;
+            toCloseLater.add( currentSearcher );
         }
-        currentSearcher = writer.getNearRealTimeSearcher();
-        toCloseLater.add( currentSearcher );
         lastUpdateRevision = state.getDataRevision();
     }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.fulltext;
+
+import org.eclipse.collections.impl.map.mutable.primitive.IntIntHashMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.common.EntityType;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.internal.kernel.api.TokenSet;
+import org.neo4j.internal.schema.FulltextSchemaDescriptor;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.kernel.api.impl.fulltext.LuceneFulltextDocumentStructure.documentRepresentingProperties;
+import static org.neo4j.kernel.api.impl.fulltext.LuceneFulltextDocumentStructure.newTermForChangeOrRemove;
+
+/**
+ * Brings the document of a single changed entity in a {@link TransactionStateLuceneIndexWriter} up to date with the transaction state.
+ * <p>
+ * The entity is loaded through the kernel API, so it is seen as it looks in the transaction. If it still exists, and matches the index according to
+ * the {@link FulltextSchemaDescriptor}, then its document is replaced with one representing its current properties. Otherwise its document, if any,
+ * is removed.
+ */
+class FulltextIndexTransactionStateUpdater
+{
+    private final String[] propertyNames;
+    private final SchemaDescriptor schema;
+    private final boolean visitingNodes;
+    private final Value[] propertyValues;
+    private final IntIntHashMap propKeyToIndex;
+    private final TransactionStateLuceneIndexWriter writer;
+    private Read read;
+    private NodeCursor nodeCursor;
+    private PropertyCursor propertyCursor;
+    private RelationshipScanCursor relationshipCursor;
+
+    FulltextIndexTransactionStateUpdater( IndexDescriptor descriptor, String[] propertyNames, TransactionStateLuceneIndexWriter writer )
+    {
+        this.propertyNames = propertyNames;
+        this.schema = descriptor.schema();
+        this.writer = writer;
+        this.visitingNodes = schema.entityType() == EntityType.NODE;
+        int[] propertyIds = schema.getPropertyIds();
+        propertyValues = new Value[propertyIds.length];
+        propKeyToIndex = new IntIntHashMap();
+        for ( int i = 0; i < propertyIds.length; i++ )
+        {
+            propKeyToIndex.put( propertyIds[i], i );
+        }
+    }
+
+    FulltextIndexTransactionStateUpdater init( Read read, NodeCursor nodeCursor, RelationshipScanCursor relationshipCursor,
+            PropertyCursor propertyCursor )
+    {
+        this.read = read;
+        this.nodeCursor = nodeCursor;
+        this.relationshipCursor = relationshipCursor;
+        this.propertyCursor = propertyCursor;
+        return this;
+    }
+
+    void update( long id ) throws IOException
+    {
+        if ( visitingNodes ? loadNode( id ) : loadRelationship( id ) )
+        {
+            writer.updateDocument( newTermForChangeOrRemove( id ), documentRepresentingProperties( id, propertyNames, readPropertyValues() ) );
+            Arrays.fill( propertyValues, null );
+        }
+        else
+        {
+            writer.deleteDocuments( newTermForChangeOrRemove( id ) );
+        }
+    }
+
+    private boolean loadNode( long id )
+    {
+        read.singleNode( id, nodeCursor );
+        if ( nodeCursor.next() )
+        {
+            TokenSet labels = nodeCursor.labels();
+            if ( schema.isAffected( labels.all() ) )
+            {
+                nodeCursor.properties( propertyCursor );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean loadRelationship( long id )
+    {
+        read.singleRelationship( id, relationshipCursor );
+        if ( relationshipCursor.next() && schema.isAffected( new long[]{relationshipCursor.type()} ) )
+        {
+            relationshipCursor.properties( propertyCursor );
+            return true;
+        }
+        return false;
+    }
+
+    private Value[] readPropertyValues()
+    {
+        while ( propertyCursor.next() )
+        {
+            int propertyKey = propertyCursor.propertyKey();
+            int index = propKeyToIndex.getIfAbsent( propertyKey, -1 );
+            if ( index != -1 )
+            {
+                propertyValues[index] = propertyCursor.propertyValue();
+            }
+        }
+        return propertyValues;
+    }
+}
@@ -37,11 +37,17 @@ import org.neo4j.kernel.api.impl.index.SearcherReference;
 import org.neo4j.kernel.api.impl.index.partition.Neo4jIndexSearcher;
 import org.neo4j.kernel.api.impl.schema.writer.LuceneIndexWriter;
 
+/**
+ * The in-memory Lucene index of the transaction state of a fulltext index. It lives for as long as the transaction, and is kept up to date
+ * by updating the documents of changed entities, rather than being rebuilt.
+ */
 class TransactionStateLuceneIndexWriter implements LuceneIndexWriter, Closeable
 {
     private final Analyzer analyzer;
     private IndexWriter writer;
     private final Directory directory;
+    private DirectoryReader currentReader;
+    private SearcherReference currentSearcher;
 
     TransactionStateLuceneIndexWriter( Analyzer analyzer )
     {
@@ -52,53 +58,55 @@ class TransactionStateLuceneIndexWriter implements LuceneIndexWriter, Closeable
     @Override
     public void addDocument( Document document ) throws IOException
     {
-        writer.addDocument( document );
+        writer().addDocument( document );
     }
 
     @Override
     public void addDocuments( int numDocs, Iterable<Document> document ) throws IOException
     {
-        writer.addDocuments( document );
+        writer().addDocuments( document );
     }
 
     @Override
     public void updateDocument( Term term, Document document ) throws IOException
     {
-        writer.updateDocument( term, document );
+        writer().updateDocument( term, document );
     }
 
     @Override
     public void deleteDocuments( Term term ) throws IOException
     {
-        writer.deleteDocuments( term );
+        writer().deleteDocuments( term );
     }
 
     @Override
     public void deleteDocuments( Query query ) throws IOException
     {
-        writer.deleteDocuments( query );
+        writer().deleteDocuments( query );
     }
 
-    void resetWriterState() throws IOException
+    private IndexWriter writer() throws IOException
     {
-        if ( writer != null )
+        if ( writer == null )
         {
-            // Note that 'rollback' closes the writer.
-            writer.rollback();
+            writer = new IndexWriter( directory, IndexWriterConfigs.transactionState( analyzer ) );
         }
-        openWriter();
-    }
-
-    private void openWriter() throws IOException
-    {
-        writer = new IndexWriter( directory, IndexWriterConfigs.transactionState( analyzer ) );
+        return writer;
     }
 
+    /**
+     * Get a searcher that sees all changes made to this index so far. If there have been changes since the previous call, then a new searcher is
+     * returned, which shares the unchanged segments with the previous one. Otherwise the previous searcher is returned again.
+     */
     SearcherReference getNearRealTimeSearcher() throws IOException
     {
-        DirectoryReader directoryReader = DirectoryReader.open( writer );
-        Neo4jIndexSearcher searcher = new Neo4jIndexSearcher( directoryReader );
-        return new DirectSearcherReference( searcher, directoryReader );
+        DirectoryReader directoryReader = currentReader == null ? DirectoryReader.open( writer() ) : DirectoryReader.openIfChanged( currentReader, writer );
+        if ( directoryReader != null )
+        {
+            currentReader = directoryReader;
+            currentSearcher = new DirectSearcherReference( new Neo4jIndexSearcher( directoryReader ), directoryReader );
+        }
+        return currentSearcher;
     }
 
     @Override
@@ -68,6 +68,16 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
      */
     void clearCache( PageCursorTracer cursorTracer );
 
+    /**
+     * Gives back ids which have been allocated from this id generator, but which will never be used. Typically what is left of a range
+     * from {@link #nextIdBatch(int, PageCursorTracer)} which was reserved by a transaction. The ids must not have been marked in any way
+     * after they were allocated and since no record can have been written for them they are available for allocation again right away.
+     *
+     * @param ids the unused ids to give back.
+     * @param cursorTracer underlying page cursor tracer
+     */
+    void releaseUnusedIds( IdRange ids, PageCursorTracer cursorTracer );
+
     interface Marker extends AutoCloseable
     {
         void markUsed( long id );
@@ -170,6 +180,12 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             delegate.clearCache( cursorTracer );
         }
 
+        @Override
+        public void releaseUnusedIds( IdRange ids, PageCursorTracer cursorTracer )
+        {
+            delegate.releaseUnusedIds( ids, cursorTracer );
+        }
+
         @Override
         public boolean consistencyCheck( ReporterFactory reporterFactory, PageCursorTracer cursorTracer )
         {
@@ -120,6 +120,12 @@ class ReadOnlyHighIdGenerator implements IdGenerator
         // no-op
     }
 
+    @Override
+    public void releaseUnusedIds( IdRange ids, PageCursorTracer cursorTracer )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
     @Override
     public boolean consistencyCheck( ReporterFactory reporterFactory, PageCursorTracer cursorTracer )
     {
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static org.neo4j.internal.id.IdRangeIterator.VALUE_REPRESENTING_NULL;
+
+/**
+ * {@link IdSequence} for a single transaction, or thread, which reserves ranges of ids from an {@link IdGenerator} using
+ * {@link IdGenerator#nextIdBatch(int, PageCursorTracer)} and hands them out locally, so that it doesn't contend with others
+ * for every id it allocates. The first range is a single id and every following range is twice the size of the previous one,
+ * up to a max size, so that allocating a few ids costs little more than allocating them one by one.
+ * Ids left in the current range are given back to the generator in {@link #close()}, after which the sequence
+ * can be used again, starting over with a single id range.
+ *
+ * This class is not thread-safe.
+ */
+public class ReservingIdSequence implements IdSequence, AutoCloseable
+{
+    private final IdGenerator source;
+    private final int maxRangeSize;
+    private final PageCursorTracer cursorTracer;
+    private IdRangeIterator range;
+    private int nextRangeSize = 1;
+
+    public ReservingIdSequence( IdGenerator source, int maxRangeSize, PageCursorTracer cursorTracer )
+    {
+        this.source = source;
+        this.maxRangeSize = maxRangeSize;
+        this.cursorTracer = cursorTracer;
+    }
+
+    @Override
+    public long nextId( PageCursorTracer ignored )
+    {
+        long id;
+        if ( range == null || (id = range.nextId( cursorTracer )) == VALUE_REPRESENTING_NULL )
+        {
+            range = source.nextIdBatch( nextRangeSize, cursorTracer ).iterator();
+            nextRangeSize = Math.min( nextRangeSize * 2, maxRangeSize );
+            id = range.nextId( cursorTracer );
+        }
+        return id;
+    }
+
+    @Override
+    public IdRange nextIdBatch( int size, PageCursorTracer cursorTracer )
+    {
+        return source.nextIdBatch( size, cursorTracer );
+    }
+
+    @Override
+    public void close()
+    {
+        nextRangeSize = 1;
+        if ( range != null )
+        {
+            IdRange unused = range.nextIdBatch( Integer.MAX_VALUE, cursorTracer );
+            range = null;
+            if ( unused.totalSize() > 0 )
+            {
+                source.releaseUnusedIds( unused, cursorTracer );
+            }
+        }
+    }
+}
@@ -205,6 +205,30 @@ class IdRangeMarker implements Marker, IndexedIdGenerator.ReservedMarker
         freeIdsNotifier.set( true );
     }
 
+    /**
+     * Marks an id which has been allocated, but will never be written, as deleted and free. Gaps up to it are bridged the same way as
+     * for a written id, after which the id may already be deleted by an earlier bridging and then only needs to be marked as free.
+     * @param id the unused id.
+     */
+    void markDeletedAndFree( long id )
+    {
+        boolean alreadyBridged = highestWrittenId.get() >= id;
+        bridgeGapBetweenHighestWrittenIdAndThisId( id );
+        if ( !isReservedId( id ) )
+        {
+            prepareRange( id, true );
+            if ( !alreadyBridged )
+            {
+                value.setBit( BITSET_COMMIT, idOffset( id ) );
+            }
+            value.setBit( BITSET_REUSE, idOffset( id ) );
+            writer.merge( key, value, merger );
+            monitor.markedAsDeletedAndFree( id );
+        }
+
+        freeIdsNotifier.set( true );
+    }
+
     private void prepareRange( long id, boolean addition )
     {
         key.setIdRangeIdx( idRangeIndex( id ) );
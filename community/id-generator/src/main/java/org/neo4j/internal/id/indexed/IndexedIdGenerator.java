@@ -444,41 +444,82 @@ public class IndexedIdGenerator implements IdGenerator
     @Override
     public org.neo4j.internal.id.IdRange nextIdBatch( int size, PageCursorTracer cursorTracer )
     {
-        long prev = -1;
-        long startOfRange = -1;
-        int rangeLength = 0;
-        MutableLongList other = null;
-        for ( int i = 0; i < size; i++ )
-        {
-            long id = nextId( cursorTracer );
-            if ( other != null )
+        assertNotReadOnly();
+        maintenance( cursorTracer );
+
+        // Ids from the cache are handed out as defrag ids and the rest is allocated as one contiguous range from high id,
+        // which means that a batch of any size costs at most a single update of the shared highId
+        MutableLongList reused = null;
+        int remaining = size;
+        long id;
+        while ( remaining > 0 && (id = cache.takeOrDefault( NO_ID )) != NO_ID )
+        {
+            if ( reused == null )
             {
-                other.add( id );
+                reused = LongLists.mutable.empty();
             }
-            else
+            reused.add( id );
+            monitor.allocatedFromReused( id );
+            remaining--;
+        }
+
+        long startOfRange = 0;
+        if ( remaining > 0 )
+        {
+            do
             {
-                if ( i == 0 )
-                {
-                    prev = id;
-                    startOfRange = id;
-                    rangeLength = 1;
-                }
-                else
-                {
-                    if ( id == prev + 1 )
-                    {
-                        prev = id;
-                        rangeLength++;
-                    }
-                    else
-                    {
-                        other = LongLists.mutable.empty();
-                        other.add( id );
-                    }
-                }
+                startOfRange = highId.getAndAdd( remaining );
+                IdValidator.assertIdWithinMaxCapacity( idType, startOfRange + remaining - 1, maxId );
+            }
+            while ( IdValidator.hasReservedIdInRange( startOfRange, startOfRange + remaining ) );
+            for ( int i = 0; i < remaining; i++ )
+            {
+                monitor.allocatedFromHigh( startOfRange + i );
             }
         }
-        return new org.neo4j.internal.id.IdRange( other != null ? other.toArray() : EMPTY_LONG_ARRAY, startOfRange, rangeLength );
+        return new org.neo4j.internal.id.IdRange( reused != null ? reused.toArray() : EMPTY_LONG_ARRAY, startOfRange, remaining );
+    }
+
+    @Override
+    public void releaseUnusedIds( org.neo4j.internal.id.IdRange ids, PageCursorTracer cursorTracer )
+    {
+        assertNotReadOnly();
+        if ( !started && needsRebuild )
+        {
+            // Same as for the marker, this id generator will be rebuilt from the store anyway
+            return;
+        }
+
+        long startOfRange = ids.getRangeStart();
+        int rangeLength = ids.getRangeLength();
+        long[] reused = ids.getDefragIds();
+        if ( rangeLength > 0 && highId.compareAndSet( startOfRange + rangeLength, startOfRange ) )
+        {
+            // Nothing has been allocated from high id after this range, so it can simply be handed out again from there
+            rangeLength = 0;
+        }
+        if ( reused.length == 0 && rangeLength == 0 )
+        {
+            return;
+        }
+
+        try ( IdRangeMarker marker = lockAndInstantiateMarker( true, cursorTracer ) )
+        {
+            for ( long id : reused )
+            {
+                // Ids from the cache are already deleted and free, they're only reserved
+                marker.markUnreserved( id );
+            }
+            for ( int i = 0; i < rangeLength; i++ )
+            {
+                marker.markDeletedAndFree( startOfRange + i );
+            }
+        }
+        if ( reused.length > 0 )
+        {
+            // Unreserving doesn't notify the scanner like marking as free does
+            atLeastOneIdOnFreelist.set( true );
+        }
     }
 
     @Override
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+class ReservingIdSequenceTest
+{
+    private final AtomicLong highId = new AtomicLong();
+    private final IdGenerator source = mock( IdGenerator.class );
+
+    @BeforeEach
+    void setUp()
+    {
+        when( source.nextIdBatch( anyInt(), any() ) ).then( invocation ->
+        {
+            int size = invocation.getArgument( 0 );
+            return new IdRange( EMPTY_LONG_ARRAY, highId.getAndAdd( size ), size );
+        } );
+    }
+
+    @Test
+    void shouldReserveGrowingRangesUpToMaxSize()
+    {
+        // given
+        ReservingIdSequence sequence = new ReservingIdSequence( source, 4, NULL );
+
+        // when
+        for ( long expected = 0; expected < 11; expected++ )
+        {
+            assertEquals( expected, sequence.nextId( NULL ) );
+        }
+
+        // then
+        verify( source ).nextIdBatch( 1, NULL );
+        verify( source ).nextIdBatch( 2, NULL );
+        verify( source, times( 2 ) ).nextIdBatch( 4, NULL );
+    }
+
+    @Test
+    void shouldReleaseUnusedIdsOnClose()
+    {
+        // given
+        ReservingIdSequence sequence = new ReservingIdSequence( source, 8, NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+
+        // when
+        sequence.close();
+
+        // then ranges were [0], [1,2], [3,4,5,6] and only 3 was used from the last one
+        verify( source ).releaseUnusedIds( new IdRange( EMPTY_LONG_ARRAY, 4, 3 ), NULL );
+    }
+
+    @Test
+    void shouldReleaseUnusedReusedIdsOnClose()
+    {
+        // given
+        when( source.nextIdBatch( anyInt(), any() ) ).thenReturn( new IdRange( new long[]{5}, 0, 0 ), new IdRange( new long[]{7, 9}, 0, 0 ) );
+        ReservingIdSequence sequence = new ReservingIdSequence( source, 8, NULL );
+        assertEquals( 5, sequence.nextId( NULL ) );
+        assertEquals( 7, sequence.nextId( NULL ) );
+
+        // when
+        sequence.close();
+
+        // then
+        verify( source ).releaseUnusedIds( new IdRange( new long[]{9}, 0, 0 ), NULL );
+    }
+
+    @Test
+    void shouldNotReleaseAnythingWhenAllReservedIdsWereUsed()
+    {
+        // given
+        ReservingIdSequence sequence = new ReservingIdSequence( source, 8, NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+
+        // when
+        sequence.close();
+        sequence.close();
+
+        // then
+        verify( source, never() ).releaseUnusedIds( any(), any() );
+    }
+
+    @Test
+    void shouldStartOverWithSmallRangeAfterClose()
+    {
+        // given
+        ReservingIdSequence sequence = new ReservingIdSequence( source, 8, NULL );
+        sequence.nextId( NULL );
+        sequence.nextId( NULL );
+        sequence.close();
+
+        // when
+        sequence.nextId( NULL );
+
+        // then
+        verify( source, times( 2 ) ).nextIdBatch( 1, NULL );
+    }
+}
@@ -58,6 +58,7 @@ import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
 
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -426,6 +427,141 @@ class IndexedIdGeneratorTest
         }
     }
 
+    @Test
+    void shouldAllocateBatchAsContiguousRangeFromHighId() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 10, NULL );
+
+        // then
+        assertEquals( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, 0, 10 ), batch );
+        assertEquals( 10, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldAllocateBatchWithReusedIdsFirst() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        long id1 = idGenerator.nextId( NULL );
+        long id2 = idGenerator.nextId( NULL );
+        long id3 = idGenerator.nextId( NULL );
+        markUsed( id1 );
+        markUsed( id2 );
+        markUsed( id3 );
+        markDeleted( id2 );
+        markFree( id2 );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 5, NULL );
+
+        // then
+        assertEquals( new org.neo4j.internal.id.IdRange( new long[]{id2}, id3 + 1, 4 ), batch );
+    }
+
+    @Test
+    void shouldNotAllocateBatchOverlappingReservedMaxIntId() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        idGenerator.setHighId( IdValidator.INTEGER_MINUS_ONE - 2 );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 5, NULL );
+
+        // then
+        assertFalse( IdValidator.hasReservedIdInRange( batch.getRangeStart(), batch.getHighId() ) );
+        assertEquals( 5, batch.totalSize() );
+    }
+
+    @Test
+    void shouldGiveBackUnusedIdsOfLastBatchToHighId() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 10, NULL );
+        markUsed( batch.getRangeStart() );
+
+        // when
+        idGenerator.releaseUnusedIds( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, batch.getRangeStart() + 1, 9 ), NULL );
+
+        // then
+        assertEquals( batch.getRangeStart() + 1, idGenerator.getHighId() );
+        assertEquals( batch.getRangeStart() + 1, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldReuseUnusedIdsGivenBack() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 4, NULL );
+        org.neo4j.internal.id.IdRange otherBatch = idGenerator.nextIdBatch( 4, NULL );
+        long usedId = batch.getRangeStart();
+        markUsed( usedId );
+        markUsed( otherBatch.getRangeStart() );
+
+        // when
+        idGenerator.releaseUnusedIds( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, usedId + 1, 3 ), NULL );
+
+        // then
+        MutableLongList reallocated = new LongArrayList();
+        for ( int i = 0; i < 3; i++ )
+        {
+            reallocated.add( idGenerator.nextId( NULL ) );
+        }
+        assertEquals( LongArrayList.newListWith( usedId + 1, usedId + 2, usedId + 3 ), reallocated.sortThis() );
+        assertEquals( otherBatch.getHighId(), idGenerator.getHighId() );
+    }
+
+    @Test
+    void shouldBridgeGapsOverUnusedIdsGivenBack() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 4, NULL );
+        org.neo4j.internal.id.IdRange otherBatch = idGenerator.nextIdBatch( 4, NULL );
+        long usedId = batch.getRangeStart();
+        idGenerator.releaseUnusedIds( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, usedId + 1, 3 ), NULL );
+
+        // when
+        markUsed( usedId );
+        markUsed( otherBatch.getRangeStart() + 1 );
+        restart();
+
+        // then
+        MutableLongList reallocated = new LongArrayList();
+        for ( int i = 0; i < 4; i++ )
+        {
+            reallocated.add( idGenerator.nextId( NULL ) );
+        }
+        assertEquals( LongArrayList.newListWith( usedId + 1, usedId + 2, usedId + 3, otherBatch.getRangeStart() ), reallocated.sortThis() );
+    }
+
+    @Test
+    void shouldReuseUnusedReusedIdsGivenBack() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        long id = idGenerator.nextId( NULL );
+        long otherId = idGenerator.nextId( NULL );
+        markUsed( id );
+        markUsed( otherId );
+        markDeleted( id );
+        markFree( id );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 1, NULL );
+        assertThat( batch.getDefragIds() ).containsExactly( id );
+
+        // when
+        idGenerator.releaseUnusedIds( batch, NULL );
+
+        // then
+        assertEquals( id, idGenerator.nextId( NULL ) );
+    }
+
     @Test
     void shouldUseHighIdSupplierOnCreatingNewFile() throws IOException
     {
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.importer;
+
+import picocli.CommandLine.Option;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.cli.AbstractCommand;
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.Converters.ByteUnitConverter;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.importer.ImportCommand.EscapedCharacterConverter;
+import org.neo4j.importer.ImportCommand.NodeFilesConverter;
+import org.neo4j.importer.ImportCommand.NodeFilesGroup;
+import org.neo4j.importer.ImportCommand.RelationshipFilesGroup;
+import org.neo4j.importer.ImportCommand.RelationsipFilesConverter;
+import org.neo4j.internal.batchimport.input.BadCollector;
+import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.binary.BinaryDataWriter;
+import org.neo4j.internal.batchimport.input.binary.CsvToBinaryConverter;
+import org.neo4j.internal.batchimport.input.csv.CsvInput;
+
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static org.neo4j.csv.reader.Configuration.COMMAS;
+import static org.neo4j.internal.batchimport.input.Collectors.collect;
+import static org.neo4j.internal.batchimport.input.Collectors.silentBadCollector;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.NO_DECORATOR;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.additiveLabels;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.defaultRelationshipType;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.data;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.defaultFormatNodeFileHeader;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.defaultFormatRelationshipFileHeader;
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Help.Visibility.ALWAYS;
+import static picocli.CommandLine.Help.Visibility.NEVER;
+
+@Command(
+        name = "convert-csv",
+        description = "Convert a collection of CSV files into the binary input format of the import command, " +
+                "so that they can be imported with --input-format=BINARY without parsing the CSV again. " +
+                "Each group of node or relationship files is converted into one binary file, named after the first file of the group."
+)
+@SuppressWarnings( "FieldMayBeFinal" )
+public class ConvertCsvCommand extends AbstractCommand
+{
+    static final String BINARY_FILE_SUFFIX = ".bin";
+    private static final org.neo4j.csv.reader.Configuration DEFAULT_CSV_CONFIG = COMMAS;
+
+    @Option( names = "--to", required = true, paramLabel = "<path>", description = "Directory to write the binary files to." )
+    private Path to;
+
+    @Option( names = "--additional-config", paramLabel = "<path>", description = "Configuration file to supply additional configuration in." )
+    private Path additionalConfig;
+
+    @Option( names = "--id-type", paramLabel = "<STRING|INTEGER|ACTUAL>", description = "Type of the node ids, the binary files must be imported " +
+            "with the same id type. Possible values are:%n" +
+            "  STRING: arbitrary strings for identifying nodes,%n" +
+            "  INTEGER: arbitrary integer values for identifying nodes,%n" +
+            "  ACTUAL: (advanced) actual node ids." )
+    private IdType idType = IdType.STRING;
+
+    @Option( names = "--input-encoding", paramLabel = "<character-set>", description = "Character set that input data is encoded in." )
+    private Charset inputEncoding = StandardCharsets.UTF_8;
+
+    @Option( names = "--ignore-extra-columns", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "If un-specified columns should be ignored during the conversion." )
+    private boolean ignoreExtraColumns;
+
+    @Option( names = "--multiline-fields", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not fields from input source can span multiple lines, i.e. contain newline characters." )
+    private boolean multilineFields = DEFAULT_CSV_CONFIG.multilineFields();
+
+    @Option( names = "--ignore-empty-strings", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not empty string fields, i.e. \"\" from input source are ignored, i.e. treated as null." )
+    private boolean ignoreEmptyStrings = DEFAULT_CSV_CONFIG.emptyQuotedStringsAsNull();
+
+    @Option( names = "--trim-strings", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not strings should be trimmed for whitespaces." )
+    private boolean trimStrings = DEFAULT_CSV_CONFIG.trimStrings();
+
+    @Option( names = "--legacy-style-quoting", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not backslash-escaped quote e.g. \\\" is interpreted as inner quote." )
+    private boolean legacyStyleQuoting = DEFAULT_CSV_CONFIG.legacyStyleQuoting();
+
+    @Option( names = "--delimiter", paramLabel = "<char>", converter = EscapedCharacterConverter.class,
+            description = "Delimiter character between values in CSV data. " +
+                    "Also accepts 'TAB' and e.g. 'U+20AC' for specifying character using unicode." )
+    private char delimiter = DEFAULT_CSV_CONFIG.delimiter();
+
+    @Option( names = "--array-delimiter", paramLabel = "<char>", converter = EscapedCharacterConverter.class,
+            description = "Delimiter character between array elements within a value in CSV data. " +
+                    "Also accepts 'TAB' and e.g. 'U+20AC' for specifying character using unicode." )
+    private char arrayDelimiter = DEFAULT_CSV_CONFIG.arrayDelimiter();
+
+    @Option( names = "--quote", paramLabel = "<char>", converter = EscapedCharacterConverter.class,
+            description = "Character to treat as quotation character for values in CSV data. Quotes can be escaped as per RFC 4180 by doubling them, " +
+                    "for example \"\" would be interpreted as a literal \". You cannot escape using \\." )
+    private char quote = DEFAULT_CSV_CONFIG.quotationCharacter();
+
+    @Option( names = "--read-buffer-size", paramLabel = "<size>", converter = ByteUnitConverter.class,
+            description = "Size of each buffer for reading input data. It has to at least be large enough to hold the biggest single value in the input data." )
+    private long bufferSize = DEFAULT_CSV_CONFIG.bufferSize();
+
+    @Option( names = "--chunk-size", paramLabel = "<size>", converter = ByteUnitConverter.class,
+            description = "(advanced) Size of the chunks of rows in the binary files. A chunk is the unit of work that the import command parses " +
+                    "in parallel, a row never spans two chunks." )
+    private long chunkSize = BinaryDataWriter.DEFAULT_CHUNK_SIZE;
+
+    @Option( names = "--normalize-types", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not to normalize property types to Cypher types, e.g. 'int' becomes 'long' and 'float' becomes 'double'" )
+    private boolean normalizeTypes = true;
+
+    @Option( names = "--nodes", required = true, arity = "1..*", converter = NodeFilesConverter.class, paramLabel = "[<label>[:<label>]...=]<files>",
+            description = "Node CSV header and data, like for the import command. The labels, if any, are written into the binary file." )
+    private List<NodeFilesGroup> nodes;
+
+    @Option( names = "--relationships", arity = "1..*", converter = RelationsipFilesConverter.class, showDefaultValue = NEVER, paramLabel = "[<type>=]<files>",
+            description = "Relationship CSV header and data, like for the import command. The type, if any, is written into the binary file." )
+    private List<RelationshipFilesGroup> relationships = new ArrayList<>();
+
+    public ConvertCsvCommand( ExecutionContext ctx )
+    {
+        super( ctx );
+    }
+
+    @Override
+    public void execute()
+    {
+        try
+        {
+            Config config = Config.newBuilder()
+                    .set( GraphDatabaseSettings.neo4j_home, ctx.homeDir().toAbsolutePath() )
+                    .fromFileNoThrow( ctx.confDir().resolve( Config.DEFAULT_CONFIG_FILE_NAME ) )
+                    .fromFileNoThrow( additionalConfig )
+                    .build();
+            ZoneId dbTimeZone = config.get( GraphDatabaseSettings.db_temporal_timezone );
+            Files.createDirectories( to );
+
+            Set<File> targets = new HashSet<>();
+            long tolerance = ignoreExtraColumns ? BadCollector.UNLIMITED_TOLERANCE : 0;
+            try ( Collector badCollector = silentBadCollector( tolerance, collect( false, false, ignoreExtraColumns ) ) )
+            {
+                CsvToBinaryConverter converter = new CsvToBinaryConverter( csvConfiguration(), idType,
+                        defaultFormatNodeFileHeader( () -> dbTimeZone, normalizeTypes ),
+                        defaultFormatRelationshipFileHeader( () -> dbTimeZone, normalizeTypes ),
+                        badCollector, new CsvInput.PrintingMonitor( ctx.out() ), toIntExact( chunkSize ) );
+                for ( NodeFilesGroup group : nodes )
+                {
+                    File target = target( group.files, targets );
+                    long count = converter.convertNodes( data( group.key.isEmpty() ? NO_DECORATOR : additiveLabels( group.key.toArray( new String[0] ) ),
+                            inputEncoding, group.files ), target );
+                    ctx.out().println( format( "Converted %d nodes into %s", count, target ) );
+                }
+                for ( RelationshipFilesGroup group : relationships )
+                {
+                    File target = target( group.files, targets );
+                    long count = converter.convertRelationships( data( defaultRelationshipType( group.key ), inputEncoding, group.files ), target );
+                    ctx.out().println( format( "Converted %d relationships into %s", count, target ) );
+                }
+            }
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new CommandFailedException( e.getMessage(), e );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private File target( File[] files, Set<File> targets )
+    {
+        String name = files[0].getName();
+        int extension = name.lastIndexOf( '.' );
+        File target = to.resolve( (extension > 0 ? name.substring( 0, extension ) : name) + BINARY_FILE_SUFFIX ).toFile();
+        if ( !targets.add( target ) || target.exists() )
+        {
+            throw new CommandFailedException( format( "Binary file %s for %s already exists, convert the files into another directory", target,
+                    files[0] ) );
+        }
+        return target;
+    }
+
+    private org.neo4j.csv.reader.Configuration csvConfiguration()
+    {
+        return DEFAULT_CSV_CONFIG.toBuilder()
+                .withDelimiter( delimiter )
+                .withArrayDelimiter( arrayDelimiter )
+                .withQuotationCharacter( quote )
+                .withMultilineFields( multilineFields )
+                .withEmptyQuotedStringsAsNull( ignoreEmptyStrings )
+                .withTrimStrings( trimStrings )
+                .withLegacyStyleQuoting( legacyStyleQuoting )
+                .withBufferSize( toIntExact( bufferSize ) )
+                .build();
+    }
+}
@@ -48,6 +48,8 @@ import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
 import org.neo4j.internal.batchimport.input.InputException;
 import org.neo4j.internal.batchimport.input.MissingRelationshipDataException;
+import org.neo4j.internal.batchimport.input.binary.BinaryData;
+import org.neo4j.internal.batchimport.input.binary.BinaryInput;
 import org.neo4j.internal.batchimport.input.csv.CsvInput;
 import org.neo4j.internal.batchimport.input.csv.DataFactory;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
@@ -103,6 +105,9 @@ class CsvImporter implements Importer
     private final boolean skipBadEntriesLogging;
     private final long badTolerance;
     private final boolean normalizeTypes;
+    private final boolean incremental;
+    private final boolean deleteTransactionLogs;
+    private final InputFormat inputFormat;
     private final boolean verbose;
     private final Map<Set<String>, List<File[]>> nodeFiles;
     private final Map<String, List<File[]>> relationshipFiles;
@@ -127,6 +132,9 @@ class CsvImporter implements Importer
         this.skipBadEntriesLogging = b.skipBadEntriesLogging;
         this.badTolerance = b.badTolerance;
         this.normalizeTypes = b.normalizeTypes;
+        this.incremental = b.incremental;
+        this.deleteTransactionLogs = b.deleteTransactionLogs;
+        this.inputFormat = requireNonNull( b.inputFormat );
         this.verbose = b.verbose;
         this.nodeFiles = requireNonNull( b.nodeFiles );
         this.relationshipFiles = requireNonNull( b.relationshipFiles );
@@ -147,12 +155,17 @@ class CsvImporter implements Importer
             ZoneId dbTimeZone = databaseConfig.get( GraphDatabaseSettings.db_temporal_timezone );
             Supplier<ZoneId> defaultTimeZone = () -> dbTimeZone;
 
-            final var nodeData = nodeData();
-            final var relationshipsData = relationshipData();
-
-            CsvInput input = new CsvInput( nodeData, defaultFormatNodeFileHeader( defaultTimeZone, normalizeTypes ),
-                relationshipsData, defaultFormatRelationshipFileHeader( defaultTimeZone, normalizeTypes ), idType,
-                csvConfig, new CsvInput.PrintingMonitor( stdOut ), memoryTracker );
+            Input input;
+            if ( inputFormat == InputFormat.BINARY )
+            {
+                input = new BinaryInput( binaryNodeData(), binaryRelationshipData(), idType, memoryTracker );
+            }
+            else
+            {
+                input = new CsvInput( nodeData(), defaultFormatNodeFileHeader( defaultTimeZone, normalizeTypes ),
+                        relationshipData(), defaultFormatRelationshipFileHeader( defaultTimeZone, normalizeTypes ), idType,
+                        csvConfig, new CsvInput.PrintingMonitor( stdOut ), memoryTracker );
+            }
 
             doImport( input, badCollector );
         }
@@ -190,7 +203,14 @@ class CsvImporter implements Importer
 
             printOverview( databaseLayout.databaseDirectory().toFile(), nodeFiles, relationshipFiles, importConfig, stdOut );
 
-            importer.doImport( input );
+            if ( incremental )
+            {
+                importer.doIncrementalImport( input, deleteTransactionLogs );
+            }
+            else
+            {
+                importer.doImport( input );
+            }
 
             success = true;
         }
@@ -358,6 +378,20 @@ class CsvImporter implements Importer
         return result;
     }
 
+    private Iterable<BinaryData> binaryRelationshipData()
+    {
+        final var result = new ArrayList<BinaryData>();
+        relationshipFiles.forEach( ( defaultTypeName, fileSets ) ->
+        {
+            final var decorator = defaultRelationshipType( defaultTypeName );
+            for ( File[] files : fileSets )
+            {
+                result.add( BinaryData.data( decorator, files ) );
+            }
+        } );
+        return result;
+    }
+
     private Iterable<DataFactory> nodeData()
     {
         final var result = new ArrayList<DataFactory>();
@@ -373,6 +407,20 @@ class CsvImporter implements Importer
         return result;
     }
 
+    private Iterable<BinaryData> binaryNodeData()
+    {
+        final var result = new ArrayList<BinaryData>();
+        nodeFiles.forEach( ( labels, fileSets ) ->
+        {
+            final var decorator = labels.isEmpty() ? NO_DECORATOR : additiveLabels( labels.toArray( new String[0] ) );
+            for ( File[] files : fileSets )
+            {
+                result.add( BinaryData.data( decorator, files ) );
+            }
+        } );
+        return result;
+    }
+
     private Collector getBadCollector( boolean skipBadEntriesLogging, OutputStream badOutput )
     {
         return skipBadEntriesLogging ? silentBadCollector( badTolerance ) :
@@ -390,6 +438,21 @@ class CsvImporter implements Importer
         return new Builder();
     }
 
+    /**
+     * Format of the node and relationship files.
+     */
+    enum InputFormat
+    {
+        /**
+         * CSV files, each group of files starting with a header.
+         */
+        CSV,
+        /**
+         * Files in the binary input format, e.g. converted from CSV files by {@link ConvertCsvCommand}.
+         */
+        BINARY
+    }
+
     static class Builder
     {
         private DatabaseLayout databaseLayout;
@@ -405,6 +468,9 @@ class CsvImporter implements Importer
         private boolean skipBadEntriesLogging;
         private long badTolerance;
         private boolean normalizeTypes;
+        private boolean incremental;
+        private boolean deleteTransactionLogs;
+        private InputFormat inputFormat = InputFormat.CSV;
         private boolean verbose;
         private final Map<Set<String>, List<File[]>> nodeFiles = new HashMap<>();
         private final Map<String, List<File[]>> relationshipFiles = new HashMap<>();
@@ -492,6 +558,24 @@ class CsvImporter implements Importer
             return this;
         }
 
+        Builder withIncremental( boolean incremental )
+        {
+            this.incremental = incremental;
+            return this;
+        }
+
+        Builder withInputFormat( InputFormat inputFormat )
+        {
+            this.inputFormat = inputFormat;
+            return this;
+        }
+
+        Builder withDeleteTransactionLogs( boolean deleteTransactionLogs )
+        {
+            this.deleteTransactionLogs = deleteTransactionLogs;
+            return this;
+        }
+
         Builder withVerbose( boolean verbose )
         {
             this.verbose = verbose;
@@ -44,11 +44,18 @@ import org.neo4j.configuration.Config;
 import org.neo4j.configuration.ConfigUtils;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.configuration.helpers.NormalizedDatabaseName;
+import org.neo4j.importer.CsvImporter.InputFormat;
 import org.neo4j.internal.batchimport.Configuration;
 import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.kernel.internal.locker.DatabaseLocker;
+import org.neo4j.kernel.internal.locker.FileLockException;
+import org.neo4j.kernel.internal.locker.Locker;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper;
 import org.neo4j.kernel.impl.util.Converters;
 import org.neo4j.kernel.impl.util.Validators;
+import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.util.VisibleForTesting;
 
 import static java.lang.Math.toIntExact;
@@ -64,6 +71,7 @@ import static org.neo4j.internal.batchimport.Configuration.DEFAULT;
 import static org.neo4j.internal.batchimport.Configuration.calculateMaxMemoryFromPercent;
 import static org.neo4j.internal.batchimport.Configuration.canDetectFreeMemory;
 import static org.neo4j.io.ByteUnit.bytesToString;
+import static org.neo4j.kernel.recovery.Recovery.isRecoveryRequired;
 import static picocli.CommandLine.Command;
 import static picocli.CommandLine.Help.Visibility.ALWAYS;
 import static picocli.CommandLine.Help.Visibility.NEVER;
@@ -103,6 +111,13 @@ public class ImportCommand extends AbstractCommand
             "https://neo4j.com/docs/operations-manual/current/tools/import/" )
     private IdType idType = IdType.STRING;
 
+    @Option( names = "--input-format", paramLabel = "<CSV|BINARY>", showDefaultValue = ALWAYS, description = "Format of the node and relationship " +
+            "files. Possible values are:%n" +
+            "  CSV: CSV files, each group of files starting with a header,%n" +
+            "  BINARY: files converted from CSV files by the convert-csv command, which are imported without parsing any CSV. " +
+            "Options about CSV data, like delimiters and encoding, don't apply to these." )
+    private InputFormat inputFormat = InputFormat.CSV;
+
     @Option( names = "--input-encoding", paramLabel = "<character-set>", description = "Character set that input data is encoded in." )
     private Charset inputEncoding = StandardCharsets.UTF_8;
 
@@ -191,6 +206,23 @@ public class ImportCommand extends AbstractCommand
             description = "Whether or not to normalize property types to Cypher types, e.g. 'int' becomes 'long' and 'float' becomes 'double'" )
     private boolean normalizeTypes = true;
 
+    @Option( names = "--incremental", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not to append the imported data to an existing database, instead of importing into an empty one. " +
+                    "The database must be stopped and cleanly shut down. Relationships can refer to existing nodes by the ids that are stored as " +
+                    "properties on them, i.e. ids from node id columns with a name, like 'personId:ID(Person)'. The data is checked against the " +
+                    "constraints of the database before the database is changed. All relationship chains are relinked " +
+                    "and counts and token indexes rebuilt, existing data included, so the import takes time in proportion to the size of the whole " +
+                    "database and not only of the appended data. Schema indexes which the appended data belongs in are rebuilt when the database is " +
+                    "started. The transaction logs of the database must be deleted, see --delete-transaction-logs. A failed import leaves the " +
+                    "database in an unusable state, so make a backup of it first." )
+    private boolean incremental;
+
+    @Option( names = "--delete-transaction-logs", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not to delete the transaction logs of the database when importing with --incremental, which is required " +
+                    "since the appended data isn't in them. The database starts over on new transaction logs, which means that backups and other " +
+                    "members of a cluster can no longer catch up with it by pulling transactions." )
+    private boolean deleteTransactionLogs;
+
     @Option( names = "--nodes", required = true, arity = "1..*", converter = NodeFilesConverter.class, paramLabel = "[<label>[:<label>]...=]<files>",
             description = "Node CSV header and data. Multiple files will be logically seen as one big file from the perspective of the importer. The first " +
                     "line must contain the header. Multiple data sources like these can be specified in one import, where each data source has its " +
@@ -236,6 +268,7 @@ public class ImportCommand extends AbstractCommand
                     .withSkipBadEntriesLogging( skipBadEntriesLogging )
                     .withSkipBadRelationships( skipBadRelationships )
                     .withNormalizeTypes( normalizeTypes )
+                    .withInputFormat( inputFormat )
                     .withVerbose( verbose );
 
             nodes.forEach( n -> {
@@ -246,8 +279,26 @@ public class ImportCommand extends AbstractCommand
                 importerBuilder.addRelationshipFiles( n.key, n.files );
             } );
 
-            final var importer = importerBuilder.build();
-            importer.doImport();
+            final var importer = importerBuilder.withIncremental( incremental ).withDeleteTransactionLogs( deleteTransactionLogs ).build();
+            if ( incremental )
+            {
+                checkDatabaseExists( databaseLayout );
+                try ( Locker locker = new DatabaseLocker( ctx.fs(), databaseLayout ) )
+                {
+                    locker.checkLock();
+                    checkRecoveryState( databaseLayout, databaseConfig );
+                    checkTransactionLogs( databaseLayout );
+                    importer.doImport();
+                }
+                catch ( FileLockException e )
+                {
+                    throw new CommandFailedException( "The database is in use. Stop database '" + database.name() + "' and try again.", e );
+                }
+            }
+            else
+            {
+                importer.doImport();
+            }
         }
         catch ( IllegalArgumentException e )
         {
@@ -259,6 +310,53 @@ public class ImportCommand extends AbstractCommand
         }
     }
 
+    private static void checkDatabaseExists( DatabaseLayout databaseLayout )
+    {
+        try
+        {
+            Validators.CONTAINS_EXISTING_DATABASE.validate( databaseLayout.databaseDirectory().toFile() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new CommandFailedException( "Database does not exist: " + databaseLayout.getDatabaseName(), e );
+        }
+    }
+
+    private void checkTransactionLogs( DatabaseLayout databaseLayout )
+    {
+        File logsDirectory = databaseLayout.getTransactionLogsDirectory().toFile();
+        if ( new TransactionLogFilesHelper( ctx.fs(), logsDirectory ).getLogFiles().length == 0 )
+        {
+            return;
+        }
+        if ( !deleteTransactionLogs )
+        {
+            throw new CommandFailedException( "Database '" + databaseLayout.getDatabaseName() + "' has transaction logs in " + logsDirectory +
+                    ", which the appended data won't be in. Specify --delete-transaction-logs to have them deleted and import anyway." );
+        }
+        ctx.err().println( "WARNING: The transaction logs in " + logsDirectory + " will be deleted. Backups and other members of a cluster will no " +
+                "longer be able to catch up with database '" + databaseLayout.getDatabaseName() + "' by pulling transactions." );
+    }
+
+    private static void checkRecoveryState( DatabaseLayout databaseLayout, Config config )
+    {
+        boolean recoveryRequired;
+        try
+        {
+            recoveryRequired = isRecoveryRequired( databaseLayout, config, EmptyMemoryTracker.INSTANCE );
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailedException( "Unable to determine whether or not database '" + databaseLayout.getDatabaseName() +
+                    "' needs recovery: " + e.getMessage(), e );
+        }
+        if ( recoveryRequired )
+        {
+            throw new CommandFailedException( "Active logical log detected, the database wasn't shut down cleanly. " +
+                    "Please start the database and perform a clean shutdown before importing into it." );
+        }
+    }
+
     @VisibleForTesting
     Config loadNeo4jConfig()
     {
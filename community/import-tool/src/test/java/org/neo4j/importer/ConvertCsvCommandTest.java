@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.api.parallel.Resources;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.internal.batchimport.InputIterator;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntity;
+import org.neo4j.internal.batchimport.input.binary.BinaryData;
+import org.neo4j.internal.batchimport.input.binary.BinaryInput;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.SuppressOutputExtension;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.internal.batchimport.input.Collector.EMPTY;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.NO_DECORATOR;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@TestDirectoryExtension
+@ExtendWith( SuppressOutputExtension.class )
+@ResourceLock( Resources.SYSTEM_OUT )
+class ConvertCsvCommandTest
+{
+    @Inject
+    private TestDirectory testDir;
+
+    @Test
+    void shouldConvertNodesAndRelationshipsWithLabelsAndTypeFromCommandLine() throws IOException
+    {
+        // given
+        File nodes = csv( "persons.csv", ":ID,name", "1,Alice", "2,Bob" );
+        File relationships = csv( "knows.csv", ":START_ID,:END_ID", "1,2" );
+        File to = testDir.directory( "binary" );
+
+        // when
+        execute( "--to=" + to.getAbsolutePath(), "--id-type=INTEGER", "--nodes=Person=" + nodes.getAbsolutePath(),
+                "--relationships=KNOWS=" + relationships.getAbsolutePath() );
+
+        // then
+        Input input = new BinaryInput( singletonList( BinaryData.data( NO_DECORATOR, new File( to, "persons.bin" ) ) ),
+                singletonList( BinaryData.data( NO_DECORATOR, new File( to, "knows.bin" ) ) ), IdType.INTEGER, INSTANCE );
+        List<InputEntity> nodeEntities = read( input.nodes( EMPTY ).iterator() );
+        assertEquals( 2, nodeEntities.size() );
+        assertEquals( 1L, nodeEntities.get( 0 ).id() );
+        assertArrayEquals( new String[]{"Person"}, nodeEntities.get( 0 ).labels() );
+        List<InputEntity> relationshipEntities = read( input.relationships( EMPTY ).iterator() );
+        assertEquals( 1, relationshipEntities.size() );
+        assertEquals( "KNOWS", relationshipEntities.get( 0 ).stringType );
+    }
+
+    @Test
+    void shouldNotOverwriteExistingBinaryFile() throws IOException
+    {
+        // given
+        File nodes = csv( "persons.csv", ":ID,name", "1,Alice" );
+        File otherNodes = testDir.directory( "other" );
+        File sameName = new File( otherNodes, "persons.csv" );
+        Files.write( sameName.toPath(), List.of( ":ID,name", "2,Bob" ) );
+        File to = testDir.directory( "binary" );
+
+        // when
+        CommandFailedException e = assertThrows( CommandFailedException.class,
+                () -> execute( "--to=" + to.getAbsolutePath(), "--nodes=" + nodes.getAbsolutePath(), "--nodes=" + sameName.getAbsolutePath() ) );
+
+        // then
+        assertThat( e.getMessage() ).contains( "already exists" );
+    }
+
+    private void execute( String... args )
+    {
+        final var ctx = new ExecutionContext( testDir.homeDir().toPath(), testDir.directory( "conf" ).toPath(), System.out, System.err,
+                testDir.getFileSystem() );
+        final var command = new ConvertCsvCommand( ctx );
+        CommandLine.populateCommand( command, args );
+        command.execute();
+    }
+
+    private File csv( String name, String... lines ) throws IOException
+    {
+        File file = testDir.file( name );
+        Files.write( file.toPath(), List.of( lines ) );
+        return file;
+    }
+
+    private static List<InputEntity> read( InputIterator iterator ) throws IOException
+    {
+        List<InputEntity> entities = new ArrayList<>();
+        try ( iterator;
+              InputChunk chunk = iterator.newChunk() )
+        {
+            while ( iterator.next( chunk ) )
+            {
+                InputEntity entity = new InputEntity();
+                while ( chunk.next( entity ) )
+                {
+                    entities.add( entity );
+                    entity = new InputEntity();
+                }
+            }
+        }
+        return entities;
+    }
+}
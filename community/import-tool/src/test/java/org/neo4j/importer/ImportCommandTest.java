@@ -67,8 +67,9 @@ class ImportCommandTest
         assertEquals( baos.toString().trim(),
                 "USAGE" + lineSeparator() +
                         "" + lineSeparator() +
-                        "import [--verbose] [--cache-on-heap[=<true/false>]] [--high-io[=<true/false>]]" + lineSeparator() +
-                        "       [--ignore-empty-strings[=<true/false>]] [--ignore-extra-columns" + lineSeparator() +
+                        "import [--verbose] [--cache-on-heap[=<true/false>]] [--delete-transaction-logs" + lineSeparator() +
+                        "       [=<true/false>]] [--high-io[=<true/false>]] [--ignore-empty-strings" + lineSeparator() +
+                        "       [=<true/false>]] [--ignore-extra-columns[=<true/false>]] [--incremental" + lineSeparator() +
                         "       [=<true/false>]] [--legacy-style-quoting[=<true/false>]]" + lineSeparator() +
                         "       [--multiline-fields[=<true/false>]] [--normalize-types[=<true/false>]]" + lineSeparator() +
                         "       [--skip-bad-entries-logging[=<true/false>]] [--skip-bad-relationships" + lineSeparator() +
@@ -76,10 +77,10 @@ class ImportCommandTest
                         "       [=<true/false>]] [--additional-config=<path>] [--array-delimiter=<char>]" + lineSeparator() +
                         "       [--bad-tolerance=<num>] [--database=<database>] [--delimiter=<char>]" + lineSeparator() +
                         "       [--id-type=<STRING|INTEGER|ACTUAL>] [--input-encoding=<character-set>]" + lineSeparator() +
-                        "       [--max-memory=<size>] [--processors=<num>] [--quote=<char>]" + lineSeparator() +
-                        "       [--read-buffer-size=<size>] [--report-file=<path>] --nodes=[<label>[:" + lineSeparator() +
-                        "       <label>]...=]<files>... [--nodes=[<label>[:<label>]...=]<files>...]..." + lineSeparator() +
-                        "       [--relationships=[<type>=]<files>...]..." + lineSeparator() +
+                        "       [--input-format=<CSV|BINARY>] [--max-memory=<size>] [--processors=<num>]" + lineSeparator() +
+                        "       [--quote=<char>] [--read-buffer-size=<size>] [--report-file=<path>]" + lineSeparator() +
+                        "       --nodes=[<label>[:<label>]...=]<files>... [--nodes=[<label>[:<label>]..." + lineSeparator() +
+                        "       =]<files>...]... [--relationships=[<type>=]<files>...]..." + lineSeparator() +
                         "" + lineSeparator() +
                         "DESCRIPTION" + lineSeparator() +
                         "" + lineSeparator() +
@@ -108,6 +109,16 @@ class ImportCommandTest
                         "                               the Neo4j Manual: https://neo4j." + lineSeparator() +
                         "                               com/docs/operations-manual/current/tools/import/" + lineSeparator() +
                         "                               Default: STRING" + lineSeparator() +
+                        "      --input-format=<CSV|BINARY>" + lineSeparator() +
+                        "                             Format of the node and relationship files." + lineSeparator() +
+                        "                               Possible values are:" + lineSeparator() +
+                        "                               CSV: CSV files, each group of files starting" + lineSeparator() +
+                        "                               with a header," + lineSeparator() +
+                        "                               BINARY: files converted from CSV files by the" + lineSeparator() +
+                        "                               convert-csv command, which are imported without" + lineSeparator() +
+                        "                               parsing any CSV. Options about CSV data, like" + lineSeparator() +
+                        "                               delimiters and encoding, don't apply to these." + lineSeparator() +
+                        "                               Default: CSV" + lineSeparator() +
                         "      --input-encoding=<character-set>" + lineSeparator() +
                         "                             Character set that input data is encoded in." + lineSeparator() +
                         "                               Default: UTF-8" + lineSeparator() +
@@ -215,6 +226,36 @@ class ImportCommandTest
                         "                               Cypher types, e.g. 'int' becomes 'long' and" + lineSeparator() +
                         "                               'float' becomes 'double'" + lineSeparator() +
                         "                               Default: true" + lineSeparator() +
+                        "      --incremental[=<true/false>]" + lineSeparator() +
+                        "                             Whether or not to append the imported data to an" + lineSeparator() +
+                        "                               existing database, instead of importing into an" + lineSeparator() +
+                        "                               empty one. The database must be stopped and" + lineSeparator() +
+                        "                               cleanly shut down. Relationships can refer to" + lineSeparator() +
+                        "                               existing nodes by the ids that are stored as" + lineSeparator() +
+                        "                               properties on them, i.e. ids from node id" + lineSeparator() +
+                        "                               columns with a name, like 'personId:ID(Person)'." + lineSeparator() +
+                        "                               The data is checked against the constraints of" + lineSeparator() +
+                        "                               the database before the database is changed. All" + lineSeparator() +
+                        "                               relationship chains are relinked and counts and" + lineSeparator() +
+                        "                               token indexes rebuilt, existing data included," + lineSeparator() +
+                        "                               so the import takes time in proportion to the" + lineSeparator() +
+                        "                               size of the whole database and not only of the" + lineSeparator() +
+                        "                               appended data. Schema indexes which the appended" + lineSeparator() +
+                        "                               data belongs in are rebuilt when the database is" + lineSeparator() +
+                        "                               started. The transaction logs of the database" + lineSeparator() +
+                        "                               must be deleted, see --delete-transaction-logs." + lineSeparator() +
+                        "                               A failed import leaves the database in an" + lineSeparator() +
+                        "                               unusable state, so make a backup of it first." + lineSeparator() +
+                        "                               Default: false" + lineSeparator() +
+                        "      --delete-transaction-logs[=<true/false>]" + lineSeparator() +
+                        "                             Whether or not to delete the transaction logs of" + lineSeparator() +
+                        "                               the database when importing with --incremental," + lineSeparator() +
+                        "                               which is required since the appended data isn't" + lineSeparator() +
+                        "                               in them. The database starts over on new" + lineSeparator() +
+                        "                               transaction logs, which means that backups and" + lineSeparator() +
+                        "                               other members of a cluster can no longer catch" + lineSeparator() +
+                        "                               up with it by pulling transactions." + lineSeparator() +
+                        "                               Default: false" + lineSeparator() +
                         "      --nodes=[<label>[:<label>]...=]<files>..." + lineSeparator() +
                         "                             Node CSV header and data. Multiple files will be" + lineSeparator() +
                         "                               logically seen as one big file from the" + lineSeparator() +
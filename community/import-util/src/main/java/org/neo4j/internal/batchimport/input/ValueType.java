@@ -226,7 +226,7 @@ public abstract class ValueType
                 into.putInt( bytes.length ).put( bytes, bytes.length );
             }
         } );
-        add( new ValueType( Double.class, Double.TYPE )
+        add( new ValueType( Double.TYPE, Double.class )
         {
             @Override
             public Object read( ReadableChannel from ) throws IOException
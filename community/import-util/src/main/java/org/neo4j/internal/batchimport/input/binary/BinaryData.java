@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.File;
+
+import org.neo4j.internal.batchimport.input.csv.Decorator;
+
+/**
+ * One or more files in the binary input format, together with a {@link Decorator} for the entities read from them.
+ * Unlike csv data, where all files in a group share the header of the first one, each binary input file carries its own {@link BinaryHeader}.
+ */
+public class BinaryData
+{
+    private final Decorator decorator;
+    private final File[] files;
+
+    private BinaryData( Decorator decorator, File[] files )
+    {
+        this.decorator = decorator;
+        this.files = files;
+    }
+
+    /**
+     * @param decorator Decorator for this data.
+     * @param files the files making up the data.
+     * @return {@link BinaryData} for the supplied {@code files}.
+     */
+    public static BinaryData data( Decorator decorator, File... files )
+    {
+        if ( files.length == 0 )
+        {
+            throw new IllegalArgumentException( "No files specified" );
+        }
+        return new BinaryData( decorator, files );
+    }
+
+    public Decorator decorator()
+    {
+        return decorator;
+    }
+
+    public File[] files()
+    {
+        return files;
+    }
+}
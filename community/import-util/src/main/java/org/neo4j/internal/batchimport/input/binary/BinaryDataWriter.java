@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.neo4j.internal.batchimport.input.ValueType;
+import org.neo4j.internal.batchimport.input.binary.BinaryHeader.Column;
+
+import static java.lang.String.format;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+/**
+ * Writes rows of a file in the binary input format, see {@link BinaryHeader}. Rows are gathered into chunks of roughly
+ * the given chunk size and a row never spans two chunks, a row bigger than the chunk size simply gets a chunk of its own.
+ */
+public class BinaryDataWriter implements Closeable
+{
+    public static final int DEFAULT_CHUNK_SIZE = (int) mebiBytes( 4 );
+
+    private final WritableByteChannel channel;
+    private final BinaryHeader header;
+    private final int chunkSize;
+    private final ChunkChannel chunk;
+    private final ByteBuffer chunkLength = ByteBuffer.allocate( Integer.BYTES );
+    private long rows;
+
+    /**
+     * @param channel channel to write to, positioned at the start of the file. It's closed when this writer is closed.
+     * @param header header of the file, written right away.
+     * @param chunkSize the size in bytes to gather rows up to before they're written as one chunk.
+     */
+    public BinaryDataWriter( WritableByteChannel channel, BinaryHeader header, int chunkSize ) throws IOException
+    {
+        this.channel = channel;
+        this.header = header;
+        this.chunkSize = chunkSize;
+        this.chunk = new ChunkChannel( chunkSize );
+        header.write( channel );
+    }
+
+    /**
+     * Writes one row.
+     *
+     * @param values one value per column of the header, in the same order, or {@code null} for columns that have no value in this row.
+     * @throws IllegalArgumentException if a value doesn't match the {@link ValueType} of its column.
+     */
+    public void write( Object[] values ) throws IOException
+    {
+        Column[] columns = header.columns();
+        if ( values.length != columns.length )
+        {
+            throw new IllegalArgumentException( format( "Expected %d values, one for each column in %s, but got %d", columns.length, header, values.length ) );
+        }
+
+        int rowStart = chunk.position();
+        chunk.putInt( 0 ); // row length, written below when known
+        int nullBitmapStart = chunk.position();
+        for ( int i = 0; i < header.nullBitmapSize(); i++ )
+        {
+            chunk.put( (byte) 0 );
+        }
+        for ( int i = 0; i < columns.length; i++ )
+        {
+            Object value = values[i];
+            if ( value != null )
+            {
+                ValueType valueType = columns[i].valueType();
+                if ( ValueType.typeOf( value ) != valueType )
+                {
+                    chunk.position( rowStart );
+                    throw new IllegalArgumentException( format( "Value %s of type %s doesn't match column %s", value, value.getClass().getSimpleName(),
+                            columns[i] ) );
+                }
+                int nullBitmapByte = nullBitmapStart + i / Byte.SIZE;
+                chunk.put( nullBitmapByte, (byte) (chunk.get( nullBitmapByte ) | (1 << (i % Byte.SIZE))) );
+                valueType.write( value, chunk );
+            }
+        }
+        chunk.putInt( rowStart, chunk.position() - rowStart - Integer.BYTES );
+        rows++;
+
+        if ( chunk.position() > chunkSize && rowStart > 0 )
+        {
+            // This row didn't fit, so it starts the next chunk
+            writeChunk( rowStart );
+        }
+        if ( chunk.position() >= chunkSize )
+        {
+            writeChunk( chunk.position() );
+        }
+    }
+
+    /**
+     * @return number of rows written so far.
+     */
+    public long rows()
+    {
+        return rows;
+    }
+
+    private void writeChunk( int length ) throws IOException
+    {
+        chunkLength.clear();
+        chunkLength.putInt( length ).flip();
+        while ( chunkLength.hasRemaining() )
+        {
+            channel.write( chunkLength );
+        }
+        chunk.drainTo( channel, length );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try ( channel )
+        {
+            if ( chunk.position() > 0 )
+            {
+                writeChunk( chunk.position() );
+            }
+        }
+    }
+}
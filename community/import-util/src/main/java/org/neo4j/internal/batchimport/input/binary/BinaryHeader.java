@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.Groups;
+import org.neo4j.internal.batchimport.input.HeaderException;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.ValueType;
+import org.neo4j.internal.batchimport.input.csv.Type;
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.string.UTF8;
+
+import static java.lang.String.format;
+
+/**
+ * Header of a file in the binary input format, i.e. the {@link IdType} of the ids in it and its typed {@link Column columns}.
+ * A binary input file looks like this:
+ * <pre>
+ * file:   magic (8B) | format version (1B) | header length (4B) | header | chunk...
+ * header: id type | column count (4B) | column...
+ * column: type | name | group name | value type id (1B)
+ * chunk:  chunk length (4B) | row...
+ * row:    row length (4B) | null bitmap (1B per 8 columns) | value of each non-null column...
+ * </pre>
+ * Strings in the header are written as their UTF-8 byte length (4B), or -1 for {@code null}, followed by the bytes.
+ * Values are written without any type information of their own, in the encoding of the {@link ValueType} of their column,
+ * so reading them requires no character decoding or parsing. Rows never span chunks, so each chunk can be read as one
+ * block of bytes and then have its rows parsed independently of all other chunks.
+ */
+public class BinaryHeader
+{
+    private static final byte[] MAGIC = UTF8.encode( "NEO4JBIN" );
+    private static final byte FORMAT_VERSION = 1;
+    private static final int PREAMBLE_SIZE = MAGIC.length + Byte.BYTES + Integer.BYTES;
+    private static final int NULL_STRING = -1;
+
+    private final IdType idType;
+    private final Column[] columns;
+
+    public BinaryHeader( IdType idType, Column... columns )
+    {
+        this.idType = idType;
+        this.columns = columns;
+    }
+
+    public IdType idType()
+    {
+        return idType;
+    }
+
+    public Column[] columns()
+    {
+        return columns;
+    }
+
+    /**
+     * @return number of bytes in the null bitmap of each row.
+     */
+    int nullBitmapSize()
+    {
+        return (columns.length + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    void write( WritableByteChannel channel ) throws IOException
+    {
+        ChunkChannel header = new ChunkChannel( 1024 );
+        header.put( MAGIC, MAGIC.length );
+        header.put( FORMAT_VERSION );
+        header.putInt( 0 ); // header length, written below
+        writeString( header, idType.name() );
+        header.putInt( columns.length );
+        for ( Column column : columns )
+        {
+            writeString( header, column.type.name() );
+            writeString( header, column.name );
+            writeString( header, column.group == Group.GLOBAL ? null : column.group.name() );
+            header.put( column.valueType.id() );
+        }
+        int length = header.position();
+        header.putInt( MAGIC.length + Byte.BYTES, length - PREAMBLE_SIZE );
+        header.drainTo( channel, length );
+    }
+
+    /**
+     * Reads the header from the start of a binary input file.
+     *
+     * @param channel channel positioned at the start of the file, which will be positioned at the first chunk when this method returns.
+     * @param sourceDescription description of the file, for error messages.
+     * @param groups {@link Groups} to look up the id groups of the columns in.
+     * @param createGroups whether or not to create id groups that don't already exist, which is what node headers do.
+     * @return the read header.
+     * @throws HeaderException if this isn't a binary input file, or one that this version can't read.
+     */
+    static BinaryHeader read( ReadableByteChannel channel, String sourceDescription, Groups groups, boolean createGroups ) throws IOException
+    {
+        ByteBuffer preamble = ByteBuffer.allocate( PREAMBLE_SIZE );
+        byte[] magic = new byte[MAGIC.length];
+        try
+        {
+            ChunkChannel.readFully( channel, preamble );
+        }
+        catch ( ReadPastEndException e )
+        {
+            throw new HeaderException( sourceDescription + " is not a binary input file", e );
+        }
+        preamble.flip();
+        preamble.get( magic );
+        if ( !Arrays.equals( MAGIC, magic ) )
+        {
+            throw new HeaderException( sourceDescription + " is not a binary input file" );
+        }
+        byte version = preamble.get();
+        if ( version != FORMAT_VERSION )
+        {
+            throw new HeaderException( format( "%s has binary input format version %d, but only version %d is supported",
+                    sourceDescription, version, FORMAT_VERSION ) );
+        }
+
+        int headerLength = preamble.getInt();
+        ChunkChannel header = new ChunkChannel( headerLength );
+        try
+        {
+            header.fill( channel, headerLength );
+            IdType idType = IdType.valueOf( readString( header ) );
+            Column[] columns = new Column[header.getInt()];
+            for ( int i = 0; i < columns.length; i++ )
+            {
+                Type type = Type.valueOf( readString( header ) );
+                String name = readString( header );
+                String groupName = readString( header );
+                Group group = createGroups ? groups.getOrCreate( groupName ) : groups.get( groupName );
+                ValueType valueType = ValueType.typeOf( header.get() );
+                columns[i] = new Column( type, name, group, valueType );
+            }
+            return new BinaryHeader( idType, columns );
+        }
+        catch ( ReadPastEndException e )
+        {
+            throw new HeaderException( "Unexpected end of header in " + sourceDescription, e );
+        }
+    }
+
+    private static void writeString( ChunkChannel channel, String string )
+    {
+        if ( string == null )
+        {
+            channel.putInt( NULL_STRING );
+            return;
+        }
+        byte[] bytes = UTF8.encode( string );
+        channel.putInt( bytes.length );
+        channel.put( bytes, bytes.length );
+    }
+
+    private static String readString( ChunkChannel channel ) throws IOException
+    {
+        int length = channel.getInt();
+        if ( length == NULL_STRING )
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        channel.get( bytes, length );
+        return UTF8.decode( bytes );
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString( columns );
+    }
+
+    /**
+     * One column of a binary input file. Unlike a csv {@link org.neo4j.internal.batchimport.input.csv.Header.Entry}
+     * it has no {@link Type#IGNORE ignored} counterpart, columns which aren't imported simply aren't written.
+     */
+    public static class Column
+    {
+        private final Type type;
+        private final String name;
+        private final Group group;
+        private final ValueType valueType;
+
+        public Column( Type type, String name, Group group, ValueType valueType )
+        {
+            if ( type == Type.IGNORE )
+            {
+                throw new IllegalArgumentException( "Ignored columns are not written to binary input" );
+            }
+            this.type = type;
+            this.name = name;
+            this.group = group;
+            this.valueType = valueType;
+        }
+
+        public Type type()
+        {
+            return type;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public Group group()
+        {
+            return group;
+        }
+
+        public ValueType valueType()
+        {
+            return valueType;
+        }
+
+        @Override
+        public String toString()
+        {
+            return (name != null ? name : "") + ":" + type.name() + (group != Group.GLOBAL ? "(" + group.name() + ")" : "");
+        }
+    }
+}
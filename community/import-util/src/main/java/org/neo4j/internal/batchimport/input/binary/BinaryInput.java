@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import org.neo4j.internal.batchimport.InputIterable;
+import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.Groups;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntity;
+import org.neo4j.internal.batchimport.input.Inputs;
+import org.neo4j.internal.batchimport.input.PropertySizeCalculator;
+import org.neo4j.internal.batchimport.input.ReadableGroups;
+import org.neo4j.internal.batchimport.input.binary.BinaryHeader.Column;
+import org.neo4j.internal.batchimport.input.csv.Type;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Collections.singletonList;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Provides {@link Input} from files in the binary input format, see {@link BinaryHeader}. Compared to {@link org.neo4j.internal.batchimport.input.csv.CsvInput}
+ * there's no character decoding, tokenizing or value parsing, the values are read as they were written, e.g. by {@link CsvToBinaryConverter}.
+ */
+public class BinaryInput implements Input
+{
+    private static final long ESTIMATE_SAMPLE_SIZE = mebiBytes( 1 );
+
+    private final Iterable<BinaryData> nodeData;
+    private final Iterable<BinaryData> relationshipData;
+    private final IdType idType;
+    private final Groups groups;
+    private final Map<Group,String> idPropertyKeys = new HashMap<>();
+    private final MemoryTracker memoryTracker;
+
+    /**
+     * @param nodeData binary node files, each with its own header. From the outside it looks like one stream of nodes.
+     * @param relationshipData binary relationship files, each with its own header. From the outside it looks like one stream of relationships.
+     * @param idType {@link IdType} that the files must have been written with.
+     */
+    public BinaryInput( Iterable<BinaryData> nodeData, Iterable<BinaryData> relationshipData, IdType idType, MemoryTracker memoryTracker )
+    {
+        this( nodeData, relationshipData, idType, new Groups(), memoryTracker );
+    }
+
+    BinaryInput( Iterable<BinaryData> nodeData, Iterable<BinaryData> relationshipData, IdType idType, Groups groups, MemoryTracker memoryTracker )
+    {
+        this.nodeData = nodeData;
+        this.relationshipData = relationshipData;
+        this.idType = idType;
+        this.groups = groups;
+        this.memoryTracker = memoryTracker;
+
+        verifyHeaders();
+    }
+
+    /**
+     * Verifies that all files are binary input files with the expected id type and that relationship files only use
+     * id groups created by node files. Also remembers which property key the input ids of each ID space are stored as, if any.
+     */
+    private void verifyHeaders()
+    {
+        try
+        {
+            for ( BinaryData data : nodeData )
+            {
+                for ( File file : data.files() )
+                {
+                    for ( Column column : readHeader( file, true ).columns() )
+                    {
+                        if ( column.type() == Type.ID && column.name() != null )
+                        {
+                            idPropertyKeys.putIfAbsent( column.group(), column.name() );
+                        }
+                    }
+                }
+            }
+            for ( BinaryData data : relationshipData )
+            {
+                for ( File file : data.files() )
+                {
+                    readHeader( file, false );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private BinaryHeader readHeader( File file, boolean createGroups ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( file.toPath(), READ ) )
+        {
+            return BinaryInputIterator.readHeader( channel, file.getPath(), idType, groups, createGroups );
+        }
+    }
+
+    @Override
+    public InputIterable nodes( Collector badCollector )
+    {
+        return () -> new BinaryInputIterator( nodeData.iterator(), idType, groups, true );
+    }
+
+    @Override
+    public InputIterable relationships( Collector badCollector )
+    {
+        return () -> new BinaryInputIterator( relationshipData.iterator(), idType, groups, false );
+    }
+
+    @Override
+    public IdType idType()
+    {
+        return idType;
+    }
+
+    @Override
+    public ReadableGroups groups()
+    {
+        return groups;
+    }
+
+    @Override
+    public Map<Group,String> idPropertyKeys()
+    {
+        return idPropertyKeys;
+    }
+
+    @Override
+    public Estimates calculateEstimates( PropertySizeCalculator valueSizeCalculator ) throws IOException
+    {
+        long[] nodeSample = sample( nodeData, true, valueSizeCalculator, node -> node.labels().length );
+        long[] relationshipSample = sample( relationshipData, false, valueSizeCalculator, entity -> 0 );
+        return Input.knownEstimates(
+                nodeSample[0], relationshipSample[0],
+                nodeSample[1], relationshipSample[1],
+                nodeSample[2], relationshipSample[2],
+                nodeSample[3] );
+    }
+
+    private long[] sample( Iterable<BinaryData> dataIterable, boolean createGroups, PropertySizeCalculator valueSizeCalculator,
+            ToIntFunction<InputEntity> additionalCalculator ) throws IOException
+    {
+        long[] estimates = new long[4]; // [entity count, property count, property size, labels (for nodes only)]
+        for ( BinaryData data : dataIterable )
+        {
+            for ( File file : data.files() )
+            {
+                try ( BinaryInputIterator iterator = new BinaryInputIterator( singletonList( BinaryData.data( data.decorator(), file ) ).iterator(), idType,
+                        groups, createGroups );
+                      InputChunk chunk = iterator.newChunk();
+                      InputEntity entity = new InputEntity() )
+                {
+                    int entities = 0;
+                    int properties = 0;
+                    int propertySize = 0;
+                    int additional = 0;
+                    while ( iterator.position() < ESTIMATE_SAMPLE_SIZE && iterator.next( chunk ) )
+                    {
+                        for ( ; chunk.next( entity ); entities++ )
+                        {
+                            properties += entity.propertyCount();
+                            propertySize += Inputs.calculatePropertySize( entity, valueSizeCalculator, NULL, memoryTracker );
+                            additional += additionalCalculator.applyAsInt( entity );
+                        }
+                    }
+                    if ( entities > 0 )
+                    {
+                        long entityCountInSource = (long) (((double) file.length() / iterator.position()) * entities);
+                        estimates[0] += entityCountInSource;
+                        estimates[1] += ((double) properties / entities) * entityCountInSource;
+                        estimates[2] += ((double) propertySize / entities) * entityCountInSource;
+                        estimates[3] += ((double) additional / entities) * entityCountInSource;
+                    }
+                }
+            }
+        }
+        return estimates;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.ReadableByteChannel;
+
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntityVisitor;
+import org.neo4j.internal.batchimport.input.InputException;
+import org.neo4j.internal.batchimport.input.ValueType;
+import org.neo4j.internal.batchimport.input.binary.BinaryHeader.Column;
+import org.neo4j.internal.batchimport.input.csv.Decorator;
+import org.neo4j.values.storable.Values;
+
+import static java.lang.String.format;
+
+/**
+ * {@link InputChunk} holding the bytes of one chunk of a binary input file, parsing the next row on each call to
+ * {@link #next(InputEntityVisitor)}. The bytes are read by {@link BinaryInputIterator}, which is the only sequential part,
+ * whereas the parsing happens in whichever thread processes this chunk.
+ */
+class BinaryInputChunk implements InputChunk
+{
+    private final ChunkChannel chunk = new ChunkChannel( 0 );
+
+    // Set in #fill
+    private BinaryHeader header;
+    private Decorator decorator;
+    private String sourceDescription;
+    private long chunkPosition;
+    private byte[] nullBitmap;
+
+    // Set as #next is called
+    private InputEntityVisitor previousVisitor;
+    private InputEntityVisitor visitor;
+
+    void fill( ReadableByteChannel channel, int length, BinaryHeader header, Decorator decorator, String sourceDescription, long chunkPosition )
+            throws IOException
+    {
+        chunk.fill( channel, length );
+        if ( header != this.header )
+        {
+            this.header = header;
+            this.nullBitmap = new byte[header.nullBitmapSize()];
+        }
+        if ( decorator != this.decorator )
+        {
+            this.decorator = decorator;
+            this.visitor = null;
+        }
+        this.sourceDescription = sourceDescription;
+        this.chunkPosition = chunkPosition;
+    }
+
+    @Override
+    public boolean next( InputEntityVisitor nakedVisitor ) throws IOException
+    {
+        if ( !chunk.hasRemaining() )
+        {
+            return false;
+        }
+        if ( visitor == null || nakedVisitor != previousVisitor )
+        {
+            visitor = decorator.apply( nakedVisitor );
+            previousVisitor = nakedVisitor;
+        }
+
+        int rowStart = chunk.position();
+        Column column = null;
+        try
+        {
+            int rowLength = chunk.getInt();
+            int rowEnd = chunk.position() + rowLength;
+            chunk.get( nullBitmap, nullBitmap.length );
+            Column[] columns = header.columns();
+            boolean doContinue = true;
+            for ( int i = 0; i < columns.length && doContinue; i++ )
+            {
+                if ( (nullBitmap[i / Byte.SIZE] & (1 << (i % Byte.SIZE))) != 0 )
+                {
+                    column = columns[i];
+                    doContinue = visit( column );
+                }
+            }
+            // Skips whatever the visitor didn't want to see
+            chunk.position( rowEnd );
+            visitor.endOfEntity();
+            return true;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            String message = format( "ERROR in input" +
+                    "%n  data source: %s" +
+                    "%n  in row at byte: %d" +
+                    "%n  in column: %s" +
+                    "%n  for header: %s" +
+                    "%n  original error: %s",
+                    sourceDescription, chunkPosition + rowStart, column, header, e.getMessage() );
+            throw new InputException( message, e );
+        }
+    }
+
+    private boolean visit( Column column ) throws IOException
+    {
+        boolean actualIds = header.idType() == IdType.ACTUAL;
+        switch ( column.type() )
+        {
+        case ID:
+            if ( actualIds )
+            {
+                return visitor.id( chunk.getLong() );
+            }
+            Object id = column.valueType().read( chunk );
+            boolean doContinue = visitor.id( id, column.group() );
+            if ( column.name() != null )
+            {
+                doContinue = visitor.property( column.name(), id );
+            }
+            return doContinue;
+        case START_ID:
+            return actualIds ? visitor.startId( chunk.getLong() ) : visitor.startId( column.valueType().read( chunk ), column.group() );
+        case END_ID:
+            return actualIds ? visitor.endId( chunk.getLong() ) : visitor.endId( column.valueType().read( chunk ), column.group() );
+        case TYPE:
+            return visitor.type( (String) column.valueType().read( chunk ) );
+        case LABEL:
+            Object labels = column.valueType().read( chunk );
+            return visitor.labels( labels instanceof String[] ? (String[]) labels : new String[]{(String) labels} );
+        case PROPERTY:
+            Object value = propertyValue( column.valueType() );
+            return isEmptyArray( value ) || visitor.property( column.name(), value );
+        default:
+            throw new IllegalArgumentException( column.type().toString() );
+        }
+    }
+
+    private Object propertyValue( ValueType valueType ) throws IOException
+    {
+        if ( valueType == ValueType.stringType() )
+        {
+            // Keep string property values as the UTF-8 bytes they're stored as, the property store wants them as such anyway
+            int length = chunk.getInt();
+            byte[] bytes = new byte[length];
+            chunk.get( bytes, length );
+            return Values.utf8Value( bytes );
+        }
+        return valueType.read( chunk );
+    }
+
+    private static boolean isEmptyArray( Object value )
+    {
+        return value.getClass().isArray() && Array.getLength( value ) == 0;
+    }
+
+    @Override
+    public void close()
+    {   // Nothing to close
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import org.neo4j.internal.batchimport.InputIterator;
+import org.neo4j.internal.batchimport.input.Groups;
+import org.neo4j.internal.batchimport.input.HeaderException;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.UnexpectedEndOfInputException;
+import org.neo4j.internal.batchimport.input.csv.Decorator;
+import org.neo4j.io.fs.ReadPastEndException;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyIterator;
+
+/**
+ * Iterates over the chunks of binary input files. Handing out a chunk only means reading its length and then its bytes in one go,
+ * the rows in it are parsed by the {@link BinaryInputChunk} itself.
+ */
+class BinaryInputIterator implements InputIterator
+{
+    private final Iterator<BinaryData> data;
+    private final IdType idType;
+    private final Groups groups;
+    private final boolean createGroups;
+    private final ByteBuffer chunkLength = ByteBuffer.allocate( Integer.BYTES );
+
+    private Iterator<File> files = emptyIterator();
+    private Decorator decorator;
+    private FileChannel channel;
+    private BinaryHeader header;
+    private String sourceDescription;
+    private long position;
+
+    /**
+     * @param createGroups whether or not the headers of the files may create id groups, which only node files do.
+     */
+    BinaryInputIterator( Iterator<BinaryData> data, IdType idType, Groups groups, boolean createGroups )
+    {
+        this.data = data;
+        this.idType = idType;
+        this.groups = groups;
+        this.createGroups = createGroups;
+    }
+
+    @Override
+    public BinaryInputChunk newChunk()
+    {
+        return new BinaryInputChunk();
+    }
+
+    @Override
+    public synchronized boolean next( InputChunk chunk ) throws IOException
+    {
+        while ( true )
+        {
+            if ( channel == null && !openNextFile() )
+            {
+                return false;
+            }
+
+            try
+            {
+                chunkLength.clear();
+                if ( ChunkChannel.readFully( channel, chunkLength ) )
+                {
+                    int length = chunkLength.flip().getInt();
+                    ((BinaryInputChunk) chunk).fill( channel, length, header, decorator, sourceDescription, position );
+                    position += Integer.BYTES + length;
+                    return true;
+                }
+            }
+            catch ( ReadPastEndException e )
+            {
+                throw new UnexpectedEndOfInputException( format( "Unexpected end of %s in chunk at byte %d", sourceDescription, position ) );
+            }
+            closeCurrentFile();
+        }
+    }
+
+    private boolean openNextFile() throws IOException
+    {
+        while ( !files.hasNext() )
+        {
+            closeDecorator();
+            if ( !data.hasNext() )
+            {
+                return false;
+            }
+            BinaryData next = data.next();
+            files = asList( next.files() ).iterator();
+            decorator = next.decorator();
+        }
+
+        File file = files.next();
+        sourceDescription = file.getPath();
+        channel = FileChannel.open( file.toPath(), READ );
+        header = readHeader( channel, sourceDescription, idType, groups, createGroups );
+        position = channel.position();
+        return true;
+    }
+
+    /**
+     * Reads the header of a binary input file and verifies that its ids are of the expected {@link IdType}.
+     */
+    static BinaryHeader readHeader( FileChannel channel, String sourceDescription, IdType idType, Groups groups, boolean createGroups )
+            throws IOException
+    {
+        BinaryHeader header = BinaryHeader.read( channel, sourceDescription, groups, createGroups );
+        if ( header.idType() != idType )
+        {
+            throw new HeaderException( format( "%s has ids of type %s, but ids of type %s are expected", sourceDescription, header.idType(), idType ) );
+        }
+        return header;
+    }
+
+    /**
+     * @return position in the current file, i.e. the number of bytes of it handed out so far, including its header.
+     */
+    long position()
+    {
+        return position;
+    }
+
+    private void closeCurrentFile() throws IOException
+    {
+        if ( channel != null )
+        {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void closeDecorator()
+    {
+        if ( decorator != null )
+        {
+            decorator.close();
+            decorator = null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            closeCurrentFile();
+            closeDecorator();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.neo4j.io.fs.FlushableChannel;
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.io.fs.ReadableChannel;
+
+/**
+ * In-memory channel over one chunk, or the header, of a binary input file. Values are written into and read from it using
+ * {@link org.neo4j.internal.batchimport.input.ValueType}. It grows as needed when written to and the contents can be moved
+ * to and from a file channel in one go.
+ */
+class ChunkChannel implements ReadableChannel, FlushableChannel
+{
+    private ByteBuffer buffer;
+
+    ChunkChannel( int initialCapacity )
+    {
+        this.buffer = ByteBuffer.allocate( initialCapacity );
+    }
+
+    /**
+     * Reads exactly {@code length} bytes from the {@code channel} into this chunk, replacing its previous contents,
+     * and positions this chunk at the start of them for reading.
+     */
+    void fill( ReadableByteChannel channel, int length ) throws IOException
+    {
+        buffer.clear();
+        ensureCapacity( length );
+        buffer.limit( length );
+        if ( !readFully( channel, buffer ) )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Writes the first {@code length} bytes of this chunk to the {@code channel}, moving any bytes after them
+     * to the start of this chunk.
+     */
+    void drainTo( WritableByteChannel channel, int length ) throws IOException
+    {
+        int end = buffer.position();
+        buffer.position( 0 ).limit( length );
+        while ( buffer.hasRemaining() )
+        {
+            channel.write( buffer );
+        }
+        buffer.limit( end );
+        buffer.compact();
+    }
+
+    int position()
+    {
+        return buffer.position();
+    }
+
+    void position( int position )
+    {
+        buffer.position( position );
+    }
+
+    boolean hasRemaining()
+    {
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Overwrites an {@code int} at the given position, without moving the current position.
+     */
+    void putInt( int position, int value )
+    {
+        buffer.putInt( position, value );
+    }
+
+    /**
+     * Overwrites a {@code byte} at the given position, without moving the current position.
+     */
+    void put( int position, byte value )
+    {
+        buffer.put( position, value );
+    }
+
+    byte get( int position )
+    {
+        return buffer.get( position );
+    }
+
+    /**
+     * Reads from the {@code channel} until the {@code target} is full.
+     *
+     * @return {@code false} if the channel was at its end before anything was read, otherwise {@code true}.
+     * @throws ReadPastEndException if the channel ended after some, but not all, bytes were read.
+     */
+    static boolean readFully( ReadableByteChannel channel, ByteBuffer target ) throws IOException
+    {
+        boolean readAnything = false;
+        while ( target.hasRemaining() )
+        {
+            if ( channel.read( target ) == -1 )
+            {
+                if ( readAnything )
+                {
+                    throw ReadPastEndException.INSTANCE;
+                }
+                return false;
+            }
+            readAnything = true;
+        }
+        return true;
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        return bufferWithRemaining( Byte.BYTES ).get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        return bufferWithRemaining( Short.BYTES ).getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        return bufferWithRemaining( Integer.BYTES ).getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        return bufferWithRemaining( Long.BYTES ).getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        return bufferWithRemaining( Float.BYTES ).getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        return bufferWithRemaining( Double.BYTES ).getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        bufferWithRemaining( length ).get( bytes, 0, length );
+    }
+
+    private ByteBuffer bufferWithRemaining( int bytes ) throws ReadPastEndException
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+        return buffer;
+    }
+
+    @Override
+    public Flushable prepareForFlush()
+    {
+        throw new UnsupportedOperationException( "Chunks are drained explicitly" );
+    }
+
+    @Override
+    public FlushableChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.capacity() - buffer.position() < bytes )
+        {
+            int capacity = Math.max( buffer.capacity() * 2, buffer.position() + bytes );
+            ByteBuffer grown = ByteBuffer.allocate( capacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close()
+    {   // Nothing to close
+    }
+}
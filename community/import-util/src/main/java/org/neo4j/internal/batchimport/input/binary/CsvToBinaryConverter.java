@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.csv.reader.CharSeeker;
+import org.neo4j.csv.reader.Configuration;
+import org.neo4j.csv.reader.Extractor;
+import org.neo4j.csv.reader.MultiReadable;
+import org.neo4j.internal.batchimport.InputIterator;
+import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.Groups;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntityVisitor;
+import org.neo4j.internal.batchimport.input.ValueType;
+import org.neo4j.internal.batchimport.input.binary.BinaryHeader.Column;
+import org.neo4j.internal.batchimport.input.csv.CsvGroupInputIterator;
+import org.neo4j.internal.batchimport.input.csv.DataFactory;
+import org.neo4j.internal.batchimport.input.csv.Header;
+import org.neo4j.internal.batchimport.input.csv.Type;
+import org.neo4j.values.storable.DurationValue;
+import org.neo4j.values.storable.PointValue;
+import org.neo4j.values.storable.Value;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.singletonList;
+import static org.neo4j.csv.reader.CharSeekers.charSeeker;
+import static org.neo4j.internal.batchimport.input.csv.Header.NO_MONITOR;
+
+/**
+ * Converts csv input, as read by {@link org.neo4j.internal.batchimport.input.csv.CsvInput}, into files in the binary input format
+ * which {@link BinaryInput} reads. The csv parsing and value extraction is done once here, instead of every time the data is imported.
+ * <p>
+ * All node data must be converted before any relationship data, using the same converter, since relationship headers
+ * refer to the id groups created by node headers.
+ */
+public class CsvToBinaryConverter
+{
+    private static final Map<String,Class<?>> PROPERTY_CLASSES = new HashMap<>();
+    static
+    {
+        PROPERTY_CLASSES.put( "String", String.class );
+        PROPERTY_CLASSES.put( "long", Long.class );
+        PROPERTY_CLASSES.put( "int", Integer.class );
+        PROPERTY_CLASSES.put( "short", Short.class );
+        PROPERTY_CLASSES.put( "byte", Byte.class );
+        PROPERTY_CLASSES.put( "boolean", Boolean.class );
+        PROPERTY_CLASSES.put( "char", Character.class );
+        PROPERTY_CLASSES.put( "float", Float.class );
+        PROPERTY_CLASSES.put( "double", Double.class );
+        PROPERTY_CLASSES.put( "String[]", String[].class );
+        PROPERTY_CLASSES.put( "boolean[]", boolean[].class );
+        PROPERTY_CLASSES.put( "byte[]", byte[].class );
+        PROPERTY_CLASSES.put( "short[]", short[].class );
+        PROPERTY_CLASSES.put( "int[]", int[].class );
+        PROPERTY_CLASSES.put( "long[]", long[].class );
+        PROPERTY_CLASSES.put( "float[]", float[].class );
+        PROPERTY_CLASSES.put( "double[]", double[].class );
+        PROPERTY_CLASSES.put( "Point", PointValue.class );
+        PROPERTY_CLASSES.put( "Date", LocalDate.class );
+        PROPERTY_CLASSES.put( "Time", OffsetTime.class );
+        PROPERTY_CLASSES.put( "DateTime", ZonedDateTime.class );
+        PROPERTY_CLASSES.put( "LocalTime", LocalTime.class );
+        PROPERTY_CLASSES.put( "LocalDateTime", LocalDateTime.class );
+        PROPERTY_CLASSES.put( "Duration", DurationValue.class );
+    }
+
+    private final Configuration config;
+    private final IdType idType;
+    private final Header.Factory nodeHeaderFactory;
+    private final Header.Factory relationshipHeaderFactory;
+    private final Collector badCollector;
+    private final Header.Monitor monitor;
+    private final int chunkSize;
+    private final Groups groups = new Groups();
+
+    /**
+     * @param chunkSize size in bytes of the chunks of the written files, see {@link BinaryDataWriter}.
+     */
+    public CsvToBinaryConverter( Configuration config, IdType idType, Header.Factory nodeHeaderFactory, Header.Factory relationshipHeaderFactory,
+            Collector badCollector, Header.Monitor monitor, int chunkSize )
+    {
+        this.config = config;
+        this.idType = idType;
+        this.nodeHeaderFactory = nodeHeaderFactory;
+        this.relationshipHeaderFactory = relationshipHeaderFactory;
+        this.badCollector = badCollector;
+        this.monitor = monitor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Converts one group of csv node files, i.e. files sharing one header, into one binary file.
+     *
+     * @param data the csv data, its decorator, if any, is applied so that the binary file contains e.g. the additional labels.
+     * @param target binary file to create, it must not already exist.
+     * @return number of converted nodes.
+     */
+    public long convertNodes( DataFactory data, File target ) throws IOException
+    {
+        return convert( data, nodeHeaderFactory, true, target );
+    }
+
+    /**
+     * Converts one group of csv relationship files, i.e. files sharing one header, into one binary file.
+     *
+     * @param data the csv data, its decorator, if any, is applied so that the binary file contains e.g. the default relationship type.
+     * @param target binary file to create, it must not already exist.
+     * @return number of converted relationships.
+     */
+    public long convertRelationships( DataFactory data, File target ) throws IOException
+    {
+        return convert( data, relationshipHeaderFactory, false, target );
+    }
+
+    private long convert( DataFactory data, Header.Factory headerFactory, boolean nodes, File target ) throws IOException
+    {
+        Header header;
+        try ( CharSeeker dataStream = charSeeker( new MultiReadable( data.create( config ).stream() ), config, true ) )
+        {
+            header = headerFactory.create( dataStream, config, idType, groups, NO_MONITOR );
+        }
+        RowVisitor row = new RowVisitor( header, nodes );
+
+        try ( InputIterator iterator = new CsvGroupInputIterator( singletonList( data ).iterator(), headerFactory, idType, config, badCollector,
+                groups, monitor );
+              InputChunk chunk = iterator.newChunk();
+              BinaryDataWriter writer = new BinaryDataWriter( FileChannel.open( target.toPath(), CREATE_NEW, WRITE ), row.header, chunkSize ) )
+        {
+            row.writer = writer;
+            while ( iterator.next( chunk ) )
+            {
+                while ( chunk.next( row ) )
+                {
+                    // Each row is written by the visitor as it ends
+                }
+            }
+            return writer.rows();
+        }
+    }
+
+    /**
+     * Maps the entries of a csv header to binary columns. The visitor callbacks of a row are gathered into the values of those columns,
+     * which are written when the row ends. All label entries are gathered into a single label column.
+     */
+    private class RowVisitor extends InputEntityVisitor.Adapter
+    {
+        private final BinaryHeader header;
+        private final Map<String,Integer> propertyColumns = new HashMap<>();
+        private final Object[] values;
+        private final List<String> labels = new ArrayList<>();
+        private int idColumn = -1;
+        private int startIdColumn = -1;
+        private int endIdColumn = -1;
+        private int typeColumn = -1;
+        private int labelColumn = -1;
+        private BinaryDataWriter writer;
+
+        RowVisitor( Header csvHeader, boolean nodes )
+        {
+            List<Column> columns = new ArrayList<>();
+            for ( Header.Entry entry : csvHeader.entries() )
+            {
+                switch ( entry.type() )
+                {
+                case ID:
+                    idColumn = columns.size();
+                    columns.add( new Column( Type.ID, entry.name(), entry.group(), idValueType() ) );
+                    break;
+                case START_ID:
+                    startIdColumn = columns.size();
+                    columns.add( new Column( Type.START_ID, null, entry.group(), idValueType() ) );
+                    break;
+                case END_ID:
+                    endIdColumn = columns.size();
+                    columns.add( new Column( Type.END_ID, null, entry.group(), idValueType() ) );
+                    break;
+                case TYPE:
+                    typeColumn = columns.size();
+                    columns.add( new Column( Type.TYPE, null, Group.GLOBAL, ValueType.stringType() ) );
+                    break;
+                case LABEL:
+                    if ( nodes && labelColumn == -1 )
+                    {
+                        labelColumn = columns.size();
+                        columns.add( new Column( Type.LABEL, null, Group.GLOBAL, ValueType.typeOf( String[].class ) ) );
+                    }
+                    break;
+                case PROPERTY:
+                    propertyColumns.put( entry.name(), columns.size() );
+                    columns.add( new Column( Type.PROPERTY, entry.name(), Group.GLOBAL, propertyValueType( entry.extractor() ) ) );
+                    break;
+                case IGNORE:
+                    break;
+                default:
+                    throw new IllegalArgumentException( entry.type().toString() );
+                }
+            }
+            if ( nodes && labelColumn == -1 )
+            {
+                // Labels may still come from a decorator, e.g. labels specified for the whole file
+                labelColumn = columns.size();
+                columns.add( new Column( Type.LABEL, null, Group.GLOBAL, ValueType.typeOf( String[].class ) ) );
+            }
+            if ( !nodes && typeColumn == -1 )
+            {
+                // The type may still come from a decorator, e.g. a default relationship type
+                typeColumn = columns.size();
+                columns.add( new Column( Type.TYPE, null, Group.GLOBAL, ValueType.stringType() ) );
+            }
+            this.header = new BinaryHeader( idType, columns.toArray( new Column[0] ) );
+            this.values = new Object[columns.size()];
+        }
+
+        private ValueType idValueType()
+        {
+            return ValueType.typeOf( idType == IdType.STRING ? String.class : Long.class );
+        }
+
+        private ValueType propertyValueType( Extractor<?> extractor )
+        {
+            Class<?> cls = PROPERTY_CLASSES.get( extractor.name() );
+            if ( cls == null )
+            {
+                throw new IllegalArgumentException( format( "Values of type %s can not be converted to binary input", extractor.name() ) );
+            }
+            return ValueType.typeOf( cls );
+        }
+
+        @Override
+        public boolean property( String key, Object value )
+        {
+            Integer column = propertyColumns.get( key );
+            if ( column != null )
+            {
+                // The input id stored as property is already in the id column
+                values[column] = value instanceof Value ? ((Value) value).asObjectCopy() : value;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean id( long id )
+        {
+            values[idColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean id( Object id, Group group )
+        {
+            values[idColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean labels( String[] labels )
+        {
+            this.labels.addAll( Arrays.asList( labels ) );
+            return true;
+        }
+
+        @Override
+        public boolean startId( long id )
+        {
+            values[startIdColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean startId( Object id, Group group )
+        {
+            values[startIdColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean endId( long id )
+        {
+            values[endIdColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean endId( Object id, Group group )
+        {
+            values[endIdColumn] = id;
+            return true;
+        }
+
+        @Override
+        public boolean type( String type )
+        {
+            values[typeColumn] = type;
+            return true;
+        }
+
+        @Override
+        public void endOfEntity()
+        {
+            if ( !labels.isEmpty() )
+            {
+                values[labelColumn] = labels.toArray( new String[0] );
+                labels.clear();
+            }
+            try
+            {
+                writer.write( values );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            Arrays.fill( values, null );
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.neo4j.csv.reader.MultiReadable;
 import org.neo4j.internal.batchimport.InputIterable;
 import org.neo4j.internal.batchimport.InputIterator;
 import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Group;
 import org.neo4j.internal.batchimport.input.Groups;
 import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
@@ -72,6 +73,7 @@ public class CsvInput implements Input
     private final Configuration config;
     private final Monitor monitor;
     private final Groups groups;
+    private final Map<Group,String> idPropertyKeys = new HashMap<>();
     private final MemoryTracker memoryTracker;
 
     /**
@@ -122,6 +124,7 @@ public class CsvInput implements Input
      * <li>node/relationship headers can be parsed correctly</li>
      * <li>relationship headers uses ID spaces previously defined in node headers</li>
      * </ul>
+     * Also remembers which property key the input ids of each ID space are stored as, if any.
      */
     private void verifyHeaders()
     {
@@ -132,9 +135,15 @@ public class CsvInput implements Input
             {
                 try ( CharSeeker dataStream = charSeeker( new MultiReadable( dataFactory.create( config ).stream() ), config, true ) )
                 {
-                    // Parsing and constructing this header will create this group,
-                    // so no need to do something with the result of it right now
-                    nodeHeaderFactory.create( dataStream, config, idType, groups, NO_MONITOR );
+                    // Parsing and constructing this header will create this group
+                    Header header = nodeHeaderFactory.create( dataStream, config, idType, groups, NO_MONITOR );
+                    for ( Header.Entry entry : header.entries() )
+                    {
+                        if ( entry.type() == Type.ID && entry.name() != null )
+                        {
+                            idPropertyKeys.putIfAbsent( entry.group(), entry.name() );
+                        }
+                    }
                 }
             }
 
@@ -240,6 +249,12 @@ public class CsvInput implements Input
         return groups;
     }
 
+    @Override
+    public Map<Group,String> idPropertyKeys()
+    {
+        return idPropertyKeys;
+    }
+
     @Override
     public Estimates calculateEstimates( PropertySizeCalculator valueSizeCalculator ) throws IOException
     {
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.input.binary;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.csv.reader.Configuration;
+import org.neo4j.internal.batchimport.InputIterator;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.Groups;
+import org.neo4j.internal.batchimport.input.HeaderException;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntity;
+import org.neo4j.internal.batchimport.input.ValueType;
+import org.neo4j.internal.batchimport.input.binary.BinaryHeader.Column;
+import org.neo4j.internal.batchimport.input.csv.Type;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.csv.reader.Readables.wrap;
+import static org.neo4j.internal.batchimport.input.Collector.EMPTY;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.NO_DECORATOR;
+import static org.neo4j.internal.batchimport.input.InputEntityDecorators.additiveLabels;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.data;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.defaultFormatNodeFileHeader;
+import static org.neo4j.internal.batchimport.input.csv.DataFactories.defaultFormatRelationshipFileHeader;
+import static org.neo4j.internal.batchimport.input.csv.Header.NO_MONITOR;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.values.storable.Values.stringValue;
+
+@TestDirectoryExtension
+class BinaryInputTest
+{
+    private static final ValueType STRING = ValueType.stringType();
+    private static final ValueType LONG = ValueType.typeOf( Long.class );
+    private static final ValueType ARRAY = ValueType.typeOf( String[].class );
+
+    @Inject
+    private TestDirectory directory;
+
+    @Test
+    void shouldReadNodesAndRelationships() throws IOException
+    {
+        // given
+        Group persons = new Groups().getOrCreate( "Person" );
+        File nodes = write( "nodes.bin", new BinaryHeader( IdType.STRING,
+                new Column( Type.ID, "id", persons, STRING ),
+                new Column( Type.LABEL, null, Group.GLOBAL, ARRAY ),
+                new Column( Type.PROPERTY, "name", Group.GLOBAL, STRING ),
+                new Column( Type.PROPERTY, "age", Group.GLOBAL, ValueType.typeOf( Integer.class ) ) ),
+                new Object[]{"p1", new String[]{"Person", "Employee"}, "Alice", 42},
+                new Object[]{"p2", null, "Bob", null} );
+        File relationships = write( "relationships.bin", new BinaryHeader( IdType.STRING,
+                new Column( Type.START_ID, null, persons, STRING ),
+                new Column( Type.END_ID, null, persons, STRING ),
+                new Column( Type.TYPE, null, Group.GLOBAL, STRING ),
+                new Column( Type.PROPERTY, "since", Group.GLOBAL, LONG ) ),
+                new Object[]{"p1", "p2", "KNOWS", 2010L} );
+
+        // when
+        Input input = new BinaryInput( singletonList( BinaryData.data( NO_DECORATOR, nodes ) ),
+                singletonList( BinaryData.data( NO_DECORATOR, relationships ) ), IdType.STRING, INSTANCE );
+
+        // then
+        Map<Group,String> idPropertyKeys = input.idPropertyKeys();
+        assertEquals( 1, idPropertyKeys.size() );
+        Group idGroup = idPropertyKeys.keySet().iterator().next();
+        assertEquals( "Person", idGroup.name() );
+        assertEquals( "id", idPropertyKeys.get( idGroup ) );
+        try ( InputIterator iterator = input.nodes( EMPTY ).iterator();
+              InputChunk chunk = iterator.newChunk();
+              InputEntity entity = new InputEntity() )
+        {
+            assertTrue( iterator.next( chunk ) );
+            assertTrue( chunk.next( entity ) );
+            assertEquals( "p1", entity.id() );
+            assertEquals( "Person", entity.idGroup.name() );
+            assertArrayEquals( new String[]{"Person", "Employee"}, entity.labels() );
+            assertArrayEquals( new Object[]{"id", "p1", "name", stringValue( "Alice" ), "age", 42}, entity.properties() );
+            assertTrue( chunk.next( entity ) );
+            assertEquals( "p2", entity.id() );
+            assertEquals( 0, entity.labels().length );
+            assertArrayEquals( new Object[]{"id", "p2", "name", stringValue( "Bob" )}, entity.properties() );
+            assertFalse( chunk.next( entity ) );
+            assertFalse( iterator.next( chunk ) );
+        }
+        try ( InputIterator iterator = input.relationships( EMPTY ).iterator();
+              InputChunk chunk = iterator.newChunk();
+              InputEntity entity = new InputEntity() )
+        {
+            assertTrue( iterator.next( chunk ) );
+            assertTrue( chunk.next( entity ) );
+            assertEquals( "p1", entity.startId() );
+            assertEquals( "p2", entity.endId() );
+            assertEquals( "KNOWS", entity.stringType );
+            assertArrayEquals( new Object[]{"since", 2010L}, entity.properties() );
+            assertFalse( chunk.next( entity ) );
+            assertFalse( iterator.next( chunk ) );
+        }
+    }
+
+    @Test
+    void shouldReadRowsFromManySmallChunks() throws IOException
+    {
+        // given
+        int count = 1_000;
+        BinaryHeader header = new BinaryHeader( IdType.INTEGER,
+                new Column( Type.ID, null, Group.GLOBAL, LONG ), new Column( Type.PROPERTY, "name", Group.GLOBAL, STRING ) );
+        File file = directory.file( "nodes.bin" );
+        try ( BinaryDataWriter writer = new BinaryDataWriter( FileChannel.open( file.toPath(), CREATE_NEW, WRITE ), header, 64 ) )
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                writer.write( new Object[]{i, "name" + i} );
+            }
+        }
+
+        // when
+        Input input = new BinaryInput( singletonList( BinaryData.data( additiveLabels( new String[]{"Label"} ), file ) ), emptyList(),
+                IdType.INTEGER, INSTANCE );
+
+        // then
+        int chunks = 0;
+        long expectedId = 0;
+        try ( InputIterator iterator = input.nodes( EMPTY ).iterator();
+              InputChunk chunk = iterator.newChunk();
+              InputEntity entity = new InputEntity() )
+        {
+            while ( iterator.next( chunk ) )
+            {
+                chunks++;
+                while ( chunk.next( entity ) )
+                {
+                    assertEquals( expectedId, entity.id() );
+                    assertArrayEquals( new Object[]{"name", stringValue( "name" + expectedId )}, entity.properties() );
+                    assertArrayEquals( new String[]{"Label"}, entity.labels() );
+                    expectedId++;
+                }
+            }
+        }
+        assertEquals( count, expectedId );
+        assertTrue( chunks > 1 );
+    }
+
+    @Test
+    void shouldConvertCsvToBinary() throws IOException
+    {
+        // given
+        CsvToBinaryConverter converter = new CsvToBinaryConverter( Configuration.COMMAS, IdType.STRING, defaultFormatNodeFileHeader(),
+                defaultFormatRelationshipFileHeader(), EMPTY, NO_MONITOR, BinaryDataWriter.DEFAULT_CHUNK_SIZE );
+        File nodes = directory.file( "nodes.bin" );
+        File relationships = directory.file( "relationships.bin" );
+
+        // when
+        assertEquals( 2, converter.convertNodes( data( NO_DECORATOR, () -> wrap( "nodes.csv",
+                ":ID(Person),name,scores:int[],:LABEL,:IGNORE\n" +
+                "p1,Alice,1;2;3,Person;Employee,x\n" +
+                "p2,,,Person,y\n" ) ), nodes ) );
+        assertEquals( 1, converter.convertRelationships( data( NO_DECORATOR, () -> wrap( "relationships.csv",
+                ":START_ID(Person),:END_ID(Person),:TYPE,since:long\n" +
+                "p1,p2,KNOWS,2010\n" ) ), relationships ) );
+
+        // then
+        Input input = new BinaryInput( singletonList( BinaryData.data( NO_DECORATOR, nodes ) ),
+                singletonList( BinaryData.data( NO_DECORATOR, relationships ) ), IdType.STRING, INSTANCE );
+        List<InputEntity> nodeEntities = read( input.nodes( EMPTY ).iterator() );
+        assertEquals( 2, nodeEntities.size() );
+        assertEquals( "p1", nodeEntities.get( 0 ).id() );
+        assertArrayEquals( new String[]{"Person", "Employee"}, nodeEntities.get( 0 ).labels() );
+        Object[] properties = nodeEntities.get( 0 ).properties();
+        assertEquals( 4, properties.length );
+        assertEquals( stringValue( "Alice" ), properties[1] );
+        assertArrayEquals( new int[]{1, 2, 3}, (int[]) properties[3] );
+        assertEquals( "p2", nodeEntities.get( 1 ).id() );
+        assertArrayEquals( new String[]{"Person"}, nodeEntities.get( 1 ).labels() );
+        assertEquals( 0, nodeEntities.get( 1 ).propertyCount() );
+
+        List<InputEntity> relationshipEntities = read( input.relationships( EMPTY ).iterator() );
+        assertEquals( 1, relationshipEntities.size() );
+        assertEquals( "p1", relationshipEntities.get( 0 ).startId() );
+        assertEquals( "p2", relationshipEntities.get( 0 ).endId() );
+        assertEquals( "KNOWS", relationshipEntities.get( 0 ).stringType );
+        assertArrayEquals( new Object[]{"since", 2010L}, relationshipEntities.get( 0 ).properties() );
+    }
+
+    @Test
+    void shouldFailOnFileWhichIsNotBinaryInput() throws IOException
+    {
+        // given
+        File file = directory.file( "nodes.csv" );
+        try ( FileChannel channel = FileChannel.open( file.toPath(), CREATE_NEW, WRITE ) )
+        {
+            channel.write( ByteBuffer.wrap( ":ID,name\n1,Alice\n".getBytes( UTF_8 ) ) );
+        }
+
+        // when/then
+        HeaderException e = assertThrows( HeaderException.class,
+                () -> new BinaryInput( singletonList( BinaryData.data( NO_DECORATOR, file ) ), emptyList(), IdType.INTEGER, INSTANCE ) );
+        assertTrue( e.getMessage().contains( "not a binary input file" ) );
+    }
+
+    @Test
+    void shouldFailOnIdTypeMismatch() throws IOException
+    {
+        // given
+        File file = write( "nodes.bin", new BinaryHeader( IdType.STRING, new Column( Type.ID, null, Group.GLOBAL, STRING ) ), new Object[]{"1"} );
+
+        // when/then
+        HeaderException e = assertThrows( HeaderException.class,
+                () -> new BinaryInput( singletonList( BinaryData.data( NO_DECORATOR, file ) ), emptyList(), IdType.INTEGER, INSTANCE ) );
+        assertTrue( e.getMessage().contains( IdType.STRING.name() ) );
+    }
+
+    @Test
+    void shouldFailOnRelationshipsReferringToUnknownGroup() throws IOException
+    {
+        // given
+        Groups groups = new Groups();
+        Group persons = groups.getOrCreate( "Person" );
+        File file = write( "relationships.bin", new BinaryHeader( IdType.STRING,
+                new Column( Type.START_ID, null, persons, STRING ), new Column( Type.END_ID, null, persons, STRING ) ),
+                new Object[]{"p1", "p2"} );
+
+        // when/then
+        assertThrows( HeaderException.class,
+                () -> new BinaryInput( emptyList(), singletonList( BinaryData.data( NO_DECORATOR, file ) ), IdType.STRING, INSTANCE ) );
+    }
+
+    @Test
+    void shouldNotWriteValueOfWrongType() throws IOException
+    {
+        // given
+        BinaryHeader header = new BinaryHeader( IdType.INTEGER, new Column( Type.ID, null, Group.GLOBAL, LONG ) );
+        try ( BinaryDataWriter writer = new BinaryDataWriter( FileChannel.open( directory.file( "nodes.bin" ).toPath(), CREATE_NEW, WRITE ), header,
+                BinaryDataWriter.DEFAULT_CHUNK_SIZE ) )
+        {
+            // when/then
+            assertThrows( IllegalArgumentException.class, () -> writer.write( new Object[]{"1"} ) );
+            assertThrows( IllegalArgumentException.class, () -> writer.write( new Object[]{1L, 2L} ) );
+            assertEquals( 0, writer.rows() );
+        }
+    }
+
+    private File write( String name, BinaryHeader header, Object[]... rows ) throws IOException
+    {
+        File file = directory.file( name );
+        try ( BinaryDataWriter writer = new BinaryDataWriter( FileChannel.open( file.toPath(), CREATE_NEW, WRITE ), header,
+                BinaryDataWriter.DEFAULT_CHUNK_SIZE ) )
+        {
+            for ( Object[] row : rows )
+            {
+                writer.write( row );
+            }
+        }
+        return file;
+    }
+
+    private static List<InputEntity> read( InputIterator iterator ) throws IOException
+    {
+        List<InputEntity> entities = new ArrayList<>();
+        try ( iterator;
+              InputChunk chunk = iterator.newChunk() )
+        {
+            while ( iterator.next( chunk ) )
+            {
+                InputEntity entity = new InputEntity();
+                while ( chunk.next( entity ) )
+                {
+                    entities.add( entity );
+                    entity = new InputEntity();
+                }
+            }
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+/**
+ * Builds a {@link GBPTree} bottom-up from key/value pairs {@link #add(Object, Object) added} in sort order,
+ * as opposed to inserting them one by one through a {@link Writer}. Leaves, and then internal nodes level by level,
+ * are filled to a fill factor and written once, never split. The new tree becomes visible atomically when the loader is
+ * {@link #close() closed}, typically using try-with-resource clause.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ * @see GBPTree#bulkLoader(double, PageCursorTracer)
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Add the next key/value pair to the tree being built.
+     *
+     * @param key key to add, must be greater than all keys added before it.
+     * @param value value to associate with key.
+     * @throws IllegalArgumentException if the key isn't greater than the previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+
+    /**
+     * Makes all added key/value pairs visible as the contents of the tree, unless adding failed,
+     * and releases the exclusive access to the tree that the loader had.
+     *
+     * @throws IOException on index access error.
+     */
+    @Override
+    void close() throws IOException;
+}
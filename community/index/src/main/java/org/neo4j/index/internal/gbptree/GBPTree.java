@@ -37,7 +37,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -67,6 +70,9 @@ import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
 import static org.neo4j.index.internal.gbptree.SeekCursor.DEFAULT_MAX_READ_AHEAD;
 import static org.neo4j.index.internal.gbptree.SeekCursor.LEAF_LEVEL;
+import static org.neo4j.index.internal.gbptree.TreeNode.NO_NODE_FLAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 import static org.neo4j.internal.helpers.Exceptions.withMessage;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 
@@ -94,6 +100,8 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * <p>
  * A single writer w/ multiple concurrent readers is supported. Assuming usage adheres to this
  * constraint neither writer nor readers are blocking. Readers are virtually garbage-free.
+ * Alternatively multiple {@link #writer(boolean, PageCursorTracer) shared writers} can make changes concurrently,
+ * each latching only the leaf it changes and falling back to exclusive access to the tree for structural changes.
  * <p>
  * An reader of GB+Tree is a {@link SeekCursor} that returns result as it finds them.
  * As the cursor move over keys/values, returned results are considered "behind" it
@@ -142,6 +150,13 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
 {
     private static final String INDEX_INTERNAL_TAG = "indexInternal";
 
+    /**
+     * Flushes done by checkpoint before blocking writers. Another flush is made if the previous one took
+     * long enough for writers to have dirtied a noticeable amount of pages, up to this many flushes in total.
+     */
+    private static final int MAX_CHECKPOINT_FLUSHES_BEFORE_BLOCKING = 3;
+    private static final long CHECKPOINT_FLUSH_CATCH_UP_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
     /**
      * For monitoring {@link GBPTree}.
      */
@@ -157,6 +172,11 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             {   // no-op
             }
 
+            @Override
+            public void checkpointBlockedWriters( long durationMillis )
+            {   // no-op
+            }
+
             @Override
             public void noStoreFile()
             {   // no-op
@@ -218,6 +238,12 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 delegate.checkpointCompleted();
             }
 
+            @Override
+            public void checkpointBlockedWriters( long durationMillis )
+            {
+                delegate.checkpointBlockedWriters( durationMillis );
+            }
+
             @Override
             public void noStoreFile()
             {
@@ -279,6 +305,14 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
          */
         void checkpointCompleted();
 
+        /**
+         * Called after {@link #checkpointCompleted()} when writers have been re-enabled, reporting for how long
+         * writers were blocked by the checkpoint.
+         *
+         * @param durationMillis time from when the checkpoint had blocked writers until they were re-enabled.
+         */
+        void checkpointBlockedWriters( long durationMillis );
+
         /**
          * Called when the tree was started on no existing store file and so will be created.
          */
@@ -381,10 +415,31 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
     private final FreeListIdProvider freeList;
 
     /**
-     * A single instance {@link Writer} because tree only supports single writer.
+     * Selected format of the tree nodes, used for creating {@link TreeNode} instances for {@link SharedWriter shared writers}.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
+    /**
+     * Store for keys and values too large to be inlined in tree nodes, shared by all {@link TreeNode} instances of this tree.
+     */
+    private final OffloadStoreImpl<KEY,VALUE> offloadStore;
+
+    /**
+     * A single instance {@link Writer} for exclusive changes to the tree.
      */
     private final SingleWriter writer;
 
+    /**
+     * Coordinates {@link SharedWriter shared writers}. Held in shared mode while latching and changing a single leaf
+     * and in exclusive mode while making structural changes to the tree.
+     */
+    private final ReentrantReadWriteLock structureLatch = new ReentrantReadWriteLock();
+
+    /**
+     * Latches for leaves changed by {@link SharedWriter shared writers} while holding {@link #structureLatch} in shared mode.
+     */
+    private final TreeNodeLatches leafLatches = new TreeNodeLatches();
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer(PageCursorTracer)}) to this tree
      * since last call to {@link #checkpoint(IOLimiter, PageCursorTracer)}. This variable is set when calling {@link #writer(PageCursorTracer)}
@@ -592,22 +647,21 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 this.pagedFile = openOrCreate( pageCache, indexFile, cursorTracer, openOptions );
                 this.pageSize = pagedFile.pageSize();
                 closed = false;
-                TreeNodeSelector.Factory format;
                 if ( created )
                 {
-                    format = TreeNodeSelector.selectByLayout( layout );
-                    writeMeta( layout, format, pagedFile, cursorTracer );
+                    treeNodeFormat = TreeNodeSelector.selectByLayout( layout );
+                    writeMeta( layout, treeNodeFormat, pagedFile, cursorTracer );
                 }
                 else
                 {
                     Meta meta = readMeta( layout, pagedFile, cursorTracer );
                     meta.verify( layout );
-                    format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
+                    treeNodeFormat = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
                 }
                 this.freeList = new FreeListIdProvider( pagedFile, rootId );
-                OffloadStoreImpl<KEY,VALUE> offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
-                this.bTreeNode = format.create( pageSize, layout, offloadStore );
-                this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
+                this.offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
+                this.bTreeNode = treeNodeFormat.create( pageSize, layout, offloadStore );
+                this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ), bTreeNode );
 
                 // Create or load state
                 if ( created )
@@ -1238,12 +1292,23 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             return;
         }
         // Flush dirty pages of the tree, do this before acquiring the lock so that writers won't be
-        // blocked while we do this
-        pagedFile.flushAndForce( ioLimiter );
+        // blocked while we do this. Writers dirtying pages during a long flush are caught up with by
+        // flushing again, so that as few pages as possible are left to flush while writers are blocked.
+        int flushes = 0;
+        long flushDuration;
+        do
+        {
+            long flushStart = System.nanoTime();
+            pagedFile.flushAndForce( ioLimiter );
+            flushDuration = System.nanoTime() - flushStart;
+            flushes++;
+        }
+        while ( flushDuration > CHECKPOINT_FLUSH_CATCH_UP_THRESHOLD_NANOS && flushes < MAX_CHECKPOINT_FLUSHES_BEFORE_BLOCKING );
 
         // Block writers, or if there's a current writer then wait for it to complete and then block
         // From this point and till the lock is released we know that the tree won't change.
         lock.writerAndCleanerLock();
+        long blockedStart = System.nanoTime();
         try
         {
             assertRecoveryCleanSuccessful();
@@ -1273,6 +1338,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             // the new unstable generation.
             lock.writerAndCleanerUnlock();
         }
+        monitor.checkpointBlockedWriters( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - blockedStart ) );
     }
 
     private void assertRecoveryCleanSuccessful() throws IOException
@@ -1400,6 +1466,60 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Returns a {@link Writer} able to modify the index, i.e. insert and remove keys/values.
+     * After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * <p>
+     * A shared writer can be used concurrently with other shared writers of this tree, although each writer must only be used by one thread.
+     * Changes that fit in the leaf they belong to are made while only latching that leaf, whereas changes that require
+     * structural changes, e.g. splits or merges, temporarily block all other shared writers. Since such changes are retried
+     * after having been tried optimistically, a {@link ValueMerger} may be consulted more than once for a single change.
+     * Shared writers block, and are blocked by, the exclusive writer, checkpoint and cleaning of crash pointers.
+     *
+     * @param shared whether or not the returned writer can make changes concurrently with other shared writers.
+     * If {@code false} the single exclusive writer is returned, exactly like {@link #writer(PageCursorTracer)}.
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link Writer} for this index. The returned writer must be {@link Writer#close() closed} after use.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> writer( boolean shared, PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( !shared )
+        {
+            return writer( cursorTracer );
+        }
+        assertNotReadOnly( "Open tree writer." );
+        SharedWriter sharedWriter = new SharedWriter( treeNodeFormat.create( pageSize, layout, offloadStore ) );
+        sharedWriter.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+        changesSinceLastCheckpoint = true;
+        return sharedWriter;
+    }
+
+    /**
+     * Returns a {@link BulkLoader} which builds the contents of this tree bottom-up from key/value pairs given in sort order.
+     * Compared to inserting the same pairs through a {@link Writer} no node is visited more than once and no node is split,
+     * instead each node is filled up to {@code fillFactor} of its space before moving on to the next, making the resulting
+     * tree smaller and leaving room in every node for future inserts. The tree must be empty and the loaded contents
+     * become visible to readers atomically when the bulk loader is closed, and durable on the next checkpoint.
+     * <p>
+     * The bulk loader has exclusive access to the tree, just like the {@link #writer(PageCursorTracer) single writer}.
+     *
+     * @param fillFactor how much of the space of each node to fill, between 0 (exclusive) and 1 (inclusive).
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link BulkLoader} for this index. The returned bulk loader must be {@link BulkLoader#close() closed} after use.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree isn't empty or if the writer is already acquired.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        Preconditions.checkArgument( fillFactor > 0 && fillFactor <= 1, "Fill factor must be in range (0,1], was %f", fillFactor );
+        assertNotReadOnly( "Bulk load tree." );
+        TreeBulkLoader bulkLoader = new TreeBulkLoader( fillFactor );
+        bulkLoader.initialize( cursorTracer );
+        changesSinceLastCheckpoint = true;
+        return bulkLoader;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1605,21 +1725,23 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
          * guard so that only one writer ever exist.
          */
         private final AtomicBoolean writerTaken = new AtomicBoolean();
-        private final InternalTreeLogic<KEY,VALUE> treeLogic;
-        private final StructurePropagation<KEY> structurePropagation;
-        private PageCursor cursor;
-        private PageCursorTracer cursorTracer;
+        final InternalTreeLogic<KEY,VALUE> treeLogic;
+        final TreeNode<KEY,VALUE> treeNode;
+        final StructurePropagation<KEY> structurePropagation;
+        PageCursor cursor;
+        PageCursorTracer cursorTracer;
 
         // Writer can't live past a checkpoint because of the mutex with checkpoint,
         // therefore safe to locally cache these generation fields from the volatile generation in the tree
-        private long stableGeneration;
-        private long unstableGeneration;
-        private double ratioToKeepInLeftOnSplit;
+        long stableGeneration;
+        long unstableGeneration;
+        double ratioToKeepInLeftOnSplit;
 
-        SingleWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
+        SingleWriter( InternalTreeLogic<KEY,VALUE> treeLogic, TreeNode<KEY,VALUE> treeNode )
         {
             this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
             this.treeLogic = treeLogic;
+            this.treeNode = treeNode;
         }
 
         /**
@@ -1698,7 +1820,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             internalMerge( key, value, valueMerger, false );
         }
 
-        private void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
         {
             try
             {
@@ -1754,7 +1876,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             return result;
         }
 
-        private void handleStructureChanges( PageCursorTracer cursorTracer ) throws IOException
+        void handleStructureChanges( PageCursorTracer cursorTracer ) throws IOException
         {
             if ( structurePropagation.hasRightKeyInsert )
             {
@@ -1762,10 +1884,10 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
                 PageCursorUtil.goTo( cursor, "new root", newRootId );
 
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                treeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                treeNode.setChildAt( cursor, structurePropagation.midChild, 0,
                         stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                treeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
                         stableGeneration, unstableGeneration, cursorTracer );
                 TreeNode.setKeyCount( cursor, 1 );
                 setRoot( newRootId );
@@ -1790,7 +1912,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             lock.writerAndCleanerUnlock();
         }
 
-        private void closeCursor()
+        void closeCursor()
         {
             if ( cursor != null )
             {
@@ -1800,6 +1922,528 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    /**
+     * A {@link Writer} which can make changes concurrently with other shared writers of the same tree, see {@link #writer(boolean, PageCursorTracer)}.
+     * <p>
+     * Changes are first tried optimistically: holding {@link #structureLatch} in shared mode the internal nodes are only read
+     * on the way down to the leaf, which is then latched using {@link #leafLatches} while changed. If the change requires
+     * structural changes, i.e. a successor, split, defragmentation or merge, it is instead made pessimistically with
+     * {@link #structureLatch} held in exclusive mode, using the regular algorithms in {@link InternalTreeLogic}.
+     * A removal which leaves the leaf underflowing is followed by such a pessimistic rebalance of that leaf.
+     */
+    private class SharedWriter extends SingleWriter
+    {
+        private boolean closed = true;
+
+        SharedWriter( TreeNode<KEY,VALUE> treeNode )
+        {
+            super( new InternalTreeLogic<>( freeList, treeNode, layout, monitor ), treeNode );
+        }
+
+        @Override
+        void initialize( double ratioToKeepInLeftOnSplit, PageCursorTracer cursorTracer ) throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.sharedWriterLock();
+            closed = false;
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                this.cursorTracer = cursorTracer;
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        {
+            try
+            {
+                InternalTreeLogic.OptimisticResult result;
+                structureLatch.readLock().lock();
+                try
+                {
+                    ReentrantLock leafLatch = moveToLeafAndLatch( key );
+                    try
+                    {
+                        result = treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, createIfNotExists,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                    }
+                    finally
+                    {
+                        leafLatch.unlock();
+                    }
+                }
+                finally
+                {
+                    structureLatch.readLock().unlock();
+                }
+
+                if ( result == InternalTreeLogic.OptimisticResult.PESSIMISTIC )
+                {
+                    structureLatch.writeLock().lock();
+                    try
+                    {
+                        goToRoot();
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger, createIfNotExists,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                        handleStructureChanges( cursorTracer );
+                    }
+                    finally
+                    {
+                        structureLatch.writeLock().unlock();
+                    }
+                }
+                else if ( result == InternalTreeLogic.OptimisticResult.UNDERFLOW )
+                {
+                    rebalanceIfUnderflow( key );
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result = layout.newValue();
+            try
+            {
+                InternalTreeLogic.OptimisticResult outcome;
+                structureLatch.readLock().lock();
+                try
+                {
+                    ReentrantLock leafLatch = moveToLeafAndLatch( key );
+                    try
+                    {
+                        outcome = treeLogic.tryRemoveFromLeaf( cursor, key, result, stableGeneration, unstableGeneration, cursorTracer );
+                    }
+                    finally
+                    {
+                        leafLatch.unlock();
+                    }
+                }
+                finally
+                {
+                    structureLatch.readLock().unlock();
+                }
+
+                if ( outcome == InternalTreeLogic.OptimisticResult.NOT_FOUND )
+                {
+                    result = null;
+                }
+                else if ( outcome == InternalTreeLogic.OptimisticResult.PESSIMISTIC )
+                {
+                    structureLatch.writeLock().lock();
+                    try
+                    {
+                        goToRoot();
+                        result = treeLogic.remove( cursor, structurePropagation, key, result, stableGeneration, unstableGeneration, cursorTracer );
+                        handleStructureChanges( cursorTracer );
+                    }
+                    finally
+                    {
+                        structureLatch.writeLock().unlock();
+                    }
+                }
+                else if ( outcome == InternalTreeLogic.OptimisticResult.UNDERFLOW )
+                {
+                    rebalanceIfUnderflow( key );
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        /**
+         * Must be called while holding {@link #structureLatch} in shared mode.
+         *
+         * @return the latch of the leaf which cursor is now pinned to, which must be unlocked by caller.
+         */
+        private ReentrantLock moveToLeafAndLatch( KEY key ) throws IOException
+        {
+            treeLogic.moveToLeafOptimistically( cursor, root.id(), key, stableGeneration, unstableGeneration, cursorTracer );
+            return leafLatches.latch( cursor.getCurrentPageId() );
+        }
+
+        private void rebalanceIfUnderflow( KEY key ) throws IOException
+        {
+            structureLatch.writeLock().lock();
+            try
+            {
+                goToRoot();
+                treeLogic.rebalanceIfUnderflow( cursor, structurePropagation, key, stableGeneration, unstableGeneration, cursorTracer );
+                handleStructureChanges( cursorTracer );
+            }
+            finally
+            {
+                structureLatch.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Must be called while holding {@link #structureLatch} in exclusive mode, since the root may have changed
+         * since this writer last made structural changes.
+         */
+        private void goToRoot() throws IOException
+        {
+            root.goTo( cursor );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closed = true;
+            closeCursor();
+            lock.sharedWriterUnlock();
+        }
+    }
+
+    /**
+     * A {@link BulkLoader} which builds an empty tree bottom-up, see {@link #bulkLoader(double, PageCursorTracer)}.
+     * <p>
+     * One node per level of the tree is open at any given time. Leaves are filled with the added entries. Every new node,
+     * on any level, is linked to its left sibling and added as the right-most child of the open node on the level above,
+     * together with the key separating it from its left sibling. When that node is full its last key and child are moved
+     * over to a new node, so that no internal node is ever left without keys, and the moved key separates the two nodes
+     * on the level above that. The single node on the top-most level becomes the new root when the loader is closed.
+     */
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final TreeNode<KEY,VALUE> treeNode;
+        private final List<Level> levels = new ArrayList<>();
+        private final KEY lastKey;
+        private final KEY splitter;
+        private PageCursor leafCursor;
+        private PageCursor internalCursor;
+        private PageCursorTracer cursorTracer;
+        private long stableGeneration;
+        private long unstableGeneration;
+        private boolean hasEntries;
+        private boolean failed;
+        private boolean closed = true;
+
+        TreeBulkLoader( double fillFactor )
+        {
+            this.fillFactor = fillFactor;
+            this.treeNode = treeNodeFormat.create( pageSize, layout, offloadStore );
+            this.lastKey = layout.newKey();
+            this.splitter = layout.newKey();
+        }
+
+        void initialize( PageCursorTracer cursorTracer ) throws IOException
+        {
+            if ( !writer.writerTaken.compareAndSet( false, true ) )
+            {
+                throw new IllegalStateException( "Writer in " + GBPTree.this + " is already acquired by someone else. " +
+                        "A bulk loader needs exclusive access to the tree and will become available as soon as acquired writer is closed" );
+            }
+
+            closed = false;
+            boolean success = false;
+            try
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.writerAndCleanerLock();
+                assertRecoveryCleanSuccessful();
+                this.cursorTracer = cursorTracer;
+                leafCursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                internalCursor = pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                if ( !TreeNode.isLeaf( leafCursor ) || TreeNode.keyCount( leafCursor ) != 0 )
+                {
+                    throw new IllegalStateException( "Can only bulk load an empty tree, but " + GBPTree.this + " has entries" );
+                }
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    failed = true;
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            boolean success = false;
+            try
+            {
+                if ( hasEntries && layout.compare( key, lastKey ) <= 0 )
+                {
+                    throw new IllegalArgumentException( "Keys must be added in sort order without duplicates, but " + key + " was added after " + lastKey );
+                }
+                treeNode.validateKeyValueSize( key, value );
+
+                Level leaf;
+                if ( !hasEntries )
+                {
+                    leaf = new Level( newNode( leafCursor, LEAF ), NO_NODE_FLAG );
+                    levels.add( leaf );
+                }
+                else
+                {
+                    leaf = levels.get( 0 );
+                    if ( treeNode.reachedFillFactor( leafCursor, leaf.keyCount, LEAF, fillFactor ) ||
+                         treeNode.leafOverflow( leafCursor, leaf.keyCount, key, value ) != TreeNode.Overflow.NO )
+                    {
+                        long leftLeaf = leaf.id;
+                        newRightSibling( leafCursor, leaf, LEAF, NO_NODE_FLAG );
+                        layout.minimalSplitter( lastKey, key, splitter );
+                        addChild( 1, splitter, leftLeaf, leaf.id );
+                    }
+                }
+
+                treeNode.insertKeyValueAt( leafCursor, key, value, leaf.keyCount, leaf.keyCount, stableGeneration, unstableGeneration, cursorTracer );
+                leaf.keyCount++;
+                TreeNode.setKeyCount( leafCursor, leaf.keyCount );
+                layout.copyKey( key, lastKey );
+                hasEntries = true;
+                success = true;
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    failed = true;
+                }
+            }
+            checkOutOfBounds( leafCursor );
+        }
+
+        /**
+         * Adds {@code rightChild} as the right-most child of the open node on the given level, creating that level if this is the
+         * first time it's needed, in which case {@code leftChild} becomes the first child of that level.
+         */
+        private void addChild( int levelIndex, KEY separator, long leftChild, long rightChild ) throws IOException
+        {
+            Level level;
+            if ( levelIndex == levels.size() )
+            {
+                level = new Level( newNode( internalCursor, INTERNAL ), leftChild );
+                treeNode.setChildAt( internalCursor, leftChild, 0, stableGeneration, unstableGeneration );
+                levels.add( level );
+            }
+            else
+            {
+                level = levels.get( levelIndex );
+                PageCursorUtil.goTo( internalCursor, "bulk loaded internal node", level.id );
+            }
+
+            if ( level.keyCount > 1 && (treeNode.reachedFillFactor( internalCursor, level.keyCount, INTERNAL, fillFactor ) ||
+                                        treeNode.internalOverflow( internalCursor, level.keyCount, separator ) != TreeNode.Overflow.NO) )
+            {
+                // Move the last key and child over to a new node, the key will separate the two nodes on the level above
+                int lastPos = level.keyCount - 1;
+                long movedChild = level.lastChild;
+                treeNode.keyAt( internalCursor, level.movedKey, lastPos, INTERNAL, cursorTracer );
+                treeNode.removeKeyAndRightChildAt( internalCursor, lastPos, level.keyCount, stableGeneration, unstableGeneration, cursorTracer );
+                level.keyCount--;
+                TreeNode.setKeyCount( internalCursor, level.keyCount );
+
+                long leftNode = level.id;
+                newRightSibling( internalCursor, level, INTERNAL, movedChild );
+                treeNode.setChildAt( internalCursor, movedChild, 0, stableGeneration, unstableGeneration );
+                appendChild( level, separator, rightChild );
+                addChild( levelIndex + 1, level.movedKey, leftNode, level.id );
+            }
+            else
+            {
+                appendChild( level, separator, rightChild );
+            }
+            checkOutOfBounds( internalCursor );
+        }
+
+        private void appendChild( Level level, KEY separator, long child ) throws IOException
+        {
+            treeNode.insertKeyAndRightChildAt( internalCursor, separator, child, level.keyCount, level.keyCount,
+                    stableGeneration, unstableGeneration, cursorTracer );
+            level.keyCount++;
+            level.lastChild = child;
+            TreeNode.setKeyCount( internalCursor, level.keyCount );
+        }
+
+        private long newNode( PageCursor cursor, TreeNode.Type type ) throws IOException
+        {
+            long id = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+            PageCursorUtil.goTo( cursor, "bulk loaded node", id );
+            if ( type == LEAF )
+            {
+                treeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                treeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            }
+            return id;
+        }
+
+        /**
+         * Links a new node as right sibling of the open node on the given level and makes the new node the open node.
+         * Expects the cursor to be at the open node, leaves it at the new node.
+         */
+        private void newRightSibling( PageCursor cursor, Level level, TreeNode.Type type, long firstChild ) throws IOException
+        {
+            long leftId = level.id;
+            long rightId = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+            TreeNode.setRightSibling( cursor, rightId, stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "bulk loaded node", rightId );
+            if ( type == LEAF )
+            {
+                treeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                treeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            }
+            TreeNode.setLeftSibling( cursor, leftId, stableGeneration, unstableGeneration );
+            level.id = rightId;
+            level.keyCount = 0;
+            level.lastChild = firstChild;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but bulk loader is already closed." );
+            }
+            closed = true;
+            try
+            {
+                if ( failed )
+                {
+                    releaseLoadedNodes();
+                }
+                else if ( hasEntries )
+                {
+                    // The root is the single node on the top-most level, the old root is the empty leaf it replaces
+                    long oldRootId = root.id();
+                    GBPTree.this.setRoot( levels.get( levels.size() - 1 ).id, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId, cursorTracer );
+                }
+            }
+            finally
+            {
+                IOUtils.closeAllSilently( leafCursor, internalCursor );
+                leafCursor = null;
+                internalCursor = null;
+                writer.writerTaken.set( false );
+                lock.writerAndCleanerUnlock();
+            }
+        }
+
+        /**
+         * Releases all nodes of a failed bulk load, and the entries offloaded from them, walking each level from its open node and leftwards.
+         */
+        private void releaseLoadedNodes() throws IOException
+        {
+            for ( int levelIndex = 0; levelIndex < levels.size(); levelIndex++ )
+            {
+                TreeNode.Type type = levelIndex == 0 ? LEAF : INTERNAL;
+                long id = levels.get( levelIndex ).id;
+                while ( id != NO_NODE_FLAG )
+                {
+                    PageCursorUtil.goTo( internalCursor, "bulk loaded node", id );
+                    int keyCount = TreeNode.keyCount( internalCursor );
+                    for ( int pos = 0; pos < keyCount; pos++ )
+                    {
+                        long offloadId = treeNode.offloadIdAt( internalCursor, pos, type );
+                        if ( offloadId != TreeNode.NO_OFFLOAD_ID )
+                        {
+                            offloadStore.free( offloadId, stableGeneration, unstableGeneration, cursorTracer );
+                        }
+                    }
+                    long leftSibling = GenerationSafePointerPair.pointer( TreeNode.leftSibling( internalCursor, stableGeneration, unstableGeneration ) );
+                    freeList.releaseId( stableGeneration, unstableGeneration, id, cursorTracer );
+                    id = leftSibling;
+                }
+            }
+        }
+    }
+
+    /**
+     * The open node on one level of a tree being bulk loaded.
+     */
+    private class Level
+    {
+        long id;
+        int keyCount;
+        long lastChild;
+        final KEY movedKey = layout.newKey();
+
+        Level( long id, long lastChild )
+        {
+            this.id = id;
+            this.lastChild = lastChild;
+        }
+    }
+
     /**
      * Total size limit for key and value.
      * This limit includes storage overhead that is specific to key implementation for example entity id or meta data about type.
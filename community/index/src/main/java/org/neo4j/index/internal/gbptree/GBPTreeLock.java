@@ -30,6 +30,13 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    /**
+     * Set by someone waiting for an exclusive lock while shared writers are active, so that no new shared writers
+     * are let in until that exclusive lock has been acquired.
+     */
+    private static final long exclusivePendingBit = 0x00000000_00000004L;
+    private static final int sharedWritersShift = 32;
+    private static final long sharedWriterUnit = 1L << sharedWritersShift;
     private volatile long state;
 
     // Used for testing
@@ -70,6 +77,39 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    /**
+     * Shared writer lock can be held by multiple writers at the same time, but is mutually exclusive with
+     * both writer lock and cleaner lock.
+     */
+    void sharedWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( (currentState & (writerLockBit | cleanerLockBit | exclusivePendingBit)) != 0 )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + sharedWriterUnit ) );
+    }
+
+    void sharedWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( sharedWriters( currentState ) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock shared writer lock that isn't locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - sharedWriterUnit ) );
+    }
+
     private void doLock( long targetLockBit )
     {
         long currentState;
@@ -79,11 +119,16 @@ class GBPTreeLock
             currentState = state;
             while ( !canLock( currentState, targetLockBit ) )
             {
+                if ( (currentState & targetLockBit) == 0 && (currentState & exclusivePendingBit) == 0 )
+                {
+                    // Only shared writers are in the way, keep new ones from coming in while waiting for those to finish
+                    UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState | exclusivePendingBit );
+                }
                 // sleep
                 sleep();
                 currentState = state;
             }
-            newState = currentState | targetLockBit;
+            newState = (currentState | targetLockBit) & ~exclusivePendingBit;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
@@ -105,7 +150,12 @@ class GBPTreeLock
 
     private boolean canLock( long state, long targetLockBit )
     {
-        return (state & targetLockBit) == 0;
+        return (state & targetLockBit) == 0 && sharedWriters( state ) == 0;
+    }
+
+    private static long sharedWriters( long state )
+    {
+        return state >>> sharedWritersShift;
     }
 
     private boolean canUnlock( long state, long targetLockBit )
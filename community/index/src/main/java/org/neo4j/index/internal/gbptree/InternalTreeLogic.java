@@ -88,6 +88,32 @@ class InternalTreeLogic<KEY,VALUE>
 {
     static final double DEFAULT_SPLIT_RATIO = 0.5;
 
+    /**
+     * Outcome of an optimistic leaf operation, i.e. {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)}
+     * or {@link #tryRemoveFromLeaf(PageCursor, Object, Object, long, long, PageCursorTracer)}.
+     */
+    enum OptimisticResult
+    {
+        /**
+         * The change was made in the leaf and the tree needs no further attention.
+         */
+        DONE,
+        /**
+         * The key wasn't found in the leaf and so nothing was changed.
+         */
+        NOT_FOUND,
+        /**
+         * The change was made in the leaf, but left it underflowing. The leaf should be rebalanced or merged with a sibling
+         * using {@link #rebalanceIfUnderflow(PageCursor, StructurePropagation, Object, long, long, PageCursorTracer)}.
+         */
+        UNDERFLOW,
+        /**
+         * Nothing was changed because the change needs structural changes in the tree, e.g. a split or a new successor.
+         * The operation has to be retried pessimistically.
+         */
+        PESSIMISTIC
+    }
+
     private final IdProvider idProvider;
     private final TreeNode<KEY,VALUE> bTreeNode;
     private final Layout<KEY,VALUE> layout;
@@ -760,6 +786,170 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Moves cursor from root down to the leaf where {@code key} belongs, without remembering the path down the tree.
+     * Used by writers which only read internal nodes on their way to the leaf, relying on no structural changes
+     * happening concurrently, see {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)}.
+     * Cached path from {@link #initialize(PageCursor)} is invalidated by this call.
+     *
+     * @param cursor {@link PageCursor} to move.
+     * @param rootId id of the current root of the tree.
+     * @param key key to find the leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeafOptimistically( PageCursor cursor, long rootId, KEY key, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        currentLevel = -1;
+        TreeNode.goTo( cursor, "root", rootId );
+        while ( TreeNode.isInternal( cursor ) )
+        {
+            int keyCount = TreeNode.keyCount( cursor );
+            int searchResult = search( cursor, INTERNAL, key, readKey, keyCount, cursorTracer );
+            long childId = bTreeNode.childAt( cursor, childPositionOf( searchResult ), stableGeneration, unstableGeneration );
+            PointerChecking.checkPointer( childId, false );
+            TreeNode.goTo( cursor, "child", childId );
+        }
+
+        assert TreeNode.isLeaf( cursor ) : "Ended up on a tree node which isn't a leaf after moving cursor towards " +
+                key + ", cursor is at " + cursor.getCurrentPageId();
+    }
+
+    /**
+     * Optimistic version of {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)}
+     * which only ever changes the leaf that cursor is pinned to. If the insert would require a successor of the leaf,
+     * a split or a defragmentation then nothing is changed and {@link OptimisticResult#PESSIMISTIC} is returned.
+     * Caller is responsible for making sure no other writer changes this leaf concurrently.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param createIfNotExists create this key if it doesn't exist
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return {@link OptimisticResult} of the insert.
+     * @throws IOException on cursor failure
+     */
+    OptimisticResult tryInsertInLeaf( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists,
+            long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return OptimisticResult.PESSIMISTIC;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos, cursorTracer );
+            ValueMerger.MergeResult mergeResult = valueMerger.merge( readKey, key, readValue, value );
+            switch ( mergeResult )
+            {
+            case UNCHANGED:
+                return OptimisticResult.DONE;
+            case REPLACED:
+            case MERGED:
+                VALUE mergedValue = mergeResult == ValueMerger.MergeResult.REPLACED ? value : readValue;
+                // Values of different size can not be overwritten in place and goes through the pessimistic remove/insert instead
+                return bTreeNode.setValueAt( cursor, mergedValue, pos ) ? OptimisticResult.DONE : OptimisticResult.PESSIMISTIC;
+            case REMOVED:
+                bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+                TreeNode.setKeyCount( cursor, keyCount - 1 );
+                return bTreeNode.leafUnderflow( cursor, keyCount - 1 ) ? OptimisticResult.UNDERFLOW : OptimisticResult.DONE;
+            default:
+                throw new UnsupportedOperationException( "Unexpected merge result " + mergeResult );
+            }
+        }
+
+        if ( !createIfNotExists )
+        {
+            return OptimisticResult.NOT_FOUND;
+        }
+        if ( bTreeNode.leafOverflow( cursor, keyCount, key, value ) != Overflow.NO )
+        {
+            return OptimisticResult.PESSIMISTIC;
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return OptimisticResult.DONE;
+    }
+
+    /**
+     * Optimistic version of {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long, PageCursorTracer)}
+     * which only ever changes the leaf that cursor is pinned to. If the leaf needs a successor then nothing is changed
+     * and {@link OptimisticResult#PESSIMISTIC} is returned. Underflow is not handled here, but reported as {@link OptimisticResult#UNDERFLOW}.
+     * Caller is responsible for making sure no other writer changes this leaf concurrently.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return {@link OptimisticResult} of the remove.
+     * @throws IOException on cursor failure
+     */
+    OptimisticResult tryRemoveFromLeaf( PageCursor cursor, KEY key, VALUE into, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        if ( !isHit( search ) )
+        {
+            return OptimisticResult.NOT_FOUND;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return OptimisticResult.PESSIMISTIC;
+        }
+
+        keyCount = simplyRemoveFromLeaf( cursor, into, keyCount, positionOf( search ), stableGeneration, unstableGeneration, cursorTracer );
+        return bTreeNode.leafUnderflow( cursor, keyCount ) ? OptimisticResult.UNDERFLOW : OptimisticResult.DONE;
+    }
+
+    /**
+     * Rebalances or merges the leaf where {@code key} belongs with one of its siblings, if that leaf is underflowing.
+     * Used after an optimistic change reported {@link OptimisticResult#UNDERFLOW}. Like the other structural changes
+     * this will be reported through the provided {@link StructurePropagation} and needs to be handled by caller.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first insert/remove since
+     * {@link #initialize(PageCursor)}) or at where last insert/remove left it.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key in the leaf that may be underflowing.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @throws IOException on cursor failure
+     */
+    void rebalanceIfUnderflow( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key,
+            long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration, cursorTracer );
+
+        int keyCount = TreeNode.keyCount( cursor );
+        if ( !bTreeNode.leafUnderflow( cursor, keyCount ) )
+        {
+            return;
+        }
+
+        createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration, cursorTracer );
+        underflowInLeaf( cursor, structurePropagation, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration, cursorTracer );
+
+        if ( currentLevel <= 0 )
+        {
+            tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration, cursorTracer );
+        }
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
     {
@@ -110,6 +110,30 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
      */
     boolean fixedSize();
 
+    /**
+     * Indicate if new trees with this layout should store keys with their common prefixes removed. This only makes sense
+     * for dynamic size layouts where {@link #writeKey(PageCursor, Object) serialized} keys sort in the same order as their bytes,
+     * or at least have long common leading bytes when close in sort order. Trees keep the format they were created with,
+     * so changing this doesn't affect existing trees.
+     * @return true if keys should be prefix compressed in new trees, otherwise false.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
+    /**
+     * Number of leading bytes of every {@link #writeKey(PageCursor, Object) serialized} key which differ between keys that are otherwise
+     * close in sort order, like an entity id written before the value that keys are sorted by. Trees that {@link #compressKeyPrefixes()}
+     * store these bytes after the rest of the key so that they don't keep keys from sharing prefixes. Changing this makes existing
+     * prefix compressed trees unreadable, so it must not change without changing the {@link #identifier()} or version of this layout.
+     * @return number of leading bytes of serialized keys to store after the rest of the key in prefix compressed trees.
+     */
+    default int compressedKeyHeaderSize()
+    {
+        return 0;
+    }
+
     /**
      * Find shortest key (best effort) that separate left from right in sort order
      * and initialize into with result.
@@ -357,6 +357,15 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Has a node, written by appending keys in order, used at least {@code fillFactor} of its space for keys, values and children?
+     * Used when bulk loading a tree bottom-up, see {@link GBPTree#bulkLoader(double, PageCursorTracer)}.
+     *
+     * @param fillFactor fraction of the node space, between 0 (exclusive) and 1 (inclusive).
+     * @return {@code true} if no more keys should be appended to this node, otherwise {@code false}.
+     */
+    abstract boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -829,6 +829,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        return totalActiveSpace( cursor, keyCount, type ) >= totalSpace * fillFactor;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
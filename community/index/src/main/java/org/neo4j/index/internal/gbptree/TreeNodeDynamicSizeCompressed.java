@@ -0,0 +1,1593 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeOffsetFormat.OFFSET_2B;
+import static org.neo4j.index.internal.gbptree.DynamicSizeOffsetFormat.OFFSET_3B;
+import static org.neo4j.index.internal.gbptree.GenerationSafePointerPair.pointer;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+import static org.neo4j.index.internal.gbptree.TreeNodeDynamicSize.USE_2B_OFFSET_PAGE_SIZE_LIMIT;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+
+/**
+ * Dynamic size format where keys are prefix compressed. Entries are stored in key order and every key only stores
+ * the bytes that differ from the key before it. Some entries are restart points, storing their key in full,
+ * so that reading any single key only needs to walk a few entries from the closest restart point before it.
+ *
+ * # = empty space
+ * R* = restart point, [index of entry][offset to entry]
+ *
+ * LEAF
+ * [                                   HEADER   86B                                                      ]|##########[RESTARTS][ENTRIES]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][RESTARTCOUNT]|      <-[R1*,R2*][E0,E1,E2,...]
+ *  0         1     2           6         10            34           58         82           84             86
+ *
+ *  INTERNAL
+ * [                                   HEADER   86B                                                      ]|[  CHILDREN  ]####[RESTARTS][ENTRIES]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][RESTARTCOUNT]|[C0,C1,C2,C3]-> <-[R1*,R2*][E0,E1,E2]
+ *  0         1     2           6         10            34           58         82           84             86
+ *
+ * Entries are packed at the end of the page and ALLOCOFFSET points to the first one, with the RESTARTCOUNT restart points
+ * stored right before it. This way readers can find them without relying on KEYCOUNT. The first entry is always a restart point
+ * and has no slot of its own, so that a node needs no more space for a couple of large entries than a {@link TreeNodeDynamicSize} node.
+ * Each entry is either
+ *
+ * [SHARED|OFFLOAD][UNSHARED][VALUESIZE][UNSHARED KEY BYTES][VALUE]     (VALUESIZE and VALUE only in leaves)
+ * [SHARED|OFFLOAD][OFFLOAD ID]                                         (key or key and value in offload store)
+ *
+ * where SHARED is the number of leading key bytes this entry has in common with the entry before it, shifted one bit
+ * to make room for the OFFLOAD flag. Sizes are variable length encoded. Restart points, offloaded entries and
+ * entries following an offloaded entry have no shared bytes.
+ *
+ * Keys are stored with the first {@link Layout#compressedKeyHeaderSize()} bytes moved behind the rest of the key. Those bytes,
+ * like an entity id written before the value, differ between keys that otherwise share their leading bytes.
+ *
+ * There is no dead space in this format, every change to the keys of a node rewrites the entries of that node.
+ * Because of that, node space is exact and defragmentation is a no-op. Restart points are placed
+ * {@link #RESTART_INTERVAL} entries apart when a node is written from scratch, e.g. on split or merge.
+ * Inserts and removes in between keep existing restart points where they are, which is what guarantees that a
+ * remove never needs more space than before, and splits a block of entries between two restart points
+ * when it grows beyond {@link #MAX_RESTART_BLOCK_SIZE}.
+ */
+public class TreeNodeDynamicSizeCompressed<KEY, VALUE> extends TreeNode<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    /**
+     * Same cap as {@link TreeNodeDynamicSize}, see that class for reasoning.
+     */
+    private static final int FIXED_MAX_KEY_VALUE_SIZE_CAP = 8175;
+    private static final int USE_OFFLOAD_STORE_PAGE_SIZE_LIMIT = (int) kibiBytes( 8 );
+    private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
+    private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    @VisibleForTesting
+    static final int RESTART_INTERVAL = 16;
+    private static final int MAX_RESTART_BLOCK_SIZE = RESTART_INTERVAL * 2;
+    private static final int OFFLOAD_FLAG = 1;
+    private static final int MAX_VAR_INT_SIZE = 3;
+    // Key and value sizes are all below 2^14 and so are all three sizes in an entry header
+    private static final int MAX_ENTRY_OVERHEAD = 6;
+    private static final int SIZE_OFFLOADED_ENTRY = 1 + Long.BYTES;
+    private static final int MIN_ENTRY_SIZE = 2;
+
+    private final DynamicSizeOffsetFormat offsetFormat;
+    private final int bytePosAllocOffset;
+    private final int bytePosRestartCount;
+    private final int headerLength;
+    private final int restartSlotSize;
+    private final int keyHeaderSize;
+    private final int inlineKeyValueSizeCap;
+    private final int keyValueSizeCap;
+    private final int totalSpace;
+    private final int halfSpace;
+    private final KEY tmpKeyLeft;
+    private final KEY tmpKeyRight;
+    private final OffloadStore<KEY,VALUE> offloadStore;
+    // Only used by the writer of this instance
+    private final Entries entries;
+    // This instance is shared by all readers of the tree and they all need their own scratch space
+    private final ThreadLocal<EntryReader> entryReaders;
+
+    TreeNodeDynamicSizeCompressed( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+    {
+        super( pageSize, layout );
+
+        this.offsetFormat = selectOffsetFormat( pageSize );
+        this.bytePosAllocOffset = offsetFormat.getBytePosAllocOffset();
+        this.bytePosRestartCount = bytePosAllocOffset + offsetFormat.offsetSize();
+        this.headerLength = headerLength( offsetFormat );
+        this.restartSlotSize = restartSlotSize( offsetFormat );
+        this.keyHeaderSize = layout.compressedKeyHeaderSize();
+        this.offloadStore = offloadStore;
+        this.totalSpace = pageSize - headerLength;
+        this.halfSpace = totalSpace >> 1;
+
+        this.inlineKeyValueSizeCap = inlineKeyValueSizeCap( pageSize );
+        this.keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+        if ( inlineKeyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
+        {
+            throw new MetadataMismatchException( format(
+                    "We need to fit at least %d key-value entries per page in leaves. To do that a key-value entry can be at most %dB " +
+                            "with current page size of %dB. We require this cap to be at least %dB.",
+                    LEAST_NUMBER_OF_ENTRIES_PER_PAGE, inlineKeyValueSizeCap, pageSize, Long.BYTES ) );
+        }
+
+        this.tmpKeyLeft = layout.newKey();
+        this.tmpKeyRight = layout.newKey();
+        this.entries = new Entries( pageSize, keyHeaderSize );
+        int keyCapacity = inlineKeyValueSizeCap;
+        this.entryReaders = ThreadLocal.withInitial( () -> new EntryReader( keyCapacity, keyHeaderSize ) );
+    }
+
+    private static DynamicSizeOffsetFormat selectOffsetFormat( int pageSize )
+    {
+        return pageSize < USE_2B_OFFSET_PAGE_SIZE_LIMIT ? OFFSET_2B : OFFSET_3B;
+    }
+
+    private static int headerLength( DynamicSizeOffsetFormat offsetFormat )
+    {
+        // Alloc offset and restart count
+        return offsetFormat.getBytePosAllocOffset() + 2 * offsetFormat.offsetSize();
+    }
+
+    private static int restartSlotSize( DynamicSizeOffsetFormat offsetFormat )
+    {
+        // Entry index and entry offset
+        return 2 * offsetFormat.offsetSize();
+    }
+
+    private static boolean useOffloadStore( int pageSize )
+    {
+        return pageSize <= USE_OFFLOAD_STORE_PAGE_SIZE_LIMIT;
+    }
+
+    @VisibleForTesting
+    public static int keyValueSizeCapFromPageSize( int pageSize )
+    {
+        return useOffloadStore( pageSize ) ?
+               Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, OffloadStoreImpl.keyValueSizeCapFromPageSize( pageSize ) ) :
+               Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, inlineKeyValueSizeCap( pageSize ) );
+    }
+
+    @VisibleForTesting
+    public static int inlineKeyValueSizeCap( int pageSize )
+    {
+        DynamicSizeOffsetFormat offsetFormat = selectOffsetFormat( pageSize );
+        int capToFitNumberOfEntriesPerPage =
+                (pageSize - headerLength( offsetFormat )) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - MAX_ENTRY_OVERHEAD;
+        return Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, capToFitNumberOfEntriesPerPage );
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        setAllocOffset( cursor, pageSize );
+        setRestartCount( cursor, 0 );
+    }
+
+    @Override
+    long offloadIdAt( PageCursor cursor, int pos, Type type )
+    {
+        EntryReader entry = entryReaders.get();
+        if ( seekEntry( cursor, pos, type, entry, false ) && entry.offload )
+        {
+            return entry.offloadId;
+        }
+        return NO_OFFLOAD_ID;
+    }
+
+    @Override
+    KEY keyAt( PageCursor cursor, KEY into, int pos, Type type, PageCursorTracer cursorTracer )
+    {
+        EntryReader entry = entryReaders.get();
+        if ( !seekEntry( cursor, pos, type, entry, true ) )
+        {
+            return into;
+        }
+        if ( entry.offload )
+        {
+            try
+            {
+                offloadStore.readKey( entry.offloadId, into, cursorTracer );
+            }
+            catch ( IOException e )
+            {
+                cursor.setCursorException( "Failed to read key from offload, cause: " + e.getMessage() );
+            }
+        }
+        else
+        {
+            readKey( cursor, entry, into );
+        }
+        return into;
+    }
+
+    @Override
+    void keyValueAt( PageCursor cursor, KEY intoKey, VALUE intoValue, int pos, PageCursorTracer cursorTracer )
+    {
+        EntryReader entry = entryReaders.get();
+        if ( !seekEntry( cursor, pos, LEAF, entry, true ) )
+        {
+            return;
+        }
+        if ( entry.offload )
+        {
+            try
+            {
+                offloadStore.readKeyValue( entry.offloadId, intoKey, intoValue, cursorTracer );
+            }
+            catch ( IOException e )
+            {
+                cursor.setCursorException( "Failed to read keyValue from offload, cause: " + e.getMessage() );
+            }
+        }
+        else
+        {
+            readKey( cursor, entry, intoKey );
+            cursor.setOffset( entry.valueOffset() );
+            layout.readValue( cursor, intoValue, entry.valueSize );
+        }
+    }
+
+    @Override
+    VALUE valueAt( PageCursor cursor, VALUE into, int pos, PageCursorTracer cursorTracer )
+    {
+        EntryReader entry = entryReaders.get();
+        if ( !seekEntry( cursor, pos, LEAF, entry, false ) )
+        {
+            return into;
+        }
+        if ( entry.offload )
+        {
+            try
+            {
+                offloadStore.readValue( entry.offloadId, into, cursorTracer );
+            }
+            catch ( IOException e )
+            {
+                cursor.setCursorException( "Failed to read value from offload, cause: " + e.getMessage() );
+            }
+        }
+        else
+        {
+            cursor.setOffset( entry.valueOffset() );
+            layout.readValue( cursor, into, entry.valueSize );
+        }
+        return into;
+    }
+
+    @Override
+    boolean setValueAt( PageCursor cursor, VALUE value, int pos )
+    {
+        EntryReader entry = entryReaders.get();
+        if ( seekEntry( cursor, pos, LEAF, entry, false ) && !entry.offload && entry.valueSize == layout.valueSize( value ) )
+        {
+            // Values are stored as they are so one of the same size can just be overwritten
+            cursor.setOffset( entry.valueOffset() );
+            layout.writeValue( cursor, value );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the key of the entry that {@code entry} was last positioned at by {@link #seekEntry(PageCursor, int, Type, EntryReader, boolean)}.
+     * Keys without shared bytes or header are read directly from the page, others are put together in the scratch space of {@code entry} first.
+     */
+    private void readKey( PageCursor cursor, EntryReader entry, KEY into )
+    {
+        cursor.setOffset( entry.keyOffset );
+        if ( entry.shared == 0 && keyHeaderSize == 0 )
+        {
+            layout.readKey( cursor, into, entry.unshared );
+            return;
+        }
+
+        cursor.getBytes( entry.keyBytes, entry.shared, entry.unshared );
+        try
+        {
+            readKey( entry, entry.shared + entry.unshared, into );
+        }
+        catch ( CursorException e )
+        {
+            cursor.setCursorException( e.getMessage() );
+        }
+    }
+
+    /**
+     * Reads a key that has been put together, in the order it is stored in, in the scratch space of {@code entry}.
+     * An inconsistent read can make the layout read past the scratch space, where a page cursor would only have raised its bounds flag,
+     * so that is reported as a cursor exception as well.
+     */
+    private void readKey( EntryReader entry, int keySize, KEY into ) throws CursorException
+    {
+        restoreKeyOrder( entry.keyBytes, 0, keySize, entry.keyHeader );
+        PageCursor keyCursor = entry.keyCursor;
+        keyCursor.setOffset( 0 );
+        try
+        {
+            layout.readKey( keyCursor, into, keySize );
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException e )
+        {
+            throw new CursorException( format( "Read key out of bounds, keySize=%d", keySize ) );
+        }
+        keyCursor.checkAndClearCursorException();
+    }
+
+    /**
+     * Writes {@code key} into {@code entries} at {@code keyOffset}, in the order keys are stored in.
+     */
+    private void writeKey( Entries entries, int keyOffset, KEY key, int keySize )
+    {
+        layout.writeKey( entries.cursorAt( keyOffset ), key );
+        if ( keyHeaderSize > 0 && keySize > keyHeaderSize )
+        {
+            byte[] data = entries.data;
+            System.arraycopy( data, keyOffset, entries.keyHeader, 0, keyHeaderSize );
+            System.arraycopy( data, keyOffset + keyHeaderSize, data, keyOffset, keySize - keyHeaderSize );
+            System.arraycopy( entries.keyHeader, 0, data, keyOffset + keySize - keyHeaderSize, keyHeaderSize );
+        }
+    }
+
+    /**
+     * Moves the key header back in front of the rest of the key, reversing what {@link #writeKey(Entries, int, Object, int)} did.
+     */
+    private void restoreKeyOrder( byte[] bytes, int keyOffset, int keySize, byte[] keyHeader )
+    {
+        if ( keyHeaderSize > 0 && keySize > keyHeaderSize )
+        {
+            System.arraycopy( bytes, keyOffset + keySize - keyHeaderSize, keyHeader, 0, keyHeaderSize );
+            System.arraycopy( bytes, keyOffset, bytes, keyOffset + keyHeaderSize, keySize - keyHeaderSize );
+            System.arraycopy( keyHeader, 0, bytes, keyOffset, keyHeaderSize );
+        }
+    }
+
+    /**
+     * Walks from the closest restart point before {@code pos} to the entry at {@code pos} and describes it in {@code entry}.
+     * Every offset and size is checked on the way so that an inconsistent read, e.g. one racing with a writer,
+     * sets a cursor exception instead of reading out of bounds.
+     *
+     * @param materializePrefix whether or not to collect the key bytes the entry shares with keys before it into {@code entry},
+     * only needed when the key itself is going to be read.
+     * @return {@code true} if the entry could be found, otherwise {@code false} and a cursor exception has been set.
+     */
+    private boolean seekEntry( PageCursor cursor, int pos, Type type, EntryReader entry, boolean materializePrefix )
+    {
+        int keyCount = keyCount( cursor );
+        int restartCount = getRestartCount( cursor );
+        int allocOffset = getAllocOffset( cursor );
+        int restartsOffset = allocOffset - restartCount * restartSlotSize;
+        if ( pos < 0 || restartCount < 0 || restartsOffset < headerLength || allocOffset > pageSize )
+        {
+            return unreliableRead( cursor, pos, keyCount, restartCount );
+        }
+
+        // Find the last restart point at or before pos, where the first entry is an implicit restart point before all others
+        int low = -1;
+        int high = restartCount - 1;
+        while ( low < high )
+        {
+            int mid = (low + high + 1) >>> 1;
+            if ( offsetFormat.getOffset( cursor, restartsOffset + mid * restartSlotSize ) <= pos )
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        int index = 0;
+        int offset = allocOffset;
+        if ( low >= 0 )
+        {
+            int restartSlotOffset = restartsOffset + low * restartSlotSize;
+            index = offsetFormat.getOffset( cursor, restartSlotOffset );
+            offset = offsetFormat.getOffset( cursor, restartSlotOffset + offsetFormat.offsetSize() );
+        }
+        if ( index > pos || pos - index >= MAX_RESTART_BLOCK_SIZE )
+        {
+            return unreliableRead( cursor, pos, keyCount, restartCount );
+        }
+
+        int keyLength = 0;
+        for ( ; ; index++ )
+        {
+            if ( offset < headerLength || offset >= pageSize )
+            {
+                return unreliableRead( cursor, pos, keyCount, restartCount );
+            }
+            cursor.setOffset( offset );
+            int header = getVarInt( cursor );
+            if ( header < 0 )
+            {
+                return unreliableRead( cursor, pos, keyCount, restartCount );
+            }
+            if ( (header & OFFLOAD_FLAG) != 0 )
+            {
+                if ( cursor.getOffset() + Long.BYTES > pageSize )
+                {
+                    return unreliableRead( cursor, pos, keyCount, restartCount );
+                }
+                long offloadId = cursor.getLong();
+                if ( index == pos )
+                {
+                    entry.offload = true;
+                    entry.offloadId = offloadId;
+                    return true;
+                }
+                keyLength = 0;
+                offset = cursor.getOffset();
+                continue;
+            }
+
+            int shared = header >>> 1;
+            int unshared = getVarInt( cursor );
+            int valueSize = type == LEAF ? getVarInt( cursor ) : 0;
+            int keyOffset = cursor.getOffset();
+            if ( shared > keyLength || unshared < 0 || valueSize < 0 || shared + unshared + valueSize > inlineKeyValueSizeCap ||
+                    keyOffset + unshared + valueSize > pageSize )
+            {
+                return unreliableRead( cursor, pos, keyCount, restartCount );
+            }
+            if ( index == pos )
+            {
+                entry.offload = false;
+                entry.shared = shared;
+                entry.unshared = unshared;
+                entry.valueSize = valueSize;
+                entry.keyOffset = keyOffset;
+                return true;
+            }
+            if ( materializePrefix )
+            {
+                cursor.getBytes( entry.keyBytes, shared, unshared );
+            }
+            keyLength = shared + unshared;
+            offset = keyOffset + unshared + valueSize;
+        }
+    }
+
+    private static boolean unreliableRead( PageCursor cursor, int pos, int keyCount, int restartCount )
+    {
+        cursor.setCursorException( format( "Read unreliable entry, id=%d, pos=%d, keyCount=%d, restartCount=%d",
+                cursor.getCurrentPageId(), pos, keyCount, restartCount ) );
+        return false;
+    }
+
+    @Override
+    void insertKeyAndRightChildAt( PageCursor cursor, KEY key, long child, int pos, int keyCount, long stableGeneration,
+            long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( cursor, INTERNAL, keyCount );
+        insertEntry( entries, pos, key, null, INTERNAL, stableGeneration, unstableGeneration, cursorTracer );
+        entries.limitRestartBlock( pos );
+
+        // Children have fixed positions, make room for the new one to the right of the new key
+        insertSlotsAt( cursor, pos + 1, 1, keyCount + 1, childOffset( 0 ), childSize() );
+        setNewChildAt( cursor, child, pos + 1, stableGeneration, unstableGeneration );
+        writeEntries( cursor, INTERNAL, entries, 0, keyCount + 1, false );
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( cursor, LEAF, keyCount );
+        insertEntry( entries, pos, key, value, LEAF, stableGeneration, unstableGeneration, cursorTracer );
+        entries.limitRestartBlock( pos );
+        writeEntries( cursor, LEAF, entries, 0, keyCount + 1, false );
+    }
+
+    @Override
+    void removeKeyValueAt( PageCursor cursor, int pos, int keyCount, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( cursor, LEAF, keyCount );
+        freeOffloaded( entries, pos, stableGeneration, unstableGeneration, cursorTracer );
+        entries.remove( pos );
+        writeEntries( cursor, LEAF, entries, 0, keyCount - 1, false );
+    }
+
+    @Override
+    void removeKeyAndRightChildAt( PageCursor cursor, int keyPos, int keyCount, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( cursor, INTERNAL, keyCount );
+        freeOffloaded( entries, keyPos, stableGeneration, unstableGeneration, cursorTracer );
+        entries.remove( keyPos );
+        removeSlotAt( cursor, keyPos + 1, keyCount + 1, childOffset( 0 ), childSize() );
+        writeEntries( cursor, INTERNAL, entries, 0, keyCount - 1, false );
+    }
+
+    @Override
+    void removeKeyAndLeftChildAt( PageCursor cursor, int keyPos, int keyCount, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( cursor, INTERNAL, keyCount );
+        freeOffloaded( entries, keyPos, stableGeneration, unstableGeneration, cursorTracer );
+        entries.remove( keyPos );
+        removeSlotAt( cursor, keyPos, keyCount + 1, childOffset( 0 ), childSize() );
+        writeEntries( cursor, INTERNAL, entries, 0, keyCount - 1, false );
+    }
+
+    @Override
+    boolean setKeyAtInternal( PageCursor cursor, KEY key, int pos )
+    {
+        int keySize = layout.keySize( key );
+        if ( !canInline( keySize ) )
+        {
+            return false;
+        }
+        int keyCount = keyCount( cursor );
+        Entries entries = readEntries( cursor, INTERNAL, keyCount );
+        if ( entries.isOffloaded( pos ) )
+        {
+            return false;
+        }
+
+        int dataOffset = entries.allocate( keySize );
+        writeKey( entries, dataOffset, key, keySize );
+        entries.replace( pos, dataOffset, keySize, 0, NO_OFFLOAD_ID );
+        if ( childSpace( INTERNAL, keyCount ) + encodedSize( INTERNAL, entries, 0, keyCount, false ) > totalSpace )
+        {
+            return false;
+        }
+        writeEntries( cursor, INTERNAL, entries, 0, keyCount, false );
+        return true;
+    }
+
+    @Override
+    void setChildAt( PageCursor cursor, long child, int pos, long stableGeneration, long unstableGeneration )
+    {
+        cursor.setOffset( childOffset( pos ) );
+        writeChild( cursor, child, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * A slot made room for by shifting children may hold a stale pointer, or restart data for the last slot, so clear it before writing.
+     */
+    private void setNewChildAt( PageCursor cursor, long child, int pos, long stableGeneration, long unstableGeneration )
+    {
+        cursor.setOffset( childOffset( pos ) );
+        cursor.putBytes( childSize(), (byte) 0 );
+        setChildAt( cursor, child, pos, stableGeneration, unstableGeneration );
+    }
+
+    @Override
+    public int keyValueSizeCap()
+    {
+        return keyValueSizeCap;
+    }
+
+    @Override
+    public int inlineKeyValueSizeCap()
+    {
+        return inlineKeyValueSizeCap;
+    }
+
+    @Override
+    void validateKeyValueSize( KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( keySize + valueSize > keyValueSizeCap )
+        {
+            throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
+        }
+    }
+
+    @Override
+    boolean reasonableKeyCount( int keyCount )
+    {
+        return keyCount >= 0 && keyCount <= totalSpace / MIN_ENTRY_SIZE;
+    }
+
+    @Override
+    boolean reasonableChildCount( int childCount )
+    {
+        return reasonableKeyCount( childCount );
+    }
+
+    @Override
+    int childOffset( int pos )
+    {
+        return headerLength + pos * childSize();
+    }
+
+    @Override
+    Overflow internalOverflow( PageCursor cursor, int currentKeyCount, KEY newKey )
+    {
+        return overflow( cursor, currentKeyCount, INTERNAL, newKey, null );
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        return overflow( cursor, currentKeyCount, LEAF, newKey, newValue );
+    }
+
+    /**
+     * How much space a new entry needs depends on the keys next to it, i.e. on where it will be inserted, which isn't known here.
+     * This calculates exactly how much the node would grow for every possible position and answers for the position
+     * where it would grow the most. For keys that share prefixes with their neighbours this is rarely more than a byte
+     * or two more than for the position the key will actually be inserted at.
+     */
+    private Overflow overflow( PageCursor cursor, int keyCount, Type type, KEY newKey, VALUE newValue )
+    {
+        Entries entries = readEntries( cursor, type, keyCount );
+        int size = childSpace( type, keyCount + 1 ) + encodedSize( type, entries, 0, keyCount, false );
+
+        int keySize = layout.keySize( newKey );
+        int valueSize = type == LEAF ? layout.valueSize( newValue ) : 0;
+        boolean inline = canInline( keySize + valueSize );
+        int keyOffset = -1;
+        if ( inline )
+        {
+            keyOffset = entries.allocate( keySize );
+            writeKey( entries, keyOffset, newKey, keySize );
+        }
+        if ( keyCount == 0 )
+        {
+            int entrySize = inline ? entrySize( type, 0, keySize, valueSize ) : SIZE_OFFLOADED_ENTRY;
+            return size + entrySize <= totalSpace ? Overflow.NO : Overflow.YES;
+        }
+
+        int maxGrowth = 0;
+        int blockStart = 0;
+        while ( blockStart < keyCount )
+        {
+            int blockEnd = blockStart + 1;
+            int maxRestartCost = 0;
+            for ( ; blockEnd < keyCount && !entries.restart[blockEnd]; blockEnd++ )
+            {
+                maxRestartCost = Math.max( maxRestartCost, restartCost( type, entries, blockEnd, entries.shared[blockEnd] ) );
+            }
+            boolean blockIsFull = blockEnd - blockStart >= MAX_RESTART_BLOCK_SIZE;
+
+            // A new entry goes into the block of the entry before it, or first into the first block
+            for ( int pos = blockStart == 0 ? 0 : blockStart + 1; pos <= blockEnd; pos++ )
+            {
+                int growth;
+                int newEntryRestartCost = 0;
+                if ( inline )
+                {
+                    int shared = pos == 0 || entries.isOffloaded( pos - 1 ) ? 0 : commonPrefix( entries, pos - 1, keyOffset, keySize );
+                    growth = entrySize( type, shared, keySize, valueSize );
+                    newEntryRestartCost = entrySize( type, 0, keySize, valueSize ) - growth;
+                }
+                else
+                {
+                    growth = SIZE_OFFLOADED_ENTRY;
+                }
+
+                int nextRestartCost = 0;
+                if ( pos < keyCount && !entries.isOffloaded( pos ) )
+                {
+                    // The entry after the new one shares bytes with the new key instead, unless it is a restart point that stays one
+                    boolean staysRestart = pos > 0 && entries.restart[pos];
+                    int shared = staysRestart || !inline ? 0 : commonPrefix( entries, pos, keyOffset, keySize );
+                    growth += entrySize( type, shared, entries.keySizes[pos], entries.valueSizes[pos] ) -
+                            entrySize( type, entries.shared[pos], entries.keySizes[pos], entries.valueSizes[pos] );
+                    nextRestartCost = pos < blockEnd ? restartCost( type, entries, pos, shared ) : 0;
+                }
+
+                if ( blockIsFull )
+                {
+                    // Some entry in the block will become a new restart point
+                    growth += restartSlotSize + Math.max( maxRestartCost, Math.max( newEntryRestartCost, nextRestartCost ) );
+                }
+                maxGrowth = Math.max( maxGrowth, growth );
+            }
+            blockStart = blockEnd;
+        }
+        return size + maxGrowth <= totalSpace ? Overflow.NO : Overflow.YES;
+    }
+
+    private static int restartCost( Type type, Entries entries, int pos, int shared )
+    {
+        return entries.isOffloaded( pos ) ? 0 :
+               entrySize( type, 0, entries.keySizes[pos], entries.valueSizes[pos] ) - entrySize( type, shared, entries.keySizes[pos], entries.valueSizes[pos] );
+    }
+
+    private static int commonPrefix( Entries entries, int pos, int keyOffset, int keySize )
+    {
+        int length = Math.min( entries.keySizes[pos], keySize );
+        int entryOffset = entries.keyOffsets[pos];
+        int mismatch = Arrays.mismatch( entries.data, entryOffset, entryOffset + length, entries.data, keyOffset, keyOffset + length );
+        return mismatch == -1 ? length : mismatch;
+    }
+
+    @Override
+    void defragmentLeaf( PageCursor cursor )
+    {   // Nodes never have dead space
+    }
+
+    @Override
+    void defragmentInternal( PageCursor cursor )
+    {   // Nodes never have dead space
+    }
+
+    @Override
+    boolean leafUnderflow( PageCursor cursor, int keyCount )
+    {
+        int availableSpace = totalSpace - withRoomForRestart( usedSpace( cursor, keyCount, LEAF ) );
+        return availableSpace > halfSpace;
+    }
+
+    /**
+     * The first entry of a node is a restart point without a slot, but an insert can need a restart slot on top of its entry,
+     * see {@link #overflow(PageCursor, int, Type, Object, Object)}. Underflow, merge and rebalance look at the space of leaves with room
+     * for that slot, so that they don't leave leaves which are fuller than what a split leaves behind.
+     */
+    private int withRoomForRestart( int space )
+    {
+        return space + restartSlotSize;
+    }
+
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        return usedSpace( cursor, keyCount, type ) >= totalSpace * fillFactor;
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        Entries entries = readEntries( leftCursor, LEAF, leftKeyCount );
+        appendEntries( rightCursor, LEAF, rightKeyCount, entries );
+        int keyCount = leftKeyCount + rightKeyCount;
+
+        if ( canMerge( entries, keyCount ) )
+        {
+            // We can merge
+            return -1;
+        }
+        int leftSpace = withRoomForRestart( usedSpace( leftCursor, leftKeyCount, LEAF ) );
+        int rightSpace = withRoomForRestart( usedSpace( rightCursor, rightKeyCount, LEAF ) );
+        if ( leftSpace < rightSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Same as how moveKeyValuesFromLeftToRight would write them
+        int currentDelta = leftSpace - rightSpace;
+        int keysToMove = 0;
+        while ( keysToMove < leftKeyCount - 1 )
+        {
+            int fromPos = leftKeyCount - keysToMove - 1;
+            int candidateLeftSpace = withRoomForRestart( encodedSize( LEAF, entries, 0, fromPos, false ) );
+            int candidateRightSpace = withRoomForRestart( encodedSize( LEAF, entries, fromPos, keyCount, true ) );
+            int candidateDelta = Math.abs( candidateLeftSpace - candidateRightSpace );
+            if ( candidateDelta >= currentDelta )
+            {
+                break;
+            }
+            keysToMove++;
+            leftSpace = candidateLeftSpace;
+            rightSpace = candidateRightSpace;
+            currentDelta = candidateDelta;
+        }
+
+        boolean canRebalance = keysToMove > 0 && leftSpace > halfSpace && rightSpace > halfSpace && rightSpace <= totalSpace;
+        return canRebalance ? keysToMove : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        Entries entries = readEntries( leftCursor, LEAF, leftKeyCount );
+        appendEntries( rightCursor, LEAF, rightKeyCount, entries );
+        return canMerge( entries, leftKeyCount + rightKeyCount );
+    }
+
+    private boolean canMerge( Entries entries, int keyCount )
+    {
+        // Same as how copyKeyValuesFromLeftToRight would write them
+        return withRoomForRestart( encodedSize( LEAF, entries, 0, keyCount, true ) ) <= totalSpace;
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            VALUE newValue, KEY newSplitter, double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( leftCursor, LEAF, leftKeyCount );
+        insertEntry( entries, insertPos, newKey, newValue, LEAF, stableGeneration, unstableGeneration, cursorTracer );
+        int keyCountAfterInsert = leftKeyCount + 1;
+        int splitPos = splitPos( LEAF, entries, keyCountAfterInsert, ratioToKeepInLeftOnSplit );
+
+        KEY leftInSplit = splitPos - 1 == insertPos ? newKey : entryKey( entries, splitPos - 1, tmpKeyLeft, cursorTracer );
+        KEY rightInSplit = splitPos == insertPos ? newKey : entryKey( entries, splitPos, tmpKeyRight, cursorTracer );
+        layout.minimalSplitter( leftInSplit, rightInSplit, newSplitter );
+
+        writeEntries( leftCursor, LEAF, entries, 0, splitPos, true );
+        writeEntries( rightCursor, LEAF, entries, splitPos, keyCountAfterInsert, true );
+        TreeNode.setKeyCount( leftCursor, splitPos );
+        TreeNode.setKeyCount( rightCursor, keyCountAfterInsert - splitPos );
+    }
+
+    @Override
+    void doSplitInternal( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            long newRightChild, long stableGeneration, long unstableGeneration, KEY newSplitter, double ratioToKeepInLeftOnSplit,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        Entries entries = readEntries( leftCursor, INTERNAL, leftKeyCount );
+        insertEntry( entries, insertPos, newKey, null, INTERNAL, stableGeneration, unstableGeneration, cursorTracer );
+        int keyCountAfterInsert = leftKeyCount + 1;
+        int splitPos = splitPos( INTERNAL, entries, keyCountAfterInsert, ratioToKeepInLeftOnSplit );
+
+        // Key at splitPos goes up to parent and is kept in neither left nor right
+        if ( splitPos == insertPos )
+        {
+            layout.copyKey( newKey, newSplitter );
+        }
+        else
+        {
+            entryKey( entries, splitPos, newSplitter, cursorTracer );
+        }
+        freeOffloaded( entries, splitPos, stableGeneration, unstableGeneration, cursorTracer );
+
+        // Children have fixed positions so they are moved separately from the entries
+        int childInsertPos = insertPos + 1;
+        if ( childInsertPos <= splitPos )
+        {
+            //                       v-------v      to right
+            // before child -,-,-,-,-,-,-,-,-,-
+            // insert child -,-,x,-,-,-,-,-,-,-,-
+            // split key            ^
+            leftCursor.copyTo( childOffset( splitPos ), rightCursor, childOffset( 0 ), (leftKeyCount - splitPos + 1) * childSize() );
+            insertSlotsAt( leftCursor, childInsertPos, 1, splitPos, childOffset( 0 ), childSize() );
+            setNewChildAt( leftCursor, newRightChild, childInsertPos, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            //                     v-v   v-v        to right, around new child
+            // before child -,-,-,-,-,-,-,-,-,-
+            // insert child -,-,-,-,-,-,-,x,-,-,-
+            // split key          ^
+            int rightChildInsertPos = childInsertPos - splitPos - 1;
+            leftCursor.copyTo( childOffset( splitPos + 1 ), rightCursor, childOffset( 0 ), rightChildInsertPos * childSize() );
+            leftCursor.copyTo( childOffset( childInsertPos ), rightCursor, childOffset( rightChildInsertPos + 1 ),
+                    (leftKeyCount + 1 - childInsertPos) * childSize() );
+            setNewChildAt( rightCursor, newRightChild, rightChildInsertPos, stableGeneration, unstableGeneration );
+        }
+
+        writeEntries( leftCursor, INTERNAL, entries, 0, splitPos, true );
+        writeEntries( rightCursor, INTERNAL, entries, splitPos + 1, keyCountAfterInsert, true );
+        TreeNode.setKeyCount( leftCursor, splitPos );
+        TreeNode.setKeyCount( rightCursor, keyCountAfterInsert - splitPos - 1 );
+    }
+
+    @Override
+    void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
+            int fromPosInLeftNode )
+    {
+        Entries entries = readEntries( leftCursor, LEAF, leftKeyCount );
+        appendEntries( rightCursor, LEAF, rightKeyCount, entries );
+        int keyCount = leftKeyCount + rightKeyCount;
+        writeEntries( leftCursor, LEAF, entries, 0, fromPosInLeftNode, false );
+        writeEntries( rightCursor, LEAF, entries, fromPosInLeftNode, keyCount, true );
+        TreeNode.setKeyCount( leftCursor, fromPosInLeftNode );
+        TreeNode.setKeyCount( rightCursor, keyCount - fromPosInLeftNode );
+    }
+
+    @Override
+    void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        Entries entries = readEntries( leftCursor, LEAF, leftKeyCount );
+        appendEntries( rightCursor, LEAF, rightKeyCount, entries );
+        int keyCount = leftKeyCount + rightKeyCount;
+        writeEntries( rightCursor, LEAF, entries, 0, keyCount, true );
+        TreeNode.setKeyCount( rightCursor, keyCount );
+    }
+
+    /**
+     * Finds the position to split at after an insert, where both halves fit and left gets as close to
+     * {@code ratioToKeepInLeftOnSplit} of total space as possible. Both halves are written with fresh restart points.
+     * In internal nodes the key at the split position goes up to the parent, the rest is divided between left and right.
+     */
+    private int splitPos( Type type, Entries entries, int keyCountAfterInsert, double ratioToKeepInLeftOnSplit )
+    {
+        // A node can overflow well before it is completely full, so divide what is actually there rather than the space of a node
+        int allSpace = childSpace( type, keyCountAfterInsert ) + encodedSize( type, entries, 0, keyCountAfterInsert, true );
+        int targetLeftSpace = (int) (allSpace * ratioToKeepInLeftOnSplit);
+        int bestPos = -1;
+        int bestDelta = Integer.MAX_VALUE;
+        int leftEntriesSpace = 0;
+        for ( int splitPos = 1; splitPos < keyCountAfterInsert; splitPos++ )
+        {
+            // Left entries are a prefix of all entries, so their space can be accumulated as we go
+            leftEntriesSpace += encodedSize( type, entries, splitPos - 1, splitPos, 0, true );
+            int leftSpace = childSpace( type, splitPos ) + leftEntriesSpace;
+            if ( leftSpace > totalSpace )
+            {
+                break;
+            }
+            int delta = Math.abs( leftSpace - targetLeftSpace );
+            if ( delta < bestDelta )
+            {
+                bestDelta = delta;
+                bestPos = splitPos;
+            }
+        }
+
+        // Closest to target is not necessarily possible since right may not fit, then look at the ones closest to it
+        for ( int distance = 0; bestPos != -1 && distance < keyCountAfterInsert; distance++ )
+        {
+            for ( int splitPos : new int[]{bestPos - distance, bestPos + distance} )
+            {
+                if ( splitPos >= 1 && splitPos < keyCountAfterInsert && fitsAfterSplit( type, entries, keyCountAfterInsert, splitPos ) )
+                {
+                    return splitPos;
+                }
+            }
+        }
+        throw new IllegalStateException( format( "There's not enough space to insert new key, even when splitting the %s. keyCountAfterInsert:%d",
+                type == LEAF ? "leaf" : "internal node", keyCountAfterInsert ) );
+    }
+
+    private boolean fitsAfterSplit( Type type, Entries entries, int keyCountAfterInsert, int splitPos )
+    {
+        int leftSpace = childSpace( type, splitPos ) + encodedSize( type, entries, 0, splitPos, true );
+        int rightFrom = type == LEAF ? splitPos : splitPos + 1;
+        int rightKeyCount = keyCountAfterInsert - rightFrom;
+        int rightSpace = childSpace( type, rightKeyCount ) + encodedSize( type, entries, rightFrom, keyCountAfterInsert, true );
+        return leftSpace <= totalSpace && rightSpace <= totalSpace;
+    }
+
+    private void insertEntry( Entries entries, int pos, KEY key, VALUE value, Type type, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = type == LEAF ? layout.valueSize( value ) : 0;
+        if ( canInline( keySize + valueSize ) )
+        {
+            int dataOffset = entries.allocate( keySize + valueSize );
+            writeKey( entries, dataOffset, key, keySize );
+            if ( type == LEAF )
+            {
+                layout.writeValue( entries.cursorAt( dataOffset + keySize ), value );
+            }
+            entries.insert( pos, dataOffset, keySize, valueSize, NO_OFFLOAD_ID );
+        }
+        else
+        {
+            long offloadId = type == LEAF ?
+                             offloadStore.writeKeyValue( key, value, stableGeneration, unstableGeneration, cursorTracer ) :
+                             offloadStore.writeKey( key, stableGeneration, unstableGeneration, cursorTracer );
+            entries.insert( pos, 0, 0, 0, offloadId );
+        }
+    }
+
+    private KEY entryKey( Entries entries, int pos, KEY into, PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( entries.isOffloaded( pos ) )
+        {
+            offloadStore.readKey( entries.offloadIds[pos], into, cursorTracer );
+        }
+        else
+        {
+            // Keys in entries are in stored order and must stay that way, so put the key back together in scratch space
+            EntryReader entry = entryReaders.get();
+            System.arraycopy( entries.data, entries.keyOffsets[pos], entry.keyBytes, 0, entries.keySizes[pos] );
+            readKey( entry, entries.keySizes[pos], into );
+        }
+        return into;
+    }
+
+    private void freeOffloaded( Entries entries, int pos, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer )
+            throws IOException
+    {
+        if ( entries.isOffloaded( pos ) )
+        {
+            offloadStore.free( entries.offloadIds[pos], stableGeneration, unstableGeneration, cursorTracer );
+        }
+    }
+
+    private Entries readEntries( PageCursor cursor, Type type, int keyCount )
+    {
+        entries.clear();
+        appendEntries( cursor, type, keyCount, entries );
+        return entries;
+    }
+
+    private void appendEntries( PageCursor cursor, Type type, int keyCount, Entries entries )
+    {
+        int first = entries.count;
+        int previousKeySize = 0;
+        cursor.setOffset( getAllocOffset( cursor ) );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            int header = getVarInt( cursor );
+            if ( header >= 0 && (header & OFFLOAD_FLAG) != 0 )
+            {
+                entries.add( 0, 0, 0, cursor.getLong() );
+                previousKeySize = 0;
+                continue;
+            }
+
+            int shared = header >>> 1;
+            int unshared = getVarInt( cursor );
+            int valueSize = type == LEAF ? getVarInt( cursor ) : 0;
+            if ( header < 0 || unshared < 0 || valueSize < 0 || shared > previousKeySize )
+            {
+                throw new TreeInconsistencyException( "Unexpected entry in tree node, id=%d, pos=%d, shared=%d, unshared=%d, valueSize=%d",
+                        cursor.getCurrentPageId(), pos, shared, unshared, valueSize );
+            }
+            int keySize = shared + unshared;
+            int dataOffset = entries.allocate( keySize + valueSize );
+            if ( shared > 0 )
+            {
+                System.arraycopy( entries.data, entries.keyOffsets[entries.count - 1], entries.data, dataOffset, shared );
+            }
+            // Rest of key and value are next to each other on the page as well as in entries
+            cursor.getBytes( entries.data, dataOffset + shared, unshared + valueSize );
+            entries.add( dataOffset, keySize, valueSize, NO_OFFLOAD_ID );
+            previousKeySize = keySize;
+        }
+
+        if ( keyCount > 0 )
+        {
+            entries.restart[first] = true;
+        }
+        int restartCount = getRestartCount( cursor );
+        int restartsOffset = getAllocOffset( cursor ) - restartCount * restartSlotSize;
+        for ( int restart = 0; restart < restartCount; restart++ )
+        {
+            int index = offsetFormat.getOffset( cursor, restartsOffset + restart * restartSlotSize );
+            if ( index < keyCount )
+            {
+                entries.restart[first + index] = true;
+            }
+        }
+    }
+
+    /**
+     * Writes entries {@code from} (inclusive) to {@code to} (exclusive) as the only entries of the node.
+     * Children, if any, are not touched.
+     *
+     * @param freshRestarts whether to place restart points {@link #RESTART_INTERVAL} entries apart or keep the ones in {@code entries}.
+     */
+    private void writeEntries( PageCursor cursor, Type type, Entries entries, int from, int to, boolean freshRestarts )
+    {
+        int keyCount = to - from;
+        int restartCount = 0;
+        for ( int pos = from + 1; pos < to; pos++ )
+        {
+            if ( isRestart( entries, pos, from, freshRestarts ) )
+            {
+                restartCount++;
+            }
+        }
+        int entriesSpace = encodedSize( type, entries, from, to, freshRestarts ) - restartCount * restartSlotSize;
+        int allocOffset = pageSize - entriesSpace;
+        int restartsOffset = allocOffset - restartCount * restartSlotSize;
+        if ( restartsOffset < childrenEnd( type, keyCount ) )
+        {
+            throw new IllegalStateException( format( "Entries don't fit in tree node, id=%d, keyCount=%d, entriesSpace=%d, restartCount=%d",
+                    cursor.getCurrentPageId(), keyCount, entriesSpace, restartCount ) );
+        }
+
+        int offset = allocOffset;
+        int restartSlotOffset = restartsOffset;
+        for ( int pos = from; pos < to; pos++ )
+        {
+            if ( pos > from && isRestart( entries, pos, from, freshRestarts ) )
+            {
+                offsetFormat.putOffset( cursor, restartSlotOffset, pos - from );
+                offsetFormat.putOffset( cursor, restartSlotOffset + offsetFormat.offsetSize(), offset );
+                restartSlotOffset += restartSlotSize;
+            }
+            cursor.setOffset( offset );
+            writeEntry( cursor, type, entries, pos );
+            offset = cursor.getOffset();
+        }
+        setAllocOffset( cursor, allocOffset );
+        setRestartCount( cursor, restartCount );
+    }
+
+    private void writeEntry( PageCursor cursor, Type type, Entries entries, int pos )
+    {
+        if ( entries.isOffloaded( pos ) )
+        {
+            putVarInt( cursor, OFFLOAD_FLAG );
+            cursor.putLong( entries.offloadIds[pos] );
+            return;
+        }
+        int shared = entries.shared[pos];
+        int unshared = entries.keySizes[pos] - shared;
+        int valueSize = entries.valueSizes[pos];
+        putVarInt( cursor, shared << 1 );
+        putVarInt( cursor, unshared );
+        if ( type == LEAF )
+        {
+            putVarInt( cursor, valueSize );
+        }
+        cursor.putBytes( entries.data, entries.keyOffsets[pos] + shared, unshared + valueSize );
+    }
+
+    /**
+     * Space needed by restart points and entries {@code from} (inclusive) to {@code to} (exclusive) if they were the only entries in a node.
+     * Also records the number of shared bytes of each entry in {@code entries}, for writing them right after.
+     */
+    private int encodedSize( Type type, Entries entries, int from, int to, boolean freshRestarts )
+    {
+        return encodedSize( type, entries, from, to, from, freshRestarts );
+    }
+
+    private int encodedSize( Type type, Entries entries, int from, int to, int firstInNode, boolean freshRestarts )
+    {
+        int size = 0;
+        for ( int pos = from; pos < to; pos++ )
+        {
+            boolean restart = isRestart( entries, pos, firstInNode, freshRestarts );
+            if ( restart && pos > firstInNode )
+            {
+                size += restartSlotSize;
+            }
+            if ( entries.isOffloaded( pos ) )
+            {
+                size += SIZE_OFFLOADED_ENTRY;
+                continue;
+            }
+            int shared = restart || entries.isOffloaded( pos - 1 ) ? 0 : entries.commonPrefix( pos - 1, pos );
+            entries.shared[pos] = shared;
+            size += entrySize( type, shared, entries.keySizes[pos], entries.valueSizes[pos] );
+        }
+        return size;
+    }
+
+    private static boolean isRestart( Entries entries, int pos, int firstInNode, boolean freshRestarts )
+    {
+        return freshRestarts ? (pos - firstInNode) % RESTART_INTERVAL == 0 : pos == firstInNode || entries.restart[pos];
+    }
+
+    private static int entrySize( Type type, int shared, int keySize, int valueSize )
+    {
+        int unshared = keySize - shared;
+        int size = varIntSize( shared << 1 ) + varIntSize( unshared ) + unshared;
+        return type == LEAF ? size + varIntSize( valueSize ) + valueSize : size;
+    }
+
+    private int usedSpace( PageCursor cursor, int keyCount, Type type )
+    {
+        return childSpace( type, keyCount ) + getRestartCount( cursor ) * restartSlotSize + pageSize - getAllocOffset( cursor );
+    }
+
+    private int childSpace( Type type, int keyCount )
+    {
+        return type == LEAF ? 0 : (keyCount + 1) * childSize();
+    }
+
+    private int childrenEnd( Type type, int keyCount )
+    {
+        return type == LEAF ? headerLength : childOffset( keyCount + 1 );
+    }
+
+    private boolean canInline( int entrySize )
+    {
+        return entrySize <= inlineKeyValueSizeCap;
+    }
+
+    private static int childSize()
+    {
+        return SIZE_PAGE_REFERENCE;
+    }
+
+    private static void putVarInt( PageCursor cursor, int value )
+    {
+        while ( (value & ~0x7F) != 0 )
+        {
+            cursor.putByte( (byte) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        cursor.putByte( (byte) value );
+    }
+
+    /**
+     * @return the read value, or -1 if the bytes at cursor can't be a value written by {@link #putVarInt(PageCursor, int)} in this format.
+     */
+    private int getVarInt( PageCursor cursor )
+    {
+        int value = 0;
+        for ( int shift = 0; shift < MAX_VAR_INT_SIZE * 7 && cursor.getOffset() < pageSize; shift += 7 )
+        {
+            byte b = cursor.getByte();
+            value |= (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    private static int varIntSize( int value )
+    {
+        return value < 1 << 7 ? 1 : value < 1 << 14 ? 2 : 3;
+    }
+
+    private void setAllocOffset( PageCursor cursor, int allocOffset )
+    {
+        offsetFormat.putOffset( cursor, bytePosAllocOffset, allocOffset );
+    }
+
+    int getAllocOffset( PageCursor cursor )
+    {
+        return offsetFormat.getOffset( cursor, bytePosAllocOffset );
+    }
+
+    private void setRestartCount( PageCursor cursor, int restartCount )
+    {
+        offsetFormat.putOffset( cursor, bytePosRestartCount, restartCount );
+    }
+
+    int getRestartCount( PageCursor cursor )
+    {
+        return offsetFormat.getOffset( cursor, bytePosRestartCount );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizeCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + ", inlineKeyValueSizeCap:" +
+                inlineKeyValueSizeCap + "]";
+    }
+
+    private String asString( PageCursor cursor, boolean includeValue, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer )
+    {
+        int currentOffset = cursor.getOffset();
+        // [header] <- dont care
+        // LEAF:     [allocOffset= restartCount=] key0 key1 ...
+        // INTERNAL: [allocOffset= restartCount=] /child0\ key0 /child1\ key1 ...
+
+        Type type = isInternal( cursor ) ? INTERNAL : LEAF;
+        int keyCount = keyCount( cursor );
+        String additionalHeader =
+                "{" + cursor.getCurrentPageId() + "} [allocOffset=" + getAllocOffset( cursor ) + " restartCount=" + getRestartCount( cursor ) + "] ";
+
+        KEY readKey = layout.newKey();
+        VALUE readValue = layout.newValue();
+        StringJoiner keys = new StringJoiner( " " );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            if ( type == INTERNAL )
+            {
+                keys.add( "/" + pointer( childAt( cursor, pos, stableGeneration, unstableGeneration ) ) + "\\" );
+            }
+            keyAt( cursor, readKey, pos, type, cursorTracer );
+            if ( type == LEAF && includeValue )
+            {
+                valueAt( cursor, readValue, pos, cursorTracer );
+                keys.add( readKey + "=" + readValue );
+            }
+            else
+            {
+                keys.add( readKey.toString() );
+            }
+        }
+        if ( type == INTERNAL )
+        {
+            keys.add( "/" + pointer( childAt( cursor, keyCount, stableGeneration, unstableGeneration ) ) + "\\" );
+        }
+
+        cursor.setOffset( currentOffset );
+        return additionalHeader + keys;
+    }
+
+    @SuppressWarnings( "unused" )
+    @Override
+    void printNode( PageCursor cursor, boolean includeValue, boolean includeAllocSpace, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer )
+    {
+        // There's no dead space and alloc space is empty, so includeAllocSpace has no meaning here
+        System.out.println( asString( cursor, includeValue, stableGeneration, unstableGeneration, cursorTracer ) );
+    }
+
+    @Override
+    String checkMetaConsistency( PageCursor cursor, int keyCount, Type type, GBPTreeConsistencyCheckVisitor<KEY> visitor )
+    {
+        long nodeId = cursor.getCurrentPageId();
+        StringJoiner joiner = new StringJoiner( ", ", "Meta data for tree node is inconsistent, id=" + nodeId + ": ", "" );
+        boolean hasInconsistency = false;
+
+        // Verify children and restart points don't overlap and that entries are within the page
+        int allocOffset = getAllocOffset( cursor );
+        int restartCount = getRestartCount( cursor );
+        int restartsOffset = allocOffset - restartCount * restartSlotSize;
+        int childrenEnd = childrenEnd( type, keyCount );
+        if ( restartsOffset < childrenEnd || allocOffset > pageSize )
+        {
+            hasInconsistency = true;
+            joiner.add( format( "Overlap between children and restart points, childrenEnd=%d, restartsOffset=%d, allocOffset=%d",
+                    childrenEnd, restartsOffset, allocOffset ) );
+        }
+        // If keyCount is unreasonable we will likely go out of bounds in those checks
+        else if ( reasonableKeyCount( keyCount ) )
+        {
+            // Verify that restart points point to entries and that entries end at end of page
+            int offset = allocOffset;
+            int restart = 0;
+            for ( int pos = 0; pos < keyCount && offset >= 0 && offset < pageSize; pos++ )
+            {
+                int restartSlotOffset = restartsOffset + restart * restartSlotSize;
+                if ( restart < restartCount && offsetFormat.getOffset( cursor, restartSlotOffset ) == pos )
+                {
+                    int restartOffset = offsetFormat.getOffset( cursor, restartSlotOffset + offsetFormat.offsetSize() );
+                    if ( restartOffset != offset )
+                    {
+                        hasInconsistency = true;
+                        joiner.add( format( "Restart point for pos=%d points to offset=%d, but entry is at offset=%d", pos, restartOffset, offset ) );
+                    }
+                    restart++;
+                }
+                offset = nextEntryOffset( cursor, offset, type );
+            }
+            if ( keyCount > 0 && restart != restartCount )
+            {
+                hasInconsistency = true;
+                joiner.add( format( "Only %d out of %d restart points pointed to entries in order", restart, restartCount ) );
+            }
+            if ( offset != pageSize )
+            {
+                hasInconsistency = true;
+                joiner.add( format( "Entries did not end at end of page, endOfEntries=%d, pageSize=%d", offset, pageSize ) );
+            }
+        }
+
+        // Report inconsistencies as cursor exception
+        if ( hasInconsistency )
+        {
+            return joiner.toString();
+        }
+        return "";
+    }
+
+    /**
+     * @return offset of the entry after the one at {@code offset}, or -1 if there is no valid entry at {@code offset}.
+     */
+    private int nextEntryOffset( PageCursor cursor, int offset, Type type )
+    {
+        cursor.setOffset( offset );
+        int header = getVarInt( cursor );
+        if ( header < 0 )
+        {
+            return -1;
+        }
+        if ( (header & OFFLOAD_FLAG) != 0 )
+        {
+            return cursor.getOffset() + Long.BYTES;
+        }
+        int unshared = getVarInt( cursor );
+        int valueSize = type == LEAF ? getVarInt( cursor ) : 0;
+        if ( unshared < 0 || valueSize < 0 )
+        {
+            return -1;
+        }
+        return cursor.getOffset() + unshared + valueSize;
+    }
+
+    /**
+     * Scratch space for reading an entry and putting its key together.
+     */
+    private static class EntryReader
+    {
+        private final byte[] keyBytes;
+        private final byte[] keyHeader;
+        private final PageCursor keyCursor;
+        private boolean offload;
+        private long offloadId;
+        private int shared;
+        private int unshared;
+        private int keyOffset;
+        private int valueSize;
+
+        EntryReader( int keyCapacity, int keyHeaderSize )
+        {
+            keyBytes = new byte[keyCapacity];
+            keyHeader = new byte[keyHeaderSize];
+            keyCursor = ByteArrayPageCursor.wrap( keyBytes );
+        }
+
+        int valueOffset()
+        {
+            return keyOffset + unshared;
+        }
+    }
+
+    /**
+     * Entries of one or more nodes with their keys in full, for writers to change and write back.
+     * Key and value bytes of an entry are stored next to each other in {@link #data}.
+     */
+    private static class Entries
+    {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int count;
+        private int[] keyOffsets = new int[INITIAL_CAPACITY];
+        private int[] keySizes = new int[INITIAL_CAPACITY];
+        private int[] valueSizes = new int[INITIAL_CAPACITY];
+        private long[] offloadIds = new long[INITIAL_CAPACITY];
+        private boolean[] restart = new boolean[INITIAL_CAPACITY];
+        // Not part of the entries as such, but written by encodedSize and read by writeEntry
+        private int[] shared = new int[INITIAL_CAPACITY];
+        private byte[] data;
+        private int dataLength;
+        private PageCursor dataCursor;
+        private final byte[] keyHeader;
+
+        Entries( int initialDataCapacity, int keyHeaderSize )
+        {
+            data = new byte[initialDataCapacity];
+            keyHeader = new byte[keyHeaderSize];
+            dataCursor = ByteArrayPageCursor.wrap( data );
+        }
+
+        void clear()
+        {
+            count = 0;
+            dataLength = 0;
+        }
+
+        /**
+         * @return offset into {@link #data} where {@code size} bytes can be written.
+         */
+        int allocate( int size )
+        {
+            if ( dataLength + size > data.length )
+            {
+                data = Arrays.copyOf( data, Math.max( data.length * 2, dataLength + size ) );
+                dataCursor = ByteArrayPageCursor.wrap( data );
+            }
+            int offset = dataLength;
+            dataLength += size;
+            return offset;
+        }
+
+        PageCursor cursorAt( int offset )
+        {
+            dataCursor.setOffset( offset );
+            return dataCursor;
+        }
+
+        void add( int keyOffset, int keySize, int valueSize, long offloadId )
+        {
+            ensureCapacity( count + 1 );
+            replace( count, keyOffset, keySize, valueSize, offloadId );
+            restart[count] = false;
+            count++;
+        }
+
+        /**
+         * Inserts an entry at {@code pos}, in the restart block of the entry before it. Only an entry inserted first
+         * becomes a new restart point, taking over from the entry that was first before.
+         */
+        void insert( int pos, int keyOffset, int keySize, int valueSize, long offloadId )
+        {
+            ensureCapacity( count + 1 );
+            int length = count - pos;
+            System.arraycopy( keyOffsets, pos, keyOffsets, pos + 1, length );
+            System.arraycopy( keySizes, pos, keySizes, pos + 1, length );
+            System.arraycopy( valueSizes, pos, valueSizes, pos + 1, length );
+            System.arraycopy( offloadIds, pos, offloadIds, pos + 1, length );
+            System.arraycopy( restart, pos, restart, pos + 1, length );
+            replace( pos, keyOffset, keySize, valueSize, offloadId );
+            restart[pos] = pos == 0;
+            if ( pos == 0 && count > 0 )
+            {
+                restart[1] = false;
+            }
+            count++;
+        }
+
+        /**
+         * Removes entry at {@code pos}. If it was a restart point the entry after it, if in the same block, takes over.
+         */
+        void remove( int pos )
+        {
+            if ( restart[pos] && pos + 1 < count )
+            {
+                restart[pos + 1] = true;
+            }
+            int length = count - pos - 1;
+            System.arraycopy( keyOffsets, pos + 1, keyOffsets, pos, length );
+            System.arraycopy( keySizes, pos + 1, keySizes, pos, length );
+            System.arraycopy( valueSizes, pos + 1, valueSizes, pos, length );
+            System.arraycopy( offloadIds, pos + 1, offloadIds, pos, length );
+            System.arraycopy( restart, pos + 1, restart, pos, length );
+            count--;
+        }
+
+        void replace( int pos, int keyOffset, int keySize, int valueSize, long offloadId )
+        {
+            keyOffsets[pos] = keyOffset;
+            keySizes[pos] = keySize;
+            valueSizes[pos] = valueSize;
+            offloadIds[pos] = offloadId;
+        }
+
+        /**
+         * Makes the middle entry of the restart block that {@code pos} is in a restart point if the block has grown too big.
+         */
+        void limitRestartBlock( int pos )
+        {
+            int blockStart = pos;
+            while ( blockStart > 0 && !restart[blockStart] )
+            {
+                blockStart--;
+            }
+            int blockEnd = pos + 1;
+            while ( blockEnd < count && !restart[blockEnd] )
+            {
+                blockEnd++;
+            }
+            int blockSize = blockEnd - blockStart;
+            if ( blockSize > MAX_RESTART_BLOCK_SIZE )
+            {
+                restart[blockStart + blockSize / 2] = true;
+            }
+        }
+
+        boolean isOffloaded( int pos )
+        {
+            return offloadIds[pos] != NO_OFFLOAD_ID;
+        }
+
+        int commonPrefix( int left, int right )
+        {
+            int length = Math.min( keySizes[left], keySizes[right] );
+            int leftOffset = keyOffsets[left];
+            int rightOffset = keyOffsets[right];
+            int mismatch = Arrays.mismatch( data, leftOffset, leftOffset + length, data, rightOffset, rightOffset + length );
+            return mismatch == -1 ? length : mismatch;
+        }
+
+        private void ensureCapacity( int capacity )
+        {
+            if ( capacity > keyOffsets.length )
+            {
+                int newLength = Math.max( keyOffsets.length * 2, capacity );
+                keyOffsets = Arrays.copyOf( keyOffsets, newLength );
+                keySizes = Arrays.copyOf( keySizes, newLength );
+                valueSizes = Arrays.copyOf( valueSizes, newLength );
+                offloadIds = Arrays.copyOf( offloadIds, newLength );
+                restart = Arrays.copyOf( restart, newLength );
+                shared = Arrays.copyOf( shared, newLength );
+            }
+        }
+    }
+}
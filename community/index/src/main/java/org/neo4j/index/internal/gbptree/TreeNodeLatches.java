@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latches for tree nodes, used by writers which concurrently change different leaves of the same tree.
+ * A fixed number of latches are striped over the tree node ids, so two tree nodes may share the same latch.
+ * This is fine as long as a writer holds at most one latch at any given time, which also keeps writers
+ * from ever deadlocking on these latches.
+ */
+class TreeNodeLatches
+{
+    private static final int STRIPES = 1 << 10;
+    private static final int MASK = STRIPES - 1;
+
+    private final ReentrantLock[] latches = new ReentrantLock[STRIPES];
+
+    TreeNodeLatches()
+    {
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            latches[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquires the latch for the given tree node, blocking until it is available.
+     *
+     * @param treeNodeId id of the tree node to latch.
+     * @return the acquired latch, which must be unlocked by the caller.
+     */
+    ReentrantLock latch( long treeNodeId )
+    {
+        ReentrantLock latch = latches[(int) (treeNodeId & MASK)];
+        latch.lock();
+        return latch;
+    }
+}
@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizeCompressed} instances.
+     */
+    private static final Factory DYNAMIC_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+        {
+            return new TreeNodeDynamicSizeCompressed<>( pageSize, layout, offloadStore );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,38 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() ? DYNAMIC_COMPRESSED : DYNAMIC;
+    }
+
+    /**
+     * Checks whether or not a tree created with the given format can be opened with the given {@link Layout}.
+     * Apart from the format the layout would select for a new tree, the two dynamic size formats are interchangeable
+     * since existing trees are always opened with the format they were created with. This way a layout can start or stop
+     * compressing key prefixes without making existing trees impossible to open.
+     *
+     * @param layout {@link Layout} used to open the tree.
+     * @param formatIdentifier format identifier, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version, see {@link Meta#getFormatVersion()}.
+     * @return whether or not the format is compatible with the layout.
+     */
+    static boolean isCompatible( Layout<?,?> layout, byte formatIdentifier, byte formatVersion )
+    {
+        Factory formatByLayout = selectByLayout( layout );
+        if ( formatByLayout.formatIdentifier() == formatIdentifier && formatByLayout.formatVersion() == formatVersion )
+        {
+            return true;
+        }
+        return !layout.fixedSize() &&
+               (isFormat( DYNAMIC, formatIdentifier, formatVersion ) || isFormat( DYNAMIC_COMPRESSED, formatIdentifier, formatVersion ));
+    }
+
+    private static boolean isFormat( Factory factory, byte formatIdentifier, byte formatVersion )
+    {
+        return factory.formatIdentifier() == formatIdentifier && factory.formatVersion() == formatVersion;
     }
 
     /**
@@ -96,16 +150,20 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
-        if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
+        if ( isFormat( FIXED, formatIdentifier, formatVersion ) )
         {
             return FIXED;
         }
-        else if ( formatIdentifier == TreeNodeDynamicSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeDynamicSize.FORMAT_VERSION )
+        else if ( isFormat( DYNAMIC, formatIdentifier, formatVersion ) )
         {
             return DYNAMIC;
         }
+        else if ( isFormat( DYNAMIC_COMPRESSED, formatIdentifier, formatVersion ) )
+        {
+            return DYNAMIC_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
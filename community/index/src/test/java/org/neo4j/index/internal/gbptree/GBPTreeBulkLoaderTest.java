@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNodeDynamicSize.keyValueSizeCapFromPageSize;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeBulkLoaderTest
+{
+    private static final int PAGE_SIZE = 512;
+    private static final int KEY_COUNT = 10_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( PAGE_SIZE ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    enum Format
+    {
+        FIXED_SIZE
+        {
+            @Override
+            TestLayout<?,?> layout()
+            {
+                return SimpleLongLayout.longLayout().build();
+            }
+        },
+        DYNAMIC_SIZE
+        {
+            @Override
+            TestLayout<?,?> layout()
+            {
+                return new SimpleByteArrayLayout();
+            }
+        },
+        DYNAMIC_SIZE_LARGE_ENTRIES
+        {
+            @Override
+            TestLayout<?,?> layout()
+            {
+                return new SimpleByteArrayLayout( keyValueSizeCapFromPageSize( PAGE_SIZE ) / 2, 7 );
+            }
+        },
+        DYNAMIC_SIZE_COMPRESSED
+        {
+            @Override
+            TestLayout<?,?> layout()
+            {
+                return new SimpleByteArrayLayout()
+                {
+                    @Override
+                    public boolean compressKeyPrefixes()
+                    {
+                        return true;
+                    }
+                };
+            }
+        };
+
+        abstract TestLayout<?,?> layout();
+    }
+
+    @ParameterizedTest
+    @EnumSource( Format.class )
+    void shouldBulkLoadSortedEntriesIntoFullNodes( Format format ) throws IOException
+    {
+        shouldBulkLoadSortedEntries( format.layout(), 1 );
+    }
+
+    @ParameterizedTest
+    @EnumSource( Format.class )
+    void shouldBulkLoadSortedEntriesIntoPartiallyFilledNodes( Format format ) throws IOException
+    {
+        shouldBulkLoadSortedEntries( format.layout(), 0.3 );
+    }
+
+    @ParameterizedTest
+    @EnumSource( Format.class )
+    void shouldUseFewerPagesThanInsertingThroughWriter( Format format ) throws IOException
+    {
+        // given
+        TestLayout<?,?> layout = format.layout();
+        File bulkLoadedFile = directory.file( "bulk-loaded" );
+        File writtenFile = directory.file( "written" );
+
+        // when
+        bulkLoadAndCheckpoint( bulkLoadedFile, layout, 1 );
+        writeAndCheckpoint( writtenFile, layout );
+
+        // then
+        long bulkLoadedSize = directory.getFileSystem().getFileSize( bulkLoadedFile );
+        long writtenSize = directory.getFileSystem().getFileSize( writtenFile );
+        assertThat( bulkLoadedSize ).isLessThan( writtenSize );
+    }
+
+    @Test
+    void shouldHaveEmptyTreeIfNothingLoaded() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            tree.bulkLoader( 1, NULL ).close();
+
+            assertEquals( 0, countEntries( tree, layout ) );
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldFailOnKeysNotInSortOrderAndLeaveTreeEmpty() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1, NULL ) )
+            {
+                bulkLoader.add( layout.key( 10 ), layout.value( 10 ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( layout.key( 5 ), layout.value( 5 ) ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( layout.key( 10 ), layout.value( 10 ) ) );
+            }
+
+            assertEquals( 0, countEntries( tree, layout ) );
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldOnlyBulkLoadEmptyTree() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                writer.put( layout.key( 1 ), layout.value( 1 ) );
+            }
+
+            assertThrows( IllegalStateException.class, () -> tree.bulkLoader( 1, NULL ) );
+
+            // and the writer is still available
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                writer.put( layout.key( 2 ), layout.value( 2 ) );
+            }
+            assertEquals( 2, countEntries( tree, layout ) );
+        }
+    }
+
+    @Test
+    void shouldNotAllowWriterWhileBulkLoading() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> ignored = tree.bulkLoader( 1, NULL ) )
+            {
+                assertThrows( IllegalStateException.class, () -> tree.writer( NULL ) );
+                assertThrows( IllegalStateException.class, () -> tree.bulkLoader( 1, NULL ) );
+            }
+            tree.writer( NULL ).close();
+        }
+    }
+
+    private <KEY,VALUE> void shouldBulkLoadSortedEntries( TestLayout<KEY,VALUE> layout, double fillFactor ) throws IOException
+    {
+        // given
+        File file = directory.file( "index" );
+
+        // when
+        bulkLoadAndCheckpoint( file, layout, fillFactor );
+
+        // then
+        try ( GBPTree<KEY,VALUE> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertTrue( tree.consistencyCheck( NULL ) );
+            assertSeeds( tree, layout, sortedSeeds( layout ) );
+
+            // and the tree can be changed like any other tree afterwards
+            try ( Writer<KEY,VALUE> writer = tree.writer( NULL ) )
+            {
+                for ( long seed = 0; seed < KEY_COUNT; seed += 2 )
+                {
+                    writer.remove( layout.key( seed ) );
+                }
+                for ( long seed = KEY_COUNT; seed < KEY_COUNT * 2; seed++ )
+                {
+                    writer.put( layout.key( seed ), layout.value( seed ) );
+                }
+            }
+            assertTrue( tree.consistencyCheck( NULL ) );
+            assertEquals( KEY_COUNT / 2 + KEY_COUNT, countEntries( tree, layout ) );
+        }
+    }
+
+    private <KEY,VALUE> void bulkLoadAndCheckpoint( File file, TestLayout<KEY,VALUE> layout, double fillFactor ) throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( fillFactor, NULL ) )
+            {
+                for ( long seed : sortedSeeds( layout ) )
+                {
+                    bulkLoader.add( layout.key( seed ), layout.value( seed ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+    }
+
+    private <KEY,VALUE> void writeAndCheckpoint( File file, TestLayout<KEY,VALUE> layout ) throws IOException
+    {
+        List<Long> seeds = sortedSeeds( layout );
+        Collections.shuffle( seeds, new Random( 1 ) );
+        try ( GBPTree<KEY,VALUE> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( Writer<KEY,VALUE> writer = tree.writer( NULL ) )
+            {
+                for ( long seed : seeds )
+                {
+                    writer.put( layout.key( seed ), layout.value( seed ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+    }
+
+    private static <KEY,VALUE> List<Long> sortedSeeds( TestLayout<KEY,VALUE> layout )
+    {
+        List<Long> seeds = new ArrayList<>();
+        for ( long seed = 0; seed < KEY_COUNT; seed++ )
+        {
+            seeds.add( seed );
+        }
+        seeds.sort( ( a, b ) -> layout.compare( layout.key( a ), layout.key( b ) ) );
+        return seeds;
+    }
+
+    private static <KEY,VALUE> void assertSeeds( GBPTree<KEY,VALUE> tree, TestLayout<KEY,VALUE> layout, List<Long> expectedSeeds ) throws IOException
+    {
+        try ( Seeker<KEY,VALUE> seeker = seekAll( tree, layout ) )
+        {
+            for ( long expectedSeed : expectedSeeds )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( expectedSeed, layout.keySeed( seeker.key() ) );
+                assertEquals( expectedSeed, layout.valueSeed( seeker.value() ) );
+            }
+            assertFalse( seeker.next() );
+        }
+    }
+
+    private static <KEY,VALUE> long countEntries( GBPTree<KEY,VALUE> tree, TestLayout<KEY,VALUE> layout ) throws IOException
+    {
+        long count = 0;
+        try ( Seeker<KEY,VALUE> seeker = seekAll( tree, layout ) )
+        {
+            while ( seeker.next() )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <KEY,VALUE> Seeker<KEY,VALUE> seekAll( GBPTree<KEY,VALUE> tree, TestLayout<KEY,VALUE> layout ) throws IOException
+    {
+        KEY low = layout.newKey();
+        KEY high = layout.newKey();
+        layout.initializeAsLowest( low );
+        layout.initializeAsHighest( high );
+        return tree.seek( low, high, NULL );
+    }
+}
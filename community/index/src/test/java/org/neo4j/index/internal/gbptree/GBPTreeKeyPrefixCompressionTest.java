@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeKeyPrefixCompressionTest
+{
+    private static final int KEY_COUNT = 10_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+    private final SimpleByteArrayLayout compressingLayout = new SimpleByteArrayLayout()
+    {
+        @Override
+        public boolean compressKeyPrefixes()
+        {
+            return true;
+        }
+    };
+
+    @Test
+    void shouldNeedFewerPagesForKeysWithCommonPrefixes() throws IOException
+    {
+        // given
+        File uncompressedFile = directory.file( "uncompressed" );
+        File compressedFile = directory.file( "compressed" );
+
+        // when
+        insertAndCheckpoint( uncompressedFile, layout, 0, KEY_COUNT );
+        insertAndCheckpoint( compressedFile, compressingLayout, 0, KEY_COUNT );
+
+        // then
+        long uncompressedSize = directory.getFileSystem().getFileSize( uncompressedFile );
+        long compressedSize = directory.getFileSystem().getFileSize( compressedFile );
+        assertThat( compressedSize ).isLessThan( uncompressedSize );
+        assertKeys( compressedFile, compressingLayout, KEY_COUNT );
+    }
+
+    @Test
+    void shouldOpenExistingTreeWhenLayoutStartsCompressingKeyPrefixes() throws IOException
+    {
+        // given
+        File file = directory.file( "index" );
+        insertAndCheckpoint( file, layout, 0, KEY_COUNT / 2 );
+
+        // when
+        insertAndCheckpoint( file, compressingLayout, KEY_COUNT / 2, KEY_COUNT );
+
+        // then
+        assertKeys( file, compressingLayout, KEY_COUNT );
+        assertKeys( file, layout, KEY_COUNT );
+    }
+
+    private void insertAndCheckpoint( File file, SimpleByteArrayLayout layout, long from, long to ) throws IOException
+    {
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer( NULL ) )
+            {
+                for ( long seed = from; seed < to; seed++ )
+                {
+                    writer.put( layout.key( seed ), layout.value( seed ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+    }
+
+    private void assertKeys( File file, SimpleByteArrayLayout layout, long count ) throws IOException
+    {
+        RawBytes low = layout.newKey();
+        RawBytes high = layout.newKey();
+        layout.initializeAsLowest( low );
+        layout.initializeAsHighest( high );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build();
+              Seeker<RawBytes,RawBytes> seeker = tree.seek( low, high, NULL ) )
+        {
+            for ( long seed = 0; seed < count; seed++ )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( 0, layout.compare( layout.key( seed ), seeker.key() ) );
+                assertEquals( 0, layout.compareValue( layout.value( seed ), seeker.value() ) );
+            }
+            assertFalse( seeker.next() );
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+}
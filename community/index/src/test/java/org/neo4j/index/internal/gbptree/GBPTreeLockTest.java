@@ -163,6 +163,51 @@ class GBPTreeLockTest
         assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock );
     }
 
+    @Test
+    void sharedWriterLockShouldBlockWriterAndCleanerLock() throws Exception
+    {
+        // given
+        lock.sharedWriterLock();
+        lock.sharedWriterLock();
+
+        // then
+        copy = lock.copy();
+        assertBlock( copy::writerLock, () ->
+        {
+            copy.sharedWriterUnlock();
+            copy.sharedWriterUnlock();
+        } );
+        copy = lock.copy();
+        assertBlock( copy::cleanerLock, () ->
+        {
+            copy.sharedWriterUnlock();
+            copy.sharedWriterUnlock();
+        } );
+
+        lock.sharedWriterUnlock();
+        lock.sharedWriterUnlock();
+        assertThrows( IllegalStateException.class, lock::sharedWriterUnlock );
+        assertUU();
+    }
+
+    @Test
+    void test_race_SharedvsShared() throws Throwable
+    {
+        assertBothSucceeds( lock::sharedWriterLock, lock::sharedWriterLock );
+    }
+
+    @Test
+    void test_race_SharedvsLU() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::sharedWriterLock, lock::writerLock );
+    }
+
+    @Test
+    void test_race_SharedvsLL() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::sharedWriterLock, lock::writerAndCleanerLock );
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.test.Race.throwing;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeSharedWritersTest
+{
+    private static final int THREADS = 4;
+    private static final int KEYS_PER_THREAD = 3_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    @ParameterizedTest
+    @ValueSource( booleans = {true, false} )
+    void shouldInsertConcurrentlyFromMultipleSharedWriters( boolean fixedSize ) throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when keys of the different writers are interleaved so that they end up in the same leaves
+            Race race = new Race();
+            race.addContestants( THREADS, thread -> throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( true, NULL ) )
+                {
+                    for ( int i = 0; i < KEYS_PER_THREAD; i++ )
+                    {
+                        long id = (long) i * THREADS + thread;
+                        writer.put( layout.key( id ), layout.value( id ) );
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            assertKeys( tree, layout, 0, (long) THREADS * KEYS_PER_THREAD, 1 );
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource( booleans = {true, false} )
+    void shouldRemoveConcurrentlyFromMultipleSharedWriters( boolean fixedSize ) throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        long count = (long) THREADS * KEYS_PER_THREAD * 2;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long id = 0; id < count; id++ )
+                {
+                    writer.put( layout.key( id ), layout.value( id ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+
+            // when removing every odd key, causing both in-leaf removals and merges of leaves
+            Race race = new Race();
+            race.addContestants( THREADS, thread -> throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( true, NULL ) )
+                {
+                    for ( long id = thread * 2 + 1; id < count; id += THREADS * 2 )
+                    {
+                        MutableLong removed = writer.remove( layout.key( id ) );
+                        assertEquals( layout.value( id ), removed );
+                        assertNull( writer.remove( layout.key( id ) ) );
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            assertKeys( tree, layout, 0, count, 2 );
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldMergeConcurrentlyIntoSameKeys() throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        int keys = 100;
+        ValueMerger<MutableLong,MutableLong> adder = ( existingKey, newKey, existingValue, newValue ) ->
+        {
+            existingValue.add( newValue.longValue() );
+            return ValueMerger.MergeResult.MERGED;
+        };
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            Race race = new Race();
+            race.addContestants( THREADS, throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( true, NULL ) )
+                {
+                    for ( int round = 0; round < 100; round++ )
+                    {
+                        for ( long id = 0; id < keys; id++ )
+                        {
+                            writer.merge( layout.key( id ), new MutableLong( 1 ), adder );
+                        }
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            try ( Seeker<MutableLong,MutableLong> seek = tree.seek( layout.key( 0 ), layout.key( keys ), NULL ) )
+            {
+                int found = 0;
+                while ( seek.next() )
+                {
+                    assertEquals( THREADS * 100, seek.value().longValue() );
+                    found++;
+                }
+                assertEquals( keys, found );
+            }
+            assertTrue( tree.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void sharedWritersShouldExcludeExclusiveWriter() throws Exception
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            Writer<MutableLong,MutableLong> first = tree.writer( true, NULL );
+            Writer<MutableLong,MutableLong> second = tree.writer( true, NULL );
+            first.put( layout.key( 1 ), layout.value( 1 ) );
+            second.put( layout.key( 2 ), layout.value( 2 ) );
+
+            // when
+            CountDownLatch exclusiveAcquired = new CountDownLatch( 1 );
+            Future<Object> exclusive = executor.submit( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+                {
+                    exclusiveAcquired.countDown();
+                    writer.put( layout.key( 3 ), layout.value( 3 ) );
+                }
+                return null;
+            } );
+
+            // then
+            assertFalse( exclusiveAcquired.await( 100, TimeUnit.MILLISECONDS ) );
+            first.close();
+            assertThrows( TimeoutException.class, () -> exclusive.get( 100, TimeUnit.MILLISECONDS ) );
+            second.close();
+            exclusive.get();
+            assertThrows( IllegalStateException.class, second::close );
+            assertKeys( tree, layout, 1, 4, 1 );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertKeys( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, long from, long to, long stride ) throws IOException
+    {
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( layout.key( from ), layout.key( to ), NULL ) )
+        {
+            long expected = from;
+            while ( seek.next() )
+            {
+                assertThat( seek.key().longValue() ).isEqualTo( expected );
+                assertThat( seek.value().longValue() ).isEqualTo( expected );
+                expected += stride;
+            }
+            assertThat( expected ).isEqualTo( to );
+        }
+    }
+}
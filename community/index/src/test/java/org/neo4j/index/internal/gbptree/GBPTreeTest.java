@@ -1144,6 +1144,29 @@ class GBPTreeTest
         }
     }
 
+    @Test
+    void checkpointShouldReportTimeWritersWereBlocked() throws Exception
+    {
+        // GIVEN
+        CheckpointControlledMonitor monitor = new CheckpointControlledMonitor();
+        try ( GBPTree<MutableLong,MutableLong> index = index().with( monitor ).build() )
+        {
+            insert( index, 0, 1 );
+
+            // WHEN
+            monitor.enabled = true;
+            Future<?> checkpoint = executor.submit( throwing( () -> index.checkpoint( UNLIMITED, NULL ) ) );
+            monitor.barrier.awaitUninterruptibly();
+            // writers are blocked while the checkpoint is held here
+            Thread.sleep( 100 );
+            monitor.barrier.release();
+            checkpoint.get();
+
+            // THEN
+            assertThat( monitor.blockedWritersMillis ).isGreaterThanOrEqualTo( 100 );
+        }
+    }
+
     @Test
     void mustNotSeeUpdatesThatWasNotCheckpointed() throws Exception
     {
@@ -1988,6 +2011,7 @@ class GBPTreeTest
     {
         private final Barrier.Control barrier = new Barrier.Control();
         private volatile boolean enabled;
+        private volatile long blockedWritersMillis = -1;
 
         @Override
         public void checkpointCompleted()
@@ -1997,6 +2021,12 @@ class GBPTreeTest
                 barrier.reached();
             }
         }
+
+        @Override
+        public void checkpointBlockedWriters( long durationMillis )
+        {
+            blockedWritersMillis = durationMillis;
+        }
     }
 
     private static class CheckpointCounter extends Monitor.Adaptor
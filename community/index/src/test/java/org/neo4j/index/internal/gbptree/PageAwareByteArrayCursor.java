@@ -356,6 +356,16 @@ class PageAwareByteArrayCursor extends PageCursor
         if ( shouldRetry )
         {
             shouldRetry = false;
+            // Like a real page cursor, a retry clears any error from the read that is retried
+            current.checkAndClearBoundsFlag();
+            try
+            {
+                current.checkAndClearCursorException();
+            }
+            catch ( CursorException e )
+            {
+                // The read that failed is retried
+            }
 
             // To reset shouldRetry for linked cursor as well
             if ( linkedCursor != null )
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+import static org.neo4j.index.internal.gbptree.TreeNodeDynamicSizeCompressed.RESTART_INTERVAL;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+public class TreeNodeDynamicSizeCompressedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private static final long STABLE_GENERATION = 3;
+    private static final long UNSTABLE_GENERATION = 4;
+
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout, offloadStore );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSizeCompressed) node).getAllocOffset( cursor );
+        int restartCount = ((TreeNodeDynamicSizeCompressed) node).getRestartCount( cursor );
+
+        // Then
+        assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+        assertEquals( 0, restartCount, "no restart points in empty node" );
+    }
+
+    @Test
+    void shouldFitMoreKeysWithCommonPrefixThanUncompressedFormat() throws IOException
+    {
+        // given
+        TreeNode<RawBytes,RawBytes> compressed = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        TreeNode<RawBytes,RawBytes> uncompressed = new TreeNodeDynamicSize<>( PAGE_SIZE, layout, createOffloadStore() );
+
+        // when
+        int compressedKeyCount = fillLeafWithSequentialKeys( compressed );
+        int uncompressedKeyCount = fillLeafWithSequentialKeys( uncompressed );
+
+        // then
+        assertThat( compressedKeyCount ).isGreaterThan( uncompressedKeyCount );
+    }
+
+    @Test
+    void shouldFitMoreKeysWithCommonPrefixAfterKeyHeader() throws IOException
+    {
+        // given keys which start with a random header, like the entity id of native index keys, followed by sequential values
+        SimpleByteArrayLayout headerLayout = new SimpleByteArrayLayout()
+        {
+            @Override
+            public int compressedKeyHeaderSize()
+            {
+                return Long.BYTES;
+            }
+        };
+        long[] headers = random.random().longs( PAGE_SIZE ).toArray();
+        TreeNode<RawBytes,RawBytes> withHeader = getNode( PAGE_SIZE, headerLayout, createOffloadStore() );
+        TreeNode<RawBytes,RawBytes> withoutHeader = getNode( PAGE_SIZE, layout, createOffloadStore() );
+
+        // when
+        int withHeaderKeyCount = fillLeafWithKeysAfterHeader( withHeader, headerLayout, headers );
+        int withoutHeaderKeyCount = fillLeafWithKeysAfterHeader( withoutHeader, layout, headers );
+
+        // then
+        assertThat( withHeaderKeyCount ).isGreaterThan( withoutHeaderKeyCount );
+    }
+
+    @Test
+    void shouldKeepKeysReadableAndConsistentWhenRestartBlockGrows() throws IOException
+    {
+        // given
+        int pageSize = 8192;
+        PageAwareByteArrayCursor cursor = new PageAwareByteArrayCursor( pageSize );
+        cursor.next();
+        TreeNode<RawBytes,RawBytes> node = getNode( pageSize, layout, createOffloadStore() );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        List<Long> expectedSeeds = new ArrayList<>();
+
+        // when inserting again and again into the first restart block
+        for ( long seed = 0; seed < RESTART_INTERVAL * 4; seed++ )
+        {
+            int pos = expectedSeeds.isEmpty() ? 0 : 1;
+            RawBytes key = layout.key( seed );
+            RawBytes value = layout.value( seed );
+            assertEquals( Overflow.NO, node.leafOverflow( cursor, expectedSeeds.size(), key, value ) );
+            node.insertKeyValueAt( cursor, key, value, pos, expectedSeeds.size(), STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+            expectedSeeds.add( pos, seed );
+            TreeNode.setKeyCount( cursor, expectedSeeds.size() );
+        }
+
+        // and removing every other key, including restart points
+        for ( int pos = expectedSeeds.size() - 1; pos >= 0; pos -= 2 )
+        {
+            node.removeKeyValueAt( cursor, pos, expectedSeeds.size(), STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+            expectedSeeds.remove( pos );
+            TreeNode.setKeyCount( cursor, expectedSeeds.size() );
+        }
+
+        // then
+        assertEquals( "", node.checkMetaConsistency( cursor, expectedSeeds.size(), LEAF, new GBPTreeConsistencyCheckVisitor.Adaptor<>() ) );
+        RawBytes readKey = layout.newKey();
+        RawBytes readValue = layout.newValue();
+        for ( int pos = 0; pos < expectedSeeds.size(); pos++ )
+        {
+            long seed = expectedSeeds.get( pos );
+            node.keyValueAt( cursor, readKey, readValue, pos, NULL );
+            assertEquals( 0, layout.compare( layout.key( seed ), readKey ) );
+            assertEquals( 0, layout.compareValue( layout.value( seed ), readValue ) );
+        }
+    }
+
+    private int fillLeafWithKeysAfterHeader( TreeNode<RawBytes,RawBytes> node, SimpleByteArrayLayout layout, long[] headers ) throws IOException
+    {
+        cursor.zapPage();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        RawBytes value = layout.value( 0 );
+        int keyCount = 0;
+        while ( node.leafOverflow( cursor, keyCount, keyAfterHeader( layout, headers, keyCount ), value ) == Overflow.NO )
+        {
+            node.insertKeyValueAt( cursor, keyAfterHeader( layout, headers, keyCount ), value, keyCount, keyCount,
+                    STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+        }
+
+        RawBytes readKey = layout.newKey();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            node.keyAt( cursor, readKey, pos, LEAF, NULL );
+            assertArrayEquals( keyAfterHeader( layout, headers, pos ).bytes, readKey.bytes );
+        }
+        return keyCount;
+    }
+
+    private static RawBytes keyAfterHeader( SimpleByteArrayLayout layout, long[] headers, int seed )
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = ByteBuffer.allocate( Long.BYTES * 3 ).putLong( headers[seed] ).putLong( 0 ).putLong( seed ).array();
+        return key;
+    }
+
+    private int fillLeafWithSequentialKeys( TreeNode<RawBytes,RawBytes> node ) throws IOException
+    {
+        cursor.zapPage();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 0;
+        while ( node.leafOverflow( cursor, keyCount, layout.key( keyCount ), layout.value( keyCount ) ) == Overflow.NO )
+        {
+            node.insertKeyValueAt( cursor, layout.key( keyCount ), layout.value( keyCount ), keyCount, keyCount,
+                    STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+        }
+
+        RawBytes readKey = layout.newKey();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            assertEquals( 0, layout.compare( layout.key( pos ), node.keyAt( cursor, readKey, pos, LEAF, NULL ) ) );
+        }
+        return keyCount;
+    }
+}
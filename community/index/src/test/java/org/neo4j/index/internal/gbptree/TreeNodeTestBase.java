@@ -62,7 +62,7 @@ public abstract class TreeNodeTestBase<KEY,VALUE>
     private final GenerationKeeper generationTarget = new GenerationKeeper();
 
     @Inject
-    private RandomRule random;
+    RandomRule random;
 
     @BeforeEach
     void prepareCursor()
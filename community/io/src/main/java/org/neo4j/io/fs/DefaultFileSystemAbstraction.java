@@ -172,6 +172,12 @@ public class DefaultFileSystemAbstraction implements FileSystemAbstraction
         Files.move( from.toPath(), to.toPath(), copyOptions );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        FileUtils.tryForceDirectory( directory );
+    }
+
     @Override
     public File[] listFiles( File directory )
     {
@@ -97,6 +97,14 @@ public interface FileSystemAbstraction extends Closeable
 
     void renameFile( File from, File to, CopyOption... copyOptions ) throws IOException;
 
+    /**
+     * Force the entries of the given directory to the underlying storage device, so that files created, deleted or renamed in it survive a crash.
+     *
+     * @param directory the directory to force.
+     * @throws IOException if the directory does not exist, or could not be forced.
+     */
+    void forceDirectory( File directory ) throws IOException;
+
     File[] listFiles( File directory );
 
     File[] listFiles( File directory, FilenameFilter filter );
@@ -139,7 +139,7 @@ public interface PageCache extends AutoCloseable
      * The {@link StandardOpenOption#DELETE_ON_CLOSE} will cause the file to be deleted after the last unmapping.
      * All other options are either silently ignored, or will cause an exception to be thrown.
      * @param databaseName an optional name of the database the mapped file belongs to. This option associates the mapped file with a database.
-     * This information is currently used only for monitoring purposes.
+     * This information is used for monitoring purposes, and to find the {@link PageCachePartitioning partition} the file belongs to.
      * @throws java.nio.file.NoSuchFileException if the given file does not exist, and the
      * {@link StandardOpenOption#CREATE} option was not specified.
      * @throws IOException if the file could otherwise not be mapped. Causes include the file being locked.
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Describes how the capacity of a {@link PageCache} is divided into partitions.
+ * <p>
+ * A partition is either a whole database, named by the database name, or the files of a certain type in a database,
+ * named by the database name and the file type separated by a {@code /}, like {@code neo4j/index}. A mapped file
+ * belongs to the most specific partition that matches it, or to no partition at all. Files that belong to a typed
+ * partition do not count towards the partition of their database. Files that are mapped without a database name never
+ * belong to any partition.
+ * <p>
+ * A partition can have a number of bytes reserved, which the page cache will not evict in favour of other files, and a
+ * maximum number of bytes, beyond which the files in the partition will have to evict their own pages to make room for
+ * new ones. The maximum is enforced when pages are faulted in, so concurrent page faults can make a partition briefly
+ * exceed it.
+ */
+public final class PageCachePartitioning
+{
+    public static final PageCachePartitioning NONE = new PageCachePartitioning( emptyMap(), emptyMap(), path -> null );
+
+    private static final char FILE_TYPE_SEPARATOR = '/';
+
+    private final Map<String,Long> reservedBytes;
+    private final Map<String,Long> maxBytes;
+    private final Function<Path,String> fileTypes;
+    private final Set<String> partitions;
+
+    /**
+     * @param reservedBytes the number of bytes reserved for each partition, by partition name.
+     * @param maxBytes the maximum number of bytes each partition may occupy, by partition name.
+     * @param fileTypes the function that gives the file type of a mapped file, or {@code null} if the file has no type.
+     */
+    public PageCachePartitioning( Map<String,Long> reservedBytes, Map<String,Long> maxBytes, Function<Path,String> fileTypes )
+    {
+        this.reservedBytes = Map.copyOf( reservedBytes );
+        this.maxBytes = Map.copyOf( maxBytes );
+        this.fileTypes = fileTypes;
+        TreeSet<String> partitions = new TreeSet<>( reservedBytes.keySet() );
+        partitions.addAll( maxBytes.keySet() );
+        this.partitions = partitions;
+        for ( String partition : partitions )
+        {
+            if ( reservedBytes( partition ) > maxBytes( partition ) )
+            {
+                throw new IllegalArgumentException( "The page cache partition '" + partition + "' reserves more memory (" + reservedBytes( partition ) +
+                        " bytes) than it is allowed to use (" + maxBytes( partition ) + " bytes)." );
+            }
+        }
+    }
+
+    /**
+     * @return the name of the partition for the files of the given type in the given database.
+     */
+    public static String partitionName( String databaseName, String fileType )
+    {
+        return databaseName + FILE_TYPE_SEPARATOR + fileType;
+    }
+
+    /**
+     * @return the names of all the partitions, in sorted order.
+     */
+    public Set<String> partitions()
+    {
+        return partitions;
+    }
+
+    /**
+     * @return the number of bytes reserved for the given partition, or {@code 0} if nothing is reserved.
+     */
+    public long reservedBytes( String partition )
+    {
+        return reservedBytes.getOrDefault( partition, 0L );
+    }
+
+    /**
+     * @return the maximum number of bytes the given partition may occupy, or {@link Long#MAX_VALUE} if it is not capped.
+     */
+    public long maxBytes( String partition )
+    {
+        return maxBytes.getOrDefault( partition, Long.MAX_VALUE );
+    }
+
+    /**
+     * Find the partition a mapped file belongs to.
+     *
+     * @param path the mapped file.
+     * @param databaseName the name of the database the file was mapped for, or {@code null}.
+     * @return the name of the partition, or {@code null} if the file does not belong to any partition.
+     */
+    public String partitionOf( Path path, String databaseName )
+    {
+        if ( databaseName == null || partitions.isEmpty() )
+        {
+            return null;
+        }
+        String fileType = fileTypes.apply( path );
+        if ( fileType != null )
+        {
+            String typedPartition = partitionName( databaseName, fileType );
+            if ( partitions.contains( typedPartition ) )
+            {
+                return typedPartition;
+            }
+        }
+        return partitions.contains( databaseName ) ? databaseName : null;
+    }
+}
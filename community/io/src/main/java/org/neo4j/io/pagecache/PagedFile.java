@@ -76,8 +76,14 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * This is a hint that the pages will be used once, typically by a sequential scan, and will not be needed again
+     * any time soon. Pinning pages with this flag will not make them any more likely to stay in memory, and pages that
+     * are faulted in by a read cursor with this flag, and that nobody else has used since, will be evicted as soon as
+     * the cursor moves off of them. This way, a large scan will recycle its own pages, instead of pushing frequently
+     * used pages out of the cache.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -177,6 +183,22 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Make sure that the given range of pages are in memory, loading the ones that are not with as few reads as possible.
+     * <p>
+     * This is a best-effort operation meant for warming up the page cache. The pages are not pinned once the method
+     * returns, so they are free to be evicted again, and pages that are being loaded concurrently by other threads may
+     * be skipped.
+     *
+     * @param pageId the file page id of the first page to load.
+     * @param count the number of pages to load.
+     * @param tracer underlying page cursor tracer.
+     * @return the number of pages in the given range that are within the file. This is less than the given count if the
+     * range extends beyond the end of the file.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException;
+
     /**
      * Release a handle to a paged file.
      * <p>
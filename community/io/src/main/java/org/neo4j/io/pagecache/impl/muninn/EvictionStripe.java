@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+
+/**
+ * A contiguous range of pages in the {@link PageList}, with its own freelist, clock arm and background eviction thread.
+ * <p>
+ * The page cache is divided into one or more stripes. Page faulting threads grab free pages from the freelist of
+ * their home stripe first, and steal from other stripes when their own freelist is empty. Each stripe is swept by its
+ * own {@link EvictionTask}, so eviction throughput can scale with the number of stripes.
+ */
+final class EvictionStripe
+{
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( EvictionStripe.class, "freelist" );
+
+    final int index;
+    final int firstPageId;
+    final int pageCount;
+    final int keepFree;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from zero to the page count of this stripe, at which point
+    // all of the pages in the stripe have been put in use. Once this happens, the field is set to null to allow the
+    // background eviction thread of the stripe to start its work. From that point on, the field will operate as a
+    // concurrent stack of FreePage objects. The eviction thread pushes newly freed FreePage objects onto the stack, and
+    // page faulting threads pops FreePage objects from the stack. The FreePage objects are single-use, to avoid running
+    // into the ABA-problem.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // The thread that runs the eviction algorithm for this stripe. We unpark this when we've run out of
+    // free pages to grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    private volatile boolean evictorParked;
+
+    EvictionStripe( int index, int firstPageId, int pageCount, int keepFree )
+    {
+        this.index = index;
+        this.firstPageId = firstPageId;
+        this.pageCount = pageCount;
+        this.keepFree = keepFree;
+        setFreelistHead( new AtomicInteger() );
+    }
+
+    /**
+     * @return the page id one past the last page id in this stripe.
+     */
+    int endPageId()
+    {
+        return firstPageId + pageCount;
+    }
+
+    Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+
+    void unparkEvictor()
+    {
+        if ( evictorParked )
+        {
+            evictorParked = false;
+            LockSupport.unpark( evictionThread );
+        }
+    }
+
+    void parkEvictor( long parkNanos )
+    {
+        // Only called from the background eviction thread of this stripe!
+        evictorParked = true;
+        LockSupport.parkNanos( this, parkNanos );
+        evictorParked = false;
+    }
+
+    void interruptEvictor()
+    {
+        Thread thread = evictionThread;
+        if ( thread != null )
+        {
+            thread.interrupt();
+        }
+        evictionThread = null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EvictionStripe[index:" + index + ", pages:" + firstPageId + "-" + (endPageId() - 1) + "]";
+    }
+}
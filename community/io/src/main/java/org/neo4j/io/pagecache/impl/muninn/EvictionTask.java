@@ -20,22 +20,31 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 /**
- * This Runnable runs the eviction algorithm. Only one is expected for each page cache.
+ * This Runnable runs the eviction algorithm for one eviction stripe. Only one is expected for each stripe of a page cache.
  *
  * Interrupting the thread running this runnable, will be interpreted as a shutdown signal.
  *
- * @see MuninnPageCache#continuouslySweepPages()
+ * @see MuninnPageCache#continuouslySweepPages(EvictionStripe)
  */
 final class EvictionTask extends BackgroundTask
 {
-    EvictionTask( MuninnPageCache pageCache )
+    private final EvictionStripe stripe;
+
+    EvictionTask( MuninnPageCache pageCache, EvictionStripe stripe )
     {
         super( pageCache );
+        this.stripe = stripe;
+    }
+
+    @Override
+    protected String taskName()
+    {
+        return super.taskName() + "-" + stripe.index;
     }
 
     @Override
     protected void run( MuninnPageCache pageCache )
     {
-        pageCache.continuouslySweepPages();
+        pageCache.continuouslySweepPages( stripe );
     }
 }
@@ -37,7 +37,12 @@ final class FreePage
         this.pageRef = pageRef;
     }
 
-    void setNext( Object next )
+    /**
+     * @param next the current head of the freelist.
+     * @param pageCount the number of pages in the eviction stripe that owns the freelist. An {@link AtomicInteger} head counts the
+     * never-used pages that have been handed out so far, so the remaining ones are still available.
+     */
+    void setNext( Object next, int pageCount )
     {
         this.next = next;
         if ( next == null )
@@ -46,7 +51,7 @@ final class FreePage
         }
         else if ( next.getClass() == AtomicInteger.class )
         {
-            count = 1 + ((AtomicInteger) next).get();
+            count = 1 + Math.max( 0, pageCount - ((AtomicInteger) next).get() );
         }
         else
         {
@@ -28,19 +28,21 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCachePartitioning;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
@@ -137,15 +139,29 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // Evict pages that were faulted in by PF_TRANSIENT read cursors, as soon as the cursor moves off of them, provided
+    // nobody else has used them in the mean time. This keeps large scans from pushing frequently used pages out.
+    private static final boolean dropBehindUseOncePages = flag(
+            MuninnPageCache.class, "dropBehindUseOncePages", true );
+
+    // The number of eviction stripes the page list is divided into. Each stripe has its own clock arm, freelist and
+    // background eviction thread. The default of 1 gives a single evictor sweeping the entire page list. A value of 0
+    // or less will size the number of stripes to the number of available processors.
+    private static final String EVICTION_STRIPES = "evictionStripes";
+
+    // Eviction stripes are never made smaller than this many pages, since small stripes mostly add threads.
+    private static final String MINIMUM_PAGES_PER_EVICTION_STRIPE = "minimumPagesPerEvictionStripe";
+
+    // A page cache partition must be allowed at least this many pages, since the files of a full partition have to evict
+    // pages from the partition to make room for new ones, and pages that are pinned by cursors cannot be evicted.
+    private static final int minimumPartitionPages = getInteger(
+            MuninnPageCache.class, "minimumPartitionPages", 32 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
     // wait for more pages to be evicted, because the page cache has been shut
@@ -168,7 +184,6 @@ public class MuninnPageCache implements PageCache
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final VersionContextSupplier versionContextSupplier;
     private final IOBufferFactory bufferFactory;
@@ -178,27 +193,20 @@ public class MuninnPageCache implements PageCache
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The page list is divided into one or more eviction stripes, each with its own freelist, clock arm and
+    // background eviction thread. See EvictionStripe.
+    private final EvictionStripe[] stripes;
+    private final int pagesPerStripe;
+
+    // The partitions of the page cache, by partition name. See PageCachePartitioning.
+    private final PageCachePartitioning partitioning;
+    private final Map<String,PagePartition> partitions;
+    // True if any partition has reserved pages, which the eviction sweeps then have to look out for.
+    private final boolean hasReservations;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
@@ -253,7 +261,26 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory );
+        this( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                PageCachePartitioning.NONE );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param partitioning the partitions the capacity of the page cache is divided into
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, PageCachePartitioning partitioning )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                partitioning );
     }
 
     /**
@@ -265,6 +292,20 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                PageCachePartitioning.NONE );
+    }
+
+    /**
+     * Constructor variant that allows setting a non-standard cache page size.
+     * Only ever use this for testing.
+     */
+    @SuppressWarnings( "DeprecatedIsStillUsed" )
+    @Deprecated
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, PageCachePartitioning partitioning )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -276,7 +317,6 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = pageCacheTracer;
         this.versionContextSupplier = versionContextSupplier;
         this.printExceptionsOnClose = true;
@@ -286,7 +326,61 @@ public class MuninnPageCache implements PageCache
         this.scheduler = jobScheduler;
         this.clock = clock;
 
-        setFreelistHead( new AtomicInteger() );
+        int stripeCount = calculateEvictionStripeCount( maxPages );
+        this.pagesPerStripe = maxPages / stripeCount;
+        this.stripes = new EvictionStripe[stripeCount];
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            int firstPageId = i * pagesPerStripe;
+            // The last stripe takes the remainder of the pages.
+            int stripePageCount = i == stripeCount - 1 ? maxPages - firstPageId : pagesPerStripe;
+            stripes[i] = new EvictionStripe( i, firstPageId, stripePageCount, Math.min( pagesToKeepFree, stripePageCount / 2 ) );
+        }
+        pageCacheTracer.evictionStripes( stripeCount );
+
+        this.partitioning = partitioning;
+        this.partitions = createPartitions( partitioning, cachePageSize, maxPages );
+        this.hasReservations = partitions.values().stream().anyMatch( partition -> partition.reservedPages() > 0 );
+        pageCacheTracer.partitions( List.copyOf( partitions.values() ) );
+    }
+
+    private static Map<String,PagePartition> createPartitions( PageCachePartitioning partitioning, int cachePageSize, int maxPages )
+    {
+        Map<String,PagePartition> partitions = new HashMap<>();
+        long totalReservedPages = 0;
+        for ( String name : partitioning.partitions() )
+        {
+            long reservedPages = partitioning.reservedBytes( name ) / cachePageSize;
+            long maxBytes = partitioning.maxBytes( name );
+            long partitionMaxPages = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : maxBytes / cachePageSize;
+            if ( partitionMaxPages < minimumPartitionPages )
+            {
+                throw new IllegalArgumentException( format(
+                        "The page cache partition '%s' must be allowed at least %s pages (%s bytes), but was only allowed %s pages.",
+                        name, minimumPartitionPages, (long) minimumPartitionPages * cachePageSize, partitionMaxPages ) );
+            }
+            totalReservedPages += reservedPages;
+            partitions.put( name, new PagePartition( name, reservedPages, partitionMaxPages ) );
+        }
+        // Reserved pages are never evicted in favour of other files, so we make sure that there is always plenty of room left for everyone else.
+        if ( totalReservedPages > maxPages / 2 )
+        {
+            throw new IllegalArgumentException( format(
+                    "The page cache partitions reserve %s pages in total, but at most half of the %s pages in the page cache can be reserved.",
+                    totalReservedPages, maxPages ) );
+        }
+        return partitions;
+    }
+
+    private static int calculateEvictionStripeCount( int maxPages )
+    {
+        int stripes = getInteger( MuninnPageCache.class, EVICTION_STRIPES, 1 );
+        if ( stripes <= 0 )
+        {
+            stripes = Runtime.getRuntime().availableProcessors();
+        }
+        int minimumPagesPerStripe = Math.max( 2, getInteger( MuninnPageCache.class, MINIMUM_PAGES_PER_EVICTION_STRIPE, 1024 ) );
+        return Math.max( 1, Math.min( stripes, maxPages / minimumPagesPerStripe ) );
     }
 
     private static void verifyHacks()
@@ -409,7 +503,8 @@ public class MuninnPageCache implements PageCache
                 pageCacheTracer, versionContextSupplier,
                 createIfNotExists,
                 truncateExisting, useDirectIO,
-                databaseName );
+                databaseName,
+                partitionOf( path, databaseName ) );
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( path, pagedFile );
@@ -419,6 +514,12 @@ public class MuninnPageCache implements PageCache
         return pagedFile;
     }
 
+    private PagePartition partitionOf( Path path, String databaseName )
+    {
+        String partition = partitioning.partitionOf( path, databaseName );
+        return partition == null ? null : partitions.get( partition );
+    }
+
     @Override
     public synchronized Optional<PagedFile> getExistingMapping( Path path ) throws IOException
     {
@@ -486,8 +587,15 @@ public class MuninnPageCache implements PageCache
 
         try
         {
-            var monitoringParams = systemJob( "Eviction of pages from the page cache" );
-            scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+            for ( EvictionStripe stripe : stripes )
+            {
+                String description = "Eviction of pages from the page cache";
+                if ( stripes.length > 1 )
+                {
+                    description += " (stripe " + stripe.index + " of " + stripes.length + ")";
+                }
+                scheduler.schedule( Group.PAGE_CACHE_EVICTION, systemJob( description ), new EvictionTask( this, stripe ) );
+            }
         }
         catch ( Exception e )
         {
@@ -678,21 +786,15 @@ public class MuninnPageCache implements PageCache
 
         closed = true;
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( EvictionStripe stripe : stripes )
+        {
+            stripe.interruptEvictor();
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
     }
 
-    private static void interrupt( Thread thread )
-    {
-        if ( thread != null )
-        {
-            thread.interrupt();
-        }
-    }
-
     private void assertHealthy() throws IOException
     {
         assertNotClosed();
@@ -740,54 +842,92 @@ public class MuninnPageCache implements PageCache
         return pageCacheId;
     }
 
-    long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
+    /**
+     * Grab a free page for a page fault in a file of the given partition, or {@code null} if the file does not belong
+     * to any partition. If the partition is already full, then we first try to make room by evicting one of the pages of
+     * the partition itself.
+     */
+    long grabFreeAndExclusivelyLockedPage( PagePartition partition, PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
+        if ( partition != null && partition.isFull() )
+        {
+            long pageRef = evictFromPartition( partition, faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+
+        // Review the comment on the EvictionStripe.freelist field before making changes to
         // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
-        // exception from our page fault routine.
-        Object current;
+        // We start by looking at the freelist of our home stripe, and then at the freelists of all the other
+        // stripes, before we give up and evict a page ourselves. The home stripe is chosen by the id of the
+        // faulting thread, to spread the faulting threads evenly across the stripes.
+        // If all of the freelists are empty, then we do our own eviction to get a free page. New FreePage objects
+        // are eventually going to be added to the freelists, but we are not going to wait around for that to happen.
+        int stripeCount = stripes.length;
+        int homeStripe = stripeCount == 1 ? 0 : (int) (Thread.currentThread().getId() % stripeCount);
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            for ( int i = 0; i < stripeCount; i++ )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
+                long pageRef = tryGrabFreePage( stripes[(homeStripe + i) % stripeCount] );
                 if ( pageRef != 0 )
                 {
                     return pageRef;
                 }
             }
+
+            EvictionStripe stripe = stripes[homeStripe];
+            stripe.unparkEvictor();
+            long pageRef = cooperativelyEvict( stripe, faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+    }
+
+    /**
+     * Try to grab a page from the freelist of the given stripe.
+     * Whatever the case, we're going to the head-pointer of the freelist,
+     * and in doing so, we can discover a number of things.
+     * We can discover an AtomicInteger, in which case the stripe still has
+     * pages that have never been used, and we can try to claim the next one of
+     * those by incrementing the counter.
+     * We can discover a FreePage object, in which case we'll attempt to CAS
+     * the freelist to the FreePage objects next pointer, and if we succeed then
+     * we've grabbed the page given by the FreePage object.
+     * We can discover a null-pointer, in which case the freelist has just
+     * been emptied for whatever it contained before.
+     * If we find a FreePage object on the freelist, then it is important
+     * to check and see if it is the shutdownSignal instance. If that's the
+     * case, then the page cache has been shut down, and we should throw an
+     * exception from our page fault routine.
+     *
+     * @return the grabbed page reference, or 0 if the freelist of the stripe was empty.
+     */
+    private long tryGrabFreePage( EvictionStripe stripe )
+    {
+        for (;;)
+        {
+            Object current = stripe.getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
+            }
             else if ( current instanceof AtomicInteger )
             {
-                int pageCount = pages.getPageCount();
                 AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
+                int offset = counter.get();
+                if ( offset < stripe.pageCount && counter.compareAndSet( offset, offset + 1 ) )
                 {
-                    return pages.deref( pageId );
+                    return pages.deref( stripe.firstPageId + offset );
                 }
-                if ( pageId >= pageCount )
+                if ( offset >= stripe.pageCount )
                 {
-                    compareAndSetFreelistHead( current, null );
+                    stripe.compareAndSetFreelistHead( current, null );
                 }
             }
             else if ( current instanceof FreePage )
@@ -798,7 +938,7 @@ public class MuninnPageCache implements PageCache
                     throw new IllegalStateException( "The PageCache has been shut down." );
                 }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                if ( stripe.compareAndSetFreelistHead( freePage, freePage.next ) )
                 {
                     return freePage.pageRef;
                 }
@@ -806,8 +946,10 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long cooperativelyEvict( EvictionStripe stripe, PageFaultEvent faultEvent ) throws IOException
     {
+        // We sweep the entire page list, and not just our home stripe, since the pages of a single stripe are more
+        // likely to all be locked at the same time than the pages of the whole cache.
         int iterations = 0;
         int pageCount = pages.getPageCount();
         int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
@@ -816,7 +958,7 @@ public class MuninnPageCache implements PageCache
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( stripe.getFreelistHead() != null )
             {
                 return 0;
             }
@@ -832,7 +974,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && !isReserved( pageRef ) && pages.decrementUsage( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -842,6 +984,57 @@ public class MuninnPageCache implements PageCache
         return pageRef;
     }
 
+    /**
+     * Sweep the page list for a page of the given partition to evict, with the clock arm of the partition.
+     * We give up, and let the page fault take a page from the rest of the cache instead, if we cannot find any
+     * evictable page of the partition in a few sweeps; since a usage counter is decremented at most once per sweep,
+     * this is enough for any unlocked page of the partition to become evictable.
+     *
+     * @return the evicted and exclusively locked page, or 0 if no page of the partition could be evicted.
+     */
+    private long evictFromPartition( PagePartition partition, PageFaultEvent faultEvent ) throws IOException
+    {
+        int pageCount = pages.getPageCount();
+        int clockArm = partition.clockArm;
+        long maxSteps = (long) pageCount * (PageList.MAX_USAGE_COUNT + 1);
+        try
+        {
+            for ( long steps = 0; steps < maxSteps && partition.isFull(); steps++ )
+            {
+                if ( clockArm >= pageCount )
+                {
+                    assertHealthy();
+                    clockArm = 0;
+                }
+                long pageRef = pages.deref( clockArm );
+                clockArm++;
+                if ( pages.getPartition( pageRef ) == partition && pages.decrementUsage( pageRef ) && pages.tryEvict( pageRef, faultEvent ) )
+                {
+                    return pageRef;
+                }
+            }
+            return 0;
+        }
+        finally
+        {
+            partition.clockArm = clockArm;
+        }
+    }
+
+    /**
+     * @return {@code true} if the given page belongs to a partition that does not occupy more than its reserved pages, and
+     * therefore must not be evicted in favour of other files.
+     */
+    private boolean isReserved( long pageRef )
+    {
+        if ( hasReservations )
+        {
+            PagePartition partition = pages.getPartition( pageRef );
+            return partition != null && partition.isWithinReservation();
+        }
+        return false;
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -857,79 +1050,46 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
-    {
-        if ( evictorParked )
-        {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
-        }
-    }
-
-    private void parkEvictor( long parkNanos )
-    {
-        // Only called from the background eviction thread!
-        evictorParked = true;
-        LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
-    }
-
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
+     * Scan through all the pages in the given stripe, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
      * we evict the page. If we don't, we move on to the next page.
-     * Once we have enough free pages, we park our thread. Page-faulting will
+     * Once we have enough free pages in the stripe, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( EvictionStripe stripe )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        stripe.evictionThread = Thread.currentThread();
+        int clockArm = stripe.firstPageId;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
-            try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
+            int pageCountToEvict = parkUntilEvictionRequired( stripe );
+            try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( stripe.index, pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( stripe, pageCountToEvict, clockArm, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        stripe.setFreelistHead( shutdownSignal );
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( EvictionStripe stripe )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            stripe.parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            int availablePages = tryGetNumberOfAvailablePages( keepFree );
+            int availablePages = tryGetNumberOfAvailablePages( stripe );
             if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
             {
                 return availablePages;
@@ -937,9 +1097,10 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private int tryGetNumberOfAvailablePages( int keepFree )
+    private static int tryGetNumberOfAvailablePages( EvictionStripe stripe )
     {
-        Object freelistHead = getFreelistHead();
+        Object freelistHead = stripe.getFreelistHead();
+        int keepFree = stripe.keepFree;
 
         if ( freelistHead == null )
         {
@@ -956,7 +1117,7 @@ public class MuninnPageCache implements PageCache
         else if ( freelistHead.getClass() == AtomicInteger.class )
         {
             AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
+            long count = stripe.pageCount - counter.get();
             if ( count < keepFree )
             {
                 return count < 0 ? keepFree : (int) (keepFree - count);
@@ -966,12 +1127,17 @@ public class MuninnPageCache implements PageCache
     }
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    {
+        return evictPages( stripeOf( clockArm ), pageCountToEvict, clockArm, evictionRunEvent );
+    }
+
+    private int evictPages( EvictionStripe stripe, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm == stripe.endPageId() )
             {
-                clockArm = 0;
+                clockArm = stripe.firstPageId;
             }
 
             if ( closed )
@@ -981,7 +1147,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && !isReserved( pageRef ) && pages.decrementUsage( pageRef ) )
             {
                 try
                 {
@@ -989,7 +1155,7 @@ public class MuninnPageCache implements PageCache
                     if ( pages.tryEvict( pageRef, evictionRunEvent ) )
                     {
                         clearEvictorException();
-                        addFreePageToFreelist( pageRef );
+                        addFreePageToFreelist( stripe, pageRef );
                     }
                 }
                 catch ( IOException e )
@@ -1013,20 +1179,46 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    void dropBehind( long pageRef, int swapperId, long filePageId )
+    {
+        if ( !dropBehindUseOncePages || closed )
+        {
+            return;
+        }
+        EvictionStripe stripe = stripeOf( pages.toId( pageRef ) );
+        try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( stripe.index, 1 ) )
+        {
+            if ( pages.tryEvictUnused( pageRef, swapperId, filePageId, evictionRunEvent ) )
+            {
+                addFreePageToFreelist( stripe, pageRef );
+            }
+        }
+    }
+
     void addFreePageToFreelist( long pageRef )
+    {
+        addFreePageToFreelist( stripeOf( pages.toId( pageRef ) ), pageRef );
+    }
+
+    private static void addFreePageToFreelist( EvictionStripe stripe, long pageRef )
     {
         Object current;
         FreePage freePage = new FreePage( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            current = stripe.getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > stripe.pageCount )
             {
                 current = null;
             }
-            freePage.setNext( current );
+            freePage.setNext( current, stripe.pageCount );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !stripe.compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    private EvictionStripe stripeOf( int pageId )
+    {
+        return stripes[Math.min( pageId / pagesPerStripe, stripes.length - 1 )];
     }
 
     void clearEvictorException()
@@ -1040,14 +1232,25 @@ public class MuninnPageCache implements PageCache
     @Override
     public String toString()
     {
-        int availablePages = tryGetNumberOfAvailablePages( keepFree );
-        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
-                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+        long availablePages = 0;
+        for ( EvictionStripe stripe : stripes )
+        {
+            int stripeAvailablePages = tryGetNumberOfAvailablePages( stripe );
+            if ( stripeAvailablePages == UNKNOWN_AVAILABLE_PAGES )
+            {
+                availablePages = UNKNOWN_AVAILABLE_PAGES;
+                break;
+            }
+            availablePages += stripeAvailablePages;
+        }
+        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, evictionStripes:%d, availablePages:%s]", getClass().getSimpleName(),
+                pageCacheId, cachePageSize, pages.getPageCount(), stripes.length,
+                availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
     }
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( hasNeverUsedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -1076,9 +1279,21 @@ public class MuninnPageCache implements PageCache
         } );
     }
 
-    void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
+    private boolean hasNeverUsedPages()
+    {
+        for ( EvictionStripe stripe : stripes )
+        {
+            if ( stripe.getFreelistHead() instanceof AtomicInteger )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void startPreFetching( MuninnPageCursor cursor )
     {
-        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
+        PreFetcher preFetcher = new PreFetcher( cursor, pageCacheTracer, clock );
         var pagedFile = cursor.pagedFile;
         var fileName = pagedFile.swapper.path().getFileName();
         var monitoringParams = systemJob( pagedFile.databaseName, "Pre-fetching of file '" + fileName + "'" );
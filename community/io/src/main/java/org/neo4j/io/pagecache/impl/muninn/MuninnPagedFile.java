@@ -39,6 +39,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -52,6 +53,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final boolean mergePagesOnFlush = flag( MuninnPagedFile.class, "mergePagesOnFlush", true );
     private static final int maxChunkGrowth = getInteger( MuninnPagedFile.class, "maxChunkGrowth", 16 ); // One chunk is 32 MiB, by default.
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
+    private static final int maxTouchChunkPages = getInteger( MuninnPagedFile.class, "maxTouchChunkPages", 64 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
@@ -78,6 +80,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     final int swapperId;
     private final CursorFactory cursorFactory;
     final String databaseName;
+    // The page cache partition this file belongs to, or null.
+    final PagePartition partition;
 
     private volatile boolean deleteOnClose;
 
@@ -118,12 +122,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * @param createIfNotExists should create file if it does not exists
      * @param truncateExisting should truncate file if it exists
      * @param databaseName an optional name of the database this file belongs to. This option associates the mapped file with a database.
-     * This information is currently used only for monitoring purposes.
+     * This information is used for monitoring purposes, and to find the page cache partition of the file.
+     * @param partition the page cache partition the file belongs to, or {@code null} if it does not belong to any partition.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( Path path, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory, PageCacheTracer pageCacheTracer,
-            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, String databaseName )
-            throws IOException
+            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, String databaseName,
+            PagePartition partition ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -133,6 +138,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.pageFaultLatches = new LatchMap();
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = databaseName;
+        this.partition = partition;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -167,7 +173,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, partition );
     }
 
     @Override
@@ -197,7 +203,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         cursor.rewind();
         if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
-            pageCache.startPreFetching( cursor, cursorFactory );
+            pageCache.startPreFetching( cursor );
         }
         return cursor;
     }
@@ -773,7 +779,171 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      */
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
+        return pageCache.grabFreeAndExclusivelyLockedPage( partition, faultEvent );
+    }
+
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        // Load the pages in chunks, to bound the number of pages we hold exclusively locked at any one time.
+        int touched = 0;
+        while ( touched < count )
+        {
+            int chunk = Math.min( count - touched, maxTouchChunkPages );
+            int covered = readAhead( pageId + touched, chunk, false, tracer );
+            touched += covered;
+            if ( covered < chunk )
+            {
+                break;
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Make sure that the given range of file pages are in memory, by faulting in every run of consecutive pages that
+     * are not already in memory, with a single vectored read per run.
+     * <p>
+     * This is a best-effort operation used for read-ahead. Pages that are currently being faulted in by other threads
+     * are skipped rather than waited for, and the pages that are faulted in are not pinned by any cursor, so they
+     * are free to be evicted again.
+     *
+     * @param startFilePageId the first file page id in the range.
+     * @param pageCount the number of pages in the range.
+     * @param useOnce {@code true} if the pages are going to be used once, see {@link #PF_TRANSIENT}, in which case they
+     * are faulted in without any usage.
+     * @param tracer the tracer to report the page faults to.
+     * @return the number of pages from the start of the range that are covered by the file, which is less than the
+     * given page count if the range extends beyond the end of the file.
+     * @throws IOException if the pages could not be read from the file.
+     */
+    int readAhead( long startFilePageId, int pageCount, boolean useOnce, PageCursorTracer tracer ) throws IOException
+    {
+        long lastPageId = getLastPageId();
+        if ( startFilePageId > lastPageId )
+        {
+            return 0;
+        }
+        int length = (int) Math.min( pageCount, lastPageId - startFilePageId + 1 );
+        int[][] tt = translationTable;
+        LatchMap.Latch[] latches = new LatchMap.Latch[length];
+        long[] pageRefs = new long[length];
+        int[] bufferLengths = new int[length];
+        fill( bufferLengths, filePageSize );
+
+        int index = 0;
+        while ( index < length )
+        {
+            // Claim the longest run of consecutive pages that are not in memory, and not being faulted by anyone else.
+            int run = 0;
+            while ( index + run < length )
+            {
+                long filePageId = startFilePageId + index + run;
+                int chunkId = computeChunkId( filePageId );
+                if ( chunkId >= tt.length || !isUnmapped( tt[chunkId], filePageId ) )
+                {
+                    break;
+                }
+                LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch == null )
+                {
+                    break;
+                }
+                if ( !isUnmapped( tt[chunkId], filePageId ) )
+                {
+                    // We raced with another page fault.
+                    latch.release();
+                    break;
+                }
+                latches[run] = latch;
+                run++;
+            }
+
+            if ( run == 0 )
+            {
+                index++; // This page is already in memory, or being faulted in.
+            }
+            else
+            {
+                faultRun( tt, startFilePageId + index, latches, pageRefs, bufferLengths, run, useOnce, tracer );
+                index += run;
+            }
+        }
+        return length;
+    }
+
+    private void faultRun( int[][] tt, long startFilePageId, LatchMap.Latch[] latches, long[] pageRefs, int[] bufferLengths, int run,
+            boolean useOnce, PageCursorTracer tracer ) throws IOException
+    {
+        PinEvent[] pinEvents = new PinEvent[run];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[run];
+        int grabbed = 0;
+        try
+        {
+            for ( ; grabbed < run; grabbed++ )
+            {
+                pinEvents[grabbed] = tracer.beginPin( false, startFilePageId + grabbed, swapper );
+                faultEvents[grabbed] = pinEvents[grabbed].beginPageFault();
+                pageRefs[grabbed] = grabFreeAndExclusivelyLockedPage( faultEvents[grabbed] );
+            }
+            // Check if we're racing with unmapping, just like a regular page fault does.
+            getLastPageId();
+            for ( int i = 0; i < run; i++ )
+            {
+                initBuffer( pageRefs[i] );
+            }
+            long bytesRead = faultVectored( pageRefs, bufferLengths, run, swapper, swapperId, startFilePageId );
+            for ( int i = 0; i < run; i++ )
+            {
+                long filePageId = startFilePageId + i;
+                long pageRef = pageRefs[i];
+                faultEvents[i].addBytesRead( Math.max( 0, Math.min( filePageSize, bytesRead - (long) i * filePageSize ) ) );
+                faultEvents[i].setCachePageId( toId( pageRef ) );
+                if ( !useOnce )
+                {
+                    // Give the page a single usage, just as if it had been pinned by a cursor.
+                    incrementUsage( pageRef );
+                }
+                UnsafeUtil.putIntVolatile( tt[computeChunkId( filePageId )], computeChunkOffset( filePageId ), toId( pageRef ) );
+                unlockExclusive( pageRef );
+                latches[i].release();
+                faultEvents[i].done();
+                pinEvents[i].done();
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 0; i < run; i++ )
+            {
+                if ( i < grabbed )
+                {
+                    // Make sure to unlock the page, so the eviction thread can pick up our trash.
+                    unlockExclusive( pageRefs[i] );
+                }
+                latches[i].release();
+                if ( faultEvents[i] != null )
+                {
+                    faultEvents[i].done( throwable );
+                    pinEvents[i].done();
+                }
+            }
+            throw throwable;
+        }
+    }
+
+    /**
+     * Evict the given page right away, if it is still bound to the given file page of this file, and nobody has used
+     * it since it was faulted in. This is called by {@link #PF_TRANSIENT} read cursors when they move off of a page,
+     * so that scans recycle their own pages, rather than pushing frequently used pages out of the cache.
+     */
+    void dropBehind( long pageRef, long filePageId )
+    {
+        pageCache.dropBehind( pageRef, swapperId, filePageId );
+    }
+
+    private static boolean isUnmapped( int[] chunk, long filePageId )
+    {
+        return UnsafeUtil.getIntVolatile( chunk, computeChunkOffset( filePageId ) ) == UNMAPPED_TTE;
     }
 
     /**
@@ -38,9 +38,15 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     @Override
     protected void unpinCurrentPage()
     {
-        if ( pinnedPageRef != 0 )
+        long pageRef = pinnedPageRef;
+        if ( pageRef != 0 )
         {
             pinEvent.done();
+            if ( useOnce && !noFault )
+            {
+                // A no-fault cursor only observes what is already in memory, and has no business evicting it.
+                pagedFile.dropBehind( pageRef, loadPlainCurrentPageId() );
+            }
         }
         lockStamp = 0; // make sure not to accidentally keep a lock state around
         clearPageCursorState();
@@ -81,7 +87,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !useOnce )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
@@ -56,7 +56,7 @@ class PageList
     static final long MAX_PAGES = Integer.MAX_VALUE;
 
     private static final int UNBOUND_LAST_MODIFIED_TX_ID = -1;
-    private static final long MAX_USAGE_COUNT = 4;
+    static final long MAX_USAGE_COUNT = 4;
     private static final int SHIFT_FILE_PAGE_ID = 24;
     private static final int SHIFT_SWAPPER_ID = 3;
     private static final int SHIFT_PARTIAL_FILE_PAGE_ID = SHIFT_FILE_PAGE_ID - SHIFT_SWAPPER_ID;
@@ -435,6 +435,74 @@ class PageList
         event.addBytesRead( bytesRead );
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        pagesBound( swapperId, 1 );
+    }
+
+    /**
+     * Fault in a run of consecutive file pages, starting at the given file page id, into the given exclusively locked
+     * pages, with a single vectored read.
+     *
+     * @param pageRefs the exclusively locked and unbound pages to fault into, in file page order.
+     * @param bufferLengths the number of bytes to read into each page.
+     * @param length the number of pages in the run.
+     * @return the number of bytes read from the file.
+     */
+    long faultVectored( long[] pageRefs, int[] bufferLengths, int length, PageSwapper swapper, int swapperId, long startFilePageId )
+            throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        long[] bufferAddresses = new long[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+            // Just like in fault, we assign the filePageId before we swap the pages in, and the swapper after.
+            setFilePageId( pageRef, filePageId ); // Page now considered isLoaded()
+            bufferAddresses[i] = getAddress( pageRef );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, bufferLengths, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        }
+        pagesBound( swapperId, length );
+        return bytesRead;
+    }
+
+    private void pagesBound( int swapperId, int count )
+    {
+        PagePartition partition = swappers.getPartition( swapperId );
+        if ( partition != null )
+        {
+            partition.pagesBound( count );
+        }
+    }
+
+    private void pageUnbound( int swapperId )
+    {
+        PagePartition partition = swappers.getPartition( swapperId );
+        if ( partition != null )
+        {
+            partition.pageEvicted();
+        }
+    }
+
+    /**
+     * @return the partition of the file the given page is bound to, or {@code null} if the page is not bound, or its
+     * file does not belong to any partition.
+     */
+    PagePartition getPartition( long pageRef )
+    {
+        return swappers.getPartition( getSwapperId( pageRef ) );
     }
 
     private static IllegalArgumentException swapperCannotBeNull()
@@ -471,6 +539,44 @@ class PageList
         return false;
     }
 
+    /**
+     * Try to evict the given page, but only if it is still bound to the given file page, is not modified, and has no
+     * usage. Since the page is not modified, no flushing is needed, so this never does any IO.
+     *
+     * @return {@code true} if the page was evicted, in which case it is left exclusively locked.
+     */
+    boolean tryEvictUnused( long pageRef, int swapperId, long filePageId, EvictionEventOpportunity evictionOpportunity )
+    {
+        if ( tryExclusiveLock( pageRef ) )
+        {
+            if ( isBoundTo( pageRef, swapperId, filePageId ) && !isModified( pageRef ) && getUsageCounter( pageRef ) == 0 )
+            {
+                try ( EvictionEvent evictionEvent = evictionOpportunity.beginEviction() )
+                {
+                    evictUnmodified( pageRef, evictionEvent, filePageId, swapperId );
+                    return true;
+                }
+            }
+            unlockExclusive( pageRef );
+        }
+        return false;
+    }
+
+    private void evictUnmodified( long pageRef, EvictionEvent evictionEvent, long filePageId, int swapperId )
+    {
+        evictionEvent.setFilePageId( filePageId );
+        evictionEvent.setCachePageId( pageRef );
+        SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+        if ( swapperMapping != null )
+        {
+            PageSwapper swapper = swapperMapping.swapper;
+            evictionEvent.setSwapper( swapper );
+            swapper.evicted( filePageId );
+        }
+        pageUnbound( swapperId );
+        clearBinding( pageRef );
+    }
+
     private void evict( long pageRef, EvictionEvent evictionEvent ) throws IOException
     {
         long filePageId = getFilePageId( pageRef );
@@ -494,6 +600,7 @@ class PageList
                 }
                 swapper.evicted( filePageId );
             }
+            pageUnbound( swapperId );
         }
         clearBinding( pageRef );
     }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.PageCachePartitioning;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
+
+/**
+ * The share of the page cache that belongs to the files of one partition of the {@link PageCachePartitioning}.
+ * <p>
+ * The partition keeps count of the pages that are bound to its files. The count is incremented by the {@link PageList}
+ * when a page is bound to a file page, and decremented when such a page is evicted. Pages are associated with their
+ * partition through the swapper id they are bound to; see {@link SwapperSet#getPartition(int)}.
+ */
+final class PagePartition implements PageCachePartitionCounters
+{
+    private final String name;
+    private final long reservedPages;
+    private final long maxPages;
+    private final AtomicLong residentPages = new AtomicLong();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // The clock arm used when a page fault has to evict a page from this partition, because the partition is full.
+    // Racy updates are fine; it only serves to spread the sweeps over the page list.
+    int clockArm;
+
+    PagePartition( String name, long reservedPages, long maxPages )
+    {
+        this.name = name;
+        this.reservedPages = reservedPages;
+        this.maxPages = maxPages;
+    }
+
+    void pagesBound( int count )
+    {
+        residentPages.addAndGet( count );
+        faults.add( count );
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+        evictions.increment();
+    }
+
+    /**
+     * @return {@code true} if the partition already occupies its maximum number of pages.
+     */
+    boolean isFull()
+    {
+        return residentPages.get() >= maxPages;
+    }
+
+    /**
+     * @return {@code true} if the partition does not occupy more pages than it has reserved, in which case its pages
+     * must not be evicted in favour of other files.
+     */
+    boolean isWithinReservation()
+    {
+        return residentPages.get() <= reservedPages;
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public long reservedPages()
+    {
+        return reservedPages;
+    }
+
+    @Override
+    public long maxPages()
+    {
+        return maxPages;
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PagePartition[name:" + name + ", reservedPages:" + reservedPages + ", maxPages:" + maxPages + ", residentPages:" + residentPages + "]";
+    }
+}
@@ -25,14 +25,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
-import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.scheduler.CancelListener;
 import org.neo4j.time.SystemNanoClock;
 
 import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
-import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * An adaptive page pre-fetcher for sequential scans, for either forwards (increasing page id order) or backwards (decreasing page id order) scans.
@@ -45,6 +44,11 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * too much synchronisation overhead on the scanner. Because this does not form a "synchronises-with" edge in Java Memory Model palace, we say that the
  * scanning cursor is being "weakly" observed. Ordered stores have compiler barriers, but no CPU or cache coherence barriers beyond plain stores.
  *
+ * Pages are pre-fetched in runs of consecutive pages, where every run of pages that are not already in memory is read
+ * with a single vectored read, see {@link MuninnPagedFile#readAhead(long, int, boolean, PageCursorTracer)}. How useful the
+ * pre-fetching was, is reported to the {@link PageCacheTracer} as read-ahead hits, misses and wasted pages, once the
+ * pre-fetcher is done.
+ *
  * The pre-fetcher is adaptive because the number of pages the pre-fetcher will move ahead of the scanning cursor, and the length of time the pre-fetcher
  * will wait in between checking on the progress of the scanner, are dynamically computed and updated based on how fast the scanner appears to be.
  * The pre-fetcher also automatically figures out if the scanner is scanning the file in a forward or backwards direction.
@@ -52,8 +56,14 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 class PreFetcher implements Runnable, CancelListener
 {
     private static final String TRACER_PRE_FETCHER_TAG = "Pre-fetcher";
+    // The maximum number of pages we will pre-fetch ahead of the observed cursor.
+    private static final int maxReadAheadPages = getInteger( PreFetcher.class, "maxReadAheadPages", 1024 );
+    // The maximum number of pages we will read with a single vectored read.
+    private static final int maxVectorPages = getInteger( PreFetcher.class, "maxVectorPages", 64 );
+
     private final MuninnPageCursor observedCursor;
-    private final CursorFactory cursorFactory;
+    private final MuninnPagedFile pagedFile;
+    private final boolean useOnce;
     private final PageCacheTracer tracer;
     private final SystemNanoClock clock;
     private volatile boolean cancelled;
@@ -61,11 +71,14 @@ class PreFetcher implements Runnable, CancelListener
     private long deadline;
     private long tripCount;
     private long pauseNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
+    private long hits;
+    private long misses;
 
-    PreFetcher( MuninnPageCursor observedCursor, CursorFactory cursorFactory, PageCacheTracer tracer, SystemNanoClock clock )
+    PreFetcher( MuninnPageCursor observedCursor, PageCacheTracer tracer, SystemNanoClock clock )
     {
         this.observedCursor = observedCursor;
-        this.cursorFactory = cursorFactory;
+        this.pagedFile = observedCursor.pagedFile;
+        this.useOnce = observedCursor.useOnce;
         this.tracer = tracer;
         this.clock = clock;
     }
@@ -123,30 +136,49 @@ class PreFetcher implements Runnable, CancelListener
         // The initial value don't matter so much. Just same as offset, so we initially fetch one page.
         long jump = offset;
 
-        try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG );
-              PageCursor prefetchCursor = cursorFactory.takeReadCursor( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        // The limit is how far we have already pre-fetched. That is, the exclusive end of the pre-fetched range for
+        // forward pre-fetching, or the inclusive start of the pre-fetched range for backward pre-fetching.
+        // Pages on the near side of the limit don't need to be pre-fetched again.
+        currentPageId = getCurrentObservedPageId();
+        long limit = currentPageId + offset;
+        long lastObservedPageId = currentPageId;
+
+        try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG ) )
         {
-            currentPageId = getCurrentObservedPageId();
             while ( currentPageId != UNBOUND_PAGE_ID )
             {
                 cp = currentPageId + offset;
                 if ( forward )
                 {
-                    fromPage = cp;
-                    toPage = cp + jump;
+                    fromPage = Math.max( cp, limit );
+                    toPage = cp + Math.min( jump, maxReadAheadPages );
                 }
                 else
                 {
-                    fromPage = Math.max( 0, cp + jump );
-                    toPage = cp;
+                    fromPage = Math.max( 0, cp + Math.max( jump, -maxReadAheadPages ) );
+                    toPage = Math.min( cp, limit );
                 }
                 while ( fromPage < toPage )
                 {
-                    if ( !prefetchCursor.next( fromPage ) || cancelled )
+                    if ( cancelled )
+                    {
+                        return;
+                    }
+                    int pageCount = (int) Math.min( toPage - fromPage, maxVectorPages );
+                    int covered = pagedFile.readAhead( fromPage, pageCount, useOnce, cursorTracer );
+                    if ( forward )
+                    {
+                        limit = fromPage + covered;
+                    }
+                    else
+                    {
+                        limit = Math.min( limit, fromPage );
+                    }
+                    if ( covered < pageCount )
                     {
-                        return; // Reached the end of the file. Or got cancelled.
+                        return; // Reached the end of the file.
                     }
-                    fromPage++;
+                    fromPage += pageCount;
                 }
 
                 // Phase 3.5: After each prefetch round, we wait for the cursor to move again.
@@ -168,7 +200,9 @@ class PreFetcher implements Runnable, CancelListener
                 }
                 if ( nextPageId != UNBOUND_PAGE_ID )
                 {
+                    countProgress( forward, currentPageId, nextPageId, limit );
                     jump = (nextPageId - currentPageId) * 2;
+                    lastObservedPageId = nextPageId;
                 }
                 currentPageId = nextPageId;
             }
@@ -177,6 +211,32 @@ class PreFetcher implements Runnable, CancelListener
         {
             throw new UncheckedIOException( e );
         }
+        finally
+        {
+            // Whatever we pre-fetched beyond the last position of the scanner, was never used by the scanner.
+            long wasted = forward ? limit - lastObservedPageId - 1 : lastObservedPageId - limit;
+            reportReadAheads( Math.max( 0, wasted ) );
+        }
+    }
+
+    /**
+     * Count the pages the observed cursor moved across, as either hits or misses, depending on whether we managed to
+     * pre-fetch them before the cursor got to them.
+     */
+    private void countProgress( boolean forward, long fromPageId, long toPageId, long limit )
+    {
+        long moved = Math.abs( toPageId - fromPageId );
+        long prefetched = forward ? limit - fromPageId - 1 : fromPageId - limit;
+        prefetched = Math.max( 0, Math.min( moved, prefetched ) );
+        hits += prefetched;
+        misses += moved - prefetched;
+    }
+
+    private void reportReadAheads( long wasted )
+    {
+        tracer.readAheadHits( hits );
+        tracer.readAheadMisses( misses );
+        tracer.wastedReadAheads( wasted );
     }
 
     private void setDeadline( long timeout, TimeUnit unit )
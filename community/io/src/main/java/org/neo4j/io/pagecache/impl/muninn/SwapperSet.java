@@ -40,10 +40,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 final class SwapperSet
 {
     // The sentinel is used to reserve swapper id 0 as a special value.
-    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null );
-    // The tombstone is used as a marker to reserve allocation entries that have been freed, but not yet vacuumed.
-    // An allocation cannot be reused until it has been vacuumed.
-    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null );
+    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null, null );
     private static final int MAX_SWAPPER_ID = (1 << 21) - 1;
     private volatile SwapperMapping[] swapperMappings = new SwapperMapping[] { SENTINEL };
     private final MutableIntSet free = new IntHashSet();
@@ -57,11 +54,28 @@ final class SwapperSet
     {
         public final int id;
         public final PageSwapper swapper;
+        public final PagePartition partition;
 
-        private SwapperMapping( int id, PageSwapper swapper )
+        private SwapperMapping( int id, PageSwapper swapper, PagePartition partition )
         {
             this.id = id;
             this.swapper = swapper;
+            this.partition = partition;
+        }
+
+        /**
+         * A tombstone is used as a marker to reserve allocation entries that have been freed, but not yet vacuumed.
+         * An allocation cannot be reused until it has been vacuumed. The tombstone remembers the partition of the
+         * freed allocation, so the pages that linger in the cache can still be accounted for when they are evicted.
+         */
+        private SwapperMapping tombstone()
+        {
+            return new SwapperMapping( id, null, partition );
+        }
+
+        private boolean isTombstone()
+        {
+            return swapper == null && this != SENTINEL;
         }
     }
 
@@ -72,13 +86,29 @@ final class SwapperSet
     {
         checkId( id );
         SwapperMapping swapperMapping = swapperMappings[id];
-        if ( swapperMapping == null || swapperMapping == TOMBSTONE )
+        if ( swapperMapping == null || swapperMapping.isTombstone() )
         {
             return null;
         }
         return swapperMapping;
     }
 
+    /**
+     * Get the {@link PagePartition} of the given swapper id, even if the id has been freed but not yet vacuumed.
+     *
+     * @return the partition, or {@code null} if the id is 0, is not allocated, or the swapper has no partition.
+     */
+    PagePartition getPartition( int id )
+    {
+        if ( id == 0 )
+        {
+            return null;
+        }
+        SwapperMapping[] swapperMappings = this.swapperMappings;
+        SwapperMapping swapperMapping = id < swapperMappings.length ? swapperMappings[id] : null;
+        return swapperMapping == null ? null : swapperMapping.partition;
+    }
+
     private void checkId( int id )
     {
         if ( id == 0 )
@@ -90,7 +120,15 @@ final class SwapperSet
     /**
      * Allocate a new swapper id for the given {@link PageSwapper}.
      */
-    synchronized int allocate( PageSwapper swapper )
+    int allocate( PageSwapper swapper )
+    {
+        return allocate( swapper, null );
+    }
+
+    /**
+     * Allocate a new swapper id for the given {@link PageSwapper}, whose pages belong to the given partition.
+     */
+    synchronized int allocate( PageSwapper swapper, PagePartition partition )
     {
         SwapperMapping[] swapperMappings = this.swapperMappings;
 
@@ -101,7 +139,7 @@ final class SwapperSet
             {
                 int id = free.intIterator().next();
                 free.remove( id );
-                swapperMappings[id] = new SwapperMapping( id, swapper );
+                swapperMappings[id] = new SwapperMapping( id, swapper, partition );
                 this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
                 return id;
             }
@@ -114,7 +152,7 @@ final class SwapperSet
             throw new IllegalStateException( "All swapper ids are allocated: " + MAX_SWAPPER_ID );
         }
         swapperMappings = Arrays.copyOf( swapperMappings, id + 1 );
-        swapperMappings[id] = new SwapperMapping( id, swapper );
+        swapperMappings[id] = new SwapperMapping( id, swapper, partition );
         this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
         return id;
     }
@@ -128,12 +166,12 @@ final class SwapperSet
         checkId( id );
         SwapperMapping[] swapperMappings = this.swapperMappings;
         SwapperMapping current = swapperMappings[id];
-        if ( current == null || current == TOMBSTONE )
+        if ( current == null || current.isTombstone() )
         {
             throw new IllegalStateException(
                     "PageSwapper allocation id " + id + " is currently not allocated. Likely a double free bug." );
         }
-        swapperMappings[id] = TOMBSTONE;
+        swapperMappings[id] = current.tombstone();
         this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
         freeCounter++;
         if ( freeCounter == 20 )
@@ -163,7 +201,7 @@ final class SwapperSet
             for ( int id = 0; id < swapperMappings.length; id++ )
             {
                 SwapperMapping swapperMapping = swapperMappings[id];
-                if ( swapperMapping == TOMBSTONE )
+                if ( swapperMapping != null && swapperMapping.isTombstone() )
                 {
                     freeIds.add( id );
                 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.util.List;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -85,6 +87,37 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of eviction stripes the page cache is divided into, or {@code 0} if it is not known.
+     */
+    int evictionStripes();
+
+    /**
+     * @param stripe the index of the eviction stripe.
+     * @return The number of page evictions done by the background eviction thread of the given stripe thus far.
+     */
+    long stripeEvictions( int stripe );
+
+    /**
+     * @return The number of pages that sequential scans found already in memory thanks to read-ahead, thus far.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of pages that sequential scans reached before read-ahead could bring them into memory, thus far.
+     */
+    long readAheadMisses();
+
+    /**
+     * @return The number of pages brought into memory by read-ahead, that the sequential scan never reached, thus far.
+     */
+    long wastedReadAheads();
+
+    /**
+     * @return The counters of each of the partitions the page cache is divided into, or an empty list if it is not partitioned.
+     */
+    List<PageCachePartitionCounters> partitions();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+/**
+ * The counters of a single page cache partition. A partition is a group of mapped files, typically all the files of a
+ * database, or all the files of a certain type in a database, that has its own share of the page cache.
+ */
+public interface PageCachePartitionCounters
+{
+    /**
+     * @return The name of the partition.
+     */
+    String name();
+
+    /**
+     * @return The number of pages that are reserved for the partition, and that the page cache will not evict in favour
+     * of other partitions.
+     */
+    long reservedPages();
+
+    /**
+     * @return The maximum number of pages the partition may occupy, or {@link Long#MAX_VALUE} if it is not capped.
+     */
+    long maxPages();
+
+    /**
+     * @return The number of pages currently bound to files in the partition.
+     */
+    long residentPages();
+
+    /**
+     * @return The number of page faults observed in the partition thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of page evictions observed in the partition thus far.
+     */
+    long evictions();
+}
@@ -21,11 +21,13 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -46,7 +48,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder readAheadHits = new LongAdder();
+    protected final LongAdder readAheadMisses = new LongAdder();
+    protected final LongAdder wastedReadAheads = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected volatile LongAdder[] stripeEvictions = new LongAdder[0];
+    protected volatile List<PageCachePartitionCounters> partitions = List.of();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -151,6 +158,8 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     };
 
+    private volatile EvictionRunEvent[] stripeEvictionRunEvents = new EvictionRunEvent[0];
+
     private final MajorFlushEvent majorFlushEvent = new MajorFlushEvent()
     {
         @Override
@@ -189,6 +198,13 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionRunEvent;
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict )
+    {
+        EvictionRunEvent[] events = stripeEvictionRunEvents;
+        return stripe < events.length ? events[stripe] : evictionRunEvent;
+    }
+
     @Override
     public MajorFlushEvent beginFileFlush( PageSwapper swapper )
     {
@@ -273,6 +289,43 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public int evictionStripes()
+    {
+        return stripeEvictions.length;
+    }
+
+    @Override
+    public long stripeEvictions( int stripe )
+    {
+        LongAdder[] counters = stripeEvictions;
+        return stripe < counters.length ? counters[stripe].sum() : 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits.sum();
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return readAheadMisses.sum();
+    }
+
+    @Override
+    public long wastedReadAheads()
+    {
+        return wastedReadAheads.sum();
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return partitions;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -355,4 +408,101 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+        this.readAheadHits.add( hits );
+    }
+
+    @Override
+    public void readAheadMisses( long misses )
+    {
+        this.readAheadMisses.add( misses );
+    }
+
+    @Override
+    public void wastedReadAheads( long wasted )
+    {
+        this.wastedReadAheads.add( wasted );
+    }
+
+    @Override
+    public void evictionStripes( int stripes )
+    {
+        LongAdder[] counters = new LongAdder[stripes];
+        EvictionRunEvent[] events = new EvictionRunEvent[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            counters[i] = new LongAdder();
+            events[i] = new StripeEvictionRunEvent( counters[i] );
+        }
+        this.stripeEvictions = counters;
+        this.stripeEvictionRunEvents = events;
+    }
+
+    @Override
+    public void partitions( List<? extends PageCachePartitionCounters> partitions )
+    {
+        this.partitions = List.copyOf( partitions );
+    }
+
+    /**
+     * An eviction run of a single eviction stripe, that counts its evictions towards both the stripe and the total.
+     */
+    private class StripeEvictionRunEvent implements EvictionRunEvent
+    {
+        private final EvictionEvent stripeEvictionEvent;
+
+        StripeEvictionRunEvent( LongAdder stripeEvictionCounter )
+        {
+            this.stripeEvictionEvent = new EvictionEvent()
+            {
+                @Override
+                public void setFilePageId( long filePageId )
+                {
+                }
+
+                @Override
+                public void setSwapper( PageSwapper swapper )
+                {
+                }
+
+                @Override
+                public FlushEventOpportunity flushEventOpportunity()
+                {
+                    return flushEventOpportunity;
+                }
+
+                @Override
+                public void threwException( IOException exception )
+                {
+                    evictionExceptions.increment();
+                }
+
+                @Override
+                public void setCachePageId( long cachePageId )
+                {
+                }
+
+                @Override
+                public void close()
+                {
+                    evictions.increment();
+                    stripeEvictionCounter.increment();
+                }
+            };
+        }
+
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return stripeEvictionEvent;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
@@ -20,9 +20,11 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -59,6 +61,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return EvictionRunEvent.NULL;
         }
 
+        @Override
+        public EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict )
+        {
+            return EvictionRunEvent.NULL;
+        }
+
         @Override
         public MajorFlushEvent beginFileFlush( PageSwapper swapper )
         {
@@ -143,6 +151,42 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public int evictionStripes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long stripeEvictions( int stripe )
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public long wastedReadAheads()
+        {
+            return 0;
+        }
+
+        @Override
+        public List<PageCachePartitionCounters> partitions()
+        {
+            return List.of();
+        }
+
         @Override
         public double hitRatio()
         {
@@ -210,6 +254,31 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void readAheadHits( long hits )
+        {
+        }
+
+        @Override
+        public void readAheadMisses( long misses )
+        {
+        }
+
+        @Override
+        public void wastedReadAheads( long wasted )
+        {
+        }
+
+        @Override
+        public void evictionStripes( int stripes )
+        {
+        }
+
+        @Override
+        public void partitions( List<? extends PageCachePartitionCounters> partitions )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -243,6 +312,18 @@ public interface PageCacheTracer extends PageCacheCounters
      **/
     EvictionRunEvent beginPageEvictions( int pageCountToEvict );
 
+    /**
+     * A background eviction has begun in the given eviction stripe. Called from the background eviction thread of
+     * that stripe.
+     *
+     * The method returns an EvictionRunEvent to represent the event of this eviction run. Evictions done through
+     * that event are counted towards the given stripe, as well as towards the total number of evictions.
+     *
+     * @param stripe the index of the eviction stripe, between zero and the number given to {@link #evictionStripes(int)}.
+     * @param pageCountToEvict the number of pages the eviction run wants to evict.
+     */
+    EvictionRunEvent beginPageEvictions( int stripe, int pageCountToEvict );
+
     /**
      * A PagedFile wants to flush all its bound pages.
      */
@@ -318,4 +399,34 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Report number of pages that a sequential scan found already in memory thanks to read-ahead
+     * @param hits number of read-ahead hits
+     */
+    void readAheadHits( long hits );
+
+    /**
+     * Report number of pages that a sequential scan reached before read-ahead could bring them into memory
+     * @param misses number of read-ahead misses
+     */
+    void readAheadMisses( long misses );
+
+    /**
+     * Report number of pages brought into memory by read-ahead, that the sequential scan never reached
+     * @param wasted number of wasted read-ahead pages
+     */
+    void wastedReadAheads( long wasted );
+
+    /**
+     * Sets the number of eviction stripes the page cache divides its pages into.
+     * @param stripes the number of eviction stripes.
+     */
+    void evictionStripes( int stripes );
+
+    /**
+     * Sets the partitions the page cache divides its capacity into. The counters of the partitions are maintained by the page cache.
+     * @param partitions the counters of the page cache partitions.
+     */
+    void partitions( List<? extends PageCachePartitionCounters> partitions );
 }
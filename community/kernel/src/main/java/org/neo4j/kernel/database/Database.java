@@ -100,6 +100,7 @@ import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
@@ -109,6 +110,7 @@ import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.PipelinedTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
@@ -407,6 +409,7 @@ public class Database extends LifecycleAdapter
                     .withDatabaseTracers( tracers )
                     .withMemoryTracker( otherDatabaseMemoryTracker )
                     .withCommandReaderFactory( storageEngineFactory.commandReaderFactory() )
+                    .withJobScheduler( scheduler )
                     .build();
 
             databaseMonitors.addMonitorListener( new LoggingLogFileMonitor( msgLog ) );
@@ -433,7 +436,7 @@ public class Database extends LifecycleAdapter
 
             storageEngine = storageEngineFactory.instantiate( fs, databaseLayout, databaseConfig, databasePageCache, tokenHolders, databaseSchemaState,
                     constraintSemantics, indexProviderMap, lockService, idGeneratorFactory, idController, databaseHealth, internalLogProvider,
-                    recoveryCleanupWorkCollector, pageCacheTracer, !storageExists, otherDatabaseMemoryTracker );
+                    scheduler, recoveryCleanupWorkCollector, pageCacheTracer, !storageExists, otherDatabaseMemoryTracker );
 
             life.add( storageEngine );
             life.add( storageEngine.schemaAndTokensLifecycle() );
@@ -506,6 +509,8 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
 
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig, pageCacheTracer,
+                    internalLogProvider.getLog( PageCacheWarmer.class ) ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
@@ -742,8 +747,8 @@ public class Database extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
 
-        final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+        final TransactionAppender appender = createTransactionAppender( logFiles, config, scheduler, transactionIdStore,
+                transactionMetadataCache, logRotation );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
 
@@ -763,6 +768,20 @@ public class Database extends LifecycleAdapter
         return new DatabaseTransactionLogModule( logicalTransactionStore, logFiles, logRotation, checkPointer, appender );
     }
 
+    private TransactionAppender createTransactionAppender( LogFiles logFiles, Config config, JobScheduler scheduler,
+            TransactionIdStore transactionIdStore, TransactionMetadataCache transactionMetadataCache, LogRotation logRotation )
+    {
+        boolean compressCommands = config.get( GraphDatabaseInternalSettings.compress_transaction_log_commands );
+        if ( config.get( GraphDatabaseInternalSettings.dedicated_transaction_log_writer ) )
+        {
+            return life.add( new PipelinedTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth,
+                    scheduler, namedDatabaseId.name(), config.get( GraphDatabaseInternalSettings.dedicated_transaction_log_writer_queue_size ),
+                    compressCommands ) );
+        }
+        return life.add( new BatchingTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth,
+                compressCommands ) );
+    }
+
     private DatabaseKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
             IndexingService indexingService, DatabaseSchemaState databaseSchemaState, LabelScanStore labelScanStore,
             RelationshipTypeScanStore relationshipTypeScanStore, StorageEngine storageEngine, TransactionIdStore transactionIdStore,
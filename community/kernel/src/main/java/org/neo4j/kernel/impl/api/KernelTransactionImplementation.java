@@ -1025,6 +1025,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             userTransactionId = 0;
             statistics.reset();
             releaseStatementResources();
+            commandCreationContext.release();
             operations.release();
             pageCursorTracer.reportEvents();
             initializationTrace = null;
@@ -62,7 +62,7 @@ public class LoggingPhaseTracker implements PhaseTracker
     }
 
     @Override
-    public void enterPhase( Phase phase )
+    public synchronized void enterPhase( Phase phase )
     {
         if ( stopped )
         {
@@ -90,7 +90,7 @@ public class LoggingPhaseTracker implements PhaseTracker
     }
 
     @Override
-    public void stop()
+    public synchronized void stop()
     {
         stopped = true;
         logCurrentTime();
@@ -41,6 +41,8 @@ import java.util.stream.IntStream;
 import org.neo4j.common.EntityType;
 import org.neo4j.common.Subject;
 import org.neo4j.common.TokenNameLookup;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.function.Predicates;
 import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.internal.helpers.Exceptions;
@@ -112,6 +114,10 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * {@link #QUEUE_THRESHOLD} than all queued concurrent updates are flushed after the store scan in
  * {@link MultipleIndexPopulator#flipAfterStoreScan(boolean, PageCursorTracer)}.
  * <p>
+ * If {@link GraphDatabaseInternalSettings#index_population_scan_workers} is more than one, the store scan is
+ * {@link StoreScan#parallelize(int, JobScheduler, PageCacheTracer, StoreScan.ExternalUpdatesCheck) parallelized} and updates from the scan
+ * arrive from multiple threads. The queued concurrent updates are then applied by the store scan, while all its workers are paused.
+ * <p>
  */
 public class MultipleIndexPopulator
 {
@@ -153,6 +159,8 @@ public class MultipleIndexPopulator
     private final PageCacheTracer cacheTracer;
     private final String databaseName;
     private final Subject subject;
+    private final int scanWorkers;
+    private boolean parallelScan;
 
     /**
      * Creates a new multi-threaded populator for the given store view.
@@ -162,10 +170,11 @@ public class MultipleIndexPopulator
      * @param schemaState the schema state
      * @param jobScheduler the job scheduler
      * @param tokenNameLookup token lookup
+     * @param config the config, deciding the number of threads to scan the store with
      */
     public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
             IndexStatisticsStore indexStatisticsStore, JobScheduler jobScheduler, TokenNameLookup tokenNameLookup, PageCacheTracer cacheTracer,
-            MemoryTracker memoryTracker, String databaseName, Subject subject )
+            MemoryTracker memoryTracker, String databaseName, Subject subject, Config config )
     {
         this.storeView = storeView;
         this.cursorTracer = cacheTracer.createPageCursorTracer( MULTIPLE_INDEX_POPULATOR_TAG );
@@ -182,6 +191,7 @@ public class MultipleIndexPopulator
         this.cacheTracer = cacheTracer;
         this.databaseName = databaseName;
         this.subject = subject;
+        this.scanWorkers = config.get( GraphDatabaseInternalSettings.index_population_scan_workers );
     }
 
     IndexPopulation addPopulator( IndexPopulator populator, IndexDescriptor indexDescriptor, FlippableIndexProxy flipper,
@@ -229,6 +239,7 @@ public class MultipleIndexPopulator
                     cursorTracer, memoryTracker );
         }
         storeScan.setPhaseTracker( phaseTracker );
+        parallelScan = storeScan.parallelize( scanWorkers, jobScheduler, cacheTracer, new QueuedExternalUpdatesCheck() );
         return new BatchingStoreScan<>( storeScan );
     }
 
@@ -425,15 +436,14 @@ public class MultipleIndexPopulator
 
     private void flushAll()
     {
-        populations.forEach( this::flush );
+        populations.forEach( population -> flush( population, population.takeCurrentBatchFromScan() ) );
         awaitCompletion();
     }
 
-    private void flush( IndexPopulation population )
+    private void flush( IndexPopulation population, List<IndexEntryUpdate<?>> batch )
     {
         phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
         activeTasks.incrementAndGet();
-        List<IndexEntryUpdate<?>> batch = population.takeCurrentBatchFromScan();
 
         jobScheduler.schedule( Group.INDEX_POPULATION_WORK,
                 new JobMonitoringParams( subject, databaseName, "Index scan batch for '" + population.indexDescriptor.getName() + "'" ),
@@ -733,10 +743,19 @@ public class MultipleIndexPopulator
 
         private void onUpdateFromScan( IndexEntryUpdate<?> update )
         {
-            populator.includeSample( update );
-            if ( addToBatchFromScan( update ) )
+            List<IndexEntryUpdate<?>> fullBatch = null;
+            // A parallel store scan calls this from multiple threads
+            synchronized ( this )
+            {
+                populator.includeSample( update );
+                if ( addToBatchFromScan( update ) )
+                {
+                    fullBatch = takeCurrentBatchFromScan();
+                }
+            }
+            if ( fullBatch != null )
             {
-                flush( this );
+                flush( this, fullBatch );
             }
         }
 
@@ -800,7 +819,7 @@ public class MultipleIndexPopulator
             return batchedUpdatesFromScan.size() >= BATCH_SIZE_SCAN;
         }
 
-        List<IndexEntryUpdate<?>> takeCurrentBatchFromScan()
+        synchronized List<IndexEntryUpdate<?>> takeCurrentBatchFromScan()
         {
             if ( batchedUpdatesFromScan.isEmpty() )
             {
@@ -845,6 +864,11 @@ public class MultipleIndexPopulator
             {
                 log.info( "Added scan updates for entity %d", updates.getEntityId() );
             }
+            if ( parallelScan )
+            {
+                // Other workers may be in the middle of reading entities, the scan applies the queue when they are not
+                return false;
+            }
             return applyConcurrentUpdateQueueBatched( updates.getEntityId() );
         }
 
@@ -859,6 +883,21 @@ public class MultipleIndexPopulator
         }
     }
 
+    private class QueuedExternalUpdatesCheck implements StoreScan.ExternalUpdatesCheck
+    {
+        @Override
+        public boolean needToApplyExternalUpdates()
+        {
+            return concurrentUpdateQueue.size() >= QUEUE_THRESHOLD;
+        }
+
+        @Override
+        public void applyExternalUpdates( long currentlyIndexedNodeId )
+        {
+            applyConcurrentUpdateQueueBatched( currentlyIndexedNodeId );
+        }
+    }
+
     protected static class DelegatingStoreScan<E extends Exception> implements StoreScan<E>
     {
         private final StoreScan<E> delegate;
@@ -897,6 +936,12 @@ public class MultipleIndexPopulator
         {
             delegate.setPhaseTracker( phaseTracker );
         }
+
+        @Override
+        public boolean parallelize( int workers, JobScheduler jobScheduler, PageCacheTracer pageCacheTracer, ExternalUpdatesCheck externalUpdatesCheck )
+        {
+            return delegate.parallelize( workers, jobScheduler, pageCacheTracer, externalUpdatesCheck );
+        }
     }
 
     /**
@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.api.index;
 
 import org.neo4j.internal.kernel.api.PopulationProgress;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 
 public interface StoreScan<FAILURE extends Exception>
@@ -41,4 +43,39 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Asks this {@link StoreScan} to let {@link #run()} read the store with {@code workers} threads, each reading its own ranges of entity ids.
+     * The visitors of a parallel scan are called concurrently and must not apply external updates themselves. Instead the scan pauses
+     * all workers in between ranges and calls {@link ExternalUpdatesCheck#applyExternalUpdates(long)} when asked to.
+     * Must not be called once scan has already started.
+     *
+     * @param workers number of threads to scan the store with, including the thread calling {@link #run()}.
+     * @param jobScheduler scheduler to run the additional workers on.
+     * @param pageCacheTracer tracer that each additional worker creates its own page cursor tracer from.
+     * @param externalUpdatesCheck decides when external updates should be applied, and applies them.
+     * @return {@code true} if this scan will run in parallel, or {@code false} if it will run on the calling thread only, as if never asked.
+     */
+    default boolean parallelize( int workers, JobScheduler jobScheduler, PageCacheTracer pageCacheTracer, ExternalUpdatesCheck externalUpdatesCheck )
+    {
+        return false;
+    }
+
+    /**
+     * Used by a parallel {@link StoreScan} to apply external updates at points where no worker is in the middle of a range.
+     */
+    interface ExternalUpdatesCheck
+    {
+        /**
+         * @return whether there are enough external updates queued up to apply them now.
+         */
+        boolean needToApplyExternalUpdates();
+
+        /**
+         * Applies the queued external updates. Called while all workers are paused.
+         *
+         * @param currentlyIndexedNodeId all entities up to and including this id have been scanned, no entity after it has.
+         */
+        void applyExternalUpdates( long currentlyIndexedNodeId );
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import org.neo4j.memory.HeapEstimator;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.util.VisibleForTesting;
+
+import static org.neo4j.internal.helpers.ArrayUtil.MAX_ARRAY_SIZE;
+import static org.neo4j.memory.HeapEstimator.sizeOfLongArray;
+
+/**
+ * An append-only log of the ids of entities that have had their data changed in a transaction, in the order the changes were made.
+ * <p>
+ * Readers remember the position they have read up to, so that they only need to look at the entities changed since then. This lets them maintain
+ * derived state incrementally, instead of having to look at the whole transaction state again after every change. A position that is not
+ * {@link #contains(long) contained} in the log, like zero, means the reader has to look at all changed entities, after which it gets the
+ * {@link #markVisited() current position}.
+ * <p>
+ * The log only grows up to a maximum capacity. When it is full it is truncated, which invalidates all positions handed out so far,
+ * so that every reader falls back to looking at all changed entities once.
+ * <p>
+ * Repeated changes to the same entity are only logged once, as long as no other entity has been changed, and the log has not been read, in between.
+ * An entity can otherwise show up more than once, so readers need to be prepared for duplicates.
+ */
+class EntityChangeLog
+{
+    private static final long SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( EntityChangeLog.class );
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final MemoryTracker memoryTracker;
+    private final int maxCapacity;
+    private long[] ids;
+    /**
+     * The position of the first id in {@link #ids}. It starts at one, so that zero is never a valid position.
+     */
+    private long start = 1;
+    private int size;
+    private int visitedSize;
+
+    static EntityChangeLog createEntityChangeLog( MemoryTracker memoryTracker )
+    {
+        return createEntityChangeLog( memoryTracker, MAX_ARRAY_SIZE );
+    }
+
+    @VisibleForTesting
+    static EntityChangeLog createEntityChangeLog( MemoryTracker memoryTracker, int maxCapacity )
+    {
+        memoryTracker.allocateHeap( SHALLOW_SIZE + sizeOfLongArray( INITIAL_CAPACITY ) );
+        return new EntityChangeLog( memoryTracker, maxCapacity );
+    }
+
+    private EntityChangeLog( MemoryTracker memoryTracker, int maxCapacity )
+    {
+        this.memoryTracker = memoryTracker;
+        this.maxCapacity = maxCapacity;
+        this.ids = new long[Math.min( INITIAL_CAPACITY, maxCapacity )];
+    }
+
+    void changed( long id )
+    {
+        if ( size > visitedSize && ids[size - 1] == id )
+        {
+            return;
+        }
+        if ( size == ids.length )
+        {
+            if ( size >= maxCapacity )
+            {
+                // Truncate, so that the next position handed out is beyond every position handed out so far
+                start += size + 1;
+                size = 0;
+                visitedSize = 0;
+            }
+            else
+            {
+                int newCapacity = (int) Math.min( ids.length * 2L, maxCapacity );
+                memoryTracker.allocateHeap( sizeOfLongArray( newCapacity ) );
+                memoryTracker.releaseHeap( sizeOfLongArray( ids.length ) );
+                ids = Arrays.copyOf( ids, newCapacity );
+            }
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * @param position a position previously handed out by this log.
+     * @return whether or not the log still has all the entities logged from the given position.
+     */
+    boolean contains( long position )
+    {
+        return position >= start && position <= start + size;
+    }
+
+    /**
+     * @param fromPosition the position to start visiting from, which must be {@link #contains(long) contained} in this log.
+     * @param visitor receives the ids of all entities logged from the given position.
+     * @return the position right after the last logged entity.
+     */
+    long visit( long fromPosition, LongConsumer visitor )
+    {
+        for ( int i = (int) (fromPosition - start); i < size; i++ )
+        {
+            visitor.accept( ids[i] );
+        }
+        return markVisited();
+    }
+
+    /**
+     * Marks all logged entities as visited, for a reader that has looked at all changed entities by other means.
+     *
+     * @return the position right after the last logged entity.
+     */
+    long markVisited()
+    {
+        visitedSize = size;
+        return start + size;
+    }
+}
@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.function.LongConsumer;
 import javax.annotation.Nullable;
 
 import org.neo4j.exceptions.KernelException;
@@ -61,6 +62,7 @@ import org.neo4j.values.storable.ValueTuple;
 
 import static org.neo4j.collection.trackable.HeapTrackingCollections.newLongObjectMap;
 import static org.neo4j.collection.trackable.HeapTrackingCollections.newMap;
+import static org.neo4j.kernel.impl.api.state.EntityChangeLog.createEntityChangeLog;
 import static org.neo4j.kernel.impl.api.state.TokenState.createTokenState;
 import static org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets.newMutableDiffSets;
 import static org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets.newMutableLongDiffSets;
@@ -105,6 +107,9 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
 
     private MutableMap<SchemaDescriptor, Map<ValueTuple, MutableLongDiffSets>> indexUpdates;
 
+    private EntityChangeLog changedNodes;
+    private EntityChangeLog changedRelationships;
+
     private final MemoryTracker memoryTracker;
     private long revision;
     private long dataRevision;
@@ -285,11 +290,30 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         dataRevision = revision;
     }
 
+    private void nodeDataChanged( long nodeId )
+    {
+        // Changes are only logged once someone has started reading the log, which is rare
+        if ( changedNodes != null )
+        {
+            changedNodes.changed( nodeId );
+        }
+        dataChanged();
+    }
+
+    private void relationshipDataChanged( long relationshipId )
+    {
+        if ( changedRelationships != null )
+        {
+            changedRelationships.changed( relationshipId );
+        }
+        dataChanged();
+    }
+
     @Override
     public void nodeDoCreate( long id )
     {
         nodes().add( id );
-        dataChanged();
+        nodeDataChanged( id );
     }
 
     @Override
@@ -308,7 +332,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
                 nodeState.clear();
             }
         }
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
@@ -329,7 +353,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
         getOrCreateTypeStateRelationshipDiffSets( relationshipTypeId ).add( id );
 
-        dataChanged();
+        relationshipDataChanged( id );
     }
 
     @Override
@@ -363,7 +387,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         }
         getOrCreateTypeStateRelationshipDiffSets( type ).remove( id );
 
-        dataChanged();
+        relationshipDataChanged( id );
     }
 
     @Override
@@ -383,14 +407,14 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
         nodeState.addProperty( newPropertyKeyId, value );
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
     public void nodeDoChangeProperty( long nodeId, int propertyKeyId, Value newValue )
     {
         getOrCreateNodeState( nodeId ).changeProperty( propertyKeyId, newValue );
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
@@ -405,21 +429,21 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             getOrCreateRelationshipState( relationshipId ).addProperty( propertyKeyId, newValue );
         }
-        dataChanged();
+        relationshipDataChanged( relationshipId );
     }
 
     @Override
     public void nodeDoRemoveProperty( long nodeId, int propertyKeyId )
     {
         getOrCreateNodeState( nodeId ).removeProperty( propertyKeyId );
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
     public void relationshipDoRemoveProperty( long relationshipId, int propertyKeyId )
     {
         getOrCreateRelationshipState( relationshipId ).removeProperty( propertyKeyId );
-        dataChanged();
+        relationshipDataChanged( relationshipId );
     }
 
     @Override
@@ -427,7 +451,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).add( nodeId );
         getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
@@ -435,7 +459,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).remove( nodeId );
         getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
-        dataChanged();
+        nodeDataChanged( nodeId );
     }
 
     @Override
@@ -841,6 +865,52 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         return dataRevision;
     }
 
+    @Override
+    public long visitChangedNodes( long fromPosition, LongConsumer visitor )
+    {
+        if ( changedNodes == null )
+        {
+            changedNodes = createEntityChangeLog( memoryTracker );
+        }
+        if ( changedNodes.contains( fromPosition ) )
+        {
+            return changedNodes.visit( fromPosition, visitor );
+        }
+        if ( nodes != null )
+        {
+            nodes.getAdded().each( visitor::accept );
+            nodes.getRemoved().each( visitor::accept );
+        }
+        if ( nodeStatesMap != null )
+        {
+            nodeStatesMap.forEachKey( visitor::accept );
+        }
+        return changedNodes.markVisited();
+    }
+
+    @Override
+    public long visitChangedRelationships( long fromPosition, LongConsumer visitor )
+    {
+        if ( changedRelationships == null )
+        {
+            changedRelationships = createEntityChangeLog( memoryTracker );
+        }
+        if ( changedRelationships.contains( fromPosition ) )
+        {
+            return changedRelationships.visit( fromPosition, visitor );
+        }
+        if ( relationships != null )
+        {
+            relationships.getAdded().each( visitor::accept );
+            relationships.getRemoved().each( visitor::accept );
+        }
+        if ( relationshipStatesMap != null )
+        {
+            relationshipStatesMap.forEachKey( visitor::accept );
+        }
+        return changedRelationships.markVisited();
+    }
+
     private NodeStateImpl newNodeState( long nodeId )
     {
         return NodeStateImpl.createNodeState( nodeId, collectionsFactory, memoryTracker );
@@ -19,7 +19,13 @@
  */
 package org.neo4j.kernel.impl.api.tracer;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -42,12 +48,17 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
  */
 public class DefaultTracer implements DatabaseTracer
 {
+    private static final int APPEND_BATCH_SIZE_BUCKETS = 16;
+
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLongArray appendBatchSizes = new AtomicLongArray( APPEND_BATCH_SIZE_BUCKETS );
+    private final Map<String,LongAdder> storeApplyStageNanos = new ConcurrentHashMap<>();
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
     private final CountingLogCheckPointEvent logCheckPointEvent = new CountingLogCheckPointEvent( this::appendLogBytes );
     private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
+    private final StoreApplyEvent storeApplyEvent = new DefaultStoreApplyEvent();
     private final CommitEvent commitEvent = new DefaultCommitEvent();
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
 
@@ -86,6 +97,25 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public long[] appendBatchSizeDistribution()
+    {
+        long[] distribution = new long[APPEND_BATCH_SIZE_BUCKETS];
+        for ( int i = 0; i < APPEND_BATCH_SIZE_BUCKETS; i++ )
+        {
+            distribution[i] = appendBatchSizes.get( i );
+        }
+        return distribution;
+    }
+
+    @Override
+    public Map<String,Long> storeApplyStageTimeMillis()
+    {
+        Map<String,Long> times = new HashMap<>();
+        storeApplyStageNanos.forEach( ( stage, nanos ) -> times.put( stage, TimeUnit.NANOSECONDS.toMillis( nanos.sum() ) ) );
+        return times;
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -119,6 +149,12 @@ public class DefaultTracer implements DatabaseTracer
         appendedBytes.addAndGet( logPositionAfterAppend.getByteOffset() - logPositionBeforeAppend.getByteOffset() );
     }
 
+    private void appendBatch( int appendBatchSize )
+    {
+        int bucket = Math.min( 31 - Integer.numberOfLeadingZeros( Math.max( appendBatchSize, 1 ) ), APPEND_BATCH_SIZE_BUCKETS - 1 );
+        appendBatchSizes.incrementAndGet( bucket );
+    }
+
     @Override
     public LogFileCreateEvent createLogFile()
     {
@@ -176,7 +212,21 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public StoreApplyEvent beginStoreApply()
         {
-            return StoreApplyEvent.NULL;
+            return storeApplyEvent;
+        }
+    }
+
+    private class DefaultStoreApplyEvent implements StoreApplyEvent
+    {
+        @Override
+        public void stageApplied( String stage, long elapsedNanos )
+        {
+            storeApplyStageNanos.computeIfAbsent( stage, s -> new LongAdder() ).add( elapsedNanos );
+        }
+
+        @Override
+        public void close()
+        {
         }
     }
 
@@ -199,6 +249,12 @@ public class DefaultTracer implements DatabaseTracer
 
         }
 
+        @Override
+        public void setAppendBatchSize( int appendBatchSize )
+        {
+            appendBatch( appendBatchSize );
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
@@ -436,14 +437,48 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft, cursorTracer ) )
+            if ( descriptor.isUnique() )
             {
-                while ( allEntries.next() && !cancellation.cancelled() )
+                // Entries with equal values are merged one by one, which is how conflicts are detected
+                int asMuchAsPossibleToTheLeft = 1;
+                try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft, cursorTracer ) )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
-                    numberOfAppliedScanUpdates.incrementAndGet();
+                    while ( allEntries.next() && !cancellation.cancelled() )
+                    {
+                        writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                        numberOfAppliedScanUpdates.incrementAndGet();
+                    }
+                }
+            }
+            else
+            {
+                bulkLoadToTree( allEntries, cursorTracer );
+            }
+        }
+    }
+
+    /**
+     * The merged scan updates are sorted and, since entity ids are part of the keys of a non-unique index, unique. They can therefore
+     * be bulk loaded into the empty tree, which builds it bottom-up instead of inserting and splitting its way down from the root.
+     */
+    private void bulkLoadToTree( MergingBlockEntryReader<KEY,VALUE> allEntries, PageCursorTracer cursorTracer ) throws IOException
+    {
+        double fullNodes = 1;
+        KEY previousKey = layout.newKey();
+        boolean first = true;
+        try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( fullNodes, cursorTracer ) )
+        {
+            while ( allEntries.next() && !cancellation.cancelled() )
+            {
+                KEY key = allEntries.key();
+                // The same entry may have been added more than once, writing it to the tree would have overwritten it
+                if ( first || layout.compare( key, previousKey ) != 0 )
+                {
+                    bulkLoader.add( key, allEntries.value() );
+                    layout.copyKey( key, previousKey );
+                    first = false;
                 }
+                numberOfAppliedScanUpdates.incrementAndGet();
             }
         }
     }
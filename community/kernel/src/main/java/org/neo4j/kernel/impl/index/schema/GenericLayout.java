@@ -76,6 +76,19 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         right.minimalSplitter( left, right, into );
     }
 
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return true;
+    }
+
+    @Override
+    public int compressedKeyHeaderSize()
+    {
+        // Keys are sorted by value first, but the entity id is written first
+        return GenericKey.ENTITY_ID_SIZE;
+    }
+
     IndexSpecificSpaceFillingCurveSettings getSpaceFillingCurveSettings()
     {
         return spatialSettings;
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The lock of a single resource in a {@link StripedLockManager}. Who holds the lock is kept in one immutable {@link Holders} snapshot,
+ * which is replaced using compare-and-set. Granting or releasing a lock nobody waits for therefore never blocks, and readers, e.g. deadlock
+ * detection, always see a consistent set of holders.
+ * <p>
+ * A lock that nobody holds anymore is retired and removed from its lock table. A client that comes across a retired lock
+ * goes back to the lock table to get a new one.
+ */
+final class ResourceLock
+{
+    static final int ACQUIRED = 0;
+    static final int BLOCKED = 1;
+    static final int RETIRED = 2;
+
+    private static final AtomicReferenceFieldUpdater<ResourceLock,Holders> HOLDERS =
+            AtomicReferenceFieldUpdater.newUpdater( ResourceLock.class, Holders.class, "holders" );
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final Queue<StripedLockClient> waiters = new ConcurrentLinkedQueue<>();
+    private volatile Holders holders = Holders.NONE; // Accessed via AtomicReferenceFieldUpdater
+
+    ResourceLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    Holders holders()
+    {
+        return holders;
+    }
+
+    /**
+     * Shared locks can be granted as long as no other client holds the exclusive lock.
+     *
+     * @return {@link #ACQUIRED}, {@link #BLOCKED} if another client holds the exclusive lock or {@link #RETIRED} if this lock has been retired.
+     */
+    int tryAcquireShared( StripedLockClient client )
+    {
+        Holders current;
+        do
+        {
+            current = holders;
+            if ( current == Holders.RETIRED )
+            {
+                return RETIRED;
+            }
+            if ( current.exclusive != null && current.exclusive != client )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !HOLDERS.compareAndSet( this, current, current.withShared( client ) ) );
+        return ACQUIRED;
+    }
+
+    /**
+     * The exclusive lock can be granted when no other client holds any lock, i.e. a client can upgrade its own shared lock.
+     *
+     * @return {@link #ACQUIRED}, {@link #BLOCKED} if another client holds the lock or {@link #RETIRED} if this lock has been retired.
+     */
+    int tryAcquireExclusive( StripedLockClient client )
+    {
+        Holders current;
+        do
+        {
+            current = holders;
+            if ( current == Holders.RETIRED )
+            {
+                return RETIRED;
+            }
+            if ( current.exclusive != null || !current.sharedOnlyBy( client ) )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !HOLDERS.compareAndSet( this, current, current.withExclusive( client ) ) );
+        return ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if nobody holds this lock anymore and it was retired, then it must be removed from its lock table.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        Holders current;
+        Holders next;
+        do
+        {
+            current = holders;
+            next = current.withoutShared( client, this );
+        }
+        while ( !HOLDERS.compareAndSet( this, current, next ) );
+        return released( next );
+    }
+
+    /**
+     * @return {@code true} if nobody holds this lock anymore and it was retired, then it must be removed from its lock table.
+     */
+    boolean releaseExclusive( StripedLockClient client )
+    {
+        Holders current;
+        Holders next;
+        do
+        {
+            current = holders;
+            next = current.withoutExclusive( client, this );
+        }
+        while ( !HOLDERS.compareAndSet( this, current, next ) );
+        return released( next );
+    }
+
+    private boolean released( Holders next )
+    {
+        boolean retired = next == Holders.NONE && HOLDERS.compareAndSet( this, Holders.NONE, Holders.RETIRED );
+        // Waiters always try to acquire after adding themselves, so one that was added after this check sees the release anyway
+        if ( !waiters.isEmpty() )
+        {
+            for ( StripedLockClient waiter : waiters )
+            {
+                waiter.wakeUp();
+            }
+        }
+        return retired;
+    }
+
+    void addWaiter( StripedLockClient client )
+    {
+        waiters.add( client );
+    }
+
+    void removeWaiter( StripedLockClient client )
+    {
+        waiters.remove( client );
+    }
+
+    long maxWaitTimeMillis( SystemNanoClock clock )
+    {
+        long now = clock.nanos();
+        long max = 0;
+        for ( StripedLockClient waiter : waiters )
+        {
+            max = Math.max( max, now - waiter.waitStartNanos() );
+        }
+        return NANOSECONDS.toMillis( max );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "ResourceLock[%s(%d), %s]", resourceType, resourceId, holders );
+    }
+
+    /**
+     * Immutable snapshot of the clients holding a lock. A client is at most once among the shared holders, since clients keep count of
+     * their own re-entrant acquisitions.
+     */
+    static final class Holders
+    {
+        private static final StripedLockClient[] NO_CLIENTS = new StripedLockClient[0];
+        static final Holders NONE = new Holders( null, NO_CLIENTS );
+        static final Holders RETIRED = new Holders( null, NO_CLIENTS );
+
+        final StripedLockClient exclusive;
+        final StripedLockClient[] shared;
+
+        private Holders( StripedLockClient exclusive, StripedLockClient[] shared )
+        {
+            this.exclusive = exclusive;
+            this.shared = shared;
+        }
+
+        private boolean sharedOnlyBy( StripedLockClient client )
+        {
+            return shared.length == 0 || (shared.length == 1 && shared[0] == client);
+        }
+
+        private Holders withShared( StripedLockClient client )
+        {
+            StripedLockClient[] newShared = Arrays.copyOf( shared, shared.length + 1 );
+            newShared[shared.length] = client;
+            return new Holders( exclusive, newShared );
+        }
+
+        private Holders withExclusive( StripedLockClient client )
+        {
+            return new Holders( client, shared );
+        }
+
+        private Holders withoutShared( StripedLockClient client, ResourceLock lock )
+        {
+            for ( int i = 0; i < shared.length; i++ )
+            {
+                if ( shared[i] == client )
+                {
+                    if ( exclusive == null && shared.length == 1 )
+                    {
+                        return NONE;
+                    }
+                    StripedLockClient[] newShared = new StripedLockClient[shared.length - 1];
+                    System.arraycopy( shared, 0, newShared, 0, i );
+                    System.arraycopy( shared, i + 1, newShared, i, newShared.length - i );
+                    return new Holders( exclusive, newShared );
+                }
+            }
+            throw new IllegalStateException( client + " doesn't hold a shared lock on " + lock );
+        }
+
+        private Holders withoutExclusive( StripedLockClient client, ResourceLock lock )
+        {
+            if ( exclusive != client )
+            {
+                throw new IllegalStateException( client + " doesn't hold the exclusive lock on " + lock );
+            }
+            return shared.length == 0 ? NONE : new Holders( null, shared );
+        }
+
+        @Override
+        public String toString()
+        {
+            if ( this == RETIRED )
+            {
+                return "retired";
+            }
+            return "exclusive=" + exclusive + ", shared=" + Arrays.toString( shared );
+        }
+    }
+}
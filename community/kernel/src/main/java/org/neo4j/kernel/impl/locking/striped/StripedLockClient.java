@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.kernel.impl.locking.striped.ResourceLock.ACQUIRED;
+import static org.neo4j.kernel.impl.locking.striped.ResourceLock.BLOCKED;
+import static org.neo4j.kernel.impl.locking.striped.ResourceLock.RETIRED;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+// Please note. Except separate test cases for particular classes related to striped locking
+// see also org.neo4j.kernel.impl.locking.LockingCompatibilityTestSuite test suite
+
+/**
+ * Client of a {@link StripedLockManager}. Re-entrant acquisitions are only counted locally, so a resource is locked in its shared
+ * {@link ResourceLock} at most once per client and lock type.
+ * <p>
+ * A client that can't get a lock parks until a release wakes it up. When it has waited for longer than
+ * {@link #DEADLOCK_DETECTION_THRESHOLD_NANOS} it starts looking for deadlocks by following the wait-for graph, i.e. the clients holding
+ * the lock it waits for, the locks those clients wait for and so on. To make sure that only one client of a deadlock gives up, a client
+ * only follows clients with lower ids than its own, and so only detects the deadlocks where it has the highest id.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    static final long DEADLOCK_DETECTION_THRESHOLD_NANOS = MILLISECONDS.toNanos( 1 );
+    private static final long MAX_DEADLOCK_DETECTION_INTERVAL_NANOS = MILLISECONDS.toNanos( 100 );
+
+    private final StripedLockManager manager;
+    private final int id;
+    private final SystemNanoClock clock;
+    private final long lockAcquisitionTimeoutNanos;
+    private final MutableLongObjectMap<HeldLock>[] sharedLocks;
+    private final MutableLongObjectMap<HeldLock>[] exclusiveLocks;
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+    private volatile long transactionId = INVALID_TRANSACTION_ID;
+
+    // Wait state, read by other clients for deadlock detection and waking this client up
+    private volatile ResourceLock waitingFor;
+    private volatile Thread waitingThread;
+    private volatile long waitStartNanos;
+
+    @SuppressWarnings( "unchecked" )
+    StripedLockClient( StripedLockManager manager, int id, SystemNanoClock clock, long lockAcquisitionTimeoutNanos, int resourceTypes )
+    {
+        this.manager = manager;
+        this.id = id;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNanos = lockAcquisitionTimeoutNanos;
+        this.sharedLocks = new MutableLongObjectMap[resourceTypes];
+        this.exclusiveLocks = new MutableLongObjectMap[resourceTypes];
+        for ( int i = 0; i < resourceTypes; i++ )
+        {
+            sharedLocks[i] = new LongObjectHashMap<>();
+            exclusiveLocks[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient, long transactionId )
+    {
+        this.transactionId = transactionId;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, SHARED, resourceType, sharedLocks[resourceType.typeId()], resourceIds );
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, EXCLUSIVE, resourceType, exclusiveLocks[resourceType.typeId()], resourceIds );
+    }
+
+    private void acquire( LockTracer tracer, LockType lockType, ResourceType resourceType, MutableLongObjectMap<HeldLock> localLocks,
+            long[] resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock heldLock = localLocks.get( resourceId );
+                if ( heldLock != null )
+                {
+                    heldLock.references++;
+                }
+                else
+                {
+                    long startNanos = clock.nanos();
+                    ResourceLock lock = acquire( tracer, lockType, resourceType, resourceId );
+                    localLocks.put( resourceId, new HeldLock( lock ) );
+                    tracer.lockAcquired( lockType, resourceType, transactionId, resourceId, clock.nanos() - startNanos );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private ResourceLock acquire( LockTracer tracer, LockType lockType, ResourceType resourceType, long resourceId )
+    {
+        LockWaitEvent waitEvent = null;
+        try
+        {
+            while ( true )
+            {
+                ResourceLock lock = manager.lock( resourceType, resourceId );
+                int result = tryAcquire( lock, lockType );
+                if ( result == ACQUIRED )
+                {
+                    return lock;
+                }
+                if ( result != RETIRED )
+                {
+                    if ( waitEvent == null )
+                    {
+                        waitEvent = tracer.waitForLock( lockType, resourceType, transactionId, resourceId );
+                    }
+                    if ( awaitLock( lock, lockType ) )
+                    {
+                        return lock;
+                    }
+                }
+                // The lock was retired, get the new lock of this resource from the lock table
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+        }
+    }
+
+    private int tryAcquire( ResourceLock lock, LockType lockType )
+    {
+        return lockType == EXCLUSIVE ? lock.tryAcquireExclusive( this ) : lock.tryAcquireShared( this );
+    }
+
+    /**
+     * Parks until the lock is acquired or retired.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} if it was retired.
+     */
+    private boolean awaitLock( ResourceLock lock, LockType lockType )
+    {
+        long startNanos = clock.nanos();
+        waitStartNanos = startNanos;
+        waitingThread = Thread.currentThread();
+        waitingFor = lock;
+        lock.addWaiter( this );
+        boolean interrupted = false;
+        try
+        {
+            long detectionInterval = DEADLOCK_DETECTION_THRESHOLD_NANOS;
+            long nextDeadlockDetection = startNanos + detectionInterval;
+            while ( true )
+            {
+                if ( stateHolder.isStopped() )
+                {
+                    throw new LockClientStoppedException( this );
+                }
+                int result = tryAcquire( lock, lockType );
+                if ( result != BLOCKED )
+                {
+                    return result == ACQUIRED;
+                }
+
+                long now = clock.nanos();
+                if ( lockAcquisitionTimeoutNanos > 0 && now - startNanos >= lockAcquisitionTimeoutNanos )
+                {
+                    throw new LockAcquisitionTimeoutException( lock.resourceType(), lock.resourceId(), lockAcquisitionTimeoutNanos );
+                }
+                if ( now - nextDeadlockDetection >= 0 )
+                {
+                    detectDeadlock( lock, lockType );
+                    detectionInterval = Math.min( detectionInterval * 2, MAX_DEADLOCK_DETECTION_INTERVAL_NANOS );
+                    nextDeadlockDetection = now + detectionInterval;
+                }
+                // Parking is also cut short by releases and stops, so this only decides how often deadlocks and timeouts are checked
+                LockSupport.parkNanos( this, detectionInterval );
+                // Waiting is uninterruptible, but an interrupted thread doesn't park, so hold on to the interrupt until we're done
+                interrupted |= Thread.interrupted();
+            }
+        }
+        finally
+        {
+            lock.removeWaiter( this );
+            waitingFor = null;
+            waitingThread = null;
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void wakeUp()
+    {
+        Thread thread = waitingThread;
+        if ( thread != null )
+        {
+            LockSupport.unpark( thread );
+        }
+    }
+
+    long waitStartNanos()
+    {
+        return waitStartNanos;
+    }
+
+    long transactionId()
+    {
+        return transactionId;
+    }
+
+    private void detectDeadlock( ResourceLock lock, LockType lockType )
+    {
+        List<Object> path = new ArrayList<>();
+        if ( leadsBackToThisClient( lock, path, new HashSet<>() ) )
+        {
+            StringBuilder cycle = new StringBuilder();
+            cycle.append( this ).append( " <-[:HELD_BY]- " ).append( describe( lock ) );
+            for ( int i = 0; i < path.size(); i += 2 )
+            {
+                cycle.append( " <-[:WAITING_FOR]- " ).append( path.get( i ) )
+                     .append( " <-[:HELD_BY]- " ).append( describe( (ResourceLock) path.get( i + 1 ) ) );
+            }
+            throw new DeadlockDetectedException( this + " can't acquire " + lockType + " lock on " + describe( lock ) + " since => " + cycle );
+        }
+    }
+
+    /**
+     * Depth-first search of the wait-for graph from the holders of the given lock, only following clients with lower ids than this one.
+     * The clients and locks along the way are kept in {@code path}.
+     */
+    private boolean leadsBackToThisClient( ResourceLock lock, List<Object> path, Set<StripedLockClient> visited )
+    {
+        ResourceLock.Holders holders = lock.holders();
+        if ( isDeadlockThrough( holders.exclusive, path, visited ) )
+        {
+            return true;
+        }
+        for ( StripedLockClient holder : holders.shared )
+        {
+            if ( isDeadlockThrough( holder, path, visited ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDeadlockThrough( StripedLockClient holder, List<Object> path, Set<StripedLockClient> visited )
+    {
+        if ( holder == null )
+        {
+            return false;
+        }
+        if ( holder == this )
+        {
+            // Holding a shared lock on the resource we wait for, e.g. when upgrading, isn't a deadlock in itself
+            return !path.isEmpty();
+        }
+        if ( holder.id > id || !visited.add( holder ) )
+        {
+            return false;
+        }
+        ResourceLock next = holder.waitingFor;
+        if ( next == null )
+        {
+            return false;
+        }
+        path.add( holder );
+        path.add( next );
+        if ( leadsBackToThisClient( next, path, visited ) )
+        {
+            return true;
+        }
+        path.remove( path.size() - 1 );
+        path.remove( path.size() - 1 );
+        return false;
+    }
+
+    private static String describe( ResourceLock lock )
+    {
+        return lock.resourceType() + "(" + lock.resourceId() + ")";
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        return tryLock( EXCLUSIVE, resourceType, exclusiveLocks[resourceType.typeId()], resourceId );
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        return tryLock( SHARED, resourceType, sharedLocks[resourceType.typeId()], resourceId );
+    }
+
+    private boolean tryLock( LockType lockType, ResourceType resourceType, MutableLongObjectMap<HeldLock> localLocks, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            HeldLock heldLock = localLocks.get( resourceId );
+            if ( heldLock != null )
+            {
+                heldLock.references++;
+                return true;
+            }
+            int result;
+            ResourceLock lock;
+            do
+            {
+                lock = manager.lock( resourceType, resourceId );
+                result = tryAcquire( lock, lockType );
+            }
+            while ( result == RETIRED );
+            if ( result == ACQUIRED )
+            {
+                localLocks.put( resourceId, new HeldLock( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( sharedLocks[resourceType.typeId()], resourceId );
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( exclusiveLocks[resourceType.typeId()], resourceId );
+    }
+
+    private boolean reEnter( MutableLongObjectMap<HeldLock> localLocks, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            HeldLock heldLock = localLocks.get( resourceId );
+            if ( heldLock != null )
+            {
+                heldLock.references++;
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        release( SHARED, resourceType, sharedLocks[resourceType.typeId()], resourceIds );
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        release( EXCLUSIVE, resourceType, exclusiveLocks[resourceType.typeId()], resourceIds );
+    }
+
+    private void release( LockType lockType, ResourceType resourceType, MutableLongObjectMap<HeldLock> localLocks, long[] resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock heldLock = localLocks.get( resourceId );
+                if ( heldLock == null )
+                {
+                    throw new IllegalStateException( this + " doesn't hold a " + lockType + " lock on " + resourceType + "(" + resourceId + ")" );
+                }
+                if ( --heldLock.references == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    release( lockType, heldLock.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private void release( LockType lockType, ResourceLock lock )
+    {
+        boolean retired = lockType == EXCLUSIVE ? lock.releaseExclusive( this ) : lock.releaseShared( this );
+        if ( retired )
+        {
+            manager.remove( lock );
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // wake up and terminate waiters
+            wakeUpAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        wakeUpAndWaitForClientsToLeave();
+        releaseLocks();
+        transactionId = INVALID_TRANSACTION_ID;
+    }
+
+    private void wakeUpAndWaitForClientsToLeave()
+    {
+        while ( stateHolder.hasActiveClients() )
+        {
+            wakeUp();
+            LockSupport.parkNanos( MILLISECONDS.toNanos( 1 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        // Exclusive locks first, so that waiters for a lock this client holds both ways don't wake up only to find it still locked
+        releaseAll( EXCLUSIVE, exclusiveLocks );
+        releaseAll( SHARED, sharedLocks );
+    }
+
+    private void releaseAll( LockType lockType, MutableLongObjectMap<HeldLock>[] locks )
+    {
+        for ( MutableLongObjectMap<HeldLock> localLocks : locks )
+        {
+            localLocks.forEachValue( heldLock -> release( lockType, heldLock.lock ) );
+            localLocks.clear();
+        }
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return id;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( locks, EXCLUSIVE, exclusiveLocks );
+        collectActiveLocks( locks, SHARED, sharedLocks );
+        return locks.stream();
+    }
+
+    private void collectActiveLocks( List<ActiveLock> activeLocks, LockType lockType, MutableLongObjectMap<HeldLock>[] locks )
+    {
+        for ( MutableLongObjectMap<HeldLock> localLocks : locks )
+        {
+            localLocks.forEachValue( heldLock ->
+                    activeLocks.add( new ActiveLock( heldLock.lock.resourceType(), lockType, transactionId, heldLock.lock.resourceId() ) ) );
+        }
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long count = 0;
+        for ( int i = 0; i < sharedLocks.length; i++ )
+        {
+            count += sharedLocks[i].size() + exclusiveLocks[i].size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "StripedLockClient[%d for transaction: %d]", id, transactionId );
+    }
+
+    private static class HeldLock
+    {
+        private final ResourceLock lock;
+        private int references = 1;
+
+        HeldLock( ResourceLock lock )
+        {
+            this.lock = lock;
+        }
+    }
+}
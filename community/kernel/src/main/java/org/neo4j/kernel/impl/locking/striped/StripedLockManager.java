@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.jctools.maps.NonBlockingHashMapLong;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * {@link Locks} implementation built for many concurrent clients. Unlike the community lock manager, which guards all its locks
+ * with a single monitor, locks live in lock tables per {@link ResourceType}, each split into stripes by resource id. The tables are lock-free
+ * maps and each {@link ResourceLock} is updated using compare-and-set, so clients only contend when they actually want the same resource.
+ * <p>
+ * Clients that have to wait park their thread until a release wakes them up. Deadlock detection is done by the waiting client itself,
+ * following the wait-for graph, but only for waits that last longer than a threshold since most waits are short.
+ */
+public class StripedLockManager implements Locks
+{
+    private final NonBlockingHashMapLong<ResourceLock>[][] lockTables;
+    private final ResourceType[] resourceTypes;
+    private final int stripeMask;
+    private final SystemNanoClock clock;
+    private final AtomicInteger clientIds = new AtomicInteger();
+
+    /**
+     * Time within which any particular lock should be acquired.
+     * @see GraphDatabaseSettings#lock_acquisition_timeout
+     */
+    private final long lockAcquisitionTimeoutNanos;
+    private volatile boolean closed;
+
+    public StripedLockManager( Config config, SystemNanoClock clock, ResourceType... resourceTypes )
+    {
+        this( config, clock, Runtime.getRuntime().availableProcessors(), resourceTypes );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    StripedLockManager( Config config, SystemNanoClock clock, int concurrency, ResourceType... resourceTypes )
+    {
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNanos = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toNanos();
+        int stripes = Integer.highestOneBit( Math.max( concurrency, 1 ) * 2 - 1 );
+        this.stripeMask = stripes - 1;
+
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        this.resourceTypes = new ResourceType[maxTypeId + 1];
+        this.lockTables = new NonBlockingHashMapLong[maxTypeId + 1][];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            this.resourceTypes[resourceType.typeId()] = resourceType;
+            NonBlockingHashMapLong<ResourceLock>[] stripedTable = new NonBlockingHashMapLong[stripes];
+            for ( int i = 0; i < stripes; i++ )
+            {
+                stripedTable[i] = new NonBlockingHashMapLong<>();
+            }
+            this.lockTables[resourceType.typeId()] = stripedTable;
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        // We check this volatile closed flag here, which may seem like a contention overhead, but as the time
+        // of writing we apply pooling of transactions and in extension pooling of lock clients,
+        // so this method is called very rarely.
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clientIds.incrementAndGet(), clock, lockAcquisitionTimeoutNanos, resourceTypes.length );
+    }
+
+    /**
+     * @return the current lock of the given resource, created if nobody has it. The lock may get retired before the caller gets to acquire it.
+     */
+    ResourceLock lock( ResourceType resourceType, long resourceId )
+    {
+        NonBlockingHashMapLong<ResourceLock> table = lockTable( resourceType, resourceId );
+        ResourceLock lock = table.get( resourceId );
+        if ( lock == null )
+        {
+            ResourceLock created = new ResourceLock( resourceType, resourceId );
+            lock = table.putIfAbsent( resourceId, created );
+            if ( lock == null )
+            {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Removes a lock that has been retired after its last holder released it.
+     */
+    void remove( ResourceLock lock )
+    {
+        lockTable( lock.resourceType(), lock.resourceId() ).remove( lock.resourceId(), lock );
+    }
+
+    private NonBlockingHashMapLong<ResourceLock> lockTable( ResourceType resourceType, long resourceId )
+    {
+        NonBlockingHashMapLong<ResourceLock>[] stripedTable = lockTables[resourceType.typeId()];
+        if ( stripedTable == null )
+        {
+            throw new IllegalArgumentException( "Unknown resource type " + resourceType );
+        }
+        return stripedTable[stripe( resourceId )];
+    }
+
+    private int stripe( long resourceId )
+    {
+        // Spread the ids so that sequences of ids end up in different stripes
+        return (int) ((resourceId * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( NonBlockingHashMapLong<ResourceLock>[] stripedTable : lockTables )
+        {
+            if ( stripedTable == null )
+            {
+                continue;
+            }
+            for ( NonBlockingHashMapLong<ResourceLock> table : stripedTable )
+            {
+                for ( ResourceLock lock : table.values() )
+                {
+                    visit( visitor, lock );
+                }
+            }
+        }
+    }
+
+    private void visit( Visitor visitor, ResourceLock lock )
+    {
+        ResourceLock.Holders holders = lock.holders();
+        if ( holders.exclusive == null && holders.shared.length == 0 )
+        {
+            return;
+        }
+        String description = lock.toString();
+        long waitTime = lock.maxWaitTimeMillis( clock );
+        long lockIdentityHashCode = System.identityHashCode( lock );
+        if ( holders.exclusive != null )
+        {
+            visitor.visit( LockType.EXCLUSIVE, lock.resourceType(), holders.exclusive.transactionId(), lock.resourceId(), description, waitTime,
+                    lockIdentityHashCode );
+        }
+        for ( StripedLockClient holder : holders.shared )
+        {
+            if ( holder == holders.exclusive )
+            {
+                // Visited once per client, as holding the exclusive lock
+                continue;
+            }
+            visitor.visit( LockType.SHARED, lock.resourceType(), holder.transactionId(), lock.resourceId(), description, waitTime, lockIdentityHashCode );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
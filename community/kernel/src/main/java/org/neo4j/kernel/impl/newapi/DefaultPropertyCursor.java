@@ -69,7 +69,7 @@ public class DefaultPropertyCursor extends TraceableCursor implements PropertyCu
 
         init( read, assertOpen );
         this.type = NODE;
-        storeCursor.initNodeProperties( reference );
+        storeCursor.initNodeProperties( reference, nodeReference );
         this.entityReference = nodeReference;
 
         // Transaction state
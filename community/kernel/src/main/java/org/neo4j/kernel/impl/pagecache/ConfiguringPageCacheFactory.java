@@ -95,7 +95,9 @@ public class ConfiguringPageCacheFactory
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
         var bufferFactory = new ConfigurableIOBufferFactory( config, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory );
+        var partitioning = PageCachePartitions.partitioning( config );
+        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory,
+                partitioning );
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
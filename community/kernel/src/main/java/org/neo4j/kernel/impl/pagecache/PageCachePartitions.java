@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.pagecache.PageCachePartitioning;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_partition_max;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_partition_reserved;
+
+/**
+ * Builds the {@link PageCachePartitioning} of the page cache from the
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_partition_reserved} and
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_partition_max} settings, and decides which type of
+ * database file a mapped file is.
+ */
+public final class PageCachePartitions
+{
+    public static final String STORE_FILE_TYPE = "store";
+    public static final String INDEX_FILE_TYPE = "index";
+    public static final String COUNTS_FILE_TYPE = "counts";
+    public static final String ID_FILE_TYPE = "id";
+
+    private static final String ID_FILE_SUFFIX = ".id";
+
+    private PageCachePartitions()
+    {
+    }
+
+    public static PageCachePartitioning partitioning( Config config )
+    {
+        Map<String,Long> reservedBytes = parsePartitionSizes( config, pagecache_partition_reserved );
+        Map<String,Long> maxBytes = parsePartitionSizes( config, pagecache_partition_max );
+        if ( reservedBytes.isEmpty() && maxBytes.isEmpty() )
+        {
+            return PageCachePartitioning.NONE;
+        }
+        return new PageCachePartitioning( reservedBytes, maxBytes, PageCachePartitions::fileType );
+    }
+
+    /**
+     * @return the type of database file the given file is; one of {@link #STORE_FILE_TYPE}, {@link #INDEX_FILE_TYPE},
+     * {@link #COUNTS_FILE_TYPE} or {@link #ID_FILE_TYPE}.
+     */
+    static String fileType( Path path )
+    {
+        String fileName = path.getFileName().toString();
+        if ( fileName.endsWith( ID_FILE_SUFFIX ) )
+        {
+            return ID_FILE_TYPE;
+        }
+        Optional<DatabaseFile> databaseFile = DatabaseFile.fileOf( fileName );
+        if ( databaseFile.isEmpty() )
+        {
+            // Everything that is not a store file, like the files in the schema directory, is an index.
+            return INDEX_FILE_TYPE;
+        }
+        switch ( databaseFile.get() )
+        {
+        case COUNTS_STORE:
+        case DEGREES_STORE:
+            return COUNTS_FILE_TYPE;
+        case LABEL_SCAN_STORE:
+        case RELATIONSHIP_TYPE_SCAN_STORE:
+        case INDEX_STATISTICS_STORE:
+            return INDEX_FILE_TYPE;
+        default:
+            return STORE_FILE_TYPE;
+        }
+    }
+
+    private static Map<String,Long> parsePartitionSizes( Config config, Setting<List<String>> setting )
+    {
+        Map<String,Long> sizes = new HashMap<>();
+        for ( String entry : config.get( setting ) )
+        {
+            int separator = entry.lastIndexOf( '=' );
+            String partition = separator == -1 ? "" : entry.substring( 0, separator ).trim();
+            if ( partition.isEmpty() )
+            {
+                throw invalidEntry( setting, entry, null );
+            }
+            try
+            {
+                sizes.put( partition, ByteUnit.parse( entry.substring( separator + 1 ).trim() ) );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw invalidEntry( setting, entry, e );
+            }
+        }
+        return sizes;
+    }
+
+    private static IllegalArgumentException invalidEntry( Setting<List<String>> setting, String entry, Exception cause )
+    {
+        return new IllegalArgumentException( "Invalid page cache partition '" + entry + "' in '" + setting.name() +
+                "'. Expected an entry of the form `<partition>=<size>`, like `neo4j/index=512m`.", cause );
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Profiles which pages of the database files are in the page cache, and loads those pages back in when the database
+ * starts, so that a restarted database does not have to fault its working set back in one page at a time.
+ * <p>
+ * Every {@link GraphDatabaseSettings#pagecache_warmup_profiling_interval profiling interval}, a profile is written for
+ * every file the database has mapped. A profile is a gzip compressed bitmap with one bit per file page, which is set if
+ * the page was in memory. Profiles are kept in the {@value #PROFILES_DIRECTORY_NAME} directory of the database
+ * directory, under the same relative paths as the files they profile, and are replaced atomically.
+ * <p>
+ * When started, the pages recorded in the profiles are loaded by {@link GraphDatabaseSettings#pagecache_warmup_threads}
+ * threads, with every run of consecutive pages loaded using {@link PagedFile#touch(long, int, PageCursorTracer)}.
+ * If {@link GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, whole files are loaded instead. Unless
+ * {@link GraphDatabaseSettings#pagecache_warmup_blocking} is disabled, starting waits for the warmup to complete.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILES_DIRECTORY_NAME = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String PROFILER_TAG = "pageCacheProfiler";
+    private static final String WARMER_TAG = "pageCacheWarmer";
+    // Each file is warmed up in segments of this many pages, which are the units of work spread over the warmup threads.
+    private static final int SEGMENT_PAGES = 8192;
+    private static final int PROGRESS_REPORT_PERCENT_STEP = 10;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profilesDirectory;
+    private final Config config;
+    private final PageCacheTracer pageCacheTracer;
+    private final Log log;
+    private final List<JobHandle<?>> warmupHandles = new ArrayList<>();
+    private final AtomicInteger remainingSegments = new AtomicInteger();
+    private final AtomicLong pagesLoaded = new AtomicLong();
+    private final AtomicInteger reportedPercent = new AtomicInteger();
+    private volatile boolean stopped;
+    private long pagesToLoad;
+    private long warmupStartMillis;
+    private JobHandle<?> profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, Config config,
+            PageCacheTracer pageCacheTracer, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory.toAbsolutePath().normalize();
+        this.profilesDirectory = this.databaseDirectory.resolve( PROFILES_DIRECTORY_NAME );
+        this.config = config;
+        this.pageCacheTracer = pageCacheTracer;
+        this.log = log;
+    }
+
+    @Override
+    public synchronized void start() throws Exception
+    {
+        if ( !config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        try
+        {
+            startWarmup();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Page cache warmup failed to start.", e );
+        }
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_blocking ) )
+        {
+            awaitWarmup();
+        }
+        if ( !config.get( GraphDatabaseSettings.read_only ) )
+        {
+            long intervalMillis = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+            profileHandle = scheduler.scheduleRecurring( Group.PAGE_CACHE_WARMER, systemJob( "Profiling of the page cache" ), this::profileQuietly,
+                    intervalMillis, intervalMillis, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws Exception
+    {
+        stopped = true;
+        if ( profileHandle != null )
+        {
+            profileHandle.cancel();
+            profileHandle = null;
+        }
+        awaitWarmup();
+    }
+
+    private void startWarmup() throws IOException
+    {
+        boolean preload = config.get( GraphDatabaseSettings.pagecache_warmup_prefetch );
+        Pattern whitelist = Pattern.compile( config.get( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist ) );
+        List<WarmupSegment> segments = new ArrayList<>();
+        long profiledPages = 0;
+        int files = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            long filePages = pagedFile.getLastPageId() + 1;
+            byte[] bitmap;
+            if ( preload )
+            {
+                if ( !whitelist.matcher( pagedFile.path().getFileName().toString() ).matches() )
+                {
+                    continue;
+                }
+                bitmap = null;
+            }
+            else
+            {
+                bitmap = readProfile( pagedFile );
+                if ( bitmap == null )
+                {
+                    continue;
+                }
+                filePages = Math.min( filePages, (long) bitmap.length * Byte.SIZE );
+            }
+            long filePagesToLoad = 0;
+            for ( long start = 0; start < filePages; start += SEGMENT_PAGES )
+            {
+                long end = Math.min( filePages, start + SEGMENT_PAGES );
+                long segmentPagesToLoad = bitmap == null ? end - start : countProfiledPages( bitmap, start, end );
+                if ( segmentPagesToLoad > 0 )
+                {
+                    segments.add( new WarmupSegment( pagedFile, bitmap, start, end ) );
+                    filePagesToLoad += segmentPagesToLoad;
+                }
+            }
+            if ( filePagesToLoad > 0 )
+            {
+                files++;
+                profiledPages += filePagesToLoad;
+            }
+        }
+        if ( segments.isEmpty() )
+        {
+            return;
+        }
+
+        pagesToLoad = Math.min( profiledPages, pageCache.maxCachedPages() );
+        pagesLoaded.set( 0 );
+        reportedPercent.set( 0 );
+        remainingSegments.set( segments.size() );
+        warmupStartMillis = System.currentTimeMillis();
+        log.info( "Page cache warmup started. Loading %d pages of %d files, using %d segments.", pagesToLoad, files, segments.size() );
+        for ( WarmupSegment segment : segments )
+        {
+            warmupHandles.add( scheduler.schedule( Group.PAGE_CACHE_WARMER, systemJob( "Warmup of the page cache" ), segment ) );
+        }
+    }
+
+    private void awaitWarmup() throws InterruptedException
+    {
+        for ( JobHandle<?> handle : warmupHandles )
+        {
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( ExecutionException e )
+            {
+                // The segments catch and log their own failures, so this is not expected to happen.
+                log.warn( "Page cache warmup failed.", e );
+            }
+        }
+        warmupHandles.clear();
+    }
+
+    private boolean isWarmingUp()
+    {
+        return remainingSegments.get() > 0;
+    }
+
+    private void segmentDone()
+    {
+        if ( remainingSegments.decrementAndGet() == 0 )
+        {
+            long elapsedMillis = System.currentTimeMillis() - warmupStartMillis;
+            log.info( "Page cache warmup %s. %d pages loaded in %d ms.", stopped ? "stopped" : "completed", pagesLoaded.get(), elapsedMillis );
+        }
+    }
+
+    private boolean addLoadedPages( long pages )
+    {
+        long loaded = pagesLoaded.addAndGet( pages );
+        int percent = (int) (loaded * 100 / Math.max( 1, pagesToLoad ));
+        int reported = reportedPercent.get();
+        if ( percent >= reported + PROGRESS_REPORT_PERCENT_STEP && percent < 100 &&
+             reportedPercent.compareAndSet( reported, percent - percent % PROGRESS_REPORT_PERCENT_STEP ) )
+        {
+            log.info( "Page cache warmup %d%% done. %d of %d pages loaded.", percent, loaded, pagesToLoad );
+        }
+        // Loading more pages than fit in the cache would only evict the pages we have already loaded.
+        return loaded < pagesToLoad;
+    }
+
+    private void profileQuietly()
+    {
+        if ( stopped || isWarmingUp() )
+        {
+            // A profile of a cache that is still warming up would be less complete than the profile we are warming up from.
+            return;
+        }
+        try
+        {
+            profile();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Write a profile of every mapped file of the database, recording which of its pages are currently in memory.
+     */
+    void profile() throws IOException
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PROFILER_TAG ) )
+        {
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                if ( stopped )
+                {
+                    return;
+                }
+                Path profile = profileOf( pagedFile );
+                if ( profile != null && !pagedFile.isDeleteOnClose() )
+                {
+                    writeProfile( pagedFile, profile, cursorTracer );
+                }
+            }
+        }
+    }
+
+    private void writeProfile( PagedFile pagedFile, Path profile, PageCursorTracer cursorTracer ) throws IOException
+    {
+        Path temporaryProfile = profile.resolveSibling( profile.getFileName() + TEMPORARY_SUFFIX );
+        fs.mkdirs( profile.getParent().toFile() );
+        // A transient no-fault cursor only observes which pages are in memory, without loading them or adding to their usage.
+        try ( OutputStream out = new GZIPOutputStream( new BufferedOutputStream( fs.openAsOutputStream( temporaryProfile.toFile(), false ) ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT | PF_TRANSIENT, cursorTracer ) )
+        {
+            int bits = 0;
+            int bitCount = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << bitCount;
+                }
+                if ( ++bitCount == Byte.SIZE )
+                {
+                    out.write( bits );
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+            if ( bitCount > 0 )
+            {
+                out.write( bits );
+            }
+        }
+        fs.renameFile( temporaryProfile.toFile(), profile.toFile(), ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    private byte[] readProfile( PagedFile pagedFile )
+    {
+        Path profile = profileOf( pagedFile );
+        if ( profile == null || !fs.fileExists( profile.toFile() ) )
+        {
+            return null;
+        }
+        try ( InputStream in = new GZIPInputStream( new BufferedInputStream( fs.openAsInputStream( profile.toFile() ) ) ) )
+        {
+            return in.readAllBytes();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Ignoring unreadable page cache profile " + profile + ".", e );
+            return null;
+        }
+    }
+
+    private Path profileOf( PagedFile pagedFile )
+    {
+        Path path = pagedFile.path().toAbsolutePath().normalize();
+        if ( !path.startsWith( databaseDirectory ) || path.startsWith( profilesDirectory ) )
+        {
+            return null;
+        }
+        return profilesDirectory.resolve( databaseDirectory.relativize( path ).toString() + PROFILE_SUFFIX );
+    }
+
+    private static boolean isProfiled( byte[] bitmap, long pageId )
+    {
+        return (bitmap[(int) (pageId / Byte.SIZE)] & (1 << (pageId % Byte.SIZE))) != 0;
+    }
+
+    private static long countProfiledPages( byte[] bitmap, long start, long end )
+    {
+        long count = 0;
+        for ( long pageId = start; pageId < end; pageId++ )
+        {
+            if ( isProfiled( bitmap, pageId ) )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private class WarmupSegment implements Runnable
+    {
+        private final PagedFile pagedFile;
+        private final byte[] bitmap;
+        private final long start;
+        private final long end;
+
+        WarmupSegment( PagedFile pagedFile, byte[] bitmap, long start, long end )
+        {
+            this.pagedFile = pagedFile;
+            this.bitmap = bitmap;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run()
+        {
+            try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WARMER_TAG ) )
+            {
+                long pageId = start;
+                while ( pageId < end && !stopped )
+                {
+                    if ( bitmap != null && !isProfiled( bitmap, pageId ) )
+                    {
+                        pageId++;
+                        continue;
+                    }
+                    long runEnd = pageId + 1;
+                    while ( runEnd < end && (bitmap == null || isProfiled( bitmap, runEnd )) )
+                    {
+                        runEnd++;
+                    }
+                    int runLength = (int) (runEnd - pageId);
+                    int touched = pagedFile.touch( pageId, runLength, cursorTracer );
+                    if ( !addLoadedPages( touched ) || touched < runLength )
+                    {
+                        return;
+                    }
+                    pageId = runEnd;
+                }
+            }
+            catch ( Exception e )
+            {
+                log.warn( "Page cache warmup of " + pagedFile.path() + " failed.", e );
+            }
+            finally
+            {
+                segmentDone();
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CompressingLogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -61,6 +62,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final Health databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressCommands;
 
     private FlushablePositionAwareChecksumChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -69,17 +71,28 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
     {
-        this.logFile = logFiles.getLogFile();
-        this.logRotation = logRotation;
-        this.transactionIdStore = transactionIdStore;
-        this.databaseHealth = databaseHealth;
-        this.transactionMetadataCache = transactionMetadataCache;
-        this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, false );
+    }
+
+    /**
+     * @param compressCommands whether or not to write the commands of each transaction as a compressed entry, see {@link CompressingLogEntryWriter}.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, boolean compressCommands )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth,
+                transactionIdStore.getLastCommittedTransaction().checksum(), compressCommands );
     }
 
     @VisibleForTesting
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth, int previousChecksum )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, previousChecksum, false );
+    }
+
+    private BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, int previousChecksum, boolean compressCommands )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -87,13 +100,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
         this.previousChecksum = previousChecksum;
+        this.compressCommands = compressCommands;
     }
 
     @Override
     public void start()
     {
         this.writer = logFile.getWriter();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        LogEntryWriter logEntryWriter = compressCommands ? new CompressingLogEntryWriter( writer ) : new LogEntryWriter( writer );
+        this.transactionLogWriter = new TransactionLogWriter( logEntryWriter );
     }
 
     @Override
@@ -47,13 +47,20 @@ public class LoggingLogFileMonitor implements RecoveryMonitor, RecoveryStartInfo
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void recoveryProgress( int numberOfRecoveredTransactions, long transactionsPerSecond )
+    {
+        log.info( format( "Recovered %d transactions so far, currently at %d transactions/s", numberOfRecoveredTransactions, transactionsPerSecond ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         if ( numberOfRecoveredTransactions != 0 )
         {
-            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered, time spent: %s", numberOfRecoveredTransactions,
-                    firstTransactionRecovered, lastTransactionRecovered, duration( recoveryTimeInMilliseconds ) ) );
+            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered, time spent: %s, %d transactions/s",
+                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered, duration( recoveryTimeInMilliseconds ),
+                    numberOfRecoveredTransactions * 1000L / Math.max( 1, recoveryTimeInMilliseconds ) ) );
         }
         else
         {
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.jctools.queues.MpscArrayQueue;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CompressingLogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import static org.neo4j.internal.helpers.Exceptions.throwIfInstanceOf;
+import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
+import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Appends transactions to the transaction log from a single, dedicated log writer thread.
+ * <p>
+ * Committing threads put their batch of transactions in a bounded, lock-free queue and park until the log writer has
+ * acknowledged them. The log writer drains everything that has queued up since its last round, appends it all to the
+ * log, forces the log once, and then wakes the committers up. The committers thus never contend on the log file
+ * monitor, and the number of transactions that share a force grows with the commit rate, instead of with the
+ * number of threads that happen to be waiting for a force.
+ * <p>
+ * This is an alternative to the {@link BatchingTransactionAppender}, and must not be used together with it on the same log.
+ */
+public class PipelinedTransactionAppender extends LifecycleAdapter implements TransactionAppender
+{
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
+    private final MpscArrayQueue<AppendRequest> queue;
+    private final int maxBatchSize;
+    private final TransactionMetadataCache transactionMetadataCache;
+    private final LogFile logFile;
+    private final LogRotation logRotation;
+    private final TransactionIdStore transactionIdStore;
+    private final LogPositionMarker positionMarker = new LogPositionMarker();
+    private final Health databaseHealth;
+    private final JobScheduler scheduler;
+    private final String databaseName;
+    private final boolean compressCommands;
+
+    private FlushablePositionAwareChecksumChannel writer;
+    private TransactionLogWriter transactionLogWriter;
+    private int previousChecksum; // Only accessed by the log writer thread, or under the logFile monitor.
+    private JobHandle<?> writerHandle;
+    private volatile Thread writerThread;
+    private volatile boolean stopped;
+    private volatile boolean terminated;
+
+    public PipelinedTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, JobScheduler scheduler, String databaseName, int queueSize,
+            boolean compressCommands )
+    {
+        this.logFile = logFiles.getLogFile();
+        this.logRotation = logRotation;
+        this.transactionIdStore = transactionIdStore;
+        this.databaseHealth = databaseHealth;
+        this.transactionMetadataCache = transactionMetadataCache;
+        this.scheduler = scheduler;
+        this.databaseName = databaseName;
+        this.compressCommands = compressCommands;
+        this.queue = new MpscArrayQueue<>( queueSize );
+        this.maxBatchSize = queue.capacity();
+        this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
+    }
+
+    @Override
+    public void start()
+    {
+        this.writer = logFile.getWriter();
+        LogEntryWriter logEntryWriter = compressCommands ? new CompressingLogEntryWriter( writer ) : new LogEntryWriter( writer );
+        this.transactionLogWriter = new TransactionLogWriter( logEntryWriter );
+        stopped = false;
+        terminated = false;
+        writerHandle = scheduler.schedule( Group.LOG_WRITER, systemJob( databaseName, "Transaction log writer" ), this::writeLoop );
+    }
+
+    @Override
+    public void stop() throws ExecutionException, InterruptedException
+    {
+        stopped = true;
+        LockSupport.unpark( writerThread );
+        writerHandle.waitTermination();
+    }
+
+    @Override
+    public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        // Assert that kernel is healthy before making any changes
+        databaseHealth.assertHealthy( IOException.class );
+        AppendRequest request = new AppendRequest( batch, logAppendEvent );
+        try ( LogForceWaitEvent logForceWaitEvent = logAppendEvent.beginLogForceWait() )
+        {
+            while ( !queue.offer( request ) )
+            {
+                // The log writer is behind, so we help it by backing off until there is room.
+                checkWriterRunning();
+                LockSupport.parkNanos( this, 1 );
+            }
+            LockSupport.unpark( writerThread );
+            while ( !request.done )
+            {
+                checkWriterRunning();
+                LockSupport.parkNanos( this, PARK_NANOS );
+            }
+        }
+        if ( request.failure != null )
+        {
+            // The log writer has already panicked the database, so all that remains is to tell the committer what went wrong.
+            throwIfUnchecked( request.failure );
+            throwIfInstanceOf( request.failure, IOException.class );
+            throw new IOException( "Failed to append transactions to the transaction log.", request.failure );
+        }
+
+        // Mark all transactions as committed
+        publishAsCommitted( batch );
+        return request.lastTransactionId;
+    }
+
+    @Override
+    public void checkPoint( LogPosition logPosition, LogCheckPointEvent logCheckPointEvent ) throws IOException
+    {
+        Flushable flushable;
+        // Synchronized with logFile to get absolute control over concurrent rotations, and appends from the log writer
+        synchronized ( logFile )
+        {
+            try
+            {
+                LogPosition logPositionBeforeCheckpoint = writer.getCurrentPosition( positionMarker ).newPosition();
+                transactionLogWriter.checkPoint( logPosition );
+                LogPosition logPositionAfterCheckpoint = writer.getCurrentPosition( positionMarker ).newPosition();
+                logCheckPointEvent.appendToLogFile( logPositionBeforeCheckpoint, logPositionAfterCheckpoint );
+                flushable = writer.prepareForFlush();
+            }
+            catch ( Throwable cause )
+            {
+                databaseHealth.panic( cause );
+                throw cause;
+            }
+        }
+        try ( LogForceEvent logForceEvent = logCheckPointEvent.beginLogForce() )
+        {
+            flush( flushable );
+        }
+        catch ( Throwable cause )
+        {
+            databaseHealth.panic( cause );
+            throw cause;
+        }
+    }
+
+    private void checkWriterRunning() throws IOException
+    {
+        if ( terminated )
+        {
+            throw new IOException( "The transaction log writer has been shut down." );
+        }
+    }
+
+    private void writeLoop()
+    {
+        writerThread = Thread.currentThread();
+        List<AppendRequest> requests = new ArrayList<>();
+        try
+        {
+            while ( !stopped || !queue.isEmpty() )
+            {
+                queue.drain( requests::add, maxBatchSize );
+                if ( requests.isEmpty() )
+                {
+                    LockSupport.parkNanos( this, PARK_NANOS );
+                    continue;
+                }
+                writeBatch( requests );
+                requests.clear();
+            }
+        }
+        finally
+        {
+            terminated = true;
+            writerThread = null;
+        }
+    }
+
+    private void writeBatch( List<AppendRequest> requests )
+    {
+        int appendBatchSize = 0;
+        boolean logRotated = false;
+        Throwable failure = null;
+        LogAppendEvent batchEvent = requests.get( 0 ).logAppendEvent;
+        try
+        {
+            Flushable flushable;
+            synchronized ( logFile )
+            {
+                databaseHealth.assertHealthy( IOException.class );
+                for ( AppendRequest request : requests )
+                {
+                    appendBatchSize += appendRequest( request );
+                }
+                flushable = writer.prepareForFlush();
+            }
+
+            // Force the writer outside of the lock, so a concurrent check point does not have to wait for it.
+            // The force makes the transactions of every request in the batch durable, so it is reported on all their events.
+            LogForceEvent[] logForceEvents = beginLogForces( requests );
+            try
+            {
+                flush( flushable );
+            }
+            finally
+            {
+                closeAll( logForceEvents );
+            }
+            logRotated = logRotation.rotateLogIfNeeded( batchEvent );
+        }
+        catch ( Throwable cause )
+        {
+            databaseHealth.panic( cause );
+            failure = cause;
+        }
+
+        for ( AppendRequest request : requests )
+        {
+            request.logAppendEvent.setAppendBatchSize( appendBatchSize );
+            request.logAppendEvent.setLogRotated( logRotated );
+            request.complete( failure );
+        }
+    }
+
+    private static LogForceEvent[] beginLogForces( List<AppendRequest> requests )
+    {
+        LogForceEvent[] events = new LogForceEvent[requests.size()];
+        for ( int i = 0; i < events.length; i++ )
+        {
+            events[i] = requests.get( i ).logAppendEvent.beginLogForce();
+        }
+        return events;
+    }
+
+    private static void closeAll( LogForceEvent[] events )
+    {
+        for ( LogForceEvent event : events )
+        {
+            event.close();
+        }
+    }
+
+    private int appendRequest( AppendRequest request ) throws IOException
+    {
+        int transactions = 0;
+        LogAppendEvent logAppendEvent = request.logAppendEvent;
+        try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+        {
+            TransactionToApply tx = request.batch;
+            while ( tx != null )
+            {
+                long transactionId = transactionIdStore.nextCommittingTransactionId();
+                matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent );
+                previousChecksum = commitment.getTransactionChecksum();
+                tx.commitment( commitment, transactionId );
+                tx.logPosition( commitment.logPosition() );
+                tx = tx.next();
+                request.lastTransactionId = transactionId;
+                transactions++;
+            }
+        }
+        return transactions;
+    }
+
+    private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
+    {
+        long expectedTransactionId = tx.transactionId();
+        if ( expectedTransactionId != TRANSACTION_ID_NOT_SPECIFIED && transactionId != expectedTransactionId )
+        {
+            throw new IllegalStateException( "Received " + tx.transactionRepresentation() + " with txId:" + expectedTransactionId +
+                    " to be applied, but appending it ended up generating an unexpected txId:" + transactionId );
+        }
+    }
+
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent )
+            throws IOException
+    {
+        LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+        int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum );
+        LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+        logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
+
+        transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, checksum, transaction.getTimeCommitted() );
+
+        return new TransactionCommitment( transactionId, checksum, transaction.getTimeCommitted(), logPositionAfterCommit, transactionIdStore );
+    }
+
+    private static void flush( Flushable flushable ) throws IOException
+    {
+        try
+        {
+            flushable.flush();
+        }
+        catch ( ClosedChannelException ignored )
+        {
+            // The buffer was emptied into the channel under the logFile monitor, so if the channel has been closed since,
+            // it is because the log has been rotated, and the rotation forced the channel for us.
+        }
+    }
+
+    private static void publishAsCommitted( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            batch.publishAsCommitted();
+            batch = batch.next();
+        }
+    }
+
+    /**
+     * A batch of transactions handed to the log writer, and the future-like outcome of appending them.
+     * The outcome fields are written by the log writer before the volatile {@link #done}, and read by the committer after it.
+     */
+    private static final class AppendRequest
+    {
+        final TransactionToApply batch;
+        final LogAppendEvent logAppendEvent;
+        final Thread committer;
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        Throwable failure;
+        volatile boolean done;
+
+        AppendRequest( TransactionToApply batch, LogAppendEvent logAppendEvent )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+            this.committer = Thread.currentThread();
+        }
+
+        void complete( Throwable failure )
+        {
+            this.failure = failure;
+            done = true;
+            LockSupport.unpark( committer );
+        }
+    }
+}
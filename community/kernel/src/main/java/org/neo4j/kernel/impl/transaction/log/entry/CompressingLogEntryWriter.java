@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.fs.WritableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.MAX_UNCOMPRESSED_COMMANDS_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
+
+/**
+ * {@link LogEntryWriter} that writes the commands of a transaction as a single zstd compressed
+ * {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entry, see {@link LogEntryParserSetV4_2}. Transactions that are too small to
+ * gain anything from compression, that are too large for {@link LogEntryParserSetV4_2#MAX_UNCOMPRESSED_COMMANDS_SIZE}, or that don't compress,
+ * have their commands written as ordinary command entries.
+ * All entries are written with the {@link LogEntryParserSetV4_2} version, so that the version never changes in the middle of
+ * a transaction.
+ */
+public class CompressingLogEntryWriter extends LogEntryWriter
+{
+    static final int MIN_COMPRESSIBLE_SIZE = 256;
+    private static final int COMPRESSION_LEVEL = 1;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private HeapChannel commands = new HeapChannel( INITIAL_BUFFER_SIZE );
+    private byte[] compressed = new byte[0];
+
+    public CompressingLogEntryWriter( WritableChecksumChannel channel )
+    {
+        super( channel, V4_2 );
+    }
+
+    @Override
+    public void serialize( TransactionRepresentation tx ) throws IOException
+    {
+        commands.clear();
+        tx.accept( command ->
+        {
+            command.serialize( commands );
+            return false;
+        } );
+        if ( !writeCompressed() )
+        {
+            super.serialize( tx );
+        }
+    }
+
+    @Override
+    public void serialize( Collection<StorageCommand> storageCommands ) throws IOException
+    {
+        commands.clear();
+        for ( StorageCommand command : storageCommands )
+        {
+            command.serialize( commands );
+        }
+        if ( !writeCompressed() )
+        {
+            super.serialize( storageCommands );
+        }
+    }
+
+    /**
+     * @return {@code true} if the serialized commands were written as a compressed entry, otherwise {@code false} and nothing was written.
+     */
+    private boolean writeCompressed() throws IOException
+    {
+        try
+        {
+            int uncompressedLength = commands.size();
+            if ( uncompressedLength < MIN_COMPRESSIBLE_SIZE || uncompressedLength > MAX_UNCOMPRESSED_COMMANDS_SIZE )
+            {
+                return false;
+            }
+
+            int bound = (int) Zstd.compressBound( uncompressedLength );
+            if ( compressed.length < bound )
+            {
+                compressed = new byte[bound];
+            }
+            long compressedLength = Zstd.compressByteArray( compressed, 0, bound, commands.array(), 0, uncompressedLength, COMPRESSION_LEVEL );
+            if ( Zstd.isError( compressedLength ) )
+            {
+                throw new IOException( "Unable to compress commands: " + Zstd.getErrorName( compressedLength ) );
+            }
+            if ( compressedLength >= uncompressedLength )
+            {
+                return false;
+            }
+
+            writeLogEntryHeader( version, COMPRESSED_COMMANDS, channel );
+            channel.putInt( uncompressedLength )
+                    .putInt( (int) compressedLength )
+                    .put( compressed, (int) compressedLength );
+            return true;
+        }
+        finally
+        {
+            if ( commands.capacity() > MAX_RETAINED_BUFFER_SIZE )
+            {
+                commands = new HeapChannel( INITIAL_BUFFER_SIZE );
+                compressed = new byte[0];
+            }
+        }
+    }
+
+    private static class HeapChannel implements WritableChannel
+    {
+        private ByteBuffer buffer;
+
+        HeapChannel( int initialSize )
+        {
+            buffer = ByteBuffer.allocate( initialSize );
+        }
+
+        void clear()
+        {
+            buffer.clear();
+        }
+
+        int size()
+        {
+            return buffer.position();
+        }
+
+        int capacity()
+        {
+            return buffer.capacity();
+        }
+
+        byte[] array()
+        {
+            return buffer.array();
+        }
+
+        @Override
+        public WritableChannel put( byte value )
+        {
+            ensureCapacity( Byte.BYTES ).put( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putShort( short value )
+        {
+            ensureCapacity( Short.BYTES ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putInt( int value )
+        {
+            ensureCapacity( Integer.BYTES ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putLong( long value )
+        {
+            ensureCapacity( Long.BYTES ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putFloat( float value )
+        {
+            ensureCapacity( Float.BYTES ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putDouble( double value )
+        {
+            ensureCapacity( Double.BYTES ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel put( byte[] value, int length )
+        {
+            ensureCapacity( length ).put( value, 0, length );
+            return this;
+        }
+
+        private ByteBuffer ensureCapacity( int bytes )
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                ByteBuffer larger = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() + bytes ) );
+                buffer.flip();
+                larger.put( buffer );
+                buffer = larger;
+            }
+            return buffer;
+        }
+    }
+}
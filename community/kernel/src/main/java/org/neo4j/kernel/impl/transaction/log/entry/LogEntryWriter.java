@@ -38,6 +38,7 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.LATEST
 public class LogEntryWriter
 {
     protected final WritableChecksumChannel channel;
+    protected final byte version;
     private final Visitor<StorageCommand,IOException> serializer;
 
     /**
@@ -45,14 +46,30 @@ public class LogEntryWriter
      * @param channel underlying channel
      */
     public LogEntryWriter( WritableChecksumChannel channel )
+    {
+        this( channel, LATEST );
+    }
+
+    /**
+     * Create a writer that writes all entries with the version of the given {@link LogEntryParserSet}.
+     * @param channel underlying channel
+     * @param parserSet parser set able to read the entries written by this writer
+     */
+    protected LogEntryWriter( WritableChecksumChannel channel, LogEntryParserSet parserSet )
     {
         this.channel = channel;
-        this.serializer = new StorageCommandSerializer( channel );
+        this.version = parserSet.version();
+        this.serializer = new StorageCommandSerializer( channel, version );
     }
 
     protected static void writeLogEntryHeader( byte type, WritableChannel channel ) throws IOException
     {
-        channel.put( LATEST.version() ).put( type );
+        writeLogEntryHeader( LATEST.version(), type, channel );
+    }
+
+    protected static void writeLogEntryHeader( byte version, byte type, WritableChannel channel ) throws IOException
+    {
+        channel.put( version ).put( type );
     }
 
     private void writeStartEntry( LogEntryStart entry ) throws IOException
@@ -65,7 +82,7 @@ public class LogEntryWriter
             int previousChecksum, byte[] additionalHeaderData ) throws IOException
     {
         channel.beginChecksum();
-        writeLogEntryHeader( TX_START, channel );
+        writeLogEntryHeader( version, TX_START, channel );
         channel.putLong( timeWritten )
                 .putLong( latestCommittedTxWhenStarted )
                 .putInt( previousChecksum )
@@ -80,7 +97,7 @@ public class LogEntryWriter
 
     public int writeCommitEntry( long transactionId, long timeWritten ) throws IOException
     {
-        writeLogEntryHeader( TX_COMMIT, channel );
+        writeLogEntryHeader( version, TX_COMMIT, channel );
         channel.putLong( transactionId )
                 .putLong( timeWritten );
         return channel.putChecksum();
@@ -109,7 +126,7 @@ public class LogEntryWriter
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         channel.beginChecksum();
-        writeLogEntryHeader( CHECK_POINT, channel );
+        writeLogEntryHeader( version, CHECK_POINT, channel );
         channel.putLong( logPosition.getLogVersion() )
                 .putLong( logPosition.getByteOffset() );
         channel.putChecksum();
@@ -30,16 +30,23 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMM
 public class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
 {
     private final WritableChannel channel;
+    private final byte version;
 
     public StorageCommandSerializer( WritableChannel channel )
+    {
+        this( channel, LogEntryVersion.LATEST.version() );
+    }
+
+    public StorageCommandSerializer( WritableChannel channel, byte version )
     {
         this.channel = channel;
+        this.version = version;
     }
 
     @Override
     public boolean visit( StorageCommand command ) throws IOException
     {
-        LogEntryWriter.writeLogEntryHeader( COMMAND, channel );
+        LogEntryWriter.writeLogEntryHeader( version, COMMAND, channel );
         command.serialize( channel );
         return false;
     }
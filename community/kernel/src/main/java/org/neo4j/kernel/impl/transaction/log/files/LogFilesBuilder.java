@@ -41,6 +41,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngineFactory;
@@ -49,6 +50,7 @@ import org.neo4j.storageengine.api.StoreIdProvider;
 import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.prepare_next_transaction_log_file;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
 
@@ -90,6 +92,7 @@ public class LogFilesBuilder
     private MemoryTracker memoryTracker = EmptyMemoryTracker.INSTANCE;
     private StoreId storeId;
     private NativeAccess nativeAccess;
+    private JobScheduler jobScheduler;
 
     private LogFilesBuilder()
     {
@@ -221,6 +224,12 @@ public class LogFilesBuilder
         return this;
     }
 
+    public LogFilesBuilder withJobScheduler( JobScheduler jobScheduler )
+    {
+        this.jobScheduler = jobScheduler;
+        return this;
+    }
+
     public LogFilesBuilder withStoreId( StoreId storeId )
     {
         this.storeId = storeId;
@@ -281,7 +290,16 @@ public class LogFilesBuilder
 
         return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
                 committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
-                logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker );
+                logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker, getNextLogFilePreparationScheduler() );
+    }
+
+    private JobScheduler getNextLogFilePreparationScheduler()
+    {
+        if ( readOnly || jobScheduler == null || !config.get( prepare_next_transaction_log_file ) )
+        {
+            return null;
+        }
+        return jobScheduler;
     }
 
     private NativeAccess getNativeAccess()
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.LongSupplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -33,20 +34,35 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_FORMAT_VERSION;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
 
 class TransactionLogChannelAllocator
 {
+    /**
+     * Name prefix of a log file that has been prepared ahead of rotation. The prefix keeps it out of the set of log files,
+     * until it is renamed into place by the rotation that needs it.
+     */
+    static final String PREPARED_FILE_PREFIX = "prepared.";
+
     private final TransactionLogFilesContext logFilesContext;
     private final FileSystemAbstraction fileSystem;
     private final TransactionLogFilesHelper fileHelper;
     private final LogHeaderCache logHeaderCache;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final JobScheduler preparationScheduler;
+    private final Log log;
+    private NextLogFilePreparation nextLogFilePreparation; // Guarded by 'this'.
 
     TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
             LogFileChannelNativeAccessor nativeChannelAccessor )
@@ -57,9 +73,18 @@ class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.preparationScheduler = logFilesContext.getNextLogFilePreparationScheduler();
+        this.log = logFilesContext.getLogProvider().getLog( getClass() );
     }
 
     PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
+    {
+        PhysicalLogVersionedStoreChannel channel = createChannel( version, lastCommittedTransactionId );
+        prepareNextLogFile( version + 1 );
+        return channel;
+    }
+
+    private PhysicalLogVersionedStoreChannel createChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
     {
         AllocatedFile allocatedFile = allocateFile( version );
         var storeChannel = allocatedFile.getStoreChannel();
@@ -136,10 +161,44 @@ class TransactionLogChannelAllocator
         }
     }
 
+    /**
+     * Delete prepared log files left over from a previous run. They were never renamed into place, so they hold no data.
+     */
+    void deletePreparedLogFiles()
+    {
+        File firstLogFile = fileHelper.getLogFileForVersion( 0 );
+        String logFileName = firstLogFile.getName();
+        String preparedFilePrefix = PREPARED_FILE_PREFIX + logFileName.substring( 0, logFileName.lastIndexOf( '.' ) + 1 );
+        File[] preparedFiles = fileSystem.listFiles( firstLogFile.getParentFile(), ( dir, name ) -> name.startsWith( preparedFilePrefix ) );
+        if ( preparedFiles != null )
+        {
+            for ( File preparedFile : preparedFiles )
+            {
+                fileSystem.deleteFile( preparedFile );
+            }
+        }
+    }
+
+    /**
+     * Wait for any ongoing preparation of the next log file to finish. The prepared file, if any, is deleted on the next start.
+     */
+    synchronized void stopPreparingNextLogFile()
+    {
+        if ( nextLogFilePreparation != null )
+        {
+            nextLogFilePreparation.awaitCompletion();
+        }
+    }
+
     private AllocatedFile allocateFile( long version ) throws IOException
     {
         File file = fileHelper.getLogFileForVersion( version );
         boolean fileExist = fileSystem.fileExists( file );
+        if ( !fileExist && usePreparedLogFile( version, file ) )
+        {
+            // The prepared file is already created, preallocated and forced, so there's nothing else to do here.
+            return new AllocatedFile( file, fileSystem.write( file ) );
+        }
         StoreChannel storeChannel = fileSystem.write( file );
         if ( fileExist )
         {
@@ -152,6 +211,95 @@ class TransactionLogChannelAllocator
         return new AllocatedFile( file, storeChannel );
     }
 
+    private synchronized boolean usePreparedLogFile( long version, File file ) throws IOException
+    {
+        NextLogFilePreparation preparation = nextLogFilePreparation;
+        nextLogFilePreparation = null;
+        if ( preparation == null )
+        {
+            return false;
+        }
+        // Usually the preparation finished long ago, but if not then waiting for it is no slower than allocating the file ourselves.
+        if ( !preparation.awaitCompletion() || preparation.version != version )
+        {
+            return false;
+        }
+        fileSystem.renameFile( preparation.file, file, ATOMIC_MOVE );
+        // The rename must be durable before anything is written to the file under its new name, or a crash could lose the whole file.
+        fileSystem.forceDirectory( file.getParentFile() );
+        return true;
+    }
+
+    private synchronized void prepareNextLogFile( long version )
+    {
+        if ( preparationScheduler == null || (nextLogFilePreparation != null && nextLogFilePreparation.version == version) )
+        {
+            return;
+        }
+        File logFile = fileHelper.getLogFileForVersion( version );
+        File preparedFile = new File( logFile.getParentFile(), PREPARED_FILE_PREFIX + logFile.getName() );
+        NextLogFilePreparation preparation = new NextLogFilePreparation( version, preparedFile );
+        preparation.handle = preparationScheduler.schedule( Group.FILE_IO_HELPER, systemJob( "Preparation of transaction log file " + logFile ),
+                preparation::prepare );
+        nextLogFilePreparation = preparation;
+    }
+
+    private class NextLogFilePreparation
+    {
+        private final long version;
+        private final File file;
+        private JobHandle<?> handle;
+        private volatile boolean prepared;
+
+        NextLogFilePreparation( long version, File file )
+        {
+            this.version = version;
+            this.file = file;
+        }
+
+        void prepare()
+        {
+            try
+            {
+                // The file might be left over from a previous run, in which case we just allocate it again.
+                try ( StoreChannel storeChannel = fileSystem.write( file ) )
+                {
+                    if ( logFilesContext.getTryPreallocateTransactionLogs().get() )
+                    {
+                        nativeChannelAccessor.preallocateSpace( storeChannel, version );
+                    }
+                    storeChannel.force( true );
+                }
+                prepared = true;
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Failed to prepare transaction log file " + file + ", it will instead be created when the log is rotated to it.", e );
+            }
+        }
+
+        /**
+         * @return {@code true} if the file was successfully prepared.
+         */
+        boolean awaitCompletion()
+        {
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            catch ( ExecutionException e )
+            {
+                return false;
+            }
+            return prepared;
+        }
+    }
+
     private static class AllocatedFile
     {
         private final File file;
@@ -70,6 +70,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     @Override
     public void init() throws IOException
     {
+        channelAllocator.deletePreparedLogFiles();
         logFile.init();
     }
 
@@ -82,6 +83,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     @Override
     public void shutdown() throws IOException
     {
+        channelAllocator.stopPreparingNextLogFile();
         logFile.shutdown();
     }
 
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StoreId;
 
@@ -49,11 +50,13 @@ class TransactionLogFilesContext
     private final Supplier<StoreId> storeId;
     private final NativeAccess nativeAccess;
     private final MemoryTracker memoryTracker;
+    private final JobScheduler nextLogFilePreparationScheduler;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
             Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
-            LogProvider logProvider, DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess, MemoryTracker memoryTracker )
+            LogProvider logProvider, DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess, MemoryTracker memoryTracker,
+            JobScheduler nextLogFilePreparationScheduler )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
@@ -68,6 +71,7 @@ class TransactionLogFilesContext
         this.storeId = storeId;
         this.nativeAccess = nativeAccess;
         this.memoryTracker = memoryTracker;
+        this.nextLogFilePreparationScheduler = nextLogFilePreparationScheduler;
     }
 
     AtomicLong getRotationThreshold()
@@ -134,4 +138,12 @@ class TransactionLogFilesContext
     {
         return memoryTracker;
     }
+
+    /**
+     * @return the scheduler to prepare the next log file on, ahead of rotation, or {@code null} if log files are created when they are rotated to.
+     */
+    JobScheduler getNextLogFilePreparationScheduler()
+    {
+        return nextLogFilePreparationScheduler;
+    }
 }
@@ -30,6 +30,7 @@ import org.neo4j.lock.LockService;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
+import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 /**
@@ -60,4 +61,17 @@ public class LabelViewNodeStoreScan<FAILURE extends Exception> extends NodeStore
     {
         return new TokenScanViewIdIterator<>( labelScanStore.newReader(), labelIds, entityCursor, cursorTracer );
     }
+
+    @Override
+    protected EntityIdIterator getEntityIdIterator( StorageNodeCursor cursor, long start, long stopInclusive, PageCursorTracer cursorTracer )
+    {
+        TokenScanViewIdIterator<StorageNodeCursor> iterator =
+                new TokenScanViewIdIterator<>( labelScanStore.newReader(), labelIds, cursor, cursorTracer, start, stopInclusive );
+        if ( iterator.reachedEnd() )
+        {
+            iterator.close();
+            return null;
+        }
+        return iterator;
+    }
 }
@@ -29,6 +29,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
@@ -63,7 +64,7 @@ public class NodeStoreScan<FAILURE extends Exception> extends PropertyAwareEntit
     }
 
     @Override
-    public boolean process( StorageNodeCursor cursor ) throws FAILURE
+    public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         long[] labels = cursor.labels();
         if ( labels.length == 0 && labelIds.length != 0 )
@@ -83,7 +84,7 @@ public class NodeStoreScan<FAILURE extends Exception> extends PropertyAwareEntit
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference(), true ).withTokens( labels );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
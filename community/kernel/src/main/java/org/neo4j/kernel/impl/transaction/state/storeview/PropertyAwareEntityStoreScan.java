@@ -21,53 +21,86 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
 
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.kernel.api.PopulationProgress;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.lock.Lock;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.internal.helpers.Exceptions.chain;
 import static org.neo4j.io.IOUtils.closeAllUnchecked;
 
 /**
  * Scan store with the view given by iterator created by {@link #getEntityIdIterator()}. This might be a full scan of the store
  * or a partial scan backed by {@link LabelScanStore} or {@link RelationshipTypeScanStore}.
  *
- * The {@link #entityCursor cursor} is placed on each record and then {@link #process(StorageEntityScanCursor) processed},
+ * The {@link #entityCursor cursor} is placed on each record and then {@link #process(StorageEntityScanCursor, StoragePropertyCursor) processed},
  * this is where we extract updates for indexes that we are populating.
  *
+ * When {@link #parallelize(int, JobScheduler, PageCacheTracer, ExternalUpdatesCheck) parallelized} the entity id space is instead split into
+ * ranges of {@link #RANGE_SIZE} ids, which workers reserve one at a time and read using iterators from
+ * {@link #getEntityIdIterator(StorageEntityScanCursor, long, long, PageCursorTracer)}. Ranges are reserved in id order and workers hold
+ * the read lock of {@link #rangeLock} while reading one, so when external updates are applied under the write lock all ids below
+ * the next range to reserve have been scanned and no id from it and onwards has.
+ *
  * @param <CURSOR> the type of cursor used to read the records.
  * @param <FAILURE> on failure during processing.
  */
 public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityScanCursor, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    static final int RANGE_SIZE = FeatureToggles.getInteger( PropertyAwareEntityStoreScan.class, "range_size", 10_000 );
+    private static final String SCAN_WORKER_TAG = "indexPopulationScanWorker";
+
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
     private final StorageReader storageReader;
+    private final PageCursorTracer cursorTracer;
+    private final MemoryTracker memoryTracker;
     private volatile boolean continueScanning;
-    private long count;
+    private final LongAdder count = new LongAdder();
     private final long totalCount;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
 
+    private int workers = 1;
+    private JobScheduler jobScheduler;
+    private PageCacheTracer pageCacheTracer;
+    private ExternalUpdatesCheck externalUpdatesCheck;
+    private final AtomicLong nextRangeStart = new AtomicLong();
+    private final ReentrantReadWriteLock rangeLock = new ReentrantReadWriteLock();
+
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
         this.storageReader = storageReader;
+        this.cursorTracer = cursorTracer;
+        this.memoryTracker = memoryTracker;
         this.entityCursor = allocateCursor( storageReader, cursorTracer );
         this.propertyCursor = storageReader.allocatePropertyCursor( cursorTracer, memoryTracker );
         this.propertyKeyIdFilter = propertyKeyIdFilter;
@@ -90,7 +123,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return false;
     }
 
-    boolean hasRelevantProperty( CURSOR cursor, EntityUpdates.Builder updates )
+    boolean hasRelevantProperty( CURSOR cursor, StoragePropertyCursor propertyCursor, EntityUpdates.Builder updates )
     {
         if ( !cursor.hasProperties() )
         {
@@ -118,6 +151,12 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     @Override
     public void run() throws FAILURE
     {
+        if ( workers > 1 )
+        {
+            runInParallel();
+            return;
+        }
+
         entityCursor.scan();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
@@ -128,8 +167,8 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
                 long id = entityIdIterator.next();
                 try ( Lock ignored = lockFunction.apply( id ) )
                 {
-                    count++;
-                    if ( process( entityCursor ) )
+                    count.increment();
+                    if ( process( entityCursor, propertyCursor ) )
                     {
                         entityIdIterator.invalidateCache();
                     }
@@ -142,6 +181,166 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
     }
 
+    @Override
+    public boolean parallelize( int workers, JobScheduler jobScheduler, PageCacheTracer pageCacheTracer, ExternalUpdatesCheck externalUpdatesCheck )
+    {
+        if ( workers <= 1 )
+        {
+            return false;
+        }
+        this.workers = workers;
+        this.jobScheduler = jobScheduler;
+        this.pageCacheTracer = pageCacheTracer;
+        this.externalUpdatesCheck = externalUpdatesCheck;
+        return true;
+    }
+
+    private void runInParallel() throws FAILURE
+    {
+        continueScanning = true;
+        List<JobHandle<Void>> additionalWorkers = new ArrayList<>();
+        Throwable failure = null;
+        try
+        {
+            for ( int i = 1; i < workers; i++ )
+            {
+                additionalWorkers.add( jobScheduler.schedule( Group.INDEX_POPULATION_SCAN, (Callable<Void>) this::runAdditionalWorker ) );
+            }
+            scanRanges( entityCursor, propertyCursor, cursorTracer );
+        }
+        catch ( Throwable t )
+        {
+            continueScanning = false;
+            failure = t;
+        }
+
+        boolean interrupted = false;
+        for ( JobHandle<Void> additionalWorker : additionalWorkers )
+        {
+            try
+            {
+                additionalWorker.waitTermination();
+            }
+            catch ( ExecutionException e )
+            {
+                continueScanning = false;
+                failure = chain( failure, e.getCause() );
+            }
+            catch ( InterruptedException e )
+            {
+                // Keep waiting, the workers use the storage reader that is closed below
+                continueScanning = false;
+                interrupted = true;
+            }
+        }
+        closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( failure != null )
+        {
+            throwFailure( failure );
+        }
+    }
+
+    private Void runAdditionalWorker() throws FAILURE
+    {
+        try ( PageCursorTracer workerCursorTracer = pageCacheTracer.createPageCursorTracer( SCAN_WORKER_TAG );
+              CURSOR cursor = allocateCursor( storageReader, workerCursorTracer );
+              StoragePropertyCursor workerPropertyCursor = storageReader.allocatePropertyCursor( workerCursorTracer, memoryTracker ) )
+        {
+            scanRanges( cursor, workerPropertyCursor, workerCursorTracer );
+        }
+        return null;
+    }
+
+    /**
+     * Reserves and scans ranges until there are no more entities or the scan is stopped. In between ranges this worker
+     * holds no lock, which is when external updates are applied if needed.
+     */
+    private void scanRanges( CURSOR cursor, StoragePropertyCursor propertyCursor, PageCursorTracer cursorTracer ) throws FAILURE
+    {
+        boolean moreRanges = true;
+        while ( continueScanning && moreRanges )
+        {
+            rangeLock.readLock().lock();
+            try
+            {
+                long start = nextRangeStart.getAndAdd( RANGE_SIZE );
+                moreRanges = scanRange( cursor, propertyCursor, start, start + RANGE_SIZE - 1, cursorTracer );
+            }
+            finally
+            {
+                rangeLock.readLock().unlock();
+            }
+            applyExternalUpdatesIfNeeded();
+        }
+    }
+
+    private boolean scanRange( CURSOR cursor, StoragePropertyCursor propertyCursor, long start, long stopInclusive, PageCursorTracer cursorTracer )
+            throws FAILURE
+    {
+        phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+        long scanned = 0;
+        try ( EntityIdIterator entityIdIterator = getEntityIdIterator( cursor, start, stopInclusive, cursorTracer ) )
+        {
+            if ( entityIdIterator == null )
+            {
+                return false;
+            }
+            while ( continueScanning && entityIdIterator.hasNext() )
+            {
+                long id = entityIdIterator.next();
+                try ( Lock ignored = lockFunction.apply( id ) )
+                {
+                    scanned++;
+                    process( cursor, propertyCursor );
+                }
+            }
+            return true;
+        }
+        finally
+        {
+            count.add( scanned );
+        }
+    }
+
+    private void applyExternalUpdatesIfNeeded()
+    {
+        if ( externalUpdatesCheck.needToApplyExternalUpdates() )
+        {
+            rangeLock.writeLock().lock();
+            try
+            {
+                // Another worker may have applied them while we waited for the lock
+                if ( externalUpdatesCheck.needToApplyExternalUpdates() )
+                {
+                    externalUpdatesCheck.applyExternalUpdates( nextRangeStart.get() - 1 );
+                }
+            }
+            finally
+            {
+                rangeLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void throwFailure( Throwable failure ) throws FAILURE
+    {
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        // Workers only throw what process can throw, i.e. FAILURE
+        throw (FAILURE) failure;
+    }
+
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
@@ -156,11 +355,12 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
      * Process the given {@code record}.
      *
      * @param cursor CURSOR with information to process.
+     * @param propertyCursor cursor to read the properties of the entity with, belonging to the same worker as {@code cursor}.
      * @return {@code true} if external updates have been applied such that the scan iterator needs to be 100% up to date with store,
      * i.e. invalidate any caches if it has any.
      * @throws FAILURE on failure.
      */
-    protected abstract boolean process( CURSOR cursor ) throws FAILURE;
+    protected abstract boolean process( CURSOR cursor, StoragePropertyCursor propertyCursor ) throws FAILURE;
 
     @Override
     public void stop()
@@ -173,7 +373,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     {
         if ( totalCount > 0 )
         {
-            return PopulationProgress.single( count, totalCount );
+            return PopulationProgress.single( count.sum(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -188,45 +388,67 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
 
     protected EntityIdIterator getEntityIdIterator()
     {
-        return new EntityIdIterator()
+        return new CursorEntityIdIterator( entityCursor );
+    }
+
+    /**
+     * Places {@code cursor} so that the returned iterator visits the entities with ids in the given range, for a parallel scan.
+     *
+     * @param cursor the cursor of the worker that will scan this range.
+     * @param start first entity id of the range.
+     * @param stopInclusive last entity id of the range.
+     * @param cursorTracer page cursor tracer of the worker that will scan this range.
+     * @return iterator over the entities in the range, or {@code null} if there are no entities from {@code start} and onwards.
+     */
+    protected EntityIdIterator getEntityIdIterator( CURSOR cursor, long start, long stopInclusive, PageCursorTracer cursorTracer )
+    {
+        return cursor.scanRange( start, stopInclusive ) ? new CursorEntityIdIterator( cursor ) : null;
+    }
+
+    private static class CursorEntityIdIterator implements EntityIdIterator
+    {
+        private final StorageEntityScanCursor cursor;
+        private boolean hasSeenNext;
+        private boolean hasNext;
+
+        CursorEntityIdIterator( StorageEntityScanCursor cursor )
         {
-            private boolean hasSeenNext;
-            private boolean hasNext;
+            this.cursor = cursor;
+        }
 
-            @Override
-            public void invalidateCache()
-            {
-                // Nothing to invalidate, we're reading directly from the store
-            }
+        @Override
+        public void invalidateCache()
+        {
+            // Nothing to invalidate, we're reading directly from the store
+        }
 
-            @Override
-            public long next()
+        @Override
+        public long next()
+        {
+            if ( !hasNext() )
             {
-                if ( !hasNext() )
-                {
-                    throw new IllegalStateException();
-                }
-                hasSeenNext = false;
-                hasNext = false;
-                return entityCursor.entityReference();
+                throw new IllegalStateException();
             }
+            hasSeenNext = false;
+            hasNext = false;
+            return cursor.entityReference();
+        }
 
-            @Override
-            public boolean hasNext()
+        @Override
+        public boolean hasNext()
+        {
+            if ( !hasSeenNext )
             {
-                if ( !hasSeenNext )
-                {
-                     hasNext = entityCursor.next();
-                     hasSeenNext = true;
-                }
-                return hasNext;
+                hasNext = cursor.next();
+                hasSeenNext = true;
             }
+            return hasNext;
+        }
 
-            @Override
-            public void close()
-            {
-                // Nothing to close
-            }
-        };
+        @Override
+        public void close()
+        {
+            // Nothing to close
+        }
     }
 }
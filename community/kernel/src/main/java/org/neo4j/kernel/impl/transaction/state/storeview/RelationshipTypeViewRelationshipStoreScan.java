@@ -30,6 +30,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
 public class RelationshipTypeViewRelationshipStoreScan<FAILURE extends Exception> extends RelationshipStoreScan<FAILURE>
 {
@@ -53,4 +54,17 @@ public class RelationshipTypeViewRelationshipStoreScan<FAILURE extends Exception
     {
         return new TokenScanViewIdIterator<>( relationshipTypeScanStore.newReader(), relationshipTypeIds, entityCursor, cursorTracer );
     }
+
+    @Override
+    protected EntityIdIterator getEntityIdIterator( StorageRelationshipScanCursor cursor, long start, long stopInclusive, PageCursorTracer cursorTracer )
+    {
+        TokenScanViewIdIterator<StorageRelationshipScanCursor> iterator =
+                new TokenScanViewIdIterator<>( relationshipTypeScanStore.newReader(), relationshipTypeIds, cursor, cursorTracer, start, stopInclusive );
+        if ( iterator.reachedEnd() )
+        {
+            iterator.close();
+            return null;
+        }
+        return iterator;
+    }
 }
@@ -24,8 +24,11 @@ import org.neo4j.internal.index.label.TokenScanReader;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
 
+import static org.neo4j.internal.index.label.TokenScanReader.NO_ID;
+
 /**
  * Entity id iterator used during index population when we go over entity ids indexed in a token scan store.
+ * It can be limited to a range of entity ids, for parallel scans.
  */
 class TokenScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements EntityIdIterator
 {
@@ -33,16 +36,31 @@ class TokenScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements
     private final TokenScanReader tokenScanReader;
     private final CURSOR entityCursor;
     private final PageCursorTracer cursorTracer;
+    private final long stopInclusive;
 
     private PrimitiveLongResourceIterator idIterator;
-    private long lastReturnedId = -1;
+    private long lastReturnedId;
+    private long nextId = NO_ID;
 
     TokenScanViewIdIterator( TokenScanReader tokenScanReader, int[] tokenIds, CURSOR entityCursor, PageCursorTracer cursorTracer )
+    {
+        this( tokenScanReader, tokenIds, entityCursor, cursorTracer, 0, Long.MAX_VALUE );
+    }
+
+    /**
+     * @param start first entity id to return, if it has any of the tokens.
+     * @param stopInclusive last entity id to return, if it has any of the tokens.
+     */
+    TokenScanViewIdIterator( TokenScanReader tokenScanReader, int[] tokenIds, CURSOR entityCursor, PageCursorTracer cursorTracer,
+            long start, long stopInclusive )
     {
         this.tokenScanReader = tokenScanReader;
         this.entityCursor = entityCursor;
         this.cursorTracer = cursorTracer;
-        this.idIterator = tokenScanReader.entitiesWithAnyOfTokens( tokenIds, cursorTracer );
+        this.stopInclusive = stopInclusive;
+        this.lastReturnedId = start - 1;
+        this.idIterator = start == 0 ? tokenScanReader.entitiesWithAnyOfTokens( tokenIds, cursorTracer )
+                                     : tokenScanReader.entitiesWithAnyOfTokens( lastReturnedId, tokenIds, cursorTracer );
         this.tokenIds = tokenIds;
     }
 
@@ -55,23 +73,41 @@ class TokenScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements
     @Override
     public boolean hasNext()
     {
-        return idIterator.hasNext();
+        if ( nextId == NO_ID && idIterator.hasNext() )
+        {
+            nextId = idIterator.next();
+        }
+        return nextId != NO_ID && nextId <= stopInclusive;
     }
 
     @Override
     public long next()
     {
-        long next = idIterator.next();
+        if ( !hasNext() )
+        {
+            throw new IllegalStateException();
+        }
+        long next = nextId;
+        nextId = NO_ID;
         entityCursor.single( next );
         entityCursor.next();
         lastReturnedId = next;
         return next;
     }
 
+    /**
+     * @return {@code true} if there are no more entities with any of the tokens at all, not only within the range of this iterator.
+     */
+    boolean reachedEnd()
+    {
+        return !hasNext() && nextId == NO_ID;
+    }
+
     @Override
     public void invalidateCache()
     {
         this.idIterator.close();
         this.idIterator = tokenScanReader.entitiesWithAnyOfTokens( lastReturnedId, tokenIds, cursorTracer );
+        this.nextId = NO_ID;
     }
 }
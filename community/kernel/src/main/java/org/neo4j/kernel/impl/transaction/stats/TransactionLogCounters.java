@@ -44,4 +44,12 @@ public interface TransactionLogCounters
      * @return last log rotation time in milliseconds
      */
     long lastLogRotationTimeMillis();
+
+    /**
+     * Distribution of the number of transactions that were appended and forced to the transaction log together, in one batch.
+     * The element at index {@code i} counts the batches of {@code 2^i} to {@code 2^(i+1) - 1} transactions,
+     * and the last element also counts all batches that are larger than that.
+     * @return number of append batches, by batch size
+     */
+    long[] appendBatchSizeDistribution();
 }
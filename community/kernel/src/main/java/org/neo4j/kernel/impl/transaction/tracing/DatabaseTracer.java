@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import java.util.Map;
+
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
@@ -84,6 +86,18 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public long[] appendBatchSizeDistribution()
+        {
+            return new long[0];
+        }
+
+        @Override
+        public Map<String,Long> storeApplyStageTimeMillis()
+        {
+            return Map.of();
+        }
     };
 
     LogFileCreateEvent createLogFile();
@@ -48,6 +48,12 @@ public interface LogAppendEvent extends LogForceEvents, AutoCloseable
      */
     void setLogRotated( boolean logRotated );
 
+    /**
+     * Note the number of transactions that were appended and forced to the log in the same batch as this append,
+     * including the transactions of this append.
+     */
+    void setAppendBatchSize( int appendBatchSize );
+
     /**
      * Begin a log rotation as part of this appending to the transaction log.
      */
@@ -76,6 +82,11 @@ public interface LogAppendEvent extends LogForceEvents, AutoCloseable
 
         }
 
+        @Override
+        public void setAppendBatchSize( int appendBatchSize )
+        {
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
@@ -19,14 +19,26 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import org.neo4j.storageengine.api.ApplyStageTracer;
+
 /**
  * Represents the process of applying transaction changes to the stores. Because we apply transactions in parallel,
- * the individual stores and indexes are not further specified.
+ * the individual stores and indexes are not further specified, but the storage engine reports the time spent in each
+ * of its stages of application through {@link #stageApplied(String, long)}.
  */
-public interface StoreApplyEvent extends AutoCloseable
+public interface StoreApplyEvent extends AutoCloseable, ApplyStageTracer
 {
-    StoreApplyEvent NULL = () ->
+    StoreApplyEvent NULL = new StoreApplyEvent()
     {
+        @Override
+        public void stageApplied( String stage, long elapsedNanos )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
     };
 
     /**
@@ -19,7 +19,10 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import java.util.Map;
+
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.transaction.stats.StoreApplyCounters;
 import org.neo4j.kernel.impl.transaction.stats.TransactionLogCounters;
 
 /**
@@ -28,7 +31,7 @@ import org.neo4j.kernel.impl.transaction.stats.TransactionLogCounters;
  * during commit. Implementers should take great care to make their implementations as fast as possible. Note that
  * tracers are not allowed to throw exceptions.
  */
-public interface TransactionTracer extends TransactionLogCounters
+public interface TransactionTracer extends TransactionLogCounters, StoreApplyCounters
 {
     /**
      * A TransactionTracer implementation that does nothing, other than return the NULL variants of the companion
@@ -66,6 +69,18 @@ public interface TransactionTracer extends TransactionLogCounters
         {
             return 0;
         }
+
+        @Override
+        public long[] appendBatchSizeDistribution()
+        {
+            return new long[0];
+        }
+
+        @Override
+        public Map<String,Long> storeApplyStageTimeMillis()
+        {
+            return Map.of();
+        }
     };
 
     /**
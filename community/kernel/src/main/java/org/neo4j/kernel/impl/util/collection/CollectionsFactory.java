@@ -38,6 +38,18 @@ public interface CollectionsFactory
 
     MutableLongObjectMap<Value> newValuesMap( MemoryTracker memoryTracker );
 
+    /**
+     * Collections created by this factory belong to a generation, which changes when the factory starts creating a different kind of collections,
+     * e.g. off-heap instead of on-heap. Long lived collections can compare generations and move their content to new collections when it changes.
+     *
+     * @param memoryTracker the memory tracker of the transaction.
+     * @return the generation of collections created by this factory now.
+     */
+    default int generation( MemoryTracker memoryTracker )
+    {
+        return 0;
+    }
+
     /**
      * Release previously created collections. This method does not invalidate the factory.
      */
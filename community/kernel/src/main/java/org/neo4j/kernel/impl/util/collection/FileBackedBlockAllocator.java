@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.memory.MemoryTracker;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.neo4j.internal.unsafe.UnsafeUtil.getDirectByteBufferAddress;
+import static org.neo4j.internal.unsafe.UnsafeUtil.invokeCleaner;
+import static org.neo4j.internal.unsafe.UnsafeUtil.registerExternalMemory;
+import static org.neo4j.internal.unsafe.UnsafeUtil.unregisterExternalMemory;
+import static org.neo4j.util.Preconditions.checkArgument;
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Block allocator which carves blocks out of memory-mapped temporary files. The operating system can write such blocks to disk and evict them
+ * from memory when memory is needed elsewhere, which makes it a place for data which doesn't fit in memory, at the cost of I/O.
+ * Memory of these blocks isn't native memory allocated by the database and is therefore not reported to {@link MemoryTracker}.
+ * <p>
+ * Blocks are rounded up to a power of two and carved out of segments, each mapped from its own file and twice as large as the previous one,
+ * up to {@link #MAX_SEGMENT_SIZE}. Freed blocks are kept per size and handed out again, so a transaction with many small collections needs only
+ * a handful of files and mappings. All segments are unmapped on {@link #release()}, which is when the transaction state is released.
+ * <p>
+ * This class is not thread safe, same as the transaction state it allocates memory for.
+ */
+public class FileBackedBlockAllocator implements OffHeapBlockAllocator
+{
+    static final long MIN_SEGMENT_SIZE = 1L << 20;
+    static final long MAX_SEGMENT_SIZE = 1L << 30;
+    private static final int MIN_SIZE_CLASS = 3;
+
+    private final Path directory;
+    private final List<Segment> segments = new ArrayList<>();
+    private final LongArrayList[] freeBlocks = new LongArrayList[Long.SIZE];
+    private long nextSegmentSize = MIN_SEGMENT_SIZE;
+    private long segmentAddr;
+    private long segmentRemaining;
+
+    public FileBackedBlockAllocator( Path directory )
+    {
+        this.directory = directory;
+    }
+
+    @Override
+    public MemoryBlock allocate( long size, MemoryTracker tracker )
+    {
+        requirePositive( size );
+        checkArgument( size <= MAX_SEGMENT_SIZE, "Can't allocate file backed block larger than %d bytes: %d", MAX_SEGMENT_SIZE, size );
+        int sizeClass = sizeClass( size );
+        LongArrayList free = freeBlocks[sizeClass];
+        long addr = free != null && !free.isEmpty() ? free.removeAtIndex( free.size() - 1 ) : carve( 1L << sizeClass );
+        return new MappedMemoryBlock( addr, size, sizeClass );
+    }
+
+    @Override
+    public void free( MemoryBlock block, MemoryTracker tracker )
+    {
+        MappedMemoryBlock mappedBlock = (MappedMemoryBlock) block;
+        addFreeBlock( mappedBlock.addr, mappedBlock.sizeClass );
+    }
+
+    /**
+     * Unmaps all segments. Blocks allocated from this allocator must not be used after this.
+     */
+    @Override
+    public void release()
+    {
+        for ( Segment segment : segments )
+        {
+            unregisterExternalMemory( segment.addr );
+            invokeCleaner( segment.buffer );
+            deleteIfPossible( segment.file );
+        }
+        segments.clear();
+        for ( LongArrayList free : freeBlocks )
+        {
+            if ( free != null )
+            {
+                free.clear();
+            }
+        }
+        nextSegmentSize = MIN_SEGMENT_SIZE;
+        segmentAddr = 0;
+        segmentRemaining = 0;
+    }
+
+    int segmentCount()
+    {
+        return segments.size();
+    }
+
+    static boolean isFileBacked( MemoryBlock block )
+    {
+        return block instanceof MappedMemoryBlock;
+    }
+
+    private long carve( long blockSize )
+    {
+        if ( segmentRemaining < blockSize )
+        {
+            // Hand out what's left of the current segment as smaller blocks, rather than leaving it unused
+            while ( segmentRemaining >= 1L << MIN_SIZE_CLASS )
+            {
+                long remainderBlockSize = Long.highestOneBit( segmentRemaining );
+                addFreeBlock( segmentAddr, Long.numberOfTrailingZeros( remainderBlockSize ) );
+                segmentAddr += remainderBlockSize;
+                segmentRemaining -= remainderBlockSize;
+            }
+            long segmentSize = Math.max( nextSegmentSize, blockSize );
+            segmentAddr = mapSegment( segmentSize );
+            segmentRemaining = segmentSize;
+            nextSegmentSize = Math.min( nextSegmentSize * 2, MAX_SEGMENT_SIZE );
+        }
+        long addr = segmentAddr;
+        segmentAddr += blockSize;
+        segmentRemaining -= blockSize;
+        return addr;
+    }
+
+    private long mapSegment( long size )
+    {
+        try
+        {
+            Files.createDirectories( directory );
+            Path file = Files.createTempFile( directory, "tx-state-", ".tmp" );
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE ) )
+            {
+                MappedByteBuffer buffer = channel.map( READ_WRITE, 0, size );
+                long addr = getDirectByteBufferAddress( buffer );
+                registerExternalMemory( addr, size );
+                segments.add( new Segment( addr, buffer, file ) );
+                return addr;
+            }
+            finally
+            {
+                // The mapping outlives the file on most platforms, which leaves nothing behind should the database crash.
+                // Where it doesn't the file is deleted when the segment is unmapped.
+                deleteIfPossible( file );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private void addFreeBlock( long addr, int sizeClass )
+    {
+        LongArrayList free = freeBlocks[sizeClass];
+        if ( free == null )
+        {
+            free = new LongArrayList();
+            freeBlocks[sizeClass] = free;
+        }
+        free.add( addr );
+    }
+
+    private static int sizeClass( long size )
+    {
+        return Math.max( MIN_SIZE_CLASS, Long.SIZE - numberOfLeadingZeros( size - 1 ) );
+    }
+
+    private static void deleteIfPossible( Path file )
+    {
+        try
+        {
+            Files.deleteIfExists( file );
+        }
+        catch ( IOException e )
+        {
+            // Still mapped on this platform, will be deleted when the segment is unmapped
+        }
+    }
+
+    private static class Segment
+    {
+        private final long addr;
+        private final MappedByteBuffer buffer;
+        private final Path file;
+
+        Segment( long addr, MappedByteBuffer buffer, Path file )
+        {
+            this.addr = addr;
+            this.buffer = buffer;
+            this.file = file;
+        }
+    }
+
+    private static class MappedMemoryBlock extends MemoryBlock
+    {
+        private final int sizeClass;
+
+        MappedMemoryBlock( long addr, long size, int sizeClass )
+        {
+            super( addr, size );
+            this.sizeClass = sizeClass;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.memory.MemoryTracker;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Block allocator for the transaction state of a single transaction which allocates native memory from a shared allocator until the
+ * transaction has allocated {@code maxOffHeapMemory} bytes, or the shared allocator refuses because it's out of capacity,
+ * and continues with blocks from a {@link FileBackedBlockAllocator}.
+ * <p>
+ * This class is not thread safe, same as the transaction state it allocates memory for.
+ */
+class SpillingBlockAllocator implements OffHeapBlockAllocator
+{
+    private final OffHeapBlockAllocator offHeapAllocator;
+    private final OffHeapBlockAllocator fileBackedAllocator;
+    private final long maxOffHeapMemory;
+    private long usedOffHeapMemory;
+
+    SpillingBlockAllocator( OffHeapBlockAllocator offHeapAllocator, FileBackedBlockAllocator fileBackedAllocator, long maxOffHeapMemory )
+    {
+        this.offHeapAllocator = requireNonNull( offHeapAllocator );
+        this.fileBackedAllocator = requireNonNull( fileBackedAllocator );
+        this.maxOffHeapMemory = maxOffHeapMemory;
+    }
+
+    @Override
+    public MemoryBlock allocate( long size, MemoryTracker tracker )
+    {
+        if ( usedOffHeapMemory + size <= maxOffHeapMemory )
+        {
+            try
+            {
+                MemoryBlock block = offHeapAllocator.allocate( size, tracker );
+                usedOffHeapMemory += size;
+                return block;
+            }
+            catch ( MemoryAllocationLimitException e )
+            {
+                // The shared off-heap memory is used up by this and other transactions, go to disk instead of failing
+            }
+        }
+        return fileBackedAllocator.allocate( size, tracker );
+    }
+
+    @Override
+    public void free( MemoryBlock block, MemoryTracker tracker )
+    {
+        if ( FileBackedBlockAllocator.isFileBacked( block ) )
+        {
+            fileBackedAllocator.free( block, tracker );
+        }
+        else
+        {
+            offHeapAllocator.free( block, tracker );
+            usedOffHeapMemory -= block.size;
+        }
+    }
+
+    @Override
+    public void release()
+    {   // the underlying allocators are shared between transactions and released elsewhere
+    }
+
+    long usedOffHeapMemory()
+    {
+        return usedOffHeapMemory;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.values.storable.Value;
+
+/**
+ * {@link CollectionsFactory} for transactions of any size. Collections are created on-heap, which is the cheapest for small transactions,
+ * until the transaction uses {@code maxOnHeapMemory} bytes of heap. After that collections are created off-heap, in native memory
+ * until the transaction has used {@code maxOffHeapMemory} bytes of it and then in memory-mapped temporary files, see {@link SpillingBlockAllocator}.
+ * Once the transaction has gone off-heap it stays there until {@link #release()}, and the {@link #generation(MemoryTracker) generation} changes
+ * so that the diff sets of the transaction state move their on-heap content off-heap too. The point is that the bulk of the state of a large
+ * transaction ends up out of the way of the garbage collector and, if needed, out of memory altogether.
+ */
+public class SpillingCollectionsFactory implements CollectionsFactory
+{
+    private final long maxOnHeapMemory;
+    private final FileBackedBlockAllocator fileBackedAllocator;
+    private final OffHeapCollectionsFactory offHeapCollectionsFactory;
+    private boolean offHeap;
+
+    public SpillingCollectionsFactory( OffHeapBlockAllocator offHeapAllocator, FileBackedBlockAllocator fileBackedAllocator, long maxOnHeapMemory,
+            long maxOffHeapMemory )
+    {
+        this.maxOnHeapMemory = maxOnHeapMemory;
+        this.fileBackedAllocator = fileBackedAllocator;
+        this.offHeapCollectionsFactory = new OffHeapCollectionsFactory( new SpillingBlockAllocator( offHeapAllocator, fileBackedAllocator, maxOffHeapMemory ) );
+    }
+
+    @Override
+    public MutableLongSet newLongSet( MemoryTracker memoryTracker )
+    {
+        return select( memoryTracker ).newLongSet( memoryTracker );
+    }
+
+    @Override
+    public MutableLongDiffSets newLongDiffSets( MemoryTracker memoryTracker )
+    {
+        return select( memoryTracker ).newLongDiffSets( memoryTracker );
+    }
+
+    @Override
+    public MutableLongObjectMap<Value> newValuesMap( MemoryTracker memoryTracker )
+    {
+        return select( memoryTracker ).newValuesMap( memoryTracker );
+    }
+
+    @Override
+    public int generation( MemoryTracker memoryTracker )
+    {
+        return isOffHeap( memoryTracker ) ? 1 : 0;
+    }
+
+    @Override
+    public void release()
+    {
+        offHeapCollectionsFactory.release();
+        fileBackedAllocator.release();
+        offHeap = false;
+    }
+
+    private CollectionsFactory select( MemoryTracker memoryTracker )
+    {
+        return isOffHeap( memoryTracker ) ? offHeapCollectionsFactory : OnHeapCollectionsFactory.INSTANCE;
+    }
+
+    private boolean isOffHeap( MemoryTracker memoryTracker )
+    {
+        if ( !offHeap && memoryTracker.estimatedHeapMemory() >= maxOnHeapMemory )
+        {
+            offHeap = true;
+        }
+        return offHeap;
+    }
+}
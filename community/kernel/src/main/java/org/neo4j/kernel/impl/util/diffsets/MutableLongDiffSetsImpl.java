@@ -23,6 +23,7 @@ import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.factory.primitive.LongSets;
 
+import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.memory.HeapEstimator;
 import org.neo4j.memory.MemoryTracker;
@@ -33,6 +34,9 @@ import org.neo4j.util.VisibleForTesting;
  * which elements need to actually be added and removed at minimum from some
  * target collection such that the result is equivalent to just
  * executing the sequence of additions and removals in order.
+ * <p>
+ * When the {@link CollectionsFactory#generation(MemoryTracker) generation} of the collections factory changes, the next addition or removal
+ * moves the elements to collections of the new generation. Sets handed out before that stay readable.
  */
 public class MutableLongDiffSetsImpl implements MutableLongDiffSets
 {
@@ -43,6 +47,7 @@ public class MutableLongDiffSetsImpl implements MutableLongDiffSets
     private final MemoryTracker memoryTracker;
     private MutableLongSet added;
     private MutableLongSet removed;
+    private int generation;
 
     static MutableLongDiffSetsImpl createMutableLongDiffSetsImpl( CollectionsFactory collectionsFactory, MemoryTracker memoryTracker )
     {
@@ -79,6 +84,7 @@ public class MutableLongDiffSetsImpl implements MutableLongDiffSets
     @Override
     public void add( long element )
     {
+        checkGeneration();
         checkAddedElements();
         addElement( element );
     }
@@ -86,6 +92,7 @@ public class MutableLongDiffSetsImpl implements MutableLongDiffSets
     @Override
     public boolean remove( long element )
     {
+        checkGeneration();
         checkRemovedElements();
         return removeElement( element );
     }
@@ -114,6 +121,41 @@ public class MutableLongDiffSetsImpl implements MutableLongDiffSets
         return added.isEmpty() && removed.isEmpty();
     }
 
+    /**
+     * Moves the content of this diff set to collections of the current generation of the collections factory.
+     */
+    protected void relocate()
+    {
+        added = relocate( added );
+        removed = relocate( removed );
+    }
+
+    protected final MutableLongSet relocate( MutableLongSet set )
+    {
+        if ( set == NOT_INITIALIZED || set == null )
+        {
+            return set;
+        }
+        MutableLongSet relocated = collectionsFactory.newLongSet( memoryTracker );
+        relocated.addAll( set );
+        if ( set instanceof AutoCloseable )
+        {
+            // Only releases the memory accounted for the old set, it is left readable for whoever still holds on to it
+            IOUtils.closeAllUnchecked( (AutoCloseable) set );
+        }
+        return relocated;
+    }
+
+    private void checkGeneration()
+    {
+        int currentGeneration = collectionsFactory.generation( memoryTracker );
+        if ( currentGeneration != generation )
+        {
+            generation = currentGeneration;
+            relocate();
+        }
+    }
+
     private void addElement( long element )
     {
         if ( removed.isEmpty() || !removed.remove( element ) )
@@ -65,6 +65,13 @@ public class RemovalsCountingDiffSets extends MutableLongDiffSetsImpl
         return super.remove( elem );
     }
 
+    @Override
+    protected void relocate()
+    {
+        super.relocate();
+        removedFromAdded = relocate( removedFromAdded );
+    }
+
     public boolean wasRemoved( long id )
     {
         return (removedFromAdded != null && removedFromAdded.contains( id )) || super.isRemoved( id );
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.recovery;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -72,6 +74,12 @@ public class DefaultRecoveryService implements RecoveryService
         return new RecoveryVisitor( storageEngine, mode, cursorTracer );
     }
 
+    @Override
+    public boolean collectChangedKeys( CommittedTransactionRepresentation transaction, MutableLongSet changedKeys ) throws IOException
+    {
+        return storageEngine.collectChangedKeys( transaction.getTransactionRepresentation(), changedKeys );
+    }
+
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
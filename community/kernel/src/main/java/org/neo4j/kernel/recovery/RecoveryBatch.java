@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.internal.helpers.Exceptions.chain;
+import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+/**
+ * Consecutive transactions read during recovery, which change disjoint sets of data, according to
+ * {@link RecoveryService#collectChangedKeys(CommittedTransactionRepresentation, MutableLongSet)}, and therefore can be applied
+ * concurrently and in any order. A transaction which must be applied in isolation always ends up in a batch of its own.
+ * <p>
+ * A batch is {@link #startApplying() applied} by a number of workers, each having its own {@link RecoveryApplier}, while the recovery thread
+ * carries on reading the next batch. The recovery thread then {@link #awaitApplied() waits} for the batch to be applied before it
+ * acknowledges its transactions, in commit order, and starts applying the next batch.
+ */
+class RecoveryBatch implements AutoCloseable
+{
+    private static final String RECOVERY_WORKER_TAG = "recoverDatabaseWorker";
+
+    private final RecoveryService recoveryService;
+    private final JobScheduler scheduler;
+    private final PageCacheTracer pageCacheTracer;
+    private final int parallelism;
+    private final int maxTransactions;
+    private final int maxKeys;
+    private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+    private final List<LogPosition> positionsAfter = new ArrayList<>();
+    private final MutableLongSet batchKeys = new LongHashSet();
+    private final MutableLongSet transactionKeys = new LongHashSet();
+    private final List<JobHandle<?>> workers = new ArrayList<>();
+    private final AtomicInteger nextTransaction = new AtomicInteger();
+    private CommittedTransactionRepresentation collectedTransaction;
+    private boolean collectedIndependent;
+    private boolean isolated;
+    private volatile boolean failed;
+
+    RecoveryBatch( RecoveryService recoveryService, JobScheduler scheduler, PageCacheTracer pageCacheTracer, int parallelism, int maxTransactions,
+            int maxKeys )
+    {
+        this.recoveryService = recoveryService;
+        this.scheduler = scheduler;
+        this.pageCacheTracer = pageCacheTracer;
+        this.parallelism = parallelism;
+        this.maxTransactions = maxTransactions;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Adds a transaction to this batch, unless it changes data which the transactions already in this batch change, or either of them
+     * must be applied in isolation.
+     *
+     * @param transaction the transaction to add.
+     * @param positionAfter log position after the transaction.
+     * @return {@code true} if the transaction was added, otherwise {@code false} and this batch should be applied before it is added to the next.
+     * @throws IOException on failure reading the commands of the transaction.
+     */
+    boolean add( CommittedTransactionRepresentation transaction, LogPosition positionAfter ) throws IOException
+    {
+        if ( collectedTransaction != transaction )
+        {
+            transactionKeys.clear();
+            collectedIndependent = recoveryService.collectChangedKeys( transaction, transactionKeys );
+            collectedTransaction = transaction;
+        }
+        if ( !transactions.isEmpty() && (isolated || !collectedIndependent || overlaps( transactionKeys )) )
+        {
+            return false;
+        }
+        transactions.add( transaction );
+        positionsAfter.add( positionAfter );
+        batchKeys.addAll( transactionKeys );
+        isolated |= !collectedIndependent;
+        collectedTransaction = null;
+        return true;
+    }
+
+    boolean isEmpty()
+    {
+        return transactions.isEmpty();
+    }
+
+    boolean isFull()
+    {
+        return isolated || transactions.size() >= maxTransactions || batchKeys.size() >= maxKeys;
+    }
+
+    int size()
+    {
+        return transactions.size();
+    }
+
+    CommittedTransactionRepresentation transaction( int index )
+    {
+        return transactions.get( index );
+    }
+
+    LogPosition positionAfter( int index )
+    {
+        return positionsAfter.get( index );
+    }
+
+    /**
+     * Starts applying the transactions of this batch in the background.
+     */
+    void startApplying()
+    {
+        int numberOfWorkers = Math.min( parallelism, transactions.size() );
+        for ( int i = 0; i < numberOfWorkers; i++ )
+        {
+            workers.add( scheduler.schedule( Group.RECOVERY_WORK, () ->
+            {
+                applyTransactions();
+                return null;
+            } ) );
+        }
+    }
+
+    /**
+     * Waits for all transactions of this batch to be applied.
+     *
+     * @throws Exception the failure of applying any of the transactions.
+     */
+    void awaitApplied() throws Exception
+    {
+        Throwable failure = null;
+        for ( JobHandle<?> worker : workers )
+        {
+            try
+            {
+                worker.waitTermination();
+            }
+            catch ( ExecutionException e )
+            {
+                failure = chain( failure, e.getCause() );
+            }
+        }
+        workers.clear();
+        if ( failure != null )
+        {
+            throwIfUnchecked( failure );
+            throw (Exception) failure;
+        }
+    }
+
+    /**
+     * Clears this batch after it has been applied, so that it can be filled with new transactions.
+     */
+    void clear()
+    {
+        transactions.clear();
+        positionsAfter.clear();
+        batchKeys.clear();
+        nextTransaction.set( 0 );
+        isolated = false;
+    }
+
+    /**
+     * Waits for any workers still applying this batch, ignoring their failures, which are either already reported or superseded by another failure.
+     */
+    @Override
+    public void close()
+    {
+        failed = true;
+        for ( JobHandle<?> worker : workers )
+        {
+            try
+            {
+                worker.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch ( ExecutionException e )
+            {
+                // Already reported, or superseded by the failure that made us close
+            }
+        }
+        workers.clear();
+    }
+
+    private boolean overlaps( MutableLongSet keys )
+    {
+        return keys.anySatisfy( batchKeys::contains );
+    }
+
+    private void applyTransactions() throws Exception
+    {
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_WORKER_TAG );
+              RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
+        {
+            int index;
+            while ( !failed && (index = nextTransaction.getAndIncrement()) < transactions.size() )
+            {
+                recoveryVisitor.visit( transactions.get( index ) );
+            }
+        }
+        catch ( Throwable t )
+        {
+            failed = true;
+            throw t;
+        }
+    }
+}
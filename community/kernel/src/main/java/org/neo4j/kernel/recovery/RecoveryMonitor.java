@@ -34,6 +34,17 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called periodically during recovery of transactions after the reverse recovery.
+     *
+     * @param numberOfRecoveredTransactions number of transactions recovered so far.
+     * @param transactionsPerSecond rate at which transactions were recovered since the previous report.
+     */
+    default void recoveryProgress( int numberOfRecoveredTransactions, long transactionsPerSecond )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         //noop
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.recovery;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -37,6 +39,18 @@ public interface RecoveryService
 
     RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode, PageCursorTracer cursorTracer ) throws Exception;
 
+    /**
+     * Adds keys identifying what the given transaction changes to {@code changedKeys}, see
+     * {@link org.neo4j.storageengine.api.StorageEngine#collectChangedKeys(org.neo4j.storageengine.api.CommandStream, MutableLongSet)}.
+     *
+     * @return {@code true} if the transaction can be applied concurrently with other transactions with disjoint keys,
+     * otherwise {@code false}.
+     */
+    default boolean collectChangedKeys( CommittedTransactionRepresentation transaction, MutableLongSet changedKeys ) throws IOException
+    {
+        return false;
+    }
+
     void transactionsRecovered( CommittedTransactionRepresentation lastRecoveredTransaction, LogPosition lastTransactionPosition,
             LogPosition positionAfterLastRecoveredTransaction, boolean missingLogs, PageCursorTracer cursorTracer );
 }
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -31,6 +32,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.time.Stopwatch;
 
@@ -48,6 +50,9 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private static final String REVERSE_RECOVERY_TAG = "restoreDatabase";
     private static final String RECOVERY_TAG = "recoverDatabase";
     private static final String RECOVERY_COMPLETED_TAG = "databaseRecoveryCompleted";
+    private static final int MAX_BATCH_TRANSACTIONS = 1024;
+    private static final int MAX_BATCH_KEYS = 1_000_000;
+    private static final Duration THROUGHPUT_REPORT_INTERVAL = Duration.ofSeconds( 10 );
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -57,11 +62,30 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private final boolean failOnCorruptedLogFiles;
     private final RecoveryStartupChecker recoveryStartupChecker;
     private final PageCacheTracer pageCacheTracer;
+    private final JobScheduler scheduler;
+    private final int parallelism;
     private int numberOfRecoveredTransactions;
+    private CommittedTransactionRepresentation lastTransaction;
+    private LogPosition lastTransactionPosition;
+    private LogPosition recoveryToPosition;
+    private Stopwatch throughputStopwatch;
+    private int numberOfRecoveredTransactionsAtLastReport;
 
     public TransactionLogsRecovery( RecoveryService recoveryService, CorruptedLogsTruncator logsTruncator, Lifecycle schemaLife,
             RecoveryMonitor monitor, ProgressReporter progressReporter, boolean failOnCorruptedLogFiles, RecoveryStartupChecker recoveryStartupChecker,
             PageCacheTracer pageCacheTracer )
+    {
+        this( recoveryService, logsTruncator, schemaLife, monitor, progressReporter, failOnCorruptedLogFiles, recoveryStartupChecker, pageCacheTracer,
+                null, 1 );
+    }
+
+    /**
+     * @param scheduler scheduler for the workers applying transactions concurrently, if {@code parallelism} is greater than one.
+     * @param parallelism number of transactions to apply concurrently, or 1 to apply them one after the other.
+     */
+    public TransactionLogsRecovery( RecoveryService recoveryService, CorruptedLogsTruncator logsTruncator, Lifecycle schemaLife,
+            RecoveryMonitor monitor, ProgressReporter progressReporter, boolean failOnCorruptedLogFiles, RecoveryStartupChecker recoveryStartupChecker,
+            PageCacheTracer pageCacheTracer, JobScheduler scheduler, int parallelism )
     {
         this.recoveryService = recoveryService;
         this.monitor = monitor;
@@ -71,6 +95,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
         this.recoveryStartupChecker = recoveryStartupChecker;
         this.pageCacheTracer = pageCacheTracer;
+        this.scheduler = scheduler;
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -89,9 +115,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
 
         monitor.recoveryRequired( recoveryStartPosition );
 
-        LogPosition recoveryToPosition = recoveryStartPosition;
-        LogPosition lastTransactionPosition = recoveryStartPosition;
-        CommittedTransactionRepresentation lastTransaction = null;
+        recoveryToPosition = recoveryStartPosition;
+        lastTransactionPosition = recoveryStartPosition;
         CommittedTransactionRepresentation lastReversedTransaction = null;
         if ( !recoveryStartInformation.isMissingLogs() )
         {
@@ -124,23 +149,14 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 // of the schema life until after we've done the reverse recovery.
                 schemaLife.init();
 
-                try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
-                        var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
-                        RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
+                throughputStopwatch = Stopwatch.start();
+                if ( parallelism > 1 )
                 {
-                    while ( transactionsToRecover.next() )
-                    {
-                        recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
-                        recoveryToPosition = lastTransactionPosition;
-                        reportProgress();
-                    }
-                    recoveryToPosition = transactionsToRecover.position();
+                    recoverInParallel( recoveryStartPosition );
+                }
+                else
+                {
+                    recover( recoveryStartPosition );
                 }
             }
             catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
@@ -177,6 +193,120 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    private void recover( LogPosition recoveryStartPosition ) throws Exception
+    {
+        try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
+                var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
+                RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
+        {
+            while ( transactionsToRecover.next() )
+            {
+                recoveryStartupChecker.checkIfCanceled();
+                lastTransaction = transactionsToRecover.get();
+                recoveryVisitor.visit( lastTransaction );
+                transactionRecovered( lastTransaction, transactionsToRecover.position() );
+            }
+            recoveryToPosition = transactionsToRecover.position();
+        }
+    }
+
+    /**
+     * Reads transactions into batches of transactions that change disjoint sets of data. While one batch is applied by concurrent workers,
+     * the next is read. Transactions are acknowledged in commit order once their batch is applied, so that the last recovered transaction
+     * and position always describe a prefix of the log that has been fully applied.
+     */
+    private void recoverInParallel( LogPosition recoveryStartPosition ) throws Exception
+    {
+        try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
+                RecoveryBatch applying = newBatch();
+                RecoveryBatch reading = newBatch() )
+        {
+            RecoveryBatch applyingBatch = applying;
+            RecoveryBatch readingBatch = reading;
+            while ( nextTransaction( transactionsToRecover, applyingBatch, readingBatch ) )
+            {
+                recoveryStartupChecker.checkIfCanceled();
+                CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                LogPosition positionAfter = transactionsToRecover.position();
+                boolean added = readingBatch.add( transaction, positionAfter );
+                if ( !added || readingBatch.isFull() )
+                {
+                    completeBatch( applyingBatch );
+                    readingBatch.startApplying();
+                    RecoveryBatch applied = applyingBatch;
+                    applyingBatch = readingBatch;
+                    readingBatch = applied;
+                    if ( !added )
+                    {
+                        readingBatch.add( transaction, positionAfter );
+                    }
+                }
+            }
+            completeBatches( applyingBatch, readingBatch );
+            recoveryToPosition = transactionsToRecover.position();
+        }
+    }
+
+    private RecoveryBatch newBatch()
+    {
+        return new RecoveryBatch( recoveryService, scheduler, pageCacheTracer, parallelism, MAX_BATCH_TRANSACTIONS, MAX_BATCH_KEYS );
+    }
+
+    private boolean nextTransaction( TransactionCursor transactionsToRecover, RecoveryBatch applyingBatch, RecoveryBatch readingBatch ) throws Exception
+    {
+        try
+        {
+            return transactionsToRecover.next();
+        }
+        catch ( Throwable t )
+        {
+            // The transactions read before this failure are intact, so recover them before the failure is handled
+            try
+            {
+                completeBatches( applyingBatch, readingBatch );
+            }
+            catch ( Throwable applyFailure )
+            {
+                t.addSuppressed( applyFailure );
+            }
+            throw t;
+        }
+    }
+
+    private void completeBatches( RecoveryBatch applyingBatch, RecoveryBatch readingBatch ) throws Exception
+    {
+        completeBatch( applyingBatch );
+        readingBatch.startApplying();
+        completeBatch( readingBatch );
+    }
+
+    private void completeBatch( RecoveryBatch batch ) throws Exception
+    {
+        batch.awaitApplied();
+        for ( int i = 0; i < batch.size(); i++ )
+        {
+            lastTransaction = batch.transaction( i );
+            transactionRecovered( lastTransaction, batch.positionAfter( i ) );
+        }
+        batch.clear();
+    }
+
+    private void transactionRecovered( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+    {
+        monitor.transactionRecovered( transaction.getCommitEntry().getTxId() );
+        numberOfRecoveredTransactions++;
+        lastTransactionPosition = positionAfter;
+        recoveryToPosition = positionAfter;
+        reportProgress();
+        if ( throughputStopwatch.hasTimedOut( THROUGHPUT_REPORT_INTERVAL ) )
+        {
+            long transactions = numberOfRecoveredTransactions - numberOfRecoveredTransactionsAtLastReport;
+            monitor.recoveryProgress( numberOfRecoveredTransactions, transactions * 1000 / Math.max( 1, throughputStopwatch.elapsed( MILLISECONDS ) ) );
+            numberOfRecoveredTransactionsAtLastReport = numberOfRecoveredTransactions;
+            throughputStopwatch = Stopwatch.start();
+        }
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -29,6 +29,7 @@ import java.util.function.IntPredicate;
 
 import org.neo4j.common.EntityType;
 import org.neo4j.common.Subject;
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.schema.IndexDescriptor;
@@ -94,7 +95,7 @@ class MultipleIndexPopulatorTest
         JobScheduler jobScheduler = mock( JobScheduler.class );
         tokens = new InMemoryTokens();
         multipleIndexPopulator = new MultipleIndexPopulator( indexStoreView, NullLogProvider.getInstance(), EntityType.NODE, schemaState, indexStatisticsStore,
-                jobScheduler, tokens, PageCacheTracer.NULL, INSTANCE, "", AUTH_DISABLED  );
+                jobScheduler, tokens, PageCacheTracer.NULL, INSTANCE, "", AUTH_DISABLED, Config.defaults() );
     }
 
     @Test
@@ -27,6 +27,7 @@ import java.util.function.Supplier;
 
 import org.neo4j.common.EntityType;
 import org.neo4j.common.Subject;
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexPrototype;
@@ -51,6 +52,7 @@ import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.test.InMemoryTokens;
 import org.neo4j.values.storable.Values;
@@ -81,7 +83,7 @@ class MultipleIndexPopulatorUpdatesTest
         InMemoryTokens tokens = new InMemoryTokens();
         MultipleIndexPopulator indexPopulator = new MultipleIndexPopulator(
                 storeView, logProvider, EntityType.NODE, mock( SchemaState.class ), indexStatisticsStore,
-                JobSchedulerFactory.createInitialisedScheduler(), tokens, PageCacheTracer.NULL, INSTANCE, "", AUTH_DISABLED );
+                JobSchedulerFactory.createInitialisedScheduler(), tokens, PageCacheTracer.NULL, INSTANCE, "", AUTH_DISABLED, Config.defaults() );
 
         storeView.setProcessListener( new NodeUpdateProcessListener( indexPopulator ) );
 
@@ -178,10 +180,10 @@ class MultipleIndexPopulatorUpdatesTest
         }
 
         @Override
-        public boolean process( StorageNodeCursor cursor ) throws FAILURE
+        public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
         {
             processListener.receive( cursor );
-            return super.process( cursor );
+            return super.process( cursor, propertyCursor );
         }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.api.state.EntityChangeLog.createEntityChangeLog;
+
+class EntityChangeLogTest
+{
+    @Test
+    void shouldNotContainPositionZero()
+    {
+        EntityChangeLog log = createEntityChangeLog( new LocalMemoryTracker() );
+
+        assertFalse( log.contains( 0 ) );
+        long position = log.markVisited();
+        assertTrue( log.contains( position ) );
+        assertFalse( log.contains( 0 ) );
+    }
+
+    @Test
+    void shouldGrowBeyondInitialCapacity()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        EntityChangeLog log = createEntityChangeLog( memoryTracker );
+        long position = log.markVisited();
+        long heapBefore = memoryTracker.estimatedHeapMemory();
+
+        for ( long id = 0; id < 100; id++ )
+        {
+            log.changed( id );
+        }
+
+        LongArrayList visited = new LongArrayList();
+        long newPosition = log.visit( position, visited::add );
+        assertThat( visited.size() ).isEqualTo( 100 );
+        assertThat( visited.get( 99 ) ).isEqualTo( 99L );
+        assertThat( newPosition ).isEqualTo( position + 100 );
+        assertThat( memoryTracker.estimatedHeapMemory() ).isGreaterThan( heapBefore );
+    }
+
+    @Test
+    void shouldOnlyLogRepeatedChangesOnceUntilVisited()
+    {
+        EntityChangeLog log = createEntityChangeLog( new LocalMemoryTracker() );
+        long position = log.markVisited();
+
+        log.changed( 1 );
+        log.changed( 1 );
+        LongArrayList visited = new LongArrayList();
+        position = log.visit( position, visited::add );
+        log.changed( 1 );
+        log.visit( position, visited::add );
+
+        assertThat( visited.toArray() ).containsExactly( 1, 1 );
+    }
+
+    @Test
+    void shouldInvalidateAllPositionsWhenTruncatedAtMaxCapacity()
+    {
+        EntityChangeLog log = createEntityChangeLog( new LocalMemoryTracker(), 4 );
+        long initialPosition = log.markVisited();
+        for ( long id = 0; id < 3; id++ )
+        {
+            log.changed( id );
+        }
+        long middlePosition = log.visit( initialPosition, id -> {} );
+        log.changed( 3 );
+        long fullPosition = log.markVisited();
+        assertTrue( log.contains( initialPosition ) );
+        assertTrue( log.contains( fullPosition ) );
+
+        // when
+        log.changed( 4 );
+
+        // then
+        assertFalse( log.contains( initialPosition ) );
+        assertFalse( log.contains( middlePosition ) );
+        assertFalse( log.contains( fullPosition ) );
+        LongArrayList visited = new LongArrayList();
+        long position = log.markVisited();
+        log.changed( 5 );
+        log.visit( position, visited::add );
+        assertThat( visited.toArray() ).containsExactly( 5 );
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.eclipse.collections.api.IntIterable;
 import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.impl.UnmodifiableMap;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.eclipse.collections.impl.factory.primitive.LongSets;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.jupiter.api.AfterEach;
@@ -1007,6 +1008,93 @@ abstract class TxStateTest
         assertFalse( state.hasDataChanges() );
     }
 
+    @Test
+    void changeLogMustContainChangedEntitiesInOrderOfChange()
+    {
+        long nodePosition = state.visitChangedNodes( 0, id -> fail( "Did not expect node " + id ) );
+        long relationshipPosition = state.visitChangedRelationships( 0, id -> fail( "Did not expect relationship " + id ) );
+
+        state.nodeDoCreate( 0 );
+        state.nodeDoAddProperty( 0, 0, Values.booleanValue( true ) );
+        state.nodeDoAddLabel( 0, 1 );
+        state.relationshipDoCreate( 10, 0, 0, 1 );
+        state.relationshipDoReplaceProperty( 11, 0, Values.NO_VALUE, Values.booleanValue( true ) );
+        state.nodeDoChangeProperty( 0, 0, Values.booleanValue( false ) );
+
+        LongArrayList nodes = new LongArrayList();
+        nodePosition = state.visitChangedNodes( nodePosition, nodes::add );
+        assertThat( nodes.toArray() ).containsExactly( 0, 1, 0 );
+        LongArrayList relationships = new LongArrayList();
+        relationshipPosition = state.visitChangedRelationships( relationshipPosition, relationships::add );
+        assertThat( relationships.toArray() ).containsExactly( 10, 11 );
+
+        state.nodeDoRemoveLabel( 0, 2 );
+        state.nodeDoDelete( 3 );
+        state.relationshipDoRemoveProperty( 11, 0 );
+
+        nodes.clear();
+        nodePosition = state.visitChangedNodes( nodePosition, nodes::add );
+        assertThat( nodes.toArray() ).containsExactly( 2, 3 );
+        relationships.clear();
+        relationshipPosition = state.visitChangedRelationships( relationshipPosition, relationships::add );
+        assertThat( relationships.toArray() ).containsExactly( 11 );
+
+        nodes.clear();
+        relationships.clear();
+        assertThat( state.visitChangedNodes( nodePosition, nodes::add ) ).isEqualTo( nodePosition );
+        assertThat( state.visitChangedRelationships( relationshipPosition, relationships::add ) ).isEqualTo( relationshipPosition );
+        assertTrue( nodes.isEmpty() );
+        assertTrue( relationships.isEmpty() );
+    }
+
+    @Test
+    void firstVisitOfChangeLogMustVisitAllEntitiesChangedBeforeIt()
+    {
+        state.nodeDoCreate( 0 );
+        state.nodeDoAddLabel( 1, 2 );
+        state.nodeDoDelete( 3 );
+        state.relationshipDoCreate( 10, 0, 0, 0 );
+        state.relationshipDoReplaceProperty( 11, 0, Values.NO_VALUE, Values.booleanValue( true ) );
+        state.relationshipDoDelete( 12, 0, 4, 5 );
+
+        LongHashSet nodes = new LongHashSet();
+        long nodePosition = state.visitChangedNodes( 0, nodes::add );
+        assertThat( nodes.containsAll( 0, 2, 3 ) ).isTrue();
+        LongHashSet relationships = new LongHashSet();
+        long relationshipPosition = state.visitChangedRelationships( 0, relationships::add );
+        assertThat( relationships.toSortedArray() ).containsExactly( 10, 11, 12 );
+
+        // The changes made from here on are logged
+        state.nodeDoAddProperty( 6, 0, Values.booleanValue( true ) );
+        LongArrayList changedNodes = new LongArrayList();
+        state.visitChangedNodes( nodePosition, changedNodes::add );
+        assertThat( changedNodes.toArray() ).containsExactly( 6 );
+        assertThat( state.visitChangedRelationships( relationshipPosition, id -> fail( "Did not expect relationship " + id ) ) )
+                .isEqualTo( relationshipPosition );
+
+        // while a reader that starts out later still gets to see all changes
+        LongHashSet lateReaderNodes = new LongHashSet();
+        state.visitChangedNodes( 0, lateReaderNodes::add );
+        assertThat( lateReaderNodes.containsAll( 0, 2, 3, 6 ) ).isTrue();
+    }
+
+    @Test
+    void changeLogMustNotContainChangesOfSchemaOrTokens()
+    {
+        long nodePosition = state.visitChangedNodes( 0, id -> fail( "Did not expect node " + id ) );
+        long relationshipPosition = state.visitChangedRelationships( 0, id -> fail( "Did not expect relationship " + id ) );
+
+        state.indexDoAdd( indexOn_1_1 );
+        state.labelDoCreateForName( "Label", false, 0 );
+        state.propertyKeyDoCreateForName( "prop", false, 0 );
+
+        assertThat( state.visitChangedNodes( nodePosition, id -> fail( "Did not expect node " + id ) ) ).isEqualTo( nodePosition );
+        assertThat( state.visitChangedRelationships( relationshipPosition, id -> fail( "Did not expect relationship " + id ) ) )
+                .isEqualTo( relationshipPosition );
+        state.visitChangedNodes( 0, id -> fail( "Did not expect node " + id ) );
+        state.visitChangedRelationships( 0, id -> fail( "Did not expect relationship " + id ) );
+    }
+
     //    getOrCreateLabelStateNodeDiffSets
 
     @Test
@@ -1032,6 +1120,7 @@ abstract class TxStateTest
         diffSets.remove( 2 );
 
         verify( collectionsFactory, times( 2 ) ).newLongSet( memoryTracker );
+        verify( collectionsFactory, times( 2 ) ).generation( memoryTracker );
         verifyNoMoreInteractions( collectionsFactory );
     }
 
@@ -1044,6 +1133,7 @@ abstract class TxStateTest
         diffSets.remove( 2 );
 
         verify( collectionsFactory, times( 2 ) ).newLongSet( memoryTracker );
+        verify( collectionsFactory, times( 2 ) ).generation( memoryTracker );
         verifyNoMoreInteractions( collectionsFactory );
     }
 
@@ -1054,6 +1144,7 @@ abstract class TxStateTest
         diffSets.add( 1 );
         diffSets.remove( 2 );
         verify( collectionsFactory, times( 2 ) ).newLongSet( memoryTracker );
+        verify( collectionsFactory, times( 2 ) ).generation( memoryTracker );
         verifyNoMoreInteractions( collectionsFactory );
     }
 
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.time.Clocks;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.neo4j.lock.ResourceTypes.NODE;
+
+class StripedLockManagerTest
+{
+    private final StripedLockManager locks = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), ResourceTypes.values() );
+    private final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdownNow();
+        locks.close();
+    }
+
+    @Test
+    void shouldRemoveLocksThatNobodyHolds()
+    {
+        // given
+        try ( Locks.Client client = locks.newClient() )
+        {
+            client.acquireExclusive( LockTracer.NONE, NODE, 3 );
+            client.acquireShared( LockTracer.NONE, NODE, 3 );
+            ResourceLock lock = locks.lock( NODE, 3 );
+
+            // when
+            client.releaseExclusive( NODE, 3 );
+
+            // then the shared lock is still held in the same lock
+            assertSame( lock, locks.lock( NODE, 3 ) );
+
+            // and when
+            client.releaseShared( NODE, 3 );
+
+            // then
+            assertEquals( ResourceLock.Holders.RETIRED, lock.holders() );
+            assertNotSame( lock, locks.lock( NODE, 3 ) );
+        }
+    }
+
+    @Test
+    void shouldTraceAcquisitionOfLocksNotAlreadyHeld()
+    {
+        // given
+        AcquisitionTracer tracer = new AcquisitionTracer();
+        try ( Locks.Client client = locks.newClient() )
+        {
+            // when
+            client.acquireShared( tracer, NODE, 1, 2 );
+            client.acquireShared( tracer, NODE, 1 );
+            client.acquireExclusive( tracer, ResourceTypes.RELATIONSHIP, 1 );
+
+            // then
+            assertThat( tracer.acquired ).containsExactly( "SHARED NODE(1)", "SHARED NODE(2)", "EXCLUSIVE RELATIONSHIP(1)" );
+        }
+    }
+
+    @Test
+    void shouldFailOnlyOneClientOfADeadlock() throws Exception
+    {
+        // given
+        Locks.Client clientA = locks.newClient();
+        Locks.Client clientB = locks.newClient();
+        clientA.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        clientB.acquireExclusive( LockTracer.NONE, NODE, 2 );
+
+        // when
+        Future<Boolean> a = executor.submit( () -> acquireOrGiveUpOnDeadlock( clientA, 2 ) );
+        Future<Boolean> b = executor.submit( () -> acquireOrGiveUpOnDeadlock( clientB, 1 ) );
+
+        // then
+        boolean acquiredByA = a.get( 1, MINUTES );
+        boolean acquiredByB = b.get( 1, MINUTES );
+        assertThat( acquiredByA ).isNotEqualTo( acquiredByB );
+        clientA.close();
+        clientB.close();
+    }
+
+    private static boolean acquireOrGiveUpOnDeadlock( Locks.Client client, long nodeId )
+    {
+        try
+        {
+            client.acquireExclusive( LockTracer.NONE, NODE, nodeId );
+            return true;
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            client.close();
+            return false;
+        }
+    }
+
+    private static class AcquisitionTracer implements LockTracer
+    {
+        private final List<String> acquired = new ArrayList<>();
+
+        @Override
+        public LockWaitEvent waitForLock( LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds )
+        {
+            return LockWaitEvent.NONE;
+        }
+
+        @Override
+        public void lockAcquired( LockType lockType, ResourceType resourceType, long transactionId, long resourceId, long acquisitionNanos )
+        {
+            acquired.add( lockType + " " + resourceType + "(" + resourceId + ")" );
+        }
+    }
+}
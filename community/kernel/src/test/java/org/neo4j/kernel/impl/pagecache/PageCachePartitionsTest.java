@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.PageCachePartitioning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_partition_max;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_partition_reserved;
+import static org.neo4j.kernel.impl.pagecache.PageCachePartitions.COUNTS_FILE_TYPE;
+import static org.neo4j.kernel.impl.pagecache.PageCachePartitions.ID_FILE_TYPE;
+import static org.neo4j.kernel.impl.pagecache.PageCachePartitions.INDEX_FILE_TYPE;
+import static org.neo4j.kernel.impl.pagecache.PageCachePartitions.STORE_FILE_TYPE;
+
+class PageCachePartitionsTest
+{
+    private final Path databaseDirectory = Path.of( "data", "databases", "neo4j" );
+
+    @Test
+    void noPartitionsByDefault()
+    {
+        assertSame( PageCachePartitioning.NONE, PageCachePartitions.partitioning( Config.defaults() ) );
+    }
+
+    @Test
+    void mustClassifyDatabaseFiles()
+    {
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( "neostore.nodestore.db" ) ) ).isEqualTo( STORE_FILE_TYPE );
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( "neostore" ) ) ).isEqualTo( STORE_FILE_TYPE );
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( "neostore.nodestore.db.id" ) ) ).isEqualTo( ID_FILE_TYPE );
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( "neostore.counts.db" ) ) ).isEqualTo( COUNTS_FILE_TYPE );
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( "neostore.labelscanstore.db" ) ) ).isEqualTo( INDEX_FILE_TYPE );
+        assertThat( PageCachePartitions.fileType( databaseDirectory.resolve( Path.of( "schema", "index", "native-btree-1.0", "1", "index-1" ) ) ) )
+                .isEqualTo( INDEX_FILE_TYPE );
+    }
+
+    @Test
+    void mustPlaceFilesInMostSpecificPartition()
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_partition_reserved, List.of( "neo4j=1g" ) )
+                .set( pagecache_partition_max, List.of( "neo4j/index=512m", "other=2g" ) ).build();
+        PageCachePartitioning partitioning = PageCachePartitions.partitioning( config );
+
+        assertThat( partitioning.partitions() ).containsExactly( "neo4j", "neo4j/index", "other" );
+        assertThat( partitioning.reservedBytes( "neo4j" ) ).isEqualTo( ByteUnit.gibiBytes( 1 ) );
+        assertThat( partitioning.maxBytes( "neo4j" ) ).isEqualTo( Long.MAX_VALUE );
+        assertThat( partitioning.maxBytes( "neo4j/index" ) ).isEqualTo( ByteUnit.mebiBytes( 512 ) );
+
+        Path storeFile = databaseDirectory.resolve( "neostore.nodestore.db" );
+        Path indexFile = databaseDirectory.resolve( Path.of( "schema", "index", "native-btree-1.0", "1", "index-1" ) );
+        assertThat( partitioning.partitionOf( storeFile, "neo4j" ) ).isEqualTo( "neo4j" );
+        assertThat( partitioning.partitionOf( indexFile, "neo4j" ) ).isEqualTo( "neo4j/index" );
+        assertThat( partitioning.partitionOf( indexFile, "other" ) ).isEqualTo( "other" );
+        assertThat( partitioning.partitionOf( storeFile, "system" ) ).isNull();
+        assertThat( partitioning.partitionOf( storeFile, null ) ).isNull();
+    }
+
+    @Test
+    void mustRejectInvalidEntries()
+    {
+        assertThrows( IllegalArgumentException.class,
+                () -> PageCachePartitions.partitioning( Config.defaults( pagecache_partition_max, List.of( "neo4j" ) ) ) );
+        assertThrows( IllegalArgumentException.class,
+                () -> PageCachePartitions.partitioning( Config.defaults( pagecache_partition_max, List.of( "=1g" ) ) ) );
+        assertThrows( IllegalArgumentException.class,
+                () -> PageCachePartitions.partitioning( Config.defaults( pagecache_partition_max, List.of( "neo4j=lots" ) ) ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCachePartitions.partitioning( Config.newBuilder()
+                .set( pagecache_partition_reserved, List.of( "neo4j=2g" ) )
+                .set( pagecache_partition_max, List.of( "neo4j=1g" ) ).build() ) );
+    }
+}
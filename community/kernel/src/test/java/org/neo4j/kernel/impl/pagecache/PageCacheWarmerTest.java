@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int FILE_PAGES = 20;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler jobScheduler;
+    private Path databaseDirectory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        databaseDirectory = testDirectory.homePath().resolve( "db" ).toAbsolutePath().normalize();
+        file = databaseDirectory.resolve( "store" );
+        fs.mkdirs( databaseDirectory.toFile() );
+        fs.write( file.toFile() ).close();
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < FILE_PAGES; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+        fs.close();
+    }
+
+    @Test
+    void mustLoadProfiledPagesOnStart() throws Exception
+    {
+        Config config = Config.defaults();
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            for ( long pageId : new long[]{2, 3, 4, 11} )
+            {
+                try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK, NULL ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            createWarmer( pageCache, config ).profile();
+        }
+        assertTrue( fs.fileExists( databaseDirectory.resolve( PageCacheWarmer.PROFILES_DIRECTORY_NAME )
+                .resolve( "store" + PageCacheWarmer.PROFILE_SUFFIX ).toFile() ) );
+
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache, config );
+            warmer.start();
+            try
+            {
+                assertPagesInMemory( pagedFile, 2, 3, 4, 11 );
+            }
+            finally
+            {
+                warmer.stop();
+            }
+        }
+    }
+
+    @Test
+    void mustLoadWholeWhitelistedFilesWhenPreloading() throws Exception
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_prefetch, true );
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache, config );
+            warmer.start();
+            try
+            {
+                long[] allPages = new long[FILE_PAGES];
+                for ( int i = 0; i < FILE_PAGES; i++ )
+                {
+                    allPages[i] = i;
+                }
+                assertPagesInMemory( pagedFile, allPages );
+            }
+            finally
+            {
+                warmer.stop();
+            }
+        }
+    }
+
+    @Test
+    void mustNotLoadAnythingWhenDisabled() throws Exception
+    {
+        Config config = Config.newBuilder()
+                .set( GraphDatabaseSettings.pagecache_warmup_enabled, false )
+                .set( GraphDatabaseSettings.pagecache_warmup_prefetch, true ).build();
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache, config );
+            warmer.start();
+            warmer.stop();
+            assertPagesInMemory( pagedFile );
+        }
+    }
+
+    private PageCache createPageCache()
+    {
+        return ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler, PageCacheTracer.NULL );
+    }
+
+    private PageCacheWarmer createWarmer( PageCache pageCache, Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, PageCacheTracer.NULL, NullLog.getInstance() );
+    }
+
+    private static void assertPagesInMemory( PagedFile pagedFile, long... expectedPageIds ) throws IOException
+    {
+        int expectedIndex = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            for ( long pageId = 0; pageId < FILE_PAGES; pageId++ )
+            {
+                assertTrue( cursor.next() );
+                boolean expected = expectedIndex < expectedPageIds.length && expectedPageIds[expectedIndex] == pageId;
+                if ( expected )
+                {
+                    expectedIndex++;
+                }
+                assertThat( cursor.getCurrentPageId() ).as( "page " + pageId ).isEqualTo( expected ? pageId : PageCursor.UNBOUND_PAGE_ID );
+            }
+        }
+    }
+}
@@ -174,6 +174,11 @@ class BatchingTransactionAppenderRotationIT
 
         }
 
+        @Override
+        public void setAppendBatchSize( int appendBatchSize )
+        {
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
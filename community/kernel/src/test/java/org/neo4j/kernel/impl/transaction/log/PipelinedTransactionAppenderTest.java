@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.monitoring.Health;
+import org.neo4j.storageengine.api.TransactionId;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.OtherThreadExecutor;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+
+@ExtendWith( LifeExtension.class )
+class PipelinedTransactionAppenderTest
+{
+    @Inject
+    private LifeSupport life;
+
+    private final InMemoryClosableChannel channel = spy( new InMemoryClosableChannel() );
+    private final Health databaseHealth = mock( DatabaseHealth.class );
+    private final LogFile logFile = mock( LogFile.class );
+    private final LogFiles logFiles = mock( TransactionLogFiles.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final AtomicLong lastTransactionId = new AtomicLong( TransactionIdStore.BASE_TX_ID );
+    private ThreadPoolJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = new ThreadPoolJobScheduler();
+        when( logFiles.getLogFile() ).thenReturn( logFile );
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).then( invocation -> lastTransactionId.incrementAndGet() );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn(
+                new TransactionId( TransactionIdStore.BASE_TX_ID, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        life.shutdown();
+        scheduler.close();
+    }
+
+    @Test
+    void shouldAppendBatchOfTransactions() throws Exception
+    {
+        // GIVEN
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        TransactionToApply batch = new TransactionToApply( transaction(), NULL );
+        batch.next( new TransactionToApply( transaction(), NULL ) );
+
+        // WHEN
+        long lastCommitted = appender.append( batch, LogAppendEvent.NULL );
+
+        // THEN
+        assertEquals( 3L, lastCommitted );
+        assertEquals( 2L, batch.transactionId() );
+        assertEquals( 3L, batch.next().transactionId() );
+        assertNull( batch.next().next() );
+        LogEntryReader logEntryReader = logEntryReader();
+        try ( PhysicalTransactionCursor reader = new PhysicalTransactionCursor( channel, logEntryReader ) )
+        {
+            assertThat( reader.next() ).isTrue();
+            assertEquals( 2L, reader.get().getCommitEntry().getTxId() );
+            assertThat( reader.next() ).isTrue();
+            assertEquals( 3L, reader.get().getCommitEntry().getTxId() );
+            assertThat( reader.next() ).isFalse();
+        }
+        verify( channel ).prepareForFlush();
+    }
+
+    @Test
+    void shouldForceConcurrentlyQueuedAppendsTogether() throws Exception
+    {
+        // GIVEN
+        CountDownLatch firstForceStarted = new CountDownLatch( 1 );
+        CountDownLatch releaseFirstForce = new CountDownLatch( 1 );
+        doAnswer( invocation ->
+        {
+            Flushable flushable = (Flushable) invocation.callRealMethod();
+            return (Flushable) () ->
+            {
+                firstForceStarted.countDown();
+                awaitUninterruptibly( releaseFirstForce );
+                flushable.flush();
+            };
+        } ).when( channel ).prepareForFlush();
+        LogRotation logRotation = mock( LogRotation.class );
+        when( logRotation.rotateLogIfNeeded( any() ) ).thenReturn( true );
+        PipelinedTransactionAppender appender = life.add( createTransactionAppender( logRotation ) );
+        int committers = 8;
+        RecordingLogAppendEvent firstEvent = new RecordingLogAppendEvent();
+        List<RecordingLogAppendEvent> events = new ArrayList<>();
+        List<Future<Long>> commits = new ArrayList<>();
+        List<OtherThreadExecutor> threads = new ArrayList<>();
+
+        try
+        {
+            // WHEN
+            OtherThreadExecutor firstCommitter = new OtherThreadExecutor( "committer-0" );
+            threads.add( firstCommitter );
+            Future<Long> firstCommit = firstCommitter.executeDontWait( () -> appender.append( new TransactionToApply( transaction(), NULL ), firstEvent ) );
+            firstForceStarted.await();
+            for ( int i = 1; i < committers; i++ )
+            {
+                RecordingLogAppendEvent event = new RecordingLogAppendEvent();
+                events.add( event );
+                OtherThreadExecutor committer = new OtherThreadExecutor( "committer-" + i );
+                threads.add( committer );
+                commits.add( committer.executeDontWait( () -> appender.append( new TransactionToApply( transaction(), NULL ), event ) ) );
+            }
+            for ( OtherThreadExecutor committer : threads.subList( 1, threads.size() ) )
+            {
+                // A committer parks on the appender once its append is queued up, and is waiting for the log writer.
+                committer.waitUntil( thread -> LockSupport.getBlocker( thread ) == appender );
+            }
+            releaseFirstForce.countDown();
+
+            // THEN
+            assertEquals( 2L, firstCommit.get() );
+            for ( Future<Long> commit : commits )
+            {
+                assertThat( commit.get() ).isBetween( 3L, 1L + committers );
+            }
+            assertEquals( 1, firstEvent.appendBatchSize );
+            assertEquals( 1, firstEvent.logForces.get() );
+            assertTrue( firstEvent.logRotated );
+            for ( RecordingLogAppendEvent event : events )
+            {
+                assertEquals( committers - 1, event.appendBatchSize );
+                // Every append of the batch is made durable by the same force, and sees the rotation that followed it
+                assertEquals( 1, event.logForces.get() );
+                assertTrue( event.logRotated );
+            }
+            verify( logRotation, times( 2 ) ).rotateLogIfNeeded( any() );
+        }
+        finally
+        {
+            releaseFirstForce.countDown();
+            threads.forEach( OtherThreadExecutor::close );
+        }
+    }
+
+    @Test
+    void shouldPanicAndFailCommitterIfForceFails() throws Exception
+    {
+        // GIVEN
+        IOException failure = new IOException( "Forces a failure" );
+        Flushable flushable = mock( Flushable.class );
+        doAnswer( invocation ->
+        {
+            invocation.callRealMethod();
+            return flushable;
+        } ).when( channel ).prepareForFlush();
+        doThrow( failure ).when( flushable ).flush();
+        TransactionAppender appender = life.add( createTransactionAppender() );
+
+        // WHEN
+        var e = assertThrows( IOException.class, () -> appender.append( new TransactionToApply( transaction(), NULL ), LogAppendEvent.NULL ) );
+
+        // THEN
+        assertSame( failure, e );
+        verify( transactionIdStore, never() ).transactionCommitted( anyLong(), anyInt(), anyLong(), any() );
+        verify( databaseHealth ).panic( failure );
+    }
+
+    @Test
+    void shouldPanicIfTransactionIdsMismatch()
+    {
+        // GIVEN
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        TransactionToApply batch = new TransactionToApply( transaction(), 43L, NULL );
+
+        // WHEN
+        var e = assertThrows( IllegalStateException.class, () -> appender.append( batch, LogAppendEvent.NULL ) );
+
+        // THEN
+        verify( databaseHealth ).panic( e );
+    }
+
+    @Test
+    void shouldBeAbleToWriteACheckPoint() throws Exception
+    {
+        // GIVEN
+        TransactionAppender appender = life.add( createTransactionAppender() );
+
+        // WHEN
+        appender.checkPoint( new LogPosition( 1L, 2L ), LogCheckPointEvent.NULL );
+
+        // THEN
+        assertThat( channel.writerPosition() ).isGreaterThan( 0 );
+        verify( channel ).prepareForFlush();
+        verify( databaseHealth, never() ).panic( any() );
+    }
+
+    private PipelinedTransactionAppender createTransactionAppender()
+    {
+        return createTransactionAppender( NO_ROTATION );
+    }
+
+    private PipelinedTransactionAppender createTransactionAppender( LogRotation logRotation )
+    {
+        return new PipelinedTransactionAppender( logFiles, logRotation, new TransactionMetadataCache(), transactionIdStore, databaseHealth,
+                scheduler, "test", 16, false );
+    }
+
+    private static TransactionRepresentation transaction()
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( Collections.singletonList( new TestCommand() ) );
+        tx.setHeader( new byte[0], 0, 1, 0, -1, ANONYMOUS );
+        return tx;
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static class RecordingLogAppendEvent extends LogAppendEvent.Empty
+    {
+        private final AtomicInteger logForces = new AtomicInteger();
+        private volatile int appendBatchSize;
+        private volatile boolean logRotated;
+
+        @Override
+        public void setAppendBatchSize( int appendBatchSize )
+        {
+            this.appendBatchSize = appendBatchSize;
+        }
+
+        @Override
+        public void setLogRotated( boolean logRotated )
+        {
+            this.logRotated = logRotated;
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            logForces.incrementAndGet();
+            return LogForceEvent.NULL;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class CompressingLogEntryWriterTest
+{
+    private final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+    private final LogEntryWriter writer = new CompressingLogEntryWriter( channel );
+    private final LogEntryReader reader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+
+    @Test
+    void shouldReadBackCommandsOfCompressedTransaction() throws IOException
+    {
+        // given
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 20; i++ )
+        {
+            commands.add( new TestCommand( new byte[]{(byte) i, 1, 2, 3, 4, 5, 6, 7, 8, 9} ) );
+        }
+        int uncompressedCommandsSize = commands.size() * (1 + 1 + Integer.BYTES + 10);
+
+        // when
+        writer.writeStartEntry( 1, 2, BASE_TX_CHECKSUM, new byte[0] );
+        int startEntryEnd = channel.writerPosition();
+        writer.serialize( commands );
+        int commandsSize = channel.writerPosition() - startEntryEnd;
+        int checksum = writer.writeCommitEntry( 3, 4 );
+
+        // then
+        assertThat( commandsSize ).isLessThan( uncompressedCommandsSize );
+        assertReadsBack( commands, checksum );
+    }
+
+    @Test
+    void shouldWriteCommandsOfSmallTransactionsUncompressed() throws IOException
+    {
+        // given
+        List<StorageCommand> commands = List.of( new TestCommand( new byte[]{1, 2, 3} ) );
+
+        // when
+        writer.writeStartEntry( 1, 2, BASE_TX_CHECKSUM, new byte[0] );
+        writer.serialize( commands );
+        int checksum = writer.writeCommitEntry( 3, 4 );
+
+        // then
+        assertReadsBack( commands, checksum );
+    }
+
+    @Test
+    void shouldFailOnCorruptUncompressedLength() throws IOException
+    {
+        // given
+        int entryStart = writeCompressedTransaction();
+
+        // when
+        overwriteInt( entryStart + 2, -5 );
+
+        // then
+        assertCorrupt( "Invalid uncompressed length -5" );
+    }
+
+    @Test
+    void shouldFailOnCorruptCompressedLength() throws IOException
+    {
+        // given
+        int entryStart = writeCompressedTransaction();
+
+        // when
+        overwriteInt( entryStart + 2 + Integer.BYTES, Integer.MAX_VALUE );
+
+        // then
+        assertCorrupt( "Invalid compressed length " + Integer.MAX_VALUE );
+    }
+
+    @Test
+    void shouldFailOnUncompressedLengthNotMatchingCompressedBlock() throws IOException
+    {
+        // given
+        int entryStart = writeCompressedTransaction();
+        channel.positionReader( entryStart + 2 );
+        int uncompressedLength = channel.getInt();
+        channel.positionReader( 0 );
+
+        // when
+        overwriteInt( entryStart + 2, uncompressedLength * 2 );
+
+        // then
+        assertCorrupt( "Compressed commands claim to be " + uncompressedLength * 2 + " bytes uncompressed" );
+    }
+
+    @Test
+    void shouldSeeEndOfLogInTornCompressedEntry() throws IOException
+    {
+        // given
+        int entryStart = writeCompressedTransaction();
+
+        // when
+        channel.truncateTo( entryStart + 2 + 2 * Integer.BYTES + 5 );
+
+        // then
+        InMemoryClosableChannel.Reader channel = this.channel.reader();
+        assertThat( reader.readLogEntry( channel ) ).isInstanceOf( LogEntryStart.class );
+        assertNull( reader.readLogEntry( channel ) );
+    }
+
+    /**
+     * @return position of the compressed commands entry.
+     */
+    private int writeCompressedTransaction() throws IOException
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            commands.add( new TestCommand( new byte[]{(byte) i, 1, 2, 3, 4, 5, 6, 7, 8, 9} ) );
+        }
+        writer.writeStartEntry( 1, 2, BASE_TX_CHECKSUM, new byte[0] );
+        int entryStart = channel.writerPosition();
+        writer.serialize( commands );
+        writer.writeCommitEntry( 3, 4 );
+        channel.positionReader( entryStart + 1 );
+        assertEquals( LogEntryTypeCodes.COMPRESSED_COMMANDS, channel.get() );
+        channel.positionReader( 0 );
+        return entryStart;
+    }
+
+    private void overwriteInt( int position, int value )
+    {
+        int end = channel.positionWriter( position );
+        channel.putInt( value );
+        channel.positionWriter( end );
+    }
+
+    private void assertCorrupt( String message )
+    {
+        InMemoryClosableChannel.Reader channel = this.channel.reader();
+        IOException e = assertThrows( IOException.class, () ->
+        {
+            reader.readLogEntry( channel );
+            reader.readLogEntry( channel );
+        } );
+        assertThat( e ).hasMessageContaining( message );
+    }
+
+    private void assertReadsBack( List<StorageCommand> commands, int checksum ) throws IOException
+    {
+        InMemoryClosableChannel.Reader channel = this.channel.reader();
+        LogEntry start = reader.readLogEntry( channel );
+        assertThat( start ).isInstanceOf( LogEntryStart.class );
+        assertEquals( V4_2.version(), start.getVersion() );
+        for ( StorageCommand command : commands )
+        {
+            LogEntry entry = reader.readLogEntry( channel );
+            assertEquals( new LogEntryCommand( V4_2.version(), command ), entry );
+            assertEquals( V4_2.version(), entry.getVersion() );
+        }
+        LogEntry commit = reader.readLogEntry( channel );
+        assertEquals( new LogEntryCommit( V4_2.version(), 3, 4, checksum ), commit );
+        assertNull( reader.readLogEntry( channel ) );
+    }
+}
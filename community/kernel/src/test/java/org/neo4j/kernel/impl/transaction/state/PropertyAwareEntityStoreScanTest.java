@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan;
 import org.neo4j.lock.LockService;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StubStorageCursors;
 
@@ -63,7 +64,7 @@ class PropertyAwareEntityStoreScanTest
                         id -> locks.acquireNodeLock( id, SHARED ), PageCursorTracer.NULL, INSTANCE )
                 {
                     @Override
-                    public boolean process( StorageNodeCursor node )
+                    public boolean process( StorageNodeCursor node, StoragePropertyCursor propertyCursor )
                     {
                         // then
                         read.incrementAndGet();
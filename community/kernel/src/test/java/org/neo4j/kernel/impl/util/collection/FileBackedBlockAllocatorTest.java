@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator.MemoryBlock;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@TestDirectoryExtension
+class FileBackedBlockAllocatorTest
+{
+    @Inject
+    private TestDirectory directory;
+
+    private final MemoryTracker memoryTracker = new LocalMemoryTracker();
+
+    @Test
+    void allocateWriteReadAndFree() throws IOException
+    {
+        Path spillDirectory = directory.homePath().resolve( "spill" );
+        FileBackedBlockAllocator blockAllocator = new FileBackedBlockAllocator( spillDirectory );
+        MemoryAllocator allocator = new OffHeapMemoryAllocator( blockAllocator );
+
+        Memory memory = allocator.allocate( 1 << 16, true, memoryTracker );
+        for ( long offset = 0; offset < memory.size(); offset += Long.BYTES )
+        {
+            assertEquals( 0, memory.readLong( offset ) );
+            memory.writeLong( offset, offset * 7 );
+        }
+        Memory copy = memory.copy( memoryTracker );
+        memory.free( memoryTracker );
+
+        for ( long offset = 0; offset < copy.size(); offset += Long.BYTES )
+        {
+            assertEquals( offset * 7, copy.readLong( offset ) );
+        }
+        copy.free( memoryTracker );
+        blockAllocator.release();
+
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+        try ( Stream<Path> files = Files.list( spillDirectory ) )
+        {
+            assertThat( files ).isEmpty();
+        }
+    }
+
+    @Test
+    void carveBlocksOutOfFewSegments()
+    {
+        FileBackedBlockAllocator blockAllocator = new FileBackedBlockAllocator( directory.homePath() );
+
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            blockAllocator.allocate( 100, memoryTracker );
+        }
+
+        // 100 000 blocks of 128 bytes need 1 + 2 + 4 + 8 MiB
+        assertEquals( 4, blockAllocator.segmentCount() );
+        blockAllocator.release();
+        assertEquals( 0, blockAllocator.segmentCount() );
+    }
+
+    @Test
+    void reuseFreedBlocks()
+    {
+        FileBackedBlockAllocator blockAllocator = new FileBackedBlockAllocator( directory.homePath() );
+
+        MemoryBlock block = blockAllocator.allocate( 1000, memoryTracker );
+        blockAllocator.free( block, memoryTracker );
+        MemoryBlock reused = blockAllocator.allocate( 1024, memoryTracker );
+        MemoryBlock other = blockAllocator.allocate( 1000, memoryTracker );
+
+        assertEquals( block.addr, reused.addr );
+        assertEquals( 1024, reused.size );
+        assertNotEquals( block.addr, other.addr );
+        blockAllocator.release();
+    }
+
+    @Test
+    void allocateBlocksLargerThanSegment()
+    {
+        FileBackedBlockAllocator blockAllocator = new FileBackedBlockAllocator( directory.homePath() );
+        MemoryAllocator allocator = new OffHeapMemoryAllocator( blockAllocator );
+
+        Memory small = allocator.allocate( 100, true, memoryTracker );
+        Memory large = allocator.allocate( 3 * FileBackedBlockAllocator.MIN_SEGMENT_SIZE, true, memoryTracker );
+        large.writeLong( large.size() - Long.BYTES, 42 );
+
+        assertEquals( 42, large.readLong( large.size() - Long.BYTES ) );
+        assertEquals( 0, small.readLong( 0 ) );
+        assertEquals( 2, blockAllocator.segmentCount() );
+        blockAllocator.release();
+    }
+}
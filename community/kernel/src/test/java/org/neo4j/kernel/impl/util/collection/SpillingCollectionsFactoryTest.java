@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
+import org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+@TestDirectoryExtension
+class SpillingCollectionsFactoryTest
+{
+    private static final long MAX_ON_HEAP_MEMORY = 1024;
+
+    @Inject
+    private TestDirectory directory;
+
+    private final MemoryTracker memoryTracker = new LocalMemoryTracker();
+    private final CachingOffHeapBlockAllocator offHeapAllocator = new CachingOffHeapBlockAllocator();
+    private FileBackedBlockAllocator fileBackedAllocator;
+    private CollectionsFactory factory;
+
+    @BeforeEach
+    void setUp()
+    {
+        fileBackedAllocator = new FileBackedBlockAllocator( directory.homePath() );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( factory != null )
+        {
+            factory.release();
+        }
+        offHeapAllocator.release();
+        assertEquals( 0, memoryTracker.usedNativeMemory(), "Native memory is leaking" );
+    }
+
+    @Test
+    void shouldCreateOnHeapCollectionsUntilHeapThresholdIsCrossed()
+    {
+        // given
+        factory = new SpillingCollectionsFactory( offHeapAllocator, fileBackedAllocator, MAX_ON_HEAP_MEMORY, Long.MAX_VALUE );
+
+        // when
+        MutableLongSet onHeapSet = factory.newLongSet( memoryTracker );
+        memoryTracker.allocateHeap( MAX_ON_HEAP_MEMORY );
+        MutableLongSet offHeapSet = factory.newLongSet( memoryTracker );
+
+        // then
+        assertThat( onHeapSet ).isNotInstanceOf( MutableLinearProbeLongHashSet.class );
+        assertThat( offHeapSet ).isInstanceOf( MutableLinearProbeLongHashSet.class );
+        assertThat( memoryTracker.usedNativeMemory() ).isPositive();
+        memoryTracker.releaseHeap( MAX_ON_HEAP_MEMORY );
+    }
+
+    @Test
+    void shouldSpillToFilesWhenOffHeapThresholdIsCrossed()
+    {
+        // given
+        factory = new SpillingCollectionsFactory( offHeapAllocator, fileBackedAllocator, 0, 0 );
+
+        // when
+        MutableLongSet set = factory.newLongSet( memoryTracker );
+        MutableLongObjectMap<Value> values = factory.newValuesMap( memoryTracker );
+        for ( long i = 0; i < 10_000; i++ )
+        {
+            set.add( i );
+            values.put( i, i % 2 == 0 ? longValue( i ) : stringValue( "value" + i ) );
+        }
+
+        // then
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+        assertEquals( 10_000, set.size() );
+        for ( long i = 0; i < 10_000; i++ )
+        {
+            assertTrue( set.contains( i ) );
+            assertEquals( i % 2 == 0 ? longValue( i ) : stringValue( "value" + i ), values.get( i ) );
+        }
+    }
+
+    @Test
+    void shouldSpillToFilesWhenSharedOffHeapMemoryIsUsedUp()
+    {
+        // given
+        OffHeapBlockAllocator limitedAllocator = new CapacityLimitingBlockAllocatorDecorator( offHeapAllocator, 1 );
+        factory = new SpillingCollectionsFactory( limitedAllocator, fileBackedAllocator, 0, Long.MAX_VALUE );
+
+        // when
+        MutableLongDiffSets diffSets = factory.newLongDiffSets( memoryTracker );
+        for ( long i = 0; i < 1_000; i++ )
+        {
+            diffSets.add( i );
+            diffSets.remove( i + 10_000 );
+        }
+
+        // then
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+        assertEquals( 1_000, diffSets.getAdded().size() );
+        assertEquals( 1_000, diffSets.getRemoved().size() );
+    }
+
+    @Test
+    void shouldFreeEverythingOnRelease()
+    {
+        // given
+        factory = new SpillingCollectionsFactory( offHeapAllocator, fileBackedAllocator, 0, 1024 );
+        MutableLongSet set = factory.newLongSet( memoryTracker );
+        for ( long i = 0; i < 10_000; i++ )
+        {
+            set.add( i );
+        }
+
+        // when
+        factory.release();
+        factory = null;
+
+        // then
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void shouldSpillManyCollectionsToFewFiles() throws IOException
+    {
+        // given
+        factory = new SpillingCollectionsFactory( offHeapAllocator, fileBackedAllocator, 0, 0 );
+
+        // when
+        List<MutableLongSet> sets = new ArrayList<>();
+        for ( long i = 0; i < 110_000; i++ )
+        {
+            MutableLongSet set = factory.newLongSet( memoryTracker );
+            set.add( i );
+            sets.add( set );
+        }
+
+        // then
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+        assertThat( fileBackedAllocator.segmentCount() ).isBetween( 1, 16 );
+        for ( int i = 0; i < sets.size(); i++ )
+        {
+            assertEquals( LongSets.immutable.of( i ), sets.get( i ) );
+        }
+        factory.release();
+        factory = null;
+        assertEquals( 0, fileBackedAllocator.segmentCount() );
+        try ( Stream<Path> files = Files.list( directory.homePath() ) )
+        {
+            assertThat( files ).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldMoveDiffSetsOffHeapWhenHeapThresholdIsCrossed()
+    {
+        // given
+        factory = new SpillingCollectionsFactory( offHeapAllocator, fileBackedAllocator, MAX_ON_HEAP_MEMORY, Long.MAX_VALUE );
+        MutableLongDiffSets diffSets = TrackableDiffSets.newMutableLongDiffSets( factory, memoryTracker );
+        diffSets.add( 1 );
+        diffSets.remove( 2 );
+        LongSet onHeapAdded = diffSets.getAdded();
+        assertThat( onHeapAdded ).isNotInstanceOf( MutableLinearProbeLongHashSet.class );
+
+        // when
+        memoryTracker.allocateHeap( MAX_ON_HEAP_MEMORY );
+        diffSets.add( 3 );
+
+        // then
+        assertThat( diffSets.getAdded() ).isInstanceOf( MutableLinearProbeLongHashSet.class );
+        assertThat( diffSets.getRemoved() ).isInstanceOf( MutableLinearProbeLongHashSet.class );
+        assertEquals( LongSets.immutable.of( 1, 3 ), diffSets.getAdded() );
+        assertEquals( LongSets.immutable.of( 2 ), diffSets.getRemoved() );
+        assertEquals( LongSets.immutable.of( 1 ), onHeapAdded );
+        memoryTracker.releaseHeap( MAX_ON_HEAP_MEMORY );
+
+        // and when
+        MutableLongSet set = factory.newLongSet( memoryTracker );
+
+        // then
+        assertThat( set ).as( "stays off-heap once the threshold has been crossed" ).isInstanceOf( MutableLinearProbeLongHashSet.class );
+    }
+}
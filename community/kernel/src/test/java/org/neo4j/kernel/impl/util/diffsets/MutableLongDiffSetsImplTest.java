@@ -141,6 +141,7 @@ class MutableLongDiffSetsImplTest
         assertSame( set1, diffSets.getAdded() );
         assertSame( set2, diffSets.getRemoved() );
         verify( collectionsFactory, times( 2 ) ).newLongSet( EmptyMemoryTracker.INSTANCE );
+        verify( collectionsFactory, times( 2 ) ).generation( EmptyMemoryTracker.INSTANCE );
         verifyNoMoreInteractions( collectionsFactory );
     }
 
@@ -21,13 +21,17 @@ package org.neo4j.kernel.recovery;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -38,6 +42,7 @@ import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.memory.HeapScopedBuffer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.database.DatabaseStartupController;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
@@ -62,6 +67,7 @@ import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreId;
@@ -72,6 +78,7 @@ import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.test.rule.TestDirectory;
 
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -428,6 +435,113 @@ class TransactionLogsRecoveryTest
         assertEquals( marker.getByteOffset(), lastClosedTransaction[2] );
     }
 
+    @Test
+    void shouldRecoverIndependentTransactionsConcurrentlyAndAcknowledgeThemInCommitOrder() throws Exception
+    {
+        // GIVEN
+        File file = logFiles.getLogFileForVersion( logVersion );
+        final LogPositionMarker marker = new LogPositionMarker();
+        final int numberOfTransactions = 100;
+        final int numberOfKeys = 7;
+        writeSomeData( file, pair ->
+        {
+            LogEntryWriter writer = pair.first();
+            Consumer<LogPositionMarker> consumer = pair.other();
+
+            int previousChecksum = BASE_TX_CHECKSUM;
+            for ( long txId = 1; txId <= numberOfTransactions; txId++ )
+            {
+                writer.writeStartEntry( txId, txId - 1, previousChecksum, new byte[0] );
+                previousChecksum = writer.writeCommitEntry( txId, txId );
+            }
+            consumer.accept( marker );
+
+            return true;
+        } );
+
+        List<Long> acknowledgedTransactions = new CopyOnWriteArrayList<>();
+        List<Long> appliedTransactions = new CopyOnWriteArrayList<>();
+        RecoveryMonitor monitor = new RecoveryMonitor()
+        {
+            @Override
+            public void transactionRecovered( long txId )
+            {
+                acknowledgedTransactions.add( txId );
+            }
+        };
+        LifeSupport life = new LifeSupport();
+        JobScheduler scheduler = life.add( JobSchedulerFactory.createInitialisedScheduler() );
+        try
+        {
+            StorageEngine storageEngine = mock( StorageEngine.class );
+            final LogEntryReader reader = logEntryReader();
+            LogTailScanner tailScanner = getTailScanner( logFiles, reader );
+
+            TransactionMetadataCache metadataCache = new TransactionMetadataCache();
+            LogicalTransactionStore txStore = new PhysicalLogicalTransactionStore( logFiles, metadataCache, reader, monitors, false );
+            CorruptedLogsTruncator logPruner = new CorruptedLogsTruncator( storeDir, logFiles, fileSystem, INSTANCE );
+            life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) )
+            {
+                @Override
+                public boolean collectChangedKeys( CommittedTransactionRepresentation transaction, MutableLongSet changedKeys )
+                {
+                    // Every transaction conflicts with every seventh, and every tenth must be applied in isolation
+                    long txId = transaction.getCommitEntry().getTxId();
+                    changedKeys.add( txId % numberOfKeys );
+                    return txId % 10 != 0;
+                }
+
+                @Override
+                public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode, PageCursorTracer cursorTracer )
+                {
+                    RecoveryApplier actual = super.getRecoveryApplier( mode, cursorTracer );
+                    if ( mode == TransactionApplicationMode.REVERSE_RECOVERY )
+                    {
+                        return actual;
+                    }
+
+                    return new RecoveryApplier()
+                    {
+                        @Override
+                        public void close() throws Exception
+                        {
+                            actual.close();
+                        }
+
+                        @Override
+                        public boolean visit( CommittedTransactionRepresentation tx ) throws Exception
+                        {
+                            actual.visit( tx );
+                            appliedTransactions.add( tx.getCommitEntry().getTxId() );
+                            return false;
+                        }
+                    };
+                }
+            }, logPruner, schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER, NULL, scheduler, 4 ) );
+
+            // WHEN
+            life.start();
+        }
+        finally
+        {
+            life.shutdown();
+        }
+
+        // THEN
+        List<Long> expectedTransactions = LongStream.rangeClosed( 1, numberOfTransactions ).boxed().collect( toList() );
+        assertThat( acknowledgedTransactions ).isEqualTo( expectedTransactions );
+        assertThat( appliedTransactions ).containsExactlyInAnyOrderElementsOf( expectedTransactions );
+        for ( int key = 0; key < numberOfKeys; key++ )
+        {
+            long conflictingKey = key;
+            assertThat( appliedTransactions.stream().filter( txId -> txId % numberOfKeys == conflictingKey ).collect( toList() ) ).isSorted();
+        }
+        long[] lastClosedTransaction = transactionIdStore.getLastClosedTransaction();
+        assertEquals( numberOfTransactions, lastClosedTransaction[0] );
+        assertEquals( marker.getByteOffset(), lastClosedTransaction[2] );
+    }
+
     @Test
     void shouldInitSchemaLifeWhenRecoveryNotRequired() throws Exception
     {
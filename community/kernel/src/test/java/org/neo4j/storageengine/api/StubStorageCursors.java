@@ -445,6 +445,12 @@ public class StubStorageCursors implements StorageReader
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public boolean scanRange( long start, long stopInclusive )
+        {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public long entityReference()
         {
@@ -591,6 +597,12 @@ public class StubStorageCursors implements StorageReader
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public boolean scanRange( long start, long stopInclusive )
+        {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public long entityReference()
         {
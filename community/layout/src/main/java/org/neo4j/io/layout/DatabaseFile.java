@@ -65,6 +65,8 @@ public enum DatabaseFile
 
     COUNTS_STORE( DatabaseFileNames.COUNTS_STORE, false ),
 
+    DEGREES_STORE( DatabaseFileNames.DEGREES_STORE, false ),
+
     METADATA_STORE( DatabaseFileNames.METADATA_STORE ),
 
     INDEX_STATISTICS_STORE( DatabaseFileNames.INDEX_STATISTICS_STORE, false ),
@@ -30,6 +30,7 @@ final class DatabaseFileNames
     static final String RELATIONSHIP_TYPE_SCAN_STORE = "neostore.relationshiptypescanstore.db";
 
     static final String COUNTS_STORE = "neostore.counts.db";
+    static final String DEGREES_STORE = "neostore.degrees.db";
 
     static final String NODE_STORE = "neostore.nodestore.db";
     static final String NODE_LABELS_STORE = "neostore.nodestore.db.labels";
@@ -124,6 +124,11 @@ public class DatabaseLayout
         return file( DatabaseFile.COUNTS_STORE.getName() );
     }
 
+    public Path degreesStore()
+    {
+        return file( DatabaseFile.DEGREES_STORE.getName() );
+    }
+
     public Path propertyStringStore()
     {
         return file( DatabaseFile.PROPERTY_STRING_STORE.getName() );
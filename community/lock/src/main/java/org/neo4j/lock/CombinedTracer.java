@@ -23,7 +23,8 @@ import java.util.Arrays;
 
 /**
  * A {@link LockTracer} that combines multiple {@linkplain LockTracer tracers} into one, invoking each of them for
- * the {@linkplain LockTracer#waitForLock(LockType, ResourceType, long, long...)} wait events} received.
+ * the {@linkplain LockTracer#waitForLock(LockType, ResourceType, long, long...)} wait events} and
+ * {@linkplain LockTracer#lockAcquired(LockType, ResourceType, long, long, long) acquisitions} received.
  * <p>
  * This is used for when there is a stack of queries in a transaction, or when a system-configured tracer combines with
  * the query specific tracers.
@@ -48,6 +49,15 @@ final class CombinedTracer implements LockTracer
         return new CombinedEvent( events );
     }
 
+    @Override
+    public void lockAcquired( LockType lockType, ResourceType resourceType, long transactionId, long resourceId, long acquisitionNanos )
+    {
+        for ( LockTracer tracer : tracers )
+        {
+            tracer.lockAcquired( lockType, resourceType, transactionId, resourceId, acquisitionNanos );
+        }
+    }
+
     @Override
     public LockTracer combine( LockTracer tracer )
     {
@@ -23,6 +23,20 @@ public interface LockTracer
 {
     LockWaitEvent waitForLock( LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds );
 
+    /**
+     * Called when a lock has been acquired, by lock managers that measure how long acquiring a lock takes. Together with the
+     * duration of {@link #waitForLock(LockType, ResourceType, long, long...) lock waits} this allows for keeping latency histograms.
+     *
+     * @param lockType type of the acquired lock.
+     * @param resourceType type of the locked resource.
+     * @param transactionId id of the transaction that acquired the lock.
+     * @param resourceId id of the locked resource.
+     * @param acquisitionNanos time, in nanoseconds, from asking for the lock until it was granted, including any waiting.
+     */
+    default void lockAcquired( LockType lockType, ResourceType resourceType, long transactionId, long resourceId, long acquisitionNanos )
+    {   // not interested by default
+    }
+
     default LockTracer combine( LockTracer tracer )
     {
         if ( tracer == NONE )
@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphdb.factory.module;
 
+import java.nio.file.Path;
 import java.util.function.Supplier;
 
 import org.neo4j.annotations.api.IgnoreApiCheck;
@@ -58,8 +59,10 @@ import org.neo4j.kernel.impl.security.URLAccessRules;
 import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocatorDecorator;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
+import org.neo4j.kernel.impl.util.collection.FileBackedBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.SpillingCollectionsFactory;
 import org.neo4j.kernel.impl.util.watcher.DefaultFileSystemWatcherService;
 import org.neo4j.kernel.impl.util.watcher.FileSystemWatcherService;
 import org.neo4j.kernel.info.JvmChecker;
@@ -368,6 +371,8 @@ public class GlobalModule
         jobScheduler.setParallelism( Group.INDEX_POPULATION, globalConfig.get( GraphDatabaseInternalSettings.index_population_parallelism ) );
         jobScheduler.setParallelism( Group.INDEX_POPULATION_WORK, globalConfig.get( GraphDatabaseInternalSettings.index_population_workers ) );
         jobScheduler.setParallelism( Group.PAGE_CACHE_PRE_FETCHER, globalConfig.get( GraphDatabaseSettings.pagecache_scan_prefetch ) );
+        jobScheduler.setParallelism( Group.PAGE_CACHE_WARMER, globalConfig.get( GraphDatabaseSettings.pagecache_warmup_threads ) );
+        jobScheduler.setParallelism( Group.STORAGE_APPLY, Math.max( 2, Math.min( 4, Runtime.getRuntime().availableProcessors() ) ) );
         return jobScheduler;
     }
 
@@ -408,6 +413,14 @@ public class GlobalModule
                 sharedBlockAllocator = allocator;
             }
             life.add( onShutdown( sharedBlockAllocator::release ) );
+            if ( config.get( GraphDatabaseInternalSettings.tx_state_spilling ) )
+            {
+                final Path spillingDirectory = config.get( GraphDatabaseInternalSettings.tx_state_spilling_directory );
+                final long maxOnHeapMemory = config.get( GraphDatabaseInternalSettings.tx_state_spilling_max_on_heap_memory );
+                final long maxOffHeapMemory = config.get( GraphDatabaseInternalSettings.tx_state_spilling_max_off_heap_memory );
+                return () -> new SpillingCollectionsFactory( sharedBlockAllocator, new FileBackedBlockAllocator( spillingDirectory ), maxOnHeapMemory,
+                        maxOffHeapMemory );
+            }
             return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
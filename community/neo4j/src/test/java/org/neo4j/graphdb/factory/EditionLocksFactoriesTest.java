@@ -25,6 +25,7 @@ import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.kernel.impl.locking.LocksFactory;
 import org.neo4j.kernel.impl.locking.community.CommunityLocksFactory;
+import org.neo4j.kernel.impl.locking.striped.StripedLocksFactory;
 import org.neo4j.lock.ResourceTypes;
 import org.neo4j.logging.internal.NullLogService;
 import org.neo4j.time.Clocks;
@@ -73,6 +74,16 @@ class EditionLocksFactoriesTest
         assertThat( lockFactory ).isInstanceOf( CommunityLocksFactory.class );
     }
 
+    @Test
+    void createStripedLocksFactoryWhenSpecified()
+    {
+        Config config = Config.defaults( GraphDatabaseInternalSettings.lock_manager, "striped" );
+
+        LocksFactory lockFactory = createLockFactory( config, NullLogService.getInstance() );
+
+        assertThat( lockFactory ).isInstanceOf( StripedLocksFactory.class );
+    }
+
     @Test
     void failToCreateWhenConfiguredFactoryNotFound()
     {
@@ -54,6 +54,8 @@ import org.neo4j.internal.kernel.api.security.AdminActionOnResource;
 import org.neo4j.internal.kernel.api.security.AdminActionOnResource.DatabaseScope;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
 import org.neo4j.internal.kernel.api.security.UserSegment;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.KernelTransactionHandle;
 import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 import org.neo4j.kernel.api.exceptions.Status;
@@ -578,6 +580,16 @@ public class BuiltInDbmsProcedures
         return ids.stream().map( id -> killConnection( id, connectionTracker ) );
     }
 
+    @Admin
+    @SystemProcedure
+    @Description( "List the partitions of the page cache, with their reserved and maximum number of pages, and their current usage." )
+    @Procedure( name = "dbms.listPageCachePartitions", mode = DBMS )
+    public Stream<PageCachePartitionResult> listPageCachePartitions()
+    {
+        PageCacheTracer pageCacheTracer = resolver.resolveDependency( PageCacheTracer.class );
+        return pageCacheTracer.partitions().stream().map( PageCachePartitionResult::new );
+    }
+
     private NetworkConnectionTracker getConnectionTracker()
     {
         return resolver.resolveDependency( NetworkConnectionTracker.class );
@@ -719,6 +731,26 @@ public class BuiltInDbmsProcedures
         }
     }
 
+    public static class PageCachePartitionResult
+    {
+        public final String name;
+        public final long reservedPages;
+        public final Long maxPages;
+        public final long residentPages;
+        public final long faults;
+        public final long evictions;
+
+        private PageCachePartitionResult( PageCachePartitionCounters partition )
+        {
+            this.name = partition.name();
+            this.reservedPages = partition.reservedPages();
+            this.maxPages = partition.maxPages() == Long.MAX_VALUE ? null : partition.maxPages();
+            this.residentPages = partition.residentPages();
+            this.faults = partition.faults();
+            this.evictions = partition.evictions();
+        }
+    }
+
     public static class FunctionResult
     {
         public final String name;
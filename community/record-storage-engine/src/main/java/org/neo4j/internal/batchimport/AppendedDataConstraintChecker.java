@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntity;
+import org.neo4j.internal.batchimport.input.InputException;
+import org.neo4j.internal.schema.ConstraintDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueTuple;
+import org.neo4j.values.storable.Values;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.common.EntityType.NODE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Checks the data which an incremental import is about to append to an existing database against the constraints of that database,
+ * before anything in the database has been changed. Only constraints on the labels and relationship types which entities in the input have
+ * are checked:
+ * <ul>
+ * <li>Property existence constraints and node keys require appended entities to have the constrained properties.</li>
+ * <li>Uniqueness constraints and node keys require the values of the constrained properties of appended nodes to be unique among the
+ * appended nodes and the existing nodes. The values of the appended nodes are kept in memory and then the existing nodes are scanned
+ * for them.</li>
+ * </ul>
+ * Entities are checked as they are in the input, i.e. nodes which the import would skip as duplicates of other nodes are checked too.
+ */
+public class AppendedDataConstraintChecker
+{
+    private final NeoStores neoStores;
+    private final TokenHolders tokenHolders;
+    private final PageCursorTracer cursorTracer;
+    private final Map<String,List<Check>> nodeChecks = new HashMap<>();
+    private final Map<String,List<Check>> relationshipChecks = new HashMap<>();
+    private final MutableIntObjectMap<List<Check>> uniquenessChecksByLabel = new IntObjectHashMap<>();
+
+    public AppendedDataConstraintChecker( NeoStores neoStores, TokenHolders tokenHolders, Iterator<ConstraintDescriptor> constraints,
+            PageCursorTracer cursorTracer )
+    {
+        this.neoStores = neoStores;
+        this.tokenHolders = tokenHolders;
+        this.cursorTracer = cursorTracer;
+        constraints.forEachRemaining( constraint ->
+        {
+            SchemaDescriptor schema = constraint.schema();
+            boolean nodes = schema.entityType() == NODE;
+            for ( int entityToken : schema.getEntityTokenIds() )
+            {
+                Check check = new Check( constraint );
+                String name = nodes ? tokenHolders.labelGetName( entityToken ) : tokenHolders.relationshipTypeGetName( entityToken );
+                (nodes ? nodeChecks : relationshipChecks).computeIfAbsent( name, key -> new ArrayList<>() ).add( check );
+                if ( constraint.enforcesUniqueness() )
+                {
+                    uniquenessChecksByLabel.getIfAbsentPut( entityToken, ArrayList::new ).add( check );
+                }
+            }
+        } );
+    }
+
+    /**
+     * @param input the data to check.
+     * @throws InputException if an entity in the input violates a constraint.
+     * @throws IOException on I/O error reading the input.
+     */
+    public void check( Input input ) throws IOException
+    {
+        if ( !nodeChecks.isEmpty() )
+        {
+            checkInput( input.nodes( Collector.EMPTY ), nodeChecks, true );
+        }
+        if ( !relationshipChecks.isEmpty() )
+        {
+            checkInput( input.relationships( Collector.EMPTY ), relationshipChecks, false );
+        }
+        if ( uniquenessChecksByLabel.anySatisfy( checks -> checks.stream().anyMatch( check -> !check.appendedValues.isEmpty() ) ) )
+        {
+            checkExistingNodes();
+        }
+    }
+
+    private void checkInput( InputIterable entities, Map<String,List<Check>> checks, boolean nodes ) throws IOException
+    {
+        try ( InputIterator iterator = entities.iterator();
+              InputChunk chunk = iterator.newChunk();
+              InputEntity entity = new InputEntity() )
+        {
+            while ( iterator.next( chunk ) )
+            {
+                while ( chunk.next( entity ) )
+                {
+                    if ( nodes )
+                    {
+                        for ( String label : entity.labels() )
+                        {
+                            checkEntity( entity, checks.get( label ), true );
+                        }
+                    }
+                    else if ( entity.stringType != null || entity.hasIntType )
+                    {
+                        String type = entity.hasIntType ? tokenHolders.relationshipTypeGetName( entity.intType ) : entity.stringType;
+                        checkEntity( entity, checks.get( type ), false );
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkEntity( InputEntity entity, List<Check> checks, boolean node )
+    {
+        if ( checks == null )
+        {
+            return;
+        }
+        for ( Check check : checks )
+        {
+            Value[] values = new Value[check.propertyKeys.length];
+            boolean hasAllProperties = true;
+            for ( int i = 0; i < values.length; i++ )
+            {
+                values[i] = propertyValue( entity, check.propertyKeys[i] );
+                hasAllProperties &= values[i] != null;
+            }
+            if ( !hasAllProperties )
+            {
+                if ( check.constraint.enforcesPropertyExistence() )
+                {
+                    throw new InputException( describe( entity, node ) + " doesn't have all the properties required by " + check.description );
+                }
+            }
+            else if ( check.constraint.enforcesUniqueness() )
+            {
+                String description = describe( entity, node );
+                String other = check.appendedValues.putIfAbsent( ValueTuple.of( values ), description );
+                if ( other != null )
+                {
+                    throw new InputException( description + " and " + other + " have the same values, which violates " + check.description );
+                }
+            }
+        }
+    }
+
+    private Value propertyValue( InputEntity entity, String key )
+    {
+        for ( int i = 0; i < entity.propertyCount(); i++ )
+        {
+            Object entityKey = entity.propertyKey( i );
+            String name = entity.hasIntPropertyKeyIds ? tokenHolders.propertyKeyGetName( (Integer) entityKey ) : (String) entityKey;
+            if ( key.equals( name ) )
+            {
+                Object value = entity.propertyValue( i );
+                return value != null ? Values.of( value ) : null;
+            }
+        }
+        return null;
+    }
+
+    private static String describe( InputEntity entity, boolean node )
+    {
+        if ( node )
+        {
+            return entity.id() != null ? "Node with id '" + entity.id() + "' in group '" + entity.idGroup.name() + "'"
+                                       : "Node with labels " + Arrays.toString( entity.labels() );
+        }
+        return "Relationship from '" + entity.startId() + "' to '" + entity.endId() + "'";
+    }
+
+    private void checkExistingNodes()
+    {
+        NodeStore nodeStore = neoStores.getNodeStore();
+        NodeRecord node = nodeStore.newRecord();
+        MutableIntObjectMap<Value> properties = new IntObjectHashMap<>();
+        try ( PageCursor cursor = nodeStore.openPageCursorForReadingWithPrefetching( 0, cursorTracer ) )
+        {
+            for ( long id = 0; id < nodeStore.getHighId(); id++ )
+            {
+                nodeStore.getRecordByCursor( id, node, CHECK, cursor );
+                if ( !node.inUse() )
+                {
+                    continue;
+                }
+                properties.clear();
+                boolean propertiesRead = false;
+                for ( long label : NodeLabelsField.get( node, nodeStore, cursorTracer ) )
+                {
+                    List<Check> checks = uniquenessChecksByLabel.get( toIntExact( label ) );
+                    if ( checks == null )
+                    {
+                        continue;
+                    }
+                    if ( !propertiesRead )
+                    {
+                        readProperties( node.getNextProp(), properties );
+                        propertiesRead = true;
+                    }
+                    for ( Check check : checks )
+                    {
+                        checkExistingNode( id, properties, check );
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkExistingNode( long nodeId, MutableIntObjectMap<Value> properties, Check check )
+    {
+        if ( check.appendedValues.isEmpty() )
+        {
+            return;
+        }
+        Value[] values = new Value[check.propertyKeyIds.length];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = properties.get( check.propertyKeyIds[i] );
+            if ( values[i] == null )
+            {
+                return;
+            }
+        }
+        String appended = check.appendedValues.get( ValueTuple.of( values ) );
+        if ( appended != null )
+        {
+            throw new InputException( appended + " has the same values as existing node " + nodeId + ", which violates " + check.description );
+        }
+    }
+
+    private void readProperties( long nextProp, MutableIntObjectMap<Value> properties )
+    {
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        PropertyRecord record = propertyStore.newRecord();
+        while ( !Record.NO_NEXT_PROPERTY.is( nextProp ) )
+        {
+            propertyStore.getRecord( nextProp, record, CHECK, cursorTracer );
+            if ( !record.inUse() )
+            {
+                break;
+            }
+            for ( PropertyBlock block : record )
+            {
+                properties.put( block.getKeyIndexId(), block.newPropertyValue( propertyStore, cursorTracer ) );
+            }
+            nextProp = record.getNextProp();
+        }
+    }
+
+    private class Check
+    {
+        private final ConstraintDescriptor constraint;
+        private final String description;
+        private final int[] propertyKeyIds;
+        private final String[] propertyKeys;
+        private final Map<ValueTuple,String> appendedValues = new HashMap<>();
+
+        Check( ConstraintDescriptor constraint )
+        {
+            this.constraint = constraint;
+            this.description = constraint.userDescription( tokenHolders );
+            this.propertyKeyIds = constraint.schema().getPropertyIds();
+            this.propertyKeys = new String[propertyKeyIds.length];
+            for ( int i = 0; i < propertyKeyIds.length; i++ )
+            {
+                propertyKeys[i] = tokenHolders.propertyKeyGetName( propertyKeyIds[i] );
+            }
+        }
+    }
+}
@@ -191,6 +191,38 @@ public class DataStatistics implements Iterable<DataStatistics.RelationshipTypeC
         }
     }
 
+    /**
+     * @param other statistics whose relationship type counts to add, e.g. of relationships that already exist in the store.
+     * @return statistics with the relationship counts of this and the other statistics summed up per type. The node and property counts are
+     * those of this instance.
+     */
+    public DataStatistics withRelationshipTypesOf( DataStatistics other )
+    {
+        int highestTypeId = -1;
+        for ( DataStatistics statistics : new DataStatistics[]{this, other} )
+        {
+            for ( RelationshipTypeCount type : statistics.typeCounts )
+            {
+                highestTypeId = max( highestTypeId, type.typeId );
+            }
+        }
+        long[] counts = new long[highestTypeId + 1];
+        for ( DataStatistics statistics : new DataStatistics[]{this, other} )
+        {
+            for ( RelationshipTypeCount type : statistics.typeCounts )
+            {
+                counts[type.typeId] += type.count;
+            }
+        }
+        RelationshipTypeCount[] sortedTypes = new RelationshipTypeCount[counts.length];
+        for ( int i = 0; i < counts.length; i++ )
+        {
+            sortedTypes[i] = new RelationshipTypeCount( i, counts[i] );
+        }
+        Arrays.sort( sortedTypes );
+        return new DataStatistics( entityCounts, sortedTypes );
+    }
+
     public RelationshipTypeCount get( int index )
     {
         return typeCounts[index];
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.internal.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.store.BatchingNeoStores;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.values.storable.IntegralValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.kernel.impl.store.IdUpdateListener.IGNORE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
+
+/**
+ * Puts input ids of nodes that already exist in the store into the {@link IdMapper}, so that relationships in the input can
+ * refer to them. Input ids of existing nodes are read from their id properties, see {@link org.neo4j.internal.batchimport.input.Input#idPropertyKeys()}.
+ * The {@link Group} of a node is the one that its id property belongs to. If multiple groups store their ids under the same
+ * property key then the node belongs to the group which has the same name as one of its labels, otherwise it's left out.
+ * <p>
+ * Like {@link NodeImporter} the input ids are also written to the temporary property store, for the {@link IdMapper} to
+ * look up when it finds collisions.
+ */
+public class ExistingNodeIdsProcessor implements RecordProcessor<NodeRecord>
+{
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final PropertyRecord propertyRecord;
+    private final IdMapper idMapper;
+    private final IdType idType;
+    private final MutableIntObjectMap<List<Group>> groupsByPropertyKey = new IntObjectHashMap<>();
+    private final MutableObjectIntMap<Group> groupLabels = new ObjectIntHashMap<>();
+    private final PropertyStore idPropertyStore;
+    private final PropertyRecord idPropertyRecord;
+    private final PropertyBlock idPropertyBlock = new PropertyBlock();
+    private final MemoryTracker memoryTracker;
+
+    public ExistingNodeIdsProcessor( BatchingNeoStores neoStores, IdMapper idMapper, IdType idType, Map<Group,String> idPropertyKeys,
+            MemoryTracker memoryTracker )
+    {
+        this.nodeStore = neoStores.getNodeStore();
+        this.propertyStore = neoStores.getPropertyStore();
+        this.propertyRecord = propertyStore.newRecord();
+        this.idMapper = idMapper;
+        this.idType = idType;
+        this.idPropertyStore = neoStores.getTemporaryPropertyStore();
+        this.idPropertyRecord = idPropertyStore.newRecord();
+        this.memoryTracker = memoryTracker;
+        idPropertyKeys.forEach( ( group, key ) ->
+        {
+            int keyId = neoStores.getPropertyKeyRepository().getId( key );
+            if ( keyId != NO_TOKEN )
+            {
+                groupsByPropertyKey.getIfAbsentPut( keyId, ArrayList::new ).add( group );
+                groupLabels.put( group, neoStores.getLabelRepository().getId( group.name() ) );
+            }
+        } );
+    }
+
+    /**
+     * @return {@code true} if there are any existing nodes which could have input ids, otherwise there's no need to run this processor.
+     */
+    public boolean hasIdProperties()
+    {
+        return !groupsByPropertyKey.isEmpty();
+    }
+
+    @Override
+    public boolean process( NodeRecord node, PageCursorTracer cursorTracer )
+    {
+        long nextProp = node.getNextProp();
+        while ( !Record.NO_NEXT_PROPERTY.is( nextProp ) )
+        {
+            propertyStore.getRecord( nextProp, propertyRecord, CHECK, cursorTracer );
+            if ( !propertyRecord.inUse() )
+            {
+                break;
+            }
+            for ( PropertyBlock block : propertyRecord )
+            {
+                List<Group> groups = groupsByPropertyKey.get( block.getKeyIndexId() );
+                if ( groups != null )
+                {
+                    Group group = groups.size() == 1 ? groups.get( 0 ) : groupByLabel( node, groups, cursorTracer );
+                    Object inputId = group != null ? inputId( block.newPropertyValue( propertyStore, cursorTracer ) ) : null;
+                    if ( inputId != null )
+                    {
+                        put( node.getId(), inputId, group, cursorTracer );
+                        return false;
+                    }
+                }
+            }
+            nextProp = propertyRecord.getNextProp();
+        }
+        // The node records themselves are not changed
+        return false;
+    }
+
+    private Group groupByLabel( NodeRecord node, List<Group> groups, PageCursorTracer cursorTracer )
+    {
+        long[] labels = NodeLabelsField.get( node, nodeStore, cursorTracer );
+        for ( Group group : groups )
+        {
+            int labelId = groupLabels.get( group );
+            if ( labelId != NO_TOKEN )
+            {
+                for ( long label : labels )
+                {
+                    if ( label == labelId )
+                    {
+                        return group;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Object inputId( Value value )
+    {
+        switch ( idType )
+        {
+        case STRING:
+            return value instanceof TextValue ? ((TextValue) value).stringValue() : null;
+        case INTEGER:
+            return value instanceof IntegralValue ? ((IntegralValue) value).longValue() : null;
+        default:
+            throw new IllegalArgumentException( "Unsupported id type " + idType );
+        }
+    }
+
+    private void put( long nodeId, Object inputId, Group group, PageCursorTracer cursorTracer )
+    {
+        idMapper.put( inputId, nodeId, group );
+        idPropertyStore.encodeValue( idPropertyBlock, 0, Values.of( inputId ), cursorTracer, memoryTracker );
+        idPropertyRecord.addPropertyBlock( idPropertyBlock );
+        idPropertyRecord.setId( nodeId ); // yes nodeId
+        idPropertyRecord.setInUse( true );
+        idPropertyStore.updateRecord( idPropertyRecord, IGNORE, cursorTracer );
+        idPropertyRecord.clear();
+    }
+
+    @Override
+    public void done()
+    {   // Nothing to do here
+    }
+
+    @Override
+    public void close()
+    {   // Nothing to do here
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.neo4j.internal.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.internal.batchimport.staging.BatchFeedStep;
+import org.neo4j.internal.batchimport.staging.ReadRecordsStep;
+import org.neo4j.internal.batchimport.staging.Stage;
+import org.neo4j.internal.batchimport.staging.Step;
+import org.neo4j.internal.batchimport.stats.StatsProvider;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NodeStore;
+
+import static org.neo4j.internal.batchimport.RecordIdIterator.allIn;
+
+/**
+ * Scans the nodes that already exist in the store and puts their input ids into the {@link IdMapper}.
+ *
+ * @see ExistingNodeIdsProcessor
+ */
+public class ExistingNodeIdsStage extends Stage
+{
+    public static final String NAME = "Existing node ids";
+
+    public ExistingNodeIdsStage( Configuration config, NodeStore nodeStore, ExistingNodeIdsProcessor processor, PageCacheTracer pageCacheTracer,
+            StatsProvider... additionalStatsProviders )
+    {
+        super( NAME, null, config, Step.ORDER_SEND_DOWNSTREAM | Step.RECYCLE_BATCHES );
+        add( new BatchFeedStep( control(), config, allIn( nodeStore, config ), nodeStore.getRecordSize() ) );
+        add( new ReadRecordsStep<>( control(), config, false, nodeStore, pageCacheTracer ) );
+        add( new RecordProcessorStep<>( control(), "MAP", config, processor, true, pageCacheTracer, additionalStatsProviders ) );
+    }
+}
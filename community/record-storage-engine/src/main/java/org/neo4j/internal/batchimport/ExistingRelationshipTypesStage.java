@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.neo4j.internal.batchimport.staging.BatchFeedStep;
+import org.neo4j.internal.batchimport.staging.ReadRecordsStep;
+import org.neo4j.internal.batchimport.staging.Stage;
+import org.neo4j.internal.batchimport.staging.Step;
+import org.neo4j.internal.batchimport.stats.StatsProvider;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.neo4j.internal.batchimport.RecordIdIterator.allIn;
+
+/**
+ * Scans the relationships that already exist in the store and counts them per type into a {@link DataStatistics}, so that linking
+ * can plan for, and link, the relationship types that are only in the store and not in the input.
+ */
+public class ExistingRelationshipTypesStage extends Stage
+{
+    public static final String NAME = "Existing relationship types";
+
+    public ExistingRelationshipTypesStage( Configuration config, RelationshipStore relationshipStore, DataStatistics typeDistribution,
+            PageCacheTracer pageCacheTracer, StatsProvider... additionalStatsProviders )
+    {
+        super( NAME, null, config, Step.ORDER_SEND_DOWNSTREAM | Step.RECYCLE_BATCHES );
+        add( new BatchFeedStep( control(), config, allIn( relationshipStore, config ), relationshipStore.getRecordSize() ) );
+        add( new ReadRecordsStep<>( control(), config, false, relationshipStore, pageCacheTracer ) );
+        add( new RecordProcessorStep<>( control(), "COUNT", config, new TypeCountingProcessor( typeDistribution.newClient() ), true, pageCacheTracer,
+                additionalStatsProviders ) );
+    }
+
+    private static class TypeCountingProcessor implements RecordProcessor<RelationshipRecord>
+    {
+        private final DataStatistics.Client client;
+
+        TypeCountingProcessor( DataStatistics.Client client )
+        {
+            this.client = client;
+        }
+
+        @Override
+        public boolean process( RelationshipRecord relationship, PageCursorTracer cursorTracer )
+        {
+            client.increment( relationship.getType() );
+            return false;
+        }
+
+        @Override
+        public void done()
+        {
+            client.close();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
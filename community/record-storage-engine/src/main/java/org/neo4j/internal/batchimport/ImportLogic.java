@@ -32,6 +32,7 @@ import java.util.function.Predicate;
 
 import org.neo4j.collection.Dependencies;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.internal.batchimport.cache.GatheringMemoryStatsVisitor;
@@ -51,6 +52,8 @@ import org.neo4j.internal.batchimport.staging.ExecutionSupervisors;
 import org.neo4j.internal.batchimport.staging.Stage;
 import org.neo4j.internal.batchimport.store.BatchingNeoStores;
 import org.neo4j.internal.counts.CountsBuilder;
+import org.neo4j.internal.counts.DegreesBuilder;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
@@ -86,6 +89,7 @@ import static org.neo4j.io.IOUtils.closeAll;
 public class ImportLogic implements Closeable
 {
     private static final String IMPORT_COUNT_STORE_REBUILD_TAG = "importCountStoreRebuild";
+    private static final String IMPORT_DEGREES_STORE_BUILD_TAG = "importDegreesStoreBuild";
 
     public interface Monitor
     {
@@ -166,6 +170,8 @@ public class ImportLogic implements Closeable
     private IdMapper idMapper;
     private long peakMemoryUsage;
     private long availableMemoryForLinking;
+    private DataStatistics existingRelationshipTypeDistribution;
+    private DataStatistics relationshipTypeDistributionToLink;
 
     /**
      * @param databaseLayout directory which the db will be created in.
@@ -265,6 +271,30 @@ public class ImportLogic implements Closeable
         dependencies.satisfyDependency( state );
     }
 
+    /**
+     * Puts the input ids of the nodes that already exist in the store into the {@link IdMapper}, so that relationships in the input
+     * can refer to them as well as to the imported nodes. Input ids of existing nodes are read from the node properties specified by
+     * {@link Input#idPropertyKeys()}. This is only relevant when appending to an existing database and must be called before
+     * {@link #importNodes()}, which is what makes imported nodes with the same input id as an existing node be treated as duplicates.
+     */
+    public void mapExistingNodes()
+    {
+        if ( !idMapper.needsPreparation() || neoStore.getNodeStore().getHighId() == 0 )
+        {
+            // There are no nodes, or their input ids are their actual ids
+            return;
+        }
+
+        ExistingNodeIdsProcessor processor = new ExistingNodeIdsProcessor( neoStore, idMapper, input.idType(), input.idPropertyKeys(), memoryTracker );
+        if ( processor.hasIdProperties() )
+        {
+            MemoryUsageStatsProvider memoryUsageStats = new MemoryUsageStatsProvider( neoStore, idMapper );
+            executeStage( new ExistingNodeIdsStage( configWithRecordsPerPageBasedBatchSize( config, neoStore.getNodeStore() ), neoStore.getNodeStore(),
+                    processor, pageCacheTracer, memoryUsageStats ) );
+            updatePeakMemoryUsage();
+        }
+    }
+
     /**
      * Imports nodes w/ their properties and labels from {@link Input#nodes(Collector)}. This will as a side-effect populate the {@link IdMapper},
      * to later be used for looking up ID --> nodeId in {@link #importRelationships()}. After a completed node import,
@@ -322,9 +352,25 @@ public class ImportLogic implements Closeable
         putState( typeDistribution );
     }
 
+    /**
+     * Counts relationships per type of relationships that already exist in the store. This is only relevant when appending to an existing
+     * database and must be called before {@link #linkRelationships(int)} so that relationship chains of existing dense nodes get relinked
+     * for types that aren't part of the input as well.
+     */
+    public void countExistingRelationships()
+    {
+        existingRelationshipTypeDistribution = new DataStatistics( new DataImporter.Monitor(), new DataStatistics.RelationshipTypeCount[0] );
+        if ( neoStore.getRelationshipStore().getHighId() > 0 )
+        {
+            executeStage( new ExistingRelationshipTypesStage( configWithRecordsPerPageBasedBatchSize( config, neoStore.getRelationshipStore() ),
+                    neoStore.getRelationshipStore(), existingRelationshipTypeDistribution, pageCacheTracer ) );
+        }
+    }
+
     /**
      * Populates {@link NodeRelationshipCache} with node degrees, which is required to know how to physically layout each
      * relationship chain. This is required before running {@link #linkRelationships(int)}.
+     * If {@link GraphDatabaseInternalSettings#degrees_store_enabled} is enabled the degrees store is built in the same pass.
      */
     public void calculateNodeDegrees()
     {
@@ -332,9 +378,32 @@ public class ImportLogic implements Closeable
                 configWithRecordsPerPageBasedBatchSize( config, neoStore.getRelationshipStore() );
         nodeRelationshipCache.setNodeCount( neoStore.getNodeStore().getHighId() );
         MemoryUsageStatsProvider memoryUsageStats = new MemoryUsageStatsProvider( neoStore, nodeRelationshipCache );
-        NodeDegreeCountStage nodeDegreeStage = new NodeDegreeCountStage( relationshipConfig,
-                neoStore.getRelationshipStore(), nodeRelationshipCache, memoryUsageStats, pageCacheTracer );
-        executeStage( nodeDegreeStage );
+        if ( dbConfig.get( GraphDatabaseInternalSettings.degrees_store_enabled ) )
+        {
+            try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( IMPORT_DEGREES_STORE_BUILD_TAG ) )
+            {
+                neoStore.buildDegreesStore( new DegreesBuilder()
+                {
+                    @Override
+                    public void initialize( GBPTreeDegreesStore.DegreeUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+                    {
+                        executeStage( new NodeDegreeCountStage( relationshipConfig, neoStore.getRelationshipStore(), nodeRelationshipCache, updater,
+                                memoryUsageStats, pageCacheTracer ) );
+                    }
+
+                    @Override
+                    public long lastCommittedTxId()
+                    {
+                        return neoStore.getLastCommittedTransactionId();
+                    }
+                }, pageCacheTracer, cursorTracer, memoryTracker );
+            }
+        }
+        else
+        {
+            executeStage( new NodeDegreeCountStage( relationshipConfig, neoStore.getRelationshipStore(), nodeRelationshipCache, memoryUsageStats,
+                    pageCacheTracer ) );
+        }
         nodeRelationshipCache.countingCompleted();
         availableMemoryForLinking = maxMemory - totalMemoryUsageOf( nodeRelationshipCache, neoStore );
     }
@@ -374,7 +443,7 @@ public class ImportLogic implements Closeable
         assert startingFromType >= 0 : startingFromType;
 
         // Link relationships together with each other, their nodes and their relationship groups
-        DataStatistics relationshipTypeDistribution = getState( DataStatistics.class );
+        DataStatistics relationshipTypeDistribution = relationshipTypeDistributionToLink();
         MemoryUsageStatsProvider memoryUsageStats = new MemoryUsageStatsProvider( neoStore, nodeRelationshipCache );
 
         // Figure out which types we can fit in node-->relationship cache memory.
@@ -556,6 +625,22 @@ public class ImportLogic implements Closeable
         closeAll( nodeRelationshipCache, nodeLabelsCache, idMapper );
     }
 
+    /**
+     * @return distribution of the relationship types to link, i.e. the imported relationships plus, when appending to an existing database,
+     * the relationships already in the store. It's created once so that the type indexes stay the same between linking rounds.
+     */
+    private DataStatistics relationshipTypeDistributionToLink()
+    {
+        if ( relationshipTypeDistributionToLink == null )
+        {
+            DataStatistics imported = getState( DataStatistics.class );
+            relationshipTypeDistributionToLink = existingRelationshipTypeDistribution == null
+                    ? imported
+                    : imported.withRelationshipTypesOf( existingRelationshipTypeDistribution );
+        }
+        return relationshipTypeDistributionToLink;
+    }
+
     private void updatePeakMemoryUsage()
     {
         peakMemoryUsage = max( peakMemoryUsage, totalMemoryUsageOf( nodeRelationshipCache, idMapper, neoStore ) );
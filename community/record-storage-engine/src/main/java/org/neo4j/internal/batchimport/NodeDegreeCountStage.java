@@ -25,6 +25,7 @@ import org.neo4j.internal.batchimport.staging.ReadRecordsStep;
 import org.neo4j.internal.batchimport.staging.Stage;
 import org.neo4j.internal.batchimport.staging.Step;
 import org.neo4j.internal.batchimport.stats.StatsProvider;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 
@@ -33,6 +34,7 @@ import static org.neo4j.internal.batchimport.RecordIdIterator.forwards;
 /**
  * Goes through {@link RelationshipStore} and increments counts per start/end node,
  * calling {@link NodeRelationshipCache#incrementCount(long)}. This is in preparation of linking relationships.
+ * Optionally also feeds the relationships into a degrees store, which then gets built in the same pass.
  */
 public class NodeDegreeCountStage extends Stage
 {
@@ -40,10 +42,20 @@ public class NodeDegreeCountStage extends Stage
 
     public NodeDegreeCountStage( Configuration config, RelationshipStore store, NodeRelationshipCache cache,
             StatsProvider memoryUsageStatsProvider, PageCacheTracer pageCacheTracer )
+    {
+        this( config, store, cache, null, memoryUsageStatsProvider, pageCacheTracer );
+    }
+
+    public NodeDegreeCountStage( Configuration config, RelationshipStore store, NodeRelationshipCache cache, GBPTreeDegreesStore.DegreeUpdater degreesUpdater,
+            StatsProvider memoryUsageStatsProvider, PageCacheTracer pageCacheTracer )
     {
         super( NAME, null, config, Step.RECYCLE_BATCHES );
         add( new BatchFeedStep( control(), config, forwards( 0, store.getHighId(), config ), store.getRecordSize() ) );
         add( new ReadRecordsStep<>( control(), config, false, store, pageCacheTracer ) );
+        if ( degreesUpdater != null )
+        {
+            add( new RelationshipDegreesStep( control(), config, degreesUpdater, pageCacheTracer ) );
+        }
         add( new CalculateDenseNodesStep( control(), config, cache, memoryUsageStatsProvider ) );
     }
 }
@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.store.BatchingNeoStores;
@@ -88,22 +89,67 @@ public class ParallelBatchImporter implements BatchImporter
 
     @Override
     public void doImport( Input input ) throws IOException
+    {
+        doImport( input, false, false );
+    }
+
+    /**
+     * Appends the input to the existing database, after checking it against the constraints of the database. New nodes, relationships and
+     * properties are appended to their stores and all relationship chains and groups are linked anew in the same sequential passes as a regular
+     * import, existing relationships included.
+     * Counts, degrees and token indexes are rebuilt from all the data, while schema indexes which the appended data belongs in are populated
+     * when the database starts next time. The appended data gets a transaction id of its own and the database starts over on new transaction logs,
+     * which means that the database must have been shut down cleanly, i.e. its transaction logs must not contain transactions that haven't been
+     * checkpointed.
+     */
+    @Override
+    public void doIncrementalImport( Input input, boolean deleteTransactionLogs ) throws IOException
+    {
+        if ( input.idType() == IdType.ACTUAL )
+        {
+            throw new IllegalArgumentException( "Incremental import doesn't support id type " + IdType.ACTUAL +
+                    " since the ids of the imported nodes could be the ids of existing nodes" );
+        }
+        doImport( input, true, deleteTransactionLogs );
+    }
+
+    private void doImport( Input input, boolean incremental, boolean deleteTransactionLogs ) throws IOException
     {
         try ( BatchingNeoStores store = ImportLogic.instantiateNeoStores( fileSystem, databaseLayout, externalPageCache, pageCacheTracer, recordFormats,
                       config, logService, additionalInitialIds, dbConfig, jobScheduler, memoryTracker );
               ImportLogic logic = new ImportLogic( databaseLayout, store, config, dbConfig, logService,
                       executionMonitor, recordFormats, badCollector, monitor, pageCacheTracer, memoryTracker ) )
         {
-            store.createNew();
+            if ( incremental )
+            {
+                store.openExisting( input, deleteTransactionLogs );
+            }
+            else
+            {
+                store.createNew();
+            }
             logic.initialize( input );
 
+            if ( incremental )
+            {
+                logic.mapExistingNodes();
+            }
             logic.importNodes();
             logic.prepareIdMapper();
             logic.importRelationships();
+            if ( incremental )
+            {
+                logic.countExistingRelationships();
+            }
             logic.calculateNodeDegrees();
             logic.linkRelationshipsOfAllTypes();
             logic.defragmentRelationshipGroups();
             logic.buildCountsStore();
+            if ( incremental )
+            {
+                store.deleteIndexesAffectedByAppendedData();
+                store.prepareForNewTransactionLogs();
+            }
             logFilesInitializer.initializeLogFiles( databaseLayout, store.getNeoStores().getMetaDataStore(), fileSystem );
 
             logic.success();
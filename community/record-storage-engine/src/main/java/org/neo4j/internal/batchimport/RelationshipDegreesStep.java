@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.neo4j.internal.batchimport.staging.BatchSender;
+import org.neo4j.internal.batchimport.staging.ProcessorStep;
+import org.neo4j.internal.batchimport.staging.StageControl;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+/**
+ * Adds each visited relationship to the degrees of its start and end node in the degrees store.
+ * Single-threaded since the degrees updater is.
+ */
+public class RelationshipDegreesStep extends ProcessorStep<RelationshipRecord[]>
+{
+    private final GBPTreeDegreesStore.DegreeUpdater updater;
+
+    public RelationshipDegreesStep( StageControl control, Configuration config, GBPTreeDegreesStore.DegreeUpdater updater,
+            PageCacheTracer pageCacheTracer )
+    {
+        super( control, "DEGREES", config, 1, pageCacheTracer );
+        this.updater = updater;
+    }
+
+    @Override
+    protected void process( RelationshipRecord[] batch, BatchSender sender, PageCursorTracer cursorTracer )
+    {
+        for ( RelationshipRecord relationship : batch )
+        {
+            if ( relationship.inUse() )
+            {
+                updater.incrementRelationship( relationship.getFirstNode(), relationship.getType(), relationship.getSecondNode(), 1 );
+            }
+        }
+        sender.send( batch );
+    }
+}
@@ -43,6 +43,9 @@ public class RelationshipLinkforwardStep extends RelationshipLinkStep
         long firstNextRel = cache.getAndPutRelationship( record.getFirstNode(),
                 record.getType(), Direction.OUTGOING, record.getId(), true );
         record.setFirstNextRel( firstNextRel );
+        // The backward linking marks the first relationship in the chain. This relationship may have been first in a chain
+        // when importing into an existing database, where the chain is now prepended by relationships with higher ids.
+        record.setFirstInFirstChain( false );
     }
 
     @Override
@@ -51,6 +54,7 @@ public class RelationshipLinkforwardStep extends RelationshipLinkStep
         long secondNextRel = cache.getAndPutRelationship( record.getSecondNode(),
                 record.getType(), Direction.INCOMING, record.getId(), true );
         record.setSecondNextRel( secondNextRel );
+        record.setFirstInSecondChain( false );
     }
 
     @Override
@@ -60,5 +64,7 @@ public class RelationshipLinkforwardStep extends RelationshipLinkStep
                 record.getFirstNode(), record.getType(), BOTH, record.getId(), true );
         record.setFirstNextRel( firstNextRel );
         record.setSecondNextRel( firstNextRel );
+        record.setFirstInFirstChain( false );
+        record.setFirstInSecondChain( false );
     }
 }
@@ -45,6 +45,8 @@ public class SparseNodeFirstRelationshipProcessor implements RecordProcessor<Nod
         if ( firstRel != -1 )
         {
             node.setNextRel( firstRel );
+            // A node in an existing database may have been dense before, but is now linked as sparse
+            node.setDense( false );
         }
         return true;
     }
@@ -20,46 +20,64 @@
 package org.neo4j.internal.batchimport.store;
 
 import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.api.set.primitive.IntSet;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.function.Predicate;
 
+import org.neo4j.common.EntityType;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.batchimport.AdditionalInitialIds;
+import org.neo4j.internal.batchimport.AppendedDataConstraintChecker;
 import org.neo4j.internal.batchimport.Configuration;
 import org.neo4j.internal.batchimport.cache.MemoryStatsVisitor;
 import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputException;
 import org.neo4j.internal.batchimport.store.BatchingTokenRepository.BatchingLabelTokenRepository;
 import org.neo4j.internal.batchimport.store.BatchingTokenRepository.BatchingPropertyKeyTokenRepository;
 import org.neo4j.internal.batchimport.store.BatchingTokenRepository.BatchingRelationshipTypeTokenRepository;
 import org.neo4j.internal.batchimport.store.io.IoTracer;
 import org.neo4j.internal.counts.CountsBuilder;
+import org.neo4j.internal.counts.DegreesBuilder;
 import org.neo4j.internal.counts.GBPTreeCountsStore;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.internal.id.IdGenerator;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.index.label.TokenScanStore;
+import org.neo4j.internal.recordstorage.SchemaRuleAccess;
+import org.neo4j.internal.recordstorage.StoreTokens;
+import org.neo4j.internal.schema.ConstraintDescriptor;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseFile;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RecordStore;
@@ -69,16 +87,26 @@ import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
+import org.neo4j.token.TokenHolders;
 
+import static java.lang.Math.toIntExact;
 import static java.lang.String.valueOf;
+import static java.lang.System.currentTimeMillis;
 import static java.nio.file.StandardOpenOption.READ;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
@@ -91,6 +119,9 @@ import static org.neo4j.kernel.impl.store.StoreType.PROPERTY;
 import static org.neo4j.kernel.impl.store.StoreType.PROPERTY_ARRAY;
 import static org.neo4j.kernel.impl.store.StoreType.PROPERTY_STRING;
 import static org.neo4j.kernel.impl.store.StoreType.RELATIONSHIP_GROUP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 
 /**
@@ -101,6 +132,8 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
 {
     private static final String BATCHING_STORE_CREATION_TAG = "batchingStoreCreation";
     private static final String BATCHING_STORE_SHUTDOWN_TAG = "batchingStoreShutdown";
+    private static final String BATCHING_STORE_TRANSACTION_LOGS_TAG = "batchingStoreTransactionLogs";
+    private static final String BATCHING_STORE_APPENDED_SCHEMA_TAG = "batchingStoreAppendedSchema";
 
     private static final String TEMP_STORE_NAME = "temp";
     // Empirical and slightly defensive threshold where relationship records seem to start requiring double record units.
@@ -137,6 +170,9 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
     private RelationshipTypeScanStore relationshipTypeScanStore;
     private PageCacheFlusher flusher;
     private boolean doubleRelationshipRecordUnits;
+    private boolean appendingToExistingStore;
+    private long existingNodeHighId;
+    private long existingRelationshipHighId;
 
     private boolean successful;
 
@@ -196,6 +232,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         // the db is either completely empty or non-existent anyway, so deleting this file is OK.
         fileSystem.deleteFile( databaseLayout.labelScanStore().toFile() );
         deleteCountsStore();
+        deleteDegreesStore();
 
         instantiateStores();
     }
@@ -205,6 +242,11 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         fileSystem.deleteFile( databaseLayout.countStore().toFile() );
     }
 
+    private void deleteDegreesStore()
+    {
+        fileSystem.deleteFile( databaseLayout.degreesStore().toFile() );
+    }
+
     public void assertDatabaseIsEmptyOrNonExistent()
     {
         if ( databaseExistsAndContainsData() )
@@ -213,6 +255,60 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         }
     }
 
+    /**
+     * Called when importing into an existing database, where the imported data is appended to the data already in it.
+     * Stores which the import builds from all the data, i.e. relationship groups, counts, degrees and token indexes, are deleted.
+     * Schema indexes are kept until the import is done, see {@link #deleteIndexesAffectedByAppendedData()}.
+     *
+     * @param input the data to append, which is checked against the constraints of the database.
+     * @param deleteTransactionLogs whether or not the transaction logs of the database may be deleted, which they will have to be
+     * since the appended data isn't in them, see {@link #prepareForNewTransactionLogs()}.
+     * @throws IllegalStateException if {@code storeDir} doesn't contain a database, or if it has transaction logs and deleting them isn't allowed.
+     * @throws InputException if the input violates a constraint of the database.
+     */
+    public void openExisting( Input input, boolean deleteTransactionLogs ) throws IOException
+    {
+        if ( !fileSystem.fileExists( databaseLayout.metadataStore().toFile() ) )
+        {
+            throw new IllegalStateException( databaseLayout.databaseDirectory().toFile() + " doesn't contain a database, cannot append to it" );
+        }
+        if ( !deleteTransactionLogs && transactionLogFiles().length > 0 )
+        {
+            throw new IllegalStateException( databaseLayout.databaseDirectory().toFile() + " has transaction logs in " +
+                    databaseLayout.getTransactionLogsDirectory().toFile() + ", which would have to be deleted since the appended data isn't in them, " +
+                    "cannot append to it unless deleting them is allowed" );
+        }
+        checkConstraints( input );
+
+        appendingToExistingStore = true;
+        fileSystem.deleteFile( databaseLayout.labelScanStore().toFile() );
+        fileSystem.deleteFile( databaseLayout.relationshipTypeScanStore().toFile() );
+        deleteCountsStore();
+        deleteDegreesStore();
+        pruneAndOpenExistingStore( type -> type != RELATIONSHIP_GROUP, type -> false );
+        existingNodeHighId = neoStores.getNodeStore().getHighId();
+        existingRelationshipHighId = neoStores.getRelationshipStore().getHighId();
+    }
+
+    /**
+     * Checks the input against the constraints of the existing database, before anything in it has been changed, since the import itself
+     * doesn't check constraints. See {@link AppendedDataConstraintChecker}.
+     */
+    private void checkConstraints( Input input ) throws IOException
+    {
+        try ( NeoStores existingStores = newStoreFactory( databaseLayout, idGeneratorFactory, pageCacheTracer, immutable.empty() ).openAllNeoStores();
+              var cursorTracer = pageCacheTracer.createPageCursorTracer( BATCHING_STORE_CREATION_TAG ) )
+        {
+            TokenHolders tokenHolders = StoreTokens.readOnlyTokenHolders( existingStores, cursorTracer );
+            Iterator<ConstraintDescriptor> constraints =
+                    SchemaRuleAccess.getSchemaRuleAccess( existingStores.getSchemaStore(), tokenHolders ).constraintsGetAllIgnoreMalformed( cursorTracer );
+            if ( constraints.hasNext() )
+            {
+                new AppendedDataConstraintChecker( existingStores, tokenHolders, constraints, cursorTracer ).check( input );
+            }
+        }
+    }
+
     /**
      * Called when expecting a previous attempt/state of a database to open, where some store files should be kept,
      * but others deleted. All temporary stores will be deleted in this call.
@@ -265,10 +361,19 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         {
             neoStores.start( cursorTracer );
             temporaryNeoStores.start( cursorTracer );
-            neoStores.getMetaDataStore().setLastCommittedAndClosedTransactionId(
-                    initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
-                    BASE_TX_COMMIT_TIMESTAMP, initialIds.lastCommittedTransactionLogByteOffset(),
-                    initialIds.lastCommittedTransactionLogVersion(), cursorTracer );
+            if ( appendingToExistingStore )
+            {
+                propertyKeyRepository.loadExistingTokens( cursorTracer );
+                labelRepository.loadExistingTokens( cursorTracer );
+                relationshipTypeRepository.loadExistingTokens( cursorTracer );
+            }
+            else
+            {
+                neoStores.getMetaDataStore().setLastCommittedAndClosedTransactionId(
+                        initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
+                        BASE_TX_COMMIT_TIMESTAMP, initialIds.lastCommittedTransactionLogByteOffset(),
+                        initialIds.lastCommittedTransactionLogVersion(), cursorTracer );
+            }
         }
     }
 
@@ -391,6 +496,21 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         }
     }
 
+    public void buildDegreesStore( DegreesBuilder builder, PageCacheTracer cacheTracer, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+    {
+        deleteDegreesStore();
+        try ( GBPTreeDegreesStore degreesStore = new GBPTreeDegreesStore( pageCache, databaseLayout.degreesStore().toFile(), fileSystem,
+                RecoveryCleanupWorkCollector.immediate(), builder, false, cacheTracer, GBPTreeDegreesStore.NO_MONITOR ) )
+        {
+            degreesStore.start( cursorTracer, memoryTracker );
+            degreesStore.checkpoint( UNLIMITED, cursorTracer );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -437,6 +557,15 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
                     tempDbDirectory.getParent() );
         }
         fileSystem.deleteRecursively( tempDbDirectory );
+        if ( appendingToExistingStore )
+        {
+            // The existing id files have free ids which the import may have used without marking them as used.
+            // Deleting the id files makes the database rebuild them from the store files when it starts next time.
+            for ( Path idFile : databaseLayout.idFiles() )
+            {
+                fileSystem.deleteFile( idFile.toFile() );
+            }
+        }
     }
 
     public long getLastCommittedTransactionId()
@@ -528,6 +657,142 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         }
     }
 
+    /**
+     * Deletes the schema indexes which entities appended to an existing database belong in, so that they are populated from scratch when the
+     * database starts next time. Existing entities keep their labels, types and properties, so an index is affected if an appended entity
+     * has one of its labels or relationship types and one of its property keys. Other indexes are left as they are.
+     */
+    public void deleteIndexesAffectedByAppendedData()
+    {
+        MutableIntSet labels = new IntHashSet();
+        MutableIntSet nodePropertyKeys = new IntHashSet();
+        MutableIntSet relationshipTypes = new IntHashSet();
+        MutableIntSet relationshipPropertyKeys = new IntHashSet();
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( BATCHING_STORE_APPENDED_SCHEMA_TAG ) )
+        {
+            NodeStore nodeStore = neoStores.getNodeStore();
+            NodeRecord node = nodeStore.newRecord();
+            try ( PageCursor cursor = nodeStore.openPageCursorForReadingWithPrefetching( existingNodeHighId, cursorTracer ) )
+            {
+                for ( long id = existingNodeHighId; id < nodeStore.getHighId(); id++ )
+                {
+                    nodeStore.getRecordByCursor( id, node, CHECK, cursor );
+                    if ( node.inUse() )
+                    {
+                        for ( long label : NodeLabelsField.get( node, nodeStore, cursorTracer ) )
+                        {
+                            labels.add( toIntExact( label ) );
+                        }
+                        collectPropertyKeys( node.getNextProp(), nodePropertyKeys, cursorTracer );
+                    }
+                }
+            }
+            RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+            RelationshipRecord relationship = relationshipStore.newRecord();
+            try ( PageCursor cursor = relationshipStore.openPageCursorForReadingWithPrefetching( existingRelationshipHighId, cursorTracer ) )
+            {
+                for ( long id = existingRelationshipHighId; id < relationshipStore.getHighId(); id++ )
+                {
+                    relationshipStore.getRecordByCursor( id, relationship, CHECK, cursor );
+                    if ( relationship.inUse() )
+                    {
+                        relationshipTypes.add( relationship.getType() );
+                        collectPropertyKeys( relationship.getNextProp(), relationshipPropertyKeys, cursorTracer );
+                    }
+                }
+            }
+
+            Log log = logProvider.getLog( getClass() );
+            TokenHolders tokenHolders = StoreTokens.readOnlyTokenHolders( neoStores, cursorTracer );
+            IndexDirectoryStructure.Factory directoryStructure = IndexDirectoryStructure.directoriesByProvider( databaseLayout.databaseDirectory().toFile() );
+            Iterator<IndexDescriptor> indexes = SchemaRuleAccess.getSchemaRuleAccess( neoStores.getSchemaStore(), tokenHolders ).indexesGetAll( cursorTracer );
+            while ( indexes.hasNext() )
+            {
+                IndexDescriptor index = indexes.next();
+                SchemaDescriptor schema = index.schema();
+                boolean nodes = schema.entityType() == EntityType.NODE;
+                if ( containsAny( nodes ? labels : relationshipTypes, schema.getEntityTokenIds() ) &&
+                     containsAny( nodes ? nodePropertyKeys : relationshipPropertyKeys, schema.getPropertyIds() ) )
+                {
+                    log.info( "Deleting %s to have it populated with the appended data when the database starts", index.userDescription( tokenHolders ) );
+                    fileSystem.deleteRecursively( directoryStructure.forProvider( index.getIndexProvider() ).directoryForIndex( index.getId() ) );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private void collectPropertyKeys( long nextProp, MutableIntSet propertyKeys, PageCursorTracer cursorTracer )
+    {
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        PropertyRecord property = propertyStore.newRecord();
+        while ( !Record.NO_NEXT_PROPERTY.is( nextProp ) )
+        {
+            propertyStore.getRecord( nextProp, property, CHECK, cursorTracer );
+            if ( !property.inUse() )
+            {
+                break;
+            }
+            for ( PropertyBlock block : property )
+            {
+                propertyKeys.add( block.getKeyIndexId() );
+            }
+            nextProp = property.getNextProp();
+        }
+    }
+
+    private static boolean containsAny( IntSet set, int[] ids )
+    {
+        for ( int id : ids )
+        {
+            if ( set.contains( id ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes an existing database that has been appended to start over on new transaction logs, since the appended data isn't in its
+     * transaction logs. The appended data gets a transaction id of its own after the last committed transaction, so that e.g. a backup
+     * of the database at the previous transaction id can't be brought up to date by pulling transactions, and the existing transaction
+     * logs are deleted, which must have been allowed when {@link #openExisting(Input, boolean) opening} the database. Transactions that haven't been
+     * checkpointed would be lost, so this requires the database to have been shut down cleanly. New transaction logs are expected to be
+     * initialized after this call, just like after a regular import.
+     */
+    public void prepareForNewTransactionLogs()
+    {
+        long transactionId;
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( BATCHING_STORE_TRANSACTION_LOGS_TAG ) )
+        {
+            MetaDataStore metaDataStore = neoStores.getMetaDataStore();
+            long logVersion = metaDataStore.incrementAndGetVersion( cursorTracer );
+            transactionId = metaDataStore.getLastCommittedTransactionId() + 1;
+            metaDataStore.setLastCommittedAndClosedTransactionId( transactionId, BASE_TX_CHECKSUM,
+                    currentTimeMillis(), CURRENT_FORMAT_LOG_HEADER_SIZE, logVersion, cursorTracer );
+        }
+        File[] logFiles = transactionLogFiles();
+        if ( logFiles.length > 0 )
+        {
+            logProvider.getLog( getClass() ).warn( "Deleting %d transaction log files in %s since the appended data isn't in them. " +
+                    "The database starts over on new transaction logs at transaction %d, so backups and other members of a cluster can no longer " +
+                    "catch up with it by pulling transactions", logFiles.length, databaseLayout.getTransactionLogsDirectory(), transactionId );
+        }
+        for ( File logFile : logFiles )
+        {
+            fileSystem.deleteFile( logFile );
+        }
+    }
+
+    private File[] transactionLogFiles()
+    {
+        return new TransactionLogFilesHelper( fileSystem, databaseLayout.getTransactionLogsDirectory().toFile() ).getLogFiles();
+    }
+
     public void success()
     {
         successful = true;
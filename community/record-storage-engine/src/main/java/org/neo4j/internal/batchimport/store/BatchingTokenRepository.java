@@ -36,10 +36,12 @@ import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.store.record.TokenRecord;
 import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.token.api.NamedToken;
 
 import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
 import static org.neo4j.kernel.impl.store.PropertyStore.encodeString;
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
 
 /**
  * Batching version of a {@link TokenStore} where tokens can be created and retrieved, but only persisted
@@ -62,6 +64,24 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord> implem
         this.highestCreatedId = highId - 1;
     }
 
+    /**
+     * Makes the tokens that already exist in the store available by name, so that importing into a store which already contains tokens
+     * reuses them instead of creating duplicates. Internal tokens are left out since they live in a name space of their own.
+     */
+    void loadExistingTokens( PageCursorTracer cursorTracer )
+    {
+        synchronized ( tokens )
+        {
+            for ( NamedToken token : store.getTokens( cursorTracer ) )
+            {
+                if ( !token.isInternal() )
+                {
+                    tokens.put( token.name(), token.id() );
+                }
+            }
+        }
+    }
+
     /**
      * Returns the id for token with the specified {@code name}, potentially creating that token and
      * assigning a new id as part of this call.
@@ -83,6 +103,22 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord> implem
         return id;
     }
 
+    /**
+     * Returns the id for token with the specified {@code name}, without creating it if it doesn't exist.
+     *
+     * @param name token name.
+     * @return the id of the token by this name, or {@link org.neo4j.token.api.TokenConstants#NO_TOKEN} if there's no such token.
+     */
+    public int getId( String name )
+    {
+        Integer id;
+        synchronized ( tokens )
+        {
+            id = tokens.get( name );
+        }
+        return id != null ? id : NO_TOKEN;
+    }
+
     /**
      * Returns the id for token with the specified {@code key}, which can be a {@link String} if representing
      * a user-defined name or an {@link Integer} if representing an existing type from an external source,
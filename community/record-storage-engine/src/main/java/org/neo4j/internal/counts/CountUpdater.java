@@ -21,16 +21,11 @@ package org.neo4j.internal.counts;
 
 import java.util.concurrent.locks.Lock;
 
-import org.neo4j.counts.CountsAccessor;
-
-import static org.neo4j.internal.counts.CountsKey.nodeKey;
-import static org.neo4j.internal.counts.CountsKey.relationshipKey;
-
 /**
- * The implementation of {@link CountsAccessor.Updater} for the {@link GBPTreeCountsStore}.
- * Writing happens inside the supplied {@link CountWriter}.
+ * Applies changes to the counts in a {@link GBPTreeGenericCountsStore}, writing them through the supplied {@link CountWriter}.
+ * Holds the given lock until closed.
  */
-class CountUpdater implements CountsAccessor.Updater
+class CountUpdater implements AutoCloseable
 {
     private final CountWriter writer;
     private final Lock lock;
@@ -41,16 +36,9 @@ class CountUpdater implements CountsAccessor.Updater
         this.lock = lock;
     }
 
-    @Override
-    public void incrementNodeCount( long labelId, long delta )
-    {
-        writer.write( nodeKey( labelId ), delta );
-    }
-
-    @Override
-    public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+    void increment( CountsKey key, long delta )
     {
-        writer.write( relationshipKey( startLabelId, typeId, endLabelId ), delta );
+        writer.write( key, delta );
     }
 
     @Override
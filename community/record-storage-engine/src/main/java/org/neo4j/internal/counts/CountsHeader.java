@@ -26,7 +26,7 @@ import org.neo4j.index.internal.gbptree.Header;
 import org.neo4j.io.pagecache.PageCursor;
 
 /**
- * Both reading and writing of a {@link GBPTreeCountsStore} tree header collected into one class.
+ * Both reading and writing of a {@link GBPTreeGenericCountsStore} tree header collected into one class.
  */
 class CountsHeader implements Header.Reader, Consumer<PageCursor>
 {
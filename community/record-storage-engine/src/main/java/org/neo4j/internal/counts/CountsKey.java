@@ -23,11 +23,12 @@ import java.util.Objects;
 
 import org.neo4j.counts.CountsVisitor;
 import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.storageengine.api.RelationshipDirection;
 
 import static java.lang.String.format;
 
 /**
- * Key in a {@link GBPTree} owned by {@link GBPTreeCountsStore}.
+ * Key in a {@link GBPTree} owned by {@link GBPTreeGenericCountsStore}.
  */
 public class CountsKey
 {
@@ -62,6 +63,18 @@ public class CountsKey
      */
     private static final byte TYPE_RELATIONSHIP = 2;
 
+    /**
+     * Key data layout for this type:
+     * <pre>
+     * first:  8B nodeId
+     * second: 30b (msb) relationshipTypeId, 2b (lsb) direction, see {@link RelationshipDirection}
+     * </pre>
+     */
+    private static final byte TYPE_DEGREE = 3;
+    private static final int DIRECTION_BITS = 2;
+    private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+    private static final RelationshipDirection[] DIRECTIONS = RelationshipDirection.values();
+
     // Commonly used keys
     static final CountsKey MIN_COUNT = new CountsKey( TYPE_NODE, Long.MIN_VALUE, Integer.MIN_VALUE );
     static final CountsKey MAX_COUNT = new CountsKey( TYPE_RELATIONSHIP, Long.MAX_VALUE, Integer.MAX_VALUE );
@@ -122,6 +135,47 @@ public class CountsKey
         return new CountsKey( TYPE_RELATIONSHIP, (startLabelId << Integer.SIZE) | (typeId & 0xFFFFFFFFL), (int) endLabelId );
     }
 
+    /**
+     * Public utility method for instantiating a {@link CountsKey} for the degree of a node.
+     * @param nodeId id of the node.
+     * @param typeId id of the relationship type.
+     * @param direction direction of the relationships, {@link RelationshipDirection#LOOP} for relationships that start and end at the node.
+     * @return a {@link CountsKey for the node degree. The returned key can be put into {@link Map maps} and similar.
+     */
+    public static CountsKey degreeKey( long nodeId, int typeId, RelationshipDirection direction )
+    {
+        if ( typeId < 0 || typeId > Integer.MAX_VALUE >>> DIRECTION_BITS || direction == RelationshipDirection.ERROR )
+        {
+            throw new IllegalArgumentException( format( "Can't keep degree of node:%d, type:%d, direction:%s", nodeId, typeId, direction ) );
+        }
+        return new CountsKey( TYPE_DEGREE, nodeId, (typeId << DIRECTION_BITS) | direction.ordinal() );
+    }
+
+    static CountsKey minDegree( long nodeId )
+    {
+        return new CountsKey( TYPE_DEGREE, nodeId, 0 );
+    }
+
+    static CountsKey maxDegree( long nodeId )
+    {
+        return new CountsKey( TYPE_DEGREE, nodeId, Integer.MAX_VALUE );
+    }
+
+    long degreeNodeId()
+    {
+        return first;
+    }
+
+    int degreeTypeId()
+    {
+        return second >>> DIRECTION_BITS;
+    }
+
+    RelationshipDirection degreeDirection()
+    {
+        return DIRECTIONS[second & DIRECTION_MASK];
+    }
+
     static CountsKey strayTxId( long txId )
     {
         return new CountsKey( TYPE_STRAY_TX_ID, txId, 0 );
@@ -174,6 +228,8 @@ public class CountsKey
             return format( "Node[label:%d]", first );
         case TYPE_RELATIONSHIP:
             return format( "Relationship[startLabel:%d, type:%d, endLabel:%d]", extractStartLabelId(), (int) first, second );
+        case TYPE_DEGREE:
+            return format( "Degree[node:%d, type:%d, direction:%s]", degreeNodeId(), degreeTypeId(), degreeDirection() );
         case TYPE_STRAY_TX_ID:
             return format( "Stray tx id:%d", first );
         default:
@@ -22,7 +22,7 @@ package org.neo4j.internal.counts;
 import org.neo4j.index.internal.gbptree.GBPTree;
 
 /**
- * Value in a {@link GBPTree} owned by {@link GBPTreeCountsStore}.
+ * Value in a {@link GBPTree} owned by {@link GBPTreeGenericCountsStore}.
  */
 class CountsValue
 {
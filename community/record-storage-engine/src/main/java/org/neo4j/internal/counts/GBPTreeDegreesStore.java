@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.RelationshipDirection;
+
+import static org.neo4j.internal.counts.CountsKey.degreeKey;
+import static org.neo4j.internal.counts.CountsKey.maxDegree;
+import static org.neo4j.internal.counts.CountsKey.minDegree;
+
+/**
+ * Store of the number of relationships of each type and {@link RelationshipDirection direction} that every node has, built on top of the {@link GBPTree}.
+ * A degree lookup is a seek in the tree, regardless of how many relationships the node has or how they are stored.
+ * See {@link GBPTreeGenericCountsStore} for how changes are applied and check-pointed.
+ */
+public class GBPTreeDegreesStore extends GBPTreeGenericCountsStore
+{
+    public static final DegreeUpdater NO_OP_UPDATER = new DegreeUpdater()
+    {
+        @Override
+        public void increment( long nodeId, int typeId, RelationshipDirection direction, long delta )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+    private static final String NAME = "Degrees store";
+
+    public GBPTreeDegreesStore( PageCache pageCache, File file, FileSystemAbstraction fileSystem, RecoveryCleanupWorkCollector recoveryCollector,
+            DegreesBuilder initialDegreesBuilder, boolean readOnly, PageCacheTracer pageCacheTracer, Monitor monitor ) throws IOException
+    {
+        super( pageCache, file, fileSystem, recoveryCollector, new DegreesRebuilder( initialDegreesBuilder ), readOnly, pageCacheTracer, monitor, NAME );
+    }
+
+    // === Writes ===
+
+    /**
+     * @param txId id of the transaction that produces the changes that are being applied.
+     * @param cursorTracer underlying page cursor tracer.
+     * @return an updater where degree deltas are being applied onto.
+     */
+    public DegreeUpdater apply( long txId, PageCursorTracer cursorTracer )
+    {
+        CountUpdater updater = updater( txId, cursorTracer );
+        return updater != null ? new Updater( updater ) : NO_OP_UPDATER;
+    }
+
+    // === Reads ===
+
+    /**
+     * @param nodeId id of the node.
+     * @param typeId id of the relationship type.
+     * @param direction direction of the relationships.
+     * @param cursorTracer underlying page cursor tracer.
+     * @return the number of relationships of the given type and direction that the node has.
+     */
+    public long degree( long nodeId, int typeId, RelationshipDirection direction, PageCursorTracer cursorTracer )
+    {
+        return read( degreeKey( nodeId, typeId, direction ), cursorTracer );
+    }
+
+    /**
+     * Visits the degrees of the given node, one call for each relationship type that it has relationships of, in relationship type id order.
+     *
+     * @param nodeId id of the node.
+     * @param visitor receives the degrees.
+     * @param cursorTracer underlying page cursor tracer.
+     */
+    public void visitDegrees( long nodeId, DegreeVisitor visitor, PageCursorTracer cursorTracer )
+    {
+        visitDegrees( nodeId, nodeId, visitor, cursorTracer );
+    }
+
+    /**
+     * Visits the degrees of all nodes in the given range, one call for each node and relationship type that it has relationships of,
+     * in node id and relationship type id order.
+     *
+     * @param fromNodeId lowest node id to visit, inclusive.
+     * @param toNodeId highest node id to visit, inclusive.
+     * @param visitor receives the degrees.
+     * @param cursorTracer underlying page cursor tracer.
+     */
+    public void visitDegrees( long fromNodeId, long toNodeId, DegreeVisitor visitor, PageCursorTracer cursorTracer )
+    {
+        DegreesAggregator aggregator = new DegreesAggregator( visitor );
+        visitCounts( minDegree( fromNodeId ), maxDegree( toNodeId ), aggregator, cursorTracer );
+        aggregator.flush();
+    }
+
+    /**
+     * Dumps the contents of a degrees store.
+     *
+     * @param pageCache {@link PageCache} to use to map the degrees store file into.
+     * @param file {@link File} pointing out the degrees store.
+     * @param out to print to.
+     * @throws IOException on missing file or I/O error.
+     */
+    public static void dump( PageCache pageCache, File file, PrintStream out, PageCursorTracer cursorTracer ) throws IOException
+    {
+        dump( pageCache, file, out, NAME, cursorTracer );
+    }
+
+    public interface DegreeUpdater extends AutoCloseable
+    {
+        void increment( long nodeId, int typeId, RelationshipDirection direction, long delta );
+
+        /**
+         * Applies the degree changes of a relationship being added, {@code delta = 1}, or removed, {@code delta = -1}, to both its nodes.
+         * A loop counts once, as {@link RelationshipDirection#LOOP}, for its only node.
+         */
+        default void incrementRelationship( long startNodeId, int typeId, long endNodeId, long delta )
+        {
+            if ( startNodeId == endNodeId )
+            {
+                increment( startNodeId, typeId, RelationshipDirection.LOOP, delta );
+            }
+            else
+            {
+                increment( startNodeId, typeId, RelationshipDirection.OUTGOING, delta );
+                increment( endNodeId, typeId, RelationshipDirection.INCOMING, delta );
+            }
+        }
+
+        @Override
+        void close();
+    }
+
+    public interface DegreeVisitor
+    {
+        void degree( long nodeId, int typeId, long outgoing, long incoming, long loop );
+    }
+
+    private static class Updater implements DegreeUpdater
+    {
+        private final CountUpdater updater;
+
+        Updater( CountUpdater updater )
+        {
+            this.updater = updater;
+        }
+
+        @Override
+        public void increment( long nodeId, int typeId, RelationshipDirection direction, long delta )
+        {
+            updater.increment( degreeKey( nodeId, typeId, direction ), delta );
+        }
+
+        @Override
+        public void close()
+        {
+            updater.close();
+        }
+    }
+
+    /**
+     * Collects the per-direction counts, which are visited in key order, into one call per node and relationship type.
+     */
+    private static class DegreesAggregator implements ObjLongConsumer<CountsKey>
+    {
+        private final DegreeVisitor visitor;
+        private long nodeId = -1;
+        private int typeId = -1;
+        private final long[] degrees = new long[RelationshipDirection.LOOP.ordinal() + 1];
+
+        DegreesAggregator( DegreeVisitor visitor )
+        {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void accept( CountsKey key, long count )
+        {
+            if ( key.degreeNodeId() != nodeId || key.degreeTypeId() != typeId )
+            {
+                flush();
+                nodeId = key.degreeNodeId();
+                typeId = key.degreeTypeId();
+            }
+            degrees[key.degreeDirection().ordinal()] = count;
+        }
+
+        void flush()
+        {
+            if ( typeId != -1 )
+            {
+                visitor.degree( nodeId, typeId, degrees[RelationshipDirection.OUTGOING.ordinal()], degrees[RelationshipDirection.INCOMING.ordinal()],
+                        degrees[RelationshipDirection.LOOP.ordinal()] );
+                typeId = -1;
+                Arrays.fill( degrees, 0 );
+            }
+        }
+    }
+
+    private static class DegreesRebuilder implements Rebuilder
+    {
+        private final DegreesBuilder builder;
+
+        DegreesRebuilder( DegreesBuilder builder )
+        {
+            this.builder = builder;
+        }
+
+        @Override
+        public long lastCommittedTxId()
+        {
+            return builder.lastCommittedTxId();
+        }
+
+        @Override
+        public void rebuild( CountUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+        {
+            builder.initialize( new Updater( updater ), cursorTracer, memoryTracker );
+        }
+    }
+}
@@ -24,17 +24,24 @@ import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.util.concurrent.OutOfOrderSequence;
 
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
+import static org.neo4j.index.internal.gbptree.ValueMerger.MergeResult.MERGED;
 import static org.neo4j.index.internal.gbptree.ValueMerger.MergeResult.REMOVED;
 import static org.neo4j.index.internal.gbptree.ValueMerger.MergeResult.REPLACED;
 import static org.neo4j.io.IOUtils.closeAllUnchecked;
 
 /**
- * Writes counts directly into the tree.
+ * Writes counts directly into the tree. Deltas written for the same key are added together, so rebuilding a store
+ * can increment a count once for every entity it sees.
  */
 class TreeWriter implements CountUpdater.CountWriter
 {
     private static final ValueMerger<CountsKey,CountsValue> MERGER =
             ( existingKey, newKey, existingValue, newValue ) -> newValue.count > 0 ? REPLACED : REMOVED;
+    private static final ValueMerger<CountsKey,CountsValue> ADDING_MERGER = ( existingKey, newKey, existingValue, newValue ) ->
+    {
+        existingValue.count += newValue.count;
+        return existingValue.count > 0 ? MERGED : REMOVED;
+    };
 
     private final Writer<CountsKey,CountsValue> treeWriter;
     private final OutOfOrderSequence idSequence;
@@ -51,7 +58,14 @@ class TreeWriter implements CountUpdater.CountWriter
     @Override
     public void write( CountsKey key, long delta )
     {
-        merge( treeWriter, key, value.initialize( delta ) );
+        if ( delta > 0 )
+        {
+            treeWriter.merge( key, value.initialize( delta ), ADDING_MERGER );
+        }
+        else if ( delta < 0 )
+        {
+            throw new IllegalStateException( "Count for " + key + " can't be decremented when writing directly into the tree, delta: " + delta );
+        }
     }
 
     @Override
@@ -22,7 +22,7 @@ package org.neo4j.internal.counts;
 import org.eclipse.collections.api.set.primitive.LongSet;
 
 /**
- * Information about applied transaction, written during checkpoint and read on opening the {@link GBPTreeCountsStore}.
+ * Information about applied transaction, written during checkpoint and read on opening the {@link GBPTreeGenericCountsStore}.
  */
 class TxIdInformation
 {
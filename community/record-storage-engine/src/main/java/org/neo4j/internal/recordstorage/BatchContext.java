@@ -23,14 +23,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.neo4j.io.IOUtils;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.IdUpdateListener;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.lock.LockGroup;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.storageengine.api.ApplyStageTracer;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
@@ -40,6 +44,12 @@ import org.neo4j.util.concurrent.WorkSync;
 
 public class BatchContext implements AutoCloseable
 {
+    static final String LABEL_INDEX_STAGE = "label index";
+    static final String RELATIONSHIP_TYPE_INDEX_STAGE = "relationship type index";
+    static final String INDEXES_STAGE = "indexes";
+    private static final String LABEL_UPDATES_TAG = "applyLabelUpdates";
+    private static final String RELATIONSHIP_TYPE_UPDATES_TAG = "applyRelationshipTypeUpdates";
+
     private final WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync;
     private final WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync;
     private final WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
@@ -50,6 +60,9 @@ public class BatchContext implements AutoCloseable
     private final PageCursorTracer cursorTracer;
     private final MemoryTracker memoryTracker;
     private final IdUpdateListener idUpdateListener;
+    private final CallableExecutor applyExecutor;
+    private final PageCacheTracer cacheTracer;
+    private final ApplyStageTracer stageTracer;
 
     private final IndexActivator indexActivator;
     private final LockGroup lockGroup;
@@ -63,6 +76,22 @@ public class BatchContext implements AutoCloseable
             WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, PropertyStore propertyStore,
             RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker,
             IdUpdateListener idUpdateListener )
+    {
+        this( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync, nodeStore, propertyStore, recordStorageEngine,
+                schemaCache, cursorTracer, memoryTracker, idUpdateListener, null, PageCacheTracer.NULL, ApplyStageTracer.NULL );
+    }
+
+    /**
+     * @param applyExecutor if not {@code null}, label and relationship type updates are flushed on this executor, concurrently with
+     * the schema index updates, each with its own cursor tracer from {@code cacheTracer}.
+     * @param stageTracer told how long each of the flushes took.
+     */
+    public BatchContext( IndexUpdateListener indexUpdateListener,
+            WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync,
+            WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync,
+            WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, PropertyStore propertyStore,
+            RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker,
+            IdUpdateListener idUpdateListener, CallableExecutor applyExecutor, PageCacheTracer cacheTracer, ApplyStageTracer stageTracer )
     {
         this.indexActivator = new IndexActivator( indexUpdateListener );
         this.labelScanStoreSync = labelScanStoreSync;
@@ -75,6 +104,9 @@ public class BatchContext implements AutoCloseable
         this.cursorTracer = cursorTracer;
         this.memoryTracker = memoryTracker;
         this.idUpdateListener = idUpdateListener;
+        this.applyExecutor = applyExecutor;
+        this.cacheTracer = cacheTracer;
+        this.stageTracer = stageTracer;
         this.lockGroup = new LockGroup();
     }
 
@@ -98,6 +130,12 @@ public class BatchContext implements AutoCloseable
 
     public void applyPendingLabelAndIndexUpdates() throws IOException
     {
+        if ( applyExecutor != null )
+        {
+            applyPendingLabelAndIndexUpdatesConcurrently();
+            return;
+        }
+
         AsyncApply labelUpdatesApply = null;
         AsyncApply relationshipTypeUpdatesApply = null;
         if ( labelUpdates != null )
@@ -112,40 +150,112 @@ public class BatchContext implements AutoCloseable
             relationshipTypeUpdatesApply = relationshipTypeScanStoreSync.applyAsync( new TokenUpdateWork( relationshipTypeUpdates, cursorTracer ) );
             relationshipTypeUpdates = null;
         }
-        if ( indexUpdates != null && indexUpdates.hasUpdates() )
+        applyPendingIndexUpdates();
+
+        if ( labelUpdatesApply != null )
         {
+            long startTime = System.nanoTime();
             try
             {
-                indexUpdatesSync.apply( new IndexUpdatesWork( indexUpdates, cursorTracer ) );
+                labelUpdatesApply.await();
             }
             catch ( ExecutionException e )
             {
-                throw new IOException( "Failed to flush index updates", e );
+                throw new IOException( "Failed to flush label updates", e );
             }
-            indexUpdates = null;
+            stageTracer.stageApplied( LABEL_INDEX_STAGE, System.nanoTime() - startTime );
         }
-
-        if ( labelUpdatesApply != null )
+        if ( relationshipTypeUpdatesApply != null )
         {
+            long startTime = System.nanoTime();
             try
             {
-                labelUpdatesApply.await();
+                relationshipTypeUpdatesApply.await();
             }
             catch ( ExecutionException e )
             {
-                throw new IOException( "Failed to flush label updates", e );
+                throw new IOException( "Failed to flush relationship type updates", e );
             }
+            stageTracer.stageApplied( RELATIONSHIP_TYPE_INDEX_STAGE, System.nanoTime() - startTime );
         }
-        if ( relationshipTypeUpdatesApply != null )
+    }
+
+    private void applyPendingLabelAndIndexUpdatesConcurrently() throws IOException
+    {
+        Future<Long> labelUpdatesApply = null;
+        Future<Long> relationshipTypeUpdatesApply = null;
+        if ( labelUpdates != null )
         {
+            labelUpdatesApply = submitTokenUpdates( labelScanStoreSync, labelUpdates, LABEL_UPDATES_TAG );
+            labelUpdates = null;
+        }
+        if ( relationshipTypeUpdates != null )
+        {
+            relationshipTypeUpdatesApply = submitTokenUpdates( relationshipTypeScanStoreSync, relationshipTypeUpdates, RELATIONSHIP_TYPE_UPDATES_TAG );
+            relationshipTypeUpdates = null;
+        }
+        try
+        {
+            applyPendingIndexUpdates();
+        }
+        finally
+        {
+            // Always wait for the token index flushes, they must not outlive the batch they came from
+            awaitTokenUpdates( labelUpdatesApply, LABEL_INDEX_STAGE, "Failed to flush label updates" );
+            awaitTokenUpdates( relationshipTypeUpdatesApply, RELATIONSHIP_TYPE_INDEX_STAGE, "Failed to flush relationship type updates" );
+        }
+    }
+
+    private Future<Long> submitTokenUpdates( WorkSync<EntityTokenUpdateListener,TokenUpdateWork> sync, List<EntityTokenUpdate> updates, String tag )
+    {
+        return applyExecutor.submit( () ->
+        {
+            // Page cursor tracers are not thread safe, so each flush running on the executor gets its own
+            try ( PageCursorTracer flushCursorTracer = cacheTracer.createPageCursorTracer( tag ) )
+            {
+                long startTime = System.nanoTime();
+                sync.apply( new TokenUpdateWork( updates, flushCursorTracer ) );
+                return System.nanoTime() - startTime;
+            }
+        } );
+    }
+
+    private void awaitTokenUpdates( Future<Long> updatesApply, String stage, String failureMessage ) throws IOException
+    {
+        if ( updatesApply == null )
+        {
+            return;
+        }
+        try
+        {
+            stageTracer.stageApplied( stage, updatesApply.get() );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( failureMessage, e.getCause() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( failureMessage, e );
+        }
+    }
+
+    private void applyPendingIndexUpdates() throws IOException
+    {
+        if ( indexUpdates != null && indexUpdates.hasUpdates() )
+        {
+            long startTime = System.nanoTime();
             try
             {
-                relationshipTypeUpdatesApply.await();
+                indexUpdatesSync.apply( new IndexUpdatesWork( indexUpdates, cursorTracer ) );
             }
             catch ( ExecutionException e )
             {
-                throw new IOException( "Failed to flush relationship type updates", e );
+                throw new IOException( "Failed to flush index updates", e );
             }
+            indexUpdates = null;
+            stageTracer.stageApplied( INDEXES_STAGE, System.nanoTime() - startTime );
         }
     }
 
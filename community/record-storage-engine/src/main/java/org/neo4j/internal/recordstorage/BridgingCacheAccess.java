@@ -29,12 +29,14 @@ class BridgingCacheAccess implements CacheAccessBackDoor
     private final SchemaCache schemaCache;
     private final SchemaState schemaState;
     private final TokenHolders tokenHolders;
+    private final HotEntityCache hotEntityCache;
 
-    BridgingCacheAccess( SchemaCache schemaCache, SchemaState schemaState, TokenHolders tokenHolders )
+    BridgingCacheAccess( SchemaCache schemaCache, SchemaState schemaState, TokenHolders tokenHolders, HotEntityCache hotEntityCache )
     {
         this.schemaCache = schemaCache;
         this.schemaState = schemaState;
         this.tokenHolders = tokenHolders;
+        this.hotEntityCache = hotEntityCache;
     }
 
     @Override
@@ -67,4 +69,13 @@ class BridgingCacheAccess implements CacheAccessBackDoor
     {
         tokenHolders.propertyKeyTokens().addToken( propertyKey );
     }
+
+    @Override
+    public void invalidateNode( long nodeId )
+    {
+        if ( hotEntityCache != null )
+        {
+            hotEntityCache.invalidateNode( nodeId );
+        }
+    }
 }
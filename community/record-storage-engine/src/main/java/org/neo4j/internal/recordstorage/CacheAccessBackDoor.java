@@ -33,4 +33,6 @@ public interface CacheAccessBackDoor
     void addLabelToken( NamedToken labelId );
 
     void addPropertyKeyToken( NamedToken index );
+
+    void invalidateNode( long nodeId );
 }
@@ -20,6 +20,8 @@
 package org.neo4j.internal.recordstorage;
 
 import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
 import org.neo4j.internal.recordstorage.Command.PropertyKeyTokenCommand;
 import org.neo4j.internal.recordstorage.Command.RelationshipTypeTokenCommand;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -35,21 +37,63 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     private final RelationshipTypeTokenStore relationshipTypeTokenStore;
     private final LabelTokenStore labelTokenStore;
     private final PropertyKeyTokenStore propertyKeyTokenStore;
+    private final boolean updateTokens;
+    private final boolean invalidateNodes;
     private final PageCursorTracer cursorTracer;
 
     public CacheInvalidationTransactionApplier( NeoStores neoStores,
                                                 CacheAccessBackDoor cacheAccess, PageCursorTracer cursorTracer )
+    {
+        this( neoStores, cacheAccess, true, false, cursorTracer );
+    }
+
+    public CacheInvalidationTransactionApplier( NeoStores neoStores, CacheAccessBackDoor cacheAccess, boolean updateTokens, boolean invalidateNodes,
+            PageCursorTracer cursorTracer )
     {
         this.cacheAccess = cacheAccess;
+        this.updateTokens = updateTokens;
+        this.invalidateNodes = invalidateNodes;
         this.relationshipTypeTokenStore = neoStores.getRelationshipTypeTokenStore();
         this.labelTokenStore = neoStores.getLabelTokenStore();
         this.propertyKeyTokenStore = neoStores.getPropertyKeyTokenStore();
         this.cursorTracer = cursorTracer;
     }
 
+    @Override
+    public boolean visitNodeCommand( NodeCommand command )
+    {
+        if ( invalidateNodes )
+        {
+            // The node store applier comes before this one, so the new version of the node is already in the store
+            cacheAccess.invalidateNode( command.getKey() );
+        }
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( PropertyCommand command )
+    {
+        if ( invalidateNodes )
+        {
+            if ( command.getBefore().isNodeSet() )
+            {
+                cacheAccess.invalidateNode( command.getBefore().getNodeId() );
+            }
+            if ( command.getAfter().isNodeSet() && command.getAfter().getNodeId() != command.getBefore().getNodeId() )
+            {
+                cacheAccess.invalidateNode( command.getAfter().getNodeId() );
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean visitRelationshipTypeTokenCommand( RelationshipTypeTokenCommand command )
     {
+        if ( !updateTokens )
+        {
+            return false;
+        }
         NamedToken type = relationshipTypeTokenStore.getToken( command.tokenId(), cursorTracer );
         cacheAccess.addRelationshipTypeToken( type );
 
@@ -59,6 +103,10 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     @Override
     public boolean visitLabelTokenCommand( LabelTokenCommand command )
     {
+        if ( !updateTokens )
+        {
+            return false;
+        }
         NamedToken labelId = labelTokenStore.getToken( command.tokenId(), cursorTracer );
         cacheAccess.addLabelToken( labelId );
 
@@ -68,6 +116,10 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     @Override
     public boolean visitPropertyKeyTokenCommand( PropertyKeyTokenCommand command )
     {
+        if ( !updateTokens )
+        {
+            return false;
+        }
         NamedToken index = propertyKeyTokenStore.getToken( command.tokenId(), cursorTracer );
         cacheAccess.addPropertyKeyToken( index );
 
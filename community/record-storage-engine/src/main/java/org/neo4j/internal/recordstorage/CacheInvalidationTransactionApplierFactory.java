@@ -26,16 +26,29 @@ public class CacheInvalidationTransactionApplierFactory implements TransactionAp
 {
     private final NeoStores neoStores;
     private final CacheAccessBackDoor cacheAccess;
+    private final boolean updateTokens;
+    private final boolean invalidateNodes;
 
     public CacheInvalidationTransactionApplierFactory( NeoStores neoStores, CacheAccessBackDoor cacheAccess )
+    {
+        this( neoStores, cacheAccess, true, false );
+    }
+
+    /**
+     * @param updateTokens whether or not token commands should be added to the token caches.
+     * @param invalidateNodes whether or not node and property commands should invalidate cached node data.
+     */
+    public CacheInvalidationTransactionApplierFactory( NeoStores neoStores, CacheAccessBackDoor cacheAccess, boolean updateTokens, boolean invalidateNodes )
     {
         this.neoStores = neoStores;
         this.cacheAccess = cacheAccess;
+        this.updateTokens = updateTokens;
+        this.invalidateNodes = invalidateNodes;
     }
 
     @Override
     public TransactionApplier startTx( CommandsToApply transaction, BatchContext batchContext )
     {
-        return new CacheInvalidationTransactionApplier( neoStores, cacheAccess, transaction.cursorTracer() );
+        return new CacheInvalidationTransactionApplier( neoStores, cacheAccess, updateTokens, invalidateNodes, transaction.cursorTracer() );
     }
 }
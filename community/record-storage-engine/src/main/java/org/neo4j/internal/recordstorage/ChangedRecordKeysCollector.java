@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.neo4j.internal.recordstorage.Command.BaseCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCountsCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCountsCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipGroupCommand;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Collects keys for all records that a transaction changes, such that two transactions with disjoint keys can be applied concurrently.
+ * A key is the {@link StoreType} of a record in the high byte and the record id in the remaining bytes. Property records also add the key of
+ * the entity owning them, since applying index updates for a property change may read the other properties of that entity.
+ * Token and schema changes, as well as anything not recognized here, mark the transaction as needing to be applied in isolation.
+ */
+class ChangedRecordKeysCollector extends CommandVisitor.Adapter
+{
+    private static final int STORE_TYPE_SHIFT = 56;
+
+    private final MutableLongSet keys;
+    private boolean recognized;
+    private boolean isolated;
+
+    ChangedRecordKeysCollector( MutableLongSet keys )
+    {
+        this.keys = keys;
+    }
+
+    /**
+     * @param command a command of the transaction.
+     * @return {@code true} if the keys of the command could be collected, otherwise {@code false} meaning that the transaction
+     * must be applied in isolation.
+     */
+    boolean collect( StorageCommand command ) throws IOException
+    {
+        if ( !(command instanceof BaseCommand || command instanceof NodeCountsCommand || command instanceof RelationshipCountsCommand) )
+        {
+            isolated = true;
+        }
+        if ( !isolated )
+        {
+            recognized = false;
+            ((Command) command).handle( this );
+            isolated = !recognized;
+        }
+        return !isolated;
+    }
+
+    @Override
+    public boolean visitNodeCommand( NodeCommand command )
+    {
+        track( StoreType.NODE, command );
+        track( StoreType.NODE_LABEL, command.getBefore().getDynamicLabelRecords() );
+        track( StoreType.NODE_LABEL, command.getAfter().getDynamicLabelRecords() );
+        recognized = true;
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( RelationshipCommand command )
+    {
+        track( StoreType.RELATIONSHIP, command );
+        recognized = true;
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipGroupCommand( RelationshipGroupCommand command )
+    {
+        track( StoreType.RELATIONSHIP_GROUP, command );
+        recognized = true;
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( PropertyCommand command )
+    {
+        track( StoreType.PROPERTY, command );
+        boolean ownerBefore = trackOwner( command.getBefore() );
+        boolean ownerAfter = trackOwner( command.getAfter() );
+        // Properties of schema rules are schema changes
+        recognized = (ownerBefore || ownerAfter) && !command.getBefore().isSchemaSet() && !command.getAfter().isSchemaSet();
+        trackValueRecords( command.getBefore() );
+        trackValueRecords( command.getAfter() );
+        for ( DynamicRecord deleted : command.getAfter().getDeletedRecords() )
+        {
+            track( deleted );
+        }
+        return false;
+    }
+
+    @Override
+    public boolean visitNodeCountsCommand( NodeCountsCommand command )
+    {
+        // Counts are deltas, which can be applied in any order
+        recognized = true;
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCountsCommand( RelationshipCountsCommand command )
+    {
+        // Counts are deltas, which can be applied in any order
+        recognized = true;
+        return false;
+    }
+
+    private boolean trackOwner( PropertyRecord record )
+    {
+        if ( record.isNodeSet() )
+        {
+            keys.add( key( StoreType.NODE, record.getNodeId() ) );
+        }
+        else if ( record.isRelSet() )
+        {
+            keys.add( key( StoreType.RELATIONSHIP, record.getRelId() ) );
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
+    private void trackValueRecords( PropertyRecord record )
+    {
+        for ( PropertyBlock block : record )
+        {
+            for ( DynamicRecord valueRecord : block.getValueRecords() )
+            {
+                track( valueRecord );
+            }
+        }
+    }
+
+    private void track( DynamicRecord valueRecord )
+    {
+        track( valueRecord.getType() == PropertyType.ARRAY ? StoreType.PROPERTY_ARRAY : StoreType.PROPERTY_STRING, valueRecord );
+    }
+
+    private void track( StoreType storeType, BaseCommand<?> command )
+    {
+        track( storeType, command.getBefore() );
+        track( storeType, command.getAfter() );
+    }
+
+    private void track( StoreType storeType, Collection<? extends AbstractBaseRecord> records )
+    {
+        for ( AbstractBaseRecord record : records )
+        {
+            track( storeType, record );
+        }
+    }
+
+    private void track( StoreType storeType, AbstractBaseRecord record )
+    {
+        keys.add( key( storeType, record.getId() ) );
+        if ( record.hasSecondaryUnitId() )
+        {
+            keys.add( key( storeType, record.getSecondaryUnitId() ) );
+        }
+    }
+
+    private static long key( StoreType storeType, long id )
+    {
+        return ((long) storeType.ordinal() << STORE_TYPE_SHIFT) | id;
+    }
+}
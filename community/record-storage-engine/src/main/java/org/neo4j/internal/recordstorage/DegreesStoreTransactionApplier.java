@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * Keeps the degrees store in sync with the relationship store by adding created relationships to, and removing deleted relationships from,
+ * the degrees of their nodes. The degrees store updater is only opened for transactions that actually change relationships.
+ */
+class DegreesStoreTransactionApplier extends TransactionApplier.Adapter
+{
+    private final GBPTreeDegreesStore degreesStore;
+    private final CommandsToApply transaction;
+    private GBPTreeDegreesStore.DegreeUpdater updater;
+
+    DegreesStoreTransactionApplier( GBPTreeDegreesStore degreesStore, CommandsToApply transaction )
+    {
+        this.degreesStore = degreesStore;
+        this.transaction = transaction;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( Command.RelationshipCommand command )
+    {
+        RelationshipRecord before = command.getBefore();
+        RelationshipRecord after = command.getAfter();
+        if ( !before.inUse() && after.inUse() )
+        {
+            updater().incrementRelationship( after.getFirstNode(), after.getType(), after.getSecondNode(), 1 );
+        }
+        else if ( before.inUse() && !after.inUse() )
+        {
+            updater().incrementRelationship( before.getFirstNode(), before.getType(), before.getSecondNode(), -1 );
+        }
+        return false;
+    }
+
+    private GBPTreeDegreesStore.DegreeUpdater updater()
+    {
+        if ( updater == null )
+        {
+            updater = degreesStore.apply( transaction.transactionId(), transaction.cursorTracer() );
+        }
+        return updater;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( updater != null )
+        {
+            updater.close();
+            updater = null;
+        }
+    }
+}
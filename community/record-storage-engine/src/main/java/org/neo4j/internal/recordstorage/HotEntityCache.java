@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.kernel.impl.store.NodeLabelsField.fieldPointsToDynamicRecordOfLabels;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.memory.HeapEstimator.shallowSizeOfInstance;
+import static org.neo4j.memory.HeapEstimator.shallowSizeOfObjectArray;
+import static org.neo4j.memory.HeapEstimator.sizeOf;
+
+/**
+ * Size-bounded cache of decoded labels and properties of frequently read nodes, consulted by {@link RecordNodeCursor} and
+ * {@link RecordPropertyCursor} in front of the node and property stores. Only labels that live in dynamic records are cached,
+ * inlined labels are cheaper to decode than to look up.
+ * <p>
+ * A node is cached the second time it misses in a short while, so that scans, which read every node once, don't push out the
+ * frequently read nodes. When the estimated heap usage of the cached data goes above the maximum, entries that haven't been
+ * read since the last pass of a clock hand are evicted.
+ * <p>
+ * Entries are invalidated by {@link CacheInvalidationTransactionApplier} after the records of a node have been updated. Readers
+ * take a {@link #stamp(long) stamp} before reading the records they will cache, and an entry whose node was invalidated after
+ * the stamp was taken is never left in the cache, nor read from it in the meantime. Entries also remember the property chain or
+ * label field they were decoded from, and are only served to cursors positioned on a node record that points to the same.
+ * <p>
+ * This class is thread safe.
+ */
+public class HotEntityCache
+{
+    private static final int STAMP_STRIPES = 1 << 10;
+    private static final int ADMISSION_SLOTS = 1 << 12;
+    private static final long ENTRY_SIZE = shallowSizeOfInstance( Entry.class ) + shallowSizeOfInstance( Long.class ) +
+            shallowSizeOfInstance( ConcurrentHashMap.class ) / 4;
+    private static final int LABELS = 0;
+    private static final int PROPERTIES = 1;
+
+    private final NodeStore nodeStore;
+    private final long maxMemory;
+    private final ConcurrentHashMap<Long,Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray( STAMP_STRIPES );
+    private final AtomicLongArray recentMisses = new AtomicLongArray( ADMISSION_SLOTS );
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // guarded by evictionLock
+    private Iterator<Entry> clockHand;
+
+    HotEntityCache( NodeStore nodeStore, long maxMemory )
+    {
+        this.nodeStore = nodeStore;
+        this.maxMemory = maxMemory;
+        for ( int i = 0; i < ADMISSION_SLOTS; i++ )
+        {
+            recentMisses.set( i, -1 );
+        }
+    }
+
+    /**
+     * @return number of lookups that were served from this cache.
+     */
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to go to the store.
+     */
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted to keep the cache within its maximum size.
+     */
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * @return estimated heap usage of the currently cached data, in bytes.
+     */
+    public long usedMemory()
+    {
+        return usedMemory.get();
+    }
+
+    /**
+     * @return the maximum amount of heap memory this cache can use, in bytes.
+     */
+    public long maxMemory()
+    {
+        return maxMemory;
+    }
+
+    /**
+     * Reads the stamp of the given node, to be passed to one of the {@code put} methods. Must be called before reading any of the
+     * records that the cached data is decoded from.
+     */
+    long stamp( long nodeId )
+    {
+        return stamps.get( stripe( nodeId ) );
+    }
+
+    /**
+     * @return the cached labels of the given node, decoded from the given label field, or {@code null} if not cached.
+     */
+    long[] labels( long nodeId, long labelField )
+    {
+        Entry entry = get( key( nodeId, LABELS ), labelField );
+        return entry != null ? entry.labels.clone() : null;
+    }
+
+    /**
+     * @return the cached properties of the given node, decoded from the property chain starting at the given reference,
+     * or {@code null} if not cached.
+     */
+    Entry properties( long nodeId, long propertiesReference )
+    {
+        return get( key( nodeId, PROPERTIES ), propertiesReference );
+    }
+
+    /**
+     * Called after a miss, decides whether or not the missing data should be loaded into this cache.
+     *
+     * @return {@code true} if the labels of this node missed recently too.
+     */
+    boolean admitLabels( long nodeId )
+    {
+        return admit( key( nodeId, LABELS ) );
+    }
+
+    /**
+     * Called after a miss, decides whether or not the missing data should be loaded into this cache.
+     *
+     * @return {@code true} if the properties of this node missed recently too.
+     */
+    boolean admitProperties( long nodeId )
+    {
+        return admit( key( nodeId, PROPERTIES ) );
+    }
+
+    /**
+     * Loads the labels of the given node into this cache, if they live in dynamic records. Reads the node record again,
+     * rather than decoding the labels of a record that may have been read before a concurrent transaction changed them.
+     */
+    void loadLabels( long nodeId, PageCursorTracer cursorTracer )
+    {
+        long stamp = stamp( nodeId );
+        NodeRecord node = nodeStore.getRecord( nodeId, nodeStore.newRecord(), CHECK, cursorTracer );
+        if ( node.inUse() && fieldPointsToDynamicRecordOfLabels( node.getLabelField() ) )
+        {
+            putLabels( nodeId, node.getLabelField(), NodeLabelsField.get( node, nodeStore, cursorTracer ), stamp );
+        }
+    }
+
+    /**
+     * Reads the node record again, for readers that want to cache data decoded from a node record they read before taking the stamp.
+     *
+     * @return {@code true} if the node is in use and its property chain starts at the given reference.
+     */
+    boolean hasPropertiesReference( long nodeId, long propertiesReference, PageCursorTracer cursorTracer )
+    {
+        NodeRecord node = nodeStore.getRecord( nodeId, nodeStore.newRecord(), CHECK, cursorTracer );
+        return node.inUse() && node.getNextProp() == propertiesReference;
+    }
+
+    private void putLabels( long nodeId, long labelField, long[] labels, long stamp )
+    {
+        long size = ENTRY_SIZE + sizeOf( labels );
+        put( nodeId, new Entry( key( nodeId, LABELS ), labelField, labels, null, null, size ), stamp );
+    }
+
+    /**
+     * Caches the properties of a node.
+     *
+     * @return an entry holding the given properties, whether or not it could be cached, or {@code null} if the node was invalidated
+     * after the given stamp was taken, in which case the properties may have been read from records in the middle of being updated.
+     */
+    Entry putProperties( long nodeId, long propertiesReference, int[] keys, Value[] values, long stamp )
+    {
+        long size = ENTRY_SIZE + sizeOf( keys ) + shallowSizeOfObjectArray( values.length );
+        for ( Value value : values )
+        {
+            size += value.estimatedHeapUsage();
+        }
+        Entry entry = new Entry( key( nodeId, PROPERTIES ), propertiesReference, null, keys, values, size );
+        return put( nodeId, entry, stamp ) ? entry : null;
+    }
+
+    /**
+     * Invalidates the cached data of the given node. Must be called after the updated records of the node are written to the store.
+     */
+    void invalidateNode( long nodeId )
+    {
+        stamps.incrementAndGet( stripe( nodeId ) );
+        remove( key( nodeId, LABELS ) );
+        remove( key( nodeId, PROPERTIES ) );
+    }
+
+    private Entry get( long key, long reference )
+    {
+        Entry entry = entries.get( key );
+        if ( entry != null && entry.valid && entry.reference == reference )
+        {
+            if ( !entry.referenced )
+            {
+                entry.referenced = true;
+            }
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    private boolean admit( long key )
+    {
+        int slot = (int) (mix( key ) & (ADMISSION_SLOTS - 1));
+        if ( recentMisses.get( slot ) == key )
+        {
+            return true;
+        }
+        recentMisses.set( slot, key );
+        return false;
+    }
+
+    /**
+     * @return {@code false} if the node was invalidated after the given stamp was taken, otherwise {@code true}.
+     */
+    private boolean put( long nodeId, Entry entry, long stamp )
+    {
+        if ( entry.size > maxMemory / 2 || entries.putIfAbsent( entry.key, entry ) != null )
+        {
+            return stamps.get( stripe( nodeId ) ) == stamp;
+        }
+        usedMemory.addAndGet( entry.size );
+        if ( stamps.get( stripe( nodeId ) ) != stamp )
+        {
+            // The node was invalidated while its records were read, or after, in which case the invalidation may have missed this entry
+            if ( entries.remove( entry.key, entry ) )
+            {
+                usedMemory.addAndGet( -entry.size );
+            }
+            return false;
+        }
+        // Only now is it certain that the entry wasn't decoded from records that an applied transaction has changed since
+        entry.valid = true;
+        if ( usedMemory.get() > maxMemory )
+        {
+            evict();
+        }
+        return true;
+    }
+
+    private void remove( long key )
+    {
+        Entry removed = entries.remove( key );
+        if ( removed != null )
+        {
+            usedMemory.addAndGet( -removed.size );
+        }
+    }
+
+    private void evict()
+    {
+        if ( !evictionLock.tryLock() )
+        {
+            // Someone else is already evicting
+            return;
+        }
+        try
+        {
+            long target = maxMemory - maxMemory / 10;
+            while ( usedMemory.get() > target )
+            {
+                if ( clockHand == null || !clockHand.hasNext() )
+                {
+                    clockHand = entries.values().iterator();
+                    if ( !clockHand.hasNext() )
+                    {
+                        return;
+                    }
+                }
+                Entry entry = clockHand.next();
+                if ( entry.referenced )
+                {
+                    entry.referenced = false;
+                }
+                else if ( entries.remove( entry.key, entry ) )
+                {
+                    usedMemory.addAndGet( -entry.size );
+                    evictions.increment();
+                }
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    private static long key( long nodeId, int type )
+    {
+        return (nodeId << 1) | type;
+    }
+
+    private static int stripe( long nodeId )
+    {
+        return (int) (mix( nodeId ) & (STAMP_STRIPES - 1));
+    }
+
+    private static long mix( long value )
+    {
+        return (value * 0x9E3779B97F4A7C15L) >>> 32;
+    }
+
+    static final class Entry
+    {
+        private final long key;
+        private final long reference;
+        private final long[] labels;
+        final int[] propertyKeys;
+        final Value[] propertyValues;
+        private final long size;
+        private volatile boolean valid;
+        private volatile boolean referenced;
+
+        private Entry( long key, long reference, long[] labels, int[] propertyKeys, Value[] propertyValues, long size )
+        {
+            this.key = key;
+            this.reference = reference;
+            this.labels = labels;
+            this.propertyKeys = propertyKeys;
+            this.propertyValues = propertyValues;
+            this.size = size;
+        }
+    }
+}
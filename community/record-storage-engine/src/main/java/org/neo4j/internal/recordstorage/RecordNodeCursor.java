@@ -22,6 +22,7 @@ package org.neo4j.internal.recordstorage;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import org.eclipse.collections.impl.factory.primitive.IntSets;
 
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.NodeLabelsField;
@@ -40,7 +41,9 @@ import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageRelationshipTraversalCursor;
 
 import static java.lang.Math.min;
+import static org.apache.commons.lang3.ArrayUtils.contains;
 import static org.neo4j.internal.recordstorage.RelationshipReferenceEncoding.encodeDense;
+import static org.neo4j.kernel.impl.store.NodeLabelsField.fieldPointsToDynamicRecordOfLabels;
 import static org.neo4j.storageengine.api.RelationshipSelection.ALL_RELATIONSHIPS;
 
 public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
@@ -49,7 +52,10 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     private final PageCursorTracer cursorTracer;
     private final RelationshipStore relationshipStore;
     private final RelationshipGroupStore groupStore;
+    private final HotEntityCache hotEntityCache;
+    private final GBPTreeDegreesStore degreesStore;
     private PageCursor pageCursor;
+    private boolean scanningPageCursor;
     private long next;
     private long highMark;
     private long nextStoreReference;
@@ -60,12 +66,20 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     private RecordLoadOverride loadMode;
 
     RecordNodeCursor( NodeStore read, RelationshipStore relationshipStore, RelationshipGroupStore groupStore, PageCursorTracer cursorTracer )
+    {
+        this( read, relationshipStore, groupStore, null, null, cursorTracer );
+    }
+
+    RecordNodeCursor( NodeStore read, RelationshipStore relationshipStore, RelationshipGroupStore groupStore, HotEntityCache hotEntityCache,
+            GBPTreeDegreesStore degreesStore, PageCursorTracer cursorTracer )
     {
         super( NO_ID );
         this.read = read;
         this.cursorTracer = cursorTracer;
         this.relationshipStore = relationshipStore;
         this.groupStore = groupStore;
+        this.hotEntityCache = hotEntityCache;
+        this.degreesStore = degreesStore;
         this.loadMode = RecordLoadOverride.none();
     }
 
@@ -76,10 +90,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = nodePage( 0 );
-        }
+        openPageCursor( 0, true );
         this.next = 0;
         this.highMark = nodeHighMark();
         this.nextStoreReference = NO_ID;
@@ -94,10 +105,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = nodePage( reference );
-        }
+        openPageCursor( reference, false );
         this.next = reference >= 0 ? reference : NO_ID;
         //This marks the cursor as a "single cursor"
         this.highMark = NO_ID;
@@ -108,6 +116,12 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 
     @Override
     public boolean scanBatch( AllNodeScan scan, int sizeHint )
+    {
+        return ((RecordNodeScan) scan).scanBatch( sizeHint , this);
+    }
+
+    @Override
+    public boolean scanRange( long start, long stop )
     {
         if ( getId() != NO_ID )
         {
@@ -117,11 +131,6 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         this.open = true;
         this.nextStoreReference = NO_ID;
 
-        return ((RecordNodeScan) scan).scanBatch( sizeHint , this);
-    }
-
-    boolean scanRange( long start, long stop )
-    {
         long max = nodeHighMark();
         if ( start > max )
         {
@@ -133,10 +142,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
             reset();
             return true;
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = nodePage( start );
-        }
+        openPageCursor( start, true );
         next = start;
         highMark = min( stop, max );
         return true;
@@ -151,15 +157,39 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     @Override
     public long[] labels()
     {
+        if ( useHotEntityCache() )
+        {
+            long[] labels = hotEntityCache.labels( getId(), getLabelField() );
+            if ( labels != null )
+            {
+                return labels;
+            }
+            if ( hotEntityCache.admitLabels( getId() ) )
+            {
+                hotEntityCache.loadLabels( getId(), cursorTracer );
+            }
+        }
         return NodeLabelsField.get( this, read, cursorTracer );
     }
 
     @Override
     public boolean hasLabel( int label )
     {
+        if ( useHotEntityCache() )
+        {
+            return contains( labels(), label );
+        }
         return NodeLabelsField.hasLabel( this, read, cursorTracer, label );
     }
 
+    /**
+     * Only labels in dynamic records are worth caching, and forced loads are for reading records that the cache shouldn't know about.
+     */
+    private boolean useHotEntityCache()
+    {
+        return hotEntityCache != null && loadMode == RecordLoadOverride.none() && fieldPointsToDynamicRecordOfLabels( getLabelField() );
+    }
+
     @Override
     public boolean hasProperties()
     {
@@ -221,7 +251,18 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     @Override
     public void degrees( RelationshipSelection selection, Degrees.Mutator mutator, boolean allowFastDegreeLookup )
     {
-        if ( !isDense() || !allowFastDegreeLookup )
+        if ( allowFastDegreeLookup && degreesStore != null && loadMode == RecordLoadOverride.none() )
+        {
+            degreesStore.visitDegrees( getId(), ( nodeId, type, outgoing, incoming, loop ) ->
+            {
+                if ( selection.test( type ) )
+                {
+                    mutator.add( type, selection.test( RelationshipDirection.OUTGOING ) ? (int) outgoing : 0,
+                            selection.test( RelationshipDirection.INCOMING ) ? (int) incoming : 0, (int) loop );
+                }
+            }, cursorTracer );
+        }
+        else if ( !isDense() || !allowFastDegreeLookup )
         {
             if ( relationshipCursor == null )
             {
@@ -292,7 +333,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     @Override
     public boolean supportsFastDegreeLookup()
     {
-        return isDense();
+        return isDense() || degreesStore != null;
     }
 
     @Override
@@ -314,7 +355,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     @Override
     public void properties( StoragePropertyCursor propertyCursor )
     {
-        propertyCursor.initNodeProperties( getNextProp() );
+        propertyCursor.initNodeProperties( getNextProp(), getId() );
     }
 
     @Override
@@ -435,9 +476,20 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         }
     }
 
-    private PageCursor nodePage( long reference )
+    private void openPageCursor( long reference, boolean scanning )
     {
-        return read.openPageCursorForReading( reference, cursorTracer );
+        if ( pageCursor != null && scanningPageCursor != scanning )
+        {
+            // Scans read their pages as used once, while single reads should count towards keeping the pages in memory.
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = scanning ? read.openPageCursorForScanning( reference, cursorTracer )
+                                  : read.openPageCursorForReading( reference, cursorTracer );
+            scanningPageCursor = scanning;
+        }
     }
 
     private long nodeHighMark()
@@ -19,7 +19,12 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.io.memory.HeapScopedBuffer;
 import org.neo4j.io.memory.ScopedBuffer;
@@ -61,6 +66,9 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     private final PropertyStore propertyStore;
     private final PageCursorTracer cursorTracer;
     private final MemoryTracker memoryTracker;
+    private final HotEntityCache hotEntityCache;
+    private HotEntityCache.Entry cached;
+    private int cachedIndex;
     private long next;
     private int block;
     private ScopedBuffer scopedBuffer;
@@ -72,9 +80,15 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     private RecordLoadOverride loadMode;
 
     RecordPropertyCursor( PropertyStore propertyStore, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+    {
+        this( propertyStore, null, cursorTracer, memoryTracker );
+    }
+
+    RecordPropertyCursor( PropertyStore propertyStore, HotEntityCache hotEntityCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
         super( NO_ID );
         this.propertyStore = propertyStore;
+        this.hotEntityCache = hotEntityCache;
         this.cursorTracer = cursorTracer;
         this.memoryTracker = memoryTracker;
         loadMode = RecordLoadOverride.none();
@@ -86,6 +100,43 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
         init( reference );
     }
 
+    @Override
+    public void initNodeProperties( long reference, long nodeReference )
+    {
+        init( reference );
+        if ( hotEntityCache != null && reference != NO_ID && loadMode == RecordLoadOverride.none() )
+        {
+            cached = hotEntityCache.properties( nodeReference, reference );
+            if ( cached == null && hotEntityCache.admitProperties( nodeReference ) )
+            {
+                cached = loadIntoCache( nodeReference, reference );
+            }
+            cachedIndex = INITIAL_POSITION;
+        }
+    }
+
+    /**
+     * Reads the whole property chain, to cache it. The chain is read from the store after the stamp is taken, not to cache
+     * properties that a concurrently applied transaction changed before the node record that {@code reference} came from was read.
+     */
+    private HotEntityCache.Entry loadIntoCache( long nodeReference, long reference )
+    {
+        long stamp = hotEntityCache.stamp( nodeReference );
+        if ( !hotEntityCache.hasPropertiesReference( nodeReference, reference, cursorTracer ) )
+        {
+            return null;
+        }
+        MutableIntList keys = IntLists.mutable.empty();
+        List<Value> values = new ArrayList<>();
+        while ( next() )
+        {
+            keys.add( propertyKey() );
+            values.add( propertyValue() );
+        }
+        init( reference );
+        return hotEntityCache.putProperties( nodeReference, reference, keys.toArray(), values.toArray( new Value[0] ), stamp );
+    }
+
     @Override
     public void initRelationshipProperties( long reference )
     {
@@ -98,6 +149,7 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
      */
     private void init( long reference )
     {
+        cached = null;
         if ( getId() != NO_ID )
         {
             clear();
@@ -121,6 +173,10 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     @Override
     public boolean next()
     {
+        if ( cached != null )
+        {
+            return ++cachedIndex < cached.propertyKeys.length;
+        }
         while ( true )
         {
             //Figure out number of blocks of record
@@ -175,6 +231,7 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
         {
             open = false;
             loadMode = RecordLoadOverride.none();
+            cached = null;
             clear();
         }
     }
@@ -183,17 +240,26 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     public void setForceLoad()
     {
         this.loadMode = RecordLoadOverride.FORCE;
+        this.cached = null;
     }
 
     @Override
     public int propertyKey()
     {
+        if ( cached != null )
+        {
+            return cached.propertyKeys[cachedIndex];
+        }
         return PropertyBlock.keyIndexId( currentBlock() );
     }
 
     @Override
     public ValueGroup propertyType()
     {
+        if ( cached != null )
+        {
+            return cached.propertyValues[cachedIndex].valueGroup();
+        }
         PropertyType type = type();
         if ( type == null )
         {
@@ -233,6 +299,10 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     @Override
     public Value propertyValue()
     {
+        if ( cached != null )
+        {
+            return cached.propertyValues[cachedIndex];
+        }
         return readValue();
     }
 
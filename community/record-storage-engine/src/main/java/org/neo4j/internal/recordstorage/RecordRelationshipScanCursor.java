@@ -36,6 +36,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
     private long highMark;
     private long nextStoreReference;
     private PageCursor pageCursor;
+    private boolean scanningPageCursor;
     private boolean open;
     private boolean batched;
 
@@ -57,10 +58,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = relationshipPage( 0 );
-        }
+        openPageCursor( 0, true );
         this.next = 0;
         this.filterType = type;
         this.highMark = relationshipHighMark();
@@ -75,10 +73,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = relationshipPage( reference );
-        }
+        openPageCursor( reference, false );
         this.next = reference >= 0 ? reference : NO_ID;
         this.filterType = -1;
         this.highMark = NO_ID;
@@ -88,6 +83,12 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
 
     @Override
     public boolean scanBatch( AllRelationshipsScan scan, int sizeHint )
+    {
+        return ((RecordRelationshipScan) scan).scanBatch( sizeHint , this);
+    }
+
+    @Override
+    public boolean scanRange( long start, long stop )
     {
         if ( getId() != NO_ID )
         {
@@ -98,11 +99,6 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         this.nextStoreReference = NO_ID;
         this.filterType = -1;
 
-        return ((RecordRelationshipScan) scan).scanBatch( sizeHint , this);
-    }
-
-    boolean scanRange( long start, long stop )
-    {
         long max = relationshipHighMark();
         if ( start > max )
         {
@@ -114,10 +110,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
             reset();
             return true;
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = relationshipPage( start );
-        }
+        openPageCursor( start, true );
         next = start;
         highMark = min( stop, max );
         return true;
@@ -213,6 +206,21 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         return highMark == NO_ID;
     }
 
+    private void openPageCursor( long reference, boolean scanning )
+    {
+        if ( pageCursor != null && scanningPageCursor != scanning )
+        {
+            // Scans read their pages as used once, while single reads should count towards keeping the pages in memory.
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = scanning ? relationshipScanPage( reference ) : relationshipPage( reference );
+            scanningPageCursor = scanning;
+        }
+    }
+
     @Override
     public void close()
     {
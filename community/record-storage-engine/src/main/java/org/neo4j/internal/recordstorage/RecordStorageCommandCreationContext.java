@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.neo4j.internal.id.ReservingIdSequence;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -43,10 +44,20 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     private final PropertyCreator propertyCreator;
     private final PropertyDeleter propertyDeleter;
     private final PageCursorTracer cursorTracer;
+    /**
+     * Node and relationship ids reserved in ranges for the current transaction, or {@code null} if ids are allocated one at a time.
+     */
+    private final ReservingIdSequence nodeIds;
+    private final ReservingIdSequence relationshipIds;
 
-    RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+    RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, int idReservationSize, PageCursorTracer cursorTracer,
+            MemoryTracker memoryTracker )
     {
         this.cursorTracer = cursorTracer;
+        boolean reserveIdRanges = idReservationSize > 1;
+        this.nodeIds = reserveIdRanges ? new ReservingIdSequence( neoStores.getNodeStore().getIdGenerator(), idReservationSize, cursorTracer ) : null;
+        this.relationshipIds = reserveIdRanges ?
+                new ReservingIdSequence( neoStores.getRelationshipStore().getIdGenerator(), idReservationSize, cursorTracer ) : null;
         this.neoStores = neoStores;
         this.memoryTracker = memoryTracker;
         this.loaders = new Loaders( neoStores );
@@ -70,13 +81,13 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     @Override
     public long reserveNode()
     {
-        return nextId( StoreType.NODE );
+        return nodeIds != null ? nodeIds.nextId( cursorTracer ) : nextId( StoreType.NODE );
     }
 
     @Override
     public long reserveRelationship()
     {
-        return nextId( StoreType.RELATIONSHIP );
+        return relationshipIds != null ? relationshipIds.nextId( cursorTracer ) : nextId( StoreType.RELATIONSHIP );
     }
 
     @Override
@@ -103,9 +114,20 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         return toIntExact( neoStores.getLabelTokenStore().nextId( cursorTracer ) );
     }
 
+    @Override
+    public void release()
+    {
+        if ( nodeIds != null )
+        {
+            nodeIds.close();
+            relationshipIds.close();
+        }
+    }
+
     @Override
     public void close()
     {
+        release();
     }
 
     TransactionRecordState createTransactionRecordState( IntegrityValidator integrityValidator, long lastTransactionIdWhenStarted,
@@ -19,12 +19,16 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import org.neo4j.configuration.Config;
@@ -36,6 +40,7 @@ import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.counts.CountsBuilder;
 import org.neo4j.internal.counts.GBPTreeCountsStore;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.diagnostics.DiagnosticsLogger;
 import org.neo4j.internal.diagnostics.DiagnosticsManager;
 import org.neo4j.internal.id.IdController;
@@ -58,6 +63,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.CountsComputer;
+import org.neo4j.kernel.impl.store.DegreesComputer;
 import org.neo4j.kernel.impl.store.IdUpdateListener;
 import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.NeoStores;
@@ -74,7 +80,12 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.ApplyStageTracer;
 import org.neo4j.storageengine.api.CommandCreationContext;
+import org.neo4j.storageengine.api.CommandStream;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
@@ -104,6 +115,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private static final String STORAGE_ENGINE_START_TAG = "storageEngineStart";
     private static final String SCHEMA_CACHE_START_TAG = "schemaCacheStart";
     private static final String TOKENS_INIT_TAG = "tokensInitialisation";
+    private static final String COUNTS_APPLY_TAG = "applyCounts";
+    static final String RECORDS_STAGE = "records";
+    static final String COUNTS_STAGE = "counts";
 
     private final NeoStores neoStores;
     private final DatabaseLayout databaseLayout;
@@ -124,7 +138,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final PageCacheTracer cacheTracer;
     private final MemoryTracker otherMemoryTracker;
     private final GBPTreeCountsStore countsStore;
+    private final GBPTreeDegreesStore degreesStore;
     private final int denseNodeThreshold;
+    private final int idReservationSize;
+    private final HotEntityCache hotEntityCache;
+    private final boolean parallelApply;
+    private final JobScheduler jobScheduler;
     private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
     private final Map<TransactionApplicationMode,TransactionApplierFactoryChain> applierChains = new EnumMap<>( TransactionApplicationMode.class );
 
@@ -132,6 +151,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private IndexUpdateListener indexUpdateListener;
     private EntityTokenUpdateListener nodeLabelUpdateListener;
     private EntityTokenUpdateListener relationshipTypeUpdateListener;
+    private CallableExecutor applyExecutor;
 
     public RecordStorageEngine( DatabaseLayout databaseLayout,
             Config config,
@@ -146,6 +166,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             Health databaseHealth,
             IdGeneratorFactory idGeneratorFactory,
             IdController idController,
+            JobScheduler jobScheduler,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
             PageCacheTracer cacheTracer,
             boolean createStoreIfNotExists,
@@ -158,6 +179,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         this.databaseHealth = databaseHealth;
         this.constraintSemantics = constraintSemantics;
         this.idController = idController;
+        this.jobScheduler = jobScheduler;
         this.cacheTracer = cacheTracer;
         this.otherMemoryTracker = otherMemoryTracker;
 
@@ -174,13 +196,18 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             schemaCache = new SchemaCache( constraintSemantics, indexConfigCompleter );
 
             integrityValidator = new IntegrityValidator( neoStores );
-            cacheAccess = new BridgingCacheAccess( schemaCache, schemaState, tokenHolders );
+            long hotEntityCacheMaxMemory = config.get( GraphDatabaseInternalSettings.hot_entity_cache_max_memory );
+            hotEntityCache = hotEntityCacheMaxMemory > 0 ? new HotEntityCache( neoStores.getNodeStore(), hotEntityCacheMaxMemory ) : null;
+            cacheAccess = new BridgingCacheAccess( schemaCache, schemaState, tokenHolders, hotEntityCache );
 
             denseNodeThreshold = config.get( GraphDatabaseSettings.dense_node_threshold );
+            idReservationSize = config.get( GraphDatabaseInternalSettings.transaction_id_reservation_size );
 
             countsStore = openCountsStore( pageCache, fs, databaseLayout, config, logProvider, recoveryCleanupWorkCollector, cacheTracer );
+            degreesStore = openDegreesStore( pageCache, fs, databaseLayout, config, logProvider, recoveryCleanupWorkCollector, cacheTracer );
 
             consistencyCheckApply = config.get( GraphDatabaseInternalSettings.consistency_check_on_apply );
+            parallelApply = config.get( GraphDatabaseInternalSettings.parallel_transaction_apply );
         }
         catch ( Throwable failure )
         {
@@ -212,14 +239,25 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         {
             appliers.add( new HighIdTransactionApplierFactory( neoStores ) );
         }
-        if ( mode.needsCacheInvalidationOnUpdates() )
+        if ( mode.needsCacheInvalidationOnUpdates() || hotEntityCache != null )
         {
-            appliers.add( new CacheInvalidationTransactionApplierFactory( neoStores, cacheAccess ) );
+            // Must come after the neo store applier, cached node data is invalidated after the new records are in the store
+            appliers.add( new CacheInvalidationTransactionApplierFactory( neoStores, cacheAccess, mode.needsCacheInvalidationOnUpdates(),
+                    hotEntityCache != null ) );
         }
         if ( mode.needsAuxiliaryStores() )
         {
-            // Counts store application
-            appliers.add( new CountsStoreTransactionApplierFactory( countsStore ) );
+            // Counts store application, unless counts are applied separately on the apply executor
+            if ( applyExecutor == null )
+            {
+                appliers.add( new CountsStoreTransactionApplierFactory( countsStore ) );
+            }
+
+            // Degrees store application
+            if ( degreesStore != null )
+            {
+                appliers.add( new DegreesStoreTransactionApplierFactory( degreesStore ) );
+            }
 
             // Schema index application
             appliers.add( new IndexTransactionApplierFactory( indexUpdateListener ) );
@@ -258,16 +296,60 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    private GBPTreeDegreesStore openDegreesStore( PageCache pageCache, FileSystemAbstraction fs, DatabaseLayout layout, Config config,
+            LogProvider logProvider, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, PageCacheTracer pageCacheTracer )
+    {
+        boolean readOnly = config.get( GraphDatabaseSettings.read_only );
+        if ( !config.get( GraphDatabaseInternalSettings.degrees_store_enabled ) )
+        {
+            // A degrees store left behind from when it was enabled would not have seen the transactions applied since, so it is removed
+            // to be rebuilt from scratch if the store is enabled again
+            if ( !readOnly )
+            {
+                fs.deleteFile( layout.degreesStore().toFile() );
+            }
+            return null;
+        }
+        try
+        {
+            return new GBPTreeDegreesStore( pageCache, layout.degreesStore().toFile(), fs, recoveryCleanupWorkCollector, new DegreesComputer( neoStores )
+            {
+                private final Log log = logProvider.getLog( MetaDataStore.class );
+
+                @Override
+                public void initialize( GBPTreeDegreesStore.DegreeUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+                {
+                    log.warn( "Missing degrees store, rebuilding it." );
+                    super.initialize( updater, cursorTracer, memoryTracker );
+                    log.warn( "Degrees store rebuild completed." );
+                }
+            }, readOnly, pageCacheTracer, GBPTreeDegreesStore.NO_MONITOR );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
     @Override
     public RecordStorageReader newReader()
     {
-        return new RecordStorageReader( tokenHolders, neoStores, countsStore, schemaCache );
+        return new RecordStorageReader( tokenHolders, neoStores, countsStore, degreesStore, schemaCache, hotEntityCache );
+    }
+
+    /**
+     * @return the cache of frequently read nodes, for its hit and miss counts, or {@code null} if
+     * {@link GraphDatabaseInternalSettings#hot_entity_cache_max_memory} is {@code 0}.
+     */
+    public HotEntityCache hotEntityCache()
+    {
+        return hotEntityCache;
     }
 
     @Override
     public RecordStorageCommandCreationContext newCommandCreationContext( PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
-        return new RecordStorageCommandCreationContext( neoStores, denseNodeThreshold, cursorTracer, memoryTracker );
+        return new RecordStorageCommandCreationContext( neoStores, denseNodeThreshold, idReservationSize, cursorTracer, memoryTracker );
     }
 
     @Override
@@ -345,13 +427,29 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 
     @Override
     public void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
+    {
+        apply( batch, mode, ApplyStageTracer.NULL );
+    }
+
+    /**
+     * Applies the records of each transaction in the batch, one transaction after the other, on the calling thread. Schema index updates
+     * are extracted as part of that, since extracting them reads the store as it looks right after each transaction.
+     * <p>
+     * With {@link GraphDatabaseInternalSettings#parallel_transaction_apply} enabled, the counts store changes of the whole batch are applied
+     * on the apply executor while the records are applied, and the label and relationship type index updates are flushed on it concurrently
+     * with the schema index updates. Either way this method returns when everything has been applied.
+     */
+    @Override
+    public void apply( CommandsToApply batch, TransactionApplicationMode mode, ApplyStageTracer stageTracer ) throws Exception
     {
         TransactionApplierFactoryChain batchApplier = applierChain( mode );
         CommandsToApply initialBatch = batch;
+        Future<Long> countsApply = applyExecutor != null && mode.needsAuxiliaryStores() ? applyExecutor.submit( () -> applyCounts( initialBatch ) ) : null;
         try ( BatchContext context = new BatchContext( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
                 neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, initialBatch.cursorTracer(), otherMemoryTracker,
-                batchApplier.getIdUpdateListenerSupplier().get() ) )
+                batchApplier.getIdUpdateListenerSupplier().get(), applyExecutor, cacheTracer, stageTracer ) )
         {
+            long startTime = System.nanoTime();
             while ( batch != null )
             {
                 try ( TransactionApplier txApplier = batchApplier.startTx( batch, context ) )
@@ -360,14 +458,85 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 }
                 batch = batch.next();
             }
+            stageTracer.stageApplied( RECORDS_STAGE, System.nanoTime() - startTime );
         }
         catch ( Throwable cause )
         {
             TransactionApplyKernelException kernelException = new TransactionApplyKernelException(
                     cause, "Failed to apply transaction: %s", batch == null ? initialBatch : batch );
+            if ( countsApply != null )
+            {
+                try
+                {
+                    awaitCounts( countsApply );
+                }
+                catch ( Throwable countsFailure )
+                {
+                    kernelException.addSuppressed( countsFailure );
+                }
+            }
             databaseHealth.panic( kernelException );
             throw kernelException;
         }
+
+        if ( countsApply != null )
+        {
+            try
+            {
+                stageTracer.stageApplied( COUNTS_STAGE, awaitCounts( countsApply ) );
+            }
+            catch ( Throwable cause )
+            {
+                TransactionApplyKernelException kernelException = new TransactionApplyKernelException(
+                        cause, "Failed to apply counts of transaction: %s", initialBatch );
+                databaseHealth.panic( kernelException );
+                throw kernelException;
+            }
+        }
+    }
+
+    private long applyCounts( CommandsToApply batch ) throws Exception
+    {
+        // Runs on the apply executor, so it can't use the page cursor tracer of the committing transaction
+        try ( PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( COUNTS_APPLY_TAG ) )
+        {
+            long startTime = System.nanoTime();
+            while ( batch != null )
+            {
+                try ( TransactionApplier countsApplier = new CountsStoreTransactionApplier( countsStore.apply( batch.transactionId(), cursorTracer ) ) )
+                {
+                    batch.accept( countsApplier );
+                }
+                batch = batch.next();
+            }
+            return System.nanoTime() - startTime;
+        }
+    }
+
+    private static long awaitCounts( Future<Long> countsApply ) throws Throwable
+    {
+        try
+        {
+            return countsApply.get();
+        }
+        catch ( ExecutionException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public boolean collectChangedKeys( CommandStream commands, MutableLongSet changedKeys ) throws IOException
+    {
+        ChangedRecordKeysCollector collector = new ChangedRecordKeysCollector( changedKeys );
+        for ( StorageCommand command : commands )
+        {
+            if ( !collector.collect( command ) )
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -388,6 +557,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void init()
     {
+        if ( parallelApply )
+        {
+            applyExecutor = jobScheduler.executor( Group.STORAGE_APPLY );
+        }
         buildApplierChains();
     }
 
@@ -398,6 +571,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         {
             neoStores.start( cursor );
             countsStore.start( cursor, otherMemoryTracker );
+            if ( degreesStore != null )
+            {
+                degreesStore.start( cursor, otherMemoryTracker );
+            }
             idController.start();
         }
     }
@@ -420,13 +597,31 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void shutdown() throws Exception
     {
-        executeAll( countsStore::close, neoStores::close );
+        executeAll( this::shutdownApplyExecutor, countsStore::close, this::closeDegreesStore, neoStores::close );
+    }
+
+    private void shutdownApplyExecutor()
+    {
+        // The threads are owned by the job scheduler, only stop handing out work to them
+        applyExecutor = null;
+    }
+
+    private void closeDegreesStore()
+    {
+        if ( degreesStore != null )
+        {
+            degreesStore.close();
+        }
     }
 
     @Override
     public void flushAndForce( IOLimiter limiter, PageCursorTracer cursorTracer ) throws IOException
     {
         countsStore.checkpoint( limiter, cursorTracer );
+        if ( degreesStore != null )
+        {
+            degreesStore.checkpoint( limiter, cursorTracer );
+        }
         neoStores.flush( limiter, cursorTracer );
     }
 
@@ -456,6 +651,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         List<StoreFileMetadata> files = new ArrayList<>();
         files.add( new StoreFileMetadata( databaseLayout.countStore(), RecordFormat.NO_RECORD_SIZE ) );
+        if ( degreesStore != null )
+        {
+            files.add( new StoreFileMetadata( databaseLayout.degreesStore(), RecordFormat.NO_RECORD_SIZE ) );
+        }
         for ( StoreType type : StoreType.values() )
         {
             final RecordStore<AbstractBaseRecord> recordStore = neoStores.getRecordStore( type );
@@ -513,6 +712,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         return countsStore;
     }
 
+    /**
+     * @return the store of node degrees, or {@code null} if {@link GraphDatabaseInternalSettings#degrees_store_enabled} is disabled.
+     */
+    public GBPTreeDegreesStore degreesStore()
+    {
+        return degreesStore;
+    }
+
     @Override
     public MetadataProvider metadataProvider()
     {
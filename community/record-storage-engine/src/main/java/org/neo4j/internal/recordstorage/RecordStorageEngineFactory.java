@@ -125,11 +125,11 @@ public class RecordStorageEngineFactory implements StorageEngineFactory
     public StorageEngine instantiate( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, PageCache pageCache, TokenHolders tokenHolders,
             SchemaState schemaState, ConstraintRuleAccessor constraintSemantics, IndexConfigCompleter indexConfigCompleter, LockService lockService,
             IdGeneratorFactory idGeneratorFactory, IdController idController, DatabaseHealth databaseHealth, LogProvider logProvider,
-            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, PageCacheTracer cacheTracer, boolean createStoreIfNotExists,
+            JobScheduler jobScheduler, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, PageCacheTracer cacheTracer, boolean createStoreIfNotExists,
             MemoryTracker memoryTracker )
     {
         return new RecordStorageEngine( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics,
-                indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory, idController, recoveryCleanupWorkCollector, cacheTracer,
+                indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory, idController, jobScheduler, recoveryCleanupWorkCollector, cacheTracer,
                 createStoreIfNotExists, memoryTracker );
     }
 
@@ -225,8 +225,9 @@ public class RecordStorageEngineFactory implements StorageEngineFactory
         }
 
         Set<Path> storeFiles = databaseLayout.storeFiles();
-        // count store, index statistics and label scan store are not mandatory stores to have since they can be automatically rebuilt
+        // count store, degrees store, index statistics and label scan store are not mandatory stores to have since they can be automatically rebuilt
         storeFiles.remove( databaseLayout.countStore() );
+        storeFiles.remove( databaseLayout.degreesStore() );
         storeFiles.remove( databaseLayout.indexStatisticsStore() );
         storeFiles.remove( databaseLayout.labelScanStore() );
         storeFiles.remove( databaseLayout.relationshipTypeScanStore() );
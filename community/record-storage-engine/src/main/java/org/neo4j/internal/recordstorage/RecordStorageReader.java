@@ -28,6 +28,7 @@ import org.neo4j.collection.PrimitiveLongCollections;
 import org.neo4j.common.EntityType;
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.counts.CountsAccessor;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
 import org.neo4j.internal.schema.ConstraintDescriptor;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
@@ -62,11 +63,14 @@ public class RecordStorageReader implements StorageReader
     private final RelationshipGroupStore relationshipGroupStore;
     private final PropertyStore propertyStore;
     private final CountsAccessor counts;
+    private final GBPTreeDegreesStore degreesStore;
     private final SchemaCache schemaCache;
+    private final HotEntityCache hotEntityCache;
 
     private boolean closed;
 
-    RecordStorageReader( TokenHolders tokenHolders, NeoStores neoStores, CountsAccessor counts, SchemaCache schemaCache )
+    RecordStorageReader( TokenHolders tokenHolders, NeoStores neoStores, CountsAccessor counts, GBPTreeDegreesStore degreesStore, SchemaCache schemaCache,
+            HotEntityCache hotEntityCache )
     {
         this.tokenHolders = tokenHolders;
         this.nodeStore = neoStores.getNodeStore();
@@ -74,7 +78,9 @@ public class RecordStorageReader implements StorageReader
         this.relationshipGroupStore = neoStores.getRelationshipGroupStore();
         this.propertyStore = neoStores.getPropertyStore();
         this.counts = counts;
+        this.degreesStore = degreesStore;
         this.schemaCache = schemaCache;
+        this.hotEntityCache = hotEntityCache;
     }
 
     /**
@@ -83,7 +89,7 @@ public class RecordStorageReader implements StorageReader
      */
     public RecordStorageReader( NeoStores stores )
     {
-        this( null, stores, null, null );
+        this( null, stores, null, null, null, null );
     }
 
     @Override
@@ -314,7 +320,7 @@ public class RecordStorageReader implements StorageReader
     @Override
     public RecordNodeCursor allocateNodeCursor( PageCursorTracer cursorTracer )
     {
-        return new RecordNodeCursor( nodeStore, relationshipStore, relationshipGroupStore, cursorTracer );
+        return new RecordNodeCursor( nodeStore, relationshipStore, relationshipGroupStore, hotEntityCache, degreesStore, cursorTracer );
     }
 
     @Override
@@ -344,6 +350,6 @@ public class RecordStorageReader implements StorageReader
     @Override
     public StoragePropertyCursor allocatePropertyCursor( PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
-        return new RecordPropertyCursor( propertyStore, cursorTracer, memoryTracker );
+        return new RecordPropertyCursor( propertyStore, hotEntityCache, cursorTracer, memoryTracker );
     }
 }
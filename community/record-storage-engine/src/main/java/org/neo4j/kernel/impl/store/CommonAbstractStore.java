@@ -66,6 +66,7 @@ import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
@@ -330,6 +331,14 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         return pagedFile.getLastPageId();
     }
 
+    /**
+     * @return size of the pages the store file is mapped with, i.e. the distance in bytes between the start of two consecutive pages.
+     */
+    public int getFilePageSize()
+    {
+        return filePageSize;
+    }
+
     /**
      * Read raw record data. Should <strong>ONLY</strong> be used in tests or tools.
      */
@@ -421,6 +430,19 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         return openPageCursorForReading( 0, PF_READ_AHEAD, cursorTracer );
     }
 
+    /**
+     * DANGER: make sure to always close this cursor.
+     *
+     * Opens a {@link PageCursor} to this store for scanning records. The opened cursor will make use of the
+     * {@link PagedFile#PF_TRANSIENT} flag, so the pages it faults in are evicted again once the scan has moved past them,
+     * unless someone else used them in the mean time.
+     */
+    @Override
+    public PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer )
+    {
+        return openPageCursorForReading( id, PF_TRANSIENT, cursorTracer );
+    }
+
     /**
      * DANGER: make sure to always close this cursor.
      */
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.neo4j.internal.counts.DegreesBuilder;
+import org.neo4j.internal.counts.GBPTreeDegreesStore;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.memory.MemoryTracker;
+
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Builds a degrees store from scratch by scanning the relationship store once, adding every relationship in use to the degrees of its nodes.
+ */
+public class DegreesComputer implements DegreesBuilder
+{
+    private final RelationshipStore relationships;
+    private final long lastCommittedTransactionId;
+
+    public DegreesComputer( NeoStores stores )
+    {
+        this( stores.getRelationshipStore(), stores.getMetaDataStore().getLastCommittedTransactionId() );
+    }
+
+    public DegreesComputer( RelationshipStore relationships, long lastCommittedTransactionId )
+    {
+        this.relationships = relationships;
+        this.lastCommittedTransactionId = lastCommittedTransactionId;
+    }
+
+    @Override
+    public void initialize( GBPTreeDegreesStore.DegreeUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+    {
+        long highId = relationships.getHighId();
+        RelationshipRecord record = relationships.newRecord();
+        try ( PageCursor cursor = relationships.openPageCursorForReadingWithPrefetching( 0, cursorTracer ) )
+        {
+            for ( long id = relationships.getNumberOfReservedLowIds(); id < highId; id++ )
+            {
+                relationships.getRecordByCursor( id, record, CHECK, cursor );
+                if ( record.inUse() )
+                {
+                    updater.incrementRelationship( record.getFirstNode(), record.getType(), record.getSecondNode(), 1 );
+                }
+            }
+        }
+    }
+
+    @Override
+    public long lastCommittedTxId()
+    {
+        return lastCommittedTransactionId;
+    }
+}
@@ -700,6 +700,17 @@ public enum LongerShortString
      * E-  à  á  â  ã  ä  å  æ  ç    è  é  ê  ë  ì  í  î  ï
      * F-  ð  ñ  ò  ó  ô  õ  ö       ø  ù  ú  û  ü  ý  þ  ÿ
      */
+    /**
+     * A char is at most three bytes in UTF-8, so a string with more UTF-8 bytes than this will not be handled by any encoding
+     * in {@link #encode(int, String, PropertyBlock, int)} and can be stored as the UTF-8 bytes it already is, without decoding it first.
+     *
+     * @return the maximum number of UTF-8 bytes of a string that may be encoded as a short string.
+     */
+    public static int maxUTF8Length( int payloadSize )
+    {
+        return Math.min( NUMERICAL.maxLength( payloadSize ), 63 ) * 3;
+    }
+
     public static boolean encode( int keyId, String string,
                                   PropertyBlock target, int payloadSize )
     {
@@ -25,6 +25,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -475,7 +476,24 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             }
 
             // Fall back to dynamic string store
-            byte[] encodedString = encodeString( value );
+            writeDynamicString( encodeString( value ) );
+        }
+
+        @Override
+        public void writeUTF8( byte[] bytes, int offset, int length ) throws IllegalArgumentException
+        {
+            if ( length <= LongerShortString.maxUTF8Length( PropertyType.getPayloadSize() ) )
+            {
+                super.writeUTF8( bytes, offset, length );
+                return;
+            }
+
+            // Too long to be a short string, so store the bytes as they are without decoding them first
+            writeDynamicString( offset == 0 && length == bytes.length ? bytes : Arrays.copyOfRange( bytes, offset, offset + length ) );
+        }
+
+        private void writeDynamicString( byte[] encodedString )
+        {
             List<DynamicRecord> valueRecords = HeapTrackingCollections.newArrayList( memoryTracker );
             allocateStringRecords( valueRecords, encodedString, stringAllocator, cursorTracer, memoryTracker );
             setSingleBlockValue( block, keyId, PropertyType.STRING, Iterables.first( valueRecords ).getId() );
@@ -145,6 +145,19 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     PageCursor openPageCursorForReadingWithPrefetching( long id, PageCursorTracer cursorTracer );
 
+    /**
+     * Opens a {@link PageCursor} on this store, capable of reading records using
+     * {@link #getRecordByCursor(long, AbstractBaseRecord, RecordLoad, PageCursor)}.
+     * The caller is responsible for closing it when done with it.
+     * The opened cursor is meant for scanning, and treats the pages it reads as used once, so that a scan does not
+     * push frequently used pages out of the page cache.
+     *
+     * @param id cursor will initially be placed at the page containing this record id.
+     * @param cursorTracer underlying page cursor tracer.
+     * @return PageCursor for reading records.
+     */
+    PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer );
+
     /**
      * Reads a record from the store into {@code target}, see
      * {@link RecordStore#getRecord(long, AbstractBaseRecord, RecordLoad, PageCursorTracer)}.
@@ -363,6 +376,12 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.openPageCursorForReadingWithPrefetching( id, cursorTracer );
         }
 
+        @Override
+        public PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer )
+        {
+            return actual.openPageCursorForScanning( id, cursorTracer );
+        }
+
         @Override
         public void getRecordByCursor( long id, R target, RecordLoad mode, PageCursor cursor ) throws InvalidRecordException
         {
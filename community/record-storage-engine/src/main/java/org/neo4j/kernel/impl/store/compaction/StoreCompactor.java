@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.internal.batchimport.cache.LongArray;
+import org.neo4j.internal.batchimport.cache.NumberArrayFactory;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.SchemaStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.store.record.SchemaRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.impl.store.IdUpdateListener.IGNORE;
+import static org.neo4j.kernel.impl.store.StoreType.META_DATA;
+import static org.neo4j.kernel.impl.store.StoreType.PROPERTY;
+import static org.neo4j.kernel.impl.store.StoreType.PROPERTY_ARRAY;
+import static org.neo4j.kernel.impl.store.StoreType.PROPERTY_STRING;
+import static org.neo4j.kernel.impl.store.StoreType.RELATIONSHIP_GROUP;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+/**
+ * Offline compaction of the record stores of a database which isn't running.
+ * <p>
+ * Compaction happens in two phases:
+ * <ol>
+ *     <li>Relocation: {@link RelationshipGroupRecord relationship groups} and {@link PropertyRecord property records} are copied,
+ *     in node order, into a temporary store so that each node's property chain, its groups and the property chains of the relationships
+ *     it starts are stored contiguously and without holes. The owning nodes, relationships and schema records are then pointed at
+ *     the new locations and the temporary stores replace the real ones.</li>
+ *     <li>Truncation: all id files are rebuilt from the store contents and store files are truncated right after their highest
+ *     record in use, giving back the space left behind by deletions at the end of the stores.</li>
+ * </ol>
+ * Node and relationship records are never relocated since their ids are visible to users and referenced from indexes.
+ * The store is expected to be consistent and cleanly shut down, compaction cannot be resumed if it gets interrupted
+ * so the database should be backed up before running it.
+ */
+public class StoreCompactor
+{
+    static final String TEMP_STORE_NAME = "compaction";
+    private static final String STORE_COMPACTION_TAG = "storeCompaction";
+    private static final StoreType[] RELOCATED_STORE_TYPES = {RELATIONSHIP_GROUP, PROPERTY};
+    private static final StoreType[] TEMP_STORE_TYPES = {RELATIONSHIP_GROUP, PROPERTY, PROPERTY_ARRAY, PROPERTY_STRING};
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final DatabaseLayout databaseLayout;
+    private final DatabaseLayout temporaryDatabaseLayout;
+    private final Config config;
+    private final NumberArrayFactory numberArrayFactory;
+    private final PageCacheTracer pageCacheTracer;
+    private final MemoryTracker memoryTracker;
+    private final Monitor monitor;
+
+    public interface Monitor
+    {
+        /**
+         * Called when all records of a store have been relocated.
+         *
+         * @param type type of store which got relocated.
+         * @param records number of records in use that were relocated.
+         * @param highIdBefore high id of the store before relocation.
+         */
+        default void relocated( StoreType type, long records, long highIdBefore )
+        {   // empty
+        }
+
+        /**
+         * Called when a store file got truncated after its highest record in use.
+         *
+         * @param file the store file.
+         * @param sizeBefore size of the file, in bytes, before truncation.
+         * @param sizeAfter size of the file, in bytes, after truncation.
+         */
+        default void truncated( Path file, long sizeBefore, long sizeAfter )
+        {   // empty
+        }
+
+        Monitor EMPTY = new Monitor()
+        {   // empty
+        };
+    }
+
+    public StoreCompactor( FileSystemAbstraction fs, PageCache pageCache, DatabaseLayout databaseLayout, Config config,
+            NumberArrayFactory numberArrayFactory, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker, Monitor monitor )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.databaseLayout = databaseLayout;
+        this.temporaryDatabaseLayout = DatabaseLayout.ofFlat( databaseLayout.file( TEMP_STORE_NAME ) );
+        this.config = config;
+        this.numberArrayFactory = numberArrayFactory;
+        this.pageCacheTracer = pageCacheTracer;
+        this.memoryTracker = memoryTracker;
+        this.monitor = monitor;
+    }
+
+    public void run() throws IOException
+    {
+        relocate();
+        truncate();
+    }
+
+    private void relocate() throws IOException
+    {
+        fs.deleteRecursively( temporaryDatabaseLayout.databaseDirectory().toFile() );
+        Relocation relocation;
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( STORE_COMPACTION_TAG );
+              NeoStores neoStores = newStoreFactory( databaseLayout, config ).openAllNeoStores() )
+        {
+            RecordFormats recordFormats = neoStores.getRecordFormats();
+            if ( recordFormats.hasCapability( RecordStorageCapability.SECONDARY_RECORD_UNITS ) )
+            {
+                // Records spanning multiple units can't be copied unit by unit, leave them where they are and only truncate
+                return;
+            }
+
+            // The temporary relationship group store is going to replace the real one so it must carry the same header
+            Config temporaryConfig = Config.newBuilder().fromConfig( config )
+                    .set( GraphDatabaseSettings.dense_node_threshold, neoStores.getRelationshipGroupStore().getStoreHeaderInt() ).build();
+            try ( NeoStores temporaryNeoStores = newStoreFactory( temporaryDatabaseLayout, temporaryConfig ).openNeoStores( true, TEMP_STORE_TYPES );
+                  Relocation nodeOrderRelocation = new Relocation( neoStores, temporaryNeoStores, cursorTracer ) )
+            {
+                relocation = nodeOrderRelocation;
+                relocation.copyInNodeOrder();
+                temporaryNeoStores.flush( IOLimiter.UNLIMITED, cursorTracer );
+                relocation.updateOwners();
+                neoStores.flush( IOLimiter.UNLIMITED, cursorTracer );
+            }
+        }
+
+        for ( StoreType type : RELOCATED_STORE_TYPES )
+        {
+            File from = temporaryDatabaseLayout.file( type.getDatabaseFile() ).toFile();
+            File to = databaseLayout.file( type.getDatabaseFile() ).toFile();
+            fs.renameFile( from, to, REPLACE_EXISTING );
+        }
+        fs.deleteRecursively( temporaryDatabaseLayout.databaseDirectory().toFile() );
+        monitor.relocated( RELATIONSHIP_GROUP, relocation.groupCount, relocation.groupHighIdBefore );
+        monitor.relocated( PROPERTY, relocation.propertyCount, relocation.propertyHighIdBefore );
+    }
+
+    private void truncate() throws IOException
+    {
+        // Missing id files are rebuilt from a scan of the store when started, which also gives us the high id of every store
+        for ( StoreType type : StoreType.values() )
+        {
+            if ( type != META_DATA )
+            {
+                databaseLayout.idFile( type.getDatabaseFile() ).ifPresent( idFile -> fs.deleteFile( idFile.toFile() ) );
+            }
+        }
+
+        long[] truncatedSizes = new long[StoreType.values().length];
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( STORE_COMPACTION_TAG );
+              NeoStores neoStores = newStoreFactory( databaseLayout, config ).openAllNeoStores() )
+        {
+            neoStores.start( cursorTracer );
+            for ( StoreType type : StoreType.values() )
+            {
+                if ( type != META_DATA )
+                {
+                    CommonAbstractStore<?,?> store = (CommonAbstractStore<?,?>) neoStores.getRecordStore( type );
+                    long pages = (store.getHighId() + store.getRecordsPerPage() - 1) / store.getRecordsPerPage();
+                    truncatedSizes[type.ordinal()] = pages * store.getFilePageSize();
+                }
+            }
+            neoStores.flush( IOLimiter.UNLIMITED, cursorTracer );
+        }
+
+        for ( StoreType type : StoreType.values() )
+        {
+            if ( type != META_DATA )
+            {
+                File file = databaseLayout.file( type.getDatabaseFile() ).toFile();
+                long sizeBefore = fs.getFileSize( file );
+                long sizeAfter = truncatedSizes[type.ordinal()];
+                if ( sizeAfter < sizeBefore )
+                {
+                    fs.truncate( file, sizeAfter );
+                    monitor.truncated( file.toPath(), sizeBefore, sizeAfter );
+                }
+            }
+        }
+    }
+
+    private StoreFactory newStoreFactory( DatabaseLayout layout, Config config )
+    {
+        return new StoreFactory( layout, config, new DefaultIdGeneratorFactory( fs, immediate() ), pageCache, fs,
+                NullLogProvider.getInstance(), pageCacheTracer );
+    }
+
+    /**
+     * Copies groups and property records of the real stores into the temporary stores, keeping track of the new first group
+     * and property record of each owner, and then updates the owners in a separate pass. This way the real stores are left
+     * untouched if any inconsistency is found while following the chains.
+     */
+    private class Relocation implements AutoCloseable
+    {
+        private final PageCursorTracer cursorTracer;
+        private final NodeStore nodeStore;
+        private final RelationshipStore relationshipStore;
+        private final RelationshipGroupStore groupStore;
+        private final PropertyStore propertyStore;
+        private final SchemaStore schemaStore;
+        private final RecordStore<RelationshipGroupRecord> toGroupStore;
+        private final RecordStore<PropertyRecord> toPropertyStore;
+        private final PageCursor relationshipCursor;
+        private final PageCursor groupCursor;
+        private final PageCursor propertyCursor;
+        private final RelationshipRecord relationship;
+        private final RelationshipGroupRecord group;
+        private final PropertyRecord property;
+        private final long groupHighIdBefore;
+        private final long propertyHighIdBefore;
+        private final LongArray nodeFirstProperty;
+        private final LongArray nodeFirstGroup;
+        private final LongArray relationshipFirstProperty;
+        private final MutableLongLongMap schemaFirstProperty = new LongLongHashMap();
+        private long nextGroupId;
+        private long nextPropertyId;
+        private long groupCount;
+        private long propertyCount;
+
+        Relocation( NeoStores neoStores, NeoStores temporaryNeoStores, PageCursorTracer cursorTracer )
+        {
+            this.cursorTracer = cursorTracer;
+            this.nodeStore = neoStores.getNodeStore();
+            this.relationshipStore = neoStores.getRelationshipStore();
+            this.groupStore = neoStores.getRelationshipGroupStore();
+            this.propertyStore = neoStores.getPropertyStore();
+            this.schemaStore = neoStores.getSchemaStore();
+            this.toGroupStore = temporaryNeoStores.getRelationshipGroupStore();
+            this.toPropertyStore = temporaryNeoStores.getPropertyStore();
+            this.relationshipCursor = relationshipStore.openPageCursorForReading( 0, cursorTracer );
+            this.groupCursor = groupStore.openPageCursorForReading( 0, cursorTracer );
+            this.propertyCursor = propertyStore.openPageCursorForReading( 0, cursorTracer );
+            this.relationship = relationshipStore.newRecord();
+            this.group = groupStore.newRecord();
+            this.property = propertyStore.newRecord();
+            this.groupHighIdBefore = groupStore.getHighId();
+            this.propertyHighIdBefore = propertyStore.getHighId();
+            this.nodeFirstProperty = numberArrayFactory.newLongArray( nodeStore.getHighId(), NULL_REFERENCE.longValue(), memoryTracker );
+            this.nodeFirstGroup = numberArrayFactory.newLongArray( nodeStore.getHighId(), NULL_REFERENCE.longValue(), memoryTracker );
+            this.relationshipFirstProperty = numberArrayFactory.newLongArray( relationshipStore.getHighId(), NULL_REFERENCE.longValue(), memoryTracker );
+            this.nextGroupId = toGroupStore.getNumberOfReservedLowIds();
+            this.nextPropertyId = toPropertyStore.getNumberOfReservedLowIds();
+        }
+
+        void copyInNodeOrder()
+        {
+            NodeRecord node = nodeStore.newRecord();
+            try ( PageCursor nodeCursor = nodeStore.openPageCursorForReading( 0, cursorTracer ) )
+            {
+                long highId = nodeStore.getHighId();
+                for ( long nodeId = nodeStore.getNumberOfReservedLowIds(); nodeId < highId; nodeId++ )
+                {
+                    nodeStore.getRecordByCursor( nodeId, node, CHECK, nodeCursor );
+                    if ( !node.inUse() )
+                    {
+                        continue;
+                    }
+                    if ( !NO_NEXT_PROPERTY.is( node.getNextProp() ) )
+                    {
+                        nodeFirstProperty.set( nodeId, copyPropertyChain( node.getNextProp() ) );
+                    }
+                    if ( node.isDense() )
+                    {
+                        nodeFirstGroup.set( nodeId, copyGroupChain( nodeId, node.getNextRel() ) );
+                    }
+                    else
+                    {
+                        copyRelationshipProperties( nodeId, node.getNextRel() );
+                    }
+                }
+            }
+
+            // Relationships that couldn't be reached from their start node, if any, get their properties placed after all the nodes
+            long highId = relationshipStore.getHighId();
+            for ( long relationshipId = relationshipStore.getNumberOfReservedLowIds(); relationshipId < highId; relationshipId++ )
+            {
+                relationshipStore.getRecordByCursor( relationshipId, relationship, CHECK, relationshipCursor );
+                if ( relationship.inUse() && !NO_NEXT_PROPERTY.is( relationship.getNextProp() ) &&
+                        relationshipFirstProperty.get( relationshipId ) == NULL_REFERENCE.longValue() )
+                {
+                    relationshipFirstProperty.set( relationshipId, copyPropertyChain( relationship.getNextProp() ) );
+                }
+            }
+
+            SchemaRecord schema = schemaStore.newRecord();
+            try ( PageCursor schemaCursor = schemaStore.openPageCursorForReading( 0, cursorTracer ) )
+            {
+                long schemaHighId = schemaStore.getHighId();
+                for ( long schemaId = schemaStore.getNumberOfReservedLowIds(); schemaId < schemaHighId; schemaId++ )
+                {
+                    schemaStore.getRecordByCursor( schemaId, schema, CHECK, schemaCursor );
+                    if ( schema.inUse() && !NO_NEXT_PROPERTY.is( schema.getNextProp() ) )
+                    {
+                        schemaFirstProperty.put( schemaId, copyPropertyChain( schema.getNextProp() ) );
+                    }
+                }
+            }
+        }
+
+        void updateOwners()
+        {
+            NodeRecord node = nodeStore.newRecord();
+            try ( PageCursor nodeCursor = nodeStore.openPageCursorForReading( 0, cursorTracer ) )
+            {
+                long highId = nodeStore.getHighId();
+                for ( long nodeId = nodeStore.getNumberOfReservedLowIds(); nodeId < highId; nodeId++ )
+                {
+                    long firstProperty = nodeFirstProperty.get( nodeId );
+                    long firstGroup = nodeFirstGroup.get( nodeId );
+                    if ( firstProperty != NULL_REFERENCE.longValue() || firstGroup != NULL_REFERENCE.longValue() )
+                    {
+                        nodeStore.getRecordByCursor( nodeId, node, NORMAL, nodeCursor );
+                        if ( firstProperty != NULL_REFERENCE.longValue() )
+                        {
+                            node.setNextProp( firstProperty );
+                        }
+                        if ( firstGroup != NULL_REFERENCE.longValue() )
+                        {
+                            node.setNextRel( firstGroup );
+                        }
+                        nodeStore.updateRecord( node, IGNORE, cursorTracer );
+                    }
+                }
+            }
+
+            long highId = relationshipStore.getHighId();
+            for ( long relationshipId = relationshipStore.getNumberOfReservedLowIds(); relationshipId < highId; relationshipId++ )
+            {
+                long firstProperty = relationshipFirstProperty.get( relationshipId );
+                if ( firstProperty != NULL_REFERENCE.longValue() )
+                {
+                    relationshipStore.getRecordByCursor( relationshipId, relationship, NORMAL, relationshipCursor );
+                    relationship.setNextProp( firstProperty );
+                    relationshipStore.updateRecord( relationship, IGNORE, cursorTracer );
+                }
+            }
+
+            SchemaRecord schema = schemaStore.newRecord();
+            schemaFirstProperty.forEachKeyValue( ( schemaId, firstProperty ) ->
+            {
+                schemaStore.getRecord( schemaId, schema, NORMAL, cursorTracer );
+                schema.setNextProp( firstProperty );
+                schemaStore.updateRecord( schema, IGNORE, cursorTracer );
+            } );
+        }
+
+        /**
+         * Copies the groups of a dense node, and the property chains of the relationships it starts, into the temporary store.
+         * The groups keep their order in the chain, i.e. ascending by type, and end up sequential in the new store.
+         *
+         * @return the new id of the first group in the chain.
+         */
+        private long copyGroupChain( long nodeId, long firstGroupId )
+        {
+            long firstNewId = nextGroupId;
+            long groupId = firstGroupId;
+            while ( !NO_NEXT_RELATIONSHIP.is( groupId ) )
+            {
+                groupStore.getRecordByCursor( groupId, group, NORMAL, groupCursor );
+                assertNotCyclic( nextGroupId - firstNewId, groupHighIdBefore, "Relationship group chain", nodeId );
+                long next = group.getNext();
+                long newId = nextGroupId++;
+                group.setId( newId );
+                group.setNext( NO_NEXT_RELATIONSHIP.is( next ) ? NO_NEXT_RELATIONSHIP.longValue() : newId + 1 );
+                toGroupStore.updateRecord( group, IGNORE, cursorTracer );
+                groupCount++;
+
+                // Reading the relationship chains uses other records than the group, so this is safe while iterating the group chain
+                long firstOut = group.getFirstOut();
+                long firstIn = group.getFirstIn();
+                long firstLoop = group.getFirstLoop();
+                copyRelationshipProperties( nodeId, firstOut );
+                copyRelationshipProperties( nodeId, firstIn );
+                copyRelationshipProperties( nodeId, firstLoop );
+                groupId = next;
+            }
+            return firstNewId;
+        }
+
+        /**
+         * Copies the property chains of the relationships in a relationship chain of the given node, that the node is the start node of.
+         */
+        private void copyRelationshipProperties( long nodeId, long firstRelationshipId )
+        {
+            long relationshipId = firstRelationshipId;
+            long steps = 0;
+            while ( !NO_NEXT_RELATIONSHIP.is( relationshipId ) )
+            {
+                assertNotCyclic( steps++, relationshipStore.getHighId(), "Relationship chain", nodeId );
+                relationshipStore.getRecordByCursor( relationshipId, relationship, NORMAL, relationshipCursor );
+                boolean startNode = relationship.getFirstNode() == nodeId;
+                long next = startNode ? relationship.getFirstNextRel() : relationship.getSecondNextRel();
+                if ( startNode && !NO_NEXT_PROPERTY.is( relationship.getNextProp() ) &&
+                        relationshipFirstProperty.get( relationshipId ) == NULL_REFERENCE.longValue() )
+                {
+                    relationshipFirstProperty.set( relationshipId, copyPropertyChain( relationship.getNextProp() ) );
+                }
+                relationshipId = next;
+            }
+        }
+
+        /**
+         * Copies a property chain into the temporary store where its records will be sequential.
+         *
+         * @return the new id of the first property record in the chain.
+         */
+        private long copyPropertyChain( long firstPropertyId )
+        {
+            long firstNewId = nextPropertyId;
+            long propertyId = firstPropertyId;
+            while ( !NO_NEXT_PROPERTY.is( propertyId ) )
+            {
+                assertNotCyclic( nextPropertyId - firstNewId, propertyHighIdBefore, "Property chain", firstPropertyId );
+                propertyStore.getRecordByCursor( propertyId, property, NORMAL, propertyCursor );
+                long next = property.getNextProp();
+                long newId = nextPropertyId++;
+                property.setId( newId );
+                property.setPrevProp( newId == firstNewId ? NO_NEXT_PROPERTY.longValue() : newId - 1 );
+                property.setNextProp( NO_NEXT_PROPERTY.is( next ) ? NO_NEXT_PROPERTY.longValue() : newId + 1 );
+                toPropertyStore.updateRecord( property, IGNORE, cursorTracer );
+                propertyCount++;
+                propertyId = next;
+            }
+            return firstNewId;
+        }
+
+        private void assertNotCyclic( long length, long highId, String chain, long owner )
+        {
+            if ( length > highId )
+            {
+                throw new IllegalStateException( format( "%s of %d is longer than the number of records in the store, it must contain a cycle",
+                        chain, owner ) );
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            relationshipCursor.close();
+            groupCursor.close();
+            propertyCursor.close();
+            nodeFirstProperty.close();
+            nodeFirstGroup.close();
+            relationshipFirstProperty.close();
+        }
+    }
+}
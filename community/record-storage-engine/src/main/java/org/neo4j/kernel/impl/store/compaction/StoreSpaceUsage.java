@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+
+import static org.neo4j.kernel.impl.store.StoreType.META_DATA;
+
+/**
+ * Measures how well the space of each record store is used, i.e. how many of the records in the store file are in use
+ * and, for the {@link StoreType#PROPERTY property store}, how much of the fixed size payload of the records in use is
+ * actually occupied by property blocks. Serves as the basis for comparing record formats for a given data set, and for deciding
+ * whether a store would benefit from {@link StoreCompactor compaction}.
+ */
+public final class StoreSpaceUsage
+{
+    private StoreSpaceUsage()
+    {
+    }
+
+    public static List<Usage> measure( NeoStores neoStores, FileSystemAbstraction fs, PageCursorTracer cursorTracer )
+    {
+        List<Usage> usages = new ArrayList<>();
+        for ( StoreType type : StoreType.values() )
+        {
+            if ( type == META_DATA )
+            {
+                continue;
+            }
+            RecordStore<AbstractBaseRecord> store = neoStores.getRecordStore( type );
+            long[] counts = new long[2];
+            store.scanAllRecords( record ->
+            {
+                counts[0]++;
+                if ( record instanceof PropertyRecord )
+                {
+                    counts[1] += ((PropertyRecord) record).size();
+                }
+                return false;
+            }, cursorTracer );
+            long payloadBytes = type == StoreType.PROPERTY ? counts[1] : Usage.NO_PAYLOAD;
+            usages.add( new Usage( type, store.getRecordSize(), store.getHighId() - store.getNumberOfReservedLowIds(), counts[0],
+                    fs.getFileSize( store.getStorageFile().toFile() ), payloadBytes ) );
+        }
+        return usages;
+    }
+
+    public static class Usage
+    {
+        static final long NO_PAYLOAD = -1;
+
+        private final StoreType type;
+        private final int recordSize;
+        private final long records;
+        private final long recordsInUse;
+        private final long fileSize;
+        private final long payloadBytesInUse;
+
+        Usage( StoreType type, int recordSize, long records, long recordsInUse, long fileSize, long payloadBytesInUse )
+        {
+            this.type = type;
+            this.recordSize = recordSize;
+            this.records = records;
+            this.recordsInUse = recordsInUse;
+            this.fileSize = fileSize;
+            this.payloadBytesInUse = payloadBytesInUse;
+        }
+
+        public StoreType type()
+        {
+            return type;
+        }
+
+        public int recordSize()
+        {
+            return recordSize;
+        }
+
+        /**
+         * @return number of records up to the high id of the store, in use or not.
+         */
+        public long records()
+        {
+            return records;
+        }
+
+        public long recordsInUse()
+        {
+            return recordsInUse;
+        }
+
+        public long fileSize()
+        {
+            return fileSize;
+        }
+
+        /**
+         * @return bytes taken by records in use, as a fraction of the store file size.
+         */
+        public double recordUtilization()
+        {
+            return fileSize == 0 ? 0 : (double) (recordsInUse * recordSize) / fileSize;
+        }
+
+        /**
+         * @return whether or not this store has records with a payload made up of blocks, where {@link #payloadUtilization()} applies.
+         */
+        public boolean hasPayload()
+        {
+            return payloadBytesInUse != NO_PAYLOAD;
+        }
+
+        /**
+         * @return bytes taken by property blocks, as a fraction of the payload capacity of the records in use.
+         */
+        public double payloadUtilization()
+        {
+            return recordsInUse == 0 ? 0 : (double) payloadBytesInUse / (recordsInUse * PropertyType.getPayloadSize());
+        }
+    }
+}
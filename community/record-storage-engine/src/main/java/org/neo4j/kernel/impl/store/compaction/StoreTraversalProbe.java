@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
+
+/**
+ * Measures the locality of the record stores by expanding a sample of nodes, i.e. reading their properties, relationships and
+ * the properties of those relationships, through a small and cold page cache and counting the page faults this causes.
+ * Used to compare a store before and after {@link StoreCompactor compaction}.
+ */
+public class StoreTraversalProbe
+{
+    private static final String STORE_TRAVERSAL_PROBE_TAG = "storeTraversalProbe";
+
+    private StoreTraversalProbe()
+    {
+    }
+
+    /**
+     * @param sampleSize number of nodes to expand, evenly spread over the node store.
+     * @return number of page faults that expanding the sampled nodes caused.
+     */
+    public static long pageFaults( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, JobScheduler jobScheduler, long sampleSize )
+    {
+        Config readOnlyConfig = Config.newBuilder().fromConfig( config ).set( GraphDatabaseSettings.read_only, true ).build();
+        var pageCacheTracer = new DefaultPageCacheTracer();
+        try ( PageCache pageCache = StandalonePageCacheFactory.createPageCache( fs, jobScheduler, pageCacheTracer );
+              NeoStores neoStores = new StoreFactory( databaseLayout, readOnlyConfig, new DefaultIdGeneratorFactory( fs, immediate() ), pageCache, fs,
+                      NullLogProvider.getInstance(), pageCacheTracer ).openAllNeoStores();
+              PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( STORE_TRAVERSAL_PROBE_TAG );
+              Traversal traversal = new Traversal( neoStores, cursorTracer ) )
+        {
+            NodeStore nodeStore = neoStores.getNodeStore();
+            long lowId = nodeStore.getNumberOfReservedLowIds();
+            long highId = nodeStore.getHighId();
+            long step = Math.max( 1, (highId - lowId) / Math.max( 1, sampleSize ) );
+            for ( long nodeId = lowId; nodeId < highId; nodeId += step )
+            {
+                traversal.expand( nodeId );
+            }
+            return cursorTracer.faults();
+        }
+    }
+
+    private static class Traversal implements AutoCloseable
+    {
+        private final NodeStore nodeStore;
+        private final RelationshipStore relationshipStore;
+        private final RelationshipGroupStore groupStore;
+        private final PropertyStore propertyStore;
+        private final PageCursor nodeCursor;
+        private final PageCursor relationshipCursor;
+        private final PageCursor groupCursor;
+        private final PageCursor propertyCursor;
+        private final NodeRecord node;
+        private final RelationshipRecord relationship;
+        private final RelationshipGroupRecord group;
+        private final PropertyRecord property;
+
+        Traversal( NeoStores neoStores, PageCursorTracer cursorTracer )
+        {
+            this.nodeStore = neoStores.getNodeStore();
+            this.relationshipStore = neoStores.getRelationshipStore();
+            this.groupStore = neoStores.getRelationshipGroupStore();
+            this.propertyStore = neoStores.getPropertyStore();
+            this.nodeCursor = nodeStore.openPageCursorForReading( 0, cursorTracer );
+            this.relationshipCursor = relationshipStore.openPageCursorForReading( 0, cursorTracer );
+            this.groupCursor = groupStore.openPageCursorForReading( 0, cursorTracer );
+            this.propertyCursor = propertyStore.openPageCursorForReading( 0, cursorTracer );
+            this.node = nodeStore.newRecord();
+            this.relationship = relationshipStore.newRecord();
+            this.group = groupStore.newRecord();
+            this.property = propertyStore.newRecord();
+        }
+
+        void expand( long nodeId )
+        {
+            nodeStore.getRecordByCursor( nodeId, node, CHECK, nodeCursor );
+            if ( !node.inUse() )
+            {
+                return;
+            }
+            readProperties( node.getNextProp() );
+            if ( node.isDense() )
+            {
+                // Bounded by the number of groups in the store, as a safety net against cycles in a broken store
+                long groupId = node.getNextRel();
+                for ( long i = 0; i < groupStore.getHighId() && !NO_NEXT_RELATIONSHIP.is( groupId ); i++ )
+                {
+                    groupStore.getRecordByCursor( groupId, group, FORCE, groupCursor );
+                    long firstOut = group.getFirstOut();
+                    long firstIn = group.getFirstIn();
+                    long firstLoop = group.getFirstLoop();
+                    groupId = group.getNext();
+                    readRelationships( nodeId, firstOut );
+                    readRelationships( nodeId, firstIn );
+                    readRelationships( nodeId, firstLoop );
+                }
+            }
+            else
+            {
+                readRelationships( nodeId, node.getNextRel() );
+            }
+        }
+
+        private void readRelationships( long nodeId, long relationshipId )
+        {
+            for ( long i = 0; i < relationshipStore.getHighId() && !NO_NEXT_RELATIONSHIP.is( relationshipId ); i++ )
+            {
+                relationshipStore.getRecordByCursor( relationshipId, relationship, FORCE, relationshipCursor );
+                relationshipId = relationship.getFirstNode() == nodeId ? relationship.getFirstNextRel() : relationship.getSecondNextRel();
+                readProperties( relationship.getNextProp() );
+            }
+        }
+
+        private void readProperties( long propertyId )
+        {
+            for ( long i = 0; i < propertyStore.getHighId() && !NO_NEXT_PROPERTY.is( propertyId ); i++ )
+            {
+                propertyStore.getRecordByCursor( propertyId, property, FORCE, propertyCursor );
+                propertyId = property.getNextProp();
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            nodeCursor.close();
+            relationshipCursor.close();
+            groupCursor.close();
+            propertyCursor.close();
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.format.aligned.PageAlignedV4_1;
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_2;
 import org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat;
 import org.neo4j.kernel.impl.store.format.standard.Standard;
 import org.neo4j.kernel.impl.store.format.standard.StandardV3_4;
@@ -69,7 +70,8 @@ public class RecordFormatSelector
     private static final List<RecordFormats> KNOWN_FORMATS = asList(
             StandardV3_4.RECORD_FORMATS,
             StandardV4_0.RECORD_FORMATS,
-            PageAlignedV4_1.RECORD_FORMATS
+            PageAlignedV4_1.RECORD_FORMATS,
+            CompactV4_2.RECORD_FORMATS
     );
 
     private RecordFormatSelector()
@@ -29,6 +29,8 @@ public enum StoreVersion
 
     ALIGNED_V4_1( "AF4.1.a", "4.1.0" ),
 
+    COMPACT_V4_2( "CF4.2.a", "4.2.0" ),
+
     HIGH_LIMIT_V3_0_0( "vE.H.0", "3.0.0" ),
     HIGH_LIMIT_V3_0_6( "vE.H.0b", "3.0.6" ),
     HIGH_LIMIT_V3_1_0( "vE.H.2", "3.1.0" ),
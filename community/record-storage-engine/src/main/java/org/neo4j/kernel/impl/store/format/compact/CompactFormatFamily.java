@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+
+/**
+ * Compact format family. It ranks below the standard family since it can hold fewer entities, so that stores can always be migrated
+ * out of it. Stores are only migrated into it when it is explicitly configured.
+ * @see FormatFamily
+ */
+public class CompactFormatFamily extends FormatFamily
+{
+    public static final FormatFamily INSTANCE = new CompactFormatFamily();
+
+    private CompactFormatFamily()
+    {
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Compact format family";
+    }
+
+    @Override
+    public int rank()
+    {
+        return -1;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.BaseOneByteHeaderRecordFormat;
+import org.neo4j.kernel.impl.store.format.BaseRecordFormat;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+
+public class CompactNodeRecordFormat extends BaseOneByteHeaderRecordFormat<NodeRecord>
+{
+    // in_use+dense(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)
+    public static final int RECORD_SIZE = 14;
+
+    private static final int DENSE_NODE_BIT = 0b0000_0010;
+
+    public CompactNodeRecordFormat()
+    {
+        super( fixedRecordSize( RECORD_SIZE ), 0, IN_USE_BIT, CompactFormatSettings.NODE_MAXIMUM_ID_BITS, true );
+    }
+
+    @Override
+    public NodeRecord newRecord()
+    {
+        return new NodeRecord( -1 );
+    }
+
+    @Override
+    public void read( NodeRecord record, PageCursor cursor, RecordLoad mode, int recordSize, int recordsPerPage )
+    {
+        byte headerByte = cursor.getByte();
+        boolean inUse = isInUse( headerByte );
+        record.setInUse( inUse );
+        if ( mode.shouldLoad( inUse ) )
+        {
+            long nextRel = cursor.getInt() & 0xFFFFFFFFL;
+            long nextProp = cursor.getInt() & 0xFFFFFFFFL;
+
+            long lsbLabels = cursor.getInt() & 0xFFFFFFFFL;
+            long hsbLabels = cursor.getByte() & 0xFF; // so that a negative byte won't fill the "extended" bits with ones.
+            long labels = lsbLabels | (hsbLabels << 32);
+
+            record.initialize( inUse,
+                    BaseRecordFormat.longFromIntAndMod( nextProp, 0 ), has( headerByte, DENSE_NODE_BIT ),
+                    BaseRecordFormat.longFromIntAndMod( nextRel, 0 ), labels );
+        }
+        else
+        {
+            int nextOffset = cursor.getOffset() + recordSize - HEADER_SIZE;
+            cursor.setOffset( nextOffset );
+        }
+    }
+
+    @Override
+    public void write( NodeRecord record, PageCursor cursor, int recordSize, int recordsPerPage )
+    {
+        if ( record.inUse() )
+        {
+            // [    ,   x] in use bit
+            // [    ,  x ] dense bit
+            byte headerByte = Record.IN_USE.byteValue();
+            headerByte = set( headerByte, DENSE_NODE_BIT, record.isDense() );
+
+            cursor.putByte( headerByte );
+            cursor.putInt( (int) record.getNextRel() );
+            cursor.putInt( (int) record.getNextProp() );
+
+            // lsb of labels
+            long labelField = record.getLabelField();
+            cursor.putInt( (int) labelField );
+            // msb of labels
+            cursor.putByte( (byte) ((labelField & 0xFF00000000L) >> 32) );
+        }
+        else
+        {
+            markAsUnused( cursor );
+        }
+    }
+}
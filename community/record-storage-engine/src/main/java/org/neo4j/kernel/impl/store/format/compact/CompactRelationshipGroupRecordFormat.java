@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.BaseOneByteHeaderRecordFormat;
+import org.neo4j.kernel.impl.store.format.BaseRecordFormat;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+
+public class CompactRelationshipGroupRecordFormat extends BaseOneByteHeaderRecordFormat<RelationshipGroupRecord>
+{
+   /* Record layout
+    *
+    * [inUse,type,next,firstOut,firstIn,firstLoop,owningNode] = 23B
+    *
+    * One record holds first relationship links (out,in,loop) to relationships for one type for one entity.
+    */
+
+    public static final int RECORD_SIZE = 23;
+
+    public CompactRelationshipGroupRecordFormat()
+    {
+        super( fixedRecordSize( RECORD_SIZE ), 0, IN_USE_BIT, CompactFormatSettings.RELATIONSHIP_GROUP_MAXIMUM_ID_BITS, true );
+    }
+
+    @Override
+    public void read( RelationshipGroupRecord record, PageCursor cursor, RecordLoad mode, int recordSize, int recordsPerPage )
+    {
+        byte headerByte = cursor.getByte();
+        boolean inUse = isInUse( headerByte );
+        record.setInUse( inUse );
+        if ( mode.shouldLoad( inUse ) )
+        {
+            int type = cursor.getShort() & 0xFFFF;
+            long next = cursor.getInt() & 0xFFFFFFFFL;
+            long firstOut = cursor.getInt() & 0xFFFFFFFFL;
+            long firstIn = cursor.getInt() & 0xFFFFFFFFL;
+            long firstLoop = cursor.getInt() & 0xFFFFFFFFL;
+            long owningNode = cursor.getInt() & 0xFFFFFFFFL;
+
+            record.initialize( inUse, type,
+                    BaseRecordFormat.longFromIntAndMod( firstOut, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( firstIn, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( firstLoop, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( owningNode, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( next, 0 ) );
+        }
+    }
+
+    @Override
+    public void write( RelationshipGroupRecord record, PageCursor cursor, int recordSize, int recordsPerPage )
+    {
+        if ( record.inUse() )
+        {
+            cursor.putByte( Record.IN_USE.byteValue() );
+            cursor.putShort( (short) record.getType() );
+            cursor.putInt( (int) record.getNext() );
+            cursor.putInt( (int) record.getFirstOut() );
+            cursor.putInt( (int) record.getFirstIn() );
+            cursor.putInt( (int) record.getFirstLoop() );
+            cursor.putInt( (int) record.getOwningNode() );
+        }
+        else
+        {
+            markAsUnused( cursor );
+        }
+    }
+
+    @Override
+    public RelationshipGroupRecord newRecord()
+    {
+        return new RelationshipGroupRecord( -1 );
+    }
+
+    @Override
+    public long getNextRecordReference( RelationshipGroupRecord record )
+    {
+        return record.getNext();
+    }
+}
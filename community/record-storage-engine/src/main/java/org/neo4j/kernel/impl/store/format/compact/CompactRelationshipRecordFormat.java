@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.BaseOneByteHeaderRecordFormat;
+import org.neo4j.kernel.impl.store.format.BaseRecordFormat;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+public class CompactRelationshipRecordFormat extends BaseOneByteHeaderRecordFormat<RelationshipRecord>
+{
+    // in_use+first-in-chain-markers(byte)+first_node(int)+second_node(int)+rel_type(short)+
+    // first_prev_rel_id(int)+first_next_rel_id(int)+second_prev_rel_id(int)+
+    // second_next_rel_id(int)+next_prop_id(int)
+    public static final int RECORD_SIZE = 31;
+
+    private static final int FIRST_IN_FIRST_CHAIN_BIT = 0b0000_0010;
+    private static final int FIRST_IN_SECOND_CHAIN_BIT = 0b0000_0100;
+
+    public CompactRelationshipRecordFormat()
+    {
+        super( fixedRecordSize( RECORD_SIZE ), 0, IN_USE_BIT, CompactFormatSettings.RELATIONSHIP_MAXIMUM_ID_BITS, true );
+    }
+
+    @Override
+    public RelationshipRecord newRecord()
+    {
+        return new RelationshipRecord( -1 );
+    }
+
+    @Override
+    public void read( RelationshipRecord record, PageCursor cursor, RecordLoad mode, int recordSize, int recordsPerPage )
+    {
+        byte headerByte = cursor.getByte();
+        boolean inUse = isInUse( headerByte );
+        record.setInUse( inUse );
+        if ( mode.shouldLoad( inUse ) )
+        {
+            long firstNode = cursor.getInt() & 0xFFFFFFFFL;
+            long secondNode = cursor.getInt() & 0xFFFFFFFFL;
+            int type = cursor.getShort() & 0xFFFF;
+            long firstPrevRel = cursor.getInt() & 0xFFFFFFFFL;
+            long firstNextRel = cursor.getInt() & 0xFFFFFFFFL;
+            long secondPrevRel = cursor.getInt() & 0xFFFFFFFFL;
+            long secondNextRel = cursor.getInt() & 0xFFFFFFFFL;
+            long nextProp = cursor.getInt() & 0xFFFFFFFFL;
+
+            record.initialize( inUse,
+                    BaseRecordFormat.longFromIntAndMod( nextProp, 0 ),
+                    firstNode,
+                    secondNode,
+                    type,
+                    BaseRecordFormat.longFromIntAndMod( firstPrevRel, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( firstNextRel, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( secondPrevRel, 0 ),
+                    BaseRecordFormat.longFromIntAndMod( secondNextRel, 0 ),
+                    has( headerByte, FIRST_IN_FIRST_CHAIN_BIT ),
+                    has( headerByte, FIRST_IN_SECOND_CHAIN_BIT ) );
+        }
+        else
+        {
+            int nextOffset = cursor.getOffset() + recordSize - HEADER_SIZE;
+            cursor.setOffset( nextOffset );
+        }
+    }
+
+    @Override
+    public void write( RelationshipRecord record, PageCursor cursor, int recordSize, int recordsPerPage )
+    {
+        if ( record.inUse() )
+        {
+            // [    ,   x] in use flag
+            // [    ,  x ] 1:st in start node chain
+            // [    , x  ] 1:st in end node chain
+            byte headerByte = Record.IN_USE.byteValue();
+            headerByte = set( headerByte, FIRST_IN_FIRST_CHAIN_BIT, record.isFirstInFirstChain() );
+            headerByte = set( headerByte, FIRST_IN_SECOND_CHAIN_BIT, record.isFirstInSecondChain() );
+
+            cursor.putByte( headerByte );
+            cursor.putInt( (int) record.getFirstNode() );
+            cursor.putInt( (int) record.getSecondNode() );
+            cursor.putShort( (short) record.getType() );
+            cursor.putInt( (int) record.getFirstPrevRel() );
+            cursor.putInt( (int) record.getFirstNextRel() );
+            cursor.putInt( (int) record.getSecondPrevRel() );
+            cursor.putInt( (int) record.getSecondNextRel() );
+            cursor.putInt( (int) record.getNextProp() );
+        }
+        else
+        {
+            markAsUnused( cursor );
+        }
+    }
+}
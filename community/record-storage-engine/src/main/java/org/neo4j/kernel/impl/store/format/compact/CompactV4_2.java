@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.kernel.impl.store.format.BaseRecordFormats;
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+import org.neo4j.kernel.impl.store.format.RecordFormat;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
+import org.neo4j.kernel.impl.store.format.standard.DynamicRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.LabelTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.PropertyKeyTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipTypeTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.SchemaRecordFormat;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
+import org.neo4j.kernel.impl.store.record.SchemaRecord;
+import org.neo4j.storageengine.api.IndexCapabilities;
+
+import static org.neo4j.kernel.impl.store.format.StoreVersion.COMPACT_V4_2;
+
+/**
+ * Page aligned record format with narrower node, relationship, relationship group and property pointers than the standard format.
+ * Node records are 14 bytes instead of 15, relationship records 31 bytes instead of 34 and relationship group records 23 bytes
+ * instead of 25, at the cost of a maximum of about four billion of each of those records.
+ */
+public class CompactV4_2 extends BaseRecordFormats
+{
+    public static final RecordFormats RECORD_FORMATS = new CompactV4_2();
+    public static final String NAME = "compact";
+
+    private CompactV4_2()
+    {
+        super( COMPACT_V4_2.versionString(), COMPACT_V4_2.introductionVersion(), 1,
+                RecordStorageCapability.SCHEMA,
+                RecordStorageCapability.DENSE_NODES,
+                RecordStorageCapability.POINT_PROPERTIES,
+                RecordStorageCapability.TEMPORAL_PROPERTIES,
+                RecordStorageCapability.FLEXIBLE_SCHEMA_STORE,
+                RecordStorageCapability.INTERNAL_TOKENS,
+                RecordStorageCapability.GBPTREE_ID_FILES,
+                IndexCapabilities.LuceneCapability.LUCENE_8,
+                IndexCapabilities.IndexProviderCapability.INDEX_PROVIDERS_40,
+                IndexCapabilities.ConfigCapability.SCHEMA_STORE_CONFIG,
+                RecordStorageCapability.GBPTREE_COUNTS_STORE );
+    }
+
+    @Override
+    public RecordFormat<NodeRecord> node()
+    {
+        return new CompactNodeRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipGroupRecord> relationshipGroup()
+    {
+        return new CompactRelationshipGroupRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipRecord> relationship()
+    {
+        return new CompactRelationshipRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<PropertyRecord> property()
+    {
+        return new CompactPropertyRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<LabelTokenRecord> labelToken()
+    {
+        return new LabelTokenRecordFormat( true );
+    }
+
+    @Override
+    public RecordFormat<PropertyKeyTokenRecord> propertyKeyToken()
+    {
+        return new PropertyKeyTokenRecordFormat( true );
+    }
+
+    @Override
+    public RecordFormat<RelationshipTypeTokenRecord> relationshipTypeToken()
+    {
+        return new RelationshipTypeTokenRecordFormat( true );
+    }
+
+    @Override
+    public RecordFormat<DynamicRecord> dynamic()
+    {
+        return new DynamicRecordFormat( true );
+    }
+
+    @Override
+    public RecordFormat<SchemaRecord> schema()
+    {
+        return new SchemaRecordFormat( true );
+    }
+
+    @Override
+    public FormatFamily getFormatFamily()
+    {
+        return CompactFormatFamily.INSTANCE;
+    }
+
+    @Override
+    public String name()
+    {
+        return NAME;
+    }
+}
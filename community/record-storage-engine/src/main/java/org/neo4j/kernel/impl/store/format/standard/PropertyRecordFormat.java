@@ -45,7 +45,12 @@ public class PropertyRecordFormat extends BaseRecordFormat<PropertyRecord>
 
     public PropertyRecordFormat( boolean pageAligned )
     {
-        super( fixedRecordSize( RECORD_SIZE ), 0, StandardFormatSettings.PROPERTY_MAXIMUM_ID_BITS, pageAligned );
+        this( pageAligned, StandardFormatSettings.PROPERTY_MAXIMUM_ID_BITS );
+    }
+
+    protected PropertyRecordFormat( boolean pageAligned, int idBits )
+    {
+        super( fixedRecordSize( RECORD_SIZE ), 0, idBits, pageAligned );
     }
 
     @Override
@@ -96,6 +96,7 @@ import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreHeader;
 import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.kernel.impl.store.format.FormatFamily;
+import org.neo4j.kernel.impl.store.format.RecordFormat;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
 import org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat;
@@ -120,6 +121,7 @@ import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 import org.neo4j.token.api.TokenNotFoundException;
 
+import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static org.apache.commons.io.IOUtils.lineIterator;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
@@ -226,7 +228,7 @@ public class RecordStorageMigrator extends AbstractStoreMigrationParticipant
             }
             RecordFormats oldFormat = selectForVersion( versionToMigrateFrom );
             RecordFormats newFormat = selectForVersion( versionToMigrateTo );
-            if ( FormatFamily.isHigherFamilyFormat( newFormat, oldFormat ) ||
+            if ( !FormatFamily.isSameFamily( oldFormat, newFormat ) ||
                     (FormatFamily.isSameFamily( oldFormat, newFormat ) && isDifferentCapabilities( oldFormat, newFormat )) )
             {
                 // Some form of migration is required (a fallback/catch-all option)
@@ -439,6 +441,7 @@ public class RecordStorageMigrator extends AbstractStoreMigrationParticipant
               OutputStream badOutput = new BufferedOutputStream( new FileOutputStream( badFile, false ) );
               Collector badCollector = Collectors.badCollector( badOutput, 0 ) )
         {
+            assertIdsFitInFormat( legacyStore, newFormat );
             Configuration importConfig = new Configuration.Overridden( config )
             {
                 @Override
@@ -502,6 +505,28 @@ public class RecordStorageMigrator extends AbstractStoreMigrationParticipant
         }
     }
 
+    /**
+     * The batch importer keeps node, relationship and property ids as they are, so a format with a lower maximum id,
+     * like the compact format, can only be migrated into if the ids of the legacy store fit in it.
+     */
+    private static void assertIdsFitInFormat( NeoStores legacyStore, RecordFormats newFormat )
+    {
+        assertIdsFitInFormat( legacyStore.getNodeStore(), newFormat.node() );
+        assertIdsFitInFormat( legacyStore.getRelationshipStore(), newFormat.relationship() );
+        assertIdsFitInFormat( legacyStore.getRelationshipGroupStore(), newFormat.relationshipGroup() );
+        assertIdsFitInFormat( legacyStore.getPropertyStore(), newFormat.property() );
+    }
+
+    private static void assertIdsFitInFormat( CommonAbstractStore<?,?> store, RecordFormat<?> recordFormat )
+    {
+        long highestId = store.getHighId() - 1;
+        if ( highestId > recordFormat.getMaxId() )
+        {
+            throw new IllegalStateException( format( "Unable to migrate %s, its highest id %d is greater than %d, which is the highest id of the new format",
+                    store.getStorageFile().getFileName(), highestId, recordFormat.getMaxId() ) );
+        }
+    }
+
     private static long storeSize( CommonAbstractStore<? extends AbstractBaseRecord,? extends StoreHeader> store )
     {
         return store.getNumberOfIdsInUse() * store.getRecordSize();
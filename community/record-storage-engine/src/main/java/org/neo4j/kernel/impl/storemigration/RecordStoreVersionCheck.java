@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.format.FormatFamily;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.compact.CompactFormatFamily;
 import org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.StoreVersion;
@@ -132,7 +133,8 @@ public class RecordStoreVersionCheck implements StoreVersionCheck
 
                 // If we are trying to open an enterprise store when configured to use community format, then inform the user
                 // of the config setting to change since downgrades aren't possible but the store can still be opened.
-                if ( FormatFamily.isLowerFamilyFormat( format, fromFormat ) )
+                // The compact family is the exception, it is only ever the desired format when explicitly configured.
+                if ( FormatFamily.isLowerFamilyFormat( format, fromFormat ) && format.getFormatFamily() != CompactFormatFamily.INSTANCE )
                 {
                     return new Result( Outcome.unexpectedUpgradingVersion, version, metaDataFile.toAbsolutePath().toString() );
                 }
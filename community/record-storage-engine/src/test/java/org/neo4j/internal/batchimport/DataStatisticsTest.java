@@ -95,6 +95,29 @@ class DataStatisticsTest
         assertEquals( typeId, count.getTypeId() );
     }
 
+    @Test
+    void shouldSumRelationshipTypeCountsOfOtherStatistics()
+    {
+        // given
+        DataStatistics imported = new DataStatistics( 5, 6, new DataStatistics.RelationshipTypeCount[]{
+                new DataStatistics.RelationshipTypeCount( 0, 10 ), new DataStatistics.RelationshipTypeCount( 1, 3 )} );
+        DataStatistics existing = new DataStatistics( 0, 0, new DataStatistics.RelationshipTypeCount[]{
+                new DataStatistics.RelationshipTypeCount( 1, 4 ), new DataStatistics.RelationshipTypeCount( 3, 20 )} );
+
+        // when
+        DataStatistics merged = imported.withRelationshipTypesOf( existing );
+
+        // then
+        assertEquals( 4, merged.getNumberOfRelationshipTypes() );
+        assertEquals( 10, typeCount( merged.iterator(), 0 ).getCount() );
+        assertEquals( 7, typeCount( merged.iterator(), 1 ).getCount() );
+        assertEquals( 0, typeCount( merged.iterator(), 2 ).getCount() );
+        assertEquals( 20, typeCount( merged.iterator(), 3 ).getCount() );
+        assertEquals( 3, merged.get( 3 ).getTypeId() );
+        assertEquals( 5, merged.getNodeCount() );
+        assertEquals( 6, merged.getPropertyCount() );
+    }
+
     private DataStatistics.RelationshipTypeCount typeCount( Iterator<DataStatistics.RelationshipTypeCount> iterator, int typeId )
     {
         while ( iterator.hasNext() )
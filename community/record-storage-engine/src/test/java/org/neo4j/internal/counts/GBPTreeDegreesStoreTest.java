@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.RelationshipDirection;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.counts.GBPTreeGenericCountsStore.NO_MONITOR;
+import static org.neo4j.io.pagecache.IOLimiter.UNLIMITED;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
+import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
+import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+@PageCacheExtension
+@ExtendWith( RandomExtension.class )
+class GBPTreeDegreesStoreTest
+{
+    private static final int TYPE_1 = 1;
+    private static final int TYPE_2 = 2;
+
+    @Inject
+    private TestDirectory directory;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private FileSystemAbstraction fs;
+
+    @Inject
+    private RandomRule random;
+
+    private GBPTreeDegreesStore degreesStore;
+
+    @BeforeEach
+    void openDegreesStore() throws Exception
+    {
+        openDegreesStore( DegreesBuilder.EMPTY );
+    }
+
+    @AfterEach
+    void closeDegreesStore()
+    {
+        degreesStore.close();
+    }
+
+    @Test
+    void shouldUpdateAndReadDegrees()
+    {
+        // given
+        long txId = BASE_TX_ID;
+        try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( ++txId, NULL ) )
+        {
+            updater.incrementRelationship( 1, TYPE_1, 2, 1 );
+            updater.incrementRelationship( 1, TYPE_1, 3, 1 );
+            updater.incrementRelationship( 1, TYPE_2, 1, 1 );
+        }
+
+        // then
+        assertEquals( 2, degreesStore.degree( 1, TYPE_1, OUTGOING, NULL ) );
+        assertEquals( 0, degreesStore.degree( 1, TYPE_1, INCOMING, NULL ) );
+        assertEquals( 1, degreesStore.degree( 1, TYPE_2, LOOP, NULL ) );
+        assertEquals( 1, degreesStore.degree( 2, TYPE_1, INCOMING, NULL ) );
+        assertEquals( 1, degreesStore.degree( 3, TYPE_1, INCOMING, NULL ) );
+
+        // and when
+        try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( ++txId, NULL ) )
+        {
+            updater.incrementRelationship( 1, TYPE_1, 3, -1 );
+        }
+
+        // then
+        assertEquals( 1, degreesStore.degree( 1, TYPE_1, OUTGOING, NULL ) );
+        assertEquals( 0, degreesStore.degree( 3, TYPE_1, INCOMING, NULL ) );
+    }
+
+    @Test
+    void shouldVisitDegreesPerNodeAndType()
+    {
+        // given
+        try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( BASE_TX_ID + 1, NULL ) )
+        {
+            updater.incrementRelationship( 1, TYPE_1, 2, 1 );
+            updater.incrementRelationship( 2, TYPE_1, 1, 1 );
+            updater.incrementRelationship( 1, TYPE_2, 1, 1 );
+            updater.incrementRelationship( 5, TYPE_2, 1, 1 );
+        }
+
+        // when
+        List<String> visited = new ArrayList<>();
+        degreesStore.visitDegrees( 1, ( nodeId, typeId, outgoing, incoming, loop ) -> visited.add( nodeId + ":" + typeId + ":" + outgoing + "," + incoming +
+                "," + loop ), NULL );
+
+        // then
+        assertThat( visited ).containsExactly( "1:1:1,1,0", "1:2:0,1,1" );
+
+        // and when
+        visited.clear();
+        degreesStore.visitDegrees( 2, 5, ( nodeId, typeId, outgoing, incoming, loop ) -> visited.add( nodeId + ":" + typeId + ":" + outgoing + "," +
+                incoming + "," + loop ), NULL );
+
+        // then
+        assertThat( visited ).containsExactly( "2:1:1,1,0", "5:2:1,0,0" );
+    }
+
+    @Test
+    void shouldKeepDegreesOverCheckpointAndRestart() throws Exception
+    {
+        // given
+        Map<Long,Long> expectedOutgoing = new HashMap<>();
+        long txId = BASE_TX_ID;
+        for ( int i = 0; i < 100; i++ )
+        {
+            try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( ++txId, NULL ) )
+            {
+                for ( int j = 0; j < 10; j++ )
+                {
+                    long startNode = random.nextInt( 1_000 );
+                    long endNode = 1_000 + random.nextInt( 1_000 );
+                    updater.incrementRelationship( startNode, TYPE_1, endNode, 1 );
+                    expectedOutgoing.merge( startNode, 1L, Long::sum );
+                }
+            }
+            if ( random.nextInt( 10 ) == 0 )
+            {
+                degreesStore.checkpoint( UNLIMITED, NULL );
+            }
+        }
+
+        // when
+        checkpointAndRestartDegreesStore();
+
+        // then
+        for ( long nodeId = 0; nodeId < 1_000; nodeId++ )
+        {
+            assertEquals( expectedOutgoing.getOrDefault( nodeId, 0L ), degreesStore.degree( nodeId, TYPE_1, OUTGOING, NULL ) );
+        }
+    }
+
+    @Test
+    void shouldUseDegreesBuilderOnCreation() throws Exception
+    {
+        // given
+        closeDegreesStore();
+        fs.deleteFile( degreesStoreFile() );
+
+        // when
+        openDegreesStore( new DegreesBuilder()
+        {
+            @Override
+            public void initialize( GBPTreeDegreesStore.DegreeUpdater updater, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+            {
+                updater.incrementRelationship( 10, TYPE_2, 11, 1 );
+                updater.incrementRelationship( 10, TYPE_2, 11, 1 );
+            }
+
+            @Override
+            public long lastCommittedTxId()
+            {
+                return BASE_TX_ID + 5;
+            }
+        } );
+
+        // then
+        assertEquals( 2, degreesStore.degree( 10, TYPE_2, OUTGOING, NULL ) );
+        assertEquals( 2, degreesStore.degree( 11, TYPE_2, INCOMING, NULL ) );
+
+        // and when applying a transaction that the rebuild already covers
+        checkpointAndRestartDegreesStore();
+        try ( GBPTreeDegreesStore.DegreeUpdater updater = degreesStore.apply( BASE_TX_ID + 5, NULL ) )
+        {
+            updater.incrementRelationship( 10, TYPE_2, 11, 1 );
+        }
+
+        // then
+        assertEquals( 2, degreesStore.degree( 10, TYPE_2, OUTGOING, NULL ) );
+    }
+
+    @Test
+    void shouldNotAcceptInvalidDegreeKeys()
+    {
+        assertThrows( IllegalArgumentException.class, () -> CountsKey.degreeKey( 1, -1, OUTGOING ) );
+        assertThrows( IllegalArgumentException.class, () -> CountsKey.degreeKey( 1, TYPE_1, RelationshipDirection.ERROR ) );
+    }
+
+    private void checkpointAndRestartDegreesStore() throws Exception
+    {
+        degreesStore.checkpoint( UNLIMITED, NULL );
+        closeDegreesStore();
+        openDegreesStore();
+    }
+
+    private File degreesStoreFile()
+    {
+        return directory.file( "degrees.db" );
+    }
+
+    private void openDegreesStore( DegreesBuilder builder ) throws IOException
+    {
+        degreesStore = new GBPTreeDegreesStore( pageCache, degreesStoreFile(), fs, immediate(), builder, false, PageCacheTracer.NULL, NO_MONITOR );
+        degreesStore.start( NULL, INSTANCE );
+    }
+}
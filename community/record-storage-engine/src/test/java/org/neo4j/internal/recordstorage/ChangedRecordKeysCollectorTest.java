@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.schema.IndexProviderDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.kernel.impl.store.PropertyType;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangedRecordKeysCollectorTest
+{
+    @Test
+    void shouldHaveDisjointKeysForTransactionsChangingDifferentRecords() throws IOException
+    {
+        MutableLongSet first = collect( Commands.createNode( 10, 2, 3 ), Commands.createRelationship( 4, 10, 20, 0 ),
+                Commands.createRelationshipGroup( 10, 1 ), nodeProperty( 10, 1, 6, 7 ) );
+        MutableLongSet second = collect( Commands.createNode( 20, 4, 5 ), Commands.createRelationship( 45, 20, 30, 0 ),
+                Commands.createRelationshipGroup( 20, 1 ), nodeProperty( 20, 2, 8, 9 ) );
+
+        assertFalse( first.isEmpty() );
+        assertFalse( second.isEmpty() );
+        assertFalse( overlaps( first, second ) );
+    }
+
+    @Test
+    void shouldHaveOverlappingKeysForTransactionsChangingTheSameRecord() throws IOException
+    {
+        assertTrue( overlaps( collect( Commands.createNode( 10 ) ), collect( Commands.createNode( 10 ) ) ) );
+        assertTrue( overlaps( collect( Commands.createRelationship( 4, 10, 20, 0 ) ), collect( Commands.createRelationship( 4, 30, 40, 0 ) ) ) );
+        assertTrue( overlaps( collect( nodeProperty( 1, 10, 6 ) ), collect( nodeProperty( 2, 11, 6 ) ) ) );
+    }
+
+    @Test
+    void shouldHaveOverlappingKeysForPropertyChangesOfTheSameEntity() throws IOException
+    {
+        assertTrue( overlaps( collect( nodeProperty( 1, 10 ) ), collect( nodeProperty( 2, 10 ) ) ) );
+        assertTrue( overlaps( collect( nodeProperty( 1, 10 ) ), collect( Commands.createNode( 10 ) ) ) );
+    }
+
+    @Test
+    void shouldRequireIsolationForTokenAndSchemaChanges() throws IOException
+    {
+        assertFalse( new ChangedRecordKeysCollector( new LongHashSet() ).collect( Commands.createLabelToken( 3, 0 ) ) );
+        assertFalse( new ChangedRecordKeysCollector( new LongHashSet() ).collect( Commands.createPropertyKeyToken( 3, 0 ) ) );
+        assertFalse( new ChangedRecordKeysCollector( new LongHashSet() ).collect( Commands.createRelationshipTypeToken( 3, 0 ) ) );
+        assertFalse( new ChangedRecordKeysCollector( new LongHashSet() ).collect(
+                Commands.createIndexRule( new IndexProviderDescriptor( "empty", "1" ), 10, SchemaDescriptor.forLabel( 0, 1 ) ) ) );
+    }
+
+    @Test
+    void shouldRequireIsolationForPropertyChangesWithoutKnownOwner() throws IOException
+    {
+        assertFalse( new ChangedRecordKeysCollector( new LongHashSet() ).collect( Commands.createProperty( 1, PropertyType.STRING, 0 ) ) );
+    }
+
+    private static PropertyCommand nodeProperty( long id, long nodeId, long... valueRecordIds )
+    {
+        PropertyCommand command = Commands.createProperty( id, valueRecordIds.length == 0 ? PropertyType.INT : PropertyType.STRING, 0, valueRecordIds );
+        command.getAfter().setNodeId( nodeId );
+        return command;
+    }
+
+    private static boolean overlaps( MutableLongSet first, MutableLongSet second )
+    {
+        return first.anySatisfy( second::contains );
+    }
+
+    private static MutableLongSet collect( Command... commands ) throws IOException
+    {
+        MutableLongSet keys = new LongHashSet();
+        ChangedRecordKeysCollector collector = new ChangedRecordKeysCollector( keys );
+        for ( Command command : commands )
+        {
+            assertTrue( collector.collect( command ) );
+        }
+        return keys;
+    }
+}
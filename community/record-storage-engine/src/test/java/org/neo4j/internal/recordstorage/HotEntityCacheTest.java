@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.standard.Standard;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.recordstorage.RecordPropertyCursorTest.blocksOf;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.store.record.Record.NO_LABELS_FIELD;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@EphemeralPageCacheExtension
+@EphemeralNeo4jLayoutExtension
+class HotEntityCacheTest
+{
+    private static final long NODE = 3;
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private NeoStores neoStores;
+    private NodeStore nodeStore;
+    private PropertyCreator creator;
+    private DefaultIdGeneratorFactory idGeneratorFactory;
+    private HotEntityCache cache;
+
+    @BeforeEach
+    void setup()
+    {
+        idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
+        neoStores = new StoreFactory( databaseLayout, Config.defaults(), idGeneratorFactory, pageCache, fs, Standard.LATEST_RECORD_FORMATS,
+                NullLogProvider.getInstance(), PageCacheTracer.NULL, Sets.immutable.empty() ).openAllNeoStores( true );
+        nodeStore = neoStores.getNodeStore();
+        creator = new PropertyCreator( neoStores.getPropertyStore(), new PropertyTraverser( NULL ), NULL, INSTANCE );
+        cache = new HotEntityCache( nodeStore, 1_000_000 );
+    }
+
+    @AfterEach
+    void closeStore()
+    {
+        neoStores.close();
+    }
+
+    @Test
+    void shouldCachePropertiesOfNodeThatMissesTwice()
+    {
+        // given
+        Value[] values = {Values.stringValue( "a string long enough to be stored in dynamic string records of the property store" ),
+                Values.longArray( new long[]{1, 2, 3, 4, 5, 6, 7, 8, 9} ), Values.intValue( 42 )};
+        long reference = createNodeWithProperties( values );
+
+        // when
+        try ( RecordPropertyCursor cursor = new RecordPropertyCursor( neoStores.getPropertyStore(), cache, NULL, INSTANCE ) )
+        {
+            assertProperties( values, reference, cursor );
+            assertNull( cache.properties( NODE, reference ) );
+            assertProperties( values, reference, cursor );
+            assertNotNull( cache.properties( NODE, reference ) );
+            long hits = cache.hits();
+            assertProperties( values, reference, cursor );
+
+            // then
+            assertEquals( hits + 1, cache.hits() );
+        }
+    }
+
+    @Test
+    void shouldNotServePropertiesOfInvalidatedNode()
+    {
+        // given
+        long reference = createNodeWithProperties( Values.intValue( 1 ) );
+        try ( RecordPropertyCursor cursor = new RecordPropertyCursor( neoStores.getPropertyStore(), cache, NULL, INSTANCE ) )
+        {
+            assertProperties( new Value[]{Values.intValue( 1 )}, reference, cursor );
+            assertProperties( new Value[]{Values.intValue( 1 )}, reference, cursor );
+            assertNotNull( cache.properties( NODE, reference ) );
+
+            // when
+            long newReference = createNodeWithProperties( Values.intValue( 2 ) );
+            cache.invalidateNode( NODE );
+
+            // then
+            assertNull( cache.properties( NODE, reference ) );
+            assertProperties( new Value[]{Values.intValue( 2 )}, newReference, cursor );
+        }
+    }
+
+    @Test
+    void shouldNotCachePropertiesReadBeforeInvalidation()
+    {
+        // given
+        long reference = createNodeWithProperties( Values.intValue( 1 ) );
+        long stamp = cache.stamp( NODE );
+
+        // when
+        cache.invalidateNode( NODE );
+        HotEntityCache.Entry entry = cache.putProperties( NODE, reference, new int[]{0}, new Value[]{Values.intValue( 1 )}, stamp );
+
+        // then
+        assertNull( entry );
+        assertNull( cache.properties( NODE, reference ) );
+        assertEquals( 0, cache.usedMemory() );
+    }
+
+    @Test
+    void shouldNotServePropertiesOfOtherPropertyChain()
+    {
+        // given
+        long reference = createNodeWithProperties( Values.intValue( 1 ) );
+        cache.putProperties( NODE, reference, new int[]{0}, new Value[]{Values.intValue( 1 )}, cache.stamp( NODE ) );
+
+        // then
+        assertNotNull( cache.properties( NODE, reference ) );
+        assertNull( cache.properties( NODE, reference + 1 ) );
+    }
+
+    @Test
+    void shouldEvictToStayWithinMaxMemory()
+    {
+        // given
+        HotEntityCache smallCache = new HotEntityCache( nodeStore, 10_000 );
+
+        // when
+        for ( long node = 0; node < 1_000; node++ )
+        {
+            smallCache.putProperties( node, node, new int[]{0}, new Value[]{Values.longValue( node )}, smallCache.stamp( node ) );
+        }
+
+        // then
+        assertThat( smallCache.usedMemory() ).isLessThanOrEqualTo( 10_000 );
+        assertThat( smallCache.evictions() ).isGreaterThan( 0 );
+    }
+
+    @Test
+    void shouldKeepRecentlyReadEntriesWhenEvicting()
+    {
+        // given
+        HotEntityCache smallCache = new HotEntityCache( nodeStore, 10_000 );
+        long hotNode = 1_000_000;
+        smallCache.putProperties( hotNode, hotNode, new int[]{0}, new Value[]{Values.longValue( hotNode )}, smallCache.stamp( hotNode ) );
+
+        // when
+        for ( long node = 0; node < 1_000; node++ )
+        {
+            assertNotNull( smallCache.properties( hotNode, hotNode ) );
+            smallCache.putProperties( node, node, new int[]{0}, new Value[]{Values.longValue( node )}, smallCache.stamp( node ) );
+        }
+
+        // then
+        assertNotNull( smallCache.properties( hotNode, hotNode ) );
+        assertThat( smallCache.evictions() ).isGreaterThan( 0 );
+    }
+
+    private long createNodeWithProperties( Value... values )
+    {
+        DirectRecordAccessSet access = new DirectRecordAccessSet( neoStores, idGeneratorFactory );
+        NodeRecord node = nodeStore.newRecord();
+        node.setId( NODE );
+        long reference = creator.createPropertyChain( node, blocksOf( creator, values ), access.getPropertyRecords() );
+        access.commit();
+        node.initialize( true, reference, false, NO_NEXT_RELATIONSHIP.longValue(), NO_LABELS_FIELD.longValue() );
+        nodeStore.updateRecord( node, NULL );
+        return reference;
+    }
+
+    private static void assertProperties( Value[] values, long reference, RecordPropertyCursor cursor )
+    {
+        Map<Integer,Value> expected = new HashMap<>();
+        for ( int key = 0; key < values.length; key++ )
+        {
+            expected.put( key, values[key] );
+        }
+        cursor.initNodeProperties( reference, NODE );
+        while ( cursor.next() )
+        {
+            assertEquals( expected.remove( cursor.propertyKey() ), cursor.propertyValue() );
+        }
+        assertThat( expected ).isEmpty();
+    }
+}
@@ -182,6 +182,7 @@ class RecordStorageEngineTest
         allPossibleFiles.remove( databaseLayout.labelScanStore() );
         allPossibleFiles.remove( databaseLayout.relationshipTypeScanStore() );
         allPossibleFiles.remove( databaseLayout.indexStatisticsStore() );
+        allPossibleFiles.remove( databaseLayout.degreesStore() );
 
         assertEquals( allPossibleFiles, currentFiles );
     }
@@ -38,7 +38,9 @@ import org.neo4j.values.storable.TextValue;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
@@ -182,6 +184,30 @@ class ShortStringPropertyEncodeTest
         assertCanEncode( " _.-:/ _.-:/" );
     }
 
+    @Test
+    void canEncodeUTF8StringValue()
+    {
+        assertCanEncode( Values.utf8Value( "påfågelöar".getBytes( UTF_8 ) ) );
+        assertCanEncode( Values.utf8Value( "hello world".getBytes( UTF_8 ) ) );
+    }
+
+    @Test
+    void shouldStoreLongUTF8StringValueInDynamicStore()
+    {
+        // given
+        int length = LongerShortString.maxUTF8Length( PropertyType.getPayloadSize() ) + 1;
+        TextValue expectedValue = Values.utf8Value( "a".repeat( length ).getBytes( UTF_8 ) );
+
+        // when
+        PropertyBlock block = new PropertyBlock();
+        propertyStore.encodeValue( block, KEY_ID, expectedValue, PageCursorTracer.NULL, INSTANCE );
+
+        // then
+        assertEquals( PropertyType.STRING, block.getType() );
+        assertFalse( block.getValueRecords().isEmpty() );
+        assertEquals( expectedValue, block.getType().value( block, propertyStore, PageCursorTracer.NULL ) );
+    }
+
     private void assertCanEncodeInBothCasings( String string )
     {
         assertCanEncode( string.toLowerCase() );
@@ -194,9 +220,13 @@ class ShortStringPropertyEncodeTest
     }
 
     private void encode( String string )
+    {
+        assertCanEncode( Values.stringValue( string ) );
+    }
+
+    private void assertCanEncode( TextValue expectedValue )
     {
         PropertyBlock block = new PropertyBlock();
-        TextValue expectedValue = Values.stringValue( string );
         propertyStore.encodeValue( block, KEY_ID, expectedValue, PageCursorTracer.NULL, INSTANCE );
         assertEquals( 0, block.getValueRecords().size() );
         Value readValue = block.getType().value( block, propertyStore, PageCursorTracer.NULL );
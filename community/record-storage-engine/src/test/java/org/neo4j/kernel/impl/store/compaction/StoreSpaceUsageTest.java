@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralPageCacheExtension
+@EphemeralNeo4jLayoutExtension
+class StoreSpaceUsageTest
+{
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    @Test
+    void shouldMeasureRecordAndPayloadUtilization() throws IOException
+    {
+        try ( NeoStores neoStores = new StoreFactory( databaseLayout, Config.defaults(), new DefaultIdGeneratorFactory( fs, immediate() ), pageCache, fs,
+                NullLogProvider.getInstance(), PageCacheTracer.NULL ).openAllNeoStores( true ) )
+        {
+            // given a property record per entity, each with a single one-block property
+            PropertyStore propertyStore = neoStores.getPropertyStore();
+            int recordsPerPage = propertyStore.getRecordsPerPage();
+            long[] ids = new long[recordsPerPage];
+            for ( int i = 0; i < recordsPerPage; i++ )
+            {
+                PropertyRecord record = propertyStore.newRecord();
+                record.initialize( true, -1, -1 );
+                ids[i] = propertyStore.nextId( NULL );
+                record.setId( ids[i] );
+                PropertyBlock block = new PropertyBlock();
+                block.setSingleBlock( PropertyStore.singleBlockLongValue( 0, PropertyType.INT, i ) );
+                record.addPropertyBlock( block );
+                propertyStore.updateRecord( record, NULL );
+            }
+            // and half of them deleted
+            for ( int i = 0; i < recordsPerPage; i += 2 )
+            {
+                PropertyRecord record = propertyStore.newRecord();
+                record.setId( ids[i] );
+                record.setInUse( false );
+                propertyStore.updateRecord( record, NULL );
+            }
+            neoStores.flush( IOLimiter.UNLIMITED, NULL );
+
+            // when
+            List<StoreSpaceUsage.Usage> usages = StoreSpaceUsage.measure( neoStores, fs, NULL );
+
+            // then
+            StoreSpaceUsage.Usage property = usages.stream().filter( usage -> usage.type() == StoreType.PROPERTY ).findFirst().orElseThrow();
+            assertEquals( recordsPerPage, property.records() );
+            assertEquals( recordsPerPage / 2, property.recordsInUse() );
+            assertTrue( property.hasPayload() );
+            assertEquals( 1d / PropertyType.getPayloadSizeLongs(), property.payloadUtilization(), 0.0001 );
+            assertEquals( (double) (recordsPerPage / 2) * propertyStore.getRecordSize() / property.fileSize(), property.recordUtilization(), 0.0001 );
+
+            StoreSpaceUsage.Usage node = usages.stream().filter( usage -> usage.type() == StoreType.NODE ).findFirst().orElseThrow();
+            assertFalse( node.hasPayload() );
+            assertEquals( 0, node.recordsInUse() );
+            assertThat( usages ).noneMatch( usage -> usage.type() == StoreType.META_DATA );
+        }
+    }
+}
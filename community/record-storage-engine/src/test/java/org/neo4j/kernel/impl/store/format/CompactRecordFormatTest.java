@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.store.format.compact.Compact;
+import org.neo4j.kernel.impl.store.format.standard.Standard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.store.NoStoreHeader.NO_STORE_HEADER;
+
+class CompactRecordFormatTest extends AbstractRecordFormatTest
+{
+    CompactRecordFormatTest()
+    {
+        super( Compact.LATEST_RECORD_FORMATS, 32, 32 );
+    }
+
+    @Test
+    void shouldHaveSmallerEntityRecordsThanStandardFormat()
+    {
+        RecordFormats standard = Standard.LATEST_RECORD_FORMATS;
+
+        assertEquals( 14, formats.node().getRecordSize( NO_STORE_HEADER ) );
+        assertEquals( 31, formats.relationship().getRecordSize( NO_STORE_HEADER ) );
+        assertEquals( 23, formats.relationshipGroup().getRecordSize( NO_STORE_HEADER ) );
+        assertTrue( formats.node().getRecordSize( NO_STORE_HEADER ) < standard.node().getRecordSize( NO_STORE_HEADER ) );
+        assertTrue( formats.relationship().getRecordSize( NO_STORE_HEADER ) < standard.relationship().getRecordSize( NO_STORE_HEADER ) );
+        assertTrue( formats.relationshipGroup().getRecordSize( NO_STORE_HEADER ) < standard.relationshipGroup().getRecordSize( NO_STORE_HEADER ) );
+    }
+
+    @Test
+    void shouldLimitIdsToFourBytes()
+    {
+        assertEquals( 0xFFFF_FFFFL, formats.node().getMaxId() );
+        assertEquals( 0xFFFF_FFFFL, formats.relationship().getMaxId() );
+        assertEquals( 0xFFFF_FFFFL, formats.relationshipGroup().getMaxId() );
+        assertEquals( 0xFFFF_FFFFL, formats.property().getMaxId() );
+    }
+}
@@ -24,6 +24,7 @@ import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -52,6 +53,7 @@ import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.ScanOnOpenOverwritingIdGeneratorFactory;
+import org.neo4j.internal.id.ScanOnOpenReadOnlyIdGeneratorFactory;
 import org.neo4j.internal.recordstorage.RandomSchema;
 import org.neo4j.internal.recordstorage.SchemaStorage;
 import org.neo4j.internal.recordstorage.StoreTokens;
@@ -65,14 +67,18 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.DynamicRecordAllocator;
 import org.neo4j.kernel.impl.store.DynamicStringStore;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RecordStore;
 import org.neo4j.kernel.impl.store.SchemaStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.kernel.impl.store.TokenStore;
 import org.neo4j.kernel.impl.store.allocator.ReusableRecordsCompositeAllocator;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_2;
 import org.neo4j.kernel.impl.store.format.standard.Standard;
 import org.neo4j.kernel.impl.store.format.standard.StandardV3_4;
+import org.neo4j.kernel.impl.store.format.standard.StandardV4_0;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.TokenRecord;
 import org.neo4j.kernel.impl.storemigration.legacy.SchemaRuleSerialization35;
@@ -80,6 +86,7 @@ import org.neo4j.kernel.impl.storemigration.legacy.SchemaStore35;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.logging.NullLogProvider;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.logging.internal.NullLogService;
 import org.neo4j.logging.internal.SimpleLogService;
@@ -212,6 +219,68 @@ class RecordStorageMigratorIT
         assertThat( logProvider ).forLevel( ERROR ).doesNotHaveAnyLogs();
     }
 
+    @Test
+    void shouldBeAbleToMigrateIntoAndOutOfCompactFormat() throws Exception
+    {
+        // GIVEN a legacy database
+        File prepare = testDirectory.directory( "prepare" );
+        var fs = testDirectory.getFileSystem();
+        MigrationTestUtils.prepareSampleLegacyDatabase( StandardV3_4.STORE_VERSION, fs, databaseLayout.databaseDirectory().toFile(), prepare );
+        long nodesInUse;
+        long relationshipsInUse;
+        try ( NeoStores legacyStores = new StoreFactory( databaseLayout, CONFIG, new ScanOnOpenReadOnlyIdGeneratorFactory(), pageCache, fs,
+                StandardV3_4.RECORD_FORMATS, NullLogProvider.getInstance(), PageCacheTracer.NULL, immutable.empty() ).openAllNeoStores() )
+        {
+            nodesInUse = countRecordsInUse( legacyStores.getNodeStore() );
+            relationshipsInUse = countRecordsInUse( legacyStores.getRelationshipStore() );
+        }
+        assertTrue( nodesInUse > 0 );
+
+        AssertableLogProvider logProvider = new AssertableLogProvider( true );
+        LogService logService = new SimpleLogService( logProvider, logProvider );
+        RecordStoreVersionCheck check = getVersionCheck( pageCache, databaseLayout );
+        String versionToMigrateFrom = getVersionToMigrateFrom( check );
+        String versionToMigrateTo = CompactV4_2.RECORD_FORMATS.storeVersion();
+        RecordStorageMigrator migrator = new RecordStorageMigrator( fs, pageCache, CONFIG, logService, jobScheduler, PageCacheTracer.NULL,
+                batchImporterFactory, INSTANCE );
+
+        // WHEN migrating to the compact format
+        migrator.migrate( databaseLayout, migrationLayout, progressMonitor.startSection( "section" ), versionToMigrateFrom, versionToMigrateTo );
+        migrator.moveMigratedFiles( migrationLayout, databaseLayout, versionToMigrateFrom, versionToMigrateTo );
+
+        // THEN the store should open in the compact format with all its entities
+        StoreFactory storeFactory = new StoreFactory(
+                databaseLayout, CONFIG, new ScanOnOpenOverwritingIdGeneratorFactory( fs ), pageCache, fs,
+                logService.getInternalLogProvider(), PageCacheTracer.NULL );
+        try ( NeoStores neoStores = storeFactory.openAllNeoStores() )
+        {
+            assertEquals( CompactV4_2.RECORD_FORMATS, neoStores.getRecordFormats() );
+            assertEquals( nodesInUse, countRecordsInUse( neoStores.getNodeStore() ) );
+            assertEquals( relationshipsInUse, countRecordsInUse( neoStores.getRelationshipStore() ) );
+        }
+
+        // WHEN migrating back out of the compact format
+        DatabaseLayout secondMigrationLayout = Neo4jLayout.of( testDirectory.homePath( MIGRATION_DIRECTORY + "-back" ) )
+                .databaseLayout( GraphDatabaseSettings.DEFAULT_DATABASE_NAME );
+        fs.mkdirs( secondMigrationLayout.databaseDirectory().toFile() );
+        String standardVersion = StandardV4_0.STORE_VERSION;
+        assertEquals( StoreVersionCheck.Outcome.ok, getVersionCheck( pageCache, databaseLayout ).checkUpgrade( standardVersion, NULL ).outcome );
+        migrator.migrate( databaseLayout, secondMigrationLayout, progressMonitor.startSection( "section" ), versionToMigrateTo, standardVersion );
+        migrator.moveMigratedFiles( secondMigrationLayout, databaseLayout, versionToMigrateTo, standardVersion );
+
+        // THEN the store should open in the standard format with all its entities
+        storeFactory = new StoreFactory(
+                databaseLayout, CONFIG, new ScanOnOpenOverwritingIdGeneratorFactory( fs ), pageCache, fs,
+                logService.getInternalLogProvider(), PageCacheTracer.NULL );
+        try ( NeoStores neoStores = storeFactory.openAllNeoStores() )
+        {
+            assertEquals( StandardV4_0.RECORD_FORMATS, neoStores.getRecordFormats() );
+            assertEquals( nodesInUse, countRecordsInUse( neoStores.getNodeStore() ) );
+            assertEquals( relationshipsInUse, countRecordsInUse( neoStores.getRelationshipStore() ) );
+        }
+        assertThat( logProvider ).forLevel( ERROR ).doesNotHaveAnyLogs();
+    }
+
     @ParameterizedTest
     @MethodSource( "versions" )
     void shouldBeAbleToResumeMigrationOnRebuildingCounts( String version, LogPosition expectedLogPosition, Function<TransactionId, Boolean> txIdComparator )
@@ -407,6 +476,20 @@ class RecordStorageMigratorIT
         }
     }
 
+    private static <R extends AbstractBaseRecord> long countRecordsInUse( RecordStore<R> store )
+    {
+        R record = store.newRecord();
+        long inUse = 0;
+        for ( long id = store.getNumberOfReservedLowIds(); id < store.getHighId(); id++ )
+        {
+            if ( store.getRecord( id, record, CHECK, NULL ).inUse() )
+            {
+                inUse++;
+            }
+        }
+        return inUse;
+    }
+
     private <T extends TokenRecord> void createTokens( TokenStore<T> tokenStore, int tokenCount )
     {
         T record = tokenStore.newRecord();
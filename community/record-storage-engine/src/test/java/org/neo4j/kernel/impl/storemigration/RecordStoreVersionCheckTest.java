@@ -33,6 +33,9 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_2;
+import org.neo4j.kernel.impl.store.format.standard.StandardV4_0;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.storageengine.api.StoreVersionCheck;
 import org.neo4j.storageengine.api.StoreVersionCheck.Outcome;
@@ -184,6 +187,41 @@ class RecordStoreVersionCheckTest
         assertEquals( storeVersion, result.actualVersion );
     }
 
+    @Test
+    void shouldAllowMigrationIntoConfiguredCompactFormat() throws IOException
+    {
+        // given
+        Path neoStore = emptyFile( fileSystem );
+        String storeVersion = StandardV4_0.STORE_VERSION;
+        MetaDataStore.setRecord( pageCache, neoStore, MetaDataStore.Position.STORE_VERSION, MetaDataStore.versionStringToLong( storeVersion ), NULL );
+        RecordStoreVersionCheck storeVersionCheck = newStoreVersionCheck();
+
+        // when
+        StoreVersionCheck.Result result = storeVersionCheck.checkUpgrade( CompactV4_2.RECORD_FORMATS.storeVersion(), NULL );
+
+        // then
+        assertEquals( Outcome.ok, result.outcome );
+        assertEquals( storeVersion, result.actualVersion );
+    }
+
+    @Test
+    void shouldAllowMigrationOutOfCompactFormat() throws IOException
+    {
+        // given
+        Path neoStore = emptyFile( fileSystem );
+        String storeVersion = CompactV4_2.RECORD_FORMATS.storeVersion();
+        MetaDataStore.setRecord( pageCache, neoStore, MetaDataStore.Position.STORE_VERSION, MetaDataStore.versionStringToLong( storeVersion ), NULL );
+        RecordStoreVersionCheck storeVersionCheck = newStoreVersionCheck();
+
+        // when
+        StoreVersionCheck.Result standardResult = storeVersionCheck.checkUpgrade( StandardV4_0.STORE_VERSION, NULL );
+        StoreVersionCheck.Result alignedResult = storeVersionCheck.checkUpgrade( PageAligned.LATEST_RECORD_FORMATS.storeVersion(), NULL );
+
+        // then
+        assertEquals( Outcome.ok, standardResult.outcome );
+        assertEquals( Outcome.ok, alignedResult.outcome );
+    }
+
     private Path emptyFile( FileSystemAbstraction fs ) throws IOException
     {
         Path shortFile = databaseLayout.metadataStore();
@@ -49,10 +49,12 @@ import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
 import org.neo4j.monitoring.PanicEventGenerator;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 
@@ -70,6 +72,7 @@ import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.imme
 public class RecordStorageEngineRule extends ExternalResource
 {
     private final LifeSupport life = new LifeSupport();
+    private final JobScheduler jobScheduler = life.add( new ThreadPoolJobScheduler() );
 
     @Override
     public void before() throws Throwable
@@ -94,7 +97,7 @@ public class RecordStorageEngineRule extends ExternalResource
         RecordStorageEngine engine =
                 new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, tokenHolders, mock( SchemaState.class ),
                         constraintSemantics, indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory,
-                        new DefaultIdController(), transactionApplierTransformer );
+                        new DefaultIdController(), jobScheduler, transactionApplierTransformer );
         engine.addIndexUpdateListener( indexUpdateListener );
         engine.addNodeLabelUpdateListener( nodeLabelUpdateListener );
         engine.addRelationshipTypeUpdateListener( relationshipTypeUpdateListener );
@@ -236,11 +239,11 @@ public class RecordStorageEngineRule extends ExternalResource
                 ConstraintRuleAccessor constraintSemantics,
                 IndexConfigCompleter indexConfigCompleter,
                 LockService lockService, Health databaseHealth,
-                IdGeneratorFactory idGeneratorFactory, IdController idController,
+                IdGeneratorFactory idGeneratorFactory, IdController idController, JobScheduler jobScheduler,
                 Function<TransactionApplierFactoryChain,TransactionApplierFactoryChain> transactionApplierTransformer )
         {
             super( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter, lockService,
-                    databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), PageCacheTracer.NULL, true,
+                    databaseHealth, idGeneratorFactory, idController, jobScheduler, RecoveryCleanupWorkCollector.immediate(), PageCacheTracer.NULL, true,
                     EmptyMemoryTracker.INSTANCE );
             this.transactionApplierTransformer = transactionApplierTransformer;
         }
@@ -30,4 +30,20 @@ public interface BatchImporter
 {
     void doImport( Input input )
             throws IOException;
+
+    /**
+     * Imports the given {@link Input} into a database which already exists and may contain data, appending to it.
+     * Input ids of relationships may refer to nodes that already exist in the database, as long as the input ids of those nodes
+     * are stored as properties, see {@link Input#idPropertyKeys()}. The appended data isn't in the transaction logs of the database,
+     * so they are deleted and the database starts over on new ones.
+     *
+     * @param input the data to append to the existing database.
+     * @param deleteTransactionLogs whether or not the transaction logs of the database may be deleted. The import fails, before anything in
+     * the database has been changed, if the database has transaction logs and this is {@code false}.
+     * @throws IOException on I/O error.
+     */
+    default void doIncrementalImport( Input input, boolean deleteTransactionLogs ) throws IOException
+    {
+        throw new UnsupportedOperationException( getClass().getSimpleName() + " doesn't support incremental import" );
+    }
 }
@@ -20,11 +20,14 @@
 package org.neo4j.internal.batchimport.input;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.neo4j.internal.batchimport.BatchImporter;
 import org.neo4j.internal.batchimport.InputIterable;
 import org.neo4j.internal.batchimport.InputIterator;
 
+import static java.util.Collections.emptyMap;
+
 /**
  * Unifies all data input given to a {@link BatchImporter} to allow for more coherent implementations.
  */
@@ -103,6 +106,16 @@ public interface Input
      */
     ReadableGroups groups();
 
+    /**
+     * @return names of the property keys that node input ids are also stored as, per {@link Group}, for the groups where input ids are
+     * stored as properties on the nodes. When importing into a database that already contains data this is how input ids of the
+     * existing nodes are found, so that relationships in this input can refer to them.
+     */
+    default Map<Group,String> idPropertyKeys()
+    {
+        return emptyMap();
+    }
+
     /**
      * @param valueSizeCalculator for calculating property sizes on disk.
      * @return {@link Estimates} for this input w/o reading through it entirely.
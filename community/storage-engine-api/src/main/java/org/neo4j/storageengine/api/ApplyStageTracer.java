@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+/**
+ * Gets told how much time a {@link StorageEngine} spent in each stage of applying a batch of transactions. What the stages are is up to
+ * the storage engine. Stages may run concurrently, so this can be called from several threads at the same time.
+ */
+public interface ApplyStageTracer
+{
+    ApplyStageTracer NULL = ( stage, elapsedNanos ) ->
+    {
+    };
+
+    /**
+     * @param stage name of the stage that completed.
+     * @param elapsedNanos time spent in the stage, in nanoseconds.
+     */
+    void stageApplied( String stage, long elapsedNanos );
+}
@@ -70,6 +70,12 @@ public interface CommandCreationContext extends AutoCloseable
      */
     int reserveRelationshipTypeTokenId();
 
+    /**
+     * Called when the transaction using this context has been closed, before the context is used by another transaction.
+     * Releases what was reserved on behalf of the transaction, but never used, e.g. ids.
+     */
+    void release();
+
     @Override
     void close();
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.storageengine.api;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+
 import java.io.IOException;
 import java.util.Collection;
 
@@ -113,6 +115,34 @@ public interface StorageEngine extends Lifecycle
      */
     void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception;
 
+    /**
+     * Apply a batch of groups of commands to this storage, telling the given tracer how long the stages of the application took.
+     *
+     * @param batch batch of groups of commands to apply to storage.
+     * @param mode {@link TransactionApplicationMode} when applying.
+     * @param tracer {@link ApplyStageTracer} to report the time spent in each stage to.
+     * @throws Exception if an error occurs during application.
+     */
+    default void apply( CommandsToApply batch, TransactionApplicationMode mode, ApplyStageTracer tracer ) throws Exception
+    {
+        apply( batch, mode );
+    }
+
+    /**
+     * Adds keys identifying the data that the given commands change to {@code changedKeys}. Transactions whose keys don't overlap
+     * can be applied concurrently, in any order, with the same result as applying them one after the other in commit order.
+     *
+     * @param commands the commands of one transaction.
+     * @param changedKeys set to add the keys to.
+     * @return {@code true} if the added keys fully describe what the commands change, or {@code false} if the transaction
+     * must be applied in isolation, e.g. because it changes schema or tokens which other transactions depend on.
+     * @throws IOException if the commands could not be read.
+     */
+    default boolean collectChangedKeys( CommandStream commands, MutableLongSet changedKeys ) throws IOException
+    {
+        return false;
+    }
+
     /**
      * Flushes and forces all changes down to underlying storage. This is a blocking call and when it returns
      * all changes applied to this storage engine will be durable.
@@ -40,6 +40,16 @@ public interface StorageEntityScanCursor<S extends Scan> extends StorageEntityCu
      */
     boolean scanBatch( S scan, int sizeHint );
 
+    /**
+     * Initializes this cursor to scan the entities with ids in the given range. Unlike {@link #scanBatch(Scan, int)} the caller
+     * decides the range, which lets multiple threads, each with a separate cursor, know exactly which ids they have covered.
+     *
+     * @param start first entity id to read.
+     * @param stopInclusive last entity id to read.
+     * @return <code>true</code> if there may be entities from <code>start</code> and onwards, otherwise <code>false</code>.
+     */
+    boolean scanRange( long start, long stopInclusive );
+
     /**
      * Initializes this cursor so that the next call to {@link #next()} will place this cursor at that entity.
      * @param reference entity to place this cursor at the next call to {@link #next()}.
@@ -33,6 +33,17 @@ public interface StoragePropertyCursor extends StorageCursor
      */
     void initNodeProperties( long reference );
 
+    /**
+     * Initializes this cursor to that reading node properties at the given {@code reference}, of the given node. Storage engines
+     * that cache properties by node can use the node reference to look them up.
+     * @param reference reference to start reading node properties at.
+     * @param nodeReference reference of the node these properties belong to.
+     */
+    default void initNodeProperties( long reference, long nodeReference )
+    {
+        initNodeProperties( reference );
+    }
+
     /**
      * Initializes this cursor to that reading relationship properties at the given {@code reference}.
      * @param reference reference to start reading relationship properties at.
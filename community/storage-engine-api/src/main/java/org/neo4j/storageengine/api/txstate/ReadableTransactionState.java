@@ -24,6 +24,7 @@ import org.eclipse.collections.impl.UnmodifiableMap;
 
 import java.util.Iterator;
 import java.util.NavigableMap;
+import java.util.function.LongConsumer;
 import javax.annotation.Nullable;
 
 import org.neo4j.exceptions.KernelException;
@@ -165,6 +166,33 @@ public interface ReadableTransactionState
      */
     long getDataRevision();
 
+    /**
+     * Visits the ids of the nodes that have been created, deleted, or had their labels or properties changed in this transaction, in the order of
+     * the changes, starting from the given position in the log of such changes. The same node can be visited more than once.
+     * <p>
+     * This allows state that is derived from the transaction state, like the transaction state of the fulltext schema indexes, to be updated
+     * incrementally by only looking at the nodes that changed since it was last updated.
+     * <p>
+     * The changes are only logged from the first call on. That, and any call with a position that is no longer known, visits all nodes changed
+     * so far in the transaction, in no particular order.
+     *
+     * @param fromPosition zero to visit all node changes, or a position returned from a previous call, to only visit the changes made since then.
+     * @param visitor receives the ids of the changed nodes.
+     * @return the position to pass in next time, to only visit node changes made after this call.
+     */
+    long visitChangedNodes( long fromPosition, LongConsumer visitor );
+
+    /**
+     * Visits the ids of the relationships that have been created, deleted, or had their properties changed in this transaction, in the order of
+     * the changes, starting from the given position in the log of such changes. The same relationship can be visited more than once.
+     *
+     * @param fromPosition zero to visit all relationship changes, or a position returned from a previous call, to only visit the changes made since then.
+     * @param visitor receives the ids of the changed relationships.
+     * @return the position to pass in next time, to only visit relationship changes made after this call.
+     * @see #visitChangedNodes(long, LongConsumer)
+     */
+    long visitChangedRelationships( long fromPosition, LongConsumer visitor );
+
     /**
      * @return {@code true} if there are any <em>data</em> changes in the transaction.
      */
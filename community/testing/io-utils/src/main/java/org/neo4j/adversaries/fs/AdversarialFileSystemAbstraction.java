@@ -86,6 +86,13 @@ public class AdversarialFileSystemAbstraction implements FileSystemAbstraction
         delegate.renameFile( from, to, copyOptions );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        adversary.injectFailure( NoSuchFileException.class, IOException.class, SecurityException.class );
+        delegate.forceDirectory( directory );
+    }
+
     @Override
     public OutputStream openAsOutputStream( File fileName, boolean append ) throws IOException
     {
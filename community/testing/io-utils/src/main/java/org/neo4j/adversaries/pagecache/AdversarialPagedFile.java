@@ -101,6 +101,13 @@ public class AdversarialPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class, IllegalStateException.class );
+        return delegate.touch( pageId, count, tracer );
+    }
+
     @Override
     public void close()
     {
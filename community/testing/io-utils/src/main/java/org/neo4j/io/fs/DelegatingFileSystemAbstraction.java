@@ -121,6 +121,12 @@ public class DelegatingFileSystemAbstraction implements FileSystemAbstraction
         delegate.renameFile( from, to, copyOptions );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        delegate.forceDirectory( directory );
+    }
+
     @Override
     public StoreChannel read( File fileName ) throws IOException
     {
@@ -370,6 +370,16 @@ public class EphemeralFileSystemAbstraction implements FileSystemAbstraction
         files.put( to, files.remove( from ) );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        // Directory entries are not lost in a simulated crash, so there's nothing to force
+        if ( !isDirectory( directory ) )
+        {
+            throw new NoSuchFileException( "'" + directory + "' is not a directory" );
+        }
+    }
+
     @Override
     public File[] listFiles( File directory )
     {
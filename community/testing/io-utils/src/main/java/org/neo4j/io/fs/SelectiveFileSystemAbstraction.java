@@ -151,6 +151,12 @@ public class SelectiveFileSystemAbstraction implements FileSystemAbstraction
         chooseFileSystem( from ).renameFile( from, to, copyOptions );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        chooseFileSystem( directory ).forceDirectory( directory );
+    }
+
     @Override
     public File[] listFiles( File directory )
     {
@@ -86,6 +86,12 @@ public class StubPagedFile implements PagedFile
         return lastPageId;
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer )
+    {
+        return (int) Math.max( 0, Math.min( count, lastPageId - pageId + 1 ) );
+    }
+
     @Override
     public void close()
     {
@@ -167,6 +167,12 @@ public abstract class FileSystemRule<FS extends FileSystemAbstraction> extends E
         fs.renameFile( from, to, copyOptions );
     }
 
+    @Override
+    public void forceDirectory( File directory ) throws IOException
+    {
+        fs.forceDirectory( directory );
+    }
+
     @Override
     public File[] listFiles( File directory )
     {
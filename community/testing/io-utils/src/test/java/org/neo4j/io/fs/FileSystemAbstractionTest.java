@@ -130,6 +130,27 @@ public abstract class FileSystemAbstractionTest
         }
     }
 
+    @Test
+    void forceDirectoryMustKeepRenamedFile() throws Exception
+    {
+        fsa.mkdirs( path );
+        File source = new File( path, "source" );
+        File target = new File( path, "target" );
+        fsa.write( source ).close();
+        fsa.renameFile( source, target );
+
+        fsa.forceDirectory( path );
+
+        assertFalse( fsa.fileExists( source ) );
+        assertTrue( fsa.fileExists( target ) );
+    }
+
+    @Test
+    void forceDirectoryMustThrowIfDirectoryDoesNotExist()
+    {
+        assertThrows( NoSuchFileException.class, () -> fsa.forceDirectory( path ) );
+    }
+
     @Test
     void moveToDirectoryMustMoveFile() throws Exception
     {
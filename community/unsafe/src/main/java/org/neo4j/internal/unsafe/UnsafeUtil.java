@@ -463,6 +463,24 @@ public final class UnsafeUtil
         memoryTracker.releaseNative( bytes );
     }
 
+    /**
+     * Make memory that wasn't allocated with {@link #allocateMemory}, e.g. a memory mapped file region, accessible through this class
+     * when native access checking is enabled. Must be paired with a call to {@link #unregisterExternalMemory(long)} before the memory
+     * is unmapped.
+     */
+    public static void registerExternalMemory( long pointer, long bytes )
+    {
+        addAllocatedPointer( pointer, bytes );
+    }
+
+    /**
+     * Counterpart of {@link #registerExternalMemory(long, long)}, to be called before the external memory is released by its owner.
+     */
+    public static void unregisterExternalMemory( long pointer )
+    {
+        checkFree( pointer );
+    }
+
     private static void addAllocatedPointer( long pointer, long sizeInBytes )
     {
         if ( CHECK_NATIVE_ACCESS )
@@ -31,9 +31,19 @@ public class LogEntryParserSetV4_0 extends LogEntryParserSet
 {
     public static final LogEntryParserSet V4_0 = new LogEntryParserSetV4_0();
 
+    /**
+     * Version of the command format, which later log entry versions that only change how entries are framed keep using.
+     */
+    static final byte COMMAND_FORMAT = 1;
+
     private LogEntryParserSetV4_0()
     {
-        super( (byte) 1 );
+        this( (byte) 1 );
+    }
+
+    LogEntryParserSetV4_0( byte version )
+    {
+        super( version );
         register( new LogEntryParser( LogEntryTypeCodes.TX_START )
         {
             @Override
@@ -56,7 +66,7 @@ public class LogEntryParserSetV4_0 extends LogEntryParserSet
             public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
                     throws IOException
             {
-                StorageCommand command = commandReaderFactory.get( version ).read( channel );
+                StorageCommand command = commandReaderFactory.get( COMMAND_FORMAT ).read( channel );
                 return command == null ? null : new LogEntryCommand( version, command );
             }
         } );
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadableChannel;
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReader;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Same entries as {@link LogEntryParserSetV4_0}, with the addition of {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entries,
+ * which carry all commands of a transaction as one zstd compressed block. The block is covered by the checksum of the transaction
+ * like any other entry, and the commands in it use the same command format as {@link LogEntryParserSetV4_0}.
+ * <p>
+ * A compressed commands entry is laid out as:
+ * <pre>
+ *     [version][type][uncompressed length:int][compressed length:int][compressed commands:bytes]
+ * </pre>
+ */
+public class LogEntryParserSetV4_2 extends LogEntryParserSetV4_0
+{
+    public static final LogEntryParserSet V4_2 = new LogEntryParserSetV4_2();
+    /**
+     * Transactions with more serialized commands than this are never compressed, which lets the reader reject longer lengths as corrupt.
+     */
+    public static final int MAX_UNCOMPRESSED_COMMANDS_SIZE = 256 * 1024 * 1024;
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+    private LogEntryParserSetV4_2()
+    {
+        super( (byte) 2 );
+        register( new LogEntryParser( LogEntryTypeCodes.COMPRESSED_COMMANDS )
+        {
+            @Override
+            public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
+                    throws IOException
+            {
+                int uncompressedLength = channel.getInt();
+                int compressedLength = channel.getInt();
+                if ( uncompressedLength <= 0 || uncompressedLength > MAX_UNCOMPRESSED_COMMANDS_SIZE )
+                {
+                    throw new IOException( "Invalid uncompressed length " + uncompressedLength + " of compressed commands, expected a length between 1 and " +
+                            MAX_UNCOMPRESSED_COMMANDS_SIZE );
+                }
+                if ( compressedLength <= 0 || compressedLength > Zstd.compressBound( uncompressedLength ) )
+                {
+                    throw new IOException( "Invalid compressed length " + compressedLength + " of " + uncompressedLength + " bytes of compressed commands" );
+                }
+                byte[] compressed = readCompressed( channel, compressedLength );
+                long frameContentSize = Zstd.decompressedSize( compressed );
+                if ( frameContentSize != uncompressedLength )
+                {
+                    throw new IOException( "Compressed commands claim to be " + uncompressedLength + " bytes uncompressed, but the compressed block says " +
+                            frameContentSize );
+                }
+                byte[] uncompressed = new byte[uncompressedLength];
+                long result = Zstd.decompressByteArray( uncompressed, 0, uncompressedLength, compressed, 0, compressedLength );
+                if ( Zstd.isError( result ) )
+                {
+                    throw new IOException( "Unable to decompress commands: " + Zstd.getErrorName( result ) );
+                }
+                if ( result != uncompressedLength )
+                {
+                    throw new IOException( "Expected " + uncompressedLength + " bytes of decompressed commands, but got " + result );
+                }
+
+                CommandReader commandReader = commandReaderFactory.get( COMMAND_FORMAT );
+                ByteBufferReadableChannel commandChannel = new ByteBufferReadableChannel( ByteBuffer.wrap( uncompressed ) );
+                List<LogEntryCommand> commands = new ArrayList<>();
+                while ( commandChannel.hasRemaining() )
+                {
+                    StorageCommand command = commandReader.read( commandChannel );
+                    if ( command == null )
+                    {
+                        break;
+                    }
+                    commands.add( new LogEntryCommand( version, command ) );
+                }
+                return new LogEntryCompressedCommands( version, commands );
+            }
+        } );
+    }
+
+    /**
+     * Reads the compressed block in chunks, so that a torn or corrupt entry at the end of a log runs into the end of the channel,
+     * rather than first allocating whatever length it claims to have.
+     */
+    private static byte[] readCompressed( ReadableChecksumChannel channel, int compressedLength ) throws IOException
+    {
+        if ( compressedLength <= READ_CHUNK_SIZE )
+        {
+            byte[] compressed = new byte[compressedLength];
+            channel.get( compressed, compressedLength );
+            return compressed;
+        }
+
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        byte[] compressed = new byte[READ_CHUNK_SIZE];
+        int read = 0;
+        while ( read < compressedLength )
+        {
+            int length = Math.min( compressedLength - read, READ_CHUNK_SIZE );
+            channel.get( chunk, length );
+            if ( compressed.length < read + length )
+            {
+                compressed = Arrays.copyOf( compressed, (int) Math.min( compressedLength, 2L * compressed.length ) );
+            }
+            System.arraycopy( chunk, 0, compressed, read, length );
+            read += length;
+        }
+        return compressed;
+    }
+
+    private static class ByteBufferReadableChannel implements ReadableChannel
+    {
+        private final ByteBuffer buffer;
+
+        ByteBufferReadableChannel( ByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining()
+        {
+            return buffer.hasRemaining();
+        }
+
+        @Override
+        public byte get()
+        {
+            return buffer.get();
+        }
+
+        @Override
+        public short getShort()
+        {
+            return buffer.getShort();
+        }
+
+        @Override
+        public int getInt()
+        {
+            return buffer.getInt();
+        }
+
+        @Override
+        public long getLong()
+        {
+            return buffer.getLong();
+        }
+
+        @Override
+        public float getFloat()
+        {
+            return buffer.getFloat();
+        }
+
+        @Override
+        public double getDouble()
+        {
+            return buffer.getDouble();
+        }
+
+        @Override
+        public void get( byte[] bytes, int length )
+        {
+            buffer.get( bytes, 0, length );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.neo4j.util.Preconditions;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV2_3.V2_3;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_0.V4_0;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
 
 /**
  * Sitting at the top of the log entry chain it's about time to explain the general architecture around log entry reading and justify its complications.
@@ -62,6 +63,10 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_0.
 public class LogEntryVersion
 {
     public static final LogEntryVersion INSTANCE = new LogEntryVersion();
+    /**
+     * The version written by default. {@link LogEntryParserSetV4_2} is only written when transaction commands are compressed,
+     * so that logs remain readable by versions that don't know about compressed entries unless asked otherwise.
+     */
     public static final LogEntryParserSet LATEST = V4_0;
 
     private final ByteObjectHashMap<LogEntryParserSet> sets;
@@ -71,6 +76,7 @@ public class LogEntryVersion
         sets = new ByteObjectHashMap<>();
         register( V2_3 );
         register( V4_0 );
+        register( V4_2 );
     }
 
     private void register( LogEntryParserSet set )
@@ -88,12 +94,12 @@ public class LogEntryVersion
             return set;
         }
 
-        if ( version > LATEST.version() )
+        if ( version > sets.keySet().max() )
         {
             throw new UnsupportedLogVersionException( String.format(
                     "Transaction logs contains entries with prefix %d, and the highest supported prefix is %d. This " +
                             "indicates that the log files originates from a newer version of neo4j.",
-                    version, LATEST.version() ) );
+                    version, sets.keySet().max() ) );
         }
         throw new UnsupportedLogVersionException( String.format(
                 "Transaction logs contains entries with prefix %d, and the lowest supported prefix is %d. This " +
@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.transaction.log.entry;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 
 import org.neo4j.io.fs.PositionableChannel;
 import org.neo4j.io.fs.ReadPastEndException;
@@ -45,6 +47,7 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     private final boolean verifyChecksumChain;
     private LogEntryParserSet parserSet = LogEntryVersion.LATEST;
     private int lastTxChecksum = BASE_TX_CHECKSUM;
+    private Iterator<LogEntryCommand> pendingCommands = Collections.emptyIterator();
 
     public VersionAwareLogEntryReader( CommandReaderFactory commandReaderFactory )
     {
@@ -62,6 +65,12 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     @Override
     public LogEntry readLogEntry( ReadableClosablePositionAwareChecksumChannel channel ) throws IOException
     {
+        if ( pendingCommands.hasNext() )
+        {
+            // Hand out the remaining commands of a compressed commands entry, those all share the position of that entry
+            return pendingCommands.next();
+        }
+
         try
         {
             while ( true )
@@ -115,6 +124,16 @@ public class VersionAwareLogEntryReader implements LogEntryReader
                     throw new IOException( e );
                 }
 
+                if ( entry instanceof LogEntryCompressedCommands )
+                {
+                    pendingCommands = ((LogEntryCompressedCommands) entry).getCommands().iterator();
+                    if ( !pendingCommands.hasNext() )
+                    {
+                        continue;
+                    }
+                    entry = pendingCommands.next();
+                }
+
                 verifyChecksumChain( entry );
                 return entry;
             }
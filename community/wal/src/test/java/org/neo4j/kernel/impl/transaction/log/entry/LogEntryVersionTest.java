@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV2_3.V2_3;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_0.V4_0;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.INSTANCE;
 
 class LogEntryVersionTest
@@ -36,6 +37,7 @@ class LogEntryVersionTest
     {
         assertEquals( V2_3, INSTANCE.select( V2_3.version() ) );
         assertEquals( V4_0, INSTANCE.select( V4_0.version() ) );
+        assertEquals( V4_2, INSTANCE.select( V4_2.version() ) );
     }
 
     @Test